@@ -13,6 +13,8 @@ import mil.tron.commonapi.annotation.minio.IfMinioEnabledOnIL4OrDevLocal;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
 
 @Slf4j
 @Configuration
@@ -61,4 +63,50 @@ public class DocumentSpaceConfig {
     	
     	return TransferManagerBuilder.standard().withS3Client(documentSpaceClient()).build();
     }
+
+    /**
+     * Runs the background copy/move jobs, each as the user that started it (so file system entries are attributed
+     * to them).  The queue is bounded so a burst of jobs is turned away rather than piling up.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor documentSpaceFileTransferExecutor(@Value("${minio.file-transfer-job-threads:2}") int threads,
+                                                                   @Value("${minio.file-transfer-job-queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("doc-space-transfer-");
+        executor.setTaskDecorator(DelegatingSecurityContextRunnable::new);
+        return executor;
+    }
+
+    /**
+     * Sends the multi-object deletes of a large delete in parallel.  Batches turned away by a full queue are sent by
+     * the deleting thread itself (see DocumentSpaceServiceImpl#deleteS3Objects).
+     */
+    @Bean
+    public ThreadPoolTaskExecutor documentSpaceDeleteExecutor(@Value("${minio.delete-threads:4}") int threads,
+                                                             @Value("${minio.delete-queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("doc-space-delete-");
+        return executor;
+    }
+
+    /**
+     * Builds cached folder zips in the background.  A download that finds the queue full just isn't cached,
+     * the next download of the folder tries again.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor documentSpaceArchiveExecutor(@Value("${document-space.archive-cache.threads:1}") int threads,
+                                                              @Value("${document-space.archive-cache.queue-capacity:20}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("doc-space-archive-");
+        return executor;
+    }
 }
@@ -0,0 +1,38 @@
+package mil.tron.commonapi;
+
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.web.client.RestTemplate;
+
+@Configuration
+public class PuckboardConfig {
+
+    /**
+     * Named so it's visible for binding a mock server to in the unit tests
+     *
+     * @param builder
+     * @return
+     */
+    @Bean("puckboardFetcher")
+    public RestTemplate puckboardFetcher(RestTemplateBuilder builder) {
+        return builder.build();
+    }
+
+    /**
+     * A single thread so two syncs never race each other, each job runs as the user that started it.  Only one
+     * job is ever in flight so there's no need for more than a slot of queue.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor puckboardEtlExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("puckboard-etl-");
+        executor.setTaskDecorator(DelegatingSecurityContextRunnable::new);
+        return executor;
+    }
+}
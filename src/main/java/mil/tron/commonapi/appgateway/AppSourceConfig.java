@@ -126,6 +126,14 @@ public class AppSourceConfig {
         return false;
     }
 
+    /**
+     * Removes a source def mapping from the map
+     * @param appSourcePath
+     */
+    public void removeAppSourcePathMapping(String appSourcePath) {
+        this.appSourcePathToDefinitionMap.remove(appSourcePath);
+    }
+
     public void clearAppSourceDefs() {
         this.appSourcePathToDefinitionMap.clear();
     }
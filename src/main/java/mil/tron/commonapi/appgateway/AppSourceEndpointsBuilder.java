@@ -2,13 +2,25 @@ package mil.tron.commonapi.appgateway;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
@@ -23,16 +35,22 @@ import io.swagger.v3.parser.OpenAPIV3Parser;
 import io.swagger.v3.parser.core.models.SwaggerParseResult;
 import lombok.extern.slf4j.Slf4j;
 import mil.tron.commonapi.ApplicationProperties;
-import mil.tron.commonapi.controller.AppGatewayController;
+import mil.tron.commonapi.controller.AppGatewayDispatchController;
 import mil.tron.commonapi.entity.appsource.AppEndpoint;
 import mil.tron.commonapi.entity.appsource.AppSource;
+import mil.tron.commonapi.entity.appsource.AppSourceSpecIndex;
 import mil.tron.commonapi.repository.appsource.AppEndpointRepository;
+import mil.tron.commonapi.repository.appsource.AppSourceSpecIndexRepository;
 
 @Service
 @Slf4j
 public class AppSourceEndpointsBuilder {
 
-    private AppGatewayController queryController;
+    private static final RequestMethod[] GATEWAY_METHODS = {
+        RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE, RequestMethod.PATCH
+    };
+
+    private AppGatewayDispatchController dispatchController;
 
     private RequestMappingHandlerMapping requestMappingHandlerMapping;
 
@@ -44,85 +62,189 @@ public class AppSourceEndpointsBuilder {
     private ApplicationProperties versionProperties;
 
     private AppGatewayRouteBuilder appGatewayRouteBuilder;
+
+    private GatewayRouteTable gatewayRouteTable;
+
+    private AppSourceSpecIndexRepository appSourceSpecIndexRepository;
     
     @Autowired
     AppSourceEndpointsBuilder(RequestMappingHandlerMapping requestMappingHandlerMapping,
-                              AppGatewayController queryController,
+                              AppGatewayDispatchController dispatchController,
                               AppSourceConfig appSourceConfig,
                               AppEndpointRepository appEndpointRepository,
                               ApplicationProperties versionProperties,
-                              AppGatewayRouteBuilder appGatewayRouteBuilder
+                              AppGatewayRouteBuilder appGatewayRouteBuilder,
+                              GatewayRouteTable gatewayRouteTable,
+                              AppSourceSpecIndexRepository appSourceSpecIndexRepository
 
     ) {
         this.requestMappingHandlerMapping = requestMappingHandlerMapping;
-        this.queryController = queryController;
+        this.dispatchController = dispatchController;
         this.appSourceConfig = appSourceConfig;
         this.versionProperties = versionProperties;
         this.appEndpointRepository = appEndpointRepository;
         this.appGatewayRouteBuilder = appGatewayRouteBuilder;
+        this.gatewayRouteTable = gatewayRouteTable;
+        this.appSourceSpecIndexRepository = appSourceSpecIndexRepository;
+        this.addDispatchMappings();
         this.createAppSourceEndpoints(this.appSourceConfig);
     }
 
+    /**
+     * Maps everything under each app source prefix to the gateway's dispatcher, which finds the endpoint
+     * requested in the {@link GatewayRouteTable}.  App sources are then made routable by registering their
+     * endpoints in the route table, leaving the Spring MVC mappings alone.
+     */
+    private void addDispatchMappings() {
+        try {
+            for (String prefix : this.versionProperties.getCombinedPrefixes()) {
+                RequestMappingInfo requestMappingInfo = RequestMappingInfo
+                    .paths(prefix + "/**")
+                    .methods(GATEWAY_METHODS)
+                    .produces(MediaType.APPLICATION_JSON_VALUE)
+                    .build();
+
+                requestMappingHandlerMapping.registerMapping(requestMappingInfo, dispatchController,
+                        AppGatewayDispatchController.class.getDeclaredMethod("dispatch", HttpServletRequest.class, HttpServletResponse.class));
+            }
+        }
+        catch (NoSuchMethodException e) {
+            log.warn("Unable to map app source path to a controller handler.", e);
+        }
+    }
+
     private void createAppSourceEndpoints(AppSourceConfig appSourceConfig) {
         Map<AppSourceInterfaceDefinition, AppSource> appDefs = appSourceConfig.getAppSourceDefs();
         if (appDefs.keySet().size() == 0) {
             log.warn("No AppSource Definitions were found.");
             return;
         }
-        for (AppSourceInterfaceDefinition appDef : appDefs.keySet()) {
-            this.initializeWithAppSourceDef(appDef, appDefs.get(appDef));
+
+        // parse all the specs at once, the endpoints are then registered one app source at a time
+        ExecutorService parseExecutor = Executors.newFixedThreadPool(
+                Math.min(appDefs.size(), Runtime.getRuntime().availableProcessors()));
+        try {
+            Map<AppSourceInterfaceDefinition, Future<List<AppSourceEndpoint>>> parsedSpecs = new LinkedHashMap<>();
+            for (AppSourceInterfaceDefinition appDef : appDefs.keySet()) {
+                parsedSpecs.put(appDef, parseExecutor.submit(() -> this.parseAppSourceEndpoints(appDef.getOpenApiSpecFilename())));
+            }
+
+            for (Map.Entry<AppSourceInterfaceDefinition, Future<List<AppSourceEndpoint>>> parsedSpec : parsedSpecs.entrySet()) {
+                AppSourceInterfaceDefinition appDef = parsedSpec.getKey();
+                try {
+                    this.initializeWithEndpoints(appDef, appDefs.get(appDef), parsedSpec.getValue().get());
+                }
+                catch (ExecutionException e) {
+                    if (!(e.getCause() instanceof IOException)) {
+                        throw new IllegalStateException(String.format("Could not parse the spec for %s", appDef.getName()), e.getCause());
+                    }
+                    this.logSpecNotLoaded(appDef, (IOException) e.getCause());
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while loading app source endpoints.", e);
+        }
+        finally {
+            parseExecutor.shutdownNow();
         }
     }
 
     public void initializeWithAppSourceDef(AppSourceInterfaceDefinition appDef, AppSource appSource) {
         try {
-            List<AppSourceEndpoint> appSourceEndpoints = this.parseAppSourceEndpoints(appDef.getOpenApiSpecFilename());
-             boolean newMapping = this.appSourceConfig.addAppSourcePathToDefMapping(appDef.getAppSourcePath(),
-                     appDef);
-            
-            // Register Camel routes for each individual App Source
-            appGatewayRouteBuilder.createGatewayRoute(appDef.getAppSourcePath());
-            
-            if (newMapping) {
-                for (AppSourceEndpoint appEndpoint: appSourceEndpoints) {
-                    for(String prefix : this.versionProperties.getCombinedPrefixes()) {
-                        this.addMapping(appDef.getAppSourcePath(), appEndpoint, prefix);
-                    }
-                    this.addEndpointToSource(appEndpoint, appSource);
-                }
+            this.initializeWithEndpoints(appDef, appSource, this.parseAppSourceEndpoints(appDef.getOpenApiSpecFilename()));
+        }
+        catch (IOException e) {
+            this.logSpecNotLoaded(appDef, e);
+        }
+    }
+
+    private void initializeWithEndpoints(AppSourceInterfaceDefinition appDef, AppSource appSource, List<AppSourceEndpoint> appSourceEndpoints) {
+        // an app source that moved to a new path stops being routed on its old one
+        List<String> previousPaths = this.appSourceConfig.getPathToDefinitionMap().entrySet().stream()
+                .filter(mapping -> !mapping.getKey().equals(appDef.getAppSourcePath())
+                        && StringUtils.equalsIgnoreCase(mapping.getValue().getName(), appDef.getName()))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        for (String previousPath : previousPaths) {
+            this.appSourceConfig.removeAppSourcePathMapping(previousPath);
+            this.gatewayRouteTable.remove(previousPath);
+        }
+
+        boolean newMapping = this.appSourceConfig.addAppSourcePathToDefMapping(appDef.getAppSourcePath(),
+                appDef);
+
+        // Register Camel routes for each individual App Source
+        appGatewayRouteBuilder.createGatewayRoute(appDef.getAppSourcePath());
+
+        // (re)compile the app source's endpoints, unless its path belongs to another definition
+        if (newMapping || appDef.equals(this.appSourceConfig.getPathToDefinitionMap().get(appDef.getAppSourcePath()))) {
+            this.gatewayRouteTable.register(appDef.getAppSourcePath(), appSourceEndpoints);
+        }
+
+        if (newMapping) {
+            for (AppSourceEndpoint appEndpoint: appSourceEndpoints) {
+                this.addEndpointToSource(appEndpoint, appSource);
             }
-            setUnusedFlagOnEndpointsNotInSpec(appSourceEndpoints, appSource);
         }
-        catch (FileNotFoundException e) {
+        setUnusedFlagOnEndpointsNotInSpec(appSourceEndpoints, appSource);
+    }
+
+    private void logSpecNotLoaded(AppSourceInterfaceDefinition appDef, IOException e) {
+        if (e instanceof FileNotFoundException) {
             log.warn(String.format("Endpoints for %s could not be loaded from %s. File not found.", appDef.getName(),
                     appDef.getOpenApiSpecFilename()), e);
         }
-        catch (IOException e) {
+        else {
             log.warn(String.format("Endpoints for %s could not be loaded from %s", appDef.getName(),
                     appDef.getOpenApiSpecFilename()), e);
         }
-        catch (NoSuchMethodException e) {
-            log.warn("Unable to map app source path to a controller handler.", e);
-        }
     }
 
     private void setUnusedFlagOnEndpointsNotInSpec(List<AppSourceEndpoint> appSourceEndpoints, AppSource appSource) {
-        List<AppEndpoint> unusedEndpoints = appSource.getAppEndpoints().parallelStream()
-            .filter(item -> appSourceEndpoints.stream()
-                    .noneMatch(appSourceEndpoint -> item.getPath().equals(appSourceEndpoint.getPath()) && item.getMethod().equals(appSourceEndpoint.getMethod())))
+        Set<AppSourceEndpoint> specEndpoints = new HashSet<>(appSourceEndpoints);
+        List<AppEndpoint> unusedEndpoints = appSource.getAppEndpoints().stream()
+            .filter(item -> !item.isDeleted() && !specEndpoints.contains(new AppSourceEndpoint(item.getPath(), item.getMethod())))
             .map(item -> {
                 item.setDeleted(true);
                 return item;
             })
             .collect(Collectors.toList());
-        appEndpointRepository.saveAll(unusedEndpoints);
+        if (!unusedEndpoints.isEmpty()) {
+            appEndpointRepository.saveAll(unusedEndpoints);
+        }
     }
 
+    /**
+     * Gets the endpoints of an app source's OpenAPI spec.  Specs are only parsed when their contents
+     * haven't been seen before, otherwise the endpoints are read back from the index saved the first
+     * time round (keyed by a hash of the spec file).
+     * @param openApiFilename the spec file, relative to appsourceapis/ on the classpath
+     * @return the endpoints of the spec
+     * @throws IOException if the spec can't be read
+     */
     public List<AppSourceEndpoint> parseAppSourceEndpoints(String openApiFilename) throws IOException {
         Resource apiResource = new ClassPathResource("appsourceapis/" + openApiFilename);
+        String specHash;
+        try (InputStream in = apiResource.getInputStream()) {
+            specHash = DigestUtils.sha256Hex(in);
+        }
+
+        Optional<AppSourceSpecIndex> specIndex = Optional.empty();
+        try {
+            specIndex = this.appSourceSpecIndexRepository.findById(specHash);
+        }
+        catch (Exception e) {
+            log.warn(String.format("Unable to look up the endpoint index for %s.", openApiFilename), e);
+        }
+        if (specIndex.isPresent()) {
+            return decodeSpecIndex(specIndex.get().getEndpoints());
+        }
+
         SwaggerParseResult result = new OpenAPIV3Parser().readLocation(apiResource.getURI().toString(),
                 null, null);
-        return result.getOpenAPI().getPaths().entrySet().stream()
+        List<AppSourceEndpoint> endpoints = result.getOpenAPI().getPaths().entrySet().stream()
                 .map(path -> {
                     String pathString = path.getKey();
                     // get operations from paths.. .readOperations
@@ -132,6 +254,35 @@ public class AppSourceEndpointsBuilder {
                                     AppSourceEndpointsBuilder.convertMethod(method)))
                             .collect(Collectors.toList());
                 }).flatMap(List::stream).collect(Collectors.toList());
+
+        try {
+            this.appSourceSpecIndexRepository.save(AppSourceSpecIndex.builder()
+                    .specHash(specHash)
+                    .endpoints(encodeSpecIndex(endpoints))
+                    .build());
+        }
+        catch (Exception e) {
+            // most likely another instance indexed the same spec at the same time
+            log.warn(String.format("Unable to save the endpoint index for %s.", openApiFilename), e);
+        }
+        return endpoints;
+    }
+
+    private static String encodeSpecIndex(List<AppSourceEndpoint> endpoints) {
+        return endpoints.stream()
+                .map(endpoint -> endpoint.getMethod().name() + " " + endpoint.getPath())
+                .collect(Collectors.joining("\n"));
+    }
+
+    private static List<AppSourceEndpoint> decodeSpecIndex(String specIndex) {
+        return Arrays.stream(specIndex.split("\n"))
+                .filter(line -> !line.isEmpty())
+                .map(line -> {
+                    int separator = line.indexOf(' ');
+                    return new AppSourceEndpoint(line.substring(separator + 1),
+                            RequestMethod.valueOf(line.substring(0, separator)));
+                })
+                .collect(Collectors.toList());
     }
 
     public static RequestMethod convertMethod(PathItem.HttpMethod swaggerHttpMethod) {
@@ -159,27 +310,6 @@ public class AppSourceEndpointsBuilder {
         return converted;
     }
 
-    private void addMapping(String appSourcePath, AppSourceEndpoint endpoint, String prefix) throws NoSuchMethodException {
-
-        RequestMappingInfo requestMappingInfo = RequestMappingInfo
-            .paths(String.format("%s/%s%s",
-                prefix,
-                appSourcePath,
-                endpoint.getPath()))
-            .methods(endpoint.getMethod())
-            .produces(MediaType.APPLICATION_JSON_VALUE)
-            .build();
-
-        if (endpoint.getMethod().equals(RequestMethod.GET)) {
-        	requestMappingHandlerMapping.registerMapping(requestMappingInfo, queryController,
-        			AppGatewayController.class.getDeclaredMethod("handleCachedRequests", HttpServletRequest.class, HttpServletResponse.class, Map.class));
-        } else {
-            requestMappingHandlerMapping.registerMapping(requestMappingInfo, queryController,
-                    AppGatewayController.class.getDeclaredMethod("handleRequests", HttpServletRequest.class, HttpServletResponse.class, Map.class));
-        }
-	      
-    }
-
     private void addEndpointToSource(AppSourceEndpoint endpoint, AppSource appSource) {
         AppEndpoint appEndpoint = appEndpointRepository.findByAppSourceEqualsAndMethodEqualsAndPathEquals(appSource, endpoint.getMethod(), endpoint.getPath())
             .orElse(AppEndpoint.builder()
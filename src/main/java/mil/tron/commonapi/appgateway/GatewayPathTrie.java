@@ -0,0 +1,200 @@
+package mil.tron.commonapi.appgateway;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.RequestMethod;
+
+import lombok.Value;
+
+/**
+ * The endpoints of a single app source compiled into a tree keyed by path segment, so that finding the
+ * endpoint a gateway request is for only costs one step per segment of the request path however many
+ * endpoints the app source has.
+ *
+ * Segments follow the OpenAPI path template syntax - a segment such as {@code {id}} or {@code flyer-{id}}
+ * matches any value and captures it as a path variable.  Literal segments are preferred over templated
+ * ones when both match.
+ *
+ * A compiled trie is never modified, to change the endpoints of an app source compile a new one.
+ */
+public class GatewayPathTrie {
+
+    private static final Pattern VARIABLE = Pattern.compile("\\{([^/{}]+)}");
+
+    private final Node root = new Node(null, Collections.emptyList());
+
+    private GatewayPathTrie() {}
+
+    /**
+     * Compiles the given endpoints into a trie
+     * @param endpoints the endpoints (path templates relative to the app source, ie "/jobRole/{id}")
+     * @return the compiled trie
+     */
+    public static GatewayPathTrie compile(Collection<AppSourceEndpoint> endpoints) {
+        GatewayPathTrie trie = new GatewayPathTrie();
+        for (AppSourceEndpoint endpoint : endpoints) {
+            trie.add(endpoint.getPath(), endpoint.getMethod());
+        }
+        return trie;
+    }
+
+    private void add(String template, RequestMethod method) {
+        Node node = root;
+        for (String segment : split(template)) {
+            node = node.child(segment);
+        }
+        if (node.template == null) {
+            node.template = normalize(template);
+        }
+        node.methods.add(method);
+    }
+
+    /**
+     * Finds the endpoint the given path and method are for
+     * @param path path of the request relative to the app source (ie "/jobRole/1")
+     * @param method method of the request
+     * @return the endpoint matched, along with the values of its path variables
+     */
+    public Optional<Match> find(String path, RequestMethod method) {
+        Map<String, String> variables = new LinkedHashMap<>();
+        Node node = root.find(split(path), 0, method, variables);
+        return node == null ? Optional.empty() : Optional.of(new Match(node.template, variables));
+    }
+
+    /**
+     * @param path path of a request relative to the app source
+     * @return the methods any endpoint matching the path allows, empty if no endpoint matches the path
+     */
+    public Set<RequestMethod> allowedMethods(String path) {
+        Set<RequestMethod> methods = EnumSet.noneOf(RequestMethod.class);
+        root.collectMethods(split(path), 0, methods);
+        return methods;
+    }
+
+    private static String[] split(String path) {
+        return StringUtils.tokenizeToStringArray(path, "/", false, true);
+    }
+
+    private static String normalize(String template) {
+        return "/" + String.join("/", split(template));
+    }
+
+    /**
+     * An endpoint matched by {@link #find(String, RequestMethod)}
+     */
+    @Value
+    public static class Match {
+        /**
+         * Path template of the endpoint matched (ie "/jobRole/{id}")
+         */
+        String template;
+
+        /**
+         * Values of the template's path variables
+         */
+        Map<String, String> variables;
+    }
+
+    private static class Node {
+        /**
+         * Matches this node's segment, null for a literal segment (or the root)
+         */
+        private final Pattern pattern;
+        private final List<String> variableNames;
+
+        private final Map<String, Node> literalChildren = new HashMap<>();
+        private final Map<String, Node> templatedChildren = new LinkedHashMap<>();
+
+        private final Set<RequestMethod> methods = EnumSet.noneOf(RequestMethod.class);
+        private String template;
+
+        private Node(Pattern pattern, List<String> variableNames) {
+            this.pattern = pattern;
+            this.variableNames = variableNames;
+        }
+
+        private Node child(String segment) {
+            Matcher variable = VARIABLE.matcher(segment);
+            if (!variable.find()) {
+                return literalChildren.computeIfAbsent(segment, s -> new Node(null, Collections.emptyList()));
+            }
+
+            return templatedChildren.computeIfAbsent(segment, s -> {
+                List<String> names = new ArrayList<>();
+                StringBuilder regex = new StringBuilder();
+                int literalStart = 0;
+                variable.reset();
+                while (variable.find()) {
+                    regex.append(Pattern.quote(s.substring(literalStart, variable.start()))).append("(.+?)");
+                    names.add(variable.group(1));
+                    literalStart = variable.end();
+                }
+                regex.append(Pattern.quote(s.substring(literalStart)));
+                return new Node(Pattern.compile(regex.toString()), names);
+            });
+        }
+
+        private boolean capture(String segment, Map<String, String> variables) {
+            Matcher matcher = pattern.matcher(segment);
+            if (!matcher.matches()) return false;
+
+            for (int i = 0; i < variableNames.size(); i++) {
+                variables.put(variableNames.get(i), matcher.group(i + 1));
+            }
+            return true;
+        }
+
+        private Node find(String[] segments, int index, RequestMethod method, Map<String, String> variables) {
+            if (index == segments.length) {
+                return methods.contains(method) ? this : null;
+            }
+
+            Node literal = literalChildren.get(segments[index]);
+            if (literal != null) {
+                Node found = literal.find(segments, index + 1, method, variables);
+                if (found != null) return found;
+            }
+
+            for (Node templated : templatedChildren.values()) {
+                Map<String, String> captured = new LinkedHashMap<>(variables);
+                if (templated.capture(segments[index], captured)) {
+                    Node found = templated.find(segments, index + 1, method, captured);
+                    if (found != null) {
+                        variables.putAll(captured);
+                        return found;
+                    }
+                }
+            }
+            return null;
+        }
+
+        private void collectMethods(String[] segments, int index, Set<RequestMethod> collected) {
+            if (index == segments.length) {
+                collected.addAll(methods);
+                return;
+            }
+
+            Node literal = literalChildren.get(segments[index]);
+            if (literal != null) {
+                literal.collectMethods(segments, index + 1, collected);
+            }
+            for (Node templated : templatedChildren.values()) {
+                if (templated.pattern.matcher(segments[index]).matches()) {
+                    templated.collectMethods(segments, index + 1, collected);
+                }
+            }
+        }
+    }
+}
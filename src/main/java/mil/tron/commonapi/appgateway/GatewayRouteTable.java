@@ -0,0 +1,43 @@
+package mil.tron.commonapi.appgateway;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Service;
+
+/**
+ * The compiled endpoints ({@link GatewayPathTrie}) of every app source the gateway routes to, keyed by
+ * app source path.  An app source's endpoints are swapped out in one go when it is registered again, so
+ * requests in flight see either the old endpoints or the new ones, never a mix of both.
+ */
+@Service
+public class GatewayRouteTable {
+
+    private final Map<String, GatewayPathTrie> routes = new ConcurrentHashMap<>();
+
+    /**
+     * Compiles the endpoints of an app source and makes them routable, replacing any it had before
+     * @param appSourcePath path of the app source
+     * @param endpoints the app source's endpoints
+     */
+    public void register(String appSourcePath, Collection<AppSourceEndpoint> endpoints) {
+        routes.put(appSourcePath, GatewayPathTrie.compile(endpoints));
+    }
+
+    /**
+     * Stops routing to an app source
+     * @param appSourcePath path of the app source
+     */
+    public void remove(String appSourcePath) {
+        routes.remove(appSourcePath);
+    }
+
+    /**
+     * @param appSourcePath path of the app source
+     * @return the app source's compiled endpoints, null if it isn't routable
+     */
+    public GatewayPathTrie get(String appSourcePath) {
+        return routes.get(appSourcePath);
+    }
+}
@@ -0,0 +1,100 @@
+package mil.tron.commonapi.controller;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.HttpRequestMethodNotSupportedException;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.NoHandlerFoundException;
+import org.springframework.web.util.UrlPathHelper;
+
+import mil.tron.commonapi.appgateway.GatewayPathTrie;
+import mil.tron.commonapi.appgateway.GatewayRouteTable;
+import mil.tron.commonapi.exception.InvalidAppSourcePermissions;
+
+/**
+ * Single handler for every app source endpoint.  It is mapped once per api prefix (ie /v1/app/**) and looks
+ * the request up in the {@link GatewayRouteTable} rather than having a Spring MVC mapping per endpoint, then
+ * hands it to the {@link AppGatewayController} as if that endpoint had been mapped directly.
+ */
+@Controller
+public class AppGatewayDispatchController {
+
+    private static final PathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private AppGatewayController appGatewayController;
+
+    private GatewayRouteTable gatewayRouteTable;
+
+    @Autowired
+    AppGatewayDispatchController(AppGatewayController appGatewayController, GatewayRouteTable gatewayRouteTable) {
+        this.appGatewayController = appGatewayController;
+        this.gatewayRouteTable = gatewayRouteTable;
+    }
+
+    public ResponseEntity<byte[]> dispatch(HttpServletRequest requestObject, HttpServletResponse responseObject) //NOSONAR
+            throws ResponseStatusException,
+                    IOException,
+                    InvalidAppSourcePermissions,
+                    NoHandlerFoundException,
+                    HttpRequestMethodNotSupportedException {
+
+        // the catch-all pattern that matched is the api prefix followed by /**
+        String prefixPattern = (String) requestObject.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String pathWithinPrefix = PATH_MATCHER.extractPathWithinPattern(prefixPattern,
+                UrlPathHelper.getResolvedLookupPath(requestObject));
+
+        int separator = pathWithinPrefix.indexOf('/');
+        GatewayPathTrie endpoints = separator > 0 ? gatewayRouteTable.get(pathWithinPrefix.substring(0, separator)) : null;
+        if (endpoints == null) {
+            throw noHandlerFound(requestObject);
+        }
+
+        String appSourcePath = pathWithinPrefix.substring(0, separator);
+        String endpointPath = pathWithinPrefix.substring(separator);
+        // HEAD requests are answered by the GET endpoint, as they would be with a regular request mapping
+        RequestMethod method = RequestMethod.valueOf(requestObject.getMethod());
+        if (method == RequestMethod.HEAD) {
+            method = RequestMethod.GET;
+        }
+        Optional<GatewayPathTrie.Match> match = endpoints.find(endpointPath, method);
+
+        if (match.isEmpty()) {
+            Set<RequestMethod> allowed = endpoints.allowedMethods(endpointPath);
+            if (allowed.isEmpty()) {
+                throw noHandlerFound(requestObject);
+            }
+            throw new HttpRequestMethodNotSupportedException(requestObject.getMethod(),
+                    allowed.stream().map(RequestMethod::name).collect(Collectors.toSet()));
+        }
+
+        // expose the endpoint matched the same way a regular request mapping would have
+        Map<String, String> vars = match.get().getVariables();
+        requestObject.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE,
+                prefixPattern.substring(0, prefixPattern.length() - 2) + appSourcePath + match.get().getTemplate());
+        requestObject.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, vars);
+
+        if (method == RequestMethod.GET) {
+            return appGatewayController.handleCachedRequests(requestObject, responseObject, vars);
+        }
+        return appGatewayController.handleRequests(requestObject, responseObject, vars);
+    }
+
+    private NoHandlerFoundException noHandlerFound(HttpServletRequest request) {
+        return new NoHandlerFoundException(request.getMethod(), request.getRequestURI(), new HttpHeaders());
+    }
+}
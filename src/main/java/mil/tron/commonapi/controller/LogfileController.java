@@ -1,5 +1,8 @@
 package mil.tron.commonapi.controller;
 
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Pattern;
+
 import javax.servlet.http.HttpServletRequest;
 
 import org.springframework.core.io.Resource;
@@ -9,11 +12,14 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.google.common.net.HttpHeaders;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -27,6 +33,11 @@ import mil.tron.commonapi.service.LogfileService;
 @RestController
 @RequestMapping({"${api-prefix.v1}/logfile", "${api-prefix.v2}/logfile"})
 public class LogfileController {
+	/**
+	 * Matches the logfile download endpoints (not the listing), which stream their responses
+	 */
+	public static final Pattern LOGFILE_DOWNLOAD_PATTERN = Pattern.compile("\\/v[\\d]\\/logfile\\/.+");
+
 	private LogfileService service;
 	
 	public LogfileController(LogfileService service) {
@@ -64,13 +75,44 @@ public class LogfileController {
 	})
 	@PreAuthorizeDashboardAdmin
 	@GetMapping("/{fileName:.+}")
-	public ResponseEntity<Resource> getLogfile(@PathVariable String fileName, HttpServletRequest request) {
+	public ResponseEntity<StreamingResponseBody> getLogfile(@PathVariable String fileName, HttpServletRequest request) {
 		Resource resource = service.getLogfileResource(fileName);
+		StreamingResponseBody body = out -> service.writeLogfile(resource, out);
 			
 		return ResponseEntity
 			.ok()
 			.contentType(MediaType.parseMediaType("application/gzip"))
 			.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + service.getLogfileResourceName(resource) + "\"")
-			.body(resource);
+			.body(body);
+	}
+
+	@Operation(summary = "Retrieves the end of a logfile", 
+			description = "Retrieves the last bytes or lines of an uncompressed logfile (the last 100 lines if neither is given), "
+					+ "optionally only the lines containing the given filter")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", 
+				description = "Successful operation"),
+			@ApiResponse(responseCode = "400",
+				description = "Bad request - invalid bytes or lines, or the logfile is compressed",
+				content = @Content(schema = @Schema(implementation = ExceptionResponse.class))),
+			@ApiResponse(responseCode = "404",
+				description = "File not found",
+				content = @Content(schema = @Schema(implementation = ExceptionResponse.class))),
+			@ApiResponse(responseCode = "403",
+				description = "Forbidden (Requires DASHBOARD_ADMIN privilege)",
+				content = @Content(schema = @Schema(implementation = ExceptionResponse.class)))
+	})
+	@PreAuthorizeDashboardAdmin
+	@GetMapping("/{fileName:.+}/tail")
+	public ResponseEntity<StreamingResponseBody> getLogfileTail(@PathVariable String fileName,
+			@Parameter(description = "Number of bytes from the end of the logfile to return") @RequestParam(required = false) Long bytes,
+			@Parameter(description = "Number of lines from the end of the logfile to return (at most 10000)") @RequestParam(required = false) Integer lines,
+			@Parameter(description = "Only return lines containing this") @RequestParam(required = false) String filter) {
+		StreamingResponseBody body = service.tailLogfile(fileName, bytes, lines, filter);
+
+		return ResponseEntity
+			.ok()
+			.contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+			.body(body);
 	}
 }
@@ -2,6 +2,7 @@ package mil.tron.commonapi.controller;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.github.fge.jsonpatch.JsonPatch;
+import com.google.common.collect.Lists;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.headers.Header;
@@ -16,6 +17,7 @@ import mil.tron.commonapi.annotation.security.PreAuthorizeOrganizationDelete;
 import mil.tron.commonapi.annotation.security.PreAuthorizeOrganizationEdit;
 import mil.tron.commonapi.annotation.security.PreAuthorizeOrganizationRead;
 import mil.tron.commonapi.dto.FilterDto;
+import mil.tron.commonapi.dto.OrganizationBulkImportResultDto;
 import mil.tron.commonapi.dto.OrganizationDto;
 import mil.tron.commonapi.dto.OrganizationDtoPaginationResponseWrapper;
 import mil.tron.commonapi.dto.OrganizationDtoResponseWrapper;
@@ -97,11 +99,9 @@ public class OrganizationController {
 			Iterable<OrganizationDto> allOrgs = organizationService.getOrganizations(searchQuery, page);
 
 			if (!peopleFields.isEmpty() || !orgFields.isEmpty()) {
-				// for each item, customize the entity
-				List<JsonNode> customizedList = new ArrayList<>();
-				allOrgs.forEach(item -> customizedList.add(
-						organizationService.customizeEntity(
-								initCustomizationOptions(peopleFields, orgFields), item)));
+				// customize the whole list at once
+				List<JsonNode> customizedList = organizationService.customizeEntities(
+						initCustomizationOptions(peopleFields, orgFields), Lists.newArrayList(allOrgs));
 				return new ResponseEntity<>(customizedList, HttpStatus.OK);
 			}
 
@@ -125,12 +125,9 @@ public class OrganizationController {
 			Iterable<OrganizationDto> allFilteredOrgs = organizationService.getOrganizationsByTypeAndService(searchQuery, unit, branch, page);
 
 			if (!peopleFields.isEmpty() || !orgFields.isEmpty()) {
-				// for each dto, customize it
-				List<JsonNode> customizedList = new ArrayList<>();
-				allFilteredOrgs.forEach(
-						item -> customizedList.add(
-								organizationService.customizeEntity(
-										initCustomizationOptions(peopleFields, orgFields), item)));
+				// customize the whole list at once
+				List<JsonNode> customizedList = organizationService.customizeEntities(
+						initCustomizationOptions(peopleFields, orgFields), Lists.newArrayList(allFilteredOrgs));
 				return new ResponseEntity<>(customizedList, HttpStatus.OK);
 			}
 
@@ -179,11 +176,9 @@ public class OrganizationController {
 			Page<OrganizationDto> allOrgs = organizationService.getOrganizationsPage(searchQuery, page);
 
 			if (!peopleFields.isEmpty() || !orgFields.isEmpty()) {
-				// for each item, customize the entity
-				List<JsonNode> customizedList = new ArrayList<>();
-				allOrgs.forEach(item -> customizedList.add(
-						organizationService.customizeEntity(
-								initCustomizationOptions(peopleFields, orgFields), item)));
+				// customize the whole page at once
+				List<JsonNode> customizedList = organizationService.customizeEntities(
+						initCustomizationOptions(peopleFields, orgFields), allOrgs.getContent());
 				
 				Page<JsonNode> customPage = new PageImpl<>(customizedList, page, allOrgs.getTotalElements());
 				return new ResponseEntity<>(customPage, HttpStatus.OK);
@@ -209,12 +204,9 @@ public class OrganizationController {
 			Page<OrganizationDto> allFilteredOrgs = organizationService.getOrganizationsByTypeAndServicePage(searchQuery, unit, branch, page);
 
 			if (!peopleFields.isEmpty() || !orgFields.isEmpty()) {
-				// for each dto, customize it
-				List<JsonNode> customizedList = new ArrayList<>();
-				allFilteredOrgs.forEach(
-						item -> customizedList.add(
-								organizationService.customizeEntity(
-										initCustomizationOptions(peopleFields, orgFields), item)));
+				// customize the whole page at once
+				List<JsonNode> customizedList = organizationService.customizeEntities(
+						initCustomizationOptions(peopleFields, orgFields), allFilteredOrgs.getContent());
 				
 				Page<JsonNode> customPage = new PageImpl<>(customizedList, page, allFilteredOrgs.getTotalElements());
 				return new ResponseEntity<>(customPage, HttpStatus.OK);
@@ -568,6 +560,22 @@ public class OrganizationController {
 		return new ResponseEntity<>(organizationService.bulkAddOrgs(orgs), HttpStatus.CREATED);
 	}
 
+	@Operation(summary = "Imports a large batch of organization entities",
+			description = "Imports organization entities, meant for large syncs of organization data. Unlike the bulk add endpoint " +
+					"one bad organization does not fail the whole request - every valid organization is created and each rejected " +
+					"organization is listed in the response's errors along with its position in the submitted array and the reason.")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200",
+					description = "Import processed - check the errors for any rejected organizations",
+					content = @Content(schema = @Schema(implementation = OrganizationBulkImportResultDto.class)))
+	})
+	@PreAuthorizeOrganizationCreate
+	@PostMapping({"${api-prefix.v2}/organization/organizations/import"})
+	public ResponseEntity<Object> importOrganizations(
+			@Parameter(description = "Array of organizations to import", required = true) @RequestBody List<OrganizationDto> orgs) {
+		return new ResponseEntity<>(organizationService.bulkImportOrgs(orgs), HttpStatus.OK);
+	}
+
 	@Operation(
 			summary = "Patches an existing organization", 
 			description = "Patches an existing organization. Fields (subordinateOrganizations and members) cannot be modified through this operation."
@@ -420,6 +420,23 @@ public class PersonController {
 
 		return new ResponseEntity<>(personService.bulkAddPeople(people), HttpStatus.CREATED);
 	}
+
+	@Operation(summary = "Imports a large batch of persons",
+			description = "Imports person entities, meant for large syncs of personnel data. Unlike the bulk add endpoint " +
+					"one bad person does not fail the whole request - every valid person is created and each rejected " +
+					"person is listed in the response's errors along with its position in the submitted array and the reason.")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200",
+					description = "Import processed - check the errors for any rejected persons",
+					content = @Content(schema = @Schema(implementation = PersonBulkImportResultDto.class)))
+	})
+	@PreAuthorizePersonCreate
+	@PostMapping({"${api-prefix.v2}/person/persons/import"})
+	public ResponseEntity<Object> importPersons(
+			@Parameter(description = "Array of persons to import", required = true) @RequestBody List<PersonDto> people) {
+
+		return new ResponseEntity<>(personService.bulkImportPeople(people), HttpStatus.OK);
+	}
 	
 	@Operation(summary = "Retrieves persons filtered", description = "Retrieves filtered list of persons")
 	@ApiResponses(value = {
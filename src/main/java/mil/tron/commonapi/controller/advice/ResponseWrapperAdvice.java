@@ -19,6 +19,7 @@ import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import mil.tron.commonapi.annotation.response.WrappedEnvelopeResponse;
 import mil.tron.commonapi.dto.response.WrappedResponse;
+import mil.tron.commonapi.dto.response.pagination.CursorSlice;
 import mil.tron.commonapi.dto.response.pagination.Pagination;
 import mil.tron.commonapi.dto.response.pagination.PaginationLink;
 import mil.tron.commonapi.dto.response.pagination.PaginationLinkType;
@@ -32,6 +33,7 @@ import mil.tron.commonapi.dto.response.pagination.PaginationWrappedResponse;
  */
 @ControllerAdvice
 public class ResponseWrapperAdvice implements ResponseBodyAdvice<Object> {
+	private static final String CONTINUATION_PARAM = "continuation";
 
 	@Override
 	public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
@@ -75,6 +77,28 @@ public class ResponseWrapperAdvice implements ResponseBodyAdvice<Object> {
 				.build();
 				
 			
+		} else if (body instanceof CursorSlice) {
+			CursorSlice<?> slice = (CursorSlice<?>)body;
+			
+			EnumMap<PaginationLinkType, String> links = createCursorLinks(slice);
+			String linkHeader = createPaginationLinkHeader(links);
+			
+			if (!linkHeader.isBlank()) {
+				response.getHeaders().add(HttpHeaders.LINK, linkHeader);
+			}
+			
+			return PaginationWrappedResponse.builder()
+					.data(slice.getContent())
+					.pagination(Pagination.builder()
+							.page(slice.getPageable().getPageNumber())
+							.size(slice.getPageable().getPageSize())
+							.nextContinuationToken(slice.getNextContinuationToken())
+							.links(PaginationLink.builder()
+									.first(links.get(PaginationLinkType.FIRST))
+									.next(links.get(PaginationLinkType.NEXT))
+									.build())
+							.build())
+					.build();
 		} else if (body instanceof Slice) {
 			Slice<?> slice = (Slice<?>)body;
 			
@@ -176,5 +200,37 @@ public class ResponseWrapperAdvice implements ResponseBodyAdvice<Object> {
         
         return links;
 	}
+	
+	/**
+	 * 
+	 * Creates map containing possible pagination links for a keyset paginated slice, only
+	 * first (when this isn't it) and next can be reached from a continuation token
+	 * 
+	 * @param slice the slice to generate links off of
+	 * @return A map containing the applicable pagination links
+	 */
+	private static EnumMap<PaginationLinkType, String> createCursorLinks(CursorSlice<?> slice) {
+		final EnumMap<PaginationLinkType, String> links = new EnumMap<>(PaginationLinkType.class);
+		
+		if (ServletUriComponentsBuilder.fromCurrentRequest().build().getQueryParams().containsKey(CONTINUATION_PARAM)) {
+			final String firstPage = ServletUriComponentsBuilder
+					.fromCurrentRequest()
+					.replaceQueryParam(CONTINUATION_PARAM)
+					.replaceQueryParam("page").build().encode().toUriString();
+			
+			links.put(PaginationLinkType.FIRST, firstPage);
+		}
+		
+		if (slice.hasNext()) {
+			final String nextPage = ServletUriComponentsBuilder
+					.fromCurrentRequest()
+					.replaceQueryParam(CONTINUATION_PARAM, slice.getNextContinuationToken())
+					.replaceQueryParam("page").build().encode().toUriString();
+			
+			links.put(PaginationLinkType.NEXT, nextPage);
+		}
+		
+		return links;
+	}
 
 }
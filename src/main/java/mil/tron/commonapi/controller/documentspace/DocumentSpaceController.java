@@ -1,9 +1,9 @@
 package mil.tron.commonapi.controller.documentspace;
 
-import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.S3Object;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -18,25 +18,38 @@ import mil.tron.commonapi.dto.documentspace.*;
 import mil.tron.commonapi.dto.documentspace.mobile.DocumentMobileDto;
 import mil.tron.commonapi.dto.documentspace.mobile.DocumentMobileDtoResponseWrapper;
 import mil.tron.commonapi.entity.documentspace.DocumentSpace;
+import mil.tron.commonapi.entity.documentspace.DocumentSpaceFileSystemEntry;
 import mil.tron.commonapi.exception.ExceptionResponse;
+import mil.tron.commonapi.exception.BadRequestException;
 import mil.tron.commonapi.exception.RecordNotFoundException;
+import mil.tron.commonapi.service.documentspace.DocumentSpaceArchiveService;
 import mil.tron.commonapi.service.documentspace.DocumentSpaceFileSystemService;
+import mil.tron.commonapi.service.documentspace.DocumentSpaceFileSystemServiceImpl;
+import mil.tron.commonapi.service.documentspace.DocumentSpaceFileTransferJobService;
 import mil.tron.commonapi.service.documentspace.DocumentSpaceService;
+import mil.tron.commonapi.service.documentspace.DocumentSpaceUploadService;
 import mil.tron.commonapi.service.documentspace.DocumentSpaceUserCollectionService;
+import mil.tron.commonapi.service.documentspace.util.DocumentSpaceArchive;
 import mil.tron.commonapi.service.documentspace.util.FilePathSpec;
 import mil.tron.commonapi.service.documentspace.util.FilePathSpecWithContents;
+import mil.tron.commonapi.service.documentspace.util.FolderListingOptions;
 import org.apache.commons.io.FilenameUtils;
 import org.springdoc.api.annotations.ParameterObject;
 import org.springframework.core.io.InputStreamResource;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.HandlerMapping;
 import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
@@ -44,10 +57,14 @@ import org.springframework.web.servlet.resource.ResourceUrlProvider;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.security.Principal;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -57,6 +74,7 @@ import java.util.stream.Collectors;
 @IfMinioEnabledOnIL4OrDevLocal
 public class DocumentSpaceController {
 	private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("ddMMMyyyyHHmm");
+	private static final int DEFAULT_ARCHIVED_PAGE_SIZE = 20;
 
 	protected static final String ENDPOINT = "/document-space";
 	
@@ -68,10 +86,21 @@ public class DocumentSpaceController {
 
 	private final DocumentSpaceFileSystemService documentSpaceFileSystemService;
 
-	public DocumentSpaceController(DocumentSpaceService documentSpaceService, DocumentSpaceUserCollectionService documentSpaceUserCollectionService, DocumentSpaceFileSystemService documentSpaceFileSystemService) {
+	private final DocumentSpaceUploadService documentSpaceUploadService;
+
+	private final DocumentSpaceFileTransferJobService documentSpaceFileTransferJobService;
+
+	private final DocumentSpaceArchiveService documentSpaceArchiveService;
+
+	public DocumentSpaceController(DocumentSpaceService documentSpaceService, DocumentSpaceUserCollectionService documentSpaceUserCollectionService, DocumentSpaceFileSystemService documentSpaceFileSystemService,
+								   DocumentSpaceUploadService documentSpaceUploadService, DocumentSpaceFileTransferJobService documentSpaceFileTransferJobService,
+								   DocumentSpaceArchiveService documentSpaceArchiveService) {
 		this.documentSpaceService = documentSpaceService;
 		this.documentSpaceUserCollectionService = documentSpaceUserCollectionService;
 		this.documentSpaceFileSystemService = documentSpaceFileSystemService;
+		this.documentSpaceUploadService = documentSpaceUploadService;
+		this.documentSpaceFileTransferJobService = documentSpaceFileTransferJobService;
+		this.documentSpaceArchiveService = documentSpaceArchiveService;
 	}
 
 	// static helper used for file download headers -- used by the webdav controller also
@@ -295,6 +324,120 @@ public class DocumentSpaceController {
         return result;
     }
 
+	@Operation(summary = "Starts a chunked upload of a file to a Document Space",
+			description = "Starts a resumable upload for files too large to send in a single request. Send the file's parts " +
+			"(in any order, each at least 5MB except the last) to the returned upload's parts endpoint, then complete the upload " +
+			"to make the file appear in the space. Any folders in the path (or relative path in the filename) are created if they don't exist.")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "201",
+				description = "Successful operation",
+				content = @Content(schema = @Schema(implementation = DocumentSpaceUploadSessionDto.class))),
+			@ApiResponse(responseCode = "400",
+				description = "Bad Request - invalid filename",
+				content = @Content(schema = @Schema(implementation = ExceptionResponse.class))),
+			@ApiResponse(responseCode = "404",
+				description = "Not Found - space not found",
+				content = @Content(schema = @Schema(implementation = ExceptionResponse.class))),
+			@ApiResponse(responseCode = "409",
+				description = "Conflict - a file with that name and path is archived",
+				content = @Content(schema = @Schema(implementation = ExceptionResponse.class))),
+			@ApiResponse(responseCode = "403",
+	        	description = "Forbidden (Requires Write privilege to document space, or DASHBOARD_ADMIN)",
+	            content = @Content(schema = @Schema(implementation = ExceptionResponse.class)))
+	})
+	@PreAuthorize("@accessCheckDocumentSpace.hasWriteAccess(authentication, #id)")
+	@PostMapping("/spaces/{id}/uploads")
+	public ResponseEntity<DocumentSpaceUploadSessionDto> initiateUpload(@PathVariable UUID id,
+																		@Valid @RequestBody DocumentSpaceUploadRequestDto dto,
+																		Principal principal) {
+		return new ResponseEntity<>(documentSpaceUploadService.initiateUpload(id, dto, principal.getName()), HttpStatus.CREATED);
+	}
+
+	@Operation(summary = "Uploads a part of a chunked upload",
+			description = "The request body is the part's raw bytes and a Content-Length header is required. " +
+			"Re-sending a part number replaces that part.")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200",
+				description = "Successful operation",
+				content = @Content(schema = @Schema(implementation = DocumentSpaceUploadPartDto.class))),
+			@ApiResponse(responseCode = "400",
+				description = "Bad Request - part number out of range or no Content-Length",
+				content = @Content(schema = @Schema(implementation = ExceptionResponse.class))),
+			@ApiResponse(responseCode = "404",
+				description = "Not Found - space or upload not found",
+				content = @Content(schema = @Schema(implementation = ExceptionResponse.class))),
+			@ApiResponse(responseCode = "403",
+	        	description = "Forbidden (Requires Write privilege to document space, or DASHBOARD_ADMIN)",
+	            content = @Content(schema = @Schema(implementation = ExceptionResponse.class)))
+	})
+	@PreAuthorize("@accessCheckDocumentSpace.hasWriteAccess(authentication, #id)")
+	@PutMapping("/spaces/{id}/uploads/{uploadId}/parts/{partNumber}")
+	public ResponseEntity<DocumentSpaceUploadPartDto> uploadPart(@PathVariable UUID id,
+																 @PathVariable UUID uploadId,
+																 @PathVariable int partNumber,
+																 HttpServletRequest request) throws IOException {
+		return ResponseEntity.ok(documentSpaceUploadService.uploadPart(id, uploadId, partNumber,
+				request.getInputStream(), request.getContentLengthLong()));
+	}
+
+	@Operation(summary = "Gets a chunked upload", description = "Gets a chunked upload along with the parts received so far")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200",
+				description = "Successful operation",
+				content = @Content(schema = @Schema(implementation = DocumentSpaceUploadSessionDto.class))),
+			@ApiResponse(responseCode = "404",
+				description = "Not Found - space or upload not found",
+				content = @Content(schema = @Schema(implementation = ExceptionResponse.class))),
+			@ApiResponse(responseCode = "403",
+	        	description = "Forbidden (Requires Write privilege to document space, or DASHBOARD_ADMIN)",
+	            content = @Content(schema = @Schema(implementation = ExceptionResponse.class)))
+	})
+	@PreAuthorize("@accessCheckDocumentSpace.hasWriteAccess(authentication, #id)")
+	@GetMapping("/spaces/{id}/uploads/{uploadId}")
+	public ResponseEntity<DocumentSpaceUploadSessionDto> getUpload(@PathVariable UUID id, @PathVariable UUID uploadId) {
+		return ResponseEntity.ok(documentSpaceUploadService.getUploadSession(id, uploadId));
+	}
+
+	@Operation(summary = "Completes a chunked upload", description = "Assembles the uploaded parts into the file and adds it to the Document Space")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200",
+				description = "Successful operation"),
+			@ApiResponse(responseCode = "400",
+				description = "Bad Request - no parts uploaded",
+				content = @Content(schema = @Schema(implementation = ExceptionResponse.class))),
+			@ApiResponse(responseCode = "404",
+				description = "Not Found - space or upload not found",
+				content = @Content(schema = @Schema(implementation = ExceptionResponse.class))),
+			@ApiResponse(responseCode = "403",
+	        	description = "Forbidden (Requires Write privilege to document space, or DASHBOARD_ADMIN)",
+	            content = @Content(schema = @Schema(implementation = ExceptionResponse.class)))
+	})
+	@PreAuthorize("@accessCheckDocumentSpace.hasWriteAccess(authentication, #id)")
+	@PostMapping("/spaces/{id}/uploads/{uploadId}/complete")
+	public Map<String, String> completeUpload(@PathVariable UUID id, @PathVariable UUID uploadId) {
+		Map<String, String> result = new HashMap<>();
+		result.put("key", documentSpaceUploadService.completeUpload(id, uploadId));
+		return result;
+	}
+
+	@Operation(summary = "Cancels a chunked upload", description = "Cancels a chunked upload and discards any parts received")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "204",
+				description = "Successful operation"),
+			@ApiResponse(responseCode = "404",
+				description = "Not Found - space or upload not found",
+				content = @Content(schema = @Schema(implementation = ExceptionResponse.class))),
+			@ApiResponse(responseCode = "403",
+	        	description = "Forbidden (Requires Write privilege to document space, or DASHBOARD_ADMIN)",
+	            content = @Content(schema = @Schema(implementation = ExceptionResponse.class)))
+	})
+	@PreAuthorize("@accessCheckDocumentSpace.hasWriteAccess(authentication, #id)")
+	@DeleteMapping("/spaces/{id}/uploads/{uploadId}")
+	public ResponseEntity<Object> abortUpload(@PathVariable UUID id, @PathVariable UUID uploadId) {
+		documentSpaceUploadService.abortUpload(id, uploadId);
+		return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+	}
+
 	@Operation(summary = "Renames a file")
 	@ApiResponses(value = {
 			@ApiResponse(responseCode = "204",
@@ -328,9 +471,11 @@ public class DocumentSpaceController {
 	})
     @PreAuthorize("@accessCheckDocumentSpace.hasReadAccess(authentication, #id)")
 	@GetMapping("/space/{id}/**")
-    public ResponseEntity<InputStreamResource> downloadFile(@PathVariable UUID id,
+    public ResponseEntity<Object> downloadFile(@PathVariable UUID id,
 															@RequestParam(value = "download", required = false) boolean isDownload,
+															@RequestHeader HttpHeaders requestHeaders,
 															HttpServletRequest request,
+															WebRequest webRequest,
 															Authentication authentication) {
 
 		// only way it seems to get the rest-of-url into a variable..
@@ -343,17 +488,194 @@ public class DocumentSpaceController {
 		String path = FilenameUtils.getPath(restOfUrl);
 		String name = FilenameUtils.getName(restOfUrl);
 
-        S3Object s3Data = documentSpaceService.getFile(id, path, name, authentication.getName());
-        ObjectMetadata s3Meta = s3Data.getObjectMetadata();
-        
-        var response = new InputStreamResource(s3Data.getObjectContent());
-        
-        return ResponseEntity
-                .ok()
-                .contentType(MediaType.valueOf(s3Meta.getContentType()))
-                .headers(isDownload ? createDownloadHeaders(name) : createPreviewHeaders(name))
-                .body(response);
+		DocumentSpaceFileSystemEntry fileEntry = documentSpaceService.getFileEntry(id, path, name);
+		return serveFile(id, fileEntry, isDownload, requestHeaders, webRequest, authentication);
     }
+
+	/**
+	 * Serves a single file honoring conditional (If-None-Match/If-Modified-Since) and Range requests.
+	 * Conditional requests are answered from the file's entry without going to S3 at all, and
+	 * ranges are passed through to S3 so only the requested bytes are transferred.
+	 */
+	private ResponseEntity<Object> serveFile(UUID id,
+											 DocumentSpaceFileSystemEntry fileEntry,
+											 boolean isDownload,
+											 HttpHeaders requestHeaders,
+											 WebRequest webRequest,
+											 Authentication authentication) {
+
+		String filename = fileEntry.getItemName();
+		long lastModified = fileEntry.getLastModifiedOn() != null ? fileEntry.getLastModifiedOn().getTime() : -1;
+
+		// this also puts the ETag and Last-Modified headers on the response
+		if (webRequest.checkNotModified(fileEntry.getEtag(), lastModified)) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+		}
+
+		HttpHeaders fileHeaders = isDownload ? createDownloadHeaders(filename) : createPreviewHeaders(filename);
+		fileHeaders.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+		List<long[]> ranges;
+		try {
+			ranges = resolveByteRanges(requestHeaders, fileEntry.getEtag(), fileEntry.getSize(), lastModified);
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+					.header(HttpHeaders.CONTENT_RANGE, "bytes */" + fileEntry.getSize())
+					.build();
+		}
+
+		documentSpaceService.markFileDownloaded(id, fileEntry, authentication.getName());
+
+		if (ranges.isEmpty()) {
+			S3Object s3Data = documentSpaceService.getFileContent(id, fileEntry, null, null);
+			ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+					.contentType(MediaType.valueOf(s3Data.getObjectMetadata().getContentType()))
+					.headers(fileHeaders);
+
+			// a Range that isn't being honored (stale If-Range) must not get sliced up by a Resource
+			//  converter downstream, so stream those as-is
+			if (requestHeaders.containsKey(HttpHeaders.RANGE)) {
+				return builder.body((StreamingResponseBody) out -> {
+					try (S3Object content = s3Data) {
+						content.getObjectContent().transferTo(out);
+					}
+				});
+			}
+
+			return builder.body(new InputStreamResource(s3Data.getObjectContent()));
+		}
+
+		if (ranges.size() == 1) {
+			long[] range = ranges.get(0);
+			S3Object s3Data = documentSpaceService.getFileContent(id, fileEntry, range[0], range[1]);
+
+			return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+					.contentType(MediaType.valueOf(s3Data.getObjectMetadata().getContentType()))
+					.contentLength(range[1] - range[0] + 1)
+					.header(HttpHeaders.CONTENT_RANGE, contentRange(range, fileEntry.getSize()))
+					.headers(fileHeaders)
+					.body(new InputStreamResource(s3Data.getObjectContent()));
+		}
+
+		// several ranges go out as multipart/byteranges, S3 only serves one range per request so
+		//  each part gets its own ranged GET
+		String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+		StreamingResponseBody body = out -> {
+			for (long[] range : ranges) {
+				try (S3Object s3Data = documentSpaceService.getFileContent(id, fileEntry, range[0], range[1])) {
+					String partHeaders = "\r\n--" + boundary + "\r\n" +
+							HttpHeaders.CONTENT_TYPE + ": " + s3Data.getObjectMetadata().getContentType() + "\r\n" +
+							HttpHeaders.CONTENT_RANGE + ": " + contentRange(range, fileEntry.getSize()) + "\r\n\r\n";
+					out.write(partHeaders.getBytes(StandardCharsets.US_ASCII));
+					s3Data.getObjectContent().transferTo(out);
+				}
+			}
+			out.write(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+		};
+
+		return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+				.contentType(MediaType.parseMediaType("multipart/byteranges; boundary=" + boundary))
+				.headers(fileHeaders)
+				.body(body);
+	}
+
+	/**
+	 * Serves a zip that was built ahead of time, honoring conditional and single Range requests (so an
+	 * interrupted download can be resumed).  Requests for several ranges get the whole zip.
+	 */
+	private ResponseEntity<StreamingResponseBody> serveArchive(DocumentSpaceArchive archive,
+															   String filename,
+															   HttpHeaders requestHeaders,
+															   WebRequest webRequest) {
+
+		long lastModified = archive.getLastModified() != null ? archive.getLastModified().getTime() : -1;
+		if (webRequest.checkNotModified(archive.getEtag(), lastModified)) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+		}
+
+		HttpHeaders archiveHeaders = createDownloadHeaders(filename);
+		archiveHeaders.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+		List<long[]> ranges;
+		try {
+			ranges = resolveByteRanges(requestHeaders, archive.getEtag(), archive.getSize(), lastModified);
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+					.header(HttpHeaders.CONTENT_RANGE, "bytes */" + archive.getSize())
+					.build();
+		}
+
+		if (ranges.size() == 1) {
+			long[] range = ranges.get(0);
+			return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+					.contentType(MediaType.parseMediaType("application/zip"))
+					.contentLength(range[1] - range[0] + 1)
+					.header(HttpHeaders.CONTENT_RANGE, contentRange(range, archive.getSize()))
+					.headers(archiveHeaders)
+					.body(out -> {
+						try (S3Object content = documentSpaceArchiveService.getArchiveContent(archive, range[0], range[1])) {
+							content.getObjectContent().transferTo(out);
+						}
+					});
+		}
+
+		return ResponseEntity.ok()
+				.contentType(MediaType.parseMediaType("application/zip"))
+				.contentLength(archive.getSize())
+				.headers(archiveHeaders)
+				.body(out -> {
+					try (S3Object content = documentSpaceArchiveService.getArchiveContent(archive, null, null)) {
+						content.getObjectContent().transferTo(out);
+					}
+				});
+	}
+
+	/**
+	 * Turns the request's Range header into inclusive [start, end] byte offsets for content of the given size.
+	 * Empty if there's no Range header, or if its If-Range precondition no longer matches the content.
+	 *
+	 * @throws IllegalArgumentException if the ranges are malformed or can't be satisfied
+	 */
+	private static List<long[]> resolveByteRanges(HttpHeaders requestHeaders, String etag, long size, long lastModified) {
+		List<HttpRange> httpRanges = requestHeaders.getRange();
+		if (httpRanges.isEmpty() || !ifRangeMatches(requestHeaders.getFirst(HttpHeaders.IF_RANGE), etag, lastModified)) {
+			return Collections.emptyList();
+		}
+
+		List<long[]> ranges = new ArrayList<>();
+		for (HttpRange httpRange : httpRanges) {
+			long start = httpRange.getRangeStart(size);
+			long end = httpRange.getRangeEnd(size);
+			if (start >= size || start > end) {
+				throw new IllegalArgumentException("Range not satisfiable");
+			}
+
+			ranges.add(new long[] { start, end });
+		}
+
+		return ranges;
+	}
+
+	private static boolean ifRangeMatches(String ifRange, String etag, long lastModified) {
+		if (ifRange == null) {
+			return true;
+		}
+
+		if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+			return etag != null && ifRange.equals("\"" + etag + "\"");
+		}
+
+		try {
+			return lastModified >= 0 && ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME)
+					.toInstant().getEpochSecond() == lastModified / 1000;
+		} catch (DateTimeParseException e) {
+			return false;
+		}
+	}
+
+	private static String contentRange(long[] range, long size) {
+		return "bytes " + range[0] + "-" + range[1] + "/" + size;
+	}
     
     @Operation(summary = "Download chosen files from a chosen Document Space folder", description = "Downloads multiple files from the same folder into a zip file")
 	@ApiResponses(value = {
@@ -371,6 +693,8 @@ public class DocumentSpaceController {
     public ResponseEntity<StreamingResponseBody> downloadFiles(@PathVariable UUID id,
                                                                @RequestParam(value = "path", defaultValue = "") String path,
                                                                @RequestParam("files") Set<String> files,
+                                                               @RequestHeader HttpHeaders requestHeaders,
+                                                               WebRequest webRequest,
                                                                Authentication authentication) {
 
         StreamingResponseBody response = out -> documentSpaceService.downloadAndWriteCompressedFiles(id, path, files, out, authentication.getName());
@@ -385,6 +709,15 @@ public class DocumentSpaceController {
 
         	if (documentSpaceFileSystemService.isFolder(id, path, itemName)) {
         		zipName = itemName;
+
+        		String folderPath = DocumentSpaceFileSystemServiceImpl.joinPathParts(path, itemName);
+        		Optional<DocumentSpaceArchive> archive = documentSpaceArchiveService.getArchive(id, folderPath);
+        		if (archive.isPresent()) {
+        			FilePathSpec folderSpec = documentSpaceFileSystemService.parsePathToFilePathSpec(id, folderPath);
+        			documentSpaceService.markFileDownloaded(id,
+        					documentSpaceFileSystemService.getElementByItemId(folderSpec.getItemId()), authentication.getName());
+        			return serveArchive(archive.get(), String.format("%s.zip", zipName), requestHeaders, webRequest);
+        		}
         	}
         } else {
         	OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
@@ -411,8 +744,18 @@ public class DocumentSpaceController {
 	})
     @PreAuthorize("@accessCheckDocumentSpace.hasReadAccess(authentication, #id)")
     @GetMapping("/spaces/{id}/files/download/all")
-    public ResponseEntity<StreamingResponseBody> downloadAllFilesInSpace(@PathVariable UUID id) {
+    public ResponseEntity<StreamingResponseBody> downloadAllFilesInSpace(@PathVariable UUID id,
+                                                                         @RequestHeader HttpHeaders requestHeaders,
+                                                                         WebRequest webRequest) {
     	DocumentSpace documentSpace = documentSpaceService.getDocumentSpaceOrElseThrow(id);
+
+    	// served from the zip built for the space's current contents when there is one, otherwise
+    	//  the zip is generated on the fly (and built for next time in the background)
+    	Optional<DocumentSpaceArchive> archive = documentSpaceArchiveService.getArchive(id, DocumentSpaceFileSystemServiceImpl.PATH_SEP);
+    	if (archive.isPresent()) {
+    		return serveArchive(archive.get(), String.format("%s.zip", documentSpace.getName()), requestHeaders, webRequest);
+    	}
+
         StreamingResponseBody response = out -> documentSpaceService.downloadAllInSpaceAndCompress(id, out);
         return ResponseEntity
                 .ok()
@@ -445,18 +788,32 @@ public class DocumentSpaceController {
         		.ok(documentSpaceService.listFiles(id, continuation, limit));
     }
  
-    @Operation(summary = "Retrieves files from all spaces that the authenticated user has recently uploaded")
+    @Operation(summary = "Retrieves files from all spaces that the authenticated user has recently uploaded",
+    		description = "Deep pages are cheaper to get by turning off the count and passing each page's " +
+    				"nextContinuationToken back as the continuation parameter instead of a page number")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200",
                     description = "Successful operation",
-                    content = @Content(schema = @Schema(implementation = RecentDocumentDtoResponseWrapper.class)))
+                    content = @Content(schema = @Schema(implementation = RecentDocumentDtoResponseWrapper.class))),
+            @ApiResponse(responseCode = "400",
+                    description = "Bad Request - invalid continuation token",
+                    content = @Content(schema = @Schema(implementation = ExceptionResponse.class)))
     })
     @PreAuthorize("isAuthenticated() and #principal != null")
     @WrappedEnvelopeResponse
     @GetMapping("/spaces/files/recently-uploaded")
-    public ResponseEntity<Page<RecentDocumentDto>> getRecentlyUploadedFilesByAuthenticatedUser(
+    public ResponseEntity<Slice<RecentDocumentDto>> getRecentlyUploadedFilesByAuthenticatedUser(
     		@ParameterObject Pageable pageable,
+    		@Parameter(name = "continuation", description = "the continuation token, the page number is ignored when given")
+    			@RequestParam(name = "continuation", required = false) String continuation,
+    		@Parameter(name = "count", description = "count the total number of files, no continuation token is handed out when true")
+    			@RequestParam(name = "count", defaultValue = "true") boolean count,
 			Principal principal) {
+    	if (continuation != null || !count) {
+    		return ResponseEntity
+    				.ok(documentSpaceService.getRecentlyUploadedFilesByAuthUser(principal.getName(), continuation, pageable.getPageSize()));
+    	}
+
         return ResponseEntity
         		.ok(documentSpaceService.getRecentlyUploadedFilesByAuthUser(principal.getName(), pageable));
     }
@@ -475,24 +832,18 @@ public class DocumentSpaceController {
 	})
     @PreAuthorize("@accessCheckDocumentSpace.hasReadAccess(authentication, #id)")
 	@GetMapping("/spaces/{id}/folder/{parentFolderId}/file/{filename}")
-    public ResponseEntity<InputStreamResource> downloadFileBySpaceAndParent(
+    public ResponseEntity<Object> downloadFileBySpaceAndParent(
 	    		@PathVariable UUID id,
 	    		@PathVariable UUID parentFolderId,
 	    		@PathVariable String filename,
 	    		@RequestParam(value = "download", required = false) boolean isDownload,
+	    		@RequestHeader HttpHeaders requestHeaders,
+	    		WebRequest webRequest,
 	    		Authentication authentication
     		) {
 
-        S3Object s3Data = documentSpaceService.getFile(id, parentFolderId, filename, authentication.getName());
-        ObjectMetadata s3Meta = s3Data.getObjectMetadata();
-        
-        var response = new InputStreamResource(s3Data.getObjectContent());
-        
-        return ResponseEntity
-                .ok()
-                .contentType(MediaType.valueOf(s3Meta.getContentType()))
-                .headers(isDownload ? createDownloadHeaders(filename) : createPreviewHeaders(filename))
-                .body(response);
+		DocumentSpaceFileSystemEntry fileEntry = documentSpaceService.getFileEntry(id, parentFolderId, filename);
+		return serveFile(id, fileEntry, isDownload, requestHeaders, webRequest, authentication);
     }
     
     @Operation(summary = "Delete from a Document Space", description = "Delete a single file from a Document Space by parent folder id and filename")
@@ -568,7 +919,8 @@ public class DocumentSpaceController {
 	}
 
 	@Operation(summary = "List folders and files at given path", description = "Lists folders and files contained " +
-			"within given folder path - one level deep (does not recurse into any sub-folders)")
+			"within given folder path - one level deep (does not recurse into any sub-folders).  Large folders can be paged " +
+			"through by giving a limit and passing each page's nextContinuationToken back as the continuation parameter")
 	@ApiResponses(value = {
 			@ApiResponse(responseCode = "200",
 					description = "Successful operation",
@@ -582,11 +934,30 @@ public class DocumentSpaceController {
 	})
 	@PreAuthorize("@accessCheckDocumentSpace.hasReadAccess(authentication, #id)")
 	@GetMapping("/spaces/{id}/contents")
-	public ResponseEntity<S3PaginationDto> dumpContentsAtPath(@PathVariable UUID id,
-													   @RequestParam(value = "path", defaultValue = "") String path) {
-		return new ResponseEntity<>(
-				convertFileSystemEntriesToDto(path, documentSpaceService.getFolderContents(id, path)),
-				HttpStatus.OK);
+	public ResponseEntity<S3PaginationDto> dumpContentsAtPath(
+			@PathVariable UUID id,
+			@RequestParam(value = "path", defaultValue = "") String path,
+			@Parameter(name = "sort", description = "what to order the contents by")
+				@RequestParam(value = "sort", defaultValue = "NAME") DocumentSpaceContentsSort sort,
+			@Parameter(name = "ascending", description = "sort direction")
+				@RequestParam(value = "ascending", defaultValue = "true") boolean ascending,
+			@Parameter(name = "limit", description = "page limit, all contents are returned when not given")
+				@RequestParam(value = "limit", required = false) Integer limit,
+			@Parameter(name = "continuation", description = "the continuation token")
+				@RequestParam(value = "continuation", required = false) String continuation,
+			@Parameter(name = "childCounts", description = "include the number of items directly inside each folder")
+				@RequestParam(value = "childCounts", defaultValue = "false") boolean childCounts) {
+		FolderListingOptions options = FolderListingOptions.builder()
+				.sort(sort)
+				.ascending(ascending)
+				.limit(limit)
+				.continuationToken(continuation)
+				.includeChildCounts(childCounts)
+				.build();
+
+		S3PaginationDto dto = convertFileSystemEntriesToDto(path, documentSpaceService.getFolderContents(id, path, options));
+		dto.setCurrentContinuationToken(continuation);
+		return new ResponseEntity<>(dto, HttpStatus.OK);
 	}
 
 	@Operation(summary = "Get info about a file(s) at given path",
@@ -672,7 +1043,9 @@ public class DocumentSpaceController {
 				HttpStatus.OK);
 	}
 
-	@Operation(summary = "Retrieves all archived files for the requesting user for spaces they have access to")
+	@Operation(summary = "Retrieves all archived files for the requesting user for spaces they have access to",
+			description = "Most recently modified first.  Returns everything unless page and/or size are given, in which case" +
+					" the next page number (if there is one) is returned as the nextContinuationToken and totalElements is the count across all pages")
 	@ApiResponses(value = {
 			@ApiResponse(responseCode = "200",
 					description = "Successful operation",
@@ -683,16 +1056,26 @@ public class DocumentSpaceController {
 	})
 	@PreAuthorize("isAuthenticated() and #principal != null")
 	@GetMapping("/spaces/archived")
-	public ResponseEntity<S3PaginationDto> getAllArchivedFilesForAuthUser(Principal principal) {
-		List<DocumentDto> allArchivedItems = documentSpaceService.getAllArchivedContentsForAuthUser(principal);
+	public ResponseEntity<S3PaginationDto> getAllArchivedFilesForAuthUser(Principal principal,
+			@Parameter(name="page", description="Zero-based page number") @RequestParam(required=false) Integer page,
+			@Parameter(name="size", description="Page size") @RequestParam(required=false) Integer size) {
+
+		if ((page != null && page < 0) || (size != null && size < 1)) {
+			throw new BadRequestException("Page must not be negative and size must be at least 1");
+		}
+
+		Pageable pageable = page == null && size == null
+				? Pageable.unpaged()
+				: PageRequest.of(page == null ? 0 : page, size == null ? DEFAULT_ARCHIVED_PAGE_SIZE : size);
+		Page<DocumentDto> allArchivedItems = documentSpaceService.getAllArchivedContentsForAuthUser(principal, pageable);
 
 		return new ResponseEntity<>(
 				S3PaginationDto.builder()
-						.size(allArchivedItems.size())
-						.documents(allArchivedItems)
-						.currentContinuationToken(null)
-						.nextContinuationToken(null)
-						.totalElements(allArchivedItems.size())
+						.size(pageable.isPaged() ? pageable.getPageSize() : allArchivedItems.getNumberOfElements())
+						.documents(allArchivedItems.getContent())
+						.currentContinuationToken(pageable.isPaged() ? String.valueOf(pageable.getPageNumber()) : null)
+						.nextContinuationToken(allArchivedItems.hasNext() ? String.valueOf(allArchivedItems.getNumber() + 1) : null)
+						.totalElements(Math.toIntExact(allArchivedItems.getTotalElements()))
 						.build(),
 				HttpStatus.OK);
 	}
@@ -723,6 +1106,9 @@ public class DocumentSpaceController {
 	@ApiResponses(value = {
 			@ApiResponse(responseCode = "204",
 					description = "Successful operation"),
+			@ApiResponse(responseCode = "200",
+					description = "Some files could not be deleted, they are listed along with why (these and the folders holding them were kept)",
+					content = @Content(array = @ArraySchema(schema = @Schema(implementation = DocumentSpaceItemFailureDto.class)))),
 			@ApiResponse(responseCode = "404",
 					description = "Not Found - space not found, file not found",
 					content = @Content(schema = @Schema(implementation = ExceptionResponse.class))),
@@ -733,8 +1119,12 @@ public class DocumentSpaceController {
 	@PreAuthorize("@accessCheckDocumentSpace.hasWriteAccess(authentication, #id)")
 	@DeleteMapping("/spaces/{id}/delete")
 	public ResponseEntity<Object> deleteItems(@PathVariable UUID id, @Valid @RequestBody DocumentSpacePathItemsDto dto) {
-		documentSpaceService.deleteItems(id, dto.getCurrentPath(), dto.getItems());
-		return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+		List<DocumentSpaceItemFailureDto> failures = documentSpaceService.deleteItems(id, dto.getCurrentPath(), dto.getItems());
+		if (failures.isEmpty()) {
+			return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+		}
+
+		return new ResponseEntity<>(failures, HttpStatus.OK);
 	}
 
 	@Operation(summary = "Archives selected item(s) from a Document Space", description = "Archives (soft-delete) selected files/folder from a Document Space")
@@ -791,6 +1181,7 @@ public class DocumentSpaceController {
 				.lastModifiedDate(entry.getLastModifiedOn() != null ? entry.getLastModifiedOn() : entry.getCreatedOn())
 				.lastActivity(entry.getLastActivity() != null ? entry.getLastActivity() : entry.getCreatedOn())
 				.hasContents(entry.isHasNonArchivedContents())
+				.childCount(entry.getNonArchivedContentsCount())
 				.build()
 		).collect(Collectors.toList());
 
@@ -798,7 +1189,7 @@ public class DocumentSpaceController {
 				.size(filesAndFolders.size())
 				.documents(filesAndFolders)
 				.currentContinuationToken(null)
-				.nextContinuationToken(null)
+				.nextContinuationToken(contents.getNextContinuationToken())
 				.totalElements(filesAndFolders.size())
 				.build();
 	}
@@ -885,11 +1276,16 @@ public class DocumentSpaceController {
 		return new ResponseEntity<>(HttpStatus.NO_CONTENT);
 	}
 
-	@Operation(summary = "Gets entries from a favorites collection. If no collection exists, returns empty list.")
+	@Operation(summary = "Gets entries from a favorites collection. If no collection exists, returns empty list.",
+			description = "Large collections can be paged through by giving a limit and passing each page's " +
+					"nextContinuationToken back as the continuation parameter")
 	@ApiResponses(value = {
 			@ApiResponse(responseCode = "200",
 					description = "Successful",
 					content = @Content(schema = @Schema(implementation = DocumentSpaceUserCollectionResponseDtoWrapper.class))),
+			@ApiResponse(responseCode = "400",
+					description = "Bad Request - invalid limit or continuation token",
+					content = @Content(schema = @Schema(implementation = ExceptionResponse.class))),
 			@ApiResponse(responseCode = "404",
 					description = "Not Found - user, space, or entry not found",
 					content = @Content(schema = @Schema(implementation = ExceptionResponse.class))),
@@ -898,8 +1294,18 @@ public class DocumentSpaceController {
 					content = @Content(schema = @Schema(implementation = ExceptionResponse.class)))
 	})
 	@PreAuthorize("(hasAuthority('DASHBOARD_ADMIN') || @accessCheckDocumentSpace.hasDocumentSpaceAccess(authentication)) and #principal != null")
+	@WrappedEnvelopeResponse
 	@GetMapping("/spaces/{id}/collection/favorite")
-	public ResponseEntity<DocumentSpaceUserCollectionResponseDtoWrapper> getFavorites(@PathVariable UUID id, Principal principal){
+	public ResponseEntity<Object> getFavorites(@PathVariable UUID id,
+			@Parameter(name = "limit", description = "page limit, most recently modified first - all entries are returned when not given")
+				@RequestParam(value = "limit", required = false) Integer limit,
+			@Parameter(name = "continuation", description = "the continuation token")
+				@RequestParam(value = "continuation", required = false) String continuation,
+			Principal principal){
+		if (limit != null) {
+			return ResponseEntity.ok(documentSpaceUserCollectionService.getFavoriteEntriesForUserInDocumentSpace(principal.getName(), id, continuation, limit));
+		}
+
 		DocumentSpaceUserCollectionResponseDtoWrapper response = new DocumentSpaceUserCollectionResponseDtoWrapper();
 		response.setData(documentSpaceUserCollectionService.getFavoriteEntriesForUserInDocumentSpace(principal.getName(), id));
 		return ResponseEntity.ok(response);
@@ -979,12 +1385,103 @@ public class DocumentSpaceController {
 		return new ResponseEntity<>(HttpStatus.NO_CONTENT);
 	}
 
+	@Operation(summary = "Moves file(s)/folders(s) in the background",
+			description = "Same as the move endpoint, but returns right away with a job that can be polled for progress (or cancelled). " +
+					"Meant for moving large folders.")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "202",
+					description = "Accepted",
+					content = @Content(schema = @Schema(implementation = DocumentSpaceFileTransferJobDto.class))),
+			@ApiResponse(responseCode = "404",
+					description = "Not Found - space not found",
+					content = @Content(schema = @Schema(implementation = ExceptionResponse.class))),
+			@ApiResponse(responseCode = "403",
+					description = "Forbidden",
+					content = @Content(schema = @Schema(implementation = ExceptionResponse.class)))
+	})
+	@PreAuthorize("hasAuthority('DASHBOARD_ADMIN') || " +
+			"(@accessCheckDocumentSpace.hasReadAccess(authentication, #sourceSpaceId ?: #id) and @accessCheckDocumentSpace.hasWriteAccess(authentication, #id) and #principal != null)")
+	@PostMapping("/spaces/{id}/move/jobs")
+	public ResponseEntity<DocumentSpaceFileTransferJobDto> moveFilesInBackground(@Parameter(name = "id", description = "UUID of the destination space", required=true) @PathVariable UUID id,
+																			   Principal principal,
+																			   @RequestBody Map<String, String> files,
+																			   @Parameter(name = "sourceSpaceId", description = "UUID of the source space (if cross space moving) - otherwise uses current space")
+																			   		@RequestParam(required=false) UUID sourceSpaceId) {
+		return new ResponseEntity<>(documentSpaceFileTransferJobService.startJob(id, sourceSpaceId, files, false, principal.getName()), HttpStatus.ACCEPTED);
+	}
+
+	@Operation(summary = "Copies file(s)/folders(s) in the background",
+			description = "Same as the copy endpoint, but returns right away with a job that can be polled for progress (or cancelled). " +
+					"Meant for copying large folders.")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "202",
+					description = "Accepted",
+					content = @Content(schema = @Schema(implementation = DocumentSpaceFileTransferJobDto.class))),
+			@ApiResponse(responseCode = "404",
+					description = "Not Found - space not found",
+					content = @Content(schema = @Schema(implementation = ExceptionResponse.class))),
+			@ApiResponse(responseCode = "403",
+					description = "Forbidden",
+					content = @Content(schema = @Schema(implementation = ExceptionResponse.class)))
+	})
+	@PreAuthorize("hasAuthority('DASHBOARD_ADMIN') || " +
+			"(@accessCheckDocumentSpace.hasReadAccess(authentication, #sourceSpaceId ?: #id) and @accessCheckDocumentSpace.hasWriteAccess(authentication, #id) and #principal != null)")
+	@PostMapping("/spaces/{id}/copy/jobs")
+	public ResponseEntity<DocumentSpaceFileTransferJobDto> copyFilesInBackground(@Parameter(name="id", description="Destination Space UUID", required=true) @PathVariable UUID id,
+																			   Principal principal,
+																			   @RequestBody Map<String, String> files,
+																			   @Parameter(name = "sourceSpaceId", description = "UUID of the source space (if cross space copying) - otherwise uses current space")
+																			   		@RequestParam(required=false) UUID sourceSpaceId) {
+		return new ResponseEntity<>(documentSpaceFileTransferJobService.startJob(id, sourceSpaceId, files, true, principal.getName()), HttpStatus.ACCEPTED);
+	}
+
+	@Operation(summary = "Gets the status and progress of a background copy/move")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200",
+					description = "Successful",
+					content = @Content(schema = @Schema(implementation = DocumentSpaceFileTransferJobDto.class))),
+			@ApiResponse(responseCode = "404",
+					description = "Not Found - space or job not found",
+					content = @Content(schema = @Schema(implementation = ExceptionResponse.class))),
+			@ApiResponse(responseCode = "403",
+					description = "Forbidden (Requires Write privilege to document space, or DASHBOARD_ADMIN)",
+					content = @Content(schema = @Schema(implementation = ExceptionResponse.class)))
+	})
+	@PreAuthorize("@accessCheckDocumentSpace.hasWriteAccess(authentication, #id)")
+	@GetMapping("/spaces/{id}/jobs/{jobId}")
+	public ResponseEntity<DocumentSpaceFileTransferJobDto> getFileTransferJob(@PathVariable UUID id, @PathVariable UUID jobId) {
+		return ResponseEntity.ok(documentSpaceFileTransferJobService.getJob(id, jobId));
+	}
+
+	@Operation(summary = "Cancels a background copy/move",
+			description = "The job stops at its next batch of files. Anything already copied for the file/folder it was working on is removed, " +
+					"files/folders it had already finished stay where they are.")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "202",
+					description = "Accepted",
+					content = @Content(schema = @Schema(implementation = DocumentSpaceFileTransferJobDto.class))),
+			@ApiResponse(responseCode = "404",
+					description = "Not Found - space or job not found",
+					content = @Content(schema = @Schema(implementation = ExceptionResponse.class))),
+			@ApiResponse(responseCode = "403",
+					description = "Forbidden (Requires Write privilege to document space, or DASHBOARD_ADMIN)",
+					content = @Content(schema = @Schema(implementation = ExceptionResponse.class)))
+	})
+	@PreAuthorize("@accessCheckDocumentSpace.hasWriteAccess(authentication, #id)")
+	@DeleteMapping("/spaces/{id}/jobs/{jobId}")
+	public ResponseEntity<DocumentSpaceFileTransferJobDto> cancelFileTransferJob(@PathVariable UUID id, @PathVariable UUID jobId) {
+		return new ResponseEntity<>(documentSpaceFileTransferJobService.cancelJob(id, jobId), HttpStatus.ACCEPTED);
+	}
+
 	@Operation(summary = "Gets provided space's recently uploaded files/updated files activity",
 			description = "Requester must have at least READ access to provided Space.")
 	@ApiResponses(value = {
 			@ApiResponse(responseCode = "200",
 					description = "Successful",
 					content = @Content(schema = @Schema(implementation = RecentDocumentDtoResponseWrapper.class))),
+			@ApiResponse(responseCode = "400",
+					description = "Bad Request - invalid continuation token",
+					content = @Content(schema = @Schema(implementation = ExceptionResponse.class))),
 			@ApiResponse(responseCode = "404",
 					description = "Not Found - space, or entry not found",
 					content = @Content(schema = @Schema(implementation = ExceptionResponse.class))),
@@ -995,18 +1492,28 @@ public class DocumentSpaceController {
 	@PreAuthorize("hasAuthority('DASHBOARD_ADMIN') || @accessCheckDocumentSpace.hasReadAccess(authentication, #id)")
 	@WrappedEnvelopeResponse
 	@GetMapping("/spaces/{id}/recents")
-	public ResponseEntity<Page<RecentDocumentDto>> getRecentsForSpace(@Parameter(name="id", description="Space UUID", required=true) @PathVariable UUID id,
+	public ResponseEntity<Slice<RecentDocumentDto>> getRecentsForSpace(@Parameter(name="id", description="Space UUID", required=true) @PathVariable UUID id,
 											   @Parameter(name="date", description="ISO UTC date/time to search from looking back") @RequestParam(required=false) Date date,
-											   @ParameterObject Pageable pageable) {
+											   @ParameterObject Pageable pageable,
+											   @Parameter(name="continuation", description="the continuation token, the page number is ignored when given")
+											   		@RequestParam(required=false) String continuation,
+											   @Parameter(name="count", description="count the total number of files, no continuation token is handed out when true")
+											   		@RequestParam(defaultValue="true") boolean count) {
 		if (date == null) {
 			date = new Date();
 		}
 
+		if (continuation != null || !count) {
+			return new ResponseEntity<>(documentSpaceService.getRecentlyUploadedFilesBySpace(id, date, continuation, pageable.getPageSize()), HttpStatus.OK);
+		}
+
 		return new ResponseEntity<>(documentSpaceService.getRecentlyUploadedFilesBySpace(id, date, pageable), HttpStatus.OK);
 	}
 
 	@Operation(summary = "Search a document space for a filename or part of a filename",
-			description = "Requester must have at least READ access to provided Space.  Query is case-insensitive and is treated like a filename that 'contains'...")
+			description = "Requester must have at least READ access to provided Space.  Query is case-insensitive and is treated like a filename that 'contains'" +
+					" (or 'starts with' for a PREFIX matchType), optionally limited to an extension.  Results are ranked with exact, then prefix, matches first" +
+					" and any sort parameter is ignored.")
 	@ApiResponses(value = {
 			@ApiResponse(responseCode = "200",
 					description = "Successful",
@@ -1026,7 +1533,30 @@ public class DocumentSpaceController {
 																	   @ParameterObject Pageable pageable,
 																	   Principal principal) {
 
-		return new ResponseEntity<>(documentSpaceService.findFilesInSpaceLike(id, searchDto.getQuery(), pageable, principal), HttpStatus.OK);
+		return new ResponseEntity<>(documentSpaceService.findFilesInSpaceLike(id, searchDto, pageable, principal), HttpStatus.OK);
+	}
+
+	@Operation(summary = "Search every document space the requester can read for a filename or part of a filename",
+			description = "Same matching and ranking as searching a single space, across all spaces the requester has at least READ access to")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200",
+					description = "Successful",
+					content = @Content(schema = @Schema(implementation = DocumentMobileDtoResponseWrapper.class))),
+			@ApiResponse(responseCode = "404",
+					description = "Not Found - requester not found",
+					content = @Content(schema = @Schema(implementation = ExceptionResponse.class))),
+			@ApiResponse(responseCode = "403",
+					description = "Forbidden",
+					content = @Content(schema = @Schema(implementation = ExceptionResponse.class)))
+	})
+	@PreAuthorize("isAuthenticated() and #principal != null")
+	@WrappedEnvelopeResponse
+	@PostMapping("/spaces/search")
+	public ResponseEntity<Page<DocumentMobileDto>> searchAllDocumentSpaces(@Valid @RequestBody DocumentSpaceSearchDto searchDto,
+																		   @ParameterObject Pageable pageable,
+																		   Principal principal) {
+
+		return new ResponseEntity<>(documentSpaceService.findFilesInAuthorizedSpacesLike(searchDto, pageable, principal), HttpStatus.OK);
 	}
 
 	@Operation(summary = "Adds an App Client to a Document Space", description = "Adds an App Client to a Document Space with specified privileges")
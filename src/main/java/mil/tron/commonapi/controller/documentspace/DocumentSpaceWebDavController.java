@@ -6,6 +6,7 @@ import mil.tron.commonapi.WebConfig;
 import mil.tron.commonapi.annotation.minio.IfMinioEnabledOnIL4OrDevLocal;
 import mil.tron.commonapi.annotation.security.PreAuthorizeDashboardAdmin;
 import mil.tron.commonapi.service.documentspace.DocumentSpaceService;
+import mil.tron.commonapi.service.webdav.PropFindDepth;
 import mil.tron.commonapi.service.webdav.WebDavService;
 import org.apache.commons.io.FilenameUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,10 +20,12 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.resource.ResourceUrlProvider;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.UUID;
 
 @RestController
@@ -43,7 +46,7 @@ public class DocumentSpaceWebDavController {
     @ResponseBody public ResponseEntity<Object> processWebDavCommand(@PathVariable UUID spaceId,
                                                                      Authentication authentication,
                                                                      HttpServletRequest request,
-                                                                     HttpServletResponse response) {
+                                                                     HttpServletResponse response) throws IOException {
         // only way it seems to get the rest-of-url into a variable..
         ResourceUrlProvider urlProvider = (ResourceUrlProvider) request
                 .getAttribute(ResourceUrlProvider.class.getCanonicalName());
@@ -56,8 +59,14 @@ public class DocumentSpaceWebDavController {
         String name = FilenameUtils.getName(restOfUrl);
 
         if (request.getMethod().equalsIgnoreCase("PROPFIND")) {
-            boolean includeChildren = (request.getHeader("depth") != null && request.getHeader("depth").equals("1"));
-            return new ResponseEntity<>(webDavService.propFind(spaceId, restOfUrl, includeChildren), HttpStatus.MULTI_STATUS);
+            PropFindDepth depth = PropFindDepth.fromHeader(request.getHeader("depth"));
+            StreamingResponseBody multiStatus = webDavService.propFind(spaceId, restOfUrl, depth);
+
+            // written straight to the response so large listings are never held in memory as one string
+            response.setStatus(HttpStatus.MULTI_STATUS.value());
+            response.setContentType(MediaType.APPLICATION_XML_VALUE);
+            multiStatus.writeTo(response.getOutputStream());
+            return null;
         }
         else if (request.getMethod().equalsIgnoreCase("OPTIONS")) {
             response.setHeader("allow", String.join(",", WebConfig.allowedMethods));
@@ -3,21 +3,33 @@ package mil.tron.commonapi.controller.puckboard;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+import mil.tron.commonapi.dto.puckboard.PuckboardEtlJobDto;
+import mil.tron.commonapi.service.puckboard.PuckboardClient;
+import mil.tron.commonapi.service.puckboard.PuckboardDump;
+import mil.tron.commonapi.service.puckboard.PuckboardEtlJobService;
+import mil.tron.commonapi.service.puckboard.PuckboardEtlProgress;
+import mil.tron.commonapi.service.puckboard.PuckboardEtlResult;
 import mil.tron.commonapi.service.puckboard.PuckboardExtractorService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.context.annotation.Bean;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.security.Principal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
 @RestController
 @RequestMapping({"${api-prefix.v1}/puckboard", "${api-prefix.v2}/puckboard"})
 public class PuckboardEtlController {
@@ -25,6 +37,12 @@ public class PuckboardEtlController {
     @Autowired
     private PuckboardExtractorService puckboardService;
 
+    @Autowired
+    private PuckboardEtlJobService puckboardEtlJobService;
+
+    @Autowired
+    private PuckboardClient puckboardClient;
+
     @Value("${puckboard-url-stable}")
     private String puckboardUrlStable;
 
@@ -33,17 +51,6 @@ public class PuckboardEtlController {
 
     private final ObjectMapper mapper = new ObjectMapper();
 
-    /**
-     * Make a bean here for use/visibility in the Unit Test mocking
-     *
-     * @param builder
-     * @return
-     */
-    @Bean("puckboardFetcher")
-    public RestTemplate restTemplate(RestTemplateBuilder builder) {
-        return builder.build();
-    }
-
     @Autowired
     @Qualifier("puckboardFetcher")
     private RestTemplate restTemplate;
@@ -78,44 +85,60 @@ public class PuckboardEtlController {
         }
     }
 
+    /**
+     * Runs the sync within the request, prefer starting a job for anything but small Puckboard instances
+     */
     @GetMapping("/extract")
     public ResponseEntity<Object> getPuckboardData() {
 
         // grab puckboard organizations
-        JsonNode orgs;
+        List<PuckboardDump.Organization> orgs;
         try {
-            ResponseEntity<String> orgsString = restTemplate.getForEntity(
-                    this.puckboardUrlStable + "/organizations",
-                    String.class);
-            orgs = mapper.readTree(orgsString.getBody());
-        } catch (RestClientException | JsonProcessingException e) {
+            orgs = puckboardClient.fetchOrganizations();
+        } catch (RestClientException e) {
             return new ResponseEntity<>("Puckboard Organization Fetch error - " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
         }
 
         // grab puckboard personnel
-        JsonNode people;
+        List<PuckboardDump.Person> people;
         try {
-            ResponseEntity<String> peopleString = restTemplate.getForEntity(
-                    this.puckboardUrlStable + "/personnel",
-                    String.class);
-            people = mapper.readTree(peopleString.getBody());
-        } catch (RestClientException | JsonProcessingException e) {
+            people = puckboardClient.fetchPersonnel();
+        } catch (RestClientException e) {
             return new ResponseEntity<>("Puckboard Personnel Fetch error - " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
         }
 
         // grab puckboard branch/rank info
-        JsonNode branchInfo;
+        Map<Integer, PuckboardDump.Rank> ranks;
         try {
-            ResponseEntity<String> branchString = restTemplate.getForEntity(
-                    this.puckboardUrl + "/branch",
-                    String.class);
-            branchInfo = mapper.readTree(branchString.getBody());
-        } catch (RestClientException | JsonProcessingException e) {
+            ranks = puckboardClient.fetchRanks();
+        } catch (RestClientException e) {
             return new ResponseEntity<>("Puckboard Branch Info Fetch error - " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
         }
 
         // give to the extractor service for processing
-        // return the orgs/personnel as list of Common API Squadron entities
-        return new ResponseEntity<>(puckboardService.persistOrgsAndMembers(orgs, people, branchInfo), HttpStatus.OK);
+        // return the status of each org/person that was synced
+        PuckboardEtlResult result = puckboardService.syncOrgsAndMembers(new PuckboardDump(orgs, people, ranks), PuckboardEtlProgress.NONE);
+        return new ResponseEntity<>(new ImmutableMap.Builder<String, Map<UUID, String>>()
+                .put("orgs", result.getOrgStatus())
+                .put("people", result.getPersonStatus())
+                .build(), HttpStatus.OK);
+    }
+
+    /**
+     * Starts a sync in the background (or returns the one already running), poll the returned job for its progress
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<PuckboardEtlJobDto> startPuckboardEtlJob(Principal principal) {
+        return new ResponseEntity<>(puckboardEtlJobService.startJob(principal != null ? principal.getName() : null), HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping("/jobs")
+    public ResponseEntity<List<PuckboardEtlJobDto>> getRecentPuckboardEtlJobs() {
+        return ResponseEntity.ok(puckboardEtlJobService.getRecentJobs());
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<PuckboardEtlJobDto> getPuckboardEtlJob(@PathVariable UUID jobId) {
+        return ResponseEntity.ok(puckboardEtlJobService.getJob(jobId));
     }
 }
@@ -0,0 +1,34 @@
+package mil.tron.commonapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk import - the records that were created along with
+ * an error entry for each input row that was rejected
+ *
+ * @param <T> The type of the records being imported
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BulkImportResultDto<T> {
+	@Getter
+	@Setter
+	@NotNull
+	@Builder.Default
+	private List<T> created = new ArrayList<>();
+
+	@Getter
+	@Setter
+	@NotNull
+	@Builder.Default
+	private List<BulkImportRowErrorDto> errors = new ArrayList<>();
+}
@@ -0,0 +1,40 @@
+package mil.tron.commonapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.validation.constraints.NotNull;
+import java.util.UUID;
+
+/**
+ * A single rejected row of a bulk import
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@EqualsAndHashCode
+public class BulkImportRowErrorDto {
+
+	/**
+	 * Zero-based position of the row in the submitted array
+	 */
+	@Getter
+	@Setter
+	private int row;
+
+	/**
+	 * The id given for the row, if any
+	 */
+	@Getter
+	@Setter
+	private UUID id;
+
+	@Getter
+	@Setter
+	@NotNull
+	private String message;
+}
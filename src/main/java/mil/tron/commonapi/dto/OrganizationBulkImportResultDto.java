@@ -0,0 +1,5 @@
+package mil.tron.commonapi.dto;
+
+public class OrganizationBulkImportResultDto extends BulkImportResultDto<OrganizationDto> {
+
+}
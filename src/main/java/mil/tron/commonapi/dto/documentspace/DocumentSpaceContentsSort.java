@@ -0,0 +1,21 @@
+package mil.tron.commonapi.dto.documentspace;
+
+/**
+ * What the files and folders of a document space folder listing are ordered by
+ */
+public enum DocumentSpaceContentsSort {
+    /**
+     * Item name, case-insensitive
+     */
+    NAME,
+
+    /**
+     * Last modified date, or the created date for items that were never modified
+     */
+    LAST_MODIFIED,
+
+    /**
+     * Size in bytes
+     */
+    SIZE
+}
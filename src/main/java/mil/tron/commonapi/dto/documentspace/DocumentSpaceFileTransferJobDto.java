@@ -0,0 +1,55 @@
+package mil.tron.commonapi.dto.documentspace;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import mil.tron.commonapi.entity.documentspace.DocumentSpaceFileTransferJobStatus;
+
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Status and progress of a background copy/move
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Data
+public class DocumentSpaceFileTransferJobDto {
+    private UUID id;
+
+    /**
+     * The destination space
+     */
+    private UUID documentSpaceId;
+
+    private UUID sourceSpaceId;
+
+    /**
+     * True if copying, false if moving
+     */
+    private boolean copy;
+
+    private DocumentSpaceFileTransferJobStatus status;
+
+    private boolean cancelRequested;
+
+    /**
+     * Number of files/folders requested, and how many of those are done
+     */
+    private int itemCount;
+    private int completedItemCount;
+
+    /**
+     * Number of files found to copy so far, and how many of those have been copied
+     */
+    private long objectCount;
+    private long copiedObjectCount;
+
+    private String message;
+
+    private String createdBy;
+    private Date createdOn;
+    private Date finishedOn;
+}
@@ -0,0 +1,23 @@
+package mil.tron.commonapi.dto.documentspace;
+
+import lombok.*;
+
+/**
+ * An item a bulk operation (e.g. a delete) could not be carried out on, and why
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class DocumentSpaceItemFailureDto {
+
+    /**
+     * Path of the item within the document space
+     */
+    @Getter
+    @Setter
+    private String path;
+
+    @Getter
+    @Setter
+    private String reason;
+}
@@ -18,4 +18,19 @@ public class DocumentSpaceSearchDto {
     @NotNull
     @NotBlank
     private String query;
+
+    /**
+     * Whether the query has to match the start of the name or can match anywhere in it
+     */
+    @Getter
+    @Setter
+    @Builder.Default
+    private DocumentSpaceSearchMatchType matchType = DocumentSpaceSearchMatchType.SUBSTRING;
+
+    /**
+     * Optional file extension (ie "pdf") that results must have
+     */
+    @Getter
+    @Setter
+    private String extension;
 }
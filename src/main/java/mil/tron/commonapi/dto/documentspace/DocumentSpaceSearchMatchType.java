@@ -0,0 +1,16 @@
+package mil.tron.commonapi.dto.documentspace;
+
+/**
+ * How a document space search query is matched against file and folder names
+ */
+public enum DocumentSpaceSearchMatchType {
+    /**
+     * Name contains the query anywhere
+     */
+    SUBSTRING,
+
+    /**
+     * Name starts with the query
+     */
+    PREFIX
+}
@@ -0,0 +1,21 @@
+package mil.tron.commonapi.dto.documentspace;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A part of a chunked upload that has been received
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Data
+public class DocumentSpaceUploadPartDto {
+    private int partNumber;
+
+    private String etag;
+
+    private long size;
+}
@@ -0,0 +1,40 @@
+package mil.tron.commonapi.dto.documentspace;
+
+import lombok.*;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+/**
+ * Used to start a chunked upload of a file into a document space
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Data
+public class DocumentSpaceUploadRequestDto {
+
+    /**
+     * The folder path (within the document space) to upload to
+     */
+    @NotNull
+    @Builder.Default
+    private String path = "";
+
+    /**
+     * Name of the file, may be prefixed with a relative folder path (like on a folder upload)
+     * in which case those folders are created under the given path
+     */
+    @NotNull
+    @NotBlank
+    @Size(max = 1024)
+    private String filename;
+
+    private String contentType;
+
+    /**
+     * The file's last modified date (epoch millis) if the client knows it
+     */
+    private Long lastModified;
+}
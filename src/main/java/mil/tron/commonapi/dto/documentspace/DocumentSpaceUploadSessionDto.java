@@ -0,0 +1,38 @@
+package mil.tron.commonapi.dto.documentspace;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * An in-progress chunked upload along with the parts received so far
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Data
+public class DocumentSpaceUploadSessionDto {
+    private UUID id;
+
+    private UUID documentSpaceId;
+
+    /**
+     * Id of the folder the file will land in
+     */
+    private UUID parentFolderId;
+
+    private String filename;
+
+    private String createdBy;
+
+    private Date createdOn;
+
+    @Builder.Default
+    private List<DocumentSpaceUploadPartDto> parts = new ArrayList<>();
+}
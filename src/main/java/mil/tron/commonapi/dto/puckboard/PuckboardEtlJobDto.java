@@ -0,0 +1,54 @@
+package mil.tron.commonapi.dto.puckboard;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import mil.tron.commonapi.entity.puckboard.PuckboardEtlJobPhase;
+import mil.tron.commonapi.entity.puckboard.PuckboardEtlJobStatus;
+
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Status and progress of a background Puckboard sync
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Data
+public class PuckboardEtlJobDto {
+    private UUID id;
+
+    private PuckboardEtlJobStatus status;
+
+    /**
+     * The step the sync is on
+     */
+    private PuckboardEtlJobPhase phase;
+
+    private int orgsCreated;
+    private int orgsUpdated;
+    private int orgsUnchanged;
+    private int orgsFailed;
+
+    private int peopleCreated;
+    private int peopleUpdated;
+    private int peopleUnchanged;
+    private int peopleFailed;
+
+    /**
+     * Placeholder personnel, which are never synced
+     */
+    private int peopleSkipped;
+
+    private int membershipsAdded;
+    private int membershipsRemoved;
+    private int membershipsFailed;
+
+    private String message;
+
+    private String createdBy;
+    private Date createdOn;
+    private Date finishedOn;
+}
@@ -0,0 +1,32 @@
+package mil.tron.commonapi.dto.response.pagination;
+
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+
+import lombok.Getter;
+
+/**
+ * A slice of a keyset paginated listing.  Rather than a page number, the next slice is fetched by handing
+ * back the continuation token of this one, and no total count is ever run for it.
+ * 
+ * @param <T> The type of the data being returned
+ */
+public class CursorSlice<T> extends SliceImpl<T> {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Token to fetch the next slice with, null if this is the last one
+	 */
+	@Getter
+	@Nullable
+	private final String nextContinuationToken;
+
+	public CursorSlice(List<T> content, Pageable pageable, @Nullable String nextContinuationToken) {
+		super(content, pageable, nextContinuationToken != null);
+		this.nextContinuationToken = nextContinuationToken;
+	}
+}
@@ -33,4 +33,15 @@ public class Pagination {
 	@Getter
 	@Setter
 	private PaginationLink links;
+	
+	/**
+	 * Continuation token of the next slice, for keyset paginated listings
+	 */
+	@Getter
+	@Setter
+	private String nextContinuationToken;
+	
+	public Pagination(int page, int size, Long totalElements, Integer totalPages, PaginationLink links) {
+		this(page, size, totalElements, totalPages, links, null);
+	}
 }
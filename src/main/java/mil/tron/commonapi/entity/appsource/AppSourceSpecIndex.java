@@ -0,0 +1,43 @@
+package mil.tron.commonapi.entity.appsource;
+
+import lombok.*;
+
+import javax.persistence.*;
+
+import java.util.Date;
+
+/***
+ * The endpoints found in an App Source's OpenAPI spec, keyed by a hash of the spec file.  Lets an
+ * unchanged spec be skipped rather than parsed again every time the app starts.
+ */
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table(name="app_source_spec_index")
+public class AppSourceSpecIndex {
+
+    /**
+     * Hex SHA-256 of the spec file's contents
+     */
+    @Id
+    @Getter
+    @Setter
+    @Column(name = "spec_hash", length = 64)
+    private String specHash;
+
+    /**
+     * One endpoint per line, as the method then a space then the path (ie "GET /jobRole/{id}")
+     */
+    @Getter
+    @Setter
+    @Column(nullable = false, length = 2097152)
+    private String endpoints;
+
+    @Getter
+    @Setter
+    @Builder.Default
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "created_on", nullable = false)
+    private Date createdOn = new Date();
+}
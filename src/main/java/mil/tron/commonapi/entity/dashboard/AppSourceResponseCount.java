@@ -0,0 +1,7 @@
+package mil.tron.commonapi.entity.dashboard;
+
+public interface AppSourceResponseCount {
+	String getName();
+	Integer getStatusCode();
+	Long getRequestCount();
+}
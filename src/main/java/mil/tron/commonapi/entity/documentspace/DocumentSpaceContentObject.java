@@ -0,0 +1,72 @@
+package mil.tron.commonapi.entity.documentspace;
+
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.*;
+import java.util.Date;
+
+/**
+ * A file's contents in the content addressed store, kept in S3 once no matter how many files
+ * (in however many document spaces) have those contents.  The object is removed from S3 only
+ * after nothing has referenced it for a while.
+ *
+ * Reference counts are only ever changed with update queries, so a new row is always inserted rather
+ * than merged - two uploads of the same new contents can't both end up writing a count of one.
+ */
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Getter
+@Setter
+@Table(name = "document_space_content_object")
+public class DocumentSpaceContentObject implements Persistable<String> {
+
+	/**
+	 * Hex SHA-256 of the contents
+	 */
+	@Id
+	@Column(name = "content_hash", length = 64)
+	private String contentHash;
+
+	@Column(nullable = false)
+	private long size;
+
+	/**
+	 * Number of file system entries pointing at these contents
+	 */
+	@Builder.Default
+	@Column(name = "ref_count", nullable = false)
+	private long refCount = 1L;
+
+	/**
+	 * Last time the reference count changed
+	 */
+	@Builder.Default
+	@Temporal(TemporalType.TIMESTAMP)
+	@Column(name = "updated_on", nullable = false)
+	private Date updatedOn = new Date();
+
+	@Transient
+	@Builder.Default
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private boolean persisted = false;
+
+	@Override
+	public String getId() {
+		return contentHash;
+	}
+
+	@Override
+	public boolean isNew() {
+		return !persisted;
+	}
+
+	@PostLoad
+	@PostPersist
+	void markPersisted() {
+		persisted = true;
+	}
+}
@@ -73,6 +73,13 @@ public class DocumentSpaceFileSystemEntry {
 	@Size(min = 1, max = 255)
 	private String etag;
 
+	/**
+	 * Hex SHA-256 of the file's contents when the file is kept in the content addressed store (see
+	 * DocumentSpaceContentService), null when it is kept under its folder's S3 prefix
+	 */
+	@Column(name="content_hash", length = 64)
+	private String contentHash;
+
 	@Column(name="is_delete_archived", nullable = false)
 	@NotNull
 	@Builder.Default
@@ -92,6 +99,13 @@ public class DocumentSpaceFileSystemEntry {
 	@Transient
     boolean hasNonArchivedContents;
 
+    /**
+     * Number of non-archived items directly inside this entry, only filled in when a folder
+     * listing is asked to count them
+     */
+	@Transient
+    Long nonArchivedContentsCount;
+
     /**
      * Last modified date of the file, hopefully given
      * by the uploaded client application so that it can track
@@ -0,0 +1,118 @@
+package mil.tron.commonapi.entity.documentspace;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import javax.validation.constraints.NotNull;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * A copy or move of files/folders into a document space that runs in the background.  Tracks how far
+ * along the job is, and whether it has been asked to stop.
+ */
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Getter
+@Setter
+@Table(name = "document_space_file_transfer_job")
+public class DocumentSpaceFileTransferJob {
+	@Id
+	@Builder.Default
+	private UUID id = UUID.randomUUID();
+
+	/**
+	 * The destination space
+	 */
+	@NotNull
+	@Column(nullable = false)
+	private UUID documentSpaceId;
+
+	@NotNull
+	@Column(nullable = false)
+	private UUID sourceSpaceId;
+
+	/**
+	 * True if copying, false if moving
+	 */
+	@Column(name = "is_copy", nullable = false)
+	private boolean copy;
+
+	@NotNull
+	@Column(nullable = false)
+	@Enumerated(EnumType.STRING)
+	@Builder.Default
+	private DocumentSpaceFileTransferJobStatus status = DocumentSpaceFileTransferJobStatus.PENDING;
+
+	@Column(nullable = false)
+	@Builder.Default
+	private boolean cancelRequested = false;
+
+	/**
+	 * Number of files/folders requested
+	 */
+	@Column(nullable = false)
+	private int itemCount;
+
+	@Column(nullable = false)
+	@Builder.Default
+	private int completedItemCount = 0;
+
+	/**
+	 * Number of S3 objects found to copy so far (grows as each item is started)
+	 */
+	@Column(nullable = false)
+	@Builder.Default
+	private long objectCount = 0L;
+
+	@Column(nullable = false)
+	@Builder.Default
+	private long copiedObjectCount = 0L;
+
+	/**
+	 * Why the job failed, if it did
+	 */
+	@Column(length = 1024)
+	private String message;
+
+	@NotNull
+	@Column(nullable = false, updatable = false)
+	private String createdBy;
+
+	@NotNull
+	@Column(nullable = false, updatable = false)
+	@Temporal(TemporalType.TIMESTAMP)
+	@Builder.Default
+	private Date createdOn = new Date();
+
+	@Temporal(TemporalType.TIMESTAMP)
+	private Date finishedOn;
+
+	/**
+	 * The server running the job
+	 */
+	private String ownerInstance;
+
+	/**
+	 * Last time the server running the job said it was still running it, a job that goes
+	 * long enough without one was abandoned (its server went down)
+	 */
+	@NotNull
+	@Column(nullable = false)
+	@Temporal(TemporalType.TIMESTAMP)
+	@Builder.Default
+	private Date heartbeatOn = new Date();
+}
@@ -0,0 +1,9 @@
+package mil.tron.commonapi.entity.documentspace;
+
+public enum DocumentSpaceFileTransferJobStatus {
+	PENDING,
+	RUNNING,
+	COMPLETED,
+	FAILED,
+	CANCELLED
+}
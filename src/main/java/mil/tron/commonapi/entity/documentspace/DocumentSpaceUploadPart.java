@@ -0,0 +1,41 @@
+package mil.tron.commonapi.entity.documentspace;
+
+import lombok.*;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import java.util.UUID;
+
+/**
+ * A part of a {@link DocumentSpaceUploadSession} that has made it to S3.  Tracked on our side
+ * so clients can find out which parts still need to be sent when resuming an upload, and so the
+ * upload can be completed without the client having to echo back every part's etag.
+ */
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Getter
+@Setter
+@Table(name = "document_space_upload_part",
+		uniqueConstraints = { @UniqueConstraint(columnNames = { "upload_session_id", "part_number" }) })
+public class DocumentSpaceUploadPart {
+	@Id
+	@Builder.Default
+	private UUID id = UUID.randomUUID();
+
+	@NotNull
+	@Column(name = "upload_session_id", nullable = false)
+	private UUID uploadSessionId;
+
+	@Column(name = "part_number", nullable = false)
+	private int partNumber;
+
+	@NotBlank
+	@Column(nullable = false)
+	private String etag;
+
+	@Column(nullable = false)
+	private long size;
+}
@@ -0,0 +1,82 @@
+package mil.tron.commonapi.entity.documentspace;
+
+import lombok.*;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * An in-progress chunked upload of a single file into a document space.  Maps onto
+ * an S3 multipart upload - the file's parts are PUT one at a time (and can be retried/resumed)
+ * and the file only appears in the document space once the upload is completed.
+ */
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Getter
+@Setter
+@Table(name = "document_space_upload_session")
+public class DocumentSpaceUploadSession {
+	@Id
+	@Builder.Default
+	private UUID id = UUID.randomUUID();
+
+	@NotNull
+	@Column(nullable = false)
+	private UUID documentSpaceId;
+
+	/**
+	 * The folder the file will land in
+	 */
+	@NotNull
+	@Column(nullable = false)
+	private UUID parentEntryId;
+
+	@NotBlank
+	@Column(nullable = false)
+	private String filename;
+
+	/**
+	 * The S3 key the file is being uploaded to
+	 */
+	@NotBlank
+	@Column(nullable = false)
+	private String objectKey;
+
+	/**
+	 * The S3 multipart upload id
+	 */
+	@NotBlank
+	@Column(nullable = false)
+	private String uploadId;
+
+	private String contentType;
+
+	@NotNull
+	@Column(nullable = false)
+	@Temporal(TemporalType.TIMESTAMP)
+	private Date lastModified;
+
+	@NotNull
+	@Column(nullable = false, updatable = false)
+	private String createdBy;
+
+	@NotNull
+	@Column(nullable = false, updatable = false)
+	@Temporal(TemporalType.TIMESTAMP)
+	@Builder.Default
+	private Date createdOn = new Date();
+
+	/**
+	 * Bumped each time a part is received - abandoned uploads are expired off of this
+	 */
+	@NotNull
+	@Column(nullable = false)
+	@Temporal(TemporalType.TIMESTAMP)
+	@Builder.Default
+	private Date lastActivityOn = new Date();
+}
@@ -0,0 +1,109 @@
+package mil.tron.commonapi.entity.kpi;
+
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.UUID;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import javax.persistence.UniqueConstraint;
+import javax.validation.constraints.NotNull;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One hour of http traffic for a single user, service and status code.  Rows are kept up to date
+ * as requests are traced so the dashboard and KPI queries never have to scan the http logs.
+ *
+ * <p>
+ * The service is either the App Source name (when {@code appSource} is set), "Organization",
+ * "Person" or "Other".  Latencies are kept as a running total plus a coarse histogram, requests
+ * without a time taken only count towards {@code requestCount}.
+ * </p>
+ */
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Getter
+@Setter
+@Table(name = "http_usage_rollup", uniqueConstraints = @UniqueConstraint(
+		name = "UK_http_usage_rollup_bucket",
+		columnNames = { "bucket_start", "user_name", "service", "app_source", "status_code" }))
+public class HttpUsageRollup {
+	public static final String ORGANIZATION_SERVICE = "Organization";
+	public static final String PERSON_SERVICE = "Person";
+	public static final String OTHER_SERVICE = "Other";
+
+	/**
+	 * Upper bounds (inclusive) of the latency histogram buckets, anything slower lands in the overflow bucket
+	 */
+	public static final long[] LATENCY_BUCKET_BOUNDS_MS = { 100L, 500L, 1000L, 5000L };
+
+	@Id
+	@Builder.Default
+	private UUID id = UUID.randomUUID();
+
+	@NotNull
+	@Column(name = "bucket_start", nullable = false)
+	@Temporal(TemporalType.TIMESTAMP)
+	private Date bucketStart;
+
+	@NotNull
+	@Column(name = "user_name", nullable = false)
+	private String userName;
+
+	@NotNull
+	@Column(name = "service", nullable = false)
+	private String service;
+
+	@Column(name = "app_source", nullable = false)
+	private boolean appSource;
+
+	@Column(name = "status_code", nullable = false)
+	private int statusCode;
+
+	@Column(name = "request_count", nullable = false)
+	private long requestCount;
+
+	/**
+	 * Number of requests that reported a time taken
+	 */
+	@Column(name = "latency_count", nullable = false)
+	private long latencyCount;
+
+	@Column(name = "total_latency_ms", nullable = false)
+	private long totalLatencyMs;
+
+	@Column(name = "latency_le_100_ms", nullable = false)
+	private long latencyLe100Ms;
+
+	@Column(name = "latency_le_500_ms", nullable = false)
+	private long latencyLe500Ms;
+
+	@Column(name = "latency_le_1000_ms", nullable = false)
+	private long latencyLe1000Ms;
+
+	@Column(name = "latency_le_5000_ms", nullable = false)
+	private long latencyLe5000Ms;
+
+	@Column(name = "latency_over_5000_ms", nullable = false)
+	private long latencyOver5000Ms;
+
+	/**
+	 * Truncates a timestamp down to the start of its (UTC) hour bucket
+	 * @param date the timestamp
+	 * @return start of the hour the timestamp falls in
+	 */
+	public static Date bucketOf(Date date) {
+		return Date.from(date.toInstant().truncatedTo(ChronoUnit.HOURS));
+	}
+}
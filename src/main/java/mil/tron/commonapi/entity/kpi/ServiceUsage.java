@@ -0,0 +1,8 @@
+package mil.tron.commonapi.entity.kpi;
+
+public interface ServiceUsage {
+	String getName();
+	Long getRequestCount();
+	Long getLatencyCount();
+	Long getTotalLatencyMs();
+}
@@ -0,0 +1,127 @@
+package mil.tron.commonapi.entity.puckboard;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import javax.validation.constraints.NotNull;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * A sync of Puckboard's organizations and personnel that runs in the background.  Tracks which
+ * phase the sync is in and how many records it has created/updated/left alone so far.
+ */
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Getter
+@Setter
+@Table(name = "puckboard_etl_job")
+public class PuckboardEtlJob {
+	@Id
+	@Builder.Default
+	private UUID id = UUID.randomUUID();
+
+	@NotNull
+	@Column(nullable = false)
+	@Enumerated(EnumType.STRING)
+	@Builder.Default
+	private PuckboardEtlJobStatus status = PuckboardEtlJobStatus.PENDING;
+
+	@NotNull
+	@Column(nullable = false)
+	@Enumerated(EnumType.STRING)
+	@Builder.Default
+	private PuckboardEtlJobPhase phase = PuckboardEtlJobPhase.FETCHING;
+
+	@Column(nullable = false)
+	private int orgsCreated;
+
+	@Column(nullable = false)
+	private int orgsUpdated;
+
+	@Column(nullable = false)
+	private int orgsUnchanged;
+
+	@Column(nullable = false)
+	private int orgsFailed;
+
+	@Column(nullable = false)
+	private int peopleCreated;
+
+	@Column(nullable = false)
+	private int peopleUpdated;
+
+	@Column(nullable = false)
+	private int peopleUnchanged;
+
+	@Column(nullable = false)
+	private int peopleFailed;
+
+	/**
+	 * Placeholder personnel, which are never synced
+	 */
+	@Column(nullable = false)
+	private int peopleSkipped;
+
+	@Column(nullable = false)
+	private int membershipsAdded;
+
+	@Column(nullable = false)
+	private int membershipsRemoved;
+
+	@Column(nullable = false)
+	private int membershipsFailed;
+
+	/**
+	 * Why the job failed, if it did
+	 */
+	@Column(length = 1024)
+	private String message;
+
+	@Column(updatable = false)
+	private String createdBy;
+
+	@NotNull
+	@Column(nullable = false, updatable = false)
+	@Temporal(TemporalType.TIMESTAMP)
+	@Builder.Default
+	private Date createdOn = new Date();
+
+	@Temporal(TemporalType.TIMESTAMP)
+	private Date finishedOn;
+
+	/**
+	 * True while the job is pending or running, null once it's finished.  Unique, so the database
+	 * itself makes sure only one sync is ever in flight.
+	 */
+	@Column(unique = true)
+	private Boolean inFlight;
+
+	/**
+	 * The server running the job
+	 */
+	private String ownerInstance;
+
+	/**
+	 * Last time the server running the job said it was still running it, a job that goes
+	 * long enough without one was abandoned (its server went down)
+	 */
+	@NotNull
+	@Column(nullable = false)
+	@Temporal(TemporalType.TIMESTAMP)
+	@Builder.Default
+	private Date heartbeatOn = new Date();
+}
@@ -0,0 +1,12 @@
+package mil.tron.commonapi.entity.puckboard;
+
+/**
+ * The step a Puckboard sync is on, they run in this order
+ */
+public enum PuckboardEtlJobPhase {
+	FETCHING,
+	ORGANIZATIONS,
+	PERSONNEL,
+	MEMBERSHIPS,
+	DONE
+}
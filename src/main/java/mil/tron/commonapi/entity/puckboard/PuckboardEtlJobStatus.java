@@ -0,0 +1,8 @@
+package mil.tron.commonapi.entity.puckboard;
+
+public enum PuckboardEtlJobStatus {
+	PENDING,
+	RUNNING,
+	COMPLETED,
+	FAILED
+}
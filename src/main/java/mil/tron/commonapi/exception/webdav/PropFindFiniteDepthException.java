@@ -0,0 +1,16 @@
+package mil.tron.commonapi.exception.webdav;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * A Depth: infinity PROPFIND covered more entries than we're willing to list in one response
+ * (the DAV:propfind-finite-depth precondition from RFC 4918)
+ */
+@ResponseStatus(HttpStatus.FORBIDDEN)
+public class PropFindFiniteDepthException extends RuntimeException {
+
+    public PropFindFiniteDepthException(String message) {
+        super(message);
+    }
+}
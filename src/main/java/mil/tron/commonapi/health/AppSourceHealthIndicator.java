@@ -6,19 +6,20 @@ import mil.tron.commonapi.entity.appsource.AppSource;
 import mil.tron.commonapi.service.AppSourceService;
 import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.actuate.health.HealthIndicator;
-import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.http.ResponseEntity;
-import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.HttpServerErrorException;
-import org.springframework.web.client.RestTemplate;
 
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.text.SimpleDateFormat;
 import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.Deque;
+import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -27,16 +28,23 @@ import java.util.concurrent.atomic.AtomicReference;
  * has elected to report health status to the Common API Dashboard.  Instances of
  * this class are created in the App Source service for App Sources that have health
  * reporting enabled.  See {@link mil.tron.commonapi.service.AppSourceServiceImpl#registerAppReporting(AppSource)}
+ *
+ * The checks themselves are run by the shared {@link AppSourceHealthProbeScheduler}.
  */
 
 public class AppSourceHealthIndicator implements HealthIndicator {
 
-    private static final long CONNECT_HEALTH_URL_TIMEOUT_SECS = 5L;
     private static final long READ_HEALTH_URL_TIMEOUT_SECS = 5L;
     private static final int UNINITIALIZED_HEALTH_STATUS_VAL = -2;
     private static final int UNKNOWN_HEALTH_STATUS_VAL = -1;
     private static final String STATUS_CODE_FIELD = "statusCode";
     private static final String LAST_UP_TIME = "Last Up Time";
+    private static final String LATENCY_HISTORY = "latencyHistoryMs";
+
+    /**
+     * Number of most recent probe latencies kept (and reported) for the app source
+     */
+    private static final int LATENCY_HISTORY_SIZE = 10;
 
     /**
      * Custom status codes for app sources so we don't conflict
@@ -49,9 +57,9 @@ public class AppSourceHealthIndicator implements HealthIndicator {
     public static final String APPSOURCE_UNKNOWN = "APPSOURCE_UNKNOWN";
 
     /**
-     * Handle to the ping task that hits the health url endpoint
+     * Handle to the scheduled probes that hit the health url endpoint
      */
-    private Future<?> pingTask;
+    private AppSourceHealthProbeScheduler.ScheduledProbe pingTask;
 
     @Getter
     @Setter
@@ -61,13 +69,12 @@ public class AppSourceHealthIndicator implements HealthIndicator {
     @Setter
     private String name;
 
+    /**
+     * Client the probes are sent with, the probe scheduler's shared client unless replaced
+     */
     @Getter
     @Setter
-    private RestTemplateBuilder builder;
-
-    @Getter
-    @Setter
-    private RestTemplate healthSender;
+    private HttpClient healthSender;
 
     // ping rate in secs passed in from the app source service (defined in app props)
     //  default to 60 secs
@@ -77,6 +84,11 @@ public class AppSourceHealthIndicator implements HealthIndicator {
     private UUID appSourceId;
     private AppSourceService appSourceService;
 
+    /**
+     * Latencies of the most recent probes, oldest first
+     */
+    private final Deque<Long> latencyHistory = new ArrayDeque<>();
+
     /**
      * Health value we will continue to update.  We initialize this to
      * a status of {@link #UNINITIALIZED_HEALTH_STATUS_VAL} to indicate that the
@@ -88,36 +100,26 @@ public class AppSourceHealthIndicator implements HealthIndicator {
             .withDetail("error", "Health check has not run yet")
             .build());
 
+    /**
+     * Creates an indicator that isn't probed, its health stays unknown
+     */
     public AppSourceHealthIndicator(String name, String url) {
         this.url = url;
         this.name = name;
-        this.init();
     }
 
-    public AppSourceHealthIndicator(String name, String url, long appSourcePingRateMillis, UUID appSourceId, AppSourceService appSourceService) {
+    public AppSourceHealthIndicator(String name, String url, long appSourcePingRateMillis, UUID appSourceId,
+                                    AppSourceService appSourceService, AppSourceHealthProbeScheduler probeScheduler) {
         this.url = url;
         this.name = name;
         this.appSourcePingRateMillis = appSourcePingRateMillis;
         this.appSourceId = appSourceId;
         this.appSourceService = appSourceService;
         this.lastUpTime = this.appSourceService.getLastUpTime(this.appSourceId);
-        this.init();
-    }
+        this.healthSender = probeScheduler.getHttpClient();
 
-    private void init() {
-        builder = new RestTemplateBuilder();
-        healthSender = builder
-                .setConnectTimeout(Duration.ofSeconds(CONNECT_HEALTH_URL_TIMEOUT_SECS))
-                .setReadTimeout(Duration.ofSeconds(READ_HEALTH_URL_TIMEOUT_SECS))
-                .build();
-
-        ScheduledExecutorService executor = Executors
-                .newScheduledThreadPool(Runtime
-                        .getRuntime()
-                        .availableProcessors());
-
-        // start the health task, runs immediately, then again after delay value
-        pingTask = executor.scheduleWithFixedDelay(this::doHealthPing, 100L, appSourcePingRateMillis, TimeUnit.MILLISECONDS);
+        // start the health task, runs shortly, then again after each delay value
+        this.pingTask = probeScheduler.schedule(this::doHealthPing, this.appSourcePingRateMillis);
     }
 
     /**
@@ -144,52 +146,105 @@ public class AppSourceHealthIndicator implements HealthIndicator {
     }
 
     /**
-     * Periodically ran task by the executor that hits the health url endpoint and
-     * checks status / updates health
+     * @return latencies (in millis) of the most recent health probes, oldest first
+     */
+    public List<Long> getLatencyHistory() {
+        synchronized (latencyHistory) {
+            return new ArrayList<>(latencyHistory);
+        }
+    }
+
+    private List<Long> recordLatency(long startNanos) {
+        synchronized (latencyHistory) {
+            if (latencyHistory.size() == LATENCY_HISTORY_SIZE) {
+                latencyHistory.removeFirst();
+            }
+
+            latencyHistory.addLast(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+            return new ArrayList<>(latencyHistory);
+        }
+    }
+
+    /**
+     * Periodically ran task by the probe scheduler that hits the health url endpoint and
+     * checks status / updates health.  The request is sent asynchronously, the health is
+     * updated when the returned future completes.
      */
-    private void doHealthPing() {
+    private CompletableFuture<Void> doHealthPing() {
         if (url == null || url.isBlank()) {
             this.health.set(Health
                     .status(APPSOURCE_UNKNOWN)
                     .withDetail("reason", "No valid health check url available")
                     .build());
-            return;
+            return CompletableFuture.completedFuture(null);
         }
-        ResponseEntity<String> response = null;
 
+        long start = System.nanoTime();
         try {
-            response = healthSender.getForEntity(url, String.class);  // this throws on a non successful response
-            this.lastUpTime = new Date();
-            this.appSourceService.updateLastUpTime(this.appSourceId, this.lastUpTime);
-            this.health.set(Health
-                    .status(APPSOURCE_UP)
-                    .withDetail(STATUS_CODE_FIELD, response.getStatusCodeValue())
-                    .withDetail(LAST_UP_TIME, getLastUpTime())
-                    .build());
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                    .timeout(Duration.ofSeconds(READ_HEALTH_URL_TIMEOUT_SECS))
+                    .GET()
+                    .build();
+
+            return healthSender.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .handle((response, error) -> {
+                        List<Long> latencies = recordLatency(start);
+                        if (error != null) {
+                            setDown(latencies);
+                        }
+                        else {
+                            setStatus(response.statusCode(), latencies);
+                        }
+
+                        return null;
+                    });
         }
-        catch (HttpClientErrorException | HttpServerErrorException e) {
+        catch (Exception e) {
+            setDown(recordLatency(start));
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    private void setStatus(int statusCode, List<Long> latencies) {
+        if (statusCode >= 400) {
             // for all 400/500 errors - served talked... but its some kind of ERROR response
             this.health.set(Health
                     .status(APPSOURCE_ERROR)
-                    .withDetail(STATUS_CODE_FIELD, e.getRawStatusCode())
-                    .withDetail(LAST_UP_TIME, getLastUpTime())
-                    .build());
-        }
-        catch (Exception e) {
-            // server never talked back or gave a status - status is DOWN
-            this.health.set(Health
-                    .status(APPSOURCE_DOWN)
-                    .withDetail(STATUS_CODE_FIELD, UNKNOWN_HEALTH_STATUS_VAL)
+                    .withDetail(STATUS_CODE_FIELD, statusCode)
                     .withDetail(LAST_UP_TIME, getLastUpTime())
-                    .withDetail("error", "Could not connect to health url")
+                    .withDetail(LATENCY_HISTORY, latencies)
                     .build());
+            return;
         }
+
+        // runs on a probe thread, the write is left to the app source service's next flush
+        this.lastUpTime = new Date();
+        this.appSourceService.recordLastUpTime(this.appSourceId, this.lastUpTime);
+        this.health.set(Health
+                .status(APPSOURCE_UP)
+                .withDetail(STATUS_CODE_FIELD, statusCode)
+                .withDetail(LAST_UP_TIME, getLastUpTime())
+                .withDetail(LATENCY_HISTORY, latencies)
+                .build());
+    }
+
+    private void setDown(List<Long> latencies) {
+        // server never talked back or gave a status - status is DOWN
+        this.health.set(Health
+                .status(APPSOURCE_DOWN)
+                .withDetail(STATUS_CODE_FIELD, UNKNOWN_HEALTH_STATUS_VAL)
+                .withDetail(LAST_UP_TIME, getLastUpTime())
+                .withDetail(LATENCY_HISTORY, latencies)
+                .withDetail("error", "Could not connect to health url")
+                .build());
     }
 
     /**
      * Called by App Source service when unregistering this app source for reporting health
      */
     public void cancelPing() {
-        this.pingTask.cancel(false);
+        if (this.pingTask != null) {
+            this.pingTask.cancel();
+        }
     }
 }
@@ -0,0 +1,139 @@
+package mil.tron.commonapi.health;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs the health probes of every app source that reports its health (see {@link AppSourceHealthIndicator})
+ * on one small, shared thread pool.  Probes go out through a shared non-blocking http client so no thread
+ * waits on a slow health url, which keeps the thread count the same however many app sources there are.
+ *
+ * Each probe is only scheduled again once the previous one has finished, and the delays are jittered so
+ * that the app sources aren't all probed at the same moment.
+ */
+@Component
+public class AppSourceHealthProbeScheduler {
+
+    private static final long CONNECT_HEALTH_URL_TIMEOUT_SECS = 5L;
+
+    /**
+     * Delay before an app source's first probe, a random part of its ping rate is added on top
+     */
+    private static final long INITIAL_DELAY_MILLIS = 100L;
+
+    /**
+     * Each probe after the first is scheduled within this fraction either side of the ping rate
+     */
+    private static final double JITTER_FRACTION = 0.1;
+
+    private final Log log = LogFactory.getLog(AppSourceHealthProbeScheduler.class);
+
+    private final ScheduledExecutorService executor;
+    private final HttpClient httpClient;
+
+    public AppSourceHealthProbeScheduler(@Value("${app-source-health-probe-threads:2}") int probeThreads) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "app-source-health-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        this.executor = Executors.newScheduledThreadPool(probeThreads, threadFactory);
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(CONNECT_HEALTH_URL_TIMEOUT_SECS))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(executor)
+                .build();
+    }
+
+    /**
+     * @return the shared client the health probes are sent with
+     */
+    public HttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    /**
+     * Starts running the given probe about every {@code rateMillis} until the returned handle is cancelled
+     * @param probe starts a probe, the next one is scheduled once the returned stage completes
+     * @param rateMillis the ping rate
+     * @return handle to stop the probes with
+     */
+    public ScheduledProbe schedule(Supplier<? extends CompletionStage<?>> probe, long rateMillis) {
+        ScheduledProbe scheduledProbe = new ScheduledProbe(probe, rateMillis);
+        scheduledProbe.scheduleNext(INITIAL_DELAY_MILLIS + ThreadLocalRandom.current().nextLong(Math.max(rateMillis, 0L) + 1));
+        return scheduledProbe;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static long jitter(long rateMillis) {
+        long spread = (long) (rateMillis * JITTER_FRACTION);
+        return rateMillis - spread + ThreadLocalRandom.current().nextLong(2 * spread + 1);
+    }
+
+    /**
+     * The probes scheduled for a single app source
+     */
+    public class ScheduledProbe {
+        private final Supplier<? extends CompletionStage<?>> probe;
+        private final long rateMillis;
+
+        private volatile boolean cancelled;
+        private volatile ScheduledFuture<?> next;
+
+        private ScheduledProbe(Supplier<? extends CompletionStage<?>> probe, long rateMillis) {
+            this.probe = probe;
+            this.rateMillis = rateMillis;
+        }
+
+        private synchronized void scheduleNext(long delayMillis) {
+            if (cancelled || executor.isShutdown()) return;
+
+            next = executor.schedule(this::run, delayMillis, TimeUnit.MILLISECONDS);
+        }
+
+        private void run() {
+            if (cancelled) return;
+
+            try {
+                probe.get().whenComplete((result, error) -> scheduleNext(jitter(rateMillis)));
+            }
+            catch (RuntimeException e) {
+                log.warn("App source health probe failed to start", e);
+                scheduleNext(jitter(rateMillis));
+            }
+        }
+
+        /**
+         * Stops any further probes (one already in flight is left to finish)
+         */
+        public synchronized void cancel() {
+            cancelled = true;
+            if (next != null) next.cancel(false);
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
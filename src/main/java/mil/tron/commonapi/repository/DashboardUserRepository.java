@@ -11,15 +11,32 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Repository
-public interface DashboardUserRepository extends CrudRepository<DashboardUser, UUID> {
+public interface DashboardUserRepository extends CrudRepository<DashboardUser, UUID>, DashboardUserRepositoryCustom {
     Optional<DashboardUser> findByEmailIgnoreCase(String name);
     Optional<DashboardUser> findByEmailAsLower(String email);
+    List<DashboardUser> findAllByEmailAsLowerIn(Collection<String> emails);
+
+    @Query("select d.id from DashboardUser d where d.emailAsLower in :emails")
+    List<UUID> findAllIdsByEmailAsLowerIn(@Param(value = "emails") Collection<String> emails);
     Page<DashboardUser> findAllByDocumentSpaces_Id(UUID documentSpaceId, Pageable pageable);
 
+    /**
+     * Finds which of the given emails belong to members of a document space
+     * @param documentSpaceId id of the document space
+     * @param emails lower case emails to look for
+     * @return the lower case emails of those that are members
+     */
+    @Query("select d.emailAsLower from DashboardUser d join d.documentSpaces s where s.id = :documentSpaceId and d.emailAsLower in :emails")
+    Set<String> findDocumentSpaceMemberEmailsAsLower(@Param(value = "documentSpaceId") UUID documentSpaceId,
+                                                      @Param(value = "emails") Collection<String> emails);
+
     @Transactional
     @Modifying
     @Query("update DashboardUser d set d.defaultDocumentSpaceId = null where d.defaultDocumentSpaceId = :documentSpaceId")
@@ -0,0 +1,100 @@
+package mil.tron.commonapi.repository;
+
+import java.util.Collection;
+import java.util.UUID;
+
+import mil.tron.commonapi.entity.DashboardUser;
+
+public interface DashboardUserRepositoryCustom {
+
+    /**
+     * Inserts brand new dashboard users (and their privileges) without the existence check that
+     * save() does for entities with assigned ids.  Privileges are attached by reference only.  The
+     * persistence context is flushed and cleared afterwards so the inserts go out as JDBC batches
+     * and the given entities end up detached.
+     *
+     * Must be called from within a transaction.
+     *
+     * @param dashboardUsers the new dashboard users to insert
+     */
+    void insertAll(Collection<DashboardUser> dashboardUsers);
+
+    /**
+     * Grants a privilege to each of the given dashboard users using multi-row inserts straight into
+     * the join table.  None of the users may have the privilege already.
+     *
+     * Must be called from within a transaction, the persistence context is cleared afterwards.
+     *
+     * @param privilegeId id of the privilege to grant
+     * @param dashboardUserIds ids of the dashboard users
+     */
+    void insertPrivileges(Long privilegeId, Collection<UUID> dashboardUserIds);
+
+    /**
+     * Makes each of the given dashboard users a member of a document space using multi-row inserts
+     * straight into the join table.  None of the users may be members already.
+     *
+     * Must be called from within a transaction, the persistence context is cleared afterwards.
+     *
+     * @param documentSpaceId id of the document space
+     * @param dashboardUserIds ids of the dashboard users
+     */
+    void insertDocumentSpaceMemberships(UUID documentSpaceId, Collection<UUID> dashboardUserIds);
+
+    /**
+     * Grants a document space privilege to each of the given dashboard users using multi-row inserts
+     * straight into the join table.  None of the users may have the privilege already.
+     *
+     * Must be called from within a transaction, the persistence context is cleared afterwards.
+     *
+     * @param documentSpacePrivilegeId id of the document space privilege to grant
+     * @param dashboardUserIds ids of the dashboard users
+     */
+    void insertDocumentSpacePrivileges(UUID documentSpacePrivilegeId, Collection<UUID> dashboardUserIds);
+
+    /**
+     * Takes the given document space privileges away from each of the given dashboard users
+     *
+     * Must be called from within a transaction, the persistence context is cleared afterwards.
+     *
+     * @param documentSpacePrivilegeIds ids of the document space privileges
+     * @param dashboardUserIds ids of the dashboard users
+     * @return number of privileges taken away
+     */
+    int deleteDocumentSpacePrivileges(Collection<UUID> documentSpacePrivilegeIds, Collection<UUID> dashboardUserIds);
+
+    /**
+     * Removes each of the given dashboard users from a document space
+     *
+     * Must be called from within a transaction, the persistence context is cleared afterwards.
+     *
+     * @param documentSpaceId id of the document space
+     * @param dashboardUserIds ids of the dashboard users
+     * @return number of memberships removed
+     */
+    int deleteDocumentSpaceMemberships(UUID documentSpaceId, Collection<UUID> dashboardUserIds);
+
+    /**
+     * Takes a privilege away from those of the given dashboard users that are no longer a member
+     * of any document space
+     *
+     * Must be called from within a transaction, the persistence context is cleared afterwards.
+     *
+     * @param privilegeId id of the privilege
+     * @param dashboardUserIds ids of the dashboard users
+     * @return number of privileges taken away
+     */
+    int deletePrivilegeFromNonMembers(Long privilegeId, Collection<UUID> dashboardUserIds);
+
+    /**
+     * Deletes those of the given dashboard users that have no privilege other than the one given,
+     * along with everything that references them (memberships, developer and admin assignments)
+     *
+     * Must be called from within a transaction, the persistence context is cleared afterwards.
+     *
+     * @param privilegeId id of the only privilege the dashboard users to delete may have
+     * @param dashboardUserIds ids of the dashboard users
+     * @return number of dashboard users deleted
+     */
+    int deleteAllHavingOnlyPrivilege(Long privilegeId, Collection<UUID> dashboardUserIds);
+}
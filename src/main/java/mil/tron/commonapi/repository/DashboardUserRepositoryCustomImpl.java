@@ -0,0 +1,195 @@
+package mil.tron.commonapi.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+
+import com.google.common.collect.Iterables;
+
+import mil.tron.commonapi.entity.DashboardUser;
+import mil.tron.commonapi.entity.Privilege;
+
+public class DashboardUserRepositoryCustomImpl implements DashboardUserRepositoryCustom {
+
+    /**
+     * Number of rows written by a single insert statement, kept in line with hibernate.jdbc.batch_size
+     */
+    private static final int INSERT_CHUNK_SIZE = 500;
+
+    /**
+     * Max number of ids bound to a single IN (...) list
+     */
+    private static final int ID_CHUNK_SIZE = 1000;
+
+    /**
+     * Join table rows that have to go before a dashboard user can be deleted, those
+     * with ON DELETE CASCADE foreign keys are left to the database
+     */
+    private static final List<String> USER_REFERENCES = List.of(
+            "dashboard_user_privileges WHERE dashboard_user_id",
+            "dashboard_user_document_space_privileges WHERE dashboard_users_id",
+            "document_space_dashboard_users WHERE dashboard_user_id",
+            "app_app_client_developers WHERE app_client_developers_id",
+            "app_app_source_admins WHERE app_source_admins_id");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void insertAll(Collection<DashboardUser> dashboardUsers) {
+        for (DashboardUser dashboardUser : dashboardUsers) {
+            Set<Privilege> privileges = dashboardUser.getPrivileges().stream()
+                    .map(privilege -> entityManager.getReference(Privilege.class, privilege.getId()))
+                    .collect(Collectors.toSet());
+            dashboardUser.setPrivileges(privileges);
+
+            entityManager.persist(dashboardUser);
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Override
+    public void insertPrivileges(Long privilegeId, Collection<UUID> dashboardUserIds) {
+        insertJoinRows("dashboard_user_privileges (dashboard_user_id, privileges_id)",
+                dashboardUserIds, privilegeId, false);
+    }
+
+    @Override
+    public void insertDocumentSpaceMemberships(UUID documentSpaceId, Collection<UUID> dashboardUserIds) {
+        insertJoinRows("document_space_dashboard_users (document_space_id, dashboard_user_id)",
+                dashboardUserIds, documentSpaceId, true);
+    }
+
+    @Override
+    public void insertDocumentSpacePrivileges(UUID documentSpacePrivilegeId, Collection<UUID> dashboardUserIds) {
+        insertJoinRows("dashboard_user_document_space_privileges (dashboard_users_id, document_space_privileges_id)",
+                dashboardUserIds, documentSpacePrivilegeId, false);
+    }
+
+    @Override
+    public int deleteDocumentSpacePrivileges(Collection<UUID> documentSpacePrivilegeIds, Collection<UUID> dashboardUserIds) {
+        if (documentSpacePrivilegeIds.isEmpty() || dashboardUserIds.isEmpty()) return 0;
+
+        entityManager.flush();
+
+        int deleted = 0;
+        for (List<UUID> chunk : Iterables.partition(dashboardUserIds, ID_CHUNK_SIZE)) {
+            deleted += entityManager.createNativeQuery("DELETE FROM dashboard_user_document_space_privileges " +
+                    "WHERE document_space_privileges_id IN (:privilegeIds) AND dashboard_users_id IN (:dashboardUserIds)")
+                .setParameter("privilegeIds", documentSpacePrivilegeIds)
+                .setParameter("dashboardUserIds", chunk)
+                .executeUpdate();
+        }
+
+        entityManager.clear();
+        return deleted;
+    }
+
+    @Override
+    public int deleteDocumentSpaceMemberships(UUID documentSpaceId, Collection<UUID> dashboardUserIds) {
+        if (dashboardUserIds.isEmpty()) return 0;
+
+        entityManager.flush();
+
+        int deleted = 0;
+        for (List<UUID> chunk : Iterables.partition(dashboardUserIds, ID_CHUNK_SIZE)) {
+            deleted += entityManager.createNativeQuery("DELETE FROM document_space_dashboard_users " +
+                    "WHERE document_space_id = :documentSpaceId AND dashboard_user_id IN (:dashboardUserIds)")
+                .setParameter("documentSpaceId", documentSpaceId)
+                .setParameter("dashboardUserIds", chunk)
+                .executeUpdate();
+        }
+
+        entityManager.clear();
+        return deleted;
+    }
+
+    @Override
+    public int deletePrivilegeFromNonMembers(Long privilegeId, Collection<UUID> dashboardUserIds) {
+        if (dashboardUserIds.isEmpty()) return 0;
+
+        entityManager.flush();
+
+        int deleted = 0;
+        for (List<UUID> chunk : Iterables.partition(dashboardUserIds, ID_CHUNK_SIZE)) {
+            deleted += entityManager.createNativeQuery("DELETE FROM dashboard_user_privileges " +
+                    "WHERE privileges_id = :privilegeId AND dashboard_user_id IN (:dashboardUserIds) " +
+                    "AND NOT EXISTS (SELECT 1 FROM document_space_dashboard_users m " +
+                        "WHERE m.dashboard_user_id = dashboard_user_privileges.dashboard_user_id)")
+                .setParameter("privilegeId", privilegeId)
+                .setParameter("dashboardUserIds", chunk)
+                .executeUpdate();
+        }
+
+        entityManager.clear();
+        return deleted;
+    }
+
+    @Override
+    public int deleteAllHavingOnlyPrivilege(Long privilegeId, Collection<UUID> dashboardUserIds) {
+        if (dashboardUserIds.isEmpty()) return 0;
+
+        entityManager.flush();
+
+        int deleted = 0;
+        for (List<UUID> chunk : Iterables.partition(dashboardUserIds, ID_CHUNK_SIZE)) {
+            List<UUID> orphans = entityManager.createQuery("select d.id from DashboardUser d join d.privileges p " +
+                    "where d.id in :dashboardUserIds and p.id = :privilegeId and size(d.privileges) = 1", UUID.class)
+                .setParameter("dashboardUserIds", chunk)
+                .setParameter("privilegeId", privilegeId)
+                .getResultList();
+            if (orphans.isEmpty()) continue;
+
+            for (String reference : USER_REFERENCES) {
+                entityManager.createNativeQuery("DELETE FROM " + reference + " IN (:dashboardUserIds)")
+                    .setParameter("dashboardUserIds", orphans)
+                    .executeUpdate();
+            }
+            deleted += entityManager.createNativeQuery("DELETE FROM dashboard_user WHERE id IN (:dashboardUserIds)")
+                .setParameter("dashboardUserIds", orphans)
+                .executeUpdate();
+        }
+
+        entityManager.clear();
+        return deleted;
+    }
+
+    /**
+     * Inserts one join table row per dashboard user, all pointing at the same row on the other side
+     * @param tableAndColumns the join table and its two columns
+     * @param dashboardUserIds ids of the dashboard users
+     * @param otherId id of the row on the other side
+     * @param otherIdFirst true if the other side is the first of the two columns
+     */
+    private void insertJoinRows(String tableAndColumns, Collection<UUID> dashboardUserIds, Object otherId, boolean otherIdFirst) {
+        if (dashboardUserIds.isEmpty()) return;
+
+        entityManager.flush();
+
+        for (List<UUID> chunk : Iterables.partition(dashboardUserIds, INSERT_CHUNK_SIZE)) {
+            List<String> values = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                values.add(otherIdFirst ? "(:otherId, :user" + i + ")" : "(:user" + i + ", :otherId)");
+            }
+
+            Query insert = entityManager.createNativeQuery("INSERT INTO " + tableAndColumns +
+                    " VALUES " + String.join(", ", values))
+                .setParameter("otherId", otherId);
+            for (int i = 0; i < chunk.size(); i++) {
+                insert.setParameter("user" + i, chunk.get(i));
+            }
+            insert.executeUpdate();
+        }
+
+        entityManager.clear();
+    }
+}
@@ -0,0 +1,108 @@
+package mil.tron.commonapi.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+
+import com.google.common.collect.Iterables;
+
+/**
+ * Selects just the requested (basic, single valued) columns of an entity by id, rather than
+ * loading the whole entity along with its eager associations.  Used to serve sparse fieldset
+ * requests such as the organization endpoints' people= and organizations= parameters when
+ * they only ask for plain columns.
+ */
+public class FieldProjectionQuery {
+    private static final String ID_FIELD = "id";
+
+    /**
+     * Max number of ids bound to a single IN (...) list
+     */
+    private static final int ID_CHUNK_SIZE = 1000;
+
+    private FieldProjectionQuery() {}
+
+    /**
+     * Checks whether the given fields can all be selected by {@link #findFieldsByIdIn}
+     *
+     * @param entityManager the entity manager to query with
+     * @param entityClass the entity to select from
+     * @param fields requested fields
+     * @return true if every field is a basic single valued attribute of the entity
+     */
+    public static boolean supportsFields(EntityManager entityManager, Class<?> entityClass, Collection<String> fields) {
+        EntityType<?> entityType = entityManager.getMetamodel().entity(entityClass);
+        return fields.stream().allMatch(field -> isBasicAttribute(entityType, field));
+    }
+
+    /**
+     * Looks up the given fields of the given entities
+     *
+     * @param entityManager the entity manager to query with
+     * @param entityClass the entity to select from, must have a UUID "id" attribute
+     * @param ids ids of the entities to look up
+     * @param fields requested fields, each must be a basic single valued attribute of the entity
+     *               (see {@link #supportsFields})
+     * @return map of entity id to its field values (in the requested order), ids not found are absent
+     * @throws IllegalArgumentException if a field is not a basic single valued attribute of the entity
+     */
+    public static Map<UUID, Map<String, Object>> findFieldsByIdIn(EntityManager entityManager,
+                                                                 Class<?> entityClass,
+                                                                 Collection<UUID> ids,
+                                                                 Collection<String> fields) {
+        if (!supportsFields(entityManager, entityClass, fields)) {
+            throw new IllegalArgumentException("Only basic attributes of " + entityClass.getSimpleName() + " can be projected: " + fields);
+        }
+
+        if (ids == null || ids.isEmpty()) return Collections.emptyMap();
+
+        List<String> columns = fields.stream().distinct().collect(Collectors.toList());
+
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        Map<UUID, Map<String, Object>> results = new LinkedHashMap<>();
+        for (List<UUID> chunk : Iterables.partition(ids, ID_CHUNK_SIZE)) {
+            CriteriaQuery<Tuple> query = builder.createTupleQuery();
+            Root<?> root = query.from(entityClass);
+
+            // the id always goes first so each row can be matched back to its entity, the
+            //  requested columns follow in order (read back by position since hibernate shares
+            //  path instances, which rules out aliasing "id" twice)
+            List<Selection<?>> selections = new ArrayList<>();
+            selections.add(root.get(ID_FIELD));
+            columns.forEach(column -> selections.add(root.get(column)));
+
+            query.multiselect(selections).where(root.get(ID_FIELD).in(chunk));
+
+            for (Tuple row : entityManager.createQuery(query).getResultList()) {
+                Map<String, Object> values = new LinkedHashMap<>();
+                for (int i = 0; i < columns.size(); i++) {
+                    values.put(columns.get(i), row.get(i + 1));
+                }
+
+                results.put((UUID) row.get(0), values);
+            }
+        }
+
+        return results;
+    }
+
+    private static boolean isBasicAttribute(EntityType<?> entityType, String field) {
+        return entityType.getSingularAttributes().stream()
+                .anyMatch(attribute -> attribute.getName().equals(field)
+                        && attribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.BASIC);
+    }
+}
@@ -10,14 +10,17 @@ import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface OrganizationRepository extends JpaRepository<Organization, UUID>, JpaSpecificationExecutor<Organization> {
+public interface OrganizationRepository extends JpaRepository<Organization, UUID>, JpaSpecificationExecutor<Organization>, OrganizationRepositoryCustom {
 	Optional<Organization> findByNameIgnoreCase(String name);
 
 	List<Organization> findOrganizationsByParentOrganization(Organization org);
@@ -38,4 +41,10 @@ public interface OrganizationRepository extends JpaRepository<Organization, UUID
 	Page<Organization> findAllByNameContainsIgnoreCaseAndOrgType(String name, Unit unit, Pageable pageable);
 	Page<Organization> findAllByNameContainsIgnoreCaseAndBranchType(String name, Branch branch, Pageable pageable);
 	Page<Organization> findAll(Specification<Organization> spec, Pageable pageable);
+
+	@Query("select o.id from Organization o where o.id in :ids")
+	List<UUID> findIdsByIdIn(@Param("ids") Collection<UUID> ids);
+
+	@Query("select o.nameAsLower from Organization o where o.nameAsLower in :names")
+	List<String> findNamesAsLowerIn(@Param("names") Collection<String> namesAsLower);
 }
@@ -0,0 +1,78 @@
+package mil.tron.commonapi.repository;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import mil.tron.commonapi.entity.Organization;
+
+public interface OrganizationRepositoryCustom {
+
+    /**
+     * Inserts brand new organizations (and their metadata) without the existence check that
+     * save() does for entities with assigned ids.  Only meant for organizations that have no
+     * leader, members, parent or subordinate organizations.  JDBC batching is turned on for the
+     * current session only, and the persistence context is flushed and cleared afterwards.
+     *
+     * Must be called from within a transaction, and with entities that were never handed to
+     * another persistence context (build new ones to retry a failed insert).
+     *
+     * @param organizations the new organizations to insert
+     */
+    void insertAll(Collection<Organization> organizations);
+
+    /**
+     * Finds the given organizations plus everything downstream of them (their subordinate
+     * organizations, the subordinates' subordinates, etc) using a single recursive query
+     *
+     * @param orgIds the organizations to start from
+     * @return ids of the given organizations that exist along with all of their descendants
+     */
+    Set<UUID> findSelfAndDescendantIds(Collection<UUID> orgIds);
+
+    /**
+     * Finds the leaders and members of the given organizations and of everything downstream
+     * of them using a single recursive query
+     *
+     * @param orgIds the organizations to start from
+     * @return ids of the leaders and members
+     */
+    Set<UUID> findSelfAndDescendantMemberIds(Collection<UUID> orgIds);
+
+    /**
+     * Finds everything upstream of the given organization (its parent, the parent's parent, etc)
+     * using a single recursive query
+     *
+     * @param orgId the organization to start from
+     * @return ids of the organization's ancestors, not including the organization itself
+     */
+    Set<UUID> findAncestorIds(UUID orgId);
+
+    /**
+     * Selects only the requested columns of the given organizations, used for sparse fieldset
+     * responses.  Only basic single valued attributes can be selected, see {@link #supportsFieldProjection}.
+     *
+     * @param ids ids of the organizations to look up
+     * @param fields the fields to select
+     * @return map of id to field values, ids not found are absent
+     */
+    Map<UUID, Map<String, Object>> findFieldsByIdIn(Collection<UUID> ids, Collection<String> fields);
+
+    /**
+     * Checks whether the given fields can be selected with {@link #findFieldsByIdIn}
+     *
+     * @param fields the fields to select
+     * @return true if every field is a basic single valued attribute of Organization
+     */
+    boolean supportsFieldProjection(Collection<String> fields);
+
+    /**
+     * Finds the members of each of the given organizations with a single query against the
+     * membership join table, without loading any of the organizations or persons
+     *
+     * @param orgIds ids of the organizations to look up
+     * @return map of organization id to the ids of its members, organizations with no members are absent
+     */
+    Map<UUID, Set<UUID>> findMemberIdsByOrgIdIn(Collection<UUID> orgIds);
+}
@@ -0,0 +1,133 @@
+package mil.tron.commonapi.repository;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+
+import org.hibernate.Session;
+
+import mil.tron.commonapi.entity.Organization;
+import mil.tron.commonapi.entity.OrganizationMetadata;
+
+import static mil.tron.commonapi.service.utility.BulkImportUtils.INSERT_CHUNK_SIZE;
+
+public class OrganizationRepositoryCustomImpl implements OrganizationRepositoryCustom {
+
+    // walks down the subordinate organizations join table starting from (and including) :orgIds,
+    //  UNION (rather than UNION ALL) keeps postgres from looping forever should a cycle ever sneak in
+    private static final String DESCENDANTS_CTE =
+            "WITH RECURSIVE descendants(id) AS (" +
+                "SELECT o.id FROM organization o WHERE o.id IN (:orgIds) " +
+                "UNION " +
+                "SELECT s.subordinate_organizations_id FROM organization_subordinate_organizations s " +
+                "JOIN descendants d ON s.organization_id = d.id" +
+            ") ";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void insertAll(Collection<Organization> organizations) {
+        // batch only this session's inserts, everything else keeps hibernate's default of unbatched statements
+        entityManager.unwrap(Session.class).setJdbcBatchSize(INSERT_CHUNK_SIZE);
+
+        for (Organization organization : organizations) {
+            entityManager.persist(organization);
+        }
+
+        // metadata goes in after all of the organizations so each table's inserts stay in a single batch
+        for (Organization organization : organizations) {
+            for (OrganizationMetadata metadata : organization.getMetadata()) {
+                entityManager.persist(metadata);
+            }
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Override
+    public Set<UUID> findSelfAndDescendantIds(Collection<UUID> orgIds) {
+        if (orgIds == null || orgIds.isEmpty()) return Collections.emptySet();
+
+        return toUuids(entityManager.createNativeQuery(DESCENDANTS_CTE +
+                "SELECT CAST(d.id AS VARCHAR) FROM descendants d")
+            .setParameter("orgIds", orgIds));
+    }
+
+    @Override
+    public Set<UUID> findSelfAndDescendantMemberIds(Collection<UUID> orgIds) {
+        if (orgIds == null || orgIds.isEmpty()) return Collections.emptySet();
+
+        return toUuids(entityManager.createNativeQuery(DESCENDANTS_CTE +
+                "SELECT CAST(o.leader_id AS VARCHAR) FROM organization o JOIN descendants d ON o.id = d.id " +
+                "WHERE o.leader_id IS NOT NULL " +
+                "UNION " +
+                "SELECT CAST(m.members_id AS VARCHAR) FROM organization_members m JOIN descendants d ON m.organization_id = d.id")
+            .setParameter("orgIds", orgIds));
+    }
+
+    @Override
+    public Set<UUID> findAncestorIds(UUID orgId) {
+        return toUuids(entityManager.createNativeQuery(
+                "WITH RECURSIVE ancestors(id) AS (" +
+                    "SELECT o.parent_organization_id FROM organization o " +
+                    "WHERE o.id = :orgId AND o.parent_organization_id IS NOT NULL " +
+                    "UNION " +
+                    "SELECT o.parent_organization_id FROM organization o JOIN ancestors a ON o.id = a.id " +
+                    "WHERE o.parent_organization_id IS NOT NULL" +
+                ") " +
+                "SELECT CAST(a.id AS VARCHAR) FROM ancestors a")
+            .setParameter("orgId", orgId));
+    }
+
+    @Override
+    public Map<UUID, Map<String, Object>> findFieldsByIdIn(Collection<UUID> ids, Collection<String> fields) {
+        return FieldProjectionQuery.findFieldsByIdIn(entityManager, Organization.class, ids, fields);
+    }
+
+    @Override
+    public boolean supportsFieldProjection(Collection<String> fields) {
+        return FieldProjectionQuery.supportsFields(entityManager, Organization.class, fields);
+    }
+
+    @Override
+    public Map<UUID, Set<UUID>> findMemberIdsByOrgIdIn(Collection<UUID> orgIds) {
+        if (orgIds == null || orgIds.isEmpty()) return Collections.emptyMap();
+
+        List<?> rows = entityManager.createNativeQuery(
+                "SELECT CAST(m.organization_id AS VARCHAR), CAST(m.members_id AS VARCHAR) FROM organization_members m " +
+                "WHERE m.organization_id IN (:orgIds)")
+            .setParameter("orgIds", orgIds)
+            .getResultList();
+
+        Map<UUID, Set<UUID>> members = new HashMap<>();
+        for (Object row : rows) {
+            Object[] columns = (Object[]) row;
+            members.computeIfAbsent(UUID.fromString(columns[0].toString()), id -> new HashSet<>())
+                .add(UUID.fromString(columns[1].toString()));
+        }
+
+        return members;
+    }
+
+    // ids come back as text so we don't depend on how each database/dialect maps its uuid type
+    private static Set<UUID> toUuids(Query query) {
+        Set<UUID> ids = new LinkedHashSet<>();
+        for (Object id : (List<?>) query.getResultList()) {
+            ids.add(UUID.fromString(id.toString()));
+        }
+
+        return ids;
+    }
+}
@@ -1,5 +1,7 @@
 package mil.tron.commonapi.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -9,15 +11,26 @@ import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import mil.tron.commonapi.entity.Person;
 
 @Repository
-public interface PersonRepository extends JpaRepository<Person, UUID>, JpaSpecificationExecutor<Person> {
+public interface PersonRepository extends JpaRepository<Person, UUID>, JpaSpecificationExecutor<Person>, PersonRepositoryCustom {
 	Optional<Person> findByEmailIgnoreCase(String email);
 	Optional<Person> findByDodidIgnoreCase(String dodid);
 	Slice<Person> findBy(Pageable pageable);
 	Page<Person> findAll(Pageable pageable);
 	Page<Person> findAll(Specification<Person> spec, Pageable pageable);
+
+	@Query("select p.id from Person p where p.id in :ids")
+	List<UUID> findIdsByIdIn(@Param("ids") Collection<UUID> ids);
+
+	@Query("select p.emailAsLower from Person p where p.emailAsLower in :emails")
+	List<String> findEmailsAsLowerIn(@Param("emails") Collection<String> emailsAsLower);
+
+	@Query("select p.dodid from Person p where p.dodid in :dodids")
+	List<String> findDodidsIn(@Param("dodids") Collection<String> dodids);
 }
@@ -0,0 +1,41 @@
+package mil.tron.commonapi.repository;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+
+import mil.tron.commonapi.entity.Person;
+
+public interface PersonRepositoryCustom {
+
+    /**
+     * Inserts brand new persons (and their metadata) without the existence check that
+     * save() does for entities with assigned ids.  Rank and primary organization are attached
+     * by reference only.  JDBC batching is turned on for the current session only, and the
+     * persistence context is flushed and cleared afterwards so the given entities end up detached.
+     *
+     * Must be called from within a transaction, and with entities that were never handed to
+     * another persistence context (build new ones to retry a failed insert).
+     *
+     * @param persons the new persons to insert
+     */
+    void insertAll(Collection<Person> persons);
+
+    /**
+     * Selects only the requested columns of the given persons, used for sparse fieldset
+     * responses.  Only basic single valued attributes can be selected, see {@link #supportsFieldProjection}.
+     *
+     * @param ids ids of the persons to look up
+     * @param fields the fields to select
+     * @return map of id to field values, ids not found are absent
+     */
+    Map<UUID, Map<String, Object>> findFieldsByIdIn(Collection<UUID> ids, Collection<String> fields);
+
+    /**
+     * Checks whether the given fields can be selected with {@link #findFieldsByIdIn}
+     *
+     * @param fields the fields to select
+     * @return true if every field is a basic single valued attribute of Person
+     */
+    boolean supportsFieldProjection(Collection<String> fields);
+}
@@ -0,0 +1,60 @@
+package mil.tron.commonapi.repository;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.Session;
+
+import mil.tron.commonapi.entity.Organization;
+import mil.tron.commonapi.entity.Person;
+import mil.tron.commonapi.entity.PersonMetadata;
+import mil.tron.commonapi.entity.ranks.Rank;
+
+import static mil.tron.commonapi.service.utility.BulkImportUtils.INSERT_CHUNK_SIZE;
+
+public class PersonRepositoryCustomImpl implements PersonRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void insertAll(Collection<Person> persons) {
+        // batch only this session's inserts, everything else keeps hibernate's default of unbatched statements
+        entityManager.unwrap(Session.class).setJdbcBatchSize(INSERT_CHUNK_SIZE);
+
+        for (Person person : persons) {
+            if (person.getRank() != null) {
+                person.setRank(entityManager.getReference(Rank.class, person.getRank().getId()));
+            }
+
+            if (person.getPrimaryOrganization() != null) {
+                person.setPrimaryOrganization(entityManager.getReference(Organization.class, person.getPrimaryOrganization().getId()));
+            }
+
+            entityManager.persist(person);
+        }
+
+        // metadata goes in after all of the persons so each table's inserts stay in a single batch
+        for (Person person : persons) {
+            for (PersonMetadata metadata : person.getMetadata()) {
+                entityManager.persist(metadata);
+            }
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Override
+    public Map<UUID, Map<String, Object>> findFieldsByIdIn(Collection<UUID> ids, Collection<String> fields) {
+        return FieldProjectionQuery.findFieldsByIdIn(entityManager, Person.class, ids, fields);
+    }
+
+    @Override
+    public boolean supportsFieldProjection(Collection<String> fields) {
+        return FieldProjectionQuery.supportsFields(entityManager, Person.class, fields);
+    }
+}
@@ -0,0 +1,8 @@
+package mil.tron.commonapi.repository.appsource;
+
+import org.springframework.data.repository.CrudRepository;
+
+import mil.tron.commonapi.entity.appsource.AppSourceSpecIndex;
+
+public interface AppSourceSpecIndexRepository extends CrudRepository<AppSourceSpecIndex, String> {
+}
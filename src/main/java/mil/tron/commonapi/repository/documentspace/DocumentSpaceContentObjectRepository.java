@@ -0,0 +1,36 @@
+package mil.tron.commonapi.repository.documentspace;
+
+import mil.tron.commonapi.entity.documentspace.DocumentSpaceContentObject;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import javax.transaction.Transactional;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DocumentSpaceContentObjectRepository extends JpaRepository<DocumentSpaceContentObject, String> {
+
+    /**
+     * Adds to (or with a negative count, takes from) the reference count of stored contents
+     * @return the number of rows updated, 0 if the contents are not stored
+     */
+    @Modifying
+    @Transactional
+    @Query("update DocumentSpaceContentObject c set c.refCount = c.refCount + :count, c.updatedOn = :now " +
+            "where c.contentHash = :contentHash")
+    int addReferences(@Param("contentHash") String contentHash, @Param("count") long count, @Param("now") Date now);
+
+    @Query("select c.contentHash from DocumentSpaceContentObject c where c.refCount <= 0 and c.updatedOn < :cutoff")
+    List<String> findUnreferencedSince(@Param("cutoff") Date cutoff);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from DocumentSpaceContentObject c where c.contentHash = :contentHash")
+    Optional<DocumentSpaceContentObject> findByContentHashForUpdate(@Param("contentHash") String contentHash);
+}
@@ -12,7 +12,7 @@ import org.springframework.data.jpa.repository.Query;
 import javax.transaction.Transactional;
 import java.util.*;
 
-public interface DocumentSpaceFileSystemEntryRepository extends JpaRepository<DocumentSpaceFileSystemEntry, UUID> {
+public interface DocumentSpaceFileSystemEntryRepository extends JpaRepository<DocumentSpaceFileSystemEntry, UUID>, DocumentSpaceFileSystemEntryRepositoryCustom {
 
     boolean existsByDocumentSpaceIdAndParentEntryIdAndItemNameAndIsDeleteArchivedEquals(UUID spaceId, UUID parentEntryId, String itemName, boolean archived);
     boolean existsByDocumentSpaceIdAndParentEntryIdAndItemName(UUID spaceId, UUID parentEntryId, String itemName);
@@ -23,6 +23,7 @@ public interface DocumentSpaceFileSystemEntryRepository extends JpaRepository<Do
     Optional<DocumentSpaceFileSystemEntry> findByDocumentSpaceIdAndItemIdAndIsFolder(UUID spaceId, UUID itemId, boolean isFolder);
     List<DocumentSpaceFileSystemEntry> findByDocumentSpaceIdEqualsAndParentEntryIdEquals(UUID spaceId, UUID parentId);
     List<DocumentSpaceFileSystemEntry> findByDocumentSpaceIdEqualsAndParentEntryIdEqualsAndIsDeleteArchivedEquals(UUID spaceId, UUID parentId, boolean archived);
+    List<DocumentSpaceFileSystemEntry> findByDocumentSpaceIdEqualsAndParentEntryIdEqualsAndItemNameIn(UUID spaceId, UUID parentId, Collection<String> itemNames);
 
     /*
      * Finds the most recent Date (last modified date) given space Id and parent Id (folder) - so basically most recent mod date inside given folder
@@ -45,6 +46,7 @@ public interface DocumentSpaceFileSystemEntryRepository extends JpaRepository<Do
      * File Methods
      */
     List<DocumentSpaceFileSystemEntry> findByDocumentSpaceIdAndParentEntryIdAndIsFolderFalse(UUID spaceId, UUID parentId);
+    List<DocumentSpaceFileSystemEntry> findByDocumentSpaceIdAndParentEntryIdAndIsFolderFalseAndContentHashNotNull(UUID spaceId, UUID parentId);
     boolean existsByParentEntryIdAndIsDeleteArchivedFalse(UUID parentId);
     Optional<DocumentSpaceFileSystemEntry> findFileByDocumentSpaceIdAndParentEntryIdAndItemNameAndIsFolderFalse(UUID documentSpaceId, UUID parentId, String itemName);
 
@@ -75,7 +77,7 @@ public interface DocumentSpaceFileSystemEntryRepository extends JpaRepository<Do
     		+ " entry.isDeleteArchived = false and "
     		+ " entry.documentSpaceId = documentSpace.id and"
     		+ " documentSpace.id in :authorizedSpaceIds"
-    		+ " order by coalesce(entry.lastActivity, entry.lastModifiedOn, entry.createdOn) desc")
+    		+ " order by coalesce(entry.lastActivity, entry.lastModifiedOn, entry.createdOn) desc, entry.id desc")
     Page<RecentDocumentDto> getRecentlyUploadedFilesByUser(String username, Set<UUID> authorizedSpaceIds, Pageable pageable);
 
     /**
@@ -97,12 +99,28 @@ public interface DocumentSpaceFileSystemEntryRepository extends JpaRepository<Do
             + " entry.documentSpaceId = :spaceId and "
             + " entry.documentSpaceId = documentSpace.id and "
             + " coalesce(entry.lastActivity, entry.lastModifiedOn, entry.createdOn) <= :fromDate "
-            + " order by coalesce(entry.lastActivity, entry.lastModifiedOn, entry.createdOn) desc")
+            + " order by coalesce(entry.lastActivity, entry.lastModifiedOn, entry.createdOn) desc, entry.id desc")
     Page<RecentDocumentDto> getRecentlyUploadedFilesBySpace(UUID spaceId, Date fromDate, Pageable pageable);
 
     /**
-     * Search file system entries for filename, excluding archived items
+     * Archived entries across the given spaces whose parent isn't itself archived - archiving a folder archives
+     * everything under it, so these are the items that were actually archived (what the archived view lists)
      */
-    @Query("select h from DocumentSpaceFileSystemEntry h where h.documentSpaceId = :spaceId and lower(h.itemName) like lower(:itemName) and h.isDeleteArchived = false")
-    Page<DocumentSpaceFileSystemEntry> findFilesInSpaceLike(UUID spaceId, String itemName, Pageable page);
+    @Query(value = "select e from DocumentSpaceFileSystemEntry e"
+            + " where e.documentSpaceId in :spaceIds and e.isDeleteArchived = true and"
+            + " (e.parentEntryId = :rootId or exists (select p.id from DocumentSpaceFileSystemEntry p"
+            + "     where p.itemId = e.parentEntryId and p.isDeleteArchived = false))"
+            + " order by coalesce(e.lastModifiedOn, e.createdOn) desc, e.id",
+        countQuery = "select count(e) from DocumentSpaceFileSystemEntry e"
+            + " where e.documentSpaceId in :spaceIds and e.isDeleteArchived = true and"
+            + " (e.parentEntryId = :rootId or exists (select p.id from DocumentSpaceFileSystemEntry p"
+            + "     where p.itemId = e.parentEntryId and p.isDeleteArchived = false))")
+    Page<DocumentSpaceFileSystemEntry> findArchivedEntries(Collection<UUID> spaceIds, UUID rootId, Pageable pageable);
+
+    /**
+     * Which of the given item ids still belong to a non-archived folder
+     */
+    @Query("select e.itemId from DocumentSpaceFileSystemEntry e"
+            + " where e.itemId in :itemIds and e.isFolder = true and e.isDeleteArchived = false")
+    Set<UUID> findActiveFolderItemIds(Collection<UUID> itemIds);
 }
@@ -0,0 +1,159 @@
+package mil.tron.commonapi.repository.documentspace;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.annotation.Nullable;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import mil.tron.commonapi.dto.documentspace.DocumentSpaceContentsSort;
+import mil.tron.commonapi.dto.documentspace.RecentDocumentDto;
+import mil.tron.commonapi.entity.documentspace.DocumentSpaceFileSystemEntry;
+import mil.tron.commonapi.service.documentspace.util.FolderListingCursor;
+import mil.tron.commonapi.service.documentspace.util.RecencyCursor;
+
+public interface DocumentSpaceFileSystemEntryRepositoryCustom {
+
+    /**
+     * Finds everything underneath the given folder (its children, their children, etc) using a single
+     * recursive query rather than walking the tree one folder at a time
+     *
+     * @param documentSpaceId the space the folder lives in
+     * @param itemId item id of the folder
+     * @return all descendants of the folder in no particular order, not including the folder itself
+     */
+    List<DocumentSpaceFileSystemEntry> findDescendants(UUID documentSpaceId, UUID itemId);
+
+    /**
+     * Like {@link #findDescendants(UUID, UUID)} but for several folders at once, all in the same query
+     *
+     * @param documentSpaceId the space the folders live in
+     * @param itemIds item ids of the folders
+     * @return all descendants of the folders in no particular order, not including the folders themselves
+     */
+    List<DocumentSpaceFileSystemEntry> findDescendants(UUID documentSpaceId, Collection<UUID> itemIds);
+
+    /**
+     * Like {@link #findDescendants(UUID, UUID)} but only descends through non-archived entries, so
+     * archived items and anything underneath them are left out.  Stops once {@code limit} entries
+     * have been found.
+     *
+     * @param documentSpaceId the space the folder lives in
+     * @param itemId item id of the folder
+     * @param limit max number of entries to return
+     * @return up to {@code limit} non-archived descendants of the folder in no particular order
+     */
+    List<DocumentSpaceFileSystemEntry> findNonArchivedDescendants(UUID documentSpaceId, UUID itemId, int limit);
+
+    /**
+     * Lists the non-archived children of a folder along with whether each of them has non-archived
+     * contents of its own (or how many), all in one query rather than a lookup per child.  Results are
+     * ordered by the given sort, with the entry id as a tie breaker so that keyset paging is stable.
+     *
+     * Each returned entry has hasNonArchivedContents set, and nonArchivedContentsCount too when
+     * {@code countChildren} is true.
+     *
+     * @param documentSpaceId the space the folder lives in
+     * @param parentId item id of the folder
+     * @param sort what to order the children by
+     * @param ascending sort direction
+     * @param after position to carry on from (exclusive), null to start at the beginning
+     * @param limit max number of children to return, null for all of them
+     * @param countChildren true to count each child's contents, false to only check if it has any
+     * @return the children in sorted order
+     */
+    List<DocumentSpaceFileSystemEntry> findChildrenWithContentsInfo(UUID documentSpaceId,
+                                                                    UUID parentId,
+                                                                    DocumentSpaceContentsSort sort,
+                                                                    boolean ascending,
+                                                                    @Nullable FolderListingCursor after,
+                                                                    @Nullable Integer limit,
+                                                                    boolean countChildren);
+
+    /**
+     * Lists the non-archived files of the given spaces newest activity first (the first non-null of their
+     * last activity, last modified and created dates), with the entry id as a tie breaker so that keyset
+     * paging is stable.  Never counts the whole feed.
+     *
+     * @param documentSpaceIds the spaces to list from
+     * @param username only list files last modified or created by this user, null for everyone's
+     * @param fromDate only list files whose activity date is at or before this, null for no limit
+     * @param after position to carry on from (exclusive), null to start at the newest
+     * @param limit max number of files to return
+     * @return the files newest first, their paths aren't resolved
+     */
+    List<RecentDocumentDto> findRecentFiles(Collection<UUID> documentSpaceIds,
+                                            @Nullable String username,
+                                            @Nullable Date fromDate,
+                                            @Nullable RecencyCursor after,
+                                            int limit);
+
+    /**
+     * Inserts brand new entries without the existence check that save() does for entities
+     * with assigned ids.  The persistence context is flushed and cleared as it goes so the
+     * inserts go out as JDBC batches.
+     *
+     * Must be called from within a transaction.
+     *
+     * @param entries the new entries to insert
+     */
+    void insertAll(Collection<DocumentSpaceFileSystemEntry> entries);
+
+    /**
+     * Reassigns the given entries to another document space with bulk updates.  The persistence
+     * context is cleared afterwards since any loaded copies of the entries are now stale.
+     *
+     * Must be called from within a transaction.
+     *
+     * @param ids ids of the entries to move
+     * @param documentSpaceId the space to move them to
+     * @return number of entries updated
+     */
+    int updateDocumentSpaceId(Collection<UUID> ids, UUID documentSpaceId);
+
+    /**
+     * Sets the archived flag of the given entries with bulk updates.  Pending changes are flushed
+     * first, and the persistence context is cleared afterwards since any loaded copies of the entries
+     * are now stale.
+     *
+     * Must be called from within a transaction.
+     *
+     * @param ids ids of the entries to update
+     * @param archived true to archive them, false to un-archive them
+     * @return number of entries updated
+     */
+    int updateDeleteArchived(Collection<UUID> ids, boolean archived);
+
+    /**
+     * Case-insensitive name search over the non-archived entries of the given spaces.  Matches on
+     * lower(item_name) so that it can be served by the trigram index.  Results are ranked - exact
+     * name matches first, then names starting with the term, then everything else - with shorter
+     * names ahead of longer ones within each group.  Any sort on the pageable is ignored.
+     *
+     * @param documentSpaceIds the spaces to search
+     * @param term the (part of a) name to look for
+     * @param prefixOnly true to only match names starting with the term
+     * @param extension optional extension (without the dot) matched names must end with
+     * @param pageable page to fetch
+     * @return the page of matching entries
+     */
+    Page<DocumentSpaceFileSystemEntry> searchByItemName(Collection<UUID> documentSpaceIds,
+                                                        String term,
+                                                        boolean prefixOnly,
+                                                        @Nullable String extension,
+                                                        Pageable pageable);
+
+    /**
+     * Resolves the full paths (ie "folder/subfolder") of the given folders using a single recursive
+     * query up through their ancestors, rather than walking each folder's ancestry separately
+     *
+     * @param folderItemIds item ids of the folders
+     * @return map of folder item id to its path, folders that don't exist are absent
+     */
+    Map<UUID, String> findFolderPaths(Collection<UUID> folderItemIds);
+}
@@ -0,0 +1,331 @@
+package mil.tron.commonapi.repository.documentspace;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nullable;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import com.google.common.collect.Iterables;
+
+import mil.tron.commonapi.dto.documentspace.DocumentSpaceContentsSort;
+import mil.tron.commonapi.dto.documentspace.RecentDocumentDto;
+import mil.tron.commonapi.entity.documentspace.DocumentSpaceFileSystemEntry;
+import mil.tron.commonapi.service.documentspace.util.FolderListingCursor;
+import mil.tron.commonapi.service.documentspace.util.RecencyCursor;
+
+public class DocumentSpaceFileSystemEntryRepositoryCustomImpl implements DocumentSpaceFileSystemEntryRepositoryCustom {
+
+    /**
+     * Number of rows inserted between flushes, kept in line with hibernate.jdbc.batch_size
+     */
+    private static final int INSERT_CHUNK_SIZE = 500;
+
+    /**
+     * Max number of ids bound to a single IN (...) list
+     */
+    private static final int ID_CHUNK_SIZE = 1000;
+
+    private static final String SEARCH_CONDITIONS = " where e.documentSpaceId in :spaceIds" +
+            " and e.isDeleteArchived = false" +
+            " and lower(e.itemName) like :pattern escape '\\'" +
+            " and lower(e.itemName) like :extensionPattern escape '\\'";
+
+    /**
+     * What the recent documents feeds order by, matching the expression indexes on file_system_entries
+     */
+    private static final String RECENT_ACTIVITY_COLUMN = "coalesce(entry.lastActivity, entry.lastModifiedOn, entry.createdOn)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<DocumentSpaceFileSystemEntry> findDescendants(UUID documentSpaceId, UUID itemId) {
+        return findDescendants(documentSpaceId, List.of(itemId));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public List<DocumentSpaceFileSystemEntry> findDescendants(UUID documentSpaceId, Collection<UUID> itemIds) {
+        if (itemIds.isEmpty()) return Collections.emptyList();
+
+        // children point at their parent's item id, and item ids are unique across spaces so
+        //  only the starting level needs to be scoped to the space
+        return entityManager.createNativeQuery(
+                "WITH RECURSIVE descendants(id, item_id) AS (" +
+                    "SELECT e.id, e.item_id FROM file_system_entries e " +
+                    "WHERE e.doc_space_id = :spaceId AND e.parent_entry_id IN (:itemIds) " +
+                    "UNION " +
+                    "SELECT e.id, e.item_id FROM file_system_entries e JOIN descendants d ON e.parent_entry_id = d.item_id" +
+                ") " +
+                "SELECT e.* FROM file_system_entries e JOIN descendants d ON e.id = d.id",
+                DocumentSpaceFileSystemEntry.class)
+            .setParameter("spaceId", documentSpaceId)
+            .setParameter("itemIds", itemIds)
+            .getResultList();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public List<DocumentSpaceFileSystemEntry> findNonArchivedDescendants(UUID documentSpaceId, UUID itemId, int limit) {
+        return entityManager.createNativeQuery(
+                "WITH RECURSIVE descendants(id, item_id) AS (" +
+                    "SELECT e.id, e.item_id FROM file_system_entries e " +
+                    "WHERE e.doc_space_id = :spaceId AND e.parent_entry_id = :itemId AND e.is_delete_archived = false " +
+                    "UNION ALL " +
+                    "SELECT e.id, e.item_id FROM file_system_entries e JOIN descendants d ON e.parent_entry_id = d.item_id " +
+                    "WHERE e.is_delete_archived = false" +
+                ") " +
+                "SELECT e.* FROM file_system_entries e JOIN descendants d ON e.id = d.id LIMIT :limit",
+                DocumentSpaceFileSystemEntry.class)
+            .setParameter("spaceId", documentSpaceId)
+            .setParameter("itemId", itemId)
+            .setParameter("limit", limit)
+            .getResultList();
+    }
+
+    @Override
+    public List<DocumentSpaceFileSystemEntry> findChildrenWithContentsInfo(UUID documentSpaceId,
+                                                                           UUID parentId,
+                                                                           DocumentSpaceContentsSort sort,
+                                                                           boolean ascending,
+                                                                           @Nullable FolderListingCursor after,
+                                                                           @Nullable Integer limit,
+                                                                           boolean countChildren) {
+        // children always live in the same space as their parent, which lets the lookup use the
+        //  (doc_space_id, parent_entry_id, ...) unique index
+        String contents = "from DocumentSpaceFileSystemEntry c where c.documentSpaceId = e.documentSpaceId" +
+                " and c.parentEntryId = e.itemId and c.isDeleteArchived = false";
+        String contentsColumn = countChildren ? "(select count(c.id) " + contents + ")" :
+                "case when exists (select c.id " + contents + ") then 1 else 0 end";
+
+        String sortColumn = getSortColumn(sort);
+        String direction = ascending ? "asc" : "desc";
+        String keyset = "";
+        if (after != null) {
+            String comparison = ascending ? " > " : " < ";
+            keyset = " and (" + sortColumn + comparison + ":afterValue" +
+                    " or (" + sortColumn + " = :afterValue and e.id" + comparison + ":afterId))";
+        }
+
+        TypedQuery<Object[]> query = entityManager.createQuery(
+                "select e, " + contentsColumn + " from DocumentSpaceFileSystemEntry e" +
+                    " where e.documentSpaceId = :spaceId and e.parentEntryId = :parentId and e.isDeleteArchived = false" +
+                    keyset +
+                    " order by " + sortColumn + " " + direction + ", e.id " + direction,
+                Object[].class)
+            .setParameter("spaceId", documentSpaceId)
+            .setParameter("parentId", parentId);
+
+        if (after != null) {
+            query.setParameter("afterValue", after.getSortValue()).setParameter("afterId", after.getId());
+        }
+
+        if (limit != null) {
+            query.setMaxResults(limit);
+        }
+
+        return query.getResultList().stream().map(row -> {
+            DocumentSpaceFileSystemEntry entry = (DocumentSpaceFileSystemEntry) row[0];
+            long contentsCount = ((Number) row[1]).longValue();
+            // always (re)set both, the entry may be a managed instance left over from an earlier listing
+            entry.setHasNonArchivedContents(contentsCount > 0);
+            entry.setNonArchivedContentsCount(countChildren ? contentsCount : null);
+
+            return entry;
+        }).collect(Collectors.toList());
+    }
+
+    private static String getSortColumn(DocumentSpaceContentsSort sort) {
+        switch (sort) {
+            case LAST_MODIFIED:
+                return "coalesce(e.lastModifiedOn, e.createdOn)";
+            case SIZE:
+                return "e.size";
+            default:
+                return "lower(e.itemName)";
+        }
+    }
+
+    @Override
+    public List<RecentDocumentDto> findRecentFiles(Collection<UUID> documentSpaceIds,
+                                                   @Nullable String username,
+                                                   @Nullable Date fromDate,
+                                                   @Nullable RecencyCursor after,
+                                                   int limit) {
+        if (documentSpaceIds.isEmpty()) return Collections.emptyList();
+
+        StringBuilder conditions = new StringBuilder(" where entry.documentSpaceId in :spaceIds" +
+                " and entry.documentSpaceId = documentSpace.id" +
+                " and entry.isFolder = false and entry.isDeleteArchived = false");
+        if (username != null) {
+            conditions.append(" and (entry.lastModifiedBy = :username or entry.createdBy = :username)");
+        }
+        if (fromDate != null) {
+            conditions.append(" and " + RECENT_ACTIVITY_COLUMN + " <= :fromDate");
+        }
+        if (after != null) {
+            conditions.append(" and (" + RECENT_ACTIVITY_COLUMN + " < :afterDate" +
+                    " or (" + RECENT_ACTIVITY_COLUMN + " = :afterDate and entry.id < :afterId))");
+        }
+
+        TypedQuery<RecentDocumentDto> query = entityManager.createQuery(
+                "select new mil.tron.commonapi.dto.documentspace.RecentDocumentDto(entry.id, entry.itemName," +
+                    " entry.parentEntryId, " + RECENT_ACTIVITY_COLUMN + ", coalesce(entry.lastModifiedBy, entry.createdBy)," +
+                    " documentSpace.id, documentSpace.name)" +
+                    " from DocumentSpaceFileSystemEntry entry, DocumentSpace documentSpace" + conditions +
+                    " order by " + RECENT_ACTIVITY_COLUMN + " desc, entry.id desc",
+                RecentDocumentDto.class)
+            .setParameter("spaceIds", documentSpaceIds)
+            .setMaxResults(limit);
+
+        if (username != null) {
+            query.setParameter("username", username);
+        }
+        if (fromDate != null) {
+            query.setParameter("fromDate", fromDate);
+        }
+        if (after != null) {
+            query.setParameter("afterDate", after.getDate()).setParameter("afterId", after.getId());
+        }
+
+        return query.getResultList();
+    }
+
+    @Override
+    public void insertAll(Collection<DocumentSpaceFileSystemEntry> entries) {
+        int count = 0;
+        for (DocumentSpaceFileSystemEntry entry : entries) {
+            entityManager.persist(entry);
+            if (++count % INSERT_CHUNK_SIZE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Override
+    public int updateDocumentSpaceId(Collection<UUID> ids, UUID documentSpaceId) {
+        int updated = 0;
+        for (List<UUID> chunk : Iterables.partition(ids, ID_CHUNK_SIZE)) {
+            updated += entityManager.createQuery("update DocumentSpaceFileSystemEntry e " +
+                    "set e.documentSpaceId = :spaceId where e.id in :ids")
+                .setParameter("spaceId", documentSpaceId)
+                .setParameter("ids", chunk)
+                .executeUpdate();
+        }
+
+        entityManager.clear();
+        return updated;
+    }
+
+    @Override
+    public int updateDeleteArchived(Collection<UUID> ids, boolean archived) {
+        entityManager.flush();
+
+        int updated = 0;
+        for (List<UUID> chunk : Iterables.partition(ids, ID_CHUNK_SIZE)) {
+            updated += entityManager.createQuery("update DocumentSpaceFileSystemEntry e " +
+                    "set e.isDeleteArchived = :archived where e.id in :ids")
+                .setParameter("archived", archived)
+                .setParameter("ids", chunk)
+                .executeUpdate();
+        }
+
+        entityManager.clear();
+        return updated;
+    }
+
+    @Override
+    public Page<DocumentSpaceFileSystemEntry> searchByItemName(Collection<UUID> documentSpaceIds,
+                                                               String term,
+                                                               boolean prefixOnly,
+                                                               @Nullable String extension,
+                                                               Pageable pageable) {
+        if (documentSpaceIds.isEmpty()) return Page.empty(pageable);
+
+        String lowerTerm = term.toLowerCase();
+        String escapedTerm = escapeLike(lowerTerm);
+        String pattern = prefixOnly ? escapedTerm + "%" : "%" + escapedTerm + "%";
+        String extensionPattern = extension == null ? "%" : "%." + escapeLike(extension.toLowerCase());
+
+        TypedQuery<DocumentSpaceFileSystemEntry> query = entityManager.createQuery(
+                "select e from DocumentSpaceFileSystemEntry e" + SEARCH_CONDITIONS +
+                    " order by case when lower(e.itemName) = :term then 0" +
+                    " when lower(e.itemName) like :prefixPattern escape '\\' then 1 else 2 end," +
+                    " length(e.itemName), lower(e.itemName), e.id",
+                DocumentSpaceFileSystemEntry.class)
+            .setParameter("spaceIds", documentSpaceIds)
+            .setParameter("pattern", pattern)
+            .setParameter("extensionPattern", extensionPattern)
+            .setParameter("term", lowerTerm)
+            .setParameter("prefixPattern", escapedTerm + "%");
+
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize());
+        }
+
+        List<DocumentSpaceFileSystemEntry> results = query.getResultList();
+        if (pageable.isUnpaged() || (pageable.getOffset() == 0 && results.size() < pageable.getPageSize())) {
+            return new PageImpl<>(results, pageable, results.size());
+        }
+
+        long total = entityManager.createQuery("select count(e) from DocumentSpaceFileSystemEntry e" + SEARCH_CONDITIONS, Long.class)
+            .setParameter("spaceIds", documentSpaceIds)
+            .setParameter("pattern", pattern)
+            .setParameter("extensionPattern", extensionPattern)
+            .getSingleResult();
+
+        return new PageImpl<>(results, pageable, total);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public Map<UUID, String> findFolderPaths(Collection<UUID> folderItemIds) {
+        if (folderItemIds.isEmpty()) return Collections.emptyMap();
+
+        Map<UUID, String> paths = new HashMap<>();
+        for (List<UUID> chunk : Iterables.partition(folderItemIds, ID_CHUNK_SIZE)) {
+            // walks up from each folder prepending its ancestors' names, the row that has
+            //  reached the root holds the folder's full path
+            List<Object[]> rows = entityManager.createNativeQuery(
+                    "WITH RECURSIVE ancestry(start_id, parent_id, path) AS (" +
+                        "SELECT e.item_id, e.parent_entry_id, CAST(e.item_name AS VARCHAR) FROM file_system_entries e " +
+                        "WHERE e.item_id IN (:itemIds) AND e.is_folder = true " +
+                        "UNION ALL " +
+                        "SELECT a.start_id, p.parent_entry_id, CAST(p.item_name || '/' || a.path AS VARCHAR) " +
+                        "FROM ancestry a JOIN file_system_entries p ON p.item_id = a.parent_id" +
+                    ") " +
+                    "SELECT CAST(start_id AS VARCHAR), path FROM ancestry WHERE parent_id = :rootId")
+                .setParameter("itemIds", chunk)
+                .setParameter("rootId", DocumentSpaceFileSystemEntry.NIL_UUID)
+                .getResultList();
+
+            rows.forEach(row -> paths.put(UUID.fromString((String) row[0]), (String) row[1]));
+        }
+
+        return paths;
+    }
+
+    /**
+     * Escapes LIKE wildcards in user input so they are matched literally
+     */
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,28 @@
+package mil.tron.commonapi.repository.documentspace;
+
+import mil.tron.commonapi.entity.documentspace.DocumentSpaceFileTransferJob;
+import mil.tron.commonapi.entity.documentspace.DocumentSpaceFileTransferJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface DocumentSpaceFileTransferJobRepository extends JpaRepository<DocumentSpaceFileTransferJob, UUID> {
+    Optional<DocumentSpaceFileTransferJob> findByIdAndDocumentSpaceId(UUID id, UUID documentSpaceId);
+
+    List<DocumentSpaceFileTransferJob> findAllByStatusInAndOwnerInstance(Collection<DocumentSpaceFileTransferJobStatus> statuses, String ownerInstance);
+
+    List<DocumentSpaceFileTransferJob> findAllByStatusInAndHeartbeatOnBefore(Collection<DocumentSpaceFileTransferJobStatus> statuses, Date cutoff);
+
+    @Modifying
+    @Query("update DocumentSpaceFileTransferJob j set j.heartbeatOn = :now where j.id in :ids")
+    int renewHeartbeats(@Param("ids") Collection<UUID> ids, @Param("now") Date now);
+}
@@ -0,0 +1,17 @@
+package mil.tron.commonapi.repository.documentspace;
+
+import mil.tron.commonapi.entity.documentspace.DocumentSpaceUploadPart;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface DocumentSpaceUploadPartRepository extends JpaRepository<DocumentSpaceUploadPart, UUID> {
+    List<DocumentSpaceUploadPart> findAllByUploadSessionIdOrderByPartNumberAsc(UUID uploadSessionId);
+
+    Optional<DocumentSpaceUploadPart> findByUploadSessionIdAndPartNumber(UUID uploadSessionId, int partNumber);
+    void deleteAllByUploadSessionId(UUID uploadSessionId);
+}
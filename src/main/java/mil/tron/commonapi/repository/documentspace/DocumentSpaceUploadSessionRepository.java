@@ -0,0 +1,17 @@
+package mil.tron.commonapi.repository.documentspace;
+
+import mil.tron.commonapi.entity.documentspace.DocumentSpaceUploadSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface DocumentSpaceUploadSessionRepository extends JpaRepository<DocumentSpaceUploadSession, UUID> {
+    Optional<DocumentSpaceUploadSession> findByIdAndDocumentSpaceId(UUID id, UUID documentSpaceId);
+
+    List<DocumentSpaceUploadSession> findAllByLastActivityOnBefore(Date cutoff);
+}
@@ -3,6 +3,7 @@ package mil.tron.commonapi.repository.documentspace;
 import mil.tron.commonapi.entity.documentspace.DocumentSpaceUserCollection;
 import mil.tron.commonapi.entity.documentspace.metadata.FileSystemEntryWithMetadata;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
@@ -10,6 +11,8 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -39,6 +42,36 @@ public interface DocumentSpaceUserCollectionRepository extends CrudRepository<Do
     		+ " where collection.name = :collectionName and collection.documentSpaceId = :documentSpaceId and collection.dashboardUserId = :dashboardUserId"
 		)
     Set<FileSystemEntryWithMetadata> getAllInCollectionAsMetadata(String collectionName, UUID documentSpaceId, UUID dashboardUserId);
+
+    /**
+     * Like {@link #getAllInCollectionAsMetadata(String, UUID, UUID)} but most recently modified first (entry id
+     * breaking ties) and limited to the pageable's size, for keyset paging through the collection.  Only the
+     * pageable's size is honored, the page number should always be 0.
+     */
+    @Query(
+    		"select new mil.tron.commonapi.entity.documentspace.metadata.FileSystemEntryWithMetadata(fileEntries, metadata) from DocumentSpaceUserCollection collection"
+    		+ " join collection.entries fileEntries"
+    		+ " left join fetch FileSystemEntryMetadata metadata on fileEntries = metadata.fileSystemEntry and metadata.dashboardUser.id = :dashboardUserId"
+    		+ " where collection.name = :collectionName and collection.documentSpaceId = :documentSpaceId and collection.dashboardUserId = :dashboardUserId"
+    		+ " order by coalesce(fileEntries.lastModifiedOn, fileEntries.createdOn) desc, fileEntries.id desc"
+		)
+    List<FileSystemEntryWithMetadata> getFirstInCollectionAsMetadata(String collectionName, UUID documentSpaceId, UUID dashboardUserId, Pageable pageable);
+
+    /**
+     * Continues {@link #getFirstInCollectionAsMetadata(String, UUID, UUID, Pageable)} from the entry with the given
+     * modified date and id (exclusive)
+     */
+    @Query(
+    		"select new mil.tron.commonapi.entity.documentspace.metadata.FileSystemEntryWithMetadata(fileEntries, metadata) from DocumentSpaceUserCollection collection"
+    		+ " join collection.entries fileEntries"
+    		+ " left join fetch FileSystemEntryMetadata metadata on fileEntries = metadata.fileSystemEntry and metadata.dashboardUser.id = :dashboardUserId"
+    		+ " where collection.name = :collectionName and collection.documentSpaceId = :documentSpaceId and collection.dashboardUserId = :dashboardUserId"
+    			+ " and (coalesce(fileEntries.lastModifiedOn, fileEntries.createdOn) < :afterDate"
+    			+ " or (coalesce(fileEntries.lastModifiedOn, fileEntries.createdOn) = :afterDate and fileEntries.id < :afterId))"
+    		+ " order by coalesce(fileEntries.lastModifiedOn, fileEntries.createdOn) desc, fileEntries.id desc"
+		)
+    List<FileSystemEntryWithMetadata> getNextInCollectionAsMetadata(String collectionName, UUID documentSpaceId, UUID dashboardUserId,
+                                                                     Date afterDate, UUID afterId, Pageable pageable);
     
     @Modifying
     @Transactional
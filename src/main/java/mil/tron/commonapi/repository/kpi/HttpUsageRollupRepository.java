@@ -0,0 +1,93 @@
+package mil.tron.commonapi.repository.kpi;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import mil.tron.commonapi.entity.dashboard.AppSourceResponseCount;
+import mil.tron.commonapi.entity.dashboard.EntityAccessor;
+import mil.tron.commonapi.entity.kpi.HttpUsageRollup;
+import mil.tron.commonapi.entity.kpi.ServiceUsage;
+import mil.tron.commonapi.entity.kpi.UserWithRequestCount;
+
+/**
+ * Hourly http usage rollups.  All of the reads take bucket boundaries, a bucket is included
+ * when its start falls between {@code startDate} and {@code endDate} (inclusive).
+ */
+public interface HttpUsageRollupRepository extends JpaRepository<HttpUsageRollup, UUID> {
+
+	/**
+	 * Adds to the counters of an existing rollup row
+	 * @return the number of rows updated, 0 if the row does not exist yet
+	 */
+	@Modifying
+	@Query(value = "UPDATE HttpUsageRollup r SET"
+			+ " r.requestCount = r.requestCount + :#{#delta.requestCount},"
+			+ " r.latencyCount = r.latencyCount + :#{#delta.latencyCount},"
+			+ " r.totalLatencyMs = r.totalLatencyMs + :#{#delta.totalLatencyMs},"
+			+ " r.latencyLe100Ms = r.latencyLe100Ms + :#{#delta.latencyLe100Ms},"
+			+ " r.latencyLe500Ms = r.latencyLe500Ms + :#{#delta.latencyLe500Ms},"
+			+ " r.latencyLe1000Ms = r.latencyLe1000Ms + :#{#delta.latencyLe1000Ms},"
+			+ " r.latencyLe5000Ms = r.latencyLe5000Ms + :#{#delta.latencyLe5000Ms},"
+			+ " r.latencyOver5000Ms = r.latencyOver5000Ms + :#{#delta.latencyOver5000Ms}"
+			+ " WHERE r.bucketStart = :#{#delta.bucketStart}"
+			+ " AND r.userName = :#{#delta.userName}"
+			+ " AND r.service = :#{#delta.service}"
+			+ " AND r.appSource = :#{#delta.appSource}"
+			+ " AND r.statusCode = :#{#delta.statusCode}")
+	int increment(@Param("delta") HttpUsageRollup delta);
+
+	@Query(value = "SELECT r.userName AS name, SUM(r.requestCount) AS requestCount"
+			+ " FROM HttpUsageRollup r"
+			+ " WHERE r.bucketStart BETWEEN :startDate AND :endDate"
+			+ " GROUP BY r.userName")
+	List<UserWithRequestCount> getUsersWithRequestCount(Date startDate, Date endDate);
+
+	/**
+	 * Successful (status code between 200 and 299) request counts and latency totals by service
+	 * (App Source name, Organization, Person or Other)
+	 */
+	@Query(value = "SELECT r.service AS name, SUM(r.requestCount) AS requestCount,"
+			+ " SUM(r.latencyCount) AS latencyCount, SUM(r.totalLatencyMs) AS totalLatencyMs"
+			+ " FROM HttpUsageRollup r"
+			+ " WHERE r.statusCode BETWEEN 200 AND 299 AND r.bucketStart BETWEEN :startDate AND :endDate"
+			+ " GROUP BY r.service")
+	List<ServiceUsage> getSuccessfulUsageByService(Date startDate, Date endDate);
+
+	/**
+	 * Successful (status code between 200 and 299) request counts for each App Source
+	 */
+	@Query(value = "SELECT r.service AS name, SUM(r.requestCount) AS requestCount,"
+			+ " SUM(r.latencyCount) AS latencyCount, SUM(r.totalLatencyMs) AS totalLatencyMs"
+			+ " FROM HttpUsageRollup r"
+			+ " WHERE r.appSource = true AND r.statusCode BETWEEN 200 AND 299"
+			+ " AND r.bucketStart BETWEEN :startDate AND :endDate"
+			+ " GROUP BY r.service")
+	List<ServiceUsage> getAppSourceUsage(Date startDate, Date endDate);
+
+	/**
+	 * Error (status code between 400 and 599) request counts for each App Source and status code
+	 */
+	@Query(value = "SELECT r.service AS name, r.statusCode AS statusCode, SUM(r.requestCount) AS requestCount"
+			+ " FROM HttpUsageRollup r"
+			+ " WHERE r.appSource = true AND r.statusCode BETWEEN 400 AND 599"
+			+ " AND r.bucketStart BETWEEN :startDate AND :endDate"
+			+ " GROUP BY r.service, r.statusCode")
+	List<AppSourceResponseCount> getAppSourceErrorUsage(Date startDate, Date endDate);
+
+	/**
+	 * Users that successfully (status code between 200 and 299) made requests to one of
+	 * Common API's own services (Organization or Person)
+	 */
+	@Query(value = "SELECT r.userName AS name, SUM(r.requestCount) AS recordAccessCount"
+			+ " FROM HttpUsageRollup r"
+			+ " WHERE r.appSource = false AND r.service = :service AND r.statusCode BETWEEN 200 AND 299"
+			+ " AND r.bucketStart BETWEEN :startDate AND :endDate"
+			+ " GROUP BY r.userName")
+	List<EntityAccessor> getUsersAccessingService(Date startDate, Date endDate, String service);
+}
@@ -0,0 +1,30 @@
+package mil.tron.commonapi.repository.puckboard;
+
+import mil.tron.commonapi.entity.puckboard.PuckboardEtlJob;
+import mil.tron.commonapi.entity.puckboard.PuckboardEtlJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface PuckboardEtlJobRepository extends JpaRepository<PuckboardEtlJob, UUID> {
+    List<PuckboardEtlJob> findTop20ByOrderByCreatedOnDesc();
+
+    Optional<PuckboardEtlJob> findFirstByStatusInOrderByCreatedOnDesc(Collection<PuckboardEtlJobStatus> statuses);
+
+    List<PuckboardEtlJob> findAllByStatusInAndOwnerInstance(Collection<PuckboardEtlJobStatus> statuses, String ownerInstance);
+
+    List<PuckboardEtlJob> findAllByStatusInAndHeartbeatOnBefore(Collection<PuckboardEtlJobStatus> statuses, Date cutoff);
+
+    @Modifying
+    @Query("update PuckboardEtlJob j set j.heartbeatOn = :now where j.id in :ids")
+    int renewHeartbeats(@Param("ids") Collection<UUID> ids, @Param("now") Date now);
+}
@@ -0,0 +1,58 @@
+package mil.tron.commonapi.repository.scratch;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * A JsonPath made up only of field names, array indices and array wildcards, which is what
+ * {@link ScratchStorageRepositoryCustom#queryValueByJsonPath(java.util.UUID, String, ScratchJsonPath)}
+ * can evaluate inside the database
+ */
+@Value
+public class ScratchJsonPath {
+
+    /**
+     * One step of the path
+     */
+    @Value
+    public static class Step {
+
+        /**
+         * The field name to select, null for index and wildcard steps
+         */
+        String field;
+
+        /**
+         * The array index to select, null for field and wildcard steps
+         */
+        Integer index;
+
+        public static Step field(String name) {
+            return new Step(name, null);
+        }
+
+        public static Step index(int index) {
+            return new Step(null, index);
+        }
+
+        public static Step wildcard() {
+            return new Step(null, null);
+        }
+
+        public boolean isWildcard() {
+            return field == null && index == null;
+        }
+    }
+
+    /**
+     * The steps from the root ($) down, empty for the root itself
+     */
+    List<Step> steps;
+
+    /**
+     * True if the path can only ever resolve to a single element (no wildcards),
+     * Jayway returns the element itself for these instead of a list of matches
+     */
+    boolean definite;
+}
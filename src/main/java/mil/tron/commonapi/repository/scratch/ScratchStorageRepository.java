@@ -8,7 +8,7 @@ import javax.transaction.Transactional;
 import java.util.Optional;
 import java.util.UUID;
 
-public interface ScratchStorageRepository extends CrudRepository<ScratchStorageEntry, UUID> {
+public interface ScratchStorageRepository extends CrudRepository<ScratchStorageEntry, UUID>, ScratchStorageRepositoryCustom {
 
     // get all key-value pairs for given appId
     Iterable<ScratchStorageEntry> findAllByAppId(UUID appId);
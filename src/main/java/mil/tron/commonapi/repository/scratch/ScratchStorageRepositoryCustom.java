@@ -0,0 +1,25 @@
+package mil.tron.commonapi.repository.scratch;
+
+import java.util.Optional;
+import java.util.UUID;
+
+public interface ScratchStorageRepositoryCustom {
+
+    /**
+     * @return true if the underlying database can evaluate json path queries (Postgres)
+     */
+    boolean supportsJsonPathQueries();
+
+    /**
+     * Evaluates a json path against the value of a key-value pair inside the database so that
+     * only the matching fragment comes back over the wire.  The fragment is the value's own text,
+     * so numbers, key order etc come back exactly as they were stored.
+     *
+     * @param appId the scratch app UUID
+     * @param key the key name
+     * @param path the path to evaluate
+     * @return the matching json fragment (an array of all matches for indefinite paths), or empty if the
+     * key doesn't exist, nothing matched, or the value is not valid json
+     */
+    Optional<String> queryValueByJsonPath(UUID appId, String key, ScratchJsonPath path);
+}
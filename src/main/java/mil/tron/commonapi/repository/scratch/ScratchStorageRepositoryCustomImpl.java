@@ -0,0 +1,98 @@
+package mil.tron.commonapi.repository.scratch;
+
+import mil.tron.commonapi.repository.scratch.ScratchJsonPath.Step;
+import org.hibernate.Session;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+public class ScratchStorageRepositoryCustomImpl implements ScratchStorageRepositoryCustom {
+    private static final String POSTGRES_PRODUCT_NAME = "PostgreSQL";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile Boolean jsonPathSupported;
+
+    @Override
+    public boolean supportsJsonPathQueries() {
+        if (jsonPathSupported == null) {
+            String productName = entityManager.unwrap(Session.class)
+                    .doReturningWork(connection -> connection.getMetaData().getDatabaseProductName());
+            jsonPathSupported = POSTGRES_PRODUCT_NAME.equalsIgnoreCase(productName);
+        }
+
+        return jsonPathSupported;
+    }
+
+    @Override
+    public Optional<String> queryValueByJsonPath(UUID appId, String key, ScratchJsonPath path) {
+        Map<String, Object> parameters = new HashMap<>();
+        List<String> wildcards = new ArrayList<>();
+        StringBuilder from = new StringBuilder("scratch_storage s");
+
+        // scratch_try_json yields null for values that aren't valid json (see changelog 1.00.067).  The json
+        // operators all yield sql null when a step doesn't match, which is also what ends up filtering out
+        // non-matching elements below a wildcard
+        String current = "scratch_try_json(s.value)";
+        for (Step step : path.getSteps()) {
+            if (step.isWildcard()) {
+                String alias = "w" + wildcards.size();
+                from.append(" CROSS JOIN LATERAL ").append(wildcardElements(current)).append(' ')
+                        .append(alias).append("(elem, pos)");
+                wildcards.add(alias + ".pos");
+                current = alias + ".elem";
+            } else {
+                String parameter = "p" + parameters.size();
+                if (step.getField() != null) {
+                    parameters.put(parameter, step.getField());
+                    current = "(" + current + " -> CAST(:" + parameter + " AS text))";
+                } else {
+                    parameters.put(parameter, step.getIndex());
+                    current = "(" + current + " -> CAST(:" + parameter + " AS integer))";
+                }
+            }
+        }
+
+        String sql = path.isDefinite()
+                ? "SELECT CAST(" + current + " AS text) FROM " + from +
+                    " WHERE s.app_id = :appId AND s.key = :key"
+                : "SELECT CAST(json_agg(" + current + " ORDER BY " + String.join(", ", wildcards) + ") AS text) FROM " + from +
+                    " WHERE s.app_id = :appId AND s.key = :key AND " + current + " IS NOT NULL";
+
+        Query query = entityManager.createNativeQuery(sql)
+                .setParameter("appId", appId)
+                .setParameter("key", key);
+        parameters.forEach(query::setParameter);
+
+        // json_agg over no matches is null too
+        List<?> results = query.getResultList();
+        if (results.isEmpty() || results.get(0) == null) {
+            return Optional.empty();
+        }
+
+        return Optional.of(results.get(0).toString());
+    }
+
+    /**
+     * Jayway's [*] yields the elements of an array or the values of an object, in document order.
+     * For objects with a repeated key only the last value counts, same as when the value is parsed.
+     */
+    private static String wildcardElements(String json) {
+        String array = "CASE WHEN json_typeof(" + json + ") = 'array' THEN " + json + " END";
+        String object = "CASE WHEN json_typeof(" + json + ") = 'object' THEN " + json + " END";
+
+        return "(SELECT a.value, a.ordinality FROM json_array_elements(" + array + ") WITH ORDINALITY a " +
+                "UNION ALL " +
+                "SELECT o.value, o.ordinality FROM json_each(" + object + ") WITH ORDINALITY o " +
+                "WHERE NOT EXISTS (SELECT 1 FROM json_each(" + object + ") WITH ORDINALITY later " +
+                "WHERE later.key = o.key AND later.ordinality > o.ordinality))";
+    }
+}
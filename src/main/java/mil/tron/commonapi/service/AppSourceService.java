@@ -40,4 +40,15 @@ public interface AppSourceService {
      */
     Date getLastUpTime(UUID appSourceId);
     void updateLastUpTime(UUID appSourceId, Date date);
+
+    /**
+     * Queues up the last UP time of an app source to be written on the next flush, so that the health
+     * probes never wait on the database
+     */
+    void recordLastUpTime(UUID appSourceId, Date date);
+
+    /**
+     * Writes the queued last UP times
+     */
+    void flushLastUpTimes();
 }
@@ -3,6 +3,7 @@ package mil.tron.commonapi.service;
 import mil.tron.commonapi.CacheConfig;
 import mil.tron.commonapi.appgateway.AppSourceConfig;
 import mil.tron.commonapi.appgateway.AppSourceInterfaceDefinition;
+import mil.tron.commonapi.appgateway.GatewayRouteTable;
 import mil.tron.commonapi.dto.AppClientUserPrivDto;
 import mil.tron.commonapi.dto.DashboardUserDto;
 import mil.tron.commonapi.dto.PrivilegeDto;
@@ -21,6 +22,7 @@ import mil.tron.commonapi.exception.InvalidRecordUpdateRequest;
 import mil.tron.commonapi.exception.RecordNotFoundException;
 import mil.tron.commonapi.exception.ResourceAlreadyExistsException;
 import mil.tron.commonapi.health.AppSourceHealthIndicator;
+import mil.tron.commonapi.health.AppSourceHealthProbeScheduler;
 import mil.tron.commonapi.logging.CommonApiLogger;
 import mil.tron.commonapi.repository.AppClientUserRespository;
 import mil.tron.commonapi.repository.DashboardUserRepository;
@@ -42,13 +44,16 @@ import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.bind.annotation.RequestMethod;
 
+import javax.annotation.PreDestroy;
 import javax.transaction.Transactional;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
@@ -70,7 +75,9 @@ public class AppSourceServiceImpl implements AppSourceService {
     private DashboardUserRepository dashboardUserRepository;
     private DashboardUserService dashboardUserService;
     private HealthContributorRegistry healthContributorRegistry;
+    private AppSourceHealthProbeScheduler healthProbeScheduler;
     private AppSourceConfig appSourceConfig;
+    private GatewayRouteTable gatewayRouteTable;
     private static final String APP_SOURCE_ADMIN_PRIV = "APP_SOURCE_ADMIN";
     private static final String APP_SOURCE_NOT_FOUND_MSG = "No App Source found with id %s.";
     private static final String APP_SOURCE_NO_ENDPOINT_FOUND_MSG = "No App Source Endpoint found with id %s.";
@@ -85,6 +92,11 @@ public class AppSourceServiceImpl implements AppSourceService {
     @Value("${app-source-ping-rate-millis}")
     private long appSourcePingRateMillis = 60000L;
 
+    /**
+     * Last UP times recorded by the health probes, waiting to be written
+     */
+    private final Map<UUID, Date> pendingLastUpTimes = new ConcurrentHashMap<>();
+
     // Per Sonarqube documentation, this shouldn't even be flagged for S107. It is though, and we should ignore it.
     @java.lang.SuppressWarnings("squid:S00107")
     @Autowired
@@ -96,7 +108,9 @@ public class AppSourceServiceImpl implements AppSourceService {
                                 DashboardUserRepository dashboardUserRepository,
                                 DashboardUserService dashboardUserService,
                                 HealthContributorRegistry healthContributorRegistry,
+                                AppSourceHealthProbeScheduler healthProbeScheduler,
                                 AppSourceConfig appSourceConfig,
+                                GatewayRouteTable gatewayRouteTable,
                                 @Value("${appsource-definitions}") String appSourceApiDefinitionsLocation)
     {
         this.appSourceRepository = appSourceRepository;
@@ -107,8 +121,10 @@ public class AppSourceServiceImpl implements AppSourceService {
         this.privilegeRepository = privilegeRepository;
         this.dashboardUserService = dashboardUserService;
         this.healthContributorRegistry = healthContributorRegistry;
+        this.healthProbeScheduler = healthProbeScheduler;
         this.appSourceApiDefinitionsLocation = appSourceApiDefinitionsLocation;
         this.appSourceConfig = appSourceConfig;
+        this.gatewayRouteTable = gatewayRouteTable;
     }
 
 
@@ -171,7 +187,8 @@ public class AppSourceServiceImpl implements AppSourceService {
                                             concatPaths(defs.get(appSource.getAppSourcePath()).getSourceUrl(), appSource.getHealthUrl()),
                                             appSourcePingRateMillis,
                                             appSource.getId(),
-                                            this));
+                                            this,
+                                            healthProbeScheduler));
                 }
                 catch (IllegalStateException e) {
                     appSourceServiceLog.info("App Source Health Indicator already registered for: " + appSource.getName() + ": " + e.getMessage());
@@ -242,6 +259,12 @@ public class AppSourceServiceImpl implements AppSourceService {
         AppSource toRemove = this.appSourceRepository.findById(id)
                 .orElseThrow(() -> new RecordNotFoundException(String.format(APP_SOURCE_NOT_FOUND_MSG, id)));
 
+        // stop routing gateway requests to it
+        if (toRemove.getAppSourcePath() != null) {
+            this.gatewayRouteTable.remove(toRemove.getAppSourcePath());
+            this.appSourceConfig.removeAppSourcePathMapping(toRemove.getAppSourcePath());
+        }
+
         // remove admins attached to this app
         toRemove = this.deleteAdminsFromAppSource(toRemove, "", true);
 
@@ -687,6 +710,11 @@ public class AppSourceServiceImpl implements AppSourceService {
 
     @Override
     public Date getLastUpTime(UUID appSourceId) {
+        Date pending = pendingLastUpTimes.get(appSourceId);
+        if (pending != null) {
+            return pending;
+        }
+
         Optional<AppSource> appSource = appSourceRepository.findById(appSourceId);
         return appSource.map(AppSource::getLastUpTime).orElse(null);
     }
@@ -700,4 +728,29 @@ public class AppSourceServiceImpl implements AppSourceService {
             this.appSourceRepository.save(appSourceActual);
         }
     }
+
+    @Override
+    public void recordLastUpTime(UUID appSourceId, Date date) {
+        pendingLastUpTimes.merge(appSourceId, date, (pending, recorded) -> recorded.after(pending) ? recorded : pending);
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${app-source-last-up-time-flush-ms:30000}")
+    @Override
+    public synchronized void flushLastUpTimes() {
+        for (UUID appSourceId : new ArrayList<>(pendingLastUpTimes.keySet())) {
+            Date lastUpTime = pendingLastUpTimes.remove(appSourceId);
+            if (lastUpTime == null) {
+                continue;
+            }
+
+            try {
+                updateLastUpTime(appSourceId, lastUpTime);
+            } catch (Exception e) {
+                // keep it for the next flush, unless a newer one has come in since
+                appSourceServiceLog.warn(String.format("Could not write the last up time of app source %s, will retry on the next flush", appSourceId), e);
+                recordLastUpTime(appSourceId, lastUpTime);
+            }
+        }
+    }
 }
@@ -1,7 +1,12 @@
 package mil.tron.commonapi.service;
 
 
+import java.io.IOException;
+import java.io.OutputStream;
+
 import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import mil.tron.commonapi.dto.LogfileDto;
 
@@ -9,4 +14,25 @@ public interface LogfileService {
 	Iterable<LogfileDto> getAllLogfileInfo();
 	Resource getLogfileResource(String fileName);
 	String getLogfileResourceName(Resource resource);
+
+	/**
+	 * Writes out a logfile for download.  The current (.log) logfile is gzipped as it's written,
+	 * past logfiles are already compressed and are copied as is.
+	 * @param resource the logfile, from {@link #getLogfileResource(String)}
+	 * @param out where to write it
+	 * @throws IOException if the logfile can't be read or written out
+	 */
+	void writeLogfile(Resource resource, OutputStream out) throws IOException;
+
+	/**
+	 * Gets the end of an uncompressed logfile, only reading the part of the file needed.  With no
+	 * bytes or lines given the last 100 lines are returned.
+	 * @param fileName the logfile
+	 * @param bytes how many bytes from the end of the file to return
+	 * @param lines how many lines from the end of the file to return
+	 * @param filter if given, only lines containing this are returned (the last {@code lines} matches,
+	 *               or every match in the last {@code bytes})
+	 * @return writer for the requested part of the file
+	 */
+	StreamingResponseBody tailLogfile(String fileName, @Nullable Long bytes, @Nullable Integer lines, @Nullable String filter);
 }
@@ -1,25 +1,46 @@
 package mil.tron.commonapi.service;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.MalformedURLException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.Deque;
 import java.util.List;
 import java.util.Optional;
 import java.util.zip.GZIPOutputStream;
 
 import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import mil.tron.commonapi.dto.LogfileDto;
@@ -29,6 +50,10 @@ import mil.tron.commonapi.exception.FileNotExistsException;
 
 @Service
 public class LogfileServiceImpl implements LogfileService {
+	private static final int COPY_BUFFER_SIZE = 8192;
+	private static final int DEFAULT_TAIL_LINES = 100;
+	private static final int MAX_TAIL_LINES = 10000;
+
 	private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd.HH.mm.ss");
 	private final Path logsPath;
 	private final String apiEndpoint;
@@ -51,6 +76,74 @@ public class LogfileServiceImpl implements LogfileService {
 
 	@Override
 	public Resource getLogfileResource(String fileName) {
+		Path path = resolveLogfile(fileName);
+		Resource resource = createUrlResourceFromPathString(path.toUri().toString());
+
+		if (!resource.exists() || !resource.isReadable())
+			throw new FileNotExistsException(FilenameUtils.getName(fileName));
+		
+		return resource;
+	}
+
+	@Override
+	public void writeLogfile(Resource resource, OutputStream out) throws IOException {
+		// If retrieving the most current logfile, compress it on the way out
+		if (!isCurrentLogfile(resource.getFilename())) {
+			try (InputStream in = resource.getInputStream()) {
+				in.transferTo(out);
+			}
+			return;
+		}
+
+		// closing the gzip stream releases its deflater, the response itself is left open
+		try (InputStream in = resource.getInputStream();
+				GZIPOutputStream gzipOut = new GZIPOutputStream(StreamUtils.nonClosing(out), COPY_BUFFER_SIZE)) {
+			in.transferTo(gzipOut);
+		} catch (FileNotFoundException | NoSuchFileException ex) {
+			throw new FileCompressionException(String.format("Could not load file: %s for compression.", resource.getFilename()), ex);
+		}
+	}
+
+	@Override
+	public StreamingResponseBody tailLogfile(String fileName, @Nullable Long bytes, @Nullable Integer lines, @Nullable String filter) {
+		if (bytes != null && lines != null)
+			throw new BadRequestException("Only one of bytes or lines can be given");
+		if (bytes != null && bytes < 1)
+			throw new BadRequestException("bytes must be at least 1");
+		if (lines != null && (lines < 1 || lines > MAX_TAIL_LINES))
+			throw new BadRequestException(String.format("lines must be between 1 and %d", MAX_TAIL_LINES));
+
+		Path path = resolveLogfile(fileName);
+		if (!Files.isRegularFile(path) || !Files.isReadable(path))
+			throw new FileNotExistsException(FilenameUtils.getName(fileName));
+		if (getExtension(path.getFileName().toString()).filter("gz"::equals).isPresent())
+			throw new BadRequestException("Compressed logfiles can't be tailed, download them instead");
+
+		String substring = StringUtils.isEmpty(filter) ? null : filter;
+		int lineCount = bytes == null && lines == null ? DEFAULT_TAIL_LINES : Optional.ofNullable(lines).orElse(0);
+
+		return out -> {
+			try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+				// only what is in the file now is sent, anything logged while streaming is left out
+				long end = channel.size();
+				long start;
+				if (bytes != null)
+					start = Math.max(0, end - bytes);
+				else if (substring == null)
+					start = findStartOfLastLines(channel, end, lineCount);
+				else
+					start = 0;
+
+				if (substring == null) {
+					copyRange(channel, start, end, out);
+				} else {
+					writeMatchingLines(channel, start, end, substring, bytes == null ? lineCount : 0, out);
+				}
+			}
+		};
+	}
+
+	private Path resolveLogfile(String fileName) {
 		Path path;
 		
 		// Retrieve only the filename to further help
@@ -66,29 +159,97 @@ public class LogfileServiceImpl implements LogfileService {
 			throw new BadRequestException(String.format("File %s requested is a symlink and will not be " +
 					"processed.", fileName));
 		}
-		
-		Resource resource = null;
-		
+
+		return path;
+	}
+
+	private boolean isCurrentLogfile(@Nullable String fileName) {
 		Optional<String> fileType = getExtension(fileName);
-		
-		// If trying to retrieve the most current logfile,
-		// compress it before sending
-		if (fileType.isPresent() && fileType.get().equals("log"))
-			resource = new ByteArrayResource(gzipFileAsBytes(path));
-		else
-			resource = createUrlResourceFromPathString(path.toUri().toString());
+		return fileType.isPresent() && fileType.get().equals("log");
+	}
 
-		if (!resource.exists() || !resource.isReadable())
-			throw new FileNotExistsException(fileName);
-		
-		return resource;
+	/**
+	 * Reads backwards from the end of the file a block at a time until enough line breaks have been seen
+	 * @return position of the first byte of the last {@code lineCount} lines
+	 */
+	protected long findStartOfLastLines(FileChannel channel, long end, int lineCount) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
+		long position = end;
+		int found = 0;
+
+		// a line break right at the end of the file finishes the last line rather than starting a new one
+		boolean skipTrailingBreak = true;
+		while (position > 0) {
+			int length = (int) Math.min(buffer.capacity(), position);
+			position -= length;
+
+			buffer.clear().limit(length);
+			while (buffer.hasRemaining() && channel.read(buffer, position + buffer.position()) >= 0);
+
+			for (int i = length - 1; i >= 0; i--) {
+				if (buffer.get(i) != '\n')
+					continue;
+				if (skipTrailingBreak && position + i == end - 1)
+					continue;
+				if (++found == lineCount)
+					return position + i + 1;
+			}
+			skipTrailingBreak = false;
+		}
+
+		return 0;
+	}
+
+	private void copyRange(FileChannel channel, long start, long end, OutputStream out) throws IOException {
+		WritableByteChannel target = Channels.newChannel(out);
+		long position = start;
+		while (position < end) {
+			position += channel.transferTo(position, end - position, target);
+		}
+		out.flush();
+	}
+
+	/**
+	 * Scans the file a line at a time and writes out the lines containing the substring, never holding
+	 * more than the last {@code lineCount} matches in memory
+	 * @param lineCount how many of the last matching lines to write, 0 to write every match as it's found
+	 */
+	private void writeMatchingLines(FileChannel channel, long start, long end, String substring, int lineCount, OutputStream out) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+		Deque<String> lastMatches = new ArrayDeque<>();
+
+		channel.position(start);
+		InputStream in = new BoundedInputStream(Channels.newInputStream(channel), end - start);
+		BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), COPY_BUFFER_SIZE);
+		String line;
+		while ((line = reader.readLine()) != null) {
+			if (!line.contains(substring))
+				continue;
+
+			if (lineCount == 0) {
+				writer.write(line);
+				writer.write('\n');
+				continue;
+			}
+
+			if (lastMatches.size() == lineCount)
+				lastMatches.removeFirst();
+			lastMatches.addLast(line);
+		}
+
+		for (String match : lastMatches) {
+			writer.write(match);
+			writer.write('\n');
+		}
+		writer.flush();
 	}
 	
 	@Override
 	public String getLogfileResourceName(Resource resource) {
 		String savedFileName = resource.getFilename();
 
-		if (savedFileName == null) {
+		// the current logfile is compressed as it's downloaded
+		if (savedFileName == null || isCurrentLogfile(savedFileName)) {
 			String date = dateFormat.format(new Date());
 			savedFileName = "spring.log." + date + ".gz";
 		}
@@ -126,29 +287,6 @@ public class LogfileServiceImpl implements LogfileService {
                 .toUriString();
  	}
 	
-	protected byte[] gzipFileAsBytes(Path path) {
-		byte[] fileContents = readPathFileAsBytes(path);
-		
-		ByteArrayOutputStream byteOutputStream = new ByteArrayOutputStream();
-		
-		try (GZIPOutputStream gzipOut = new GZIPOutputStream(byteOutputStream)) {
-			gzipOut.write(fileContents);
-			gzipOut.finish();
-		} catch(Exception ex) {
-			throw new FileCompressionException(String.format("Could not compress file: %s.", path.getFileName()), ex);
-		}
-		
-		return byteOutputStream.toByteArray();
-	}
-	
-	protected byte[] readPathFileAsBytes(Path path) {
-		try {
-			return Files.readAllBytes(path);
-		} catch (Exception ex) {
-			throw new FileCompressionException(String.format("Could not load file: %s for compression.", path.getFileName()), ex);
-		}
-	}
-	
 	protected Optional<String> getExtension(String fileName) {
 		return Optional.ofNullable(fileName)
 			      .filter(f -> f.contains("."))
@@ -2,6 +2,7 @@ package mil.tron.commonapi.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.github.fge.jsonpatch.JsonPatch;
+import mil.tron.commonapi.dto.BulkImportResultDto;
 import mil.tron.commonapi.dto.OrganizationDto;
 import mil.tron.commonapi.entity.Organization;
 import mil.tron.commonapi.entity.branches.Branch;
@@ -52,6 +53,15 @@ public interface OrganizationService {
 	OrganizationDto removeSubordinateOrg(UUID organizationId, List<UUID> orgIds);
 	List<OrganizationDto> bulkAddOrgs(List<OrganizationDto> newOrgs);
 
+	/**
+	 * Imports a large batch of new organizations.  Unlike {@link #bulkAddOrgs(List)} a bad row
+	 * does not abort the whole batch - it is skipped and reported back in the result's errors.
+	 *
+	 * @param newOrgs new Organizations to create
+	 * @return the created organizations along with an error for each rejected row
+	 */
+	BulkImportResultDto<OrganizationDto> bulkImportOrgs(List<OrganizationDto> newOrgs);
+
 	// utility methods dealing with ancestry
 	boolean orgIsInAncestryChain(UUID id, Organization startingOrg);
 	boolean parentOrgCandidateIsDescendent(OrganizationDto org, UUID candidateParentId);
@@ -61,6 +71,7 @@ public interface OrganizationService {
 	OrganizationDto convertToDto(Organization org);
 	Organization convertToEntity(OrganizationDto org);
 	JsonNode customizeEntity(Map<String, String> fields, OrganizationDto dto);
+	List<JsonNode> customizeEntities(Map<String, String> fields, List<OrganizationDto> dtos);
 
 	OrganizationDto applyPatchToOrganization(JsonPatch patch, OrganizationDto organizationDto);
 	
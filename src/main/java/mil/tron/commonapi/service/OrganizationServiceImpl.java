@@ -3,14 +3,21 @@ package mil.tron.commonapi.service;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.NullNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.databind.ser.FilterProvider;
 import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
 import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import com.github.fge.jsonpatch.JsonPatch;
 import com.github.fge.jsonpatch.JsonPatchException;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
 import mil.tron.commonapi.controller.OrganizationController;
+import mil.tron.commonapi.dto.BulkImportResultDto;
 import mil.tron.commonapi.dto.OrganizationDto;
 import mil.tron.commonapi.dto.mapper.DtoMapper;
 import mil.tron.commonapi.dto.mixins.CustomOrganizationDtoMixin;
@@ -43,7 +50,9 @@ import mil.tron.commonapi.service.utility.ValidatorService;
 import org.modelmapper.AbstractConverter;
 import org.modelmapper.Conditions;
 import org.modelmapper.Converter;
+import org.modelmapper.MappingException;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
@@ -51,17 +60,22 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.ReflectionUtils;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 
 import javax.transaction.Transactional;
 
+import java.io.IOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
+import static mil.tron.commonapi.service.utility.BulkImportUtils.*;
 import static mil.tron.commonapi.service.utility.ReflectionUtils.checkNonPatchableFieldsUntouched;
 import static mil.tron.commonapi.service.utility.ReflectionUtils.fields;
 
@@ -76,6 +90,7 @@ public class OrganizationServiceImpl implements OrganizationService {
 	private final DtoMapper modelMapper;
 	private final EntityFieldAuthService entityFieldAuthService;
 	private final ValidatorService validatorService;
+	private final TransactionTemplate transactionTemplate;
 	private static final String RESOURCE_NOT_FOUND_MSG = "Resource with the ID: %s does not exist.";
 	private static final String ORG_IS_IN_ANCESTRY_MSG = "Organization %s is already an ancestor to this organization.";
 	private static final String ORG_IS_ALREADY_SUBORG_ELSEWHERE = "Organization %s is already a subordinate to another organization.";
@@ -94,6 +109,9 @@ public class OrganizationServiceImpl implements OrganizationService {
 	);
 
 	private final ObjectMapper objMapper;
+	private final ObjectMapper customizationMapper;
+	private final Set<String> personJsonFields;
+	private final Set<String> organizationJsonFields;
 
 	@SuppressWarnings("squid:S00107")
 	public OrganizationServiceImpl(
@@ -104,7 +122,8 @@ public class OrganizationServiceImpl implements OrganizationService {
 			OrganizationMetadataRepository organizationMetadataRepository,
 			EventManagerService eventManagerService,
 			EntityFieldAuthService entityFieldAuthService,
-			ValidatorService validatorService) {
+			ValidatorService validatorService,
+			PlatformTransactionManager transactionManager) {
 
 		this.repository = repository;
 		this.personRepository = personRepository;
@@ -114,8 +133,14 @@ public class OrganizationServiceImpl implements OrganizationService {
 		this.eventManagerService = eventManagerService;
 		this.entityFieldAuthService = entityFieldAuthService;
 		this.validatorService = validatorService;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
 		this.modelMapper = new DtoMapper();
 		this.objMapper = new ObjectMapper();
+		this.customizationMapper = new ObjectMapper();
+		this.customizationMapper.addMixIn(Person.class, CustomPersonDtoMixin.class);
+		this.customizationMapper.addMixIn(Organization.class, CustomOrganizationDtoMixin.class);
+		this.personJsonFields = jsonFields(Person.class);
+		this.organizationJsonFields = jsonFields(Organization.class);
 	}
 
 	// helper that applies entity field authorization for us
@@ -123,6 +148,12 @@ public class OrganizationServiceImpl implements OrganizationService {
 		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 		return entityFieldAuthService.adjudicateOrganizationFields(incomingEntity, authentication);
 	}
+
+	// helper that applies entity field authorization against the already loaded existing entity
+	private EntityFieldAuthResponse<Organization> applyFieldAuthority(Organization incomingEntity, Organization existingEntity) {
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		return entityFieldAuthService.adjudicateOrganizationFields(incomingEntity, existingEntity, authentication);
+	}
 	
 	private boolean isUserAuthorizedForFieldEdit(String fieldName) {
 		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -202,7 +233,7 @@ public class OrganizationServiceImpl implements OrganizationService {
 		message.setSubOrgsAdded(Sets.newHashSet(orgIds));
 		eventManagerService.recordEventAndPublish(message);
 
-		return checkEfaResponseForIllegalModification(result, efaResponse.getDeniedFields());
+		return checkEfaResponseForIllegalModification(result, efaResponse);
 	}
 
 	/**
@@ -241,7 +272,7 @@ public class OrganizationServiceImpl implements OrganizationService {
 		message.setSubOrgsRemoved(Sets.newHashSet(orgIds));
 		eventManagerService.recordEventAndPublish(message);
 
-		return checkEfaResponseForIllegalModification(result, efaResponse.getDeniedFields());
+		return checkEfaResponseForIllegalModification(result, efaResponse);
 	}
 
 	/**
@@ -284,7 +315,7 @@ public class OrganizationServiceImpl implements OrganizationService {
 		message.setMembersRemoved(Sets.newHashSet(personIds));
 		eventManagerService.recordEventAndPublish(message);
 
-		return checkEfaResponseForIllegalModification(result, efaResponse.getDeniedFields());
+		return checkEfaResponseForIllegalModification(result, efaResponse);
 	}
 
 	/**
@@ -328,7 +359,7 @@ public class OrganizationServiceImpl implements OrganizationService {
 		message.setMembersAdded(Sets.newHashSet(personIds));
 		eventManagerService.recordEventAndPublish(message);
 
-		return checkEfaResponseForIllegalModification(result, efaResponse.getDeniedFields());
+		return checkEfaResponseForIllegalModification(result, efaResponse);
 	}
 
 	/**
@@ -392,7 +423,7 @@ public class OrganizationServiceImpl implements OrganizationService {
 		performParentChecks(result);
 		
 		Organization savedResult = repository.save(efaResponse.getModifiedEntity());
-		return checkEfaResponseForIllegalModification(savedResult, efaResponse.getDeniedFields());
+		return checkEfaResponseForIllegalModification(savedResult, efaResponse);
 	}
 
 	/**
@@ -429,7 +460,7 @@ public class OrganizationServiceImpl implements OrganizationService {
 
 		appendAndUpdateMetadata(patchedOrg, dbOrganization, patchedOrgDto.getMeta(), isUserAuthorizedForFieldEdit(Organization.METADATA_FIELD));
 		
-		EntityFieldAuthResponse<Organization> efaResponse = applyFieldAuthority(patchedOrg);
+		EntityFieldAuthResponse<Organization> efaResponse = applyFieldAuthority(patchedOrg, dbOrganization.get());
 		
 		performOrganizationParentChildLogic(efaResponse.getModifiedEntity());
 		performParentChecks(efaResponse.getModifiedEntity());
@@ -440,7 +471,7 @@ public class OrganizationServiceImpl implements OrganizationService {
 		message.addOrgId(id);
 		eventManagerService.recordEventAndPublish(message);
 
-		return checkEfaResponseForIllegalModification(result, efaResponse.getDeniedFields());
+		return checkEfaResponseForIllegalModification(result, efaResponse);
 	}
 
 	/**
@@ -563,7 +594,7 @@ public class OrganizationServiceImpl implements OrganizationService {
 		
 		appendAndUpdateMetadata(entity, dbEntity, organization.getMeta(), isUserAuthorizedForFieldEdit(Organization.METADATA_FIELD));
 		
-		EntityFieldAuthResponse<Organization> efaResponse = applyFieldAuthority(entity);
+		EntityFieldAuthResponse<Organization> efaResponse = applyFieldAuthority(entity, dbEntity.get());
 		
 		performOrganizationParentChildLogic(efaResponse.getModifiedEntity());
 		performParentChecks(efaResponse.getModifiedEntity());
@@ -574,7 +605,7 @@ public class OrganizationServiceImpl implements OrganizationService {
 		message.setOrgIds(Sets.newHashSet(result.getId()));
 		eventManagerService.recordEventAndPublish(message);
 		
-		return checkEfaResponseForIllegalModification(result, efaResponse.getDeniedFields());
+		return checkEfaResponseForIllegalModification(result, efaResponse);
 	}
 	
 	/**
@@ -810,6 +841,204 @@ public class OrganizationServiceImpl implements OrganizationService {
 		return addedOrgs;
 	}
 
+	/**
+	 * Bulk imports new organizations.  The whole batch is validated in memory and checked against
+	 * existing ids and names with set queries.  Organizations without any relationships (leader, members,
+	 * parent or subordinates) are inserted in JDBC batched chunks, the rest go through the regular
+	 * per-organization path (in submitted order) since their relationships need to be checked one by one.
+	 * Every chunk/organization is committed on its own, so rows that fail are reported back instead of
+	 * rolling back the entire import.
+	 * Only fires one pub-sub event containing all new Organization UUIDs
+	 *
+	 * @param newOrgs new Organizations to create
+	 * @return the created organizations along with an error for each rejected row
+	 */
+	@Override
+	public BulkImportResultDto<OrganizationDto> bulkImportOrgs(List<OrganizationDto> newOrgs) {
+		BulkImportResultDto<OrganizationDto> result = new BulkImportResultDto<>();
+
+		// validate each row on its own, and weed out rows that collide with an earlier row of the same batch
+		Map<Integer, String> candidateNames = new LinkedHashMap<>();
+		Set<UUID> batchIds = new HashSet<>();
+		Set<String> batchNames = new HashSet<>();
+		for (int row = 0; row < newOrgs.size(); row++) {
+			OrganizationDto dto = newOrgs.get(row);
+
+			try {
+				if (dto == null) {
+					throw new BadRequestException("Organization cannot be null");
+				}
+
+				if (dto.getId() == null) {
+					dto.setId(UUID.randomUUID());
+				}
+
+				validatorService.isValid(dto, OrganizationDto.class);
+				checkValidMetadataProperties(dto.getOrgType(), dto.getMeta());
+
+				String nameAsLower = dto.getName().trim().toLowerCase();
+				if (batchIds.contains(dto.getId())) {
+					rejectRow(result, row, dto.getId(), String.format("Duplicate id %s within the import", dto.getId()));
+				} else if (batchNames.contains(nameAsLower)) {
+					rejectRow(result, row, dto.getId(), String.format("Duplicate name %s within the import", dto.getName()));
+				} else {
+					batchIds.add(dto.getId());
+					batchNames.add(nameAsLower);
+					candidateNames.put(row, nameAsLower);
+				}
+			} catch (MethodArgumentNotValidException e) {
+				rejectRow(result, row, dto.getId(), validationMessage(e));
+			} catch (RuntimeException e) {
+				rejectRow(result, row, dto == null ? null : dto.getId(), e.getMessage());
+			}
+		}
+
+		// now check the survivors against what is already in the database
+		Set<UUID> existingIds = findExisting(batchIds, repository::findIdsByIdIn);
+		Set<String> existingNames = findExisting(batchNames, repository::findNamesAsLowerIn);
+
+		List<OrgImportRow> flatRows = new ArrayList<>();
+		List<Integer> relationalRows = new ArrayList<>();
+		candidateNames.forEach((row, nameAsLower) -> {
+			OrganizationDto dto = newOrgs.get(row);
+			if (existingIds.contains(dto.getId())) {
+				rejectRow(result, row, dto.getId(), String.format("Resource with the ID: %s already exists.", dto.getId()));
+			} else if (existingNames.contains(nameAsLower)) {
+				rejectRow(result, row, dto.getId(), String.format("Resource with the Name: %s already exists.", dto.getName()));
+			} else if (hasRelationships(dto)) {
+				relationalRows.add(row);
+			} else {
+				flatRows.add(prepareFlatImportRow(row, dto));
+			}
+		});
+
+		for (List<OrgImportRow> chunk : Iterables.partition(flatRows, INSERT_CHUNK_SIZE)) {
+			insertImportChunk(chunk, result);
+		}
+
+		for (List<Integer> chunk : Iterables.partition(relationalRows, INSERT_CHUNK_SIZE)) {
+			insertRelationalImportChunk(chunk, newOrgs, result);
+		}
+
+		if (!result.getCreated().isEmpty()) {
+			OrganizationChangedMessage message = new OrganizationChangedMessage();
+			message.setOrgIds(result.getCreated().stream().map(OrganizationDto::getId).collect(Collectors.toSet()));
+			eventManagerService.recordEventAndPublish(message);
+		}
+
+		sortErrors(result);
+		return result;
+	}
+
+	private static boolean hasRelationships(OrganizationDto dto) {
+		return dto.getLeader() != null
+				|| dto.getParentOrganization() != null
+				|| (dto.getMembers() != null && !dto.getMembers().isEmpty())
+				|| (dto.getSubordinateOrganizations() != null && !dto.getSubordinateOrganizations().isEmpty());
+	}
+
+	/**
+	 * Converts an import row that has no relationships, no lookups are needed for these
+	 */
+	private OrgImportRow prepareFlatImportRow(int row, OrganizationDto dto) {
+		return new OrgImportRow(row, dto, toFlatImportEntity(dto));
+	}
+
+	/**
+	 * Builds a new, never persisted entity for a relationship-free import row
+	 */
+	private Organization toFlatImportEntity(OrganizationDto dto) {
+		Organization entity = this.convertToEntity(dto);
+		entity.getMetadata().clear();
+		if (dto.getMeta() != null) {
+			dto.getMeta().forEach((key, value) -> entity.getMetadata().add(new OrganizationMetadata(entity.getId(), key, value)));
+		}
+
+		return entity;
+	}
+
+	/**
+	 * Inserts a chunk of relationship-free organizations in one transaction.  If the chunk fails
+	 * (e.g. a record was added concurrently after the up front checks) the rows are retried one
+	 * at a time so that only the offending rows get rejected.  The retries use freshly built entities
+	 * since the ones from the failed chunk were tied to its (now closed) persistence context.
+	 */
+	private void insertImportChunk(List<OrgImportRow> chunk, BulkImportResultDto<OrganizationDto> result) {
+		try {
+			transactionTemplate.executeWithoutResult(status ->
+					repository.insertAll(chunk.stream().map(OrgImportRow::getEntity).collect(Collectors.toList())));
+			chunk.forEach(row -> result.getCreated().add(convertToDto(row.getEntity())));
+		} catch (RuntimeException chunkFailure) {
+			for (OrgImportRow row : chunk) {
+				try {
+					Organization entity = toFlatImportEntity(row.getSource());
+					transactionTemplate.executeWithoutResult(status -> repository.insertAll(List.of(entity)));
+					result.getCreated().add(convertToDto(entity));
+				} catch (RuntimeException rowFailure) {
+					rejectRow(result, row.getRow(), row.getEntity().getId(), insertFailureMessage(rowFailure));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Creates a chunk of organizations that have relationships in one transaction, in submitted order.
+	 * Every person and organization the chunk refers to is loaded up front with two set queries, so the
+	 * relationship checks of each organization find them in the persistence context rather than going
+	 * back to the database one id at a time.  If the chunk fails the rows are retried one at a time, each
+	 * in its own transaction, so that only the offending rows get rejected.
+	 */
+	private void insertRelationalImportChunk(List<Integer> chunk, List<OrganizationDto> newOrgs, BulkImportResultDto<OrganizationDto> result) {
+		Set<UUID> personIds = new HashSet<>();
+		Set<UUID> orgIds = new HashSet<>();
+		for (Integer row : chunk) {
+			OrganizationDto dto = newOrgs.get(row);
+			if (dto.getLeader() != null) personIds.add(dto.getLeader());
+			if (dto.getMembers() != null) personIds.addAll(dto.getMembers());
+			if (dto.getParentOrganization() != null) orgIds.add(dto.getParentOrganization());
+			if (dto.getSubordinateOrganizations() != null) orgIds.addAll(dto.getSubordinateOrganizations());
+		}
+
+		try {
+			List<OrganizationDto> created = transactionTemplate.execute(status -> {
+				personRepository.findAllById(personIds);
+				repository.findAllById(orgIds);
+
+				List<OrganizationDto> persisted = new ArrayList<>();
+				for (Integer row : chunk) {
+					persisted.add(this.persistOrganization(newOrgs.get(row)));
+				}
+
+				return persisted;
+			});
+			result.getCreated().addAll(created);
+		} catch (RuntimeException chunkFailure) {
+			for (Integer row : chunk) {
+				insertRelationalImportRow(row, newOrgs.get(row), result);
+			}
+		}
+	}
+
+	private void insertRelationalImportRow(int row, OrganizationDto dto, BulkImportResultDto<OrganizationDto> result) {
+		try {
+			result.getCreated().add(transactionTemplate.execute(status -> this.persistOrganization(dto)));
+		} catch (DataAccessException e) {
+			rejectRow(result, row, dto.getId(), insertFailureMessage(e));
+		} catch (MappingException e) {
+			// a failed leader/member/org lookup comes back wrapped by model mapper
+			rejectRow(result, row, dto.getId(), e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+		} catch (RuntimeException e) {
+			rejectRow(result, row, dto.getId(), e.getMessage());
+		}
+	}
+
+	@lombok.Value
+	private static class OrgImportRow {
+		int row;
+		OrganizationDto source;
+		Organization entity;
+	}
+
 	/**
 	 * Converts an organization entity with all its nested entities into a DTO
 	 * structure with only UUID representations for types of Org/Person
@@ -895,6 +1124,8 @@ public class OrganizationServiceImpl implements OrganizationService {
 	 * Helper function that checks if a given org id is in the parental ancestry chain
 	 * Primarily used before assigning an orgId as another org's subordinate org
 	 * (example - Org A can't be an org B's subordinate if Org A already upstream of Org B)
+	 * The starting org's own parent is taken from the entity as given (it may not be saved yet),
+	 * everything above that is looked up with a single recursive query.
 	 * @param id          the org to check/vet is not already in the parental ancestry chain
 	 * @param startingOrg the org to start the upward-search from
 	 * @return true/false if 'id' is in the ancestry chain
@@ -904,7 +1135,7 @@ public class OrganizationServiceImpl implements OrganizationService {
 		Organization parentOrg = startingOrg.getParentOrganization();
 		if (parentOrg == null) return false;
 		else if (parentOrg.getId().equals(id)) return true;
-		else return orgIsInAncestryChain(id, parentOrg);
+		else return repository.findAncestorIds(parentOrg.getId()).contains(id);
 	}
 
 	/**
@@ -918,9 +1149,17 @@ public class OrganizationServiceImpl implements OrganizationService {
 	 */
 	@Override
 	public boolean parentOrgCandidateIsDescendent(OrganizationDto org, UUID candidateParentId) {
-		return flattenOrg(org).getSubordinateOrganizations().contains(candidateParentId);
+		return findSelfAndDescendantIds(subordinateOrgIds(org)).contains(candidateParentId);
 	}
 
+	/**
+	 * Flattens an organization - its subordinate organizations become all of the organizations downstream
+	 * of it, and its members become its own members plus the leaders and members of all those downstream
+	 * organizations.  The downstream organizations and their people are each found with a single recursive query.
+	 *
+	 * @param org the organization to flatten
+	 * @return the flattened organization
+	 */
 	@Override
 	public OrganizationDto flattenOrg(OrganizationDto org) {
 		OrganizationDto flattenedOrg = new OrganizationDto();
@@ -932,45 +1171,36 @@ public class OrganizationServiceImpl implements OrganizationService {
 		flattenedOrg.setId(org.getId());
 		flattenedOrg.setLeaderUUID(org.getLeader());
 		flattenedOrg.setName(org.getName());
-		flattenedOrg.setSubOrgsUUID(new ArrayList<>(harvestOrgSubordinateUnits(new HashSet<>(org.getSubordinateOrganizations()), new HashSet<>())));
+
+		Set<UUID> subOrgIds = subordinateOrgIds(org);
+		flattenedOrg.setSubOrgsUUID(new ArrayList<>(findSelfAndDescendantIds(subOrgIds)));
+
+		Set<UUID> members = new LinkedHashSet<>();
 		if (org.getMembers() != null) {
-			flattenedOrg.setMembersUUID(new ArrayList<>(org.getMembers()));
-		}
-		else {
-			flattenedOrg.setMembersUUID(new ArrayList<>());
+			members.addAll(org.getMembers());
 		}
-		flattenedOrg.setMembersUUID(harvestOrgMembers(new HashSet<>(org.getSubordinateOrganizations()), flattenedOrg.getMembers()));
+		members.addAll(repository.findSelfAndDescendantMemberIds(subOrgIds));
+		flattenedOrg.setMembersUUID(new ArrayList<>(members));
 		return flattenedOrg;
 	}
 
-	// recursive helper function to dig deep on a units subordinates
-	private Set<UUID> harvestOrgSubordinateUnits(Set<UUID> orgIds, Set<UUID> accumulator) {
-
-		if (orgIds == null || orgIds.isEmpty()) return accumulator;
-
-		for (UUID orgId : orgIds) {
-			accumulator.add(orgId);
-			Set<UUID> ids = harvestOrgSubordinateUnits(new HashSet<>(getOrganization(orgId).getSubordinateOrganizations()), new HashSet<>());
-			accumulator.addAll(ids);
-		}
-
-		return accumulator;
+	private static Set<UUID> subordinateOrgIds(OrganizationDto org) {
+		return org.getSubordinateOrganizations() == null ? new HashSet<>() : new HashSet<>(org.getSubordinateOrganizations());
 	}
 
-	// recursive helper function to dig deep on a units members
-	private List<UUID> harvestOrgMembers(Set<UUID> orgIds, List<UUID> accumulator) {
-
-		if (orgIds == null || orgIds.isEmpty()) return accumulator;
-
-		for (UUID orgId : orgIds) {
-			OrganizationDto subOrg = getOrganization(orgId);
-			if (subOrg.getLeader() != null) accumulator.add(subOrg.getLeader());  // make sure to roll up the leader if there is one
-			if (subOrg.getMembers() != null) accumulator.addAll(subOrg.getMembers());
-			List<UUID> ids = harvestOrgMembers(new HashSet<>(getOrganization(orgId).getSubordinateOrganizations()), new ArrayList<>());
-			accumulator.addAll(ids);
+	/**
+	 * Finds the given organizations and everything downstream of them, throwing if any of the
+	 * given organizations don't exist (the recursive query just leaves those out)
+	 */
+	private Set<UUID> findSelfAndDescendantIds(Set<UUID> orgIds) {
+		Set<UUID> ids = repository.findSelfAndDescendantIds(orgIds);
+		for (UUID id : orgIds) {
+			if (!ids.contains(id)) {
+				throw new RecordNotFoundException(String.format(RESOURCE_NOT_FOUND_MSG, id));
+			}
 		}
 
-		return accumulator;
+		return ids;
 	}
 
 	/**
@@ -1036,77 +1266,166 @@ public class OrganizationServiceImpl implements OrganizationService {
 	 */
 	@Override
 	public JsonNode customizeEntity(Map<String, String> fields, OrganizationDto dto) {
+		return customizeEntities(fields, List.of(dto)).get(0);
+	}
+
+	/**
+	 * Customizes a whole list (page) of orgs at once, see {@link #customizeEntity(Map, OrganizationDto)}.
+	 * The nested members and orgs referenced across the whole list are looked up together, one query for
+	 * the people and one for the orgs.  When every requested field is a plain column only those columns are
+	 * selected, otherwise (e.g. a person's rank) the entities are loaded and serialized with the field filter.
+	 *
+	 * @param fields Map passed in from Controller with two keys - "people" and "orgs", each having a comma
+	 *               separated list of field names to include for those types
+	 * @param dtos   The DTOs to perform customization on
+	 * @return The customized entities, in the same order as the given DTOs
+	 */
+	@Override
+	public List<JsonNode> customizeEntities(Map<String, String> fields, List<OrganizationDto> dtos) {
 
-		Organization org = convertToEntity(dto);
-		ObjectMapper mapper = new ObjectMapper();
-		mapper.addMixIn(Person.class, CustomPersonDtoMixin.class);
-		mapper.addMixIn(Organization.class, CustomOrganizationDtoMixin.class);
+		// condition the Person type fields the user gave
+		Set<String> personEntityFilterFields = customizationFields(fields.get(OrganizationController.PEOPLE_PARAMS_FIELD));
 
+		// condition the Org type fields the user gave
+		Set<String> subOrgEntityFilterFields = customizationFields(fields.get(OrganizationController.ORGS_PARAMS_FIELD));
+		subOrgEntityFilterFields.remove(OrganizationDto.PARENT_ORG_FIELD);  // never allow parentOrg to be serialized on subordinate entities, might be infinite recursion
+		subOrgEntityFilterFields.remove(OrganizationDto.SUB_ORGS_FIELD);  // never allow subordinateOrgs to be serialized inside subordinateOrgs, might be infinite recursion
 
-		Set<String> mainEntityFilterFields = new HashSet<>();
-		mainEntityFilterFields.add(OrganizationDto.MEMBERS_FIELD);
-		mainEntityFilterFields.add(OrganizationDto.LEADER_FIELD);
-		mainEntityFilterFields.add(OrganizationDto.SUB_ORGS_FIELD);
-		mainEntityFilterFields.add(OrganizationDto.PARENT_ORG_FIELD);
-		FilterProvider filters = new SimpleFilterProvider()
+		// the nested entities get only the fields user gave to explicitly include
+		FilterProvider nestedFilters = new SimpleFilterProvider()
+				.addFilter("personFilter", SimpleBeanPropertyFilter
+						.filterOutAllExcept(personEntityFilterFields))
 				.addFilter("orgFilter", SimpleBeanPropertyFilter
-						.serializeAllExcept(mainEntityFilterFields));
+						.filterOutAllExcept(subOrgEntityFilterFields));
 
-		try {
+		// while the main entity gets everything but the fields having objects
+		FilterProvider mainFilters = new SimpleFilterProvider()
+				.addFilter("orgFilter", SimpleBeanPropertyFilter
+						.serializeAllExcept(OrganizationDto.MEMBERS_FIELD, OrganizationDto.LEADER_FIELD,
+								OrganizationDto.SUB_ORGS_FIELD, OrganizationDto.PARENT_ORG_FIELD));
+
+		Set<UUID> personIds = new HashSet<>();
+		Set<UUID> orgIds = new HashSet<>();
+		for (OrganizationDto dto : dtos) {
+			if (dto.getLeader() != null) personIds.add(dto.getLeader());
+			if (dto.getMembers() != null) personIds.addAll(dto.getMembers());
+			if (dto.getParentOrganization() != null) orgIds.add(dto.getParentOrganization());
+			if (dto.getSubordinateOrganizations() != null) orgIds.addAll(dto.getSubordinateOrganizations());
+		}
 
-			// filter out the fields having objects, we want everything else but those
-			JsonNode mainNode = mapper.readTree(mapper.writer(filters).writeValueAsString(org));
+		Map<UUID, JsonNode> people = personJsonFields.containsAll(personEntityFilterFields)
+				&& personRepository.supportsFieldProjection(personEntityFilterFields)
+				? toNodes(personRepository.findFieldsByIdIn(personIds, personEntityFilterFields))
+				: toNodes(personRepository.findAllById(personIds), Person::getId, nestedFilters);
+		Map<UUID, JsonNode> orgs = organizationJsonFields.containsAll(subOrgEntityFilterFields)
+				&& repository.supportsFieldProjection(subOrgEntityFilterFields)
+				? toNodes(repository.findFieldsByIdIn(orgIds, subOrgEntityFilterFields))
+				: toNodes(repository.findAllById(orgIds), Organization::getId, nestedFilters);
 
-			// condition the Person type fields the user gave
-			Set<String> personEntityFilterFields = Arrays.stream(fields.get(OrganizationController.PEOPLE_PARAMS_FIELD)
-					.split(","))
-					.map(String::trim)
-					.collect(Collectors.toSet());
+		List<JsonNode> customized = new ArrayList<>();
+		for (OrganizationDto dto : dtos) {
+			ObjectNode mainNode = (ObjectNode) serializeFiltered(toEntityWithoutRelationships(dto), mainFilters);
 
-			personEntityFilterFields.removeIf(s -> s.equals(""));
-			if (personEntityFilterFields.isEmpty()) {
-				personEntityFilterFields.add("id"); // add ID as the bare minimum like it would be on a regular DTO return
-			}
+			// reassemble the object that user will get
+			mainNode.set(OrganizationDto.MEMBERS_FIELD, toArrayNode(dto.getMembers(), people));
+			mainNode.set(OrganizationDto.LEADER_FIELD, toObjectNode(dto.getLeader(), people));
+			mainNode.set(OrganizationDto.PARENT_ORG_FIELD, toObjectNode(dto.getParentOrganization(), orgs));
+			mainNode.set(OrganizationDto.SUB_ORGS_FIELD, toArrayNode(dto.getSubordinateOrganizations(), orgs));
+			customized.add(mainNode);
+		}
+
+		return customized;
+	}
 
-			// condition the fields user gave
-			Set<String> subOrgEntityFilterFields = Arrays.stream(fields.get(OrganizationController.ORGS_PARAMS_FIELD)
-					.split(","))
+	private static Set<String> customizationFields(String requested) {
+		Set<String> filterFields = new LinkedHashSet<>();
+		if (requested != null) {
+			Arrays.stream(requested.split(","))
 					.map(String::trim)
-					.collect(Collectors.toSet());
+					.filter(field -> !field.isEmpty())
+					.forEach(filterFields::add);
+		}
 
-			subOrgEntityFilterFields.removeIf(s -> s.equals(""));
-			if (subOrgEntityFilterFields.isEmpty()) {
-				subOrgEntityFilterFields.add("id"); // add ID as the bare minimum like it would be on a regular DTO return
-			}
-			subOrgEntityFilterFields.remove(OrganizationDto.PARENT_ORG_FIELD);  // never allow parentOrg to be serialized on subordinate entities, might be infinite recursion
-			subOrgEntityFilterFields.remove(OrganizationDto.SUB_ORGS_FIELD);  // never allow subordinateOrgs to be serialized inside subordinateOrgs, might be infinite recursion
-
-			// add in the filters with the fields user gave to explicitly include
-			filters = new SimpleFilterProvider()
-					.addFilter("personFilter", SimpleBeanPropertyFilter
-							.filterOutAllExcept(personEntityFilterFields))
-					.addFilter("orgFilter", SimpleBeanPropertyFilter
-							.filterOutAllExcept(subOrgEntityFilterFields));
-
-			// json-ize the individual Person-type fields and Org-type fields
-			JsonNode usersNode = mapper.readTree(mapper.writer(filters).writeValueAsString(org.getMembers()));
-			JsonNode leaderNode = mapper.readTree(mapper.writer(filters).writeValueAsString(org.getLeader()));
-			JsonNode parentOrgNode = mapper.readTree(mapper.writer(filters).writeValueAsString(org.getParentOrganization()));
-			JsonNode subOrgsNode = mapper.readTree(mapper.writer(filters).writeValueAsString(org.getSubordinateOrganizations()));
+		if (filterFields.isEmpty()) {
+			filterFields.add("id"); // add ID as the bare minimum like it would be on a regular DTO return
+		}
 
-			// reassemble the object that user will get
-			((ObjectNode) mainNode).set(OrganizationDto.MEMBERS_FIELD, usersNode);
-			((ObjectNode) mainNode).set(OrganizationDto.LEADER_FIELD, leaderNode);
-			((ObjectNode) mainNode).set(OrganizationDto.PARENT_ORG_FIELD, parentOrgNode);
-			((ObjectNode) mainNode).set(OrganizationDto.SUB_ORGS_FIELD, subOrgsNode);
+		return filterFields;
+	}
 
-			return mainNode;
+	/**
+	 * The org's own fields as an entity, its members, leader and parent/subordinate orgs are left
+	 * out since those are filtered out of the main node anyway (and would each need a lookup)
+	 */
+	private Organization toEntityWithoutRelationships(OrganizationDto dto) {
+		OrganizationDto withoutRelationships = OrganizationDto.builder()
+				.id(dto.getId())
+				.name(dto.getName())
+				.orgType(dto.getOrgType())
+				.branchType(dto.getBranchType())
+				.meta(dto.getMeta())
+				.build();
+
+		return convertToEntity(withoutRelationships);
+	}
 
-		} catch (JsonProcessingException e) {
+	/**
+	 * Builds the tree the way valueToTree does (through a token buffer rather than json text), just with
+	 * this request's filters and without copying the mapper (and its serializer cache) to set them
+	 */
+	private JsonNode serializeFiltered(Object value, FilterProvider filters) {
+		TokenBuffer buffer = new TokenBuffer(customizationMapper, false);
+		try {
+			customizationMapper.writer(filters).writeValue(buffer, value);
+			return customizationMapper.readTree(buffer.asParser());
+		} catch (IOException e) {
 			throw new BadRequestException("Could not compile custom organizational entity");
 		}
 	}
 
+	private Map<UUID, JsonNode> toNodes(Map<UUID, Map<String, Object>> projections) {
+		Map<UUID, JsonNode> nodes = new HashMap<>();
+		projections.forEach((id, values) -> {
+			ObjectNode node = objMapper.createObjectNode();
+			values.forEach((field, value) -> node.set(field, objMapper.valueToTree(value)));
+			nodes.put(id, node);
+		});
+
+		return nodes;
+	}
+
+	private <T> Map<UUID, JsonNode> toNodes(Iterable<T> entities, Function<T, UUID> idGetter, FilterProvider filters) {
+		Map<UUID, JsonNode> nodes = new HashMap<>();
+		entities.forEach(entity -> nodes.put(idGetter.apply(entity), serializeFiltered(entity, filters)));
+		return nodes;
+	}
+
+	private static JsonNode toObjectNode(UUID id, Map<UUID, JsonNode> nodes) {
+		return id == null || !nodes.containsKey(id) ? NullNode.getInstance() : nodes.get(id);
+	}
+
+	private static ArrayNode toArrayNode(List<UUID> ids, Map<UUID, JsonNode> nodes) {
+		ArrayNode array = JsonNodeFactory.instance.arrayNode();
+		if (ids != null) {
+			new LinkedHashSet<>(ids).stream()
+					.filter(nodes::containsKey)
+					.forEach(id -> array.add(nodes.get(id)));
+		}
+
+		return array;
+	}
+
+	// names of the properties Jackson would serialize for the given entity
+	private Set<String> jsonFields(Class<?> entityClass) {
+		return objMapper.getSerializationConfig()
+				.introspect(objMapper.constructType(entityClass))
+				.findProperties()
+				.stream()
+				.filter(BeanPropertyDefinition::couldSerialize)
+				.map(BeanPropertyDefinition::getName)
+				.collect(Collectors.toSet());
+	}
+
 	@Override
 	public OrganizationDto applyPatchToOrganization(JsonPatch patch, OrganizationDto organizationDto) {
 		try {
@@ -1322,17 +1641,15 @@ public class OrganizationServiceImpl implements OrganizationService {
 	}
 	
 	private OrganizationDto checkEfaResponseForIllegalModification(EntityFieldAuthResponse<Organization> efaResponse) {
-		if (efaResponse.getDeniedFields().isEmpty()) {
+		if (!efaResponse.hasDeniedFields()) {
 			return this.convertToDto(efaResponse.getModifiedEntity());
 		}
 		
 		throw new IllegalOrganizationModification(efaResponse);
 	}
 	
-	private OrganizationDto checkEfaResponseForIllegalModification(Organization entity, List<String> deniedFields) {
-		return checkEfaResponseForIllegalModification(
-				EntityFieldAuthResponse.<Organization>builder()
-					.deniedFields(deniedFields)
+	private OrganizationDto checkEfaResponseForIllegalModification(Organization entity, EntityFieldAuthResponse<Organization> efaResponse) {
+		return checkEfaResponseForIllegalModification(efaResponse.toBuilder()
 					.modifiedEntity(entity)
 					.build());
 	}
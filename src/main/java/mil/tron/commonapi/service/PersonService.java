@@ -1,6 +1,7 @@
 package mil.tron.commonapi.service;
 
 import com.github.fge.jsonpatch.JsonPatch;
+import mil.tron.commonapi.dto.BulkImportResultDto;
 import mil.tron.commonapi.dto.PersonDto;
 import mil.tron.commonapi.dto.PlatformJwtDto;
 import mil.tron.commonapi.entity.Person;
@@ -38,6 +39,15 @@ public interface PersonService {
 
 	List<PersonDto> bulkAddPeople(List<PersonDto> dtos);
 
+	/**
+	 * Imports a large batch of new persons.  Unlike {@link #bulkAddPeople(List)} a bad row
+	 * does not abort the whole batch - it is skipped and reported back in the result's errors.
+	 *
+	 * @param dtos new Persons to create
+	 * @return the created persons along with an error for each rejected row
+	 */
+	BulkImportResultDto<PersonDto> bulkImportPeople(List<PersonDto> dtos);
+
 	PersonDto convertToDto(Person entity, PersonConversionOptions options);
 	Person convertToEntity(PersonDto dto);
 	PersonDto applyPatchToPerson(JsonPatch patch, PersonDto person);
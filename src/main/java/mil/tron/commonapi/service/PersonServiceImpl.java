@@ -5,8 +5,11 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.fge.jsonpatch.JsonPatch;
 import com.github.fge.jsonpatch.JsonPatchException;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
 
+import lombok.Value;
+import mil.tron.commonapi.dto.BulkImportResultDto;
 import mil.tron.commonapi.dto.PersonDto;
 import mil.tron.commonapi.dto.PlatformJwtDto;
 import mil.tron.commonapi.dto.mapper.DtoMapper;
@@ -43,12 +46,15 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 
 import javax.transaction.Transactional;
 import java.util.*;
 import java.util.stream.Collectors;
 
+import static mil.tron.commonapi.service.utility.BulkImportUtils.*;
 import static mil.tron.commonapi.service.utility.ReflectionUtils.checkNonPatchableFieldsUntouched;
 import static mil.tron.commonapi.service.utility.ReflectionUtils.fields;
 
@@ -64,6 +70,7 @@ public class PersonServiceImpl implements PersonService {
 	private final ObjectMapper objMapper;
 	private EntityFieldAuthService entityFieldAuthService;
 	private ValidatorService validatorService;
+	private final TransactionTemplate transactionTemplate;
 	private static final Map<Branch, Set<String>> validProperties = Map.of(
 			Branch.USAF, fields(Airman.class),
 			Branch.USCG, fields(CoastGuardsman.class),
@@ -84,7 +91,8 @@ public class PersonServiceImpl implements PersonService {
 							 EventManagerService eventManagerService,
 							 EntityFieldAuthService entityFieldAuthService,
 							 @Lazy OrganizationService organizationService,
-							 ValidatorService validatorService) {
+							 ValidatorService validatorService,
+							 PlatformTransactionManager transactionManager) {
 		this.repository = repository;
 		this.personChecksService = personChecksService;
 		this.rankRepository = rankRepository;
@@ -93,6 +101,7 @@ public class PersonServiceImpl implements PersonService {
 		this.organizationService = organizationService;
 		this.entityFieldAuthService = entityFieldAuthService;
 		this.validatorService = validatorService;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
 		this.modelMapper = new DtoMapper();
 		modelMapper.getConfiguration().setPropertyCondition(Conditions.isNotNull());
 
@@ -251,7 +260,7 @@ public class PersonServiceImpl implements PersonService {
 			throw new ResourceAlreadyExistsException(String.format(DODID_ALREADY_EXISTS_ERROR, entity.getDodid()));
 
 		Person updatedPerson = updateMetadata(dto.getBranch(), entity, dbPerson, dto.getMeta());
-		EntityFieldAuthResponse<Person> efaResponse = applyFieldAuthority(updatedPerson);
+		EntityFieldAuthResponse<Person> efaResponse = applyFieldAuthority(updatedPerson, dbPerson.get());
 		repository.save(efaResponse.getModifiedEntity());
 
 		PersonChangedMessage message = new PersonChangedMessage();
@@ -303,10 +312,10 @@ public class PersonServiceImpl implements PersonService {
 		return updatedEntity;
 	}
 
-	// helper that applies entity field authorization for us
-	private EntityFieldAuthResponse<Person> applyFieldAuthority(Person incomingEntity) {
+	// helper that applies entity field authorization for us against the already loaded existing entity
+	private EntityFieldAuthResponse<Person> applyFieldAuthority(Person incomingEntity, Person existingEntity) {
 		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-		return entityFieldAuthService.adjudicatePersonFields(incomingEntity, authentication);
+		return entityFieldAuthService.adjudicatePersonFields(incomingEntity, existingEntity, authentication);
 	}
 
 	private void checkValidMetadataProperties(Branch branch, Map<String, String> metadata) {
@@ -362,7 +371,7 @@ public class PersonServiceImpl implements PersonService {
 
 
 		Person updatedPerson = updateMetadata(patchedPersonDto.getBranch(), patchedPerson, dbPerson, patchedPersonDto.getMeta());
-		EntityFieldAuthResponse<Person> efaResponse = applyFieldAuthority(updatedPerson);
+		EntityFieldAuthResponse<Person> efaResponse = applyFieldAuthority(updatedPerson, dbPerson.get());
 		repository.save(efaResponse.getModifiedEntity());
 		
 		PersonChangedMessage message = new PersonChangedMessage();
@@ -470,6 +479,190 @@ public class PersonServiceImpl implements PersonService {
 		return added;
 	}
 
+	/**
+	 * Bulk imports new persons, meant for large (e.g. nightly) syncs of personnel records.
+	 * The whole batch is validated in memory, ranks are resolved from a single lookup and existing
+	 * ids/emails/dodids are found with a handful of set queries.  Accepted rows are then inserted in
+	 * JDBC batched chunks, each chunk in its own transaction.  Rows that fail are reported back
+	 * instead of rolling back the entire import.
+	 * Only fires one pub-sub event containing all new Person UUIDs
+	 *
+	 * @param dtos new Persons to create
+	 * @return the created persons along with an error for each rejected row
+	 */
+	@Override
+	public BulkImportResultDto<PersonDto> bulkImportPeople(List<PersonDto> dtos) {
+		BulkImportResultDto<PersonDto> result = new BulkImportResultDto<>();
+
+		Map<String, Optional<Rank>> ranks = new HashMap<>();
+		rankRepository.findAll().forEach(rank -> ranks.put(rankKey(rank.getAbbreviation(), rank.getBranchType()), Optional.of(rank)));
+
+		// validate each row on its own, and weed out rows that collide with an earlier row of the same batch
+		List<PersonImportRow> candidates = new ArrayList<>();
+		Set<UUID> batchIds = new HashSet<>();
+		Set<String> batchEmails = new HashSet<>();
+		Set<String> batchDodids = new HashSet<>();
+		for (int row = 0; row < dtos.size(); row++) {
+			PersonDto dto = dtos.get(row);
+			UUID dtoId = dto == null ? null : dto.getId();
+
+			try {
+				PersonImportRow candidate = prepareImportRow(row, dto, ranks);
+				Person entity = candidate.getEntity();
+				String emailAsLower = candidate.getEmailAsLower();
+
+				if (batchIds.contains(entity.getId())) {
+					rejectRow(result, row, entity.getId(), String.format("Duplicate id %s within the import", entity.getId()));
+				} else if (emailAsLower != null && batchEmails.contains(emailAsLower)) {
+					rejectRow(result, row, entity.getId(), String.format("Duplicate email %s within the import", entity.getEmail()));
+				} else if (entity.getDodid() != null && batchDodids.contains(entity.getDodid())) {
+					rejectRow(result, row, entity.getId(), String.format("Duplicate dodid %s within the import", entity.getDodid()));
+				} else {
+					batchIds.add(entity.getId());
+					if (emailAsLower != null) batchEmails.add(emailAsLower);
+					if (entity.getDodid() != null) batchDodids.add(entity.getDodid());
+					candidates.add(candidate);
+				}
+			} catch (MethodArgumentNotValidException e) {
+				rejectRow(result, row, dtoId, validationMessage(e));
+			} catch (RuntimeException e) {
+				rejectRow(result, row, dtoId, e.getMessage());
+			}
+		}
+
+		// now check the survivors against what is already in the database
+		Set<UUID> existingIds = findExisting(batchIds, repository::findIdsByIdIn);
+		Set<String> existingEmails = findExisting(batchEmails, repository::findEmailsAsLowerIn);
+		Set<String> existingDodids = findExisting(batchDodids, repository::findDodidsIn);
+
+		List<PersonImportRow> accepted = new ArrayList<>();
+		for (PersonImportRow candidate : candidates) {
+			Person entity = candidate.getEntity();
+			if (existingIds.contains(entity.getId())) {
+				rejectRow(result, candidate.getRow(), entity.getId(), "Person resource with the id: " + entity.getId() + " already exists.");
+			} else if (candidate.getEmailAsLower() != null && existingEmails.contains(candidate.getEmailAsLower())) {
+				rejectRow(result, candidate.getRow(), entity.getId(), String.format("Person resource with the email: %s already exists", entity.getEmail()));
+			} else if (entity.getDodid() != null && existingDodids.contains(entity.getDodid())) {
+				rejectRow(result, candidate.getRow(), entity.getId(), String.format(DODID_ALREADY_EXISTS_ERROR, entity.getDodid()));
+			} else {
+				accepted.add(candidate);
+			}
+		}
+
+		for (List<PersonImportRow> chunk : Iterables.partition(accepted, INSERT_CHUNK_SIZE)) {
+			insertImportChunk(chunk, result);
+		}
+
+		if (!result.getCreated().isEmpty()) {
+			PersonChangedMessage message = new PersonChangedMessage();
+			message.setPersonIds(result.getCreated().stream().map(PersonDto::getId).collect(Collectors.toSet()));
+			eventManagerService.recordEventAndPublish(message);
+		}
+
+		sortErrors(result);
+		return result;
+	}
+
+	/**
+	 * Validates and converts a single import row without touching the database
+	 * (beyond looking up a rank the up front load didn't match exactly)
+	 */
+	private PersonImportRow prepareImportRow(int row, PersonDto dto, Map<String, Optional<Rank>> ranks) throws MethodArgumentNotValidException {
+		if (dto == null) {
+			throw new BadRequestException("Person cannot be null");
+		}
+
+		if (dto.getId() == null) {
+			dto.setId(UUID.randomUUID());
+		}
+
+		validatorService.isValid(dto, PersonDto.class);
+		checkValidMetadataProperties(dto.getBranch(), dto.getMeta());
+
+		Rank rank = dto.getRank() == null ? null : findImportRank(dto.getRank(), dto.getBranch(), ranks);
+		if (rank == null) {
+			rank = findImportRank("Unk", Branch.OTHER, ranks);
+		}
+		if (rank == null) {
+			throw new RecordNotFoundException("Unable to find rank match");
+		}
+
+		Person entity = toImportEntity(dto, rank);
+		PersonDto created = convertToDto(entity, null);
+		entity.getMetadata().forEach(metadata -> created.setMetaProperty(metadata.getKey(), metadata.getValue()));
+
+		return new PersonImportRow(row, dto, rank, entity, created, entity.getEmail() == null ? null : entity.getEmail().toLowerCase());
+	}
+
+	/**
+	 * Builds a new, never persisted entity for an import row
+	 */
+	private Person toImportEntity(PersonDto dto, Rank rank) {
+		Person entity = modelMapper.map(dto, Person.class);
+		entity.setRank(rank);
+
+		// memberships and leaderships are read only, they are never set by an import
+		entity.getOrganizationMemberships().clear();
+		entity.getOrganizationLeaderships().clear();
+		entity.getMetadata().clear();
+
+		// apply the same trimming/blanking the entity gets on persist so the uniqueness checks see the stored values
+		entity.sanitizeEntity();
+
+		if (dto.getMeta() != null) {
+			dto.getMeta().forEach((key, value) -> entity.getMetadata().add(new PersonMetadata(entity.getId(), key, value)));
+		}
+
+		return entity;
+	}
+
+	/**
+	 * Resolves a rank for an import row.  Exact matches come from the ranks loaded up front, anything
+	 * else goes through the same case insensitive lookup a single person add uses (once per distinct value)
+	 */
+	private Rank findImportRank(String abbreviation, Branch branch, Map<String, Optional<Rank>> ranks) {
+		return ranks.computeIfAbsent(rankKey(abbreviation, branch),
+				key -> rankRepository.findByAbbreviationIgnoringCaseAndBranchType(abbreviation, branch)).orElse(null);
+	}
+
+	/**
+	 * Inserts a chunk of import rows in one transaction.  If the chunk fails (e.g. a record
+	 * was added concurrently after the up front checks) the rows are retried one at a time
+	 * so that only the offending rows get rejected.  The retries use freshly built entities
+	 * since the ones from the failed chunk were tied to its (now closed) persistence context.
+	 */
+	private void insertImportChunk(List<PersonImportRow> chunk, BulkImportResultDto<PersonDto> result) {
+		try {
+			transactionTemplate.executeWithoutResult(status ->
+					repository.insertAll(chunk.stream().map(PersonImportRow::getEntity).collect(Collectors.toList())));
+			chunk.forEach(row -> result.getCreated().add(row.getCreated()));
+		} catch (RuntimeException chunkFailure) {
+			for (PersonImportRow row : chunk) {
+				try {
+					Person entity = toImportEntity(row.getSource(), row.getRank());
+					transactionTemplate.executeWithoutResult(status -> repository.insertAll(List.of(entity)));
+					result.getCreated().add(row.getCreated());
+				} catch (RuntimeException rowFailure) {
+					rejectRow(result, row.getRow(), row.getEntity().getId(), insertFailureMessage(rowFailure));
+				}
+			}
+		}
+	}
+
+	private static String rankKey(String abbreviation, Branch branch) {
+		return branch + ":" + abbreviation;
+	}
+
+	@Value
+	private static class PersonImportRow {
+		int row;
+		PersonDto source;
+		Rank rank;
+		Person entity;
+		PersonDto created;
+		String emailAsLower;
+	}
+
 	@Override
 	public PersonDto convertToDto(Person entity, PersonConversionOptions options) {
         if (options == null) {
@@ -567,7 +760,7 @@ public class PersonServiceImpl implements PersonService {
 	}
 
 	private PersonDto checkEfaResponseForIllegalModification(EntityFieldAuthResponse<Person> efaResponse, PersonConversionOptions options) {
-		if (efaResponse.getDeniedFields().isEmpty()) {
+		if (!efaResponse.hasDeniedFields()) {
 			return this.convertToDto(efaResponse.getModifiedEntity(), options);
 		}
 		
@@ -11,7 +11,6 @@ import org.springframework.lang.NonNull;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
-import lombok.extern.slf4j.Slf4j;
 import mil.tron.commonapi.dto.dashboard.AppSourceErrorResponseDto;
 import mil.tron.commonapi.dto.dashboard.AppSourceErrorUsageDto;
 import mil.tron.commonapi.dto.dashboard.ResponseDto;
@@ -19,31 +18,36 @@ import mil.tron.commonapi.dto.dashboard.AppSourceUsageDto;
 import mil.tron.commonapi.dto.dashboard.AppSourceUsageResponseDto;
 import mil.tron.commonapi.dto.dashboard.EntityAccessorDto;
 import mil.tron.commonapi.dto.dashboard.EntityAccessorResponseDto;
-import mil.tron.commonapi.entity.HttpLogEntry;
+import mil.tron.commonapi.entity.dashboard.AppSourceResponseCount;
 import mil.tron.commonapi.entity.dashboard.EntityAccessor;
+import mil.tron.commonapi.entity.kpi.HttpUsageRollup;
+import mil.tron.commonapi.entity.kpi.ServiceUsage;
 import mil.tron.commonapi.exception.BadRequestException;
-import mil.tron.commonapi.repository.HttpLogsRepository;
+import mil.tron.commonapi.repository.kpi.HttpUsageRollupRepository;
 import mil.tron.commonapi.service.utility.HttpLogsUtilService;
 
 import java.time.Clock;
 import java.time.Instant;
 import java.util.Comparator;
 
-@Slf4j
+/**
+ * Dashboard usage reports.  These read from the hourly http usage rollups, so a range is widened
+ * to include the whole hour its start date falls in.
+ */
 @Service
 public class DashboardServiceImpl implements DashboardService {
 	private final ModelMapper modelMapper;
 	
 	private HttpLogsUtilService httpLogsUtilService;
-	private HttpLogsRepository httpLogsRepo;
+	private HttpUsageRollupRepository usageRollupRepo;
 	
 	private Clock systemUtcClock;
 
-	public DashboardServiceImpl(HttpLogsUtilService httpLogsService, HttpLogsRepository httpLogsRepo, Clock systemUtcClock) {
+	public DashboardServiceImpl(HttpLogsUtilService httpLogsService, HttpUsageRollupRepository usageRollupRepo, Clock systemUtcClock) {
 		modelMapper = new ModelMapper();
 		
 		this.httpLogsUtilService = httpLogsService;
-		this.httpLogsRepo = httpLogsRepo;
+		this.usageRollupRepo = usageRollupRepo;
 		
 		this.systemUtcClock = systemUtcClock;
 	}
@@ -57,7 +61,7 @@ public class DashboardServiceImpl implements DashboardService {
 		
 		validateDates(startDate, endDate, now);
     	
-		List<EntityAccessor> organizationAccessors = this.httpLogsRepo.getUsersAccessingOrgRecords(startDate, endDate);
+		List<EntityAccessor> organizationAccessors = this.usageRollupRepo.getUsersAccessingService(HttpUsageRollup.bucketOf(startDate), endDate, HttpUsageRollup.ORGANIZATION_SERVICE);
 
 		List<EntityAccessorDto> appClientAccessors = organizationAccessors.stream()
 				.filter(accessor -> httpLogsUtilService.isUsernameAnAppClient(accessor.getName()))
@@ -80,7 +84,7 @@ public class DashboardServiceImpl implements DashboardService {
 		
 		validateDates(startDate, endDate, now);
     	
-		List<EntityAccessor> personnelAccessors = this.httpLogsRepo.getUsersAccessingPersonnelRecords(startDate, endDate);
+		List<EntityAccessor> personnelAccessors = this.usageRollupRepo.getUsersAccessingService(HttpUsageRollup.bucketOf(startDate), endDate, HttpUsageRollup.PERSON_SERVICE);
 
 		List<EntityAccessorDto> appClientAccessors = personnelAccessors.stream()
 				.filter(accessor -> httpLogsUtilService.isUsernameAnAppClient(accessor.getName()))
@@ -103,19 +107,13 @@ public class DashboardServiceImpl implements DashboardService {
 		
 		validateDates(startDate, endDate, now);
 		
-		List<HttpLogEntry> appSourceUsage = this.httpLogsRepo.getAppSourceUsage(startDate, endDate);
+		List<ServiceUsage> appSourceUsage = this.usageRollupRepo.getAppSourceUsage(HttpUsageRollup.bucketOf(startDate), endDate);
 
-		Map<String, Long> appSourceUsageCount = appSourceUsage.stream()
-				.collect(Collectors.groupingBy(entry -> getAppSourceNameFromRequestUrl(entry.getRequestedUrl()), Collectors.counting()));
-		
-		// Remove empty string from the map as this references request urls that
-		// App Source names could not be extracted from.
-		appSourceUsageCount.remove("");
-		
-		LinkedList<AppSourceUsageDto> usage = appSourceUsageCount.entrySet().stream()
-				.sorted(descending ? Map.Entry.comparingByValue(Comparator.reverseOrder()) : Map.Entry.comparingByValue())
+		Comparator<ServiceUsage> byRequestCount = Comparator.comparing(ServiceUsage::getRequestCount);
+		LinkedList<AppSourceUsageDto> usage = appSourceUsage.stream()
+				.sorted(descending ? byRequestCount.reversed() : byRequestCount)
 				.limit(limit)
-				.map(entry -> AppSourceUsageDto.builder().name(entry.getKey()).incomingRequestCount(entry.getValue()).build())
+				.map(entry -> AppSourceUsageDto.builder().name(entry.getName()).incomingRequestCount(entry.getRequestCount()).build())
 				.collect(Collectors.toCollection(LinkedList::new));
 		
 		return AppSourceUsageResponseDto.builder()
@@ -134,22 +132,17 @@ public class DashboardServiceImpl implements DashboardService {
 		
 		validateDates(startDate, endDate, now);
 		
-		List<HttpLogEntry> appSourceErrorUsage = this.httpLogsRepo.getAppSourceErrorUsage(startDate, endDate);
+		List<AppSourceResponseCount> appSourceErrorUsage = this.usageRollupRepo.getAppSourceErrorUsage(HttpUsageRollup.bucketOf(startDate), endDate);
 		
-		Map<String, Map<Integer, Long>> appSourceErrorUsageCount = appSourceErrorUsage.stream()
-				.collect(Collectors.groupingBy(entry -> getAppSourceNameFromRequestUrl(entry.getRequestedUrl()),
-						Collectors.groupingBy(HttpLogEntry::getStatusCode, Collectors.counting())));
-		
-		// Remove empty string from the map as this references request urls that
-		// App Source names could not be extracted from.
-		appSourceErrorUsageCount.remove("");
+		Map<String, List<AppSourceResponseCount>> appSourceErrorUsageCount = appSourceErrorUsage.stream()
+				.collect(Collectors.groupingBy(AppSourceResponseCount::getName));
 		
 		List<AppSourceErrorUsageDto> usage = appSourceErrorUsageCount.entrySet().stream()
 				.map(entry -> {
-					List<ResponseDto> errorResponses = entry.getValue().entrySet().stream()
+					List<ResponseDto> errorResponses = entry.getValue().stream()
 							.map(errorEntry -> ResponseDto.builder()
-									.statusCode(errorEntry.getKey())
-									.count(errorEntry.getValue())
+									.statusCode(errorEntry.getStatusCode())
+									.count(errorEntry.getRequestCount())
 									.build())
 							.collect(Collectors.toList());
 					
@@ -184,22 +177,4 @@ public class DashboardServiceImpl implements DashboardService {
 		httpLogsUtilService.isDateInThePast(startDate, referenceDate, true);
 		httpLogsUtilService.isDateBeforeOrEqualTo(startDate, endDate, true);
 	}
-	
-	/**
-	 * Parses a request url targeting an App Source to extract the App Source's name.
-	 * Expected url format: http://localhost:8888/api/v1/app/APP_SOURCE_NAME/app_source_path/
-	 * 
-	 * @param url the request url to parse
-	 * @return the App Source name or "" (empty string) if an error occurred
-	 */
-	private String getAppSourceNameFromRequestUrl(String url) {
-		try {
-			return url.split("/app/")[1].split("/")[0];
-		} catch (Exception ex) {
-			// If processing App Source name fails, just leave the result
-			// as an empty string and remove it later.
-			log.error("Could not parse App Source name from request url: " + url);
-			return "";
-		}
-	}
 }
@@ -0,0 +1,46 @@
+package mil.tron.commonapi.service.documentspace;
+
+import com.amazonaws.services.s3.model.S3Object;
+import mil.tron.commonapi.service.documentspace.util.DocumentSpaceArchive;
+
+import javax.annotation.Nullable;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Cache of folder and whole space zips.  When enabled, the first download of a folder kicks off a
+ * background build of its zip, which is stored in S3 under a key derived from the state of the folder's
+ * contents (their etags and modification dates).  Downloads after that are served straight from the
+ * stored zip for as long as the contents stay the same.  Zips of an earlier state are evicted when the
+ * folder's next zip gets built, and a periodic sweep evicts zips of deleted folders along with any zip past
+ * its max age (such as the zip of a moved folder that isn't downloaded again).
+ */
+public interface DocumentSpaceArchiveService {
+    /**
+     * Looks up the zip of a folder's current contents, scheduling a background build of it if there isn't one
+     * @param documentSpaceId the document space UUID
+     * @param path path of the folder, "/" for the whole space
+     * @return the zip if it has been built already, empty if not (or if caching is disabled)
+     */
+    Optional<DocumentSpaceArchive> getArchive(UUID documentSpaceId, String path);
+
+    /**
+     * Gets the bytes of a built zip, or just a range of them
+     * @param archive the zip
+     * @param rangeStart first byte (inclusive) to get, null for the whole zip
+     * @param rangeEnd last byte (inclusive) to get, null for the whole zip
+     * @return the S3 object holding the requested bytes
+     */
+    S3Object getArchiveContent(DocumentSpaceArchive archive, @Nullable Long rangeStart, @Nullable Long rangeEnd);
+
+    /**
+     * Deletes every zip built for a document space
+     * @param documentSpaceId the document space UUID
+     */
+    void evictArchives(UUID documentSpaceId);
+
+    /**
+     * Deletes the zips of folders that no longer exist (or are archived) and any zip older than the max age
+     */
+    void evictOrphanedArchives();
+}
@@ -0,0 +1,327 @@
+package mil.tron.commonapi.service.documentspace;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.amazonaws.services.s3.transfer.TransferManager;
+import com.google.common.collect.Iterables;
+import lombok.extern.slf4j.Slf4j;
+import mil.tron.commonapi.annotation.minio.IfMinioEnabledOnIL4OrDevLocal;
+import mil.tron.commonapi.entity.documentspace.DocumentSpaceFileSystemEntry;
+import mil.tron.commonapi.repository.documentspace.DocumentSpaceFileSystemEntryRepository;
+import mil.tron.commonapi.service.documentspace.util.DocumentSpaceArchive;
+import mil.tron.commonapi.service.documentspace.util.FilePathSpec;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Service
+@IfMinioEnabledOnIL4OrDevLocal
+public class DocumentSpaceArchiveServiceImpl implements DocumentSpaceArchiveService {
+	/**
+	 * Document space keys all start with the space's id, so nothing else can end up under this prefix
+	 */
+	public static final String ARCHIVE_KEY_PREFIX = "archives/";
+
+	private static final String ARCHIVE_CONTENT_TYPE = "application/zip";
+
+	/**
+	 * Max number of folder item ids looked up at once when sweeping
+	 */
+	private static final int ID_CHUNK_SIZE = 1000;
+
+	private final AmazonS3 documentSpaceClient;
+	private final TransferManager documentSpaceTransferManager;
+	private final String bucketName;
+	private final DocumentSpaceService documentSpaceService;
+	private final DocumentSpaceFileSystemService documentSpaceFileSystemService;
+	private final DocumentSpaceFileSystemEntryRepository fileSystemEntryRepository;
+	private final boolean enabled;
+	private final Duration maxAge;
+
+	/**
+	 * Keys of the zips being built right now, so a folder downloaded again before its zip is ready doesn't
+	 * get built twice
+	 */
+	private final Set<String> building = ConcurrentHashMap.newKeySet();
+
+	private final TaskExecutor executor;
+
+	@SuppressWarnings("squid:S00107")
+	public DocumentSpaceArchiveServiceImpl(AmazonS3 documentSpaceClient,
+										   TransferManager documentSpaceTransferManager,
+										   @Value("${minio.bucket-name}") String bucketName,
+										   @Lazy DocumentSpaceService documentSpaceService,
+										   DocumentSpaceFileSystemService documentSpaceFileSystemService,
+										   DocumentSpaceFileSystemEntryRepository fileSystemEntryRepository,
+										   @Value("${document-space.archive-cache.enabled:false}") boolean enabled,
+										   @Value("${document-space.archive-cache.max-age-hours:168}") long maxAgeHours,
+										   @Qualifier("documentSpaceArchiveExecutor") TaskExecutor executor) {
+		this.documentSpaceClient = documentSpaceClient;
+		this.documentSpaceTransferManager = documentSpaceTransferManager;
+		this.bucketName = bucketName;
+		this.documentSpaceService = documentSpaceService;
+		this.documentSpaceFileSystemService = documentSpaceFileSystemService;
+		this.fileSystemEntryRepository = fileSystemEntryRepository;
+		this.enabled = enabled;
+		this.maxAge = Duration.ofHours(maxAgeHours);
+		this.executor = executor;
+	}
+
+	@Override
+	public Optional<DocumentSpaceArchive> getArchive(UUID documentSpaceId, String path) {
+		if (!enabled) {
+			return Optional.empty();
+		}
+
+		FilePathSpec spec = documentSpaceFileSystemService.parsePathToFilePathSpec(documentSpaceId, path);
+		ArchiveState state = getArchiveState(documentSpaceId, spec);
+		String key = getArchivePrefix(documentSpaceId, spec.getItemId()) + state.hash + ".zip";
+
+		try {
+			ObjectMetadata metadata = documentSpaceClient.getObjectMetadata(bucketName, key);
+			return Optional.of(new DocumentSpaceArchive(key, state.hash, metadata.getContentLength(), state.lastModified));
+		} catch (AmazonServiceException ex) {
+			if (ex.getStatusCode() != 404) {
+				throw ex;
+			}
+		}
+
+		scheduleBuild(documentSpaceId, path, spec.getItemId(), key, state.hash);
+		return Optional.empty();
+	}
+
+	@Override
+	public S3Object getArchiveContent(DocumentSpaceArchive archive, @Nullable Long rangeStart, @Nullable Long rangeEnd) {
+		GetObjectRequest request = new GetObjectRequest(bucketName, archive.getKey());
+		if (rangeStart != null && rangeEnd != null) {
+			request.setRange(rangeStart, rangeEnd);
+		}
+
+		return documentSpaceClient.getObject(request);
+	}
+
+	@Override
+	public void evictArchives(UUID documentSpaceId) {
+		evictArchives(ARCHIVE_KEY_PREFIX + documentSpaceId + DocumentSpaceFileSystemServiceImpl.PATH_SEP, null);
+	}
+
+	@Scheduled(fixedDelayString = "${document-space.archive-cache.cleanup-delay-ms:3600000}")
+	@Override
+	public void evictOrphanedArchives() {
+		if (!enabled) {
+			return;
+		}
+
+		Date cutoff = new Date(System.currentTimeMillis() - maxAge.toMillis());
+		List<String> keys = new ArrayList<>();
+		Map<UUID, List<String>> keysByFolder = new HashMap<>();
+		for (S3ObjectSummary summary : listArchives(ARCHIVE_KEY_PREFIX)) {
+			// keys look like archives/<space id>/<folder item id>/<hash>.zip
+			String[] parts = summary.getKey().substring(ARCHIVE_KEY_PREFIX.length()).split(DocumentSpaceFileSystemServiceImpl.PATH_SEP);
+			UUID folderItemId = parts.length == 3 ? parseUuid(parts[1]) : null;
+
+			if (folderItemId == null || summary.getLastModified().before(cutoff)) {
+				keys.add(summary.getKey());
+			} else if (!folderItemId.equals(DocumentSpaceFileSystemEntry.NIL_UUID)) {
+				// whole space zips go along with their space, folder zips have to be checked against their folder
+				keysByFolder.computeIfAbsent(folderItemId, id -> new ArrayList<>()).add(summary.getKey());
+			}
+		}
+
+		for (List<UUID> chunk : Iterables.partition(keysByFolder.keySet(), ID_CHUNK_SIZE)) {
+			Set<UUID> activeFolders = fileSystemEntryRepository.findActiveFolderItemIds(chunk);
+			chunk.stream()
+					.filter(folderItemId -> !activeFolders.contains(folderItemId))
+					.forEach(folderItemId -> keys.addAll(keysByFolder.get(folderItemId)));
+		}
+
+		if (!keys.isEmpty()) {
+			log.info(String.format("Evicting %d document space archives of deleted folders or past their max age", keys.size()));
+			documentSpaceService.deleteS3Objects(keys);
+		}
+	}
+
+	@Nullable
+	private static UUID parseUuid(String value) {
+		try {
+			return UUID.fromString(value);
+		} catch (IllegalArgumentException ex) {
+			return null;
+		}
+	}
+
+	private static String getArchivePrefix(UUID documentSpaceId, UUID folderItemId) {
+		return ARCHIVE_KEY_PREFIX + documentSpaceId + DocumentSpaceFileSystemServiceImpl.PATH_SEP
+				+ folderItemId + DocumentSpaceFileSystemServiceImpl.PATH_SEP;
+	}
+
+	/**
+	 * Hashes everything that ends up in the folder's zip - the folder's own path (zip entries are named by
+	 * their full path) and, for each non-archived item underneath it, where it lives, its name, etag, size
+	 * and modification date.  Any upload, rename, move, archive or delete underneath the folder changes it.
+	 */
+	private ArchiveState getArchiveState(UUID documentSpaceId, FilePathSpec spec) {
+		List<DocumentSpaceFileSystemEntry> entries = new ArrayList<>(fileSystemEntryRepository
+				.findNonArchivedDescendants(documentSpaceId, spec.getItemId(), Integer.MAX_VALUE));
+		entries.sort(Comparator.comparing(DocumentSpaceFileSystemEntry::getId));
+
+		MessageDigest digest = DigestUtils.getSha256Digest();
+		digest.update(spec.getFullPathSpec().getBytes(StandardCharsets.UTF_8));
+
+		Date lastModified = null;
+		for (DocumentSpaceFileSystemEntry entry : entries) {
+			Date modified = entry.getLastModifiedOn() != null ? entry.getLastModifiedOn() : entry.getCreatedOn();
+			if (modified != null && (lastModified == null || modified.after(lastModified))) {
+				lastModified = modified;
+			}
+
+			String line = String.join("|", "\n" + entry.getId(), String.valueOf(entry.getParentEntryId()),
+					entry.getItemName(), String.valueOf(entry.isFolder()), String.valueOf(entry.getEtag()),
+					String.valueOf(entry.getSize()), String.valueOf(modified != null ? modified.getTime() : null),
+					String.valueOf(entry.getContentHash()));
+			digest.update(line.getBytes(StandardCharsets.UTF_8));
+		}
+
+		return new ArchiveState(Hex.encodeHexString(digest.digest()), lastModified);
+	}
+
+	private void scheduleBuild(UUID documentSpaceId, String path, UUID folderItemId, String key, String hash) {
+		if (!building.add(key)) {
+			return;
+		}
+
+		try {
+			executor.execute(() -> {
+				try {
+					buildArchive(documentSpaceId, path, folderItemId, key, hash);
+				} catch (Exception e) { //NOSONAR
+					// nothing gets cached, the next download tries again
+					log.warn(String.format("Failed to build archive %s: %s", key, e.getMessage()));
+				} finally {
+					building.remove(key);
+				}
+			});
+		} catch (TaskRejectedException e) {
+			// too many zips waiting to be built already, the next download tries again
+			building.remove(key);
+		}
+	}
+
+	/**
+	 * Writes the folder's zip to a temp file and uploads it, but only if the folder is still in the state the
+	 * zip is keyed by once it is written - anything changed (or failed) in the meantime and it's thrown away
+	 */
+	private void buildArchive(UUID documentSpaceId, String path, UUID folderItemId, String key, String hash)
+			throws IOException, InterruptedException {
+		// whatever was built for the folder before is out of date now
+		evictArchives(getArchivePrefix(documentSpaceId, folderItemId), key);
+
+		Path tempFile = Files.createTempFile("document-space-archive", ".zip");
+		try {
+			boolean complete;
+			try (OutputStream out = Files.newOutputStream(tempFile)) {
+				complete = documentSpaceService.writeArchive(documentSpaceId, path, out);
+			}
+
+			FilePathSpec spec = documentSpaceFileSystemService.parsePathToFilePathSpec(documentSpaceId, path);
+			if (!complete || !spec.getItemId().equals(folderItemId) || !getArchiveState(documentSpaceId, spec).hash.equals(hash)) {
+				log.info(String.format("Discarding archive %s, the folder changed while it was built", key));
+				return;
+			}
+
+			ObjectMetadata metadata = new ObjectMetadata();
+			metadata.setContentType(ARCHIVE_CONTENT_TYPE);
+			metadata.setContentLength(Files.size(tempFile));
+			documentSpaceTransferManager.upload(new PutObjectRequest(bucketName, key, tempFile.toFile()).withMetadata(metadata))
+					.waitForCompletion();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw e;
+		} finally {
+			Files.deleteIfExists(tempFile);
+		}
+	}
+
+	/**
+	 * Deletes all zips under the given prefix
+	 * @param prefix the prefix
+	 * @param keep key of a zip to leave in place, if any
+	 */
+	private void evictArchives(String prefix, @Nullable String keep) {
+		List<String> keys = new ArrayList<>();
+		for (S3ObjectSummary summary : listArchives(prefix)) {
+			if (!summary.getKey().equals(keep)) {
+				keys.add(summary.getKey());
+			}
+		}
+
+		if (!keys.isEmpty()) {
+			documentSpaceService.deleteS3Objects(keys);
+		}
+	}
+
+	/**
+	 * Lists all zips under the given prefix
+	 * @param prefix the prefix
+	 * @return the zips
+	 */
+	private List<S3ObjectSummary> listArchives(String prefix) {
+		ListObjectsV2Request request = new ListObjectsV2Request()
+				.withBucketName(bucketName)
+				.withPrefix(prefix);
+
+		List<S3ObjectSummary> summaries = new ArrayList<>();
+		ListObjectsV2Result result;
+		do {
+			result = documentSpaceClient.listObjectsV2(request);
+			summaries.addAll(result.getObjectSummaries());
+			request.setContinuationToken(result.getNextContinuationToken());
+		} while (result.isTruncated());
+
+		return summaries;
+	}
+
+	private static class ArchiveState {
+		private final String hash;
+		@Nullable
+		private final Date lastModified;
+
+		private ArchiveState(String hash, @Nullable Date lastModified) {
+			this.hash = hash;
+			this.lastModified = lastModified;
+		}
+	}
+}
@@ -0,0 +1,54 @@
+package mil.tron.commonapi.service.documentspace;
+
+import java.util.Collection;
+
+/**
+ * The content addressed store for document space files.  When enabled, uploaded files are kept in S3
+ * keyed by the SHA-256 of their contents rather than by their folder, so the same contents are only
+ * stored once and renaming, moving or copying a file never touches S3.  Each stored object keeps a
+ * count of the file system entries pointing at it and is deleted once nothing has pointed at it for
+ * the configured grace period.
+ */
+public interface DocumentSpaceContentService {
+    /**
+     * @return true if new uploads should go into the content addressed store
+     */
+    boolean isEnabled();
+
+    /**
+     * @param contentHash hex SHA-256 of the contents
+     * @return the S3 key the contents are kept under
+     */
+    String getContentKey(String contentHash);
+
+    /**
+     * Adds a reference to contents if they are stored already
+     * @param contentHash hex SHA-256 of the contents
+     * @return true if the contents are stored (and now have another reference), false if they need uploading
+     */
+    boolean addReference(String contentHash);
+
+    /**
+     * Records contents that were just uploaded to {@link #getContentKey(String)}, with one reference
+     * @param contentHash hex SHA-256 of the contents
+     * @param size size of the contents in bytes
+     */
+    void addStoredContent(String contentHash, long size);
+
+    /**
+     * Adds a reference to stored contents for each hash given, a hash given twice gets two references
+     * @param contentHashes hex SHA-256s of the contents
+     */
+    void addReferences(Collection<String> contentHashes);
+
+    /**
+     * Removes a reference from stored contents for each hash given, a hash given twice loses two references
+     * @param contentHashes hex SHA-256s of the contents
+     */
+    void removeReferences(Collection<String> contentHashes);
+
+    /**
+     * Deletes the stored contents that have had no references for longer than the grace period
+     */
+    void deleteUnreferencedContent();
+}
@@ -0,0 +1,136 @@
+package mil.tron.commonapi.service.documentspace;
+
+import com.amazonaws.services.s3.AmazonS3;
+import lombok.extern.slf4j.Slf4j;
+import mil.tron.commonapi.annotation.minio.IfMinioEnabledOnIL4OrDevLocal;
+import mil.tron.commonapi.entity.documentspace.DocumentSpaceContentObject;
+import mil.tron.commonapi.repository.documentspace.DocumentSpaceContentObjectRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@IfMinioEnabledOnIL4OrDevLocal
+public class DocumentSpaceContentServiceImpl implements DocumentSpaceContentService {
+	/**
+	 * Document space keys all start with the space's id, so nothing else can end up under this prefix
+	 */
+	public static final String CONTENT_KEY_PREFIX = "content/";
+
+	private final AmazonS3 documentSpaceClient;
+	private final String bucketName;
+	private final DocumentSpaceContentObjectRepository contentObjectRepository;
+	private final TransactionTemplate transactionTemplate;
+	private final boolean enabled;
+	private final Duration gracePeriod;
+
+	public DocumentSpaceContentServiceImpl(AmazonS3 documentSpaceClient,
+										   @Value("${minio.bucket-name}") String bucketName,
+										   DocumentSpaceContentObjectRepository contentObjectRepository,
+										   PlatformTransactionManager transactionManager,
+										   @Value("${document-space.content-addressed-storage.enabled:false}") boolean enabled,
+										   @Value("${document-space.content-addressed-storage.grace-period-hours:24}") long gracePeriodHours) {
+		this.documentSpaceClient = documentSpaceClient;
+		this.bucketName = bucketName;
+		this.contentObjectRepository = contentObjectRepository;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		this.enabled = enabled;
+		this.gracePeriod = Duration.ofHours(gracePeriodHours);
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	@Override
+	public String getContentKey(String contentHash) {
+		return CONTENT_KEY_PREFIX + contentHash;
+	}
+
+	@Override
+	public boolean addReference(String contentHash) {
+		return contentObjectRepository.addReferences(contentHash, 1, new Date()) > 0;
+	}
+
+	@Override
+	public void addStoredContent(String contentHash, long size) {
+		try {
+			transactionTemplate.executeWithoutResult(status -> {
+				if (contentObjectRepository.addReferences(contentHash, 1, new Date()) == 0) {
+					contentObjectRepository.saveAndFlush(DocumentSpaceContentObject.builder()
+							.contentHash(contentHash)
+							.size(size)
+							.build());
+				}
+			});
+		} catch (DataIntegrityViolationException ex) {
+			// the same contents were uploaded at the same time and recorded first, so add to those instead
+			transactionTemplate.executeWithoutResult(status -> contentObjectRepository.addReferences(contentHash, 1, new Date()));
+		}
+	}
+
+	@Override
+	public void addReferences(Collection<String> contentHashes) {
+		changeReferences(contentHashes, 1);
+	}
+
+	@Override
+	public void removeReferences(Collection<String> contentHashes) {
+		changeReferences(contentHashes, -1);
+	}
+
+	@Scheduled(fixedDelayString = "${document-space.content-addressed-storage.cleanup-delay-ms:3600000}")
+	@Override
+	public void deleteUnreferencedContent() {
+		Date cutoff = new Date(System.currentTimeMillis() - gracePeriod.toMillis());
+		for (String contentHash : contentObjectRepository.findUnreferencedSince(cutoff)) {
+			try {
+				transactionTemplate.executeWithoutResult(status -> deleteIfUnreferenced(contentHash));
+			} catch (RuntimeException ex) {
+				// it'll be picked up again next time around
+				log.warn("Unable to delete unreferenced document space content {}: {}", contentHash, ex.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Deletes stored contents if they still have no references.  The row stays locked until the object is
+	 * gone from S3, so an upload of the same contents in the mean time waits for it and then finds that the
+	 * contents have to be uploaded again.
+	 */
+	private void deleteIfUnreferenced(String contentHash) {
+		contentObjectRepository.findByContentHashForUpdate(contentHash)
+				.filter(content -> content.getRefCount() <= 0)
+				.ifPresent(content -> {
+					log.info("Deleting unreferenced document space content {}", contentHash);
+					documentSpaceClient.deleteObject(bucketName, getContentKey(contentHash));
+					contentObjectRepository.delete(content);
+				});
+	}
+
+	private void changeReferences(Collection<String> contentHashes, int direction) {
+		Date now = new Date();
+		Map<String, Long> counts = contentHashes.stream()
+				.collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+
+		counts.forEach((contentHash, count) -> {
+			if (contentObjectRepository.addReferences(contentHash, direction * count, now) == 0) {
+				log.warn("Document space content {} is referenced but not stored", contentHash);
+			}
+		});
+	}
+}
@@ -1,12 +1,16 @@
 package mil.tron.commonapi.service.documentspace;
 
 import mil.tron.commonapi.dto.documentspace.RecentDocumentDto;
+import mil.tron.commonapi.dto.response.pagination.CursorSlice;
 import mil.tron.commonapi.entity.documentspace.DocumentSpaceFileSystemEntry;
 import mil.tron.commonapi.exception.RecordNotFoundException;
+import mil.tron.commonapi.service.documentspace.util.RecencyCursor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import javax.annotation.Nullable;
 import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -34,6 +38,15 @@ public interface DocumentSpaceFileService {
 	DocumentSpaceFileSystemEntry getFileInDocumentSpaceFolderOrThrow(UUID documentSpaceId, UUID parentFolderId,
 			String filename) throws RecordNotFoundException;
 
+	/**
+	 * Gets the files of a folder that are kept in the content addressed store
+	 * 
+	 * @param documentSpaceId the document space id
+	 * @param parentFolderId  the folder to look in
+	 * @return the content addressed files, archived or not
+	 */
+	List<DocumentSpaceFileSystemEntry> getContentAddressedFilesInFolder(UUID documentSpaceId, UUID parentFolderId);
+
 	/**
 	 * Saves a Document Space File
 	 * 
@@ -98,4 +111,27 @@ public interface DocumentSpaceFileService {
 	 * @return a list of recently uploaded File entries
 	 */
 	Page<RecentDocumentDto> getRecentlyUploadedFilesBySpace(UUID spaceId, Date date, Pageable pageable);
+
+	/**
+	 * Like {@link #getRecentlyUploadedFilesByUser(String, Set, Pageable)} but keyset paginated, so the
+	 * feed is never counted and deep pages don't skip over everything before them.
+	 * @param username the username of the User
+	 * @param authorizedSpaceIds list of spaceIds user can at least read from
+	 * @param after position to carry on from, null to start at the most recent
+	 * @param limit max number of entries to return
+	 * @return a slice of recently uploaded File entries
+	 */
+	CursorSlice<RecentDocumentDto> getRecentlyUploadedFilesByUser(String username, Set<UUID> authorizedSpaceIds,
+																  @Nullable RecencyCursor after, int limit);
+
+	/**
+	 * Like {@link #getRecentlyUploadedFilesBySpace(UUID, Date, Pageable)} but keyset paginated, so the
+	 * feed is never counted and deep pages don't skip over everything before them.
+	 * @param spaceId the UUID of the document space
+	 * @param date the date to start search from (looking back)
+	 * @param after position to carry on from, null to start at the most recent
+	 * @param limit max number of entries to return
+	 * @return a slice of recently uploaded File entries
+	 */
+	CursorSlice<RecentDocumentDto> getRecentlyUploadedFilesBySpace(UUID spaceId, Date date, @Nullable RecencyCursor after, int limit);
 }
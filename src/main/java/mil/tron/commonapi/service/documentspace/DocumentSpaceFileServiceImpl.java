@@ -1,16 +1,20 @@
 package mil.tron.commonapi.service.documentspace;
 
 import mil.tron.commonapi.dto.documentspace.RecentDocumentDto;
+import mil.tron.commonapi.dto.response.pagination.CursorSlice;
 import mil.tron.commonapi.entity.documentspace.DocumentSpaceFileSystemEntry;
 import mil.tron.commonapi.exception.RecordNotFoundException;
 import mil.tron.commonapi.exception.ResourceAlreadyExistsException;
 import mil.tron.commonapi.repository.documentspace.DocumentSpaceFileSystemEntryRepository;
+import mil.tron.commonapi.service.documentspace.util.RecencyCursor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.Nullable;
 import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -34,6 +38,11 @@ public class DocumentSpaceFileServiceImpl implements DocumentSpaceFileService {
 		return getFileInDocumentSpaceFolder(documentSpaceId, parentFolderId, filename).orElseThrow(() -> new RecordNotFoundException("File not found: " + filename));
 	}
 
+	@Override
+	public List<DocumentSpaceFileSystemEntry> getContentAddressedFilesInFolder(UUID documentSpaceId, UUID parentFolderId) {
+		return documentSpaceFileSystemRepository.findByDocumentSpaceIdAndParentEntryIdAndIsFolderFalseAndContentHashNotNull(documentSpaceId, parentFolderId);
+	}
+
 	@Override
 	public DocumentSpaceFileSystemEntry saveDocumentSpaceFile(DocumentSpaceFileSystemEntry documentSpaceFile) {
 		documentSpaceFile.setFolder(false);
@@ -91,4 +100,30 @@ public class DocumentSpaceFileServiceImpl implements DocumentSpaceFileService {
 		return documentSpaceFileSystemRepository.getRecentlyUploadedFilesBySpace(spaceId, date, pageable);
 	}
 
+	@Override
+	public CursorSlice<RecentDocumentDto> getRecentlyUploadedFilesByUser(String username, Set<UUID> authorizedSpaceIds,
+																		 @Nullable RecencyCursor after, int limit) {
+		// one extra row tells whether there is a next slice without counting the feed
+		return toCursorSlice(documentSpaceFileSystemRepository.findRecentFiles(authorizedSpaceIds, username, null, after, limit + 1), limit);
+	}
+
+	@Override
+	public CursorSlice<RecentDocumentDto> getRecentlyUploadedFilesBySpace(UUID spaceId, @Nullable Date date,
+																		  @Nullable RecencyCursor after, int limit) {
+		if (date == null) {  // if somehow null for date, then use now
+			date = new Date();
+		}
+		return toCursorSlice(documentSpaceFileSystemRepository.findRecentFiles(Set.of(spaceId), null, date, after, limit + 1), limit);
+	}
+
+	private static CursorSlice<RecentDocumentDto> toCursorSlice(List<RecentDocumentDto> results, int limit) {
+		if (results.size() <= limit) {
+			return new CursorSlice<>(results, PageRequest.of(0, limit), null);
+		}
+
+		List<RecentDocumentDto> content = results.subList(0, limit);
+		RecentDocumentDto last = content.get(limit - 1);
+		return new CursorSlice<>(content, PageRequest.of(0, limit), new RecencyCursor(last.getLastModifiedDate(), last.getId()).toToken());
+	}
+
 }
@@ -2,6 +2,8 @@ package mil.tron.commonapi.service.documentspace;
 
 import mil.tron.commonapi.dto.documentspace.DocumentDto;
 import mil.tron.commonapi.dto.documentspace.DocumentSpaceFolderInfoDto;
+import mil.tron.commonapi.dto.documentspace.DocumentSpaceItemFailureDto;
+import mil.tron.commonapi.dto.documentspace.DocumentSpaceSearchDto;
 import mil.tron.commonapi.dto.documentspace.mobile.DocumentMobileDto;
 import mil.tron.commonapi.entity.documentspace.DocumentSpaceFileSystemEntry;
 import mil.tron.commonapi.service.documentspace.util.*;
@@ -9,7 +11,9 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import javax.annotation.Nullable;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -25,7 +29,11 @@ public interface DocumentSpaceFileSystemService {
     FilePathSpec parsePathToFilePathSpec(UUID spaceId, @Nullable String path);
     FilePathSpec parsePathToFilePathSpec(UUID spaceId, @Nullable String path, boolean createFolders);
     FilePathSpecWithContents getFilesAndFoldersAtPath(UUID spaceId, @Nullable String path);
+    FilePathSpecWithContents getFilesAndFoldersAtPath(UUID spaceId, @Nullable String path, FolderListingOptions options);
+    FilePathSpecWithContents getFolderListing(UUID spaceId, @Nullable String path);
+    FilePathSpecWithContents getFolderTree(UUID spaceId, @Nullable String path, int limit);
     List<DocumentDto> getArchivedItems(UUID spaceId);
+    Page<DocumentDto> getArchivedItems(Collection<UUID> spaceIds, Pageable pageable);
     FilePathSpec convertFileSystemEntityToFilePathSpec(DocumentSpaceFileSystemEntry entry);
 
     String getFilePath(UUID documentSpaceId, UUID itemId);
@@ -38,17 +46,21 @@ public interface DocumentSpaceFileSystemService {
     boolean isFolder(UUID spaceId, String path, String itemName);
     boolean isArchived(UUID spaceId, UUID parentId, String itemName);
     void archiveElement(UUID spaceId, String path, String itemName);
+    void archiveElements(UUID spaceId, String path, List<String> itemNames);
     void unArchiveElements(UUID spaceId, List<String> items);
-    void deleteFolder(UUID spaceId, String path);
+    List<DocumentSpaceItemFailureDto> deleteFolder(UUID spaceId, String path);
+    List<DocumentSpaceItemFailureDto> deleteElements(UUID spaceId, String path, List<String> itemNames);
     void renameFolder(UUID spaceId, String existingPath, String newFolderName);
     void saveItem(DocumentSpaceFileSystemEntry entry);
     void moveFileSystemEntryTree(UUID destinationSpaceId, DocumentSpaceFileSystemEntry startingEntry, UUID newParentId);
-    void duplicateFileSystemEntryTree(UUID destinationSpaceId, DocumentSpaceFileSystemEntry startingEntry, UUID newParentId);
+    Map<UUID, DocumentSpaceFileSystemEntry> cloneFileSystemEntryTree(UUID destinationSpaceId, DocumentSpaceFileSystemEntry startingEntry, UUID newParentId);
+    void insertItems(Collection<DocumentSpaceFileSystemEntry> entries);
     DocumentSpaceFileSystemEntry getElementByItemId(UUID itemId);
     Optional<DocumentSpaceFileSystemEntry> getByParentIdAndItemName(UUID spaceId, UUID parentId, String itemName);
     
     List<DocumentSpaceFileSystemEntry> propagateModificationStateToAncestors(DocumentSpaceFileSystemEntry propagateFrom);
     DocumentSpaceFolderInfoDto getFolderTotalSizeFromElement(FilePathSpec pathSpec);
     boolean checkIfItemHasContents(UUID itemId);
-    Page<DocumentSpaceFileSystemEntry> findFilesInSpaceLike(UUID spaceId, String filename, Pageable pageable);
+    Page<DocumentSpaceFileSystemEntry> findFilesInSpacesLike(Collection<UUID> spaceIds, DocumentSpaceSearchDto search, Pageable pageable);
+    Map<UUID, String> getFolderPaths(Collection<UUID> folderItemIds);
 }
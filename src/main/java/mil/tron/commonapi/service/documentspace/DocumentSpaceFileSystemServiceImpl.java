@@ -2,8 +2,12 @@ package mil.tron.commonapi.service.documentspace;
 
 import com.amazonaws.services.s3.model.MultiObjectDeleteException.DeleteError;
 import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.google.common.collect.Lists;
 import mil.tron.commonapi.dto.documentspace.DocumentDto;
 import mil.tron.commonapi.dto.documentspace.DocumentSpaceFolderInfoDto;
+import mil.tron.commonapi.dto.documentspace.DocumentSpaceItemFailureDto;
+import mil.tron.commonapi.dto.documentspace.DocumentSpaceSearchDto;
+import mil.tron.commonapi.dto.documentspace.DocumentSpaceSearchMatchType;
 import mil.tron.commonapi.dto.mapper.DtoMapper;
 import mil.tron.commonapi.entity.documentspace.DocumentSpaceFileSystemEntry;
 import mil.tron.commonapi.exception.BadRequestException;
@@ -15,16 +19,20 @@ import mil.tron.commonapi.repository.documentspace.DocumentSpaceRepository;
 import mil.tron.commonapi.service.documentspace.util.FilePathSpec;
 import mil.tron.commonapi.service.documentspace.util.FilePathSpecWithContents;
 import mil.tron.commonapi.service.documentspace.util.FileSystemElementTree;
+import mil.tron.commonapi.service.documentspace.util.FolderListingCursor;
+import mil.tron.commonapi.service.documentspace.util.FolderListingOptions;
 import mil.tron.commonapi.service.documentspace.util.S3ObjectAndFilename;
 import mil.tron.commonapi.validations.DocSpaceFolderOrFilenameValidator;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.Nullable;
+import javax.transaction.Transactional;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
@@ -39,19 +47,27 @@ public class DocumentSpaceFileSystemServiceImpl implements DocumentSpaceFileSyst
     private final DocumentSpaceFileSystemEntryRepository repository;
     private final DocumentSpaceFileService documentSpaceFileService;
     private final DocumentSpaceUserCollectionService documentSpaceUserCollectionService;
+    private final DocumentSpaceContentService contentService;
     public static final String PATH_SEP = "/";
     private static final String BAD_PATH = "Path %s not found or is not a folder";
     protected static final int MAX_FOLDER_DEPTH = 20;
 
+    /**
+     * Max number of entries removed by a single bulk delete
+     */
+    private static final int DELETE_CHUNK_SIZE = 1000;
+
     public DocumentSpaceFileSystemServiceImpl(DocumentSpaceRepository documentSpaceRepository,
                                               DocumentSpaceFileSystemEntryRepository repository,
                                               @Lazy DocumentSpaceService documentSpaceService,
-                                              DocumentSpaceFileService documentSpaceFileService, DocumentSpaceUserCollectionService documentSpaceUserCollectionService) {
+                                              DocumentSpaceFileService documentSpaceFileService, DocumentSpaceUserCollectionService documentSpaceUserCollectionService,
+                                              @Lazy DocumentSpaceContentService contentService) {
         this.documentSpaceRepository = documentSpaceRepository;
         this.repository = repository;
         this.documentSpaceService = documentSpaceService;
         this.documentSpaceFileService = documentSpaceFileService;
         this.documentSpaceUserCollectionService = documentSpaceUserCollectionService;
+        this.contentService = contentService;
     }
 
     /**
@@ -176,6 +192,92 @@ public class DocumentSpaceFileSystemServiceImpl implements DocumentSpaceFileSyst
 
     @Override
     public FilePathSpecWithContents getFilesAndFoldersAtPath(UUID spaceId, @Nullable String path) {
+        return getFilesAndFoldersAtPath(spaceId, path, FolderListingOptions.builder().build());
+    }
+
+    /**
+     * Lists the non-archived children of the folder at the given path with their has-contents flags (and
+     * optionally how many items each contains), in one query.  Large folders can be paged through with
+     * the listing's next continuation token.
+     * @param spaceId the space id
+     * @param path the folder's path
+     * @param options sort, page size, continuation token and whether to count each child's contents
+     * @return the folder's spec along with (a page of) its children
+     */
+    @Override
+    public FilePathSpecWithContents getFilesAndFoldersAtPath(UUID spaceId, @Nullable String path, FolderListingOptions options) {
+        Integer limit = options.getLimit();
+        if (limit != null && limit < 1) {
+            throw new BadRequestException("Limit must be at least 1");
+        }
+
+        FolderListingCursor after = options.getContinuationToken() == null ? null :
+                FolderListingCursor.fromToken(options.getContinuationToken(), options.getSort());
+
+        FilePathSpecWithContents contents = getListableFolder(spaceId, path);
+
+        // ask for one more than the limit to find out if there is another page
+        List<DocumentSpaceFileSystemEntry> entries = repository.findChildrenWithContentsInfo(spaceId, contents.getItemId(),
+                options.getSort(), options.isAscending(), after, limit == null ? null : limit + 1, options.isIncludeChildCounts());
+
+        if (limit != null && entries.size() > limit) {
+            entries = new ArrayList<>(entries.subList(0, limit));
+            contents.setNextContinuationToken(FolderListingCursor.after(options.getSort(), entries.get(limit - 1)).toToken());
+        }
+
+        contents.setEntries(entries);
+        return contents;
+    }
+
+    /**
+     * Lists the non-archived children of the folder at the given path, without working out which of them
+     * have contents of their own
+     * @param spaceId the space id
+     * @param path the folder's path
+     * @return the folder's spec along with its children
+     */
+    @Override
+    public FilePathSpecWithContents getFolderListing(UUID spaceId, @Nullable String path) {
+        FilePathSpecWithContents contents = getListableFolder(spaceId, path);
+        contents.setEntries(repository.findByDocumentSpaceIdEqualsAndParentEntryIdEqualsAndIsDeleteArchivedEquals(spaceId, contents.getItemId(), false));
+        return contents;
+    }
+
+    /**
+     * Lists everything that isn't archived underneath the folder at the given path (all the way down) with
+     * one recursive query.  Entries are ordered so that a folder always comes before its contents.
+     * @param spaceId the space id
+     * @param path the folder's path
+     * @param limit max number of entries to load, callers can ask for one more than they will accept
+     *              to find out that the tree is too big.  A limit of 0 only looks up the folder itself.
+     * @return the folder's spec along with up to {@code limit} of its descendants
+     */
+    @Override
+    public FilePathSpecWithContents getFolderTree(UUID spaceId, @Nullable String path, int limit) {
+        FilePathSpecWithContents contents = getListableFolder(spaceId, path);
+        if (limit <= 0) return contents;
+
+        Map<UUID, List<DocumentSpaceFileSystemEntry>> childrenByParent = repository
+                .findNonArchivedDescendants(spaceId, contents.getItemId(), limit)
+                .stream()
+                .collect(Collectors.groupingBy(DocumentSpaceFileSystemEntry::getParentEntryId));
+
+        // walk down from the folder so parents are listed ahead of their children
+        List<DocumentSpaceFileSystemEntry> ordered = new ArrayList<>();
+        Deque<UUID> parents = new ArrayDeque<>();
+        parents.push(contents.getItemId());
+        while (!parents.isEmpty()) {
+            for (DocumentSpaceFileSystemEntry child : childrenByParent.getOrDefault(parents.pop(), Collections.emptyList())) {
+                ordered.add(child);
+                if (child.isFolder()) parents.push(child.getItemId());
+            }
+        }
+
+        contents.setEntries(ordered);
+        return contents;
+    }
+
+    private FilePathSpecWithContents getListableFolder(UUID spaceId, @Nullable String path) {
         FilePathSpec spec = this.parsePathToFilePathSpec(spaceId, path);
         
         // Prevent dumping contents at a folder that is archived
@@ -185,14 +287,8 @@ public class DocumentSpaceFileSystemServiceImpl implements DocumentSpaceFileSyst
         		throw new RecordNotFoundException("Cannot dump contents of an archived folder");
         	}
         });
-        
-        FilePathSpecWithContents contents = new DtoMapper().map(spec, FilePathSpecWithContents.class);
-        contents.setEntries(repository.findByDocumentSpaceIdEqualsAndParentEntryIdEqualsAndIsDeleteArchivedEquals(spaceId, spec.getItemId(), false));
 
-        contents.getEntries().forEach(entry -> 
-            entry.setHasNonArchivedContents(checkIfItemHasContents(entry.getItemId()))
-        );
-        return contents;
+        return new DtoMapper().map(spec, FilePathSpecWithContents.class);
     }
 
     /**
@@ -207,56 +303,35 @@ public class DocumentSpaceFileSystemServiceImpl implements DocumentSpaceFileSyst
 
     @Override
     public List<DocumentDto> getArchivedItems(UUID spaceId) {
-        List<DocumentDto> elements = new ArrayList<>();
-
         checkSpaceIsValid(spaceId);
-        FilePathSpec entry = parsePathToFilePathSpec(spaceId, PATH_SEP);
-        DocumentSpaceFileSystemEntry element = repository.findByItemIdEquals(entry.getItemId()).orElseGet(() -> {
-            if (entry.getItemId().equals(NIL_UUID)) {
-                // this is the root of the document space - so make a new element called "root" to base off of
-                return DocumentSpaceFileSystemEntry.builder()
-                        .documentSpaceId(spaceId)
-                        .itemId(entry.getItemId())
-                        .itemName(PATH_SEP)
-                        .build();
-            }
-            else {
-                throw new RecordNotFoundException("Item ID not found");
-            }
-        });
-
-        return walkTreeForArchivedItems(spaceId, element, elements, PATH_SEP);
+        return getArchivedItems(Set.of(spaceId), Pageable.unpaged()).getContent();
     }
 
-    private List<DocumentDto> walkTreeForArchivedItems(UUID spaceId,
-                                                        DocumentSpaceFileSystemEntry element,
-                                                        List<DocumentDto> elements,
-                                                        String path) {
-
-        List<DocumentSpaceFileSystemEntry> children = repository.findByDocumentSpaceIdEqualsAndParentEntryIdEquals(spaceId, element.getItemId());
-        for (DocumentSpaceFileSystemEntry child : children) {
-            if (child.isDeleteArchived()) {
-                elements.add(DocumentDto.builder()
-                    .isFolder(child.isFolder())
-                    .size(child.getSize())
-                    .spaceId(spaceId.toString())
-                    .path(path)
-                    .lastModifiedDate(child.getLastModifiedOn())
-                    .lastModifiedBy(child.getLastModifiedBy())
-                    .key(child.getItemName())
-                    .build());
-            } else if (child.isFolder()) {
-                elements.addAll(walkTreeForArchivedItems(spaceId, child, new ArrayList<>(), joinPathParts(path, child.getItemName())));
-            }
-        }
-
-        return elements;
-    }
-
-    private List<String> extractFilesFromPath(List<String> paths) {
-        return paths.stream()
-                .map(item -> Path.of(item).getFileName().toString())
-                .collect(Collectors.toList());
+    /**
+     * Lists the archived items of the given spaces with a single query (rather than walking each space's tree),
+     * most recently modified first.  Items underneath an archived folder aren't listed on their own.
+     * @param spaceIds the spaces to look in
+     * @param pageable page to fetch
+     * @return the page of archived items, each with the path of the folder it lives in
+     */
+    @Override
+    public Page<DocumentDto> getArchivedItems(Collection<UUID> spaceIds, Pageable pageable) {
+        if (spaceIds.isEmpty()) return Page.empty(pageable);
+
+        Page<DocumentSpaceFileSystemEntry> archived = repository.findArchivedEntries(spaceIds, NIL_UUID, pageable);
+        Map<UUID, String> paths = getFolderPaths(archived.stream()
+                .map(DocumentSpaceFileSystemEntry::getParentEntryId)
+                .collect(Collectors.toSet()));
+
+        return archived.map(entry -> DocumentDto.builder()
+                .isFolder(entry.isFolder())
+                .size(entry.getSize())
+                .spaceId(entry.getDocumentSpaceId().toString())
+                .path(joinPathParts(paths.getOrDefault(entry.getParentEntryId(), "")))
+                .lastModifiedDate(entry.getLastModifiedOn())
+                .lastModifiedBy(entry.getLastModifiedBy())
+                .key(entry.getItemName())
+                .build());
     }
 
     /**
@@ -455,93 +530,224 @@ public class DocumentSpaceFileSystemServiceImpl implements DocumentSpaceFileSyst
     /**
      * Deletes a folder and all that is contained within/underneath it (like a `rm -rf` in Unix)
      * @param spaceId doc space UUID
-     * @param path path to the folder to delete
+     * @param path path to the folder to delete, the root path deletes everything in the space
+     * @return the items that could not be removed from S3 (and so were kept)
      */
     @Override
-    public void deleteFolder(UUID spaceId, String path) {
-        FileSystemElementTree tree = dumpElementTree(spaceId, path, true);
-        deleteParentDirectories(tree);
-        
-        propagateModificationStateToAncestors(tree.getValue());
+    public List<DocumentSpaceItemFailureDto> deleteFolder(UUID spaceId, String path) {
+        String lookupPath = conditionPath(path);
+        FilePathSpec spec = parsePathToFilePathSpec(spaceId, lookupPath);
+
+        if (spec.getItemId().equals(NIL_UUID)) {
+            return deleteEntries(spaceId, spec.getDocSpaceQualifiedPath(), PATH_SEP,
+                    repository.findByDocumentSpaceIdEqualsAndParentEntryIdEquals(spaceId, NIL_UUID));
+        }
+
+        DocumentSpaceFileSystemEntry folder = repository.findByItemIdEquals(spec.getItemId())
+                .orElseThrow(() -> new RecordNotFoundException("Item ID not found"));
+
+        List<DocumentSpaceItemFailureDto> failures = deleteEntries(spaceId,
+                StringUtils.removeEnd(spec.getDocSpaceQualifiedPath(), folder.getItemId() + PATH_SEP),
+                StringUtils.removeEnd(spec.getFullPathSpec(), folder.getItemName() + PATH_SEP),
+                List.of(folder));
+
+        propagateModificationStateToAncestors(folder);
+        return failures;
     }
 
     /**
-     * Private helper for the deleteFolder method to dig in depth first to a file structure and delete
-     * the files and folders on the way up
-     * @param tree the current tree we're on
+     * Deletes the given files and/or folders (and all that is contained within the folders) from a folder.
+     * Every item is checked for first, so nothing is deleted if any of them do not exist.
+     * @param spaceId doc space UUID
+     * @param path path to the folder holding the items
+     * @param itemNames names of the items to delete
+     * @return the items that could not be removed from S3 (and so were kept)
+     * @throws RecordNotFoundException if the path or any of the items do not exist
      */
-    private void deleteParentDirectories(FileSystemElementTree tree) {
-        // walk the tree depth-first and delete on the way up
-        if (tree.getNodes() == null || tree.getNodes().isEmpty()) {
-        	purgeDirectory(tree);
-            return;
-        }
+    @Override
+    public List<DocumentSpaceItemFailureDto> deleteElements(UUID spaceId, String path, List<String> itemNames) {
+        if (itemNames.isEmpty()) return new ArrayList<>();
 
-        for (FileSystemElementTree node : tree.getNodes()) {
-            deleteParentDirectories(node);
+        FilePathSpec owningFolderEntry = parsePathToFilePathSpec(spaceId, path);
+
+        Map<String, DocumentSpaceFileSystemEntry> entriesByName = repository
+                .findByDocumentSpaceIdEqualsAndParentEntryIdEqualsAndItemNameIn(spaceId, owningFolderEntry.getItemId(), itemNames.stream()
+                        .map(FilenameUtils::normalizeNoEndSeparator)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(DocumentSpaceFileSystemEntry::getItemName, entry -> entry, (first, second) -> first));
+
+        Map<UUID, DocumentSpaceFileSystemEntry> startEntries = new LinkedHashMap<>();
+        for (String itemName : itemNames) {
+            String name = FilenameUtils.normalizeNoEndSeparator(itemName);
+            DocumentSpaceFileSystemEntry entry = name == null ? null : entriesByName.get(name);
+            if (entry == null) {
+                throw new RecordNotFoundException(String.format("Could not delete file: %s at path %s", itemName, path));
+            }
+
+            startEntries.put(entry.getId(), entry);
         }
-        
-        purgeDirectory(tree);
+
+        List<DocumentSpaceItemFailureDto> failures = deleteEntries(spaceId, owningFolderEntry.getDocSpaceQualifiedPath(),
+                conditionPath(owningFolderEntry.getFullPathSpec()), new ArrayList<>(startEntries.values()));
+
+        // the items all share a parent, so the ancestors only need to be updated once
+        propagateModificationStateToAncestors(startEntries.values().iterator().next());
+        return failures;
     }
-    
-    private void purgeDirectory(FileSystemElementTree tree) {
-    	// delete files before the folder
-    	String[] keysToDelete = tree.getFiles().stream().map(S3ObjectSummary::getKey).toArray(String[]::new);
-        List<DeleteError> errors = keysToDelete.length > 0 ? documentSpaceService.deleteS3ObjectsByKey(keysToDelete) : new ArrayList<>();
-        
-		/*
-		 * Conditionally delete files from the database. If there were no error, then it
-		 * is safe to delete all files and the parent folder. Any file that received an
-		 * error from being deleted from S3 will be checked. Do not delete any file from
-		 * the database that could not be deleted from S3 except for S3 NoSuchKey errors.
-		 */
-		if (errors.isEmpty()) {
-			documentSpaceFileService.deleteAllDocumentSpaceFilesInParentFolder(
-					tree.getFilePathSpec().getDocumentSpaceId(), tree.getValue().getItemId());
-
-			repository.deleteByDocumentSpaceIdEqualsAndItemIdEquals(tree.getValue().getDocumentSpaceId(),
-					tree.getValue().getItemId());
-			repository.flush();
-		} else {
-			documentSpaceFileService.deleteAllDocumentSpaceFilesInParentFolderExcept(
-					tree.getFilePathSpec().getDocumentSpaceId(), tree.getValue().getItemId(),
-					new HashSet<>(
-							extractFilesFromPath(errors.stream().filter(error -> !"NoSuchKey".equals(error.getCode()))
-									.map(DeleteError::getKey).collect(Collectors.toList()))));
-		}
+
+    /**
+     * Private helper that deletes the given sibling entries along with everything underneath them.  The whole
+     * subtree is fetched in one query and the S3 keys of its files are worked out from it (folders are keyed
+     * by their item ids), rather than listing S3 folder by folder.  The files are then removed with parallel
+     * multi-object deletes and the entries with bulk deletes.
+     *
+     * Any file that could not be deleted from S3 (other than for S3 NoSuchKey errors) is kept in the database,
+     * along with the folders leading to it, and is reported back.
+     * @param spaceId doc space UUID
+     * @param parentPrefix S3 prefix of the folder the entries are in
+     * @param parentPath path of the folder the entries are in
+     * @param startEntries the entries to delete, all in the same folder
+     * @return the items that could not be removed from S3
+     */
+    private List<DocumentSpaceItemFailureDto> deleteEntries(UUID spaceId, String parentPrefix, String parentPath,
+                                                            List<DocumentSpaceFileSystemEntry> startEntries) {
+        List<DocumentSpaceItemFailureDto> failures = new ArrayList<>();
+        if (startEntries.isEmpty()) return failures;
+
+        List<DocumentSpaceFileSystemEntry> entries = new ArrayList<>(startEntries);
+        entries.addAll(repository.findDescendants(spaceId, startEntries.stream()
+                .filter(DocumentSpaceFileSystemEntry::isFolder)
+                .map(DocumentSpaceFileSystemEntry::getItemId)
+                .collect(Collectors.toList())));
+
+        Map<UUID, DocumentSpaceFileSystemEntry> entriesByItemId = entries.stream()
+                .collect(Collectors.toMap(DocumentSpaceFileSystemEntry::getItemId, entry -> entry, (first, second) -> first));
+        Map<UUID, List<DocumentSpaceFileSystemEntry>> children = entries.stream()
+                .collect(Collectors.groupingBy(DocumentSpaceFileSystemEntry::getParentEntryId));
+
+        // walk down from the parent folder working out each folder's prefix and each file's key
+        Map<UUID, String> prefixes = new HashMap<>();
+        Map<UUID, String> paths = new HashMap<>();
+        Map<String, DocumentSpaceFileSystemEntry> filesByKey = new LinkedHashMap<>();
+        List<String> contentHashes = new ArrayList<>();
+        UUID parentId = startEntries.get(0).getParentEntryId();
+        prefixes.put(parentId, parentPrefix);
+        paths.put(parentId, parentPath);
+
+        Deque<UUID> folders = new ArrayDeque<>();
+        folders.add(parentId);
+        while (!folders.isEmpty()) {
+            UUID folderId = folders.poll();
+            for (DocumentSpaceFileSystemEntry child : children.getOrDefault(folderId, Collections.emptyList())) {
+                paths.put(child.getItemId(), joinPathParts(paths.get(folderId), child.getItemName()));
+                if (child.isFolder()) {
+                    prefixes.put(child.getItemId(), prefixes.get(folderId) + child.getItemId() + PATH_SEP);
+                    folders.add(child.getItemId());
+                }
+                else if (child.getContentHash() != null) {
+                    // content addressed files aren't under the folder's prefix, their contents go once unreferenced
+                    contentHashes.add(child.getContentHash());
+                }
+                else {
+                    filesByKey.put(prefixes.get(folderId) + child.getItemName(), child);
+                }
+            }
+        }
+
+        List<DeleteError> errors = filesByKey.isEmpty() ? new ArrayList<>() :
+                documentSpaceService.deleteS3Objects(filesByKey.keySet());
+
+        Set<UUID> keptItemIds = new HashSet<>();
+        for (DeleteError error : errors) {
+            DocumentSpaceFileSystemEntry file = filesByKey.get(error.getKey());
+            if (file == null || "NoSuchKey".equals(error.getCode())) continue;
+
+            failures.add(DocumentSpaceItemFailureDto.builder()
+                    .path(paths.get(file.getItemId()))
+                    .reason(error.getMessage())
+                    .build());
+
+            // keep the file and every folder leading down to it
+            UUID itemId = file.getItemId();
+            while (entriesByItemId.containsKey(itemId) && keptItemIds.add(itemId)) {
+                itemId = entriesByItemId.get(itemId).getParentEntryId();
+            }
+        }
+
+        List<UUID> idsToDelete = entries.stream()
+                .filter(entry -> !keptItemIds.contains(entry.getItemId()))
+                .map(DocumentSpaceFileSystemEntry::getId)
+                .collect(Collectors.toList());
+
+        for (List<UUID> chunk : Lists.partition(idsToDelete, DELETE_CHUNK_SIZE)) {
+            repository.deleteAllByIdInBatch(chunk);
+        }
+
+        if (!contentHashes.isEmpty()) {
+            contentService.removeReferences(contentHashes);
+        }
+
+        return failures;
     }
 
     /**
-     * Archives or un-archives a file or folder and all its elements (folders and files)
+     * Archives a file or folder and all its elements (folders and files)
      * @param spaceId doc space UUID
      * @param path the path (including folder name if archiving a folder)
      * @param itemName element to archive
      */
     @Override
     public void archiveElement(UUID spaceId, String path, String itemName) {
+        archiveElements(spaceId, path, List.of(itemName));
+    }
+
+    /**
+     * Archives the given files and/or folders of a folder, along with all that is underneath the folders.
+     * Every item is checked first, so nothing is archived if any of them can't be.
+     * @param spaceId doc space UUID
+     * @param path path to the folder holding the items
+     * @param itemNames names of the items to archive
+     * @throws BadRequestException if asked to archive the root folder
+     * @throws ResourceAlreadyExistsException if an item of that name is already archived
+     * @throws RecordNotFoundException if an item does not exist
+     */
+    @Override
+    public void archiveElements(UUID spaceId, String path, List<String> itemNames) {
+        if (itemNames.isEmpty()) return;
 
         FilePathSpec owningFolderEntry = parsePathToFilePathSpec(spaceId, path);
 
-        // refuse to archive root folder
-        if (itemName.equals(PATH_SEP) || itemName.isBlank()) {
-            throw new BadRequestException("Cannot archive the root folder");
-        }
+        Map<String, List<DocumentSpaceFileSystemEntry>> entriesByName = repository
+                .findByDocumentSpaceIdEqualsAndParentEntryIdEqualsAndItemNameIn(spaceId, owningFolderEntry.getItemId(), new HashSet<>(itemNames))
+                .stream()
+                .collect(Collectors.groupingBy(DocumentSpaceFileSystemEntry::getItemName));
 
-        // check for existence of same folder/path/name that's already of the desired status
-        if (repository.existsByDocumentSpaceIdAndParentEntryIdAndItemNameAndIsDeleteArchivedEquals(spaceId,
-                owningFolderEntry.getItemId(),
-                itemName,
-                true)) {
+        Map<UUID, DocumentSpaceFileSystemEntry> startEntries = new LinkedHashMap<>();
+        for (String itemName : itemNames) {
+            // refuse to archive root folder
+            if (itemName.equals(PATH_SEP) || itemName.isBlank()) {
+                throw new BadRequestException("Cannot archive the root folder");
+            }
 
-            throw new ResourceAlreadyExistsException("A folder or file with that path and name is already archived");
+            // check for existence of same folder/path/name that's already of the desired status
+            List<DocumentSpaceFileSystemEntry> entries = entriesByName.getOrDefault(itemName, Collections.emptyList());
+            if (entries.stream().anyMatch(DocumentSpaceFileSystemEntry::isDeleteArchived)) {
+                throw new ResourceAlreadyExistsException("A folder or file with that path and name is already archived");
+            }
+
+            DocumentSpaceFileSystemEntry startEntry = entries.stream()
+                    .findFirst()
+                    .orElseThrow(() -> new RecordNotFoundException("Unable to get item for archive"));
+            startEntries.put(startEntry.getId(), startEntry);
         }
 
-        DocumentSpaceFileSystemEntry startEntry = repository.findByDocumentSpaceIdEqualsAndItemNameEqualsAndParentEntryIdEquals(spaceId, itemName, owningFolderEntry.getItemId())
-                .orElseThrow(() -> new RecordNotFoundException("Unable to get item for archive"));
+        startEntries.keySet().forEach(documentSpaceUserCollectionService::removeEntityFromAllCollections);
+        setArchivedWithDescendants(spaceId, startEntries.values(), true);
 
-        documentSpaceUserCollectionService.removeEntityFromAllCollections(startEntry.getId());
-        archiveOrUnarchiveChildren(spaceId, startEntry, true);
-        propagateModificationStateToAncestors(startEntry);
+        // the items all share a parent, so the ancestors only need to be updated once
+        propagateModificationStateToAncestors(startEntries.values().iterator().next());
     }
 
     @Override
@@ -560,6 +766,7 @@ public class DocumentSpaceFileSystemServiceImpl implements DocumentSpaceFileSyst
                 .filter(item -> itemsRequested.contains(joinPathParts(item.getPath(), item.getKey())))
                 .collect(Collectors.toList());
 
+        Map<UUID, DocumentSpaceFileSystemEntry> startEntries = new LinkedHashMap<>();
         for (DocumentDto item : itemsToUnArchive) {
 
             FilePathSpec owningElement = parsePathToFilePathSpec(spaceId, item.getPath());
@@ -578,29 +785,37 @@ public class DocumentSpaceFileSystemServiceImpl implements DocumentSpaceFileSyst
             // if we get here - either parent is ROOT or its parent is NOT archived, so its valid for un-archiving
             DocumentSpaceFileSystemEntry startEntry = repository.findByDocumentSpaceIdEqualsAndItemNameEqualsAndParentEntryIdEquals(spaceId, item.getKey(), owningElement.getItemId())
                     .orElseThrow(() -> new RecordNotFoundException("Unable to get item for un-archive"));
-            archiveOrUnarchiveChildren(spaceId, startEntry, false);
-            propagateModificationStateToAncestors(startEntry);
+            startEntries.put(startEntry.getId(), startEntry);
         }
-    }
 
+        if (startEntries.isEmpty()) return;
 
-    private void archiveOrUnarchiveChildren(UUID spaceId, DocumentSpaceFileSystemEntry entry, boolean doArchive) {
+        setArchivedWithDescendants(spaceId, startEntries.values(), false);
 
-        List<DocumentSpaceFileSystemEntry> children = repository.findByDocumentSpaceIdEqualsAndParentEntryIdEquals(spaceId, entry.getItemId());
-        if (children == null || children.isEmpty()) {
-            entry.setDeleteArchived(doArchive);
-            repository.save(entry);
-            return;
-        }
+        // the restored items can be in different folders, update each folder's ancestors once
+        startEntries.values().stream()
+                .collect(Collectors.toMap(DocumentSpaceFileSystemEntry::getParentEntryId, entry -> entry, (first, second) -> first))
+                .values()
+                .forEach(this::propagateModificationStateToAncestors);
+    }
 
-        for (DocumentSpaceFileSystemEntry e : children) {
-            archiveOrUnarchiveChildren(spaceId, e, doArchive);
-        }
+    /**
+     * Private helper to archive or un-archive the given entries and everything underneath them,
+     * the subtree is fetched with one query and updated with bulk updates
+     */
+    private void setArchivedWithDescendants(UUID spaceId, Collection<DocumentSpaceFileSystemEntry> startEntries, boolean doArchive) {
+        List<UUID> ids = startEntries.stream()
+                .map(DocumentSpaceFileSystemEntry::getId)
+                .collect(Collectors.toList());
 
-        entry.setDeleteArchived(doArchive);
-        repository.save(entry);
-    }
+        repository.findDescendants(spaceId, startEntries.stream()
+                        .filter(DocumentSpaceFileSystemEntry::isFolder)
+                        .map(DocumentSpaceFileSystemEntry::getItemId)
+                        .collect(Collectors.toList()))
+                .forEach(entry -> ids.add(entry.getId()));
 
+        repository.updateDeleteArchived(ids, doArchive);
+    }
     @Override
     public List<S3ObjectAndFilename> flattenTreeToS3ObjectAndFilenameList(FileSystemElementTree tree) {
         List<S3ObjectAndFilename> retList = new ArrayList<>();
@@ -719,68 +934,76 @@ public class DocumentSpaceFileSystemServiceImpl implements DocumentSpaceFileSyst
 
     /**
      * For cross space moves, we need to go thru each element and change the document space ID... just changing its parent
-     * earlier does no good... we can end up with orphaned entries
+     * earlier does no good... we can end up with orphaned entries.  The whole subtree is found with one recursive query
+     * and reassigned with bulk updates.
      * @param destinationSpaceId
      * @param startingEntry
      * @param newParentId
      */
+    @Transactional
     @Override
     public void moveFileSystemEntryTree(UUID destinationSpaceId, DocumentSpaceFileSystemEntry startingEntry, UUID newParentId) {
 
         // we don't need to do this logic if moving within same document space
         if (destinationSpaceId.equals(startingEntry.getDocumentSpaceId())) return;
 
-        // see if this entry contains children (if its a parent to anyone)
-        List<DocumentSpaceFileSystemEntry> children = repository
-                .findByDocumentSpaceIdEqualsAndParentEntryIdEquals(startingEntry.getDocumentSpaceId(), startingEntry.getItemId());
+        List<UUID> descendantIds = repository.findDescendants(startingEntry.getDocumentSpaceId(), startingEntry.getItemId())
+                .stream()
+                .map(DocumentSpaceFileSystemEntry::getId)
+                .collect(Collectors.toList());
 
-        if (children.isEmpty()) return;
+        if (descendantIds.isEmpty()) return;
 
-        for (DocumentSpaceFileSystemEntry child : children) {
-            child.setDocumentSpaceId(destinationSpaceId);
-            child = repository.saveAndFlush(child);
-            duplicateFileSystemEntryTree(destinationSpaceId, child, child.getItemId()); // recurse
-        }
+        repository.updateDocumentSpaceId(descendantIds, destinationSpaceId);
     }
 
     /**
-     * Copies the contents contained underneath the given file system entry (if it contains children).  This is
-     * used for folder copy operations before we make the actual copies of the physical files pointed to within S3.
+     * Builds copies of everything contained underneath the given file system entry (if it contains children).  This is
+     * used for folder copy operations - each copy gets a new item id (with its parent pointers remapped to match) so that
+     * the copied tree can be given its own physical files within S3.  The copies are not saved, see {@link #insertItems(Collection)}.
      * @param destinationSpaceId what space ID we're copying to
-     * @param startingEntry the file system entry to look at, see if it contains children, and then recurse into copying each
-     *                      entry to its own, new entry
-     * @param newParentId the new parent (changes on each re-cursed call) to assign the current child
+     * @param startingEntry the folder whose contents are being copied
+     * @param newParentId the item id of the folder the copied contents will go in
+     * @return the copies keyed by the item id of the entry each was copied from
      */
     @Override
-    public void duplicateFileSystemEntryTree(UUID destinationSpaceId, DocumentSpaceFileSystemEntry startingEntry, UUID newParentId) {
+    public Map<UUID, DocumentSpaceFileSystemEntry> cloneFileSystemEntryTree(UUID destinationSpaceId, DocumentSpaceFileSystemEntry startingEntry, UUID newParentId) {
+        List<DocumentSpaceFileSystemEntry> descendants = repository.findDescendants(startingEntry.getDocumentSpaceId(), startingEntry.getItemId());
 
-        // see if this entry contains children (if its a parent to anyone)
-        List<DocumentSpaceFileSystemEntry> children = repository
-                .findByDocumentSpaceIdEqualsAndParentEntryIdEquals(startingEntry.getDocumentSpaceId(), startingEntry.getItemId());
+        // hand out all the new item ids first so each copy can be pointed at its copied parent regardless of order
+        Map<UUID, UUID> newItemIds = new HashMap<>();
+        newItemIds.put(startingEntry.getItemId(), newParentId);
+        descendants.forEach(child -> newItemIds.put(child.getItemId(), UUID.randomUUID()));
 
-        if (children.isEmpty()) return;
-
-        for (DocumentSpaceFileSystemEntry child : children) {
-            DocumentSpaceFileSystemEntry childCopy = DocumentSpaceFileSystemEntry.builder()
+        Map<UUID, DocumentSpaceFileSystemEntry> copies = new LinkedHashMap<>();
+        for (DocumentSpaceFileSystemEntry child : descendants) {
+            copies.put(child.getItemId(), DocumentSpaceFileSystemEntry.builder()
                     .id(UUID.randomUUID())
                     .isFolder(child.isFolder())
                     .isDeleteArchived(child.isDeleteArchived())
                     .lastModifiedOn(child.getLastModifiedOn())
                     .lastModifiedBy(child.getLastModifiedBy())
-                    .parentEntryId(newParentId)
-                    .itemId(UUID.randomUUID())
+                    .parentEntryId(newItemIds.get(child.getParentEntryId()))
+                    .itemId(newItemIds.get(child.getItemId()))
                     .hasNonArchivedContents(child.isHasNonArchivedContents())
                     .size(child.getSize())
                     .documentSpaceId(destinationSpaceId)
                     .createdBy(child.getCreatedBy())
                     .createdOn(child.getCreatedOn())
                     .etag(child.getEtag())
+                    .contentHash(child.getContentHash())
                     .itemName(child.getItemName())
-                    .build();
-
-            childCopy = repository.saveAndFlush(childCopy);
-            duplicateFileSystemEntryTree(destinationSpaceId, childCopy, childCopy.getItemId()); // recurse
+                    .build());
         }
+
+        return copies;
+    }
+
+    @Transactional
+    @Override
+    public void insertItems(Collection<DocumentSpaceFileSystemEntry> entries) {
+        if (entries.isEmpty()) return;
+        repository.insertAll(entries);
     }
 
     /**
@@ -933,8 +1156,34 @@ public class DocumentSpaceFileSystemServiceImpl implements DocumentSpaceFileSyst
                 .build();
     }
 
+    /**
+     * Searches the non-archived entries of the given spaces by name, best matches first
+     * @param spaceIds the spaces to search
+     * @param search the query, how to match it, and an optional extension filter
+     * @param pageable page to fetch (any sort is ignored in favor of the ranking)
+     * @return the page of matching entries
+     */
+    @Override
+    public Page<DocumentSpaceFileSystemEntry> findFilesInSpacesLike(Collection<UUID> spaceIds, DocumentSpaceSearchDto search, Pageable pageable) {
+        String extension = StringUtils.stripStart(StringUtils.trimToNull(search.getExtension()), ".");
+        return repository.searchByItemName(spaceIds,
+                search.getQuery().trim(),
+                search.getMatchType() == DocumentSpaceSearchMatchType.PREFIX,
+                StringUtils.isEmpty(extension) ? null : extension,
+                pageable);
+    }
+
+    /**
+     * Looks up the full paths of many folders at once, root level entries (NIL_UUID) map to ""
+     * @param folderItemIds item ids of the folders
+     * @return map of folder item id to its path
+     */
     @Override
-    public Page<DocumentSpaceFileSystemEntry> findFilesInSpaceLike(UUID spaceId, String filename, Pageable pageable) {
-        return repository.findFilesInSpaceLike(spaceId, String.format("%%%s%%", filename), pageable);
+    public Map<UUID, String> getFolderPaths(Collection<UUID> folderItemIds) {
+        Map<UUID, String> paths = new HashMap<>(repository.findFolderPaths(folderItemIds.stream()
+                .filter(id -> !NIL_UUID.equals(id))
+                .collect(Collectors.toSet())));
+        paths.put(NIL_UUID, "");
+        return paths;
     }
 }
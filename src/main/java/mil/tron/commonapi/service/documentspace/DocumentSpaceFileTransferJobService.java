@@ -0,0 +1,33 @@
+package mil.tron.commonapi.service.documentspace;
+
+import mil.tron.commonapi.dto.documentspace.DocumentSpaceFileTransferJobDto;
+import mil.tron.commonapi.exception.RecordNotFoundException;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Runs document space copies/moves in the background for large folder trees, so the request
+ * that kicks them off doesn't have to stay open until every file has been copied
+ */
+public interface DocumentSpaceFileTransferJobService {
+    /**
+     * Queues up a copy or move
+     * @param documentSpaceId the destination space
+     * @param sourceSpaceId the source space (if null the destination space is the source)
+     * @param items map of source path to destination path, same as a regular copy/move
+     * @param copy true to copy, false to move
+     * @param username who is asking
+     * @return the new job
+     */
+    DocumentSpaceFileTransferJobDto startJob(UUID documentSpaceId, @Nullable UUID sourceSpaceId, Map<String, String> items, boolean copy, String username);
+
+    DocumentSpaceFileTransferJobDto getJob(UUID documentSpaceId, UUID jobId) throws RecordNotFoundException;
+
+    /**
+     * Asks a job to stop.  The job stops at its next batch of files and removes anything it already copied
+     * for the item it was working on - items that had already finished stay where they are.
+     */
+    DocumentSpaceFileTransferJobDto cancelJob(UUID documentSpaceId, UUID jobId) throws RecordNotFoundException;
+}
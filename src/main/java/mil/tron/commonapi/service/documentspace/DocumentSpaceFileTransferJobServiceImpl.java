@@ -0,0 +1,261 @@
+package mil.tron.commonapi.service.documentspace;
+
+import lombok.extern.slf4j.Slf4j;
+import mil.tron.commonapi.annotation.minio.IfMinioEnabledOnIL4OrDevLocal;
+import mil.tron.commonapi.dto.documentspace.DocumentSpaceFileTransferJobDto;
+import mil.tron.commonapi.entity.documentspace.DocumentSpaceFileTransferJob;
+import mil.tron.commonapi.entity.documentspace.DocumentSpaceFileTransferJobStatus;
+import mil.tron.commonapi.exception.BadRequestException;
+import mil.tron.commonapi.exception.RecordNotFoundException;
+import mil.tron.commonapi.repository.documentspace.DocumentSpaceFileTransferJobRepository;
+import mil.tron.commonapi.service.documentspace.util.FileTransferProgress;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+@Slf4j
+@Service
+@IfMinioEnabledOnIL4OrDevLocal
+public class DocumentSpaceFileTransferJobServiceImpl implements DocumentSpaceFileTransferJobService {
+	private static final int MAX_MESSAGE_LENGTH = 1024;
+	private static final List<DocumentSpaceFileTransferJobStatus> UNFINISHED_STATUSES =
+			List.of(DocumentSpaceFileTransferJobStatus.PENDING, DocumentSpaceFileTransferJobStatus.RUNNING);
+
+	private final DocumentSpaceFileTransferJobRepository jobRepository;
+	private final DocumentSpaceService documentSpaceService;
+
+	/**
+	 * Job bookkeeping commits on its own so progress is visible no matter what the copy/move has open
+	 */
+	private final TransactionTemplate jobTransactionTemplate;
+
+	private final TaskExecutor executor;
+
+	private final String instanceId;
+	private final Duration lease;
+
+	/**
+	 * Jobs queued or running on this server, whose leases it keeps renewing
+	 */
+	private final Set<UUID> ownJobIds = ConcurrentHashMap.newKeySet();
+
+	public DocumentSpaceFileTransferJobServiceImpl(DocumentSpaceFileTransferJobRepository jobRepository,
+												   DocumentSpaceService documentSpaceService,
+												   PlatformTransactionManager transactionManager,
+												   @Qualifier("documentSpaceFileTransferExecutor") TaskExecutor executor,
+												   @Value("${instance-id}") String instanceId,
+												   @Value("${minio.file-transfer-job-lease-ms:120000}") long leaseMillis) {
+		this.jobRepository = jobRepository;
+		this.documentSpaceService = documentSpaceService;
+		this.jobTransactionTemplate = new TransactionTemplate(transactionManager);
+		this.jobTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		this.executor = executor;
+		this.instanceId = instanceId;
+		this.lease = Duration.ofMillis(leaseMillis);
+	}
+
+	/**
+	 * Jobs only run in memory, so any this server left unfinished when it last went down are never going to finish.
+	 * Other servers' jobs are left alone unless their lease has run out.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void failInterruptedJobs() {
+		jobTransactionTemplate.executeWithoutResult(status ->
+				failJobs(jobRepository.findAllByStatusInAndOwnerInstance(UNFINISHED_STATUSES, instanceId)));
+		failAbandonedJobs();
+	}
+
+	@Scheduled(fixedDelayString = "${minio.file-transfer-job-heartbeat-ms:30000}")
+	public void renewLeases() {
+		if (ownJobIds.isEmpty()) {
+			return;
+		}
+
+		jobTransactionTemplate.executeWithoutResult(status -> jobRepository.renewHeartbeats(Set.copyOf(ownJobIds), new Date()));
+	}
+
+	/**
+	 * Fails the jobs of servers that went down without coming back up (or came back under another name)
+	 */
+	@Scheduled(fixedDelayString = "${minio.file-transfer-job-heartbeat-ms:30000}")
+	public void failAbandonedJobs() {
+		Date cutoff = new Date(System.currentTimeMillis() - lease.toMillis());
+		jobTransactionTemplate.executeWithoutResult(status ->
+				failJobs(jobRepository.findAllByStatusInAndHeartbeatOnBefore(UNFINISHED_STATUSES, cutoff)));
+	}
+
+	private void failJobs(List<DocumentSpaceFileTransferJob> jobs) {
+		for (DocumentSpaceFileTransferJob job : jobs) {
+			if (ownJobIds.contains(job.getId())) {
+				continue;
+			}
+
+			log.warn("Document space file transfer job {} on {} was interrupted", job.getId(), job.getOwnerInstance());
+			job.setStatus(DocumentSpaceFileTransferJobStatus.FAILED);
+			job.setMessage("Interrupted by a server restart or outage");
+			job.setFinishedOn(new Date());
+			jobRepository.save(job);
+		}
+	}
+
+	@Override
+	public DocumentSpaceFileTransferJobDto startJob(UUID documentSpaceId, @Nullable UUID sourceSpaceId, Map<String, String> items, boolean copy, String username) {
+		if (items == null || items.isEmpty()) {
+			throw new BadRequestException("No files or folders given");
+		}
+
+		UUID sourceId = sourceSpaceId != null ? sourceSpaceId : documentSpaceId;
+		documentSpaceService.getDocumentSpaceOrElseThrow(documentSpaceId);
+		documentSpaceService.getDocumentSpaceOrElseThrow(sourceId);
+
+		DocumentSpaceFileTransferJob job = jobRepository.save(DocumentSpaceFileTransferJob.builder()
+				.documentSpaceId(documentSpaceId)
+				.sourceSpaceId(sourceId)
+				.copy(copy)
+				.itemCount(items.size())
+				.createdBy(username)
+				.ownerInstance(instanceId)
+				.build());
+
+		Map<String, String> itemsToTransfer = new LinkedHashMap<>(items);
+		ownJobIds.add(job.getId());
+		try {
+			executor.execute(() -> runJob(job.getId(), itemsToTransfer));
+		} catch (TaskRejectedException e) {
+			ownJobIds.remove(job.getId());
+			finishJob(job.getId(), DocumentSpaceFileTransferJobStatus.FAILED, "Too many file transfer jobs queued");
+			throw new BadRequestException("Too many file transfer jobs are queued - try again later");
+		}
+
+		return convertToDto(job);
+	}
+
+	@Override
+	public DocumentSpaceFileTransferJobDto getJob(UUID documentSpaceId, UUID jobId) throws RecordNotFoundException {
+		return convertToDto(getJobOrElseThrow(documentSpaceId, jobId));
+	}
+
+	@Override
+	public DocumentSpaceFileTransferJobDto cancelJob(UUID documentSpaceId, UUID jobId) throws RecordNotFoundException {
+		DocumentSpaceFileTransferJob job = getJobOrElseThrow(documentSpaceId, jobId);
+		if (job.getStatus() == DocumentSpaceFileTransferJobStatus.PENDING || job.getStatus() == DocumentSpaceFileTransferJobStatus.RUNNING) {
+			job.setCancelRequested(true);
+			job = jobRepository.save(job);
+		}
+
+		return convertToDto(job);
+	}
+
+	private void runJob(UUID jobId, Map<String, String> items) {
+		try {
+			transferItems(jobId, items);
+		} finally {
+			ownJobIds.remove(jobId);
+		}
+	}
+
+	private void transferItems(UUID jobId, Map<String, String> items) {
+		DocumentSpaceFileTransferJob job = updateJob(jobId, j -> j.setStatus(DocumentSpaceFileTransferJobStatus.RUNNING));
+
+		FileTransferProgress progress = new FileTransferProgress() {
+			@Override
+			public void onObjectsFound(long objectCount) {
+				updateJob(jobId, j -> j.setObjectCount(j.getObjectCount() + objectCount));
+			}
+
+			@Override
+			public void onObjectsCopied(long objectCount) {
+				updateJob(jobId, j -> j.setCopiedObjectCount(j.getCopiedObjectCount() + objectCount));
+			}
+
+			@Override
+			public boolean isCancelled() {
+				return Boolean.TRUE.equals(jobTransactionTemplate.execute(status -> jobRepository.findById(jobId)
+						.map(DocumentSpaceFileTransferJob::isCancelRequested)
+						.orElse(true)));
+			}
+		};
+
+		try {
+			for (Map.Entry<String, String> item : items.entrySet()) {
+				if (progress.isCancelled()) {
+					throw new CancellationException();
+				}
+
+				documentSpaceService.moveOrCopyFile(job.getDocumentSpaceId(), job.getSourceSpaceId(),
+						item.getKey(), item.getValue(), job.isCopy(), progress);
+				updateJob(jobId, j -> j.setCompletedItemCount(j.getCompletedItemCount() + 1));
+			}
+
+			finishJob(jobId, DocumentSpaceFileTransferJobStatus.COMPLETED, null);
+		} catch (CancellationException e) {
+			finishJob(jobId, DocumentSpaceFileTransferJobStatus.CANCELLED, null);
+		} catch (Exception e) {
+			log.warn("Document space file transfer job {} failed", jobId, e);
+			finishJob(jobId, DocumentSpaceFileTransferJobStatus.FAILED, e.getMessage());
+		}
+	}
+
+	private void finishJob(UUID jobId, DocumentSpaceFileTransferJobStatus status, @Nullable String message) {
+		updateJob(jobId, j -> {
+			j.setStatus(status);
+			j.setMessage(StringUtils.abbreviate(message, MAX_MESSAGE_LENGTH));
+			j.setFinishedOn(new Date());
+		});
+	}
+
+	private DocumentSpaceFileTransferJob updateJob(UUID jobId, Consumer<DocumentSpaceFileTransferJob> update) {
+		return jobTransactionTemplate.execute(status -> {
+			DocumentSpaceFileTransferJob job = jobRepository.findById(jobId)
+					.orElseThrow(() -> new RecordNotFoundException(String.format("Job with id: %s not found", jobId)));
+			update.accept(job);
+			return jobRepository.save(job);
+		});
+	}
+
+	private DocumentSpaceFileTransferJob getJobOrElseThrow(UUID documentSpaceId, UUID jobId) {
+		return jobRepository.findByIdAndDocumentSpaceId(jobId, documentSpaceId)
+				.orElseThrow(() -> new RecordNotFoundException(String.format("Job with id: %s not found in Document Space: %s",
+						jobId, documentSpaceId)));
+	}
+
+	private DocumentSpaceFileTransferJobDto convertToDto(DocumentSpaceFileTransferJob job) {
+		return DocumentSpaceFileTransferJobDto.builder()
+				.id(job.getId())
+				.documentSpaceId(job.getDocumentSpaceId())
+				.sourceSpaceId(job.getSourceSpaceId())
+				.copy(job.isCopy())
+				.status(job.getStatus())
+				.cancelRequested(job.isCancelRequested())
+				.itemCount(job.getItemCount())
+				.completedItemCount(job.getCompletedItemCount())
+				.objectCount(job.getObjectCount())
+				.copiedObjectCount(job.getCopiedObjectCount())
+				.message(job.getMessage())
+				.createdBy(job.getCreatedBy())
+				.createdOn(job.getCreatedOn())
+				.finishedOn(job.getFinishedOn())
+				.build();
+	}
+}
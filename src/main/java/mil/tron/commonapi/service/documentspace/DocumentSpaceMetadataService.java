@@ -1,5 +1,7 @@
 package mil.tron.commonapi.service.documentspace;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.Set;
 import java.util.UUID;
 
@@ -10,4 +12,20 @@ import mil.tron.commonapi.entity.documentspace.DocumentSpaceFileSystemEntry;
 public interface DocumentSpaceMetadataService {
 	void saveMetadata(UUID documentSpaceId, Set<DocumentSpaceFileSystemEntry> entries, DocumentMetadata metadata, DashboardUser dashboardUser);
 	void saveMetadata(UUID documentSpaceId, DocumentSpaceFileSystemEntry entry, DocumentMetadata metadata, DashboardUser dashboardUser);
+
+	/**
+	 * Records that the given entries were downloaded by a user.  Nothing is written right away, the
+	 * last downloaded dates are buffered and written in batches by {@link #flushDownloads()}.  Once the
+	 * buffer is full, downloads of entries not already in it are dropped.
+	 * @param documentSpaceId the space the entries belong to
+	 * @param entries the entries downloaded
+	 * @param downloaded when they were downloaded
+	 * @param dashboardUser who downloaded them
+	 */
+	void recordDownloaded(UUID documentSpaceId, Collection<DocumentSpaceFileSystemEntry> entries, Date downloaded, DashboardUser dashboardUser);
+
+	/**
+	 * Writes out the last downloaded dates recorded since the previous flush
+	 */
+	void flushDownloads();
 }
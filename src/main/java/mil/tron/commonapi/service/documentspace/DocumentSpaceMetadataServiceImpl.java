@@ -1,14 +1,28 @@
 package mil.tron.commonapi.service.documentspace;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.extern.slf4j.Slf4j;
 import mil.tron.commonapi.dto.documentspace.DocumentMetadata;
 import mil.tron.commonapi.entity.DashboardUser;
 import mil.tron.commonapi.entity.documentspace.DocumentSpaceFileSystemEntry;
@@ -17,21 +31,116 @@ import mil.tron.commonapi.entity.documentspace.metadata.FileSystemEntryWithMetad
 import mil.tron.commonapi.repository.documentspace.DocumentSpaceUserCollectionRepository;
 import mil.tron.commonapi.repository.documentspace.FileSystemEntryMetadataRepository;
 
+@Slf4j
 @Service
 public class DocumentSpaceMetadataServiceImpl implements DocumentSpaceMetadataService {
 	
 	private final FileSystemEntryMetadataRepository metadataRepository;
 	private final DocumentSpaceUserCollectionRepository collectionRepositry;
+
+	/**
+	 * Downloads recorded but not yet written, per document space and user.  Downloading the same
+	 * file again before the next flush just moves its last downloaded date along.
+	 */
+	private final Map<DownloadsKey, PendingDownloads> pendingDownloads = new ConcurrentHashMap<>();
+
+	/**
+	 * Number of entries across all of {@link #pendingDownloads}, which is capped so an outage of the
+	 * database cannot grow the buffer without bound
+	 */
+	private final AtomicInteger pendingDownloadCount = new AtomicInteger();
+	private final int maxPendingDownloads;
 	
 	public DocumentSpaceMetadataServiceImpl(
 			FileSystemEntryMetadataRepository metadataRepository,
-			DocumentSpaceUserCollectionRepository collectionRepositry) {
+			DocumentSpaceUserCollectionRepository collectionRepositry,
+			@Value("${document-space.download-metadata-max-pending:10000}") int maxPendingDownloads) {
 		this.metadataRepository = metadataRepository;
 		this.collectionRepositry = collectionRepositry;
+		this.maxPendingDownloads = maxPendingDownloads;
 	}
 
 	@Override
 	public void saveMetadata(UUID documentSpaceId, Set<DocumentSpaceFileSystemEntry> entries, DocumentMetadata metadataToChange, DashboardUser dashboardUser) {
+		saveMetadata(documentSpaceId,
+				entries.stream().map(DocumentSpaceFileSystemEntry::getId).collect(Collectors.toSet()),
+				entryId -> metadataToChange.getLastDownloaded(),
+				dashboardUser);
+	}
+
+	@Override
+	public void saveMetadata(UUID documentSpaceId, DocumentSpaceFileSystemEntry entry, DocumentMetadata metadata, DashboardUser dashboardUser) {
+		Set<DocumentSpaceFileSystemEntry> entrySet = new HashSet<>();
+		entrySet.add(entry);
+		saveMetadata(documentSpaceId, entrySet, metadata, dashboardUser);
+	}
+
+	@Override
+	public void recordDownloaded(UUID documentSpaceId, Collection<DocumentSpaceFileSystemEntry> entries, Date downloaded, DashboardUser dashboardUser) {
+		if (entries.isEmpty()) {
+			return;
+		}
+
+		Map<UUID, Date> downloads = new HashMap<>();
+		for (DocumentSpaceFileSystemEntry entry : entries) {
+			downloads.put(entry.getId(), downloaded);
+		}
+
+		addPendingDownloads(new DownloadsKey(documentSpaceId, dashboardUser.getId()), dashboardUser, downloads);
+	}
+
+	/**
+	 * Adds downloads to the buffer.  Entries already waiting just have their date moved along, new ones
+	 * are dropped (with a warning) once the buffer holds the maximum number of entries.
+	 */
+	private void addPendingDownloads(DownloadsKey downloadsKey, DashboardUser dashboardUser, Map<UUID, Date> downloads) {
+		AtomicInteger dropped = new AtomicInteger();
+
+		pendingDownloads.compute(downloadsKey, (key, pending) -> {
+			if (pending == null) {
+				pending = new PendingDownloads(dashboardUser, new ConcurrentHashMap<>());
+			}
+
+			for (Map.Entry<UUID, Date> download : downloads.entrySet()) {
+				if (pending.lastDownloaded.containsKey(download.getKey())) {
+					pending.lastDownloaded.merge(download.getKey(), download.getValue(), DocumentSpaceMetadataServiceImpl::latest);
+				} else if (pendingDownloadCount.get() < maxPendingDownloads) {
+					pending.lastDownloaded.put(download.getKey(), download.getValue());
+					pendingDownloadCount.incrementAndGet();
+				} else {
+					dropped.incrementAndGet();
+				}
+			}
+			return pending.lastDownloaded.isEmpty() ? null : pending;
+		});
+
+		if (dropped.get() > 0) {
+			log.warn("Dropped {} document space downloads, {} are already waiting to be written", dropped.get(), maxPendingDownloads);
+		}
+	}
+
+	@PreDestroy
+	@Scheduled(fixedDelayString = "${document-space.download-metadata-flush-ms:5000}")
+	@Override
+	public synchronized void flushDownloads() {
+		for (DownloadsKey key : new ArrayList<>(pendingDownloads.keySet())) {
+			PendingDownloads pending = pendingDownloads.remove(key);
+			if (pending == null) {
+				continue;
+			}
+			pendingDownloadCount.addAndGet(-pending.lastDownloaded.size());
+
+			try {
+				saveMetadata(key.documentSpaceId, pending.lastDownloaded.keySet(), pending.lastDownloaded::get, pending.dashboardUser);
+			} catch (Exception ex) {
+				// keep the downloads around for the next flush (as far as the buffer allows) rather than losing them
+				log.warn("Could not write document space download metadata, will retry on the next flush", ex);
+				addPendingDownloads(key, pending.dashboardUser, pending.lastDownloaded);
+			}
+		}
+	}
+
+	private void saveMetadata(UUID documentSpaceId, Set<UUID> entryIds, Function<UUID, Date> lastDownloaded, DashboardUser dashboardUser) {
 		/**
 		 * As it stands, metadata is only being scoped specifically to files in
 		 * "Favorite" collection for a user. So, find only the file system entries (and
@@ -39,8 +148,7 @@ public class DocumentSpaceMetadataServiceImpl implements DocumentSpaceMetadataSe
 		 * for this user and save metadata for those file system entries.
 		 */
 		Set<FileSystemEntryWithMetadata> entriesWithMetadataInUserFavorites = collectionRepositry.getAllInCollectionMatchingIdsAsMetadata(
-				DocumentSpaceUserCollectionServiceImpl.FAVORITES, documentSpaceId, dashboardUser.getId(),
-				entries.stream().map(DocumentSpaceFileSystemEntry::getId).collect(Collectors.toSet()));
+				DocumentSpaceUserCollectionServiceImpl.FAVORITES, documentSpaceId, dashboardUser.getId(), entryIds);
 		
 		List<FileSystemEntryMetadata> metadataToSave = new ArrayList<>();
 		
@@ -54,8 +162,9 @@ public class DocumentSpaceMetadataServiceImpl implements DocumentSpaceMetadataSe
 				metadata.setId(UUID.randomUUID());
 			}
 			
-			if (metadataToChange.getLastDownloaded() != null) {
-				metadata.setLastDownloaded(metadataToChange.getLastDownloaded());
+			Date downloaded = lastDownloaded.apply(entry.getFileEntry().getId());
+			if (downloaded != null) {
+				metadata.setLastDownloaded(downloaded);
 			}
 			
 			metadataToSave.add(metadata);
@@ -64,11 +173,20 @@ public class DocumentSpaceMetadataServiceImpl implements DocumentSpaceMetadataSe
 		metadataRepository.saveAll(metadataToSave);
 	}
 
-	@Override
-	public void saveMetadata(UUID documentSpaceId, DocumentSpaceFileSystemEntry entry, DocumentMetadata metadata, DashboardUser dashboardUser) {
-		Set<DocumentSpaceFileSystemEntry> entrySet = new HashSet<>();
-		entrySet.add(entry);
-		saveMetadata(documentSpaceId, entrySet, metadata, dashboardUser);
+	private static Date latest(Date first, Date second) {
+		return first.after(second) ? first : second;
 	}
 
+	@AllArgsConstructor
+	@EqualsAndHashCode
+	private static class DownloadsKey {
+		private final UUID documentSpaceId;
+		private final UUID dashboardUserId;
+	}
+
+	@AllArgsConstructor
+	private static class PendingDownloads {
+		private final DashboardUser dashboardUser;
+		private final Map<UUID, Date> lastDownloaded;
+	}
 }
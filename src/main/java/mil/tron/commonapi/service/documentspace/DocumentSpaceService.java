@@ -6,11 +6,14 @@ import com.amazonaws.services.s3.model.S3ObjectSummary;
 import mil.tron.commonapi.dto.appclient.AppClientSummaryDto;
 import mil.tron.commonapi.dto.documentspace.*;
 import mil.tron.commonapi.dto.documentspace.mobile.DocumentMobileDto;
+import mil.tron.commonapi.dto.response.pagination.CursorSlice;
 import mil.tron.commonapi.entity.documentspace.DocumentSpace;
 import mil.tron.commonapi.entity.documentspace.DocumentSpaceFileSystemEntry;
 import mil.tron.commonapi.exception.RecordNotFoundException;
 import mil.tron.commonapi.service.documentspace.util.FilePathSpec;
 import mil.tron.commonapi.service.documentspace.util.FilePathSpecWithContents;
+import mil.tron.commonapi.service.documentspace.util.FileTransferProgress;
+import mil.tron.commonapi.service.documentspace.util.FolderListingOptions;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
@@ -20,6 +23,7 @@ import javax.annotation.Nullable;
 import javax.validation.constraints.NotNull;
 import java.io.OutputStream;
 import java.security.Principal;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Set;
@@ -39,32 +43,100 @@ public interface DocumentSpaceService {
 
 	S3Object getFile(UUID documentSpaceId, String path, String key, String documentSpaceUsername);
 	S3Object getFile(UUID doucmentSpaceId, UUID parentFolderId, String filename, String documentSpaceUsername);
+
+	/**
+	 * Looks up the file system entry of a file (no S3 access) so that callers can answer conditional
+	 * requests from its etag/last modified date before deciding to fetch the file's contents
+	 */
+	DocumentSpaceFileSystemEntry getFileEntry(UUID documentSpaceId, String path, String filename);
+	DocumentSpaceFileSystemEntry getFileEntry(UUID documentSpaceId, UUID parentFolderId, String filename);
+
+	/**
+	 * Fetches the contents of a file previously looked up with getFileEntry, optionally just a byte range of it
+	 * @param documentSpaceId the document space UUID
+	 * @param fileEntry the file's entry
+	 * @param rangeStart first byte to fetch (inclusive), null for the whole file
+	 * @param rangeEnd last byte to fetch (inclusive), null for the whole file
+	 * @return the S3 object holding the requested bytes
+	 */
+	S3Object getFileContent(UUID documentSpaceId, DocumentSpaceFileSystemEntry fileEntry, @Nullable Long rangeStart, @Nullable Long rangeEnd);
+
+	/**
+	 * Records that the given user downloaded the file
+	 */
+	void markFileDownloaded(UUID documentSpaceId, DocumentSpaceFileSystemEntry fileEntry, String documentSpaceUsername);
 	void downloadAllInSpaceAndCompress(UUID documentSpaceId, OutputStream out);
+
+	/**
+	 * Writes everything under a folder (not including archived items) out as a zip, laid out the same
+	 * way as when the folder is downloaded
+	 * @param documentSpaceId the document space UUID
+	 * @param path path of the folder, "/" for the whole space
+	 * @param out where to write the zip to
+	 * @return true if every file made it into the zip, false if any had to be left out
+	 */
+	boolean writeArchive(UUID documentSpaceId, String path, OutputStream out);
 	List<S3Object> getFiles(UUID documentSpaceId, String path, Set<String> fileKeys, String documentSpaceUsername);
 	void downloadAndWriteCompressedFiles(UUID documentSpaceId, String path, Set<String> fileKeys, OutputStream out, String documentSpaceUsername);
 	void uploadFile(UUID documentSpaceId, String path, MultipartFile file, @NotNull Date lastModified);
 	void uploadFile(UUID documentSpaceId, String path, MultipartFile file);
+
+	/**
+	 * Looks up the existing entry (if any) a file uploaded to the given folder would replace
+	 * @return the existing entry, or null if the file is new
+	 * @throws mil.tron.commonapi.exception.ResourceAlreadyExistsException if the existing file is archived
+	 */
+	DocumentSpaceFileSystemEntry getUploadableFileEntry(UUID documentSpaceId, UUID parentFolderId, String filename);
+
+	/**
+	 * Creates (or updates the given existing) file system entry for a file that has finished uploading to S3
+	 */
+	void saveUploadedFileEntry(UUID documentSpaceId, UUID parentFolderId, @Nullable DocumentSpaceFileSystemEntry existingEntry,
+			String filename, long size, String etag, Date lastModified);
+
+	/**
+	 * The S3 key prefix files in the given folder are stored under
+	 */
+	String getFolderKeyPrefix(UUID documentSpaceId, FilePathSpec folderSpec);
 	void renameFile(UUID documentSpaceId, String path, String fileKey, String newName);
     void deleteFile(UUID documentSpaceId, String path, String fileKey);
     void deleteFile(UUID documentSpaceId, UUID parentFolderId, String filename);
     void archiveItem(UUID documentSpaceId, UUID parentFolderId, String name);
     void moveOrCopyFile(UUID documentSpaceId, UUID sourceSpaceId, String source, String dest, boolean copy);
+
+    /**
+     * Same as {@link #moveOrCopyFile(UUID, UUID, String, String, boolean)} but reports the S3 copy progress
+     * and can be stopped part way through
+     * @throws java.util.concurrent.CancellationException if the progress reports it was cancelled
+     */
+    void moveOrCopyFile(UUID documentSpaceId, UUID sourceSpaceId, String source, String dest, boolean copy, FileTransferProgress progress);
     void moveFile(UUID documentSpaceId, @Nullable UUID sourceSpaceId, String source, String dest);
     void copyFile(UUID documentSpaceId, @Nullable UUID sourceSpaceId, String source, String dest);
     void archiveItems(UUID documentSpaceId, String currentPath, List<String> items);
     void unArchiveItems(UUID documentSpaceId, List<String> items);
-    void deleteItems(UUID documentSpaceId, String currentPath, List<String> items);
+    /**
+     * Deletes the given files and/or folders (with everything underneath them) from the current path
+     * @return the items that could not be removed from S3 (and so were kept), empty if everything was deleted
+     */
+    List<DocumentSpaceItemFailureDto> deleteItems(UUID documentSpaceId, String currentPath, List<String> items);
     void renameFolder(UUID documentSpaceId, String pathAndFolder, String newFolderName);
     void deleteS3ObjectByKey(String objKey);
     List<DeleteError> deleteS3ObjectsByKey(String[] objKeys);
+
+    /**
+     * Deletes any number of S3 objects, using multi-object deletes of up to 1000 keys sent in parallel
+     * @return the keys that failed to be deleted, empty if there were no errors
+     */
+    List<DeleteError> deleteS3Objects(Collection<String> objKeys);
     S3PaginationDto listFiles(UUID documentSpaceId, String continuationToken, Integer limit);
     FilePathSpec statFileAtPath(UUID documentSpaceId, String path, String element);
     DocumentSpaceFolderInfoDto getFolderSize(UUID documentSpaceId, String pathWithFolderName);
     List<S3ObjectSummary> getAllFilesInFolder(UUID documentSpaceId, String prefix, boolean includeArchived);
     FilePathSpec createFolder(UUID documentSpaceId, String path, String name);
     FilePathSpecWithContents getFolderContents(UUID documentSpaceId, String path);
+    FilePathSpecWithContents getFolderContents(UUID documentSpaceId, String path, FolderListingOptions options);
     List<DocumentDto> getArchivedContents(UUID documentSpaceId);
-    List<DocumentDto> getAllArchivedContentsForAuthUser(Principal principal);
+    Page<DocumentDto> getAllArchivedContentsForAuthUser(Principal principal, Pageable pageable);
     
     DocumentDto convertS3SummaryToDto(String spaceName, UUID documentSpaceId, S3ObjectSummary objSummary);
 
@@ -88,7 +160,10 @@ public interface DocumentSpaceService {
 
     Page<RecentDocumentDto> getRecentlyUploadedFilesByAuthUser(String authenticatedUsername, Pageable pageable);
     Page<RecentDocumentDto> getRecentlyUploadedFilesBySpace(UUID spaceId, Date date, Pageable pageable);
+    CursorSlice<RecentDocumentDto> getRecentlyUploadedFilesByAuthUser(String authenticatedUsername, @Nullable String continuation, int limit);
+    CursorSlice<RecentDocumentDto> getRecentlyUploadedFilesBySpace(UUID spaceId, Date date, @Nullable String continuation, int limit);
 
-    Page<DocumentMobileDto> findFilesInSpaceLike(UUID spaceId, String filename, Pageable pageable, Principal principal);
+    Page<DocumentMobileDto> findFilesInSpaceLike(UUID spaceId, DocumentSpaceSearchDto search, Pageable pageable, Principal principal);
+    Page<DocumentMobileDto> findFilesInAuthorizedSpacesLike(DocumentSpaceSearchDto search, Pageable pageable, Principal principal);
     DocumentMobileDto convertFileSystemEntryToMobileDto(UUID spaceId, DocumentSpaceFileSystemEntry entry, List<DocumentSpaceUserCollectionResponseDto> favs, Principal principal);
 }
@@ -4,15 +4,20 @@ import com.amazonaws.AmazonServiceException;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.model.*;
 import com.amazonaws.services.s3.model.MultiObjectDeleteException.DeleteError;
+import com.amazonaws.services.s3.transfer.Copy;
 import com.amazonaws.services.s3.transfer.TransferManager;
 import com.amazonaws.services.s3.transfer.Upload;
+import com.google.common.collect.Iterables;
 import liquibase.util.csv.opencsv.CSVReader;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import mil.tron.commonapi.annotation.minio.IfMinioEnabledOnIL4OrDevLocal;
 import mil.tron.commonapi.dto.appclient.AppClientSummaryDto;
 import mil.tron.commonapi.dto.documentspace.*;
 import mil.tron.commonapi.dto.documentspace.mobile.DocumentMobileDto;
+import mil.tron.commonapi.dto.response.pagination.CursorSlice;
 import mil.tron.commonapi.entity.DashboardUser;
 import mil.tron.commonapi.entity.Privilege;
 import mil.tron.commonapi.entity.documentspace.*;
@@ -24,20 +29,31 @@ import mil.tron.commonapi.repository.DashboardUserRepository;
 import mil.tron.commonapi.repository.PrivilegeRepository;
 import mil.tron.commonapi.repository.documentspace.DocumentSpaceRepository;
 import mil.tron.commonapi.service.DashboardUserService;
+import mil.tron.commonapi.service.documentspace.util.ContentObjectSummary;
 import mil.tron.commonapi.service.documentspace.util.FilePathSpec;
 import mil.tron.commonapi.service.documentspace.util.FilePathSpecWithContents;
 import mil.tron.commonapi.service.documentspace.util.FileSystemElementTree;
+import mil.tron.commonapi.service.documentspace.util.FileTransferProgress;
+import mil.tron.commonapi.service.documentspace.util.FolderListingOptions;
+import mil.tron.commonapi.service.documentspace.util.RecencyCursor;
 import mil.tron.commonapi.service.documentspace.util.S3ObjectAndFilename;
 import mil.tron.commonapi.validations.DocSpaceFolderOrFilenameValidator;
 import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.io.FilenameUtils;
 import org.assertj.core.util.Lists;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.transaction.Transactional;
@@ -50,6 +66,13 @@ import java.security.Principal;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.function.BiConsumer;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
@@ -63,6 +86,21 @@ import static mil.tron.commonapi.service.documentspace.DocumentSpaceFileSystemSe
 @IfMinioEnabledOnIL4OrDevLocal
 public class DocumentSpaceServiceImpl implements DocumentSpaceService {
 	public static final String DOCUMENT_SPACE_USER_PRIVILEGE = "DOCUMENT_SPACE_USER";
+
+	/**
+	 * Number of objects copied at a time during a copy/move, progress and cancellation are checked between batches
+	 */
+	private static final int COPY_BATCH_SIZE = 100;
+
+	/**
+	 * Max number of keys S3 accepts in a single multi-object delete
+	 */
+	private static final int DELETE_BATCH_SIZE = 1000;
+
+	/**
+	 * Number of members added or removed at a time during a batch member import or removal
+	 */
+	private static final int MEMBER_CHUNK_SIZE = 500;
 	
 	private final AmazonS3 documentSpaceClient;
 	private final TransferManager documentSpaceTransferManager;
@@ -77,6 +115,9 @@ public class DocumentSpaceServiceImpl implements DocumentSpaceService {
 	
 	private final DocumentSpaceFileService documentSpaceFileService;
 	private final DocumentSpaceMetadataService metadataService;
+	private final DocumentSpaceContentService contentService;
+	private final DocumentSpaceArchiveService archiveService;
+	private final TransactionTemplate transactionTemplate;
 
 	@Value("${spring.profiles.active:UNKNOWN}")
 	private String activeProfile;
@@ -87,6 +128,8 @@ public class DocumentSpaceServiceImpl implements DocumentSpaceService {
 	private final DashboardUserService dashboardUserService;
 	private final DocumentSpaceUserCollectionService documentSpaceUserCollectionService;
 
+	private final AsyncTaskExecutor deleteExecutor;
+
 	@SuppressWarnings("squid:S00107")
 	public DocumentSpaceServiceImpl(AmazonS3 documentSpaceClient, TransferManager documentSpaceTransferManager,
 			@Value("${minio.bucket-name}") String bucketName, DocumentSpaceRepository documentSpaceRepository,
@@ -94,7 +137,10 @@ public class DocumentSpaceServiceImpl implements DocumentSpaceService {
 			DashboardUserRepository dashboardUserRepository, DashboardUserService dashboardUserService,
 			PrivilegeRepository privilegeRepository, DocumentSpaceFileSystemService documentSpaceFileSystemService,
 			DocumentSpaceFileService documentSpaceFileService, DocumentSpaceMetadataService metadataService,
-			DocumentSpaceUserCollectionService documentSpaceUserCollectionService) {
+			DocumentSpaceUserCollectionService documentSpaceUserCollectionService,
+			DocumentSpaceContentService contentService, DocumentSpaceArchiveService archiveService,
+			PlatformTransactionManager transactionManager,
+			@Qualifier("documentSpaceDeleteExecutor") AsyncTaskExecutor deleteExecutor) {
 
 		this.documentSpaceClient = documentSpaceClient;
 		this.documentSpaceTransferManager = documentSpaceTransferManager;
@@ -114,6 +160,10 @@ public class DocumentSpaceServiceImpl implements DocumentSpaceService {
 		this.metadataService = metadataService;
 
 		this.documentSpaceUserCollectionService = documentSpaceUserCollectionService;
+		this.contentService = contentService;
+		this.archiveService = archiveService;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.deleteExecutor = deleteExecutor;
 	}
 
 	@Override
@@ -152,6 +202,7 @@ public class DocumentSpaceServiceImpl implements DocumentSpaceService {
 		DocumentSpace documentSpace = getDocumentSpaceOrElseThrow(documentSpaceId);
 
 		documentSpaceFileSystemService.deleteFolder(documentSpaceId, DocumentSpaceFileSystemServiceImpl.PATH_SEP);
+		archiveService.evictArchives(documentSpaceId);
 
 		unsetDashboardUsersDefaultDocumentSpace(documentSpace);
 		
@@ -172,14 +223,13 @@ public class DocumentSpaceServiceImpl implements DocumentSpaceService {
 		DashboardUser dashboardUser = getDashboardUserOrElseThrow(documentSpaceUsername);
 
 		FilePathSpec spec = documentSpaceFileSystemService.parsePathToFilePathSpec(documentSpaceId, path);
-		String prefix = getPathPrefix(documentSpaceId, spec.getFullPathSpec(), spec);
 
 		DocumentSpaceFileSystemEntry fileEntry = documentSpaceFileService
 				.getFileInDocumentSpaceFolderOrThrow(documentSpaceId, spec.getItemId(), key);
-		DocumentMetadata metadata = new DocumentMetadata(new Date());
-		metadataService.saveMetadata(documentSpaceId, fileEntry, metadata, dashboardUser);
 
-		return getS3Object(prefix + key);
+		S3Object object = getS3Object(getFileKey(documentSpaceId, spec, fileEntry));
+		metadataService.recordDownloaded(documentSpaceId, List.of(fileEntry), new Date(), dashboardUser);
+		return object;
 	}
 	
 	@Override
@@ -191,10 +241,42 @@ public class DocumentSpaceServiceImpl implements DocumentSpaceService {
 
 		DocumentSpaceFileSystemEntry fileEntry = documentSpaceFileService
 				.getFileInDocumentSpaceFolderOrThrow(documentSpaceId, parentFolderId, filename);
-		DocumentMetadata metadata = new DocumentMetadata(new Date());
-		metadataService.saveMetadata(documentSpaceId, fileEntry, metadata, dashboardUser);
 
-		return getS3Object(getPathPrefix(documentSpaceId, filePathSpec.getFullPathSpec(), filePathSpec) + filename);
+		S3Object object = getS3Object(getFileKey(documentSpaceId, filePathSpec, fileEntry));
+		metadataService.recordDownloaded(documentSpaceId, List.of(fileEntry), new Date(), dashboardUser);
+		return object;
+	}
+
+	@Override
+	public DocumentSpaceFileSystemEntry getFileEntry(UUID documentSpaceId, String path, String filename)
+			throws RecordNotFoundException {
+		FilePathSpec spec = documentSpaceFileSystemService.parsePathToFilePathSpec(documentSpaceId, path);
+		return documentSpaceFileService.getFileInDocumentSpaceFolderOrThrow(documentSpaceId, spec.getItemId(), filename);
+	}
+
+	@Override
+	public DocumentSpaceFileSystemEntry getFileEntry(UUID documentSpaceId, UUID parentFolderId, String filename)
+			throws RecordNotFoundException {
+		return documentSpaceFileService.getFileInDocumentSpaceFolderOrThrow(documentSpaceId, parentFolderId, filename);
+	}
+
+	@Override
+	public S3Object getFileContent(UUID documentSpaceId, DocumentSpaceFileSystemEntry fileEntry,
+			@Nullable Long rangeStart, @Nullable Long rangeEnd) throws RecordNotFoundException {
+		FilePathSpec filePathSpec = documentSpaceFileSystemService.getFilePathSpec(documentSpaceId, fileEntry.getParentEntryId());
+		GetObjectRequest request = new GetObjectRequest(bucketName, getFileKey(documentSpaceId, filePathSpec, fileEntry));
+		if (rangeStart != null && rangeEnd != null) {
+			// only the requested bytes ever leave S3
+			request.setRange(rangeStart, rangeEnd);
+		}
+
+		return getS3Object(request);
+	}
+
+	@Override
+	public void markFileDownloaded(UUID documentSpaceId, DocumentSpaceFileSystemEntry fileEntry, String documentSpaceUsername) {
+		DashboardUser dashboardUser = getDashboardUserOrElseThrow(documentSpaceUsername);
+		metadataService.recordDownloaded(documentSpaceId, List.of(fileEntry), new Date(), dashboardUser);
 	}
 
 	/**
@@ -211,29 +293,53 @@ public class DocumentSpaceServiceImpl implements DocumentSpaceService {
 		DashboardUser dashboardUser = getDashboardUserOrElseThrow(documentSpaceUsername);
 
 		FilePathSpec spec = documentSpaceFileSystemService.parsePathToFilePathSpec(documentSpaceId, path);
-		String prefix = getPathPrefix(documentSpaceId, spec.getFullPathSpec(), spec);
 
 		Set<DocumentSpaceFileSystemEntry> entriesToWriteMetadata = new HashSet<>();
-		DocumentMetadata metadata = new DocumentMetadata(new Date());
 
 		List<S3Object> s3Objects = fileKeys.stream().map(item -> {
 			DocumentSpaceFileSystemEntry fileEntry = documentSpaceFileService
 					.getFileInDocumentSpaceFolderOrThrow(documentSpaceId, spec.getItemId(), item);
 			entriesToWriteMetadata.add(fileEntry);
-			return getS3Object(prefix + item);
+			return getS3Object(getFileKey(documentSpaceId, spec, fileEntry));
 		}).collect(Collectors.toList());
 
-		metadataService.saveMetadata(documentSpaceId, entriesToWriteMetadata, metadata, dashboardUser);
+		metadataService.recordDownloaded(documentSpaceId, entriesToWriteMetadata, new Date(), dashboardUser);
 
 		return s3Objects;
 	}
 	
+	/**
+	 * Works out the S3 key of a file - content addressed files are keyed by their contents rather than by their folder
+	 * @param documentSpaceId document space UUID
+	 * @param folderSpec the folder the file is in
+	 * @param fileEntry the file
+	 * @return the file's S3 key
+	 */
+	private String getFileKey(UUID documentSpaceId, FilePathSpec folderSpec, DocumentSpaceFileSystemEntry fileEntry) {
+		return fileEntry.getContentHash() != null
+				? contentService.getContentKey(fileEntry.getContentHash())
+				: getFolderKeyPrefix(documentSpaceId, folderSpec) + fileEntry.getItemName();
+	}
+
 	private S3Object getS3Object(String key) throws RecordNotFoundException {
-		if (documentSpaceClient.doesObjectExist(bucketName, key)) {
-			return documentSpaceClient.getObject(bucketName, key);
+		return getS3Object(new GetObjectRequest(bucketName, key));
+	}
+
+	/**
+	 * Fetches an object with a single GET rather than checking that it exists first
+	 * @param request the object (and optionally range) to get
+	 * @return the object
+	 * @throws RecordNotFoundException if there is no such object
+	 */
+	private S3Object getS3Object(GetObjectRequest request) throws RecordNotFoundException {
+		try {
+			return documentSpaceClient.getObject(request);
 		}
-		else {
-			throw new RecordNotFoundException("That file does not exist");
+		catch (AmazonS3Exception ex) {
+			if (ex.getStatusCode() == HttpStatus.NOT_FOUND.value()) {
+				throw new RecordNotFoundException("That file does not exist");
+			}
+			throw ex;
 		}
 	}
 
@@ -256,7 +362,7 @@ public class DocumentSpaceServiceImpl implements DocumentSpaceService {
 
 		// Get everything at the relative root path
 		FilePathSpecWithContents contentsAtRelativeRoot = documentSpaceFileSystemService
-				.getFilesAndFoldersAtPath(documentSpaceId, searchPath);
+				.getFolderListing(documentSpaceId, searchPath);
 
 		// Filter only the items that are requested at the relative root path
 		// Then collect items based on folder status
@@ -306,11 +412,10 @@ public class DocumentSpaceServiceImpl implements DocumentSpaceService {
 			entriesToWriteMetadata.addAll(files);
 		}
 
-		// update metadata
-		DocumentMetadata metadata = new DocumentMetadata(new Date());
-		metadataService.saveMetadata(documentSpaceId, entriesToWriteMetadata, metadata, dashboardUser);
-
-		writeZipFile(out, itemsToWrite);
+		// update metadata only once the client has the whole zip
+		if (writeZipFile(out, itemsToWrite)) {
+			metadataService.recordDownloaded(documentSpaceId, entriesToWriteMetadata, new Date(), dashboardUser);
+		}
 	}
 
 	@Override
@@ -357,51 +462,143 @@ public class DocumentSpaceServiceImpl implements DocumentSpaceService {
 		if (filename == null) {
 			throw new BadRequestException("Uploaded file is missing a filename");
 		}
-		
-		MessageDigest md;
-		try {
-			md = MessageDigest.getInstance("MD5");
-		} catch (NoSuchAlgorithmException e1) {
-			throw new IllegalArgumentException("Internal error occurred while uploading file: could not generate checksum value");
+
+		DocumentSpaceFileSystemEntry documentSpaceFile = getUploadableFileEntry(documentSpaceId, filePathSpec.getItemId(), filename);
+		if (contentService.isEnabled()) {
+			uploadContent(documentSpaceId, filePathSpec.getItemId(), documentSpaceFile, prefix, filename, file, metaData, lastModified);
+			return;
 		}
 		
+		MessageDigest md = getMessageDigest("MD5");
+		
 		try (BufferedInputStream bis = new BufferedInputStream(file.getInputStream());
 			 			DigestInputStream dis = new DigestInputStream(bis, md)) {
-			DocumentSpaceFileSystemEntry documentSpaceFile = documentSpaceFileService
-					.getFileInDocumentSpaceFolder(documentSpaceId, filePathSpec.getItemId(), filename).orElse(null);
-
-			// for now we don't allow uploading of a file who has same name/path of an item that
-			//  has archived status... because the archived file system entry and this new one would point to
-			//  the same physical file in S3 bucket, thereby not allowing any restoration of the archived file (since this action could overwrite)
-			if (documentSpaceFile != null && documentSpaceFile.isDeleteArchived()) {
-				throw new ResourceAlreadyExistsException("A file with that name and path is in an archived state, purge archived version if upload is desired");
-			}
-
 			Upload upload = documentSpaceTransferManager.upload(bucketName,prefix + filename, bis, metaData);
 			upload.waitForCompletion();
 			
-			if (documentSpaceFile == null) {
-				documentSpaceFile = DocumentSpaceFileSystemEntry.builder()
-						.documentSpaceId(documentSpaceId)
-						.parentEntryId(filePathSpec.getItemId())
-						.isFolder(false)
-						.itemName(filename)
-						.lastModifiedOn(lastModified)
-						.size(file.getSize())
-						.etag(Hex.encodeHexString(md.digest()))
-						.isDeleteArchived(false)
-						.build();
-			} else {
-				documentSpaceFile.setSize(file.getSize());
-				documentSpaceFile.setLastModifiedOn(lastModified);
-				documentSpaceFile.setEtag(Hex.encodeHexString(md.digest()));
+			saveUploadedFileEntry(documentSpaceId, filePathSpec.getItemId(), documentSpaceFile, filename,
+					file.getSize(), Hex.encodeHexString(md.digest()), lastModified);
+		} catch (IOException | InterruptedException e) { // NOSONAR
+			throw new BadRequestException("Failed retrieving input stream");
+		}
+	}
+
+	/**
+	 * Private helper to upload a file into the content addressed store.  The file is hashed before anything is sent
+	 * to S3, and if the same contents are stored already (by any file, in any space) the upload is skipped entirely.
+	 * @param documentSpaceId document space UUID
+	 * @param parentFolderId the folder the file goes in
+	 * @param documentSpaceFile the file being replaced, null if it's a new file
+	 * @param prefix S3 prefix of the folder the file goes in
+	 * @param filename name of the file
+	 * @param file the uploaded file
+	 * @param metaData S3 metadata to store the contents with (if they need storing)
+	 * @param lastModified last modified date of the file
+	 */
+	private void uploadContent(UUID documentSpaceId, UUID parentFolderId, @Nullable DocumentSpaceFileSystemEntry documentSpaceFile,
+							   String prefix, String filename, MultipartFile file, ObjectMetadata metaData, Date lastModified) {
+		MessageDigest md = getMessageDigest("MD5");
+		MessageDigest sha = getMessageDigest("SHA-256");
+		boolean wasContentAddressed = documentSpaceFile != null && documentSpaceFile.getContentHash() != null;
+
+		String contentHash;
+		try {
+			try (InputStream in = new DigestInputStream(new DigestInputStream(new BufferedInputStream(file.getInputStream()), md), sha)) {
+				in.transferTo(OutputStream.nullOutputStream());
+			}
+			contentHash = Hex.encodeHexString(sha.digest());
+
+			if (!contentService.addReference(contentHash)) {
+				try (BufferedInputStream bis = new BufferedInputStream(file.getInputStream())) {
+					documentSpaceTransferManager.upload(bucketName, contentService.getContentKey(contentHash), bis, metaData)
+							.waitForCompletion();
+				}
+				contentService.addStoredContent(contentHash, file.getSize());
 			}
-			
-			documentSpaceFileService.saveDocumentSpaceFile(documentSpaceFile);
-			documentSpaceFileSystemService.propagateModificationStateToAncestors(documentSpaceFile);
 		} catch (IOException | InterruptedException e) { // NOSONAR
 			throw new BadRequestException("Failed retrieving input stream");
 		}
+
+		try {
+			saveUploadedFileEntry(documentSpaceId, parentFolderId, documentSpaceFile, filename,
+					file.getSize(), Hex.encodeHexString(md.digest()), lastModified, contentHash);
+		} catch (RuntimeException e) {
+			contentService.removeReferences(List.of(contentHash));
+			throw e;
+		}
+
+		// the file it replaced was kept under the folder's prefix, and nothing points there anymore
+		if (documentSpaceFile != null && !wasContentAddressed) {
+			deleteObjects(List.of(prefix + filename));
+		}
+	}
+
+	private static MessageDigest getMessageDigest(String algorithm) {
+		try {
+			return MessageDigest.getInstance(algorithm);
+		} catch (NoSuchAlgorithmException e1) {
+			throw new IllegalArgumentException("Internal error occurred while uploading file: could not generate checksum value");
+		}
+	}
+
+	@Override
+	public DocumentSpaceFileSystemEntry getUploadableFileEntry(UUID documentSpaceId, UUID parentFolderId, String filename) {
+		DocumentSpaceFileSystemEntry documentSpaceFile = documentSpaceFileService
+				.getFileInDocumentSpaceFolder(documentSpaceId, parentFolderId, filename).orElse(null);
+
+		// for now we don't allow uploading of a file who has same name/path of an item that
+		//  has archived status... because the archived file system entry and this new one would point to
+		//  the same physical file in S3 bucket, thereby not allowing any restoration of the archived file (since this action could overwrite)
+		if (documentSpaceFile != null && documentSpaceFile.isDeleteArchived()) {
+			throw new ResourceAlreadyExistsException("A file with that name and path is in an archived state, purge archived version if upload is desired");
+		}
+
+		return documentSpaceFile;
+	}
+
+	@Override
+	public void saveUploadedFileEntry(UUID documentSpaceId, UUID parentFolderId, @Nullable DocumentSpaceFileSystemEntry documentSpaceFile,
+			String filename, long size, String etag, Date lastModified) {
+		saveUploadedFileEntry(documentSpaceId, parentFolderId, documentSpaceFile, filename, size, etag, lastModified, null);
+	}
+
+	/**
+	 * Saves the entry of an uploaded file, dropping the reference the replaced file (if any) had to the content addressed store
+	 * @param contentHash hash of the file's contents if it went into the content addressed store, otherwise null
+	 */
+	private void saveUploadedFileEntry(UUID documentSpaceId, UUID parentFolderId, @Nullable DocumentSpaceFileSystemEntry documentSpaceFile,
+			String filename, long size, String etag, Date lastModified, @Nullable String contentHash) {
+		String replacedContentHash = documentSpaceFile == null ? null : documentSpaceFile.getContentHash();
+		if (documentSpaceFile == null) {
+			documentSpaceFile = DocumentSpaceFileSystemEntry.builder()
+					.documentSpaceId(documentSpaceId)
+					.parentEntryId(parentFolderId)
+					.isFolder(false)
+					.itemName(filename)
+					.lastModifiedOn(lastModified)
+					.size(size)
+					.etag(etag)
+					.contentHash(contentHash)
+					.isDeleteArchived(false)
+					.build();
+		} else {
+			documentSpaceFile.setSize(size);
+			documentSpaceFile.setLastModifiedOn(lastModified);
+			documentSpaceFile.setEtag(etag);
+			documentSpaceFile.setContentHash(contentHash);
+		}
+
+		documentSpaceFileService.saveDocumentSpaceFile(documentSpaceFile);
+		documentSpaceFileSystemService.propagateModificationStateToAncestors(documentSpaceFile);
+
+		if (replacedContentHash != null) {
+			contentService.removeReferences(List.of(replacedContentHash));
+		}
+	}
+
+	@Override
+	public String getFolderKeyPrefix(UUID documentSpaceId, FilePathSpec folderSpec) {
+		return getPathPrefix(documentSpaceId, folderSpec.getFullPathSpec(), folderSpec);
 	}
 
 	@Transactional(dontRollbackOn={RecordNotFoundException.class})
@@ -428,6 +625,11 @@ public class DocumentSpaceServiceImpl implements DocumentSpaceService {
 
 			// touch the file mod date/time
 			documentSpaceFileSystemService.propagateModificationStateToAncestors(documentSpaceFile);
+
+			// content addressed files are keyed by their contents, so there is nothing to rename in S3
+			if (documentSpaceFile.getContentHash() != null) {
+				return;
+			}
 		}
 
 		// copy to new name at the same path
@@ -441,30 +643,19 @@ public class DocumentSpaceServiceImpl implements DocumentSpaceService {
 	}
 
 	/**
-	 * Deletes items - be it folders and/or files - from the currentPath
+	 * Deletes items - be it folders and/or files - from the currentPath.  All the items are looked up
+	 * before anything is deleted, so a missing item fails the whole request.
 	 * @param documentSpaceId document space Id
 	 * @param currentPath current path we're at (e.g. in the UI)
 	 * @param items the items in this current path to delete
+	 * @return the files that could not be removed from S3 (these, and the folders holding them, are kept)
 	 */
 	@Transactional
 	@Override
-	public void deleteItems(UUID documentSpaceId, String currentPath, List<String> items) {
-		for (String item : items) {
-			if (documentSpaceFileSystemService.isFolder(documentSpaceId, currentPath, item)) {
-				documentSpaceFileSystemService.deleteFolder(documentSpaceId, FilenameUtils.concat(currentPath, item));
-			}
-			else {
-				try {
-					this.deleteFile(documentSpaceId, currentPath, item);
-				}
-				catch (RecordNotFoundException ex) {
-					log.warn(String.format("Could not delete file: %s at path %s", currentPath, item));
-
-					// throw so we rollback the operation
-					throw new RecordNotFoundException(String.format("Could not delete file: %s at path %s", currentPath, item));
-				}
-			}
-		}
+	public List<DocumentSpaceItemFailureDto> deleteItems(UUID documentSpaceId, String currentPath, List<String> items) {
+		List<DocumentSpaceItemFailureDto> failures = documentSpaceFileSystemService.deleteElements(documentSpaceId, currentPath, items);
+		failures.forEach(failure -> log.warn("Could not delete {} from document space {}: {}", failure.getPath(), documentSpaceId, failure.getReason()));
+		return failures;
 	}
 
 	/**
@@ -507,9 +698,49 @@ public class DocumentSpaceServiceImpl implements DocumentSpaceService {
 	 * @param dest - the destination path string (including path and final file or folder name)
 	 * @param copy - true if this is a copy operation
 	 */
-	@Transactional
 	@Override
 	public void moveOrCopyFile(UUID destinationSpaceId, UUID sourceSpaceId, String source, String dest, boolean copy) {
+		this.moveOrCopyFile(destinationSpaceId, sourceSpaceId, source, dest, copy, FileTransferProgress.NONE);
+	}
+
+	/**
+	 * Not transactional - copying the objects can take a long while, so the work is split up and only the database
+	 * steps run in (short) transactions:
+	 * <ol>
+	 *     <li>resolve the source and destination and work out what has to be copied</li>
+	 *     <li>copy the objects server side, outside of any transaction</li>
+	 *     <li>write the file system entries - if that fails the copied objects are removed again</li>
+	 *     <li>for a move, delete the original objects once the new entries are committed</li>
+	 * </ol>
+	 */
+	@Override
+	public void moveOrCopyFile(UUID destinationSpaceId, UUID sourceSpaceId, String source, String dest, boolean copy, FileTransferProgress progress) {
+		FileTransferPlan plan = transactionTemplate.execute(status ->
+				planMoveOrCopy(destinationSpaceId, sourceSpaceId, source, dest, copy));
+
+		// folder contents are listed outside of the planning transaction, there could be a lot of them
+		if (plan.getSourcePrefix() != null) {
+			for (String key : listObjectKeys(plan.getSourcePrefix())) {
+				plan.getKeys().put(key, plan.getDestinationKey().apply(key));
+			}
+		}
+
+		copyObjects(plan.getKeys(), progress);
+
+		try {
+			transactionTemplate.executeWithoutResult(status -> plan.getSaveEntries().run());
+		} catch (RuntimeException e) {
+			deleteObjects(new ArrayList<>(plan.getKeys().values()));
+			throw e;
+		}
+
+		// only now that everything is committed in its new home do the originals go away
+		if (!copy) {
+			deleteObjects(new ArrayList<>(plan.getKeys().keySet()));
+		}
+	}
+
+	private FileTransferPlan planMoveOrCopy(UUID destinationSpaceId, UUID sourceSpaceId, String source, String dest, boolean copy) {
 		// first make sure the source file exists and get a handle to its file system entry
 		FilePathSpec sourceSpecification = documentSpaceFileSystemService.parsePathToFilePathSpec(sourceSpaceId, source);
 		DocumentSpaceFileSystemEntry sourceEntry = documentSpaceFileSystemService.getElementByItemId(sourceSpecification.getItemId());
@@ -549,10 +780,10 @@ public class DocumentSpaceServiceImpl implements DocumentSpaceService {
 
 		if (!copy) {
 			// if moving..
-			moveDbItems(destinationSpaceId, sourceEntry, dest, destItemName, sourceSpecification, destinationSpecification, existingElement);
+			return planMove(destinationSpaceId, sourceEntry, destItemName, sourceSpecification, destinationSpecification, existingElement);
 		} else {
 			// if copying...
-			copyDbItems(destinationSpaceId, sourceEntry, destItemName, sourceSpecification, destinationSpecification);
+			return planCopy(destinationSpaceId, sourceEntry, destItemName, sourceSpecification, destinationSpecification);
 		}
 	}
 
@@ -594,15 +825,19 @@ public class DocumentSpaceServiceImpl implements DocumentSpaceService {
 	}
 
 	/**
-	 * Private helper to manage the onerous task of copying db entries and s3 objects for a file/folder COPY operation
+	 * Private helper to manage the onerous task of copying db entries and s3 objects for a file/folder COPY operation.
+	 *
+	 * The physical files are copied first (server side, in parallel) so that a failed or cancelled copy leaves the
+	 * database untouched, then the copied file system entries are inserted in bulk.
 	 * @param destinationSpaceId
 	 * @param sourceEntry
 	 * @param destItemName
 	 * @param sourceSpecification
 	 * @param destinationSpecification
+	 * @return what to copy, and the entries to save once it has been
 	 */
-	private void copyDbItems(UUID destinationSpaceId, DocumentSpaceFileSystemEntry sourceEntry, String destItemName,
-							 FilePathSpec sourceSpecification, FilePathSpec destinationSpecification) {
+	private FileTransferPlan planCopy(UUID destinationSpaceId, DocumentSpaceFileSystemEntry sourceEntry, String destItemName,
+									  FilePathSpec sourceSpecification, FilePathSpec destinationSpecification) {
 
 		// create a new DocumentSpaceFileSystemEntry..
 		DocumentSpaceFileSystemEntry destEntry = new DocumentSpaceFileSystemEntry();
@@ -617,115 +852,221 @@ public class DocumentSpaceServiceImpl implements DocumentSpaceService {
 		destEntry.setDeleteArchived(sourceEntry.isDeleteArchived());
 		destEntry.setSize(sourceEntry.getSize());
 		destEntry.setHasNonArchivedContents(sourceEntry.isHasNonArchivedContents());
-		documentSpaceFileSystemService.saveItem(destEntry);
-
-		// must copy all the db system entries that were attached to the original element
-		// so that we can duplicate everything contained therein (if it had children, e.g. it was a folder) within the filesystem database
-		// IF we don't do this, all our item "copies" contained within the new folder will actually "point" back to the original
-		// file... so basically have two file system entries pointing to the same physical file - which is no bueno
-		documentSpaceFileSystemService.duplicateFileSystemEntryTree(destinationSpaceId, sourceEntry, destEntry.getItemId());
 
-		// done with the db mayhem, now for the S3, physical file stuff
+		FileTransferPlan plan = new FileTransferPlan();
 		if (!sourceEntry.isFolder()) {
-			// since there is no "rename" feature where we can just renamed a key or a portion of a key we must...
-			// get the S3 object and change its prefix/key by COPYING it to new home - then deleting the old
-			CopyObjectRequest copyObjRequest = new CopyObjectRequest(
-					bucketName,
-					sourceSpecification.getDocSpaceQualifiedFilePath(),
-					bucketName,
-					destinationSpecification.getDocSpaceQualifiedPath() + destItemName);
-
-			documentSpaceClient.copyObject(copyObjRequest);
-		} else {
-			// if its a folder, little more complicated - we need to copy all the elements with a same
-			// prefix to the new prefix
-			ListObjectsV2Request request = new ListObjectsV2Request()
-					.withBucketName(bucketName)
-					.withPrefix(sourceSpecification.getDocSpaceQualifiedPath());
+			if (sourceEntry.getContentHash() != null) {
+				// content addressed files only need another reference to the same contents
+				destEntry.setContentHash(sourceEntry.getContentHash());
+				plan.setSaveEntries(() -> {
+					documentSpaceFileSystemService.saveItem(destEntry);
+					contentService.addReferences(List.of(sourceEntry.getContentHash()));
+				});
+				return plan;
+			}
 
-			ListObjectsV2Result items = documentSpaceClient.listObjectsV2(request);
-			for (val item : items.getObjectSummaries()) {
+			plan.getKeys().put(sourceSpecification.getDocSpaceQualifiedFilePath(),
+					destinationSpecification.getDocSpaceQualifiedPath() + destItemName);
+			plan.setSaveEntries(() -> documentSpaceFileSystemService.saveItem(destEntry));
+			return plan;
+		}
 
-				FilePathSpec spec = documentSpaceFileSystemService.convertFileSystemEntityToFilePathSpec(destEntry);
+		// must copy all the db system entries that were attached to the original element
+		// so that we can duplicate everything contained therein within the filesystem database
+		// IF we don't do this, all our item "copies" contained within the new folder will actually "point" back to the original
+		// file... so basically have two file system entries pointing to the same physical file - which is no bueno
+		Map<UUID, DocumentSpaceFileSystemEntry> copiedEntries = documentSpaceFileSystemService
+				.cloneFileSystemEntryTree(destinationSpaceId, sourceEntry, destEntry.getItemId());
+
+		// folders are keyed in S3 by their item ids, so every sub folder in a copied key has to be swapped for its copy's id
+		//  (content addressed files aren't under the folder's prefix so they aren't listed, their copies just add references)
+		String sourcePrefix = sourceSpecification.getDocSpaceQualifiedPath();
+		String destPrefix = destinationSpecification.getDocSpaceQualifiedPath() + destEntry.getItemId() + DocumentSpaceFileSystemServiceImpl.PATH_SEP;
+		plan.setSourcePrefix(sourcePrefix);
+		plan.setDestinationKey(key -> destPrefix + remapFolderIds(key.substring(sourcePrefix.length()), copiedEntries));
+
+		List<String> contentHashes = copiedEntries.values().stream()
+				.map(DocumentSpaceFileSystemEntry::getContentHash)
+				.filter(Objects::nonNull)
+				.collect(Collectors.toList());
 
-				// formulate the copy request to copy the existing key in S3
-				CopyObjectRequest copyObjRequest = new CopyObjectRequest(
-						bucketName,
-						item.getKey(),
-						bucketName,
-						spec.getDocSpaceQualifiedPath() + item.getKey().replaceFirst(sourceSpecification.getDocSpaceQualifiedPath(), ""));
+		plan.setSaveEntries(() -> {
+			documentSpaceFileSystemService.saveItem(destEntry);
+			documentSpaceFileSystemService.insertItems(copiedEntries.values());
 
-				documentSpaceClient.copyObject(copyObjRequest);
+			if (!contentHashes.isEmpty()) {
+				contentService.addReferences(contentHashes);
 			}
-		}
+		});
+		return plan;
 	}
 
 	/**
-	 * Private helper to manage the onerous task of moving db entries and s3 objects for a file/folder MOVE operation
+	 * Private helper to manage the onerous task of moving db entries and s3 objects for a file/folder MOVE operation.
+	 *
+	 * The physical files are copied to their new keys first, then the file system entries are re-homed, and the
+	 * originals are only removed from S3 once all that has been committed.
 	 * @param destinationSpaceId
 	 * @param sourceEntry
 	 * @param destItemName
 	 * @param sourceSpecification
 	 * @param destinationSpecification
 	 * @param existingElement
+	 * @return what to copy, and the entries to update once it has been
 	 */
-	private void moveDbItems(UUID destinationSpaceId, DocumentSpaceFileSystemEntry sourceEntry, String destinationPath, String destItemName,
-							 FilePathSpec sourceSpecification, FilePathSpec destinationSpecification, Optional<DocumentSpaceFileSystemEntry> existingElement) {
+	private FileTransferPlan planMove(UUID destinationSpaceId, DocumentSpaceFileSystemEntry sourceEntry, String destItemName,
+									  FilePathSpec sourceSpecification, FilePathSpec destinationSpecification,
+									  Optional<DocumentSpaceFileSystemEntry> existingElement) {
 
 		// change the source element's parent Id to its new home (effectively "deleting" it from its old location in the db)
 		// update the db file system entry with new parent/new name
 		if (existingElement.isPresent()) {
-			// moving over existing item... delete the existing entry first from the database
+			// moving over existing item... delete it first, its objects may share the keys being copied to
 			this.deleteItems(destinationSpaceId, destinationSpecification.getFullPathSpec(), Lists.newArrayList(destItemName));
 		}
 
-		// must modify all the db system entries that were attached to the original element
-		// to have the document space of the destination as their owning document space now...
-		// otherwise we'll orphan everything that was underneath destEntry
-		documentSpaceFileSystemService.moveFileSystemEntryTree(destinationSpaceId, sourceEntry, sourceEntry.getItemId());
+		// since there is no "rename" feature where we can just renamed a key or a portion of a key we must...
+		// get the S3 object(s) and change the prefix/key by COPYING to the new home - then deleting the old
+		//  (content addressed files are keyed by their contents, so they never move in S3)
+		FileTransferPlan plan = new FileTransferPlan();
+		if (!sourceEntry.isFolder()) {
+			if (sourceEntry.getContentHash() == null) {
+				plan.getKeys().put(sourceSpecification.getDocSpaceQualifiedFilePath(), destinationSpecification.getDocSpaceQualifiedPath() + destItemName);
+			}
+		} else {
+			// a folder keeps its item id when moved, so its contents just need the new prefix
+			String sourcePrefix = sourceSpecification.getDocSpaceQualifiedPath();
+			String destPrefix = destinationSpecification.getDocSpaceQualifiedPath() + sourceEntry.getItemId() + DocumentSpaceFileSystemServiceImpl.PATH_SEP;
+
+			// renaming a folder in place doesn't change any keys
+			if (!sourcePrefix.equals(destPrefix)) {
+				plan.setSourcePrefix(sourcePrefix);
+				plan.setDestinationKey(key -> destPrefix + key.substring(sourcePrefix.length()));
+			}
+		}
 
-		// reparent the top-level item of the move (change its parent and document space id [may or may not have changed])
-		sourceEntry.setDocumentSpaceId(destinationSpaceId);
-		sourceEntry.setParentEntryId(destinationSpecification.getItemId());
-		sourceEntry.setItemName(destItemName);
-		documentSpaceFileSystemService.saveItem(sourceEntry);
+		plan.setSaveEntries(() -> {
+			// must modify all the db system entries that were attached to the original element
+			// to have the document space of the destination as their owning document space now...
+			// otherwise we'll orphan everything that was underneath destEntry
+			documentSpaceFileSystemService.moveFileSystemEntryTree(destinationSpaceId, sourceEntry, sourceEntry.getItemId());
+
+			// reparent the top-level item of the move (change its parent and document space id [may or may not have changed])
+			sourceEntry.setDocumentSpaceId(destinationSpaceId);
+			sourceEntry.setParentEntryId(destinationSpecification.getItemId());
+			sourceEntry.setItemName(destItemName);
+			documentSpaceFileSystemService.saveItem(sourceEntry);
+		});
+		return plan;
+	}
 
-		if (!sourceEntry.isFolder()) {
-			// since there is no "rename" feature where we can just renamed a key or a portion of a key we must...
-			// get the S3 object and change its prefix/key by COPYING it to new home - then deleting the old
-			CopyObjectRequest copyObjRequest = new CopyObjectRequest(
-					bucketName,
-					sourceSpecification.getDocSpaceQualifiedFilePath(),
-					bucketName,
-					destinationSpecification.getDocSpaceQualifiedPath() + destItemName);
+	/**
+	 * The S3 objects a move or copy has to copy (source key to destination key), and the file system
+	 * entries to write once they have been
+	 */
+	@Getter
+	@Setter
+	private static class FileTransferPlan {
+		private final Map<String, String> keys = new LinkedHashMap<>();
+
+		/**
+		 * For a folder, the prefix its contents are listed from - each listed key is mapped with {@link #destinationKey}
+		 */
+		private String sourcePrefix;
+		private UnaryOperator<String> destinationKey;
+
+		private Runnable saveEntries;
+	}
 
-			documentSpaceClient.copyObject(copyObjRequest);
-			documentSpaceClient.deleteObject(new DeleteObjectRequest(bucketName, sourceSpecification.getDocSpaceQualifiedFilePath()));
-		} else {
-			// if its a folder, little more complicated - we need to copy all the elements with a same
-			// prefix to the new prefix
-			ListObjectsV2Request request = new ListObjectsV2Request()
-					.withBucketName(bucketName)
-					.withPrefix(sourceSpecification.getDocSpaceQualifiedPath());
-
-			ListObjectsV2Result items = documentSpaceClient.listObjectsV2(request);
-			for (val item : items.getObjectSummaries()) {
-
-				FilePathSpec spec = documentSpaceFileSystemService.parsePathToFilePathSpec(destinationSpaceId, destinationPath);
-
-				// formulate the copy request to copy the existing key in S3
-				CopyObjectRequest copyObjRequest = new CopyObjectRequest(
-						bucketName,
-						item.getKey(),
-						bucketName,
-						spec.getDocSpaceQualifiedPath() + item.getKey().replaceFirst(sourceSpecification.getDocSpaceQualifiedPath(), ""));
-
-				documentSpaceClient.copyObject(copyObjRequest);
-				documentSpaceClient.deleteObject(new DeleteObjectRequest(bucketName, item.getKey()));
+	/**
+	 * Lists every object key under the given prefix, following continuation tokens
+	 */
+	private List<String> listObjectKeys(String prefix) {
+		List<String> keys = new ArrayList<>();
+		ListObjectsV2Request request = new ListObjectsV2Request()
+				.withBucketName(bucketName)
+				.withPrefix(prefix);
+
+		ListObjectsV2Result result;
+		do {
+			result = documentSpaceClient.listObjectsV2(request);
+			result.getObjectSummaries().forEach(item -> keys.add(item.getKey()));
+			request.setContinuationToken(result.getNextContinuationToken());
+		} while (result.isTruncated());
+
+		return keys;
+	}
+
+	/**
+	 * Swaps each folder id in a key (relative to the folder being copied) with the id of that folder's copy
+	 */
+	private static String remapFolderIds(String relativeKey, Map<UUID, DocumentSpaceFileSystemEntry> copiedEntries) {
+		String[] parts = relativeKey.split(DocumentSpaceFileSystemServiceImpl.PATH_SEP, -1);
+
+		// the last part is the file's name, everything before it is a folder id
+		for (int i = 0; i < parts.length - 1; i++) {
+			try {
+				DocumentSpaceFileSystemEntry copiedFolder = copiedEntries.get(UUID.fromString(parts[i]));
+				if (copiedFolder != null) {
+					parts[i] = copiedFolder.getItemId().toString();
+				}
+			} catch (IllegalArgumentException e) {  // NOSONAR - not a folder id, leave it be
+			}
+		}
+
+		return String.join(DocumentSpaceFileSystemServiceImpl.PATH_SEP, parts);
+	}
+
+	/**
+	 * Copies objects within the bucket server side.  Copies go through the transfer manager so they run in parallel
+	 * on its bounded thread pool (and big objects are copied as multipart copies), a batch at a time so the
+	 * progress can be reported and cancellation checked in between.  If anything goes wrong, whatever was
+	 * already copied is removed again.
+	 * @param keys map of source key to destination key
+	 * @param progress progress listener
+	 */
+	private void copyObjects(Map<String, String> keys, FileTransferProgress progress) {
+		progress.onObjectsFound(keys.size());
+
+		List<String> copiedKeys = new ArrayList<>();
+		try {
+			for (List<Map.Entry<String, String>> batch : Iterables.partition(keys.entrySet(), COPY_BATCH_SIZE)) {
+				if (progress.isCancelled()) {
+					throw new CancellationException("Copy was cancelled");
+				}
+
+				List<Copy> copies = new ArrayList<>();
+				for (Map.Entry<String, String> key : batch) {
+					copies.add(documentSpaceTransferManager.copy(new CopyObjectRequest(bucketName, key.getKey(), bucketName, key.getValue())));
+				}
+
+				for (int i = 0; i < copies.size(); i++) {
+					copies.get(i).waitForCompletion();
+					copiedKeys.add(batch.get(i).getValue());
+				}
+
+				progress.onObjectsCopied(batch.size());
 			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			deleteObjects(copiedKeys);
+			throw new CancellationException("Copy was interrupted");
+		} catch (RuntimeException e) {
+			deleteObjects(copiedKeys);
+			throw e;
 		}
 	}
 
+	/**
+	 * Removes objects, logging any that could not be deleted
+	 */
+	private void deleteObjects(List<String> keys) {
+		if (keys.isEmpty()) return;
+
+		List<DeleteError> errors = deleteS3Objects(keys);
+		errors.forEach(error -> log.warn("Could not delete {}: {}", error.getKey(), error.getMessage()));
+	}
+
 	@Override
 	public void archiveItem(UUID documentSpaceId, UUID parentFolderId, String name) {
 		FilePathSpec filePathSpec = documentSpaceFileSystemService.getFilePathSpec(documentSpaceId, parentFolderId);
@@ -735,9 +1076,7 @@ public class DocumentSpaceServiceImpl implements DocumentSpaceService {
 	@Transactional
 	@Override
 	public void archiveItems(UUID documentSpaceId, String currentPath, List<String> items) {
-		for (String item : items) {
-			documentSpaceFileSystemService.archiveElement(documentSpaceId, currentPath, item);
-		}
+		documentSpaceFileSystemService.archiveElements(documentSpaceId, currentPath, items);
 	}
 
 	@Transactional
@@ -761,6 +1100,12 @@ public class DocumentSpaceServiceImpl implements DocumentSpaceService {
 		} else {
 			documentSpaceFileService.deleteDocumentSpaceFile(documentSpaceFile);
 			documentSpaceFileSystemService.propagateModificationStateToAncestors(documentSpaceFile);
+
+			// content addressed contents are only deleted once nothing references them
+			if (documentSpaceFile.getContentHash() != null) {
+				contentService.removeReferences(List.of(documentSpaceFile.getContentHash()));
+				return;
+			}
 		}
 		
 		String fileKey = prefix + file;
@@ -779,6 +1124,12 @@ public class DocumentSpaceServiceImpl implements DocumentSpaceService {
 		} else {
 			documentSpaceFileService.deleteDocumentSpaceFile(documentSpaceFile);
 			documentSpaceFileSystemService.propagateModificationStateToAncestors(documentSpaceFile);
+
+			// content addressed contents are only deleted once nothing references them
+			if (documentSpaceFile.getContentHash() != null) {
+				contentService.removeReferences(List.of(documentSpaceFile.getContentHash()));
+				return;
+			}
 		}
 		
 		this.deleteS3ObjectByKey(getPathPrefix(documentSpaceId, filePathSpec.getFullPathSpec(), filePathSpec) + filename);
@@ -825,6 +1176,55 @@ public class DocumentSpaceServiceImpl implements DocumentSpaceService {
 		return new ArrayList<>();
 	}
 
+	/**
+	 * Deletes any number of S3 objects.  The keys are split into multi-object deletes (S3 takes up to
+	 * 1000 keys per request) which are sent in parallel.  A request that fails outright has all of its
+	 * keys reported back as errors rather than failing the others.
+	 * @param objKeys the object keys to delete
+	 * @return the keys that failed to be deleted from S3 or an empty list if no errors
+	 */
+	@Override
+	public List<DeleteError> deleteS3Objects(Collection<String> objKeys) {
+		List<List<String>> batches = new ArrayList<>();
+		Iterables.partition(objKeys, DELETE_BATCH_SIZE).forEach(batches::add);
+
+		List<Future<List<DeleteError>>> deletes = new ArrayList<>();
+		for (List<String> batch : batches) {
+			Callable<List<DeleteError>> delete = () -> deleteS3ObjectsByKey(batch.toArray(String[]::new));
+			try {
+				deletes.add(deleteExecutor.submit(delete));
+			} catch (TaskRejectedException ex) {
+				// every delete thread is busy and the queue is full, so send this batch from the calling thread
+				FutureTask<List<DeleteError>> inline = new FutureTask<>(delete);
+				inline.run();
+				deletes.add(inline);
+			}
+		}
+
+		List<DeleteError> errors = new ArrayList<>();
+		try {
+			for (int i = 0; i < deletes.size(); i++) {
+				try {
+					errors.addAll(deletes.get(i).get());
+				} catch (ExecutionException ex) {
+					log.warn("Multi-object delete failed", ex.getCause());
+					for (String key : batches.get(i)) {
+						DeleteError error = new DeleteError();
+						error.setKey(key);
+						error.setMessage(ex.getCause().getMessage());
+						errors.add(error);
+					}
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			deletes.forEach(delete -> delete.cancel(true));
+			throw new CancellationException("Delete was interrupted");
+		}
+
+		return errors;
+	}
+
 	@Transactional
 	@Override
 	public FilePathSpec createFolder(UUID documentSpaceId, String path, String name) {
@@ -837,26 +1237,26 @@ public class DocumentSpaceServiceImpl implements DocumentSpaceService {
 		return documentSpaceFileSystemService.getFilesAndFoldersAtPath(documentSpaceId, path);
 	}
 
+	@Override
+	public FilePathSpecWithContents getFolderContents(UUID documentSpaceId, String path, FolderListingOptions options) {
+		return documentSpaceFileSystemService.getFilesAndFoldersAtPath(documentSpaceId, path, options);
+	}
+
 	@Override
 	public List<DocumentDto> getArchivedContents(UUID documentSpaceId) {
 		return documentSpaceFileSystemService.getArchivedItems(documentSpaceId);
 	}
 
 	@Override
-	public List<DocumentDto> getAllArchivedContentsForAuthUser(Principal principal) {
-		List<DocumentSpaceResponseDto> accessibleSpaces = this.listSpaces(principal.getName());
-		List<DocumentDto> archivedItemsList = new ArrayList<>();
-		for (DocumentSpaceResponseDto space : accessibleSpaces) {
-			List<DocumentDto> archivedItems = this.getArchivedContents(space.getId());
-			for (DocumentDto dto : archivedItems) {
-
-				// add space name to the return data
-				dto.setSpaceName(space.getName());
-			}
-			archivedItemsList.addAll(archivedItems);
-		}
+	public Page<DocumentDto> getAllArchivedContentsForAuthUser(Principal principal, Pageable pageable) {
+		Map<UUID, String> spaceNames = this.listSpaces(principal.getName()).stream()
+				.collect(Collectors.toMap(DocumentSpaceResponseDto::getId, DocumentSpaceResponseDto::getName));
+
+		Page<DocumentDto> archivedItems = documentSpaceFileSystemService.getArchivedItems(spaceNames.keySet(), pageable);
 
-		return archivedItemsList;
+		// add space name to the return data
+		archivedItems.forEach(dto -> dto.setSpaceName(spaceNames.get(UUID.fromString(dto.getSpaceId()))));
+		return archivedItems;
 	}
 
 	/**
@@ -920,43 +1320,58 @@ public class DocumentSpaceServiceImpl implements DocumentSpaceService {
 
 	@Override
 	public void downloadAllInSpaceAndCompress(UUID documentSpaceId, OutputStream out) throws RecordNotFoundException {
+		writeArchive(documentSpaceId, DocumentSpaceFileSystemServiceImpl.PATH_SEP, out);
+	}
+
+	@Override
+	public boolean writeArchive(UUID documentSpaceId, String path, OutputStream out) throws RecordNotFoundException {
 		// dump all files and folders at this path and down
-		FileSystemElementTree contentsAtPath = documentSpaceFileSystemService.dumpElementTree(documentSpaceId, DocumentSpaceFileSystemServiceImpl.PATH_SEP, false);
+		FileSystemElementTree contentsAtPath = documentSpaceFileSystemService.dumpElementTree(documentSpaceId, path, false);
 		// flatten the tree
 		List<S3ObjectAndFilename> objects = documentSpaceFileSystemService.flattenTreeToS3ObjectAndFilenameList(contentsAtPath);
-		writeZipFile(out, objects);
+		return writeZipFile(out, objects);
 	}
 
 	/**
 	 * Private helper to write items to a zip file output stream
 	 * @param out outstream
 	 * @param objects list of S3ObjectAndFilename objects
+	 * @return true if every item made it into the zip
 	 */
-	private void writeZipFile(OutputStream out, List<S3ObjectAndFilename> objects) {
+	private boolean writeZipFile(OutputStream out, List<S3ObjectAndFilename> objects) {
+		boolean complete = true;
 		try (BufferedOutputStream bos = new BufferedOutputStream(out);
 			 ZipOutputStream zipOut = new ZipOutputStream(bos)) {
 
-			objects.forEach(item -> {
+			for (S3ObjectAndFilename item : objects) {
 				// add item to zip - creating the expected folder structure as we do
 				//  ensure zip folder entries do not have a leading slash since that creates warnings on
 				//  unzip on some systems - signature of possible zip-slip exploit
 				ZipEntry entry = new ZipEntry(item.getPathAndFileNameWithoutLeadingSlash());
-				S3Object object = documentSpaceClient.getObject(bucketName, item.getS3Object().getKey());
+				S3ObjectSummary summary = item.getS3Object();
+				S3Object object = documentSpaceClient.getObject(bucketName, summary instanceof ContentObjectSummary
+						? ((ContentObjectSummary) summary).getContentKey()
+						: summary.getKey());
 
 				// workaround to get our zip entries to stay in UTC time, otherwise according to its javadoc (and confirmed it does)
 				//  it will coerce given last modification date to the systems default... which SHOULD be UTC on the servers
 				//  but here we make sure and it helps too on dev machines
 				LocalDateTime ldt;
-				try {
-					ldt = new Date(Long.parseLong(object.getObjectMetadata()
-							.getUserMetadata()
-							.get("lastModified")))
-							.toInstant()
-							.atZone(ZoneOffset.UTC)
-							.toLocalDateTime();
-				} catch (Exception e) { //NOSONAR
-					// catch any thing that goes wrong getting metadata (i.e. doesnt exist, format wrong, etc)
-					ldt = object.getObjectMetadata().getLastModified().toInstant().atZone(ZoneOffset.UTC).toLocalDateTime();
+				if (summary instanceof ContentObjectSummary && summary.getLastModified() != null) {
+					// content addressed objects are shared, so the file's own date comes from its entry
+					ldt = summary.getLastModified().toInstant().atZone(ZoneOffset.UTC).toLocalDateTime();
+				} else {
+					try {
+						ldt = new Date(Long.parseLong(object.getObjectMetadata()
+								.getUserMetadata()
+								.get("lastModified")))
+								.toInstant()
+								.atZone(ZoneOffset.UTC)
+								.toLocalDateTime();
+					} catch (Exception e) { //NOSONAR
+						// catch any thing that goes wrong getting metadata (i.e. doesnt exist, format wrong, etc)
+						ldt = object.getObjectMetadata().getLastModified().toInstant().atZone(ZoneOffset.UTC).toLocalDateTime();
+					}
 				}
 
 				entry.setTimeLocal(ldt);
@@ -968,12 +1383,16 @@ public class DocumentSpaceServiceImpl implements DocumentSpaceService {
 					object.close();
 				} catch (IOException e) {
 					log.warn("Failed to compress file: " + item.getPathAndFilename());
+					complete = false;
 				}
-			});
+			}
 			zipOut.finish();
 		} catch (IOException e1) {
 			log.warn("Failure occurred closing zip output stream");
+			complete = false;
 		}
+
+		return complete;
 	}
 
 	/**
@@ -1019,6 +1438,19 @@ public class DocumentSpaceServiceImpl implements DocumentSpaceService {
 			}
 		} while (hasNext);
 
+		// content addressed files aren't kept under the folder's prefix, so they come from the database instead
+		for (DocumentSpaceFileSystemEntry entry : documentSpaceFileService.getContentAddressedFilesInFolder(documentSpaceId, spec.getItemId())) {
+			if (includeArchived || !entry.isDeleteArchived()) {
+				ContentObjectSummary summary = new ContentObjectSummary(bucketName,
+						spec.getDocSpaceQualifiedPath() + entry.getItemName(),
+						contentService.getContentKey(entry.getContentHash()));
+				summary.setSize(entry.getSize());
+				summary.setETag(entry.getEtag());
+				summary.setLastModified(entry.getLastModifiedOn() != null ? entry.getLastModifiedOn() : entry.getCreatedOn());
+				files.add(summary);
+			}
+		}
+
 		return files;
 	}
 
@@ -1070,62 +1502,112 @@ public class DocumentSpaceServiceImpl implements DocumentSpaceService {
 		documentSpaceRepository.save(documentSpace);
 	}
 
-	private void batchAddDashboardUserToDocumentSpace(DocumentSpace documentSpace, Set<DocumentSpaceDashboardMemberRequestDto> documentSpaceDashboardMemberDto) {
-
-		Set<DashboardUser> dashBoardUsers = documentSpaceDashboardMemberDto.stream().map(member -> {
-				List<DocumentSpacePrivilegeType> privilegeTypes = this.mapToPrivilegeTypes(member.getPrivileges());
-				// always add read permission
-				privilegeTypes.add(DocumentSpacePrivilegeType.READ);
-				return documentSpacePrivilegeService.createDashboardUserWithPrivileges(member.getEmail(), documentSpace,
-						privilegeTypes);
+	/**
+	 * Adds a chunk of already validated csv members to a document space.  Existing dashboard users are looked
+	 * up all at once, the missing ones are created together, and memberships and privileges are written with
+	 * multi-row inserts rather than an entity update per member.
+	 */
+	private void batchAddDashboardUserToDocumentSpace(UUID documentSpaceId,
+													  Map<DocumentSpacePrivilegeType, UUID> documentSpacePrivilegeIds,
+													  Privilege dashboardUserPrivilege,
+													  @Nullable Privilege documentSpaceUserPrivilege,
+													  Collection<DocumentSpaceDashboardMemberRequestDto> members) {
+		if (members.isEmpty()) return;
+
+		Map<String, DashboardUser> existingUsers = dashboardUserRepository.findAllByEmailAsLowerIn(members.stream()
+					.map(member -> member.getEmail().toLowerCase())
+					.collect(Collectors.toSet()))
+				.stream()
+				.collect(Collectors.toMap(user -> user.getEmail().toLowerCase(), user -> user));
+
+		List<DashboardUser> newUsers = new ArrayList<>();
+		List<UUID> usersMissingDocumentSpacePrivilege = new ArrayList<>();
+		Map<DocumentSpacePrivilegeType, List<UUID>> userIdsByPrivilege = new EnumMap<>(DocumentSpacePrivilegeType.class);
+
+		for (DocumentSpaceDashboardMemberRequestDto member : members) {
+			DashboardUser dashboardUser = existingUsers.get(member.getEmail().toLowerCase());
+			if (dashboardUser == null) {
+				dashboardUser = DashboardUser.builder().email(member.getEmail()).build();
+				dashboardUser.addPrivilege(dashboardUserPrivilege);
+				if (documentSpaceUserPrivilege != null) {
+					dashboardUser.addPrivilege(documentSpaceUserPrivilege);
 				}
-		).collect(Collectors.toSet());
+				newUsers.add(dashboardUser);
+			} else if (documentSpaceUserPrivilege != null && dashboardUser.getPrivileges().stream()
+					.noneMatch(privilege -> privilege.getId().equals(documentSpaceUserPrivilege.getId()))) {
+				usersMissingDocumentSpacePrivilege.add(dashboardUser.getId());
+			}
 
-		dashBoardUsers.forEach(documentSpace::addDashboardUser);
+			// higher privileges bring the lower ones with them, and everyone gets READ
+			List<DocumentSpacePrivilegeType> privilegeTypes = this.mapToPrivilegeTypes(member.getPrivileges());
+			Set<DocumentSpacePrivilegeType> granted = EnumSet.of(DocumentSpacePrivilegeType.READ);
+			if (privilegeTypes.contains(DocumentSpacePrivilegeType.MEMBERSHIP)) {
+				granted.add(DocumentSpacePrivilegeType.MEMBERSHIP);
+				granted.add(DocumentSpacePrivilegeType.WRITE);
+			} else if (privilegeTypes.contains(DocumentSpacePrivilegeType.WRITE)) {
+				granted.add(DocumentSpacePrivilegeType.WRITE);
+			}
 
-		documentSpaceRepository.save(documentSpace);
+			UUID dashboardUserId = dashboardUser.getId();
+			granted.forEach(type -> userIdsByPrivilege.computeIfAbsent(type, t -> new ArrayList<>()).add(dashboardUserId));
+		}
+
+		List<UUID> dashboardUserIds = new ArrayList<>(existingUsers.size() + newUsers.size());
+		existingUsers.values().forEach(user -> dashboardUserIds.add(user.getId()));
+		newUsers.forEach(user -> dashboardUserIds.add(user.getId()));
+
+		dashboardUserRepository.insertAll(newUsers);
+		if (documentSpaceUserPrivilege != null) {
+			dashboardUserRepository.insertPrivileges(documentSpaceUserPrivilege.getId(), usersMissingDocumentSpacePrivilege);
+		}
+		dashboardUserRepository.insertDocumentSpaceMemberships(documentSpaceId, dashboardUserIds);
+
+		// clear out anything left over from a previous membership before granting
+		dashboardUserRepository.deleteDocumentSpacePrivileges(documentSpacePrivilegeIds.values(), dashboardUserIds);
+		userIdsByPrivilege.forEach((type, userIds) ->
+				dashboardUserRepository.insertDocumentSpacePrivileges(documentSpacePrivilegeIds.get(type), userIds));
 	}
 
+	@Transactional
 	@Override
 	public void removeDashboardUserFromDocumentSpace(UUID documentSpaceId, String[] emails) throws RecordNotFoundException {
 
-		List<String> trimmedEmails = Arrays.stream(emails)
-				.map(item -> item != null ? item.trim() : null)
-				.collect(Collectors.toList());
+		Set<String> emailsAsLower = Arrays.stream(emails)
+				.filter(Objects::nonNull)
+				.map(item -> item.trim().toLowerCase())
+				.collect(Collectors.toSet());
 
 		DocumentSpace documentSpace = getDocumentSpaceOrElseThrow(documentSpaceId);
+		List<UUID> documentSpacePrivilegeIds = documentSpace.getPrivileges().values().stream()
+				.map(DocumentSpacePrivilege::getId)
+				.collect(Collectors.toList());
 
-		for (String email : trimmedEmails) {
-			DashboardUser dashboardUser = dashboardUserService.getDashboardUserByEmailAsLower(email);
+		Optional<Privilege> documentSpaceGlobalPrivilege = privilegeRepository.findByName(DOCUMENT_SPACE_USER_PRIVILEGE);
+		if (documentSpaceGlobalPrivilege.isEmpty()) {
+			log.error(String.format(
+					"Could not remove Global Document Space Privilege (%s) from user because it is is missing",
+					DOCUMENT_SPACE_USER_PRIVILEGE));
+		}
+		Optional<Privilege> dashboardUserPrivilege = privilegeRepository.findByName(DASHBOARD_USER_PRIV);
 
-			if (dashboardUser == null) {
+		// the users are removed a chunk at a time with a few set based statements per chunk, rather than
+		//  loading and saving each one
+		for (List<String> chunk : Iterables.partition(emailsAsLower, MEMBER_CHUNK_SIZE)) {
+			List<UUID> dashboardUserIds = dashboardUserRepository.findAllIdsByEmailAsLowerIn(chunk);
+			if (dashboardUserIds.isEmpty()) {
 				continue;
 			}
 
-			documentSpacePrivilegeService.removePrivilegesFromDashboardUser(dashboardUser, documentSpace);
-
-			documentSpace.removeDashboardUser(dashboardUser);
-
-			Set<Privilege> privileges = dashboardUser.getPrivileges();
+			dashboardUserRepository.deleteDocumentSpacePrivileges(documentSpacePrivilegeIds, dashboardUserIds);
+			dashboardUserRepository.deleteDocumentSpaceMemberships(documentSpaceId, dashboardUserIds);
 
-			if (dashboardUser.getDocumentSpaces().isEmpty()) {
-				Optional<Privilege> documentSpaceGlobalPrivilege = privilegeRepository.findByName(DOCUMENT_SPACE_USER_PRIVILEGE);
-				documentSpaceGlobalPrivilege.ifPresentOrElse(
-						dashboardUser::removePrivilege,
-						() -> log.error(String.format(
-								"Could not remove Global Document Space Privilege (%s) from user because it is is missing",
-								DOCUMENT_SPACE_USER_PRIVILEGE)));
-			}
-
-			if (privileges.size() == 1) {
-				Optional<Privilege> first = privileges.stream().findFirst();
-				if (first.isPresent() && first.get().getName().equals(DASHBOARD_USER_PRIV)) {
-					dashboardUserService.deleteDashboardUser(dashboardUser.getId());
-				}
-			}
+			// users no longer in any space lose the global privilege, and those left with nothing
+			//  but DASHBOARD_USER are deleted altogether
+			documentSpaceGlobalPrivilege.ifPresent(privilege ->
+					dashboardUserRepository.deletePrivilegeFromNonMembers(privilege.getId(), dashboardUserIds));
+			dashboardUserPrivilege.ifPresent(privilege ->
+					dashboardUserRepository.deleteAllHavingOnlyPrivilege(privilege.getId(), dashboardUserIds));
 		}
-		
-		documentSpaceRepository.save(documentSpace);
 	}
 
 	@Override
@@ -1192,45 +1674,113 @@ public class DocumentSpaceServiceImpl implements DocumentSpaceService {
 		return dashboardUserDocumentSpacePrivileges;
 	}
 
+	@Transactional
 	@Override
 	public List<String> batchAddDashboardUserToDocumentSpace(UUID documentSpaceId, MultipartFile file) {
 
-		Set<DocumentSpaceDashboardMemberRequestDto> membersToAdd = new HashSet<>();
 		List<String> errorList = new ArrayList<>();
+		Set<String> emailsToAdd = new HashSet<>();
 
 		DocumentSpace documentSpace = getDocumentSpaceOrElseThrow(documentSpaceId);
-		Set<String> membersInSpace = documentSpace.getDashboardUsers().stream().map(DashboardUser::getEmail).collect(Collectors.toSet());
 
-		try (CSVReader csvReader = new CSVReader(new InputStreamReader(file.getInputStream()))) {
-
-			List<String[]> strings = csvReader.readAll();
-			for (int i = 0; i < strings.size(); i++) {
+		// first pass only validates the csv, nothing is added unless the whole file is valid
+		readCsvInChunks(file, (firstRow, rows) -> {
+			Set<String> candidateEmails = rows.stream()
+					.filter(row -> row.length > 0)
+					.map(row -> row[0].trim().toLowerCase())
+					.filter(email -> !email.isEmpty())
+					.collect(Collectors.toSet());
+			Set<String> membersInSpace = candidateEmails.isEmpty()
+					? Collections.emptySet()
+					: dashboardUserRepository.findDocumentSpaceMemberEmailsAsLower(documentSpaceId, candidateEmails);
+
+			for (int j = 0; j < rows.size(); j++) {
+				int i = firstRow + j;
+				String[] row = rows.get(j);
 				if (i == 0) {
-					validateCSVHeader(strings.get(i), errorList);
-				} else if(strings.get(i).length != 0) {
-					DocumentSpaceDashboardMemberRequestDto newDashboardSpaceMember = processCSVRow(strings.get(i), i, errorList);
+					validateCSVHeader(row, errorList);
+				} else if (row.length != 0) {
+					DocumentSpaceDashboardMemberRequestDto newDashboardSpaceMember = processCSVRow(row, i, errorList);
 					if (newDashboardSpaceMember.getEmail() == null) { // case where an error was found
 						continue;
-					} else if (membersInSpace.contains(newDashboardSpaceMember.getEmail())) { // case for email exists already
+					}
+
+					String emailAsLower = newDashboardSpaceMember.getEmail().toLowerCase();
+					if (membersInSpace.contains(emailAsLower)) { // case for email exists already
 						errorList.add(String.format("Unable to add user with email %s, they are already a part of the space", newDashboardSpaceMember.getEmail()));
-					} else if (membersToAdd.stream().anyMatch(m->m.getEmail().equals(newDashboardSpaceMember.getEmail()))) { // case where email was found in the csv previously
+					} else if (!emailsToAdd.add(emailAsLower)) { // case where email was found in the csv previously
 						errorList.add("Duplicate email found on row " + (i + 1));
-					} else {
-						membersToAdd.add(newDashboardSpaceMember);
 					}
 				}
 			}
-		} catch (IOException e) {
-			throw new BadRequestException("Failed retrieving uploaded file");
+		});
+
+		if (!errorList.isEmpty()) {
+			return errorList;
 		}
 
-		if(errorList.isEmpty()){
-			batchAddDashboardUserToDocumentSpace(documentSpace, membersToAdd);
+		Privilege dashboardUserPrivilege = privilegeRepository.findByName(DASHBOARD_USER_PRIV)
+				.orElseThrow(() -> new RecordNotFoundException("Cannot find the DASHBOARD_USER privilege"));
+		Privilege documentSpaceUserPrivilege = privilegeRepository.findByName(DOCUMENT_SPACE_USER_PRIVILEGE).orElse(null);
+		if (documentSpaceUserPrivilege == null) {
+			log.error(String.format("Global Document Space Privilege (%s) is missing", DOCUMENT_SPACE_USER_PRIVILEGE));
 		}
 
+		Map<DocumentSpacePrivilegeType, UUID> documentSpacePrivilegeIds = new EnumMap<>(DocumentSpacePrivilegeType.class);
+		for (DocumentSpacePrivilegeType type : DocumentSpacePrivilegeType.values()) {
+			DocumentSpacePrivilege privilege = documentSpace.getPrivileges().get(type);
+			if (privilege == null) {
+				log.error(String.format(
+						"Error adding Document Space privileges to user. Document Space: %s (%s) missing necessary privilege type: %s",
+						documentSpace.getId(), documentSpace.getName(), type.toString()));
+				throw new IllegalArgumentException("Could not add privileges to user");
+			}
+			documentSpacePrivilegeIds.put(type, privilege.getId());
+		}
+
+		// second pass adds the members a chunk at a time
+		readCsvInChunks(file, (firstRow, rows) -> {
+			List<DocumentSpaceDashboardMemberRequestDto> members = new ArrayList<>(rows.size());
+			for (int j = 0; j < rows.size(); j++) {
+				if (firstRow + j > 0 && rows.get(j).length != 0) {
+					members.add(processCSVRow(rows.get(j), firstRow + j, errorList));
+				}
+			}
+
+			batchAddDashboardUserToDocumentSpace(documentSpaceId, documentSpacePrivilegeIds, dashboardUserPrivilege,
+					documentSpaceUserPrivilege, members);
+		});
+
 		return  errorList;
 	}
 
+	/**
+	 * Reads a csv a chunk of rows at a time so that a large file is never held in memory all at once
+	 * @param file the csv
+	 * @param chunkConsumer given the index of the first row of each chunk, along with the chunk's rows
+	 */
+	private void readCsvInChunks(MultipartFile file, BiConsumer<Integer, List<String[]>> chunkConsumer) {
+		try (CSVReader csvReader = new CSVReader(new InputStreamReader(file.getInputStream()))) {
+			List<String[]> rows = new ArrayList<>(MEMBER_CHUNK_SIZE);
+			int firstRow = 0;
+			String[] row;
+			while ((row = csvReader.readNext()) != null) {
+				rows.add(row);
+				if (rows.size() == MEMBER_CHUNK_SIZE) {
+					chunkConsumer.accept(firstRow, rows);
+					firstRow += rows.size();
+					rows = new ArrayList<>(MEMBER_CHUNK_SIZE);
+				}
+			}
+
+			if (!rows.isEmpty()) {
+				chunkConsumer.accept(firstRow, rows);
+			}
+		} catch (IOException e) {
+			throw new BadRequestException("Failed retrieving uploaded file");
+		}
+	}
+
 	private void validateCSVHeader(String[] row, List<String> errorList) {
 
 		if (!row[0].trim().equalsIgnoreCase("email")) {
@@ -1345,16 +1895,9 @@ public class DocumentSpaceServiceImpl implements DocumentSpaceService {
 	@Override
 	public Page<RecentDocumentDto> getRecentlyUploadedFilesByAuthUser(String authenticatedUsername,
 			Pageable pageable) {
-		List<DocumentSpaceResponseDto> authorizedSpaces = listSpaces(authenticatedUsername);
-		Set<UUID> authorizedSpaceIds = authorizedSpaces.stream().map(DocumentSpaceResponseDto::getId).collect(Collectors.toSet());
-		Page<RecentDocumentDto> results = documentSpaceFileService.getRecentlyUploadedFilesByUser(authenticatedUsername, authorizedSpaceIds, pageable);
-
-		// now map the results to populate its string path
-		results.forEach(item -> {
-			FilePathSpec spec = documentSpaceFileSystemService.getFilePathSpec(item.getDocumentSpace().getId(), item.getParentFolderId());
-			String path = FilenameUtils.normalizeNoEndSeparator(spec.getFullPathSpec());
-			item.setPath(path.isBlank() ? "/" : path);
-		});
+		Page<RecentDocumentDto> results = documentSpaceFileService.getRecentlyUploadedFilesByUser(authenticatedUsername,
+				getAuthorizedSpaceIds(authenticatedUsername), pageable);
+		resolveRecentDocumentPaths(results);
 
 		return results;
 	}
@@ -1362,17 +1905,48 @@ public class DocumentSpaceServiceImpl implements DocumentSpaceService {
 	@Override
 	public Page<RecentDocumentDto> getRecentlyUploadedFilesBySpace(UUID spaceId, Date date, Pageable pageable) {
 		Page<RecentDocumentDto> results =  documentSpaceFileService.getRecentlyUploadedFilesBySpace(spaceId, date, pageable);
+		resolveRecentDocumentPaths(results);
 
-		// now map the results to populate its string path
-		results.forEach(item -> {
-				FilePathSpec spec = documentSpaceFileSystemService.getFilePathSpec(item.getDocumentSpace().getId(), item.getParentFolderId());
-				String path = FilenameUtils.normalizeNoEndSeparator(spec.getFullPathSpec());
-				item.setPath(path.isBlank() ? "/" : path);
-		});
+		return results;
+	}
+
+	@Override
+	public CursorSlice<RecentDocumentDto> getRecentlyUploadedFilesByAuthUser(String authenticatedUsername, @Nullable String continuation, int limit) {
+		CursorSlice<RecentDocumentDto> results = documentSpaceFileService.getRecentlyUploadedFilesByUser(authenticatedUsername,
+				getAuthorizedSpaceIds(authenticatedUsername), continuation == null ? null : RecencyCursor.fromToken(continuation), limit);
+		resolveRecentDocumentPaths(results);
 
 		return results;
 	}
 
+	@Override
+	public CursorSlice<RecentDocumentDto> getRecentlyUploadedFilesBySpace(UUID spaceId, Date date, @Nullable String continuation, int limit) {
+		CursorSlice<RecentDocumentDto> results = documentSpaceFileService.getRecentlyUploadedFilesBySpace(spaceId, date,
+				continuation == null ? null : RecencyCursor.fromToken(continuation), limit);
+		resolveRecentDocumentPaths(results);
+
+		return results;
+	}
+
+	private Set<UUID> getAuthorizedSpaceIds(String authenticatedUsername) {
+		return listSpaces(authenticatedUsername).stream().map(DocumentSpaceResponseDto::getId).collect(Collectors.toSet());
+	}
+
+	/**
+	 * Populates the string path of each recent document, resolving the whole page in one go
+	 * rather than walking each result's ancestry
+	 */
+	private void resolveRecentDocumentPaths(Slice<RecentDocumentDto> results) {
+		Map<UUID, String> paths = documentSpaceFileSystemService.getFolderPaths(results.stream()
+				.map(RecentDocumentDto::getParentFolderId)
+				.collect(Collectors.toSet()));
+
+		results.forEach(item -> {
+			String path = FilenameUtils.normalizeNoEndSeparator(paths.getOrDefault(item.getParentFolderId(), ""));
+			item.setPath(path.isBlank() ? "/" : path);
+		});
+	}
+
 	private List<DocumentSpacePrivilegeType> mapToPrivilegeTypes(List<ExternalDocumentSpacePrivilegeType> privileges) {
 		if (privileges == null) {
 			return new ArrayList<>();
@@ -1396,18 +1970,47 @@ public class DocumentSpaceServiceImpl implements DocumentSpaceService {
 	/**
 	 * Perform the filename search query over the document space
 	 * @param spaceId space UUID
-	 * @param filename the filename query
+	 * @param search the filename query and how to match it
 	 * @param pageable the pagination information passed in from the controller
 	 * @param principal the user principal id
 	 * @return a pageable of DocumentMobileDto to return
 	 */
 	@Override
-	public Page<DocumentMobileDto> findFilesInSpaceLike(UUID spaceId, String filename, Pageable pageable, Principal principal) {
-		Page<DocumentSpaceFileSystemEntry> results = documentSpaceFileSystemService.findFilesInSpaceLike(spaceId, filename, pageable);
-		List<DocumentSpaceUserCollectionResponseDto> favs = documentSpaceUserCollectionService.getFavoriteEntriesForUserInDocumentSpace(principal.getName(), spaceId);
+	public Page<DocumentMobileDto> findFilesInSpaceLike(UUID spaceId, DocumentSpaceSearchDto search, Pageable pageable, Principal principal) {
+		return searchSpaces(Set.of(spaceId), search, pageable, principal);
+	}
+
+	/**
+	 * Perform the filename search query over every document space the user can read
+	 * @param search the filename query and how to match it
+	 * @param pageable the pagination information passed in from the controller
+	 * @param principal the user principal id
+	 * @return a pageable of DocumentMobileDto to return
+	 */
+	@Override
+	public Page<DocumentMobileDto> findFilesInAuthorizedSpacesLike(DocumentSpaceSearchDto search, Pageable pageable, Principal principal) {
+		Set<UUID> authorizedSpaceIds = listSpaces(principal.getName()).stream()
+				.map(DocumentSpaceResponseDto::getId)
+				.collect(Collectors.toSet());
+
+		return searchSpaces(authorizedSpaceIds, search, pageable, principal);
+	}
+
+	private Page<DocumentMobileDto> searchSpaces(Set<UUID> spaceIds, DocumentSpaceSearchDto search, Pageable pageable, Principal principal) {
+		Page<DocumentSpaceFileSystemEntry> results = documentSpaceFileSystemService.findFilesInSpacesLike(spaceIds, search, pageable);
+
+		// resolve the paths of the whole page in one go rather than walking each result's ancestry
+		Map<UUID, String> paths = documentSpaceFileSystemService.getFolderPaths(results.stream()
+				.map(DocumentSpaceFileSystemEntry::getParentEntryId)
+				.collect(Collectors.toSet()));
+
+		Map<UUID, List<DocumentSpaceUserCollectionResponseDto>> favs = new HashMap<>();
 		return new PageImpl<>(results.stream()
-				.map(item -> convertFileSystemEntryToMobileDto(spaceId, item, favs, principal))
-				.collect(Collectors.toList()), pageable, results.getSize());
+				.map(item -> convertFileSystemEntryToMobileDto(item,
+						paths.getOrDefault(item.getParentEntryId(), ""),
+						favs.computeIfAbsent(item.getDocumentSpaceId(),
+								space -> documentSpaceUserCollectionService.getFavoriteEntriesForUserInDocumentSpace(principal.getName(), space))))
+				.collect(Collectors.toList()), pageable, results.getTotalElements());
 	}
 
 	/**
@@ -1422,9 +2025,13 @@ public class DocumentSpaceServiceImpl implements DocumentSpaceService {
 															   List<DocumentSpaceUserCollectionResponseDto> favs,
 															   Principal principal) {
 		FilePathSpec spec = documentSpaceFileSystemService.getFilePathSpec(spaceId, entry.getParentEntryId());
+		return convertFileSystemEntryToMobileDto(entry, FilenameUtils.normalizeNoEndSeparator(spec.getFullPathSpec()), favs);
+	}
 
+	private DocumentMobileDto convertFileSystemEntryToMobileDto(DocumentSpaceFileSystemEntry entry, String path,
+																List<DocumentSpaceUserCollectionResponseDto> favs) {
 		return DocumentMobileDto.builder()
-				.path(FilenameUtils.normalizeNoEndSeparator(spec.getFullPathSpec()))
+				.path(path)
 				.size(entry.getSize())
 				.spaceId(entry.getDocumentSpaceId().toString())
 				.isFolder(entry.isFolder())
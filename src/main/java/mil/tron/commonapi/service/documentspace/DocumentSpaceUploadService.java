@@ -0,0 +1,55 @@
+package mil.tron.commonapi.service.documentspace;
+
+import mil.tron.commonapi.dto.documentspace.DocumentSpaceUploadPartDto;
+import mil.tron.commonapi.dto.documentspace.DocumentSpaceUploadRequestDto;
+import mil.tron.commonapi.dto.documentspace.DocumentSpaceUploadSessionDto;
+import mil.tron.commonapi.exception.RecordNotFoundException;
+
+import java.io.InputStream;
+import java.util.UUID;
+
+/**
+ * Chunked (resumable) uploads of files into a document space.  Each upload is backed by an S3
+ * multipart upload, so large files never have to be held by the API in one piece and a dropped
+ * connection only costs the client the part that was in flight.
+ */
+public interface DocumentSpaceUploadService {
+    /**
+     * Starts an upload, creating any folders in the requested path that don't exist yet
+     * @param documentSpaceId the space to upload into
+     * @param dto where the file goes and what it is
+     * @param username who is uploading
+     * @return the new upload session
+     */
+    DocumentSpaceUploadSessionDto initiateUpload(UUID documentSpaceId, DocumentSpaceUploadRequestDto dto, String username);
+
+    /**
+     * Streams one part of the file to S3.  Re-sending a part number replaces that part.
+     * @param partNumber 1 through 10000
+     * @param contents the part's bytes
+     * @param size exact number of bytes in contents
+     * @return the stored part
+     */
+    DocumentSpaceUploadPartDto uploadPart(UUID documentSpaceId, UUID uploadSessionId, int partNumber, InputStream contents, long size);
+
+    /**
+     * Gets an upload along with the parts received so far, used by clients to resume an upload
+     */
+    DocumentSpaceUploadSessionDto getUploadSession(UUID documentSpaceId, UUID uploadSessionId) throws RecordNotFoundException;
+
+    /**
+     * Assembles the received parts into the final file and adds it to the document space
+     * @return the uploaded file's name
+     */
+    String completeUpload(UUID documentSpaceId, UUID uploadSessionId);
+
+    /**
+     * Cancels an upload, discarding any parts received so far
+     */
+    void abortUpload(UUID documentSpaceId, UUID uploadSessionId);
+
+    /**
+     * Aborts uploads that haven't received a part for longer than the configured expiration
+     */
+    void abortExpiredUploads();
+}
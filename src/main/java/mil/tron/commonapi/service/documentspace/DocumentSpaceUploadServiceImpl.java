@@ -0,0 +1,275 @@
+package mil.tron.commonapi.service.documentspace;
+
+import com.amazonaws.SdkClientException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.*;
+import lombok.extern.slf4j.Slf4j;
+import mil.tron.commonapi.annotation.minio.IfMinioEnabledOnIL4OrDevLocal;
+import mil.tron.commonapi.dto.documentspace.DocumentSpaceUploadPartDto;
+import mil.tron.commonapi.dto.documentspace.DocumentSpaceUploadRequestDto;
+import mil.tron.commonapi.dto.documentspace.DocumentSpaceUploadSessionDto;
+import mil.tron.commonapi.entity.documentspace.DocumentSpaceFileSystemEntry;
+import mil.tron.commonapi.entity.documentspace.DocumentSpaceUploadPart;
+import mil.tron.commonapi.entity.documentspace.DocumentSpaceUploadSession;
+import mil.tron.commonapi.exception.BadRequestException;
+import mil.tron.commonapi.exception.RecordNotFoundException;
+import mil.tron.commonapi.repository.documentspace.DocumentSpaceUploadPartRepository;
+import mil.tron.commonapi.repository.documentspace.DocumentSpaceUploadSessionRepository;
+import mil.tron.commonapi.service.documentspace.util.FilePathSpec;
+import mil.tron.commonapi.validations.DocSpaceFolderOrFilenameValidator;
+import org.apache.commons.io.FilenameUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.transaction.Transactional;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static mil.tron.commonapi.service.documentspace.DocumentSpaceFileSystemServiceImpl.joinPathParts;
+
+@Slf4j
+@Service
+@IfMinioEnabledOnIL4OrDevLocal
+public class DocumentSpaceUploadServiceImpl implements DocumentSpaceUploadService {
+	/**
+	 * S3 only accepts part numbers in this range
+	 */
+	private static final int MIN_PART_NUMBER = 1;
+	private static final int MAX_PART_NUMBER = 10000;
+
+	private final AmazonS3 documentSpaceClient;
+	private final String bucketName;
+	private final DocumentSpaceService documentSpaceService;
+	private final DocumentSpaceFileSystemService documentSpaceFileSystemService;
+	private final DocumentSpaceUploadSessionRepository uploadSessionRepository;
+	private final DocumentSpaceUploadPartRepository uploadPartRepository;
+	private final Duration sessionExpiration;
+	private final TransactionTemplate transactionTemplate;
+
+	public DocumentSpaceUploadServiceImpl(AmazonS3 documentSpaceClient,
+										  @Value("${minio.bucket-name}") String bucketName,
+										  DocumentSpaceService documentSpaceService,
+										  DocumentSpaceFileSystemService documentSpaceFileSystemService,
+										  DocumentSpaceUploadSessionRepository uploadSessionRepository,
+										  DocumentSpaceUploadPartRepository uploadPartRepository,
+										  @Value("${minio.upload-session-expiration-hours:72}") long sessionExpirationHours,
+										  PlatformTransactionManager transactionManager) {
+		this.documentSpaceClient = documentSpaceClient;
+		this.bucketName = bucketName;
+		this.documentSpaceService = documentSpaceService;
+		this.documentSpaceFileSystemService = documentSpaceFileSystemService;
+		this.uploadSessionRepository = uploadSessionRepository;
+		this.uploadPartRepository = uploadPartRepository;
+		this.sessionExpiration = Duration.ofHours(sessionExpirationHours);
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	@Transactional
+	@Override
+	public DocumentSpaceUploadSessionDto initiateUpload(UUID documentSpaceId, DocumentSpaceUploadRequestDto dto, String username) {
+		documentSpaceService.getDocumentSpaceOrElseThrow(documentSpaceId);
+
+		// same as the single request upload - on a folder upload the filename carries a path relative to "path"
+		String additionalPath = FilenameUtils.getPath(dto.getFilename());
+		String filename = FilenameUtils.getName(dto.getFilename());
+
+		DocSpaceFolderOrFilenameValidator validator = new DocSpaceFolderOrFilenameValidator();
+		if (!validator.isValid(filename, null)) {
+			throw new BadRequestException("Invalid filename");
+		}
+
+		FilePathSpec folder = documentSpaceFileSystemService.parsePathToFilePathSpec(documentSpaceId,
+				joinPathParts(dto.getPath(), additionalPath),
+				true);
+
+		// fail now rather than after the whole file has been sent
+		documentSpaceService.getUploadableFileEntry(documentSpaceId, folder.getItemId(), filename);
+
+		Date lastModified = dto.getLastModified() != null ? new Date(dto.getLastModified()) : new Date();
+		String objectKey = documentSpaceService.getFolderKeyPrefix(documentSpaceId, folder) + filename;
+
+		ObjectMetadata metaData = new ObjectMetadata();
+		metaData.setContentType(dto.getContentType());
+		metaData.setLastModified(lastModified);
+		metaData.addUserMetadata("lastModified", String.valueOf(lastModified.getTime()));
+
+		InitiateMultipartUploadResult result = documentSpaceClient.initiateMultipartUpload(
+				new InitiateMultipartUploadRequest(bucketName, objectKey, metaData));
+
+		DocumentSpaceUploadSession session = uploadSessionRepository.save(DocumentSpaceUploadSession.builder()
+				.documentSpaceId(documentSpaceId)
+				.parentEntryId(folder.getItemId())
+				.filename(filename)
+				.objectKey(objectKey)
+				.uploadId(result.getUploadId())
+				.contentType(dto.getContentType())
+				.lastModified(lastModified)
+				.createdBy(username)
+				.build());
+
+		return convertToDto(session, List.of());
+	}
+
+	/**
+	 * Not transactional - a part can take minutes to stream, so the session is looked up in its own short read,
+	 * the part goes to S3 without holding a connection, and the part is then recorded in a separate short transaction
+	 */
+	@Override
+	public DocumentSpaceUploadPartDto uploadPart(UUID documentSpaceId, UUID uploadSessionId, int partNumber, InputStream contents, long size) {
+		if (partNumber < MIN_PART_NUMBER || partNumber > MAX_PART_NUMBER) {
+			throw new BadRequestException(String.format("Part number must be between %d and %d", MIN_PART_NUMBER, MAX_PART_NUMBER));
+		}
+
+		// the part goes straight from the request body to S3, which needs to know its length up front
+		if (size < 0) {
+			throw new BadRequestException("Content-Length is required when uploading a part");
+		}
+
+		DocumentSpaceUploadSession session = getSessionOrElseThrow(documentSpaceId, uploadSessionId);
+
+		UploadPartResult result = documentSpaceClient.uploadPart(new UploadPartRequest()
+				.withBucketName(bucketName)
+				.withKey(session.getObjectKey())
+				.withUploadId(session.getUploadId())
+				.withPartNumber(partNumber)
+				.withInputStream(contents)
+				.withPartSize(size));
+
+		return transactionTemplate.execute(status -> recordPart(documentSpaceId, uploadSessionId, partNumber, result.getETag(), size));
+	}
+
+	private DocumentSpaceUploadPartDto recordPart(UUID documentSpaceId, UUID uploadSessionId, int partNumber, String etag, long size) {
+		// re-read the session, it may have been aborted while the part was streaming
+		DocumentSpaceUploadSession session = getSessionOrElseThrow(documentSpaceId, uploadSessionId);
+		session.setLastActivityOn(new Date());
+		uploadSessionRepository.save(session);
+
+		DocumentSpaceUploadPart part = uploadPartRepository.findByUploadSessionIdAndPartNumber(uploadSessionId, partNumber)
+				.orElseGet(() -> DocumentSpaceUploadPart.builder()
+						.uploadSessionId(uploadSessionId)
+						.partNumber(partNumber)
+						.build());
+
+		part.setEtag(etag);
+		part.setSize(size);
+
+		return convertToDto(uploadPartRepository.save(part));
+	}
+
+	@Override
+	public DocumentSpaceUploadSessionDto getUploadSession(UUID documentSpaceId, UUID uploadSessionId) throws RecordNotFoundException {
+		DocumentSpaceUploadSession session = getSessionOrElseThrow(documentSpaceId, uploadSessionId);
+		return convertToDto(session, uploadPartRepository.findAllByUploadSessionIdOrderByPartNumberAsc(uploadSessionId));
+	}
+
+	/**
+	 * Not transactional for the same reason as {@link #uploadPart} - completing the upload happens outside
+	 * of any transaction, and only the file entry is written in one
+	 */
+	@Override
+	public String completeUpload(UUID documentSpaceId, UUID uploadSessionId) {
+		DocumentSpaceUploadSession session = getSessionOrElseThrow(documentSpaceId, uploadSessionId);
+		List<DocumentSpaceUploadPart> parts = uploadPartRepository.findAllByUploadSessionIdOrderByPartNumberAsc(uploadSessionId);
+		if (parts.isEmpty()) {
+			throw new BadRequestException("No parts have been uploaded");
+		}
+
+		// the folder could have picked up an archived file of the same name since the upload started
+		DocumentSpaceFileSystemEntry existingEntry = documentSpaceService.getUploadableFileEntry(documentSpaceId,
+				session.getParentEntryId(), session.getFilename());
+
+		// S3's etag for a multipart upload is the composite "md5-of-part-md5s-N" rather than a plain MD5 of the
+		//  contents, which is still a stable identifier for them - reading the whole object back to hash it
+		//  would cost as much as the upload itself
+		CompleteMultipartUploadResult result = documentSpaceClient.completeMultipartUpload(new CompleteMultipartUploadRequest(
+				bucketName,
+				session.getObjectKey(),
+				session.getUploadId(),
+				parts.stream()
+						.map(part -> new PartETag(part.getPartNumber(), part.getEtag()))
+						.collect(Collectors.toList())));
+
+		transactionTemplate.executeWithoutResult(status -> {
+			documentSpaceService.saveUploadedFileEntry(documentSpaceId,
+					session.getParentEntryId(),
+					existingEntry,
+					session.getFilename(),
+					parts.stream().mapToLong(DocumentSpaceUploadPart::getSize).sum(),
+					result.getETag(),
+					session.getLastModified());
+
+			deleteSession(session);
+		});
+
+		return session.getFilename();
+	}
+
+	@Transactional
+	@Override
+	public void abortUpload(UUID documentSpaceId, UUID uploadSessionId) {
+		DocumentSpaceUploadSession session = getSessionOrElseThrow(documentSpaceId, uploadSessionId);
+		abortMultipartUpload(session);
+		deleteSession(session);
+	}
+
+	@Transactional
+	@Scheduled(fixedDelayString = "${minio.upload-session-cleanup-delay-ms:3600000}")
+	@Override
+	public void abortExpiredUploads() {
+		Date cutoff = new Date(System.currentTimeMillis() - sessionExpiration.toMillis());
+		for (DocumentSpaceUploadSession session : uploadSessionRepository.findAllByLastActivityOnBefore(cutoff)) {
+			log.info("Aborting expired document space upload {} of {}", session.getId(), session.getObjectKey());
+			abortMultipartUpload(session);
+			deleteSession(session);
+		}
+	}
+
+	private DocumentSpaceUploadSession getSessionOrElseThrow(UUID documentSpaceId, UUID uploadSessionId) {
+		return uploadSessionRepository.findByIdAndDocumentSpaceId(uploadSessionId, documentSpaceId)
+				.orElseThrow(() -> new RecordNotFoundException(String.format("Upload with id: %s not found in Document Space: %s",
+						uploadSessionId, documentSpaceId)));
+	}
+
+	private void abortMultipartUpload(DocumentSpaceUploadSession session) {
+		try {
+			documentSpaceClient.abortMultipartUpload(new AbortMultipartUploadRequest(bucketName,
+					session.getObjectKey(), session.getUploadId()));
+		} catch (SdkClientException e) {
+			// the upload may already be gone on the S3 side (e.g. expired by a bucket lifecycle rule),
+			//  either way there's nothing left for us to track
+			log.warn("Unable to abort multipart upload {} of {}: {}", session.getUploadId(), session.getObjectKey(), e.getMessage());
+		}
+	}
+
+	private void deleteSession(DocumentSpaceUploadSession session) {
+		uploadPartRepository.deleteAllByUploadSessionId(session.getId());
+		uploadSessionRepository.delete(session);
+	}
+
+	private DocumentSpaceUploadSessionDto convertToDto(DocumentSpaceUploadSession session, List<DocumentSpaceUploadPart> parts) {
+		return DocumentSpaceUploadSessionDto.builder()
+				.id(session.getId())
+				.documentSpaceId(session.getDocumentSpaceId())
+				.parentFolderId(session.getParentEntryId())
+				.filename(session.getFilename())
+				.createdBy(session.getCreatedBy())
+				.createdOn(session.getCreatedOn())
+				.parts(parts.stream().map(this::convertToDto).collect(Collectors.toList()))
+				.build();
+	}
+
+	private DocumentSpaceUploadPartDto convertToDto(DocumentSpaceUploadPart part) {
+		return DocumentSpaceUploadPartDto.builder()
+				.partNumber(part.getPartNumber())
+				.etag(part.getEtag())
+				.size(part.getSize())
+				.build();
+	}
+}
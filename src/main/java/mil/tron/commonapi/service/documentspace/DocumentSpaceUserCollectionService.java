@@ -3,9 +3,11 @@ package mil.tron.commonapi.service.documentspace;
 import mil.tron.commonapi.dto.documentspace.DocumentSpacePathItemsDto;
 import mil.tron.commonapi.dto.documentspace.DocumentSpaceUserCollectionRequestDto;
 import mil.tron.commonapi.dto.documentspace.DocumentSpaceUserCollectionResponseDto;
+import mil.tron.commonapi.dto.response.pagination.CursorSlice;
 import mil.tron.commonapi.entity.DashboardUser;
 import mil.tron.commonapi.entity.documentspace.DocumentSpaceUserCollection;
 
+import javax.annotation.Nullable;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
@@ -15,6 +17,7 @@ public interface DocumentSpaceUserCollectionService {
 
     DocumentSpaceUserCollection createFavoriteCollection(DocumentSpaceUserCollectionRequestDto documentSpaceUserCollection);
     List<DocumentSpaceUserCollectionResponseDto> getFavoriteEntriesForUserInDocumentSpace(String dashboardUserEmail, UUID documentSpaceId);
+    CursorSlice<DocumentSpaceUserCollectionResponseDto> getFavoriteEntriesForUserInDocumentSpace(String dashboardUserEmail, UUID documentSpaceId, @Nullable String continuation, int limit);
     void addEntityToFavoritesFolder(String dashboardUserEmail, UUID entryId, UUID documentSpaceId);
     void removeEntityFromFavoritesFolder(String dashboardUserEmail, UUID entryId, UUID documentSpaceId);
     void addFileSystemEntryToCollection(String dashboardUserEmail, UUID spaceId, DocumentSpacePathItemsDto dto);
@@ -4,23 +4,31 @@ import mil.tron.commonapi.dto.documentspace.DocumentMetadata;
 import mil.tron.commonapi.dto.documentspace.DocumentSpacePathItemsDto;
 import mil.tron.commonapi.dto.documentspace.DocumentSpaceUserCollectionRequestDto;
 import mil.tron.commonapi.dto.documentspace.DocumentSpaceUserCollectionResponseDto;
+import mil.tron.commonapi.dto.response.pagination.CursorSlice;
 import mil.tron.commonapi.entity.DashboardUser;
 import mil.tron.commonapi.entity.documentspace.DocumentSpaceFileSystemEntry;
 import mil.tron.commonapi.entity.documentspace.DocumentSpaceUserCollection;
 import mil.tron.commonapi.entity.documentspace.metadata.FileSystemEntryWithMetadata;
+import mil.tron.commonapi.exception.BadRequestException;
 import mil.tron.commonapi.exception.RecordNotFoundException;
 import mil.tron.commonapi.exception.ResourceAlreadyExistsException;
 import mil.tron.commonapi.repository.documentspace.DocumentSpaceFileSystemEntryRepository;
 import mil.tron.commonapi.repository.documentspace.DocumentSpaceUserCollectionRepository;
 import mil.tron.commonapi.service.DashboardUserService;
 import mil.tron.commonapi.service.documentspace.util.FilePathSpec;
+import mil.tron.commonapi.service.documentspace.util.RecencyCursor;
 import org.modelmapper.ModelMapper;
 import org.modelmapper.convention.MatchingStrategies;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.annotation.Nullable;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -97,7 +105,37 @@ public class DocumentSpaceUserCollectionServiceImpl implements DocumentSpaceUser
 
 		Set<FileSystemEntryWithMetadata> metadata = documentSpaceUserCollectionRepository.getAllInCollectionAsMetadata(FAVORITES, documentSpaceId, dashboardUserByEmail.getId());
 
-        return metadata.stream().map(this::convertMetadataEntryToResponseDto).collect(Collectors.toList());
+        return convertMetadataEntriesToResponseDtos(metadata);
+    }
+
+    @Override
+    public CursorSlice<DocumentSpaceUserCollectionResponseDto> getFavoriteEntriesForUserInDocumentSpace(String dashboardUserEmail, UUID documentSpaceId, @Nullable String continuation, int limit) {
+        DashboardUser dashboardUserByEmail = dashboardUserService.getDashboardUserByEmail(dashboardUserEmail);
+        if(dashboardUserByEmail == null){
+            throw new RecordNotFoundException(USER_NOT_FOUND);
+        }
+
+        if (limit < 1) {
+            throw new BadRequestException("Limit must be at least 1");
+        }
+
+        // one extra row tells whether there is a next slice without counting the collection
+        Pageable pageable = PageRequest.of(0, limit + 1);
+        RecencyCursor after = continuation == null ? null : RecencyCursor.fromToken(continuation);
+        List<FileSystemEntryWithMetadata> metadata = after == null ?
+                documentSpaceUserCollectionRepository.getFirstInCollectionAsMetadata(FAVORITES, documentSpaceId, dashboardUserByEmail.getId(), pageable) :
+                documentSpaceUserCollectionRepository.getNextInCollectionAsMetadata(FAVORITES, documentSpaceId, dashboardUserByEmail.getId(),
+                        after.getDate(), after.getId(), pageable);
+
+        String nextContinuationToken = null;
+        if (metadata.size() > limit) {
+            metadata = metadata.subList(0, limit);
+            DocumentSpaceFileSystemEntry last = metadata.get(limit - 1).getFileEntry();
+            nextContinuationToken = new RecencyCursor(last.getLastModifiedOn() != null ? last.getLastModifiedOn() : last.getCreatedOn(),
+                    last.getId()).toToken();
+        }
+
+        return new CursorSlice<>(convertMetadataEntriesToResponseDtos(metadata), PageRequest.of(0, limit), nextContinuationToken);
     }
 
     @Transactional
@@ -222,7 +260,20 @@ public class DocumentSpaceUserCollectionServiceImpl implements DocumentSpaceUser
         return mapper.map(dto, DocumentSpaceUserCollection.class);
     }
 
-    private DocumentSpaceUserCollectionResponseDto convertMetadataEntryToResponseDto(FileSystemEntryWithMetadata entry){
+    /**
+     * Converts the entries, resolving the paths of all of them in one go rather than walking each entry's ancestry
+     */
+    private List<DocumentSpaceUserCollectionResponseDto> convertMetadataEntriesToResponseDtos(Collection<FileSystemEntryWithMetadata> entries){
+        Map<UUID, String> paths = documentSpaceFileSystemService.getFolderPaths(entries.stream()
+                .map(entry -> entry.getFileEntry().getParentEntryId())
+                .collect(Collectors.toSet()));
+
+        return entries.stream()
+                .map(entry -> convertMetadataEntryToResponseDto(entry, paths.getOrDefault(entry.getFileEntry().getParentEntryId(), "")))
+                .collect(Collectors.toList());
+    }
+
+    private DocumentSpaceUserCollectionResponseDto convertMetadataEntryToResponseDto(FileSystemEntryWithMetadata entry, String path){
         return DocumentSpaceUserCollectionResponseDto
                 .builder()
                 .id(entry.getFileEntry().getId())
@@ -231,8 +282,7 @@ public class DocumentSpaceUserCollectionServiceImpl implements DocumentSpaceUser
                 .key(entry.getFileEntry().getItemName())
                 .documentSpaceId(entry.getFileEntry().getDocumentSpaceId())
                 .parentId(entry.getFileEntry().getParentEntryId())
-                .path(documentSpaceFileSystemService.getFilePathSpec(entry.getFileEntry().getDocumentSpaceId(),
-                        entry.getFileEntry().getParentEntryId()).getFullPathSpec())
+                .path(path)
                 .lastModifiedDate(entry.getFileEntry().getLastModifiedOn())
                 .lastActivity(entry.getFileEntry().getLastActivity() != null ? entry.getFileEntry().getLastActivity() : entry.getFileEntry().getCreatedOn())
                 .metadata(new DocumentMetadata(entry.getMetadata() == null ? null : entry.getMetadata().getLastDownloaded()))
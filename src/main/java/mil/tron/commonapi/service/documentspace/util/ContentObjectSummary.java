@@ -0,0 +1,22 @@
+package mil.tron.commonapi.service.documentspace.util;
+
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import lombok.Getter;
+
+/**
+ * Summary of a file kept in the content addressed store.  Its key is the one the file would have if it were
+ * kept under its folder's prefix [like /doc-space-id/subfolder-uuid/filename], so it lists like any other
+ * file in the folder, while the object itself is fetched from the content key.
+ */
+public class ContentObjectSummary extends S3ObjectSummary {
+
+    @Getter
+    private final String contentKey;
+
+    public ContentObjectSummary(String bucketName, String key, String contentKey) {
+        super();
+        this.contentKey = contentKey;
+        setBucketName(bucketName);
+        setKey(key);
+    }
+}
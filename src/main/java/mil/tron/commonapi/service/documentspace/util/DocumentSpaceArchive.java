@@ -0,0 +1,37 @@
+package mil.tron.commonapi.service.documentspace.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import javax.annotation.Nullable;
+import java.util.Date;
+
+/**
+ * A zip of a document space folder (or the whole space) that has already been built and stored in S3.
+ * It is keyed by the state of the folder's contents, so it is only ever handed out while those contents
+ * are unchanged.
+ */
+@Getter
+@AllArgsConstructor
+public class DocumentSpaceArchive {
+    /**
+     * S3 key the zip is kept under
+     */
+    private final String key;
+
+    /**
+     * Hash of the state of the folder's contents the zip was built from, doubles as the zip's etag
+     */
+    private final String etag;
+
+    /**
+     * Size of the zip in bytes
+     */
+    private final long size;
+
+    /**
+     * Most recent modification date among the folder's contents, null if it is empty
+     */
+    @Nullable
+    private final Date lastModified;
+}
@@ -18,4 +18,11 @@ public class FilePathSpecWithContents extends FilePathSpec {
 	  @Setter
 	  @Builder.Default
 	  private List<DocumentSpaceFileSystemEntry> entries = new ArrayList<>();
+
+	  /**
+	   * Token for the next page of entries when the listing was limited, null when there are no more
+	   */
+	  @Getter
+	  @Setter
+	  private String nextContinuationToken;
 }
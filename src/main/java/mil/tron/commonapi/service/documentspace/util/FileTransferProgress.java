@@ -0,0 +1,32 @@
+package mil.tron.commonapi.service.documentspace.util;
+
+/**
+ * Receives progress from a document space copy/move as its S3 objects are copied, and lets the
+ * caller (like a background job) stop the operation between batches of objects
+ */
+public interface FileTransferProgress {
+
+    /**
+     * For callers that don't care about progress
+     */
+    FileTransferProgress NONE = new FileTransferProgress() {};
+
+    /**
+     * Called once the number of objects to copy for an item is known
+     * @param objectCount number of S3 objects that will be copied
+     */
+    default void onObjectsFound(long objectCount) {}
+
+    /**
+     * Called after each batch of objects has been copied
+     * @param objectCount number of objects in the batch
+     */
+    default void onObjectsCopied(long objectCount) {}
+
+    /**
+     * Checked between batches, returning true stops the operation (and removes anything it already copied)
+     */
+    default boolean isCancelled() {
+        return false;
+    }
+}
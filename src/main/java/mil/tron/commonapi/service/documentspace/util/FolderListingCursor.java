@@ -0,0 +1,83 @@
+package mil.tron.commonapi.service.documentspace.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import mil.tron.commonapi.dto.documentspace.DocumentSpaceContentsSort;
+import mil.tron.commonapi.entity.documentspace.DocumentSpaceFileSystemEntry;
+import mil.tron.commonapi.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Position in a sorted folder listing - the sort value and id of the last entry returned - so the
+ * next page can carry on from it (keyset pagination) instead of skipping over an offset.
+ *
+ * Handed to clients as an opaque continuation token.
+ */
+@Getter
+@AllArgsConstructor
+public class FolderListingCursor {
+    private static final String SEPARATOR = ":";
+
+    private final DocumentSpaceContentsSort sort;
+    private final UUID id;
+
+    /**
+     * The entry's value for the sort - a lower cased name, last modified date or size
+     */
+    private final Object sortValue;
+
+    public static FolderListingCursor after(DocumentSpaceContentsSort sort, DocumentSpaceFileSystemEntry entry) {
+        Object sortValue;
+        switch (sort) {
+            case LAST_MODIFIED:
+                sortValue = entry.getLastModifiedOn() != null ? entry.getLastModifiedOn() : entry.getCreatedOn();
+                break;
+            case SIZE:
+                sortValue = entry.getSize();
+                break;
+            default:
+                sortValue = entry.getItemName().toLowerCase();
+                break;
+        }
+
+        return new FolderListingCursor(sort, entry.getId(), sortValue);
+    }
+
+    public String toToken() {
+        String value = sortValue instanceof Date ? String.valueOf(((Date) sortValue).getTime()) : String.valueOf(sortValue);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(
+                String.join(SEPARATOR, sort.name(), id.toString(), value).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads a continuation token back in
+     * @param token the token from {@link #toToken()}
+     * @param sort the sort of the listing being continued, tokens from a listing with another sort are refused
+     * @return the cursor
+     * @throws BadRequestException if the token is malformed or was for a different sort
+     */
+    public static FolderListingCursor fromToken(String token, DocumentSpaceContentsSort sort) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(SEPARATOR, 3);
+            if (parts.length != 3 || !parts[0].equals(sort.name())) {
+                throw new BadRequestException("Continuation token does not belong to this listing");
+            }
+
+            UUID id = UUID.fromString(parts[1]);
+            switch (sort) {
+                case LAST_MODIFIED:
+                    return new FolderListingCursor(sort, id, new Date(Long.parseLong(parts[2])));
+                case SIZE:
+                    return new FolderListingCursor(sort, id, Long.parseLong(parts[2]));
+                default:
+                    return new FolderListingCursor(sort, id, parts[2]);
+            }
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("Invalid continuation token");
+        }
+    }
+}
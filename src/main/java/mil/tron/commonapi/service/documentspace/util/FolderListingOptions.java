@@ -0,0 +1,39 @@
+package mil.tron.commonapi.service.documentspace.util;
+
+import lombok.Builder;
+import lombok.Getter;
+import mil.tron.commonapi.dto.documentspace.DocumentSpaceContentsSort;
+
+import javax.annotation.Nullable;
+
+/**
+ * How to list the contents of a document space folder - what to order by, how many entries to
+ * return and where to pick up from
+ */
+@Builder
+@Getter
+public class FolderListingOptions {
+
+    @Builder.Default
+    private DocumentSpaceContentsSort sort = DocumentSpaceContentsSort.NAME;
+
+    @Builder.Default
+    private boolean ascending = true;
+
+    /**
+     * Max entries to return, null for all of them
+     */
+    @Nullable
+    private Integer limit;
+
+    /**
+     * The next continuation token of the previous page, null for the first page
+     */
+    @Nullable
+    private String continuationToken;
+
+    /**
+     * Whether to count each entry's non-archived children, rather than only checking if it has any
+     */
+    private boolean includeChildCounts;
+}
@@ -0,0 +1,53 @@
+package mil.tron.commonapi.service.documentspace.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import mil.tron.commonapi.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Position in a newest-first feed (recent documents, favorites) - the date and id of the last entry
+ * returned - so the next page can carry on from it (keyset pagination) instead of skipping over an
+ * offset and counting the whole feed.
+ *
+ * Handed to clients as an opaque continuation token.
+ */
+@Getter
+@AllArgsConstructor
+public class RecencyCursor {
+    private static final String SEPARATOR = ":";
+
+    /**
+     * The entry's value for the feed's date, whichever of its activity/modified/created dates the feed orders by
+     */
+    private final Date date;
+    private final UUID id;
+
+    public String toToken() {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(
+                String.join(SEPARATOR, String.valueOf(date.getTime()), id.toString()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads a continuation token back in
+     * @param token the token from {@link #toToken()}
+     * @return the cursor
+     * @throws BadRequestException if the token is malformed
+     */
+    public static RecencyCursor fromToken(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(SEPARATOR, 2);
+            if (parts.length != 2) {
+                throw new BadRequestException("Invalid continuation token");
+            }
+
+            return new RecencyCursor(new Date(Long.parseLong(parts[0])), UUID.fromString(parts[1]));
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("Invalid continuation token");
+        }
+    }
+}
@@ -1,19 +1,43 @@
 package mil.tron.commonapi.service.fieldauth;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class EntityFieldAuthResponse<T> {
 	@Getter
 	private T modifiedEntity;
 	
+	/**
+	 * Bitmap of the fields that were denied, each bit is the index of a field in {@link #protectedFields}
+	 */
 	@Getter
 	@Builder.Default
-	private List<String> deniedFields = new ArrayList<>();
+	private BitSet deniedFieldMask = new BitSet();
+	
+	/**
+	 * The protected field accessors of the adjudicated entity type, used to resolve the denied bits back to field names
+	 */
+	@Builder.Default
+	private List<ProtectedFieldAccessor> protectedFields = new ArrayList<>();
+	
+	public boolean hasDeniedFields() {
+		return !deniedFieldMask.isEmpty();
+	}
+	
+	/**
+	 * @return the names of the denied fields
+	 */
+	public List<String> getDeniedFields() {
+		return deniedFieldMask.stream()
+				.mapToObj(index -> protectedFields.get(index).getName())
+				.collect(Collectors.toList());
+	}
 }
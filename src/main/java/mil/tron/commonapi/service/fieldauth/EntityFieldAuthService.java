@@ -7,6 +7,8 @@ import org.springframework.security.core.Authentication;
 
 public interface EntityFieldAuthService {
     EntityFieldAuthResponse<Person> adjudicatePersonFields(Person incomingPerson, Authentication requester);
+    EntityFieldAuthResponse<Person> adjudicatePersonFields(Person incomingPerson, Person existingPerson, Authentication requester);
     EntityFieldAuthResponse<Organization> adjudicateOrganizationFields(Organization incomingOrg, Authentication requester);
+    EntityFieldAuthResponse<Organization> adjudicateOrganizationFields(Organization incomingOrg, Organization existingOrg, Authentication requester);
     boolean userHasAuthorizationToField(Authentication requester, EntityFieldAuthType type, String fieldName);
 }
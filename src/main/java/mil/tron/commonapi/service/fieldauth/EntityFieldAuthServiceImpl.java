@@ -1,17 +1,14 @@
 package mil.tron.commonapi.service.fieldauth;
 
-import mil.tron.commonapi.annotation.efa.ProtectedField;
 import mil.tron.commonapi.entity.Organization;
 import mil.tron.commonapi.entity.Person;
 import mil.tron.commonapi.entity.Privilege;
-import mil.tron.commonapi.exception.InvalidRecordUpdateRequest;
 import mil.tron.commonapi.exception.RecordNotFoundException;
 import mil.tron.commonapi.repository.OrganizationRepository;
 import mil.tron.commonapi.repository.PersonRepository;
 import mil.tron.commonapi.repository.PrivilegeRepository;
 import mil.tron.commonapi.service.PrivilegeService;
 
-import org.apache.commons.lang3.reflect.FieldUtils;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -20,8 +17,7 @@ import org.springframework.stereotype.Service;
 import javax.annotation.PostConstruct;
 import javax.transaction.Transactional;
 
-import java.lang.reflect.Field;
-import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -33,6 +29,8 @@ import static mil.tron.commonapi.service.DashboardUserServiceImpl.DASHBOARD_ADMI
 @Service
 public class EntityFieldAuthServiceImpl implements EntityFieldAuthService {
 	private static final SimpleGrantedAuthority DASHBOARD_ADMIN_AUTHORITY = new SimpleGrantedAuthority(DASHBOARD_ADMIN_PRIV);
+	private static final SimpleGrantedAuthority PERSON_EDIT_AUTHORITY = new SimpleGrantedAuthority("PERSON_EDIT");
+	private static final SimpleGrantedAuthority ORGANIZATION_EDIT_AUTHORITY = new SimpleGrantedAuthority("ORGANIZATION_EDIT");
 	
     private final PrivilegeRepository privilegeRepository;
     private final OrganizationRepository organizationRepository;
@@ -41,8 +39,8 @@ public class EntityFieldAuthServiceImpl implements EntityFieldAuthService {
     
     private static final String PERSON_PREFIX = "Person-";
     private static final String ORG_PREFIX = "Organization-";
-    private final List<Field> personFields = FieldUtils.getFieldsListWithAnnotation(Person.class, ProtectedField.class);
-    private final List<Field> orgFields = FieldUtils.getFieldsListWithAnnotation(Organization.class, ProtectedField.class);
+    private final List<ProtectedFieldAccessor> personFields = ProtectedFieldAccessor.forEntity(Person.class);
+    private final List<ProtectedFieldAccessor> orgFields = ProtectedFieldAccessor.forEntity(Organization.class);
     
     @Value("${efa-enabled}")
     private boolean efaEnabled;
@@ -71,7 +69,7 @@ public class EntityFieldAuthServiceImpl implements EntityFieldAuthService {
     @Transactional
     public void buildEntityPrivileges() {
 
-        for (Field f : personFields) {
+        for (ProtectedFieldAccessor f : personFields) {
             String privName = PERSON_PREFIX + f.getName();
             Optional<Privilege> p = privilegeRepository.findByName(privName);
             if (p.isEmpty()) {
@@ -91,7 +89,7 @@ public class EntityFieldAuthServiceImpl implements EntityFieldAuthService {
         for (Privilege priv : personPrivs) {
             if (!personFields
                     .stream()
-                    .map(Field::getName)
+                    .map(ProtectedFieldAccessor::getName)
                     .collect(Collectors.toList())
                     .contains(priv.getName().replaceFirst(PERSON_PREFIX, ""))) {
 
@@ -99,7 +97,7 @@ public class EntityFieldAuthServiceImpl implements EntityFieldAuthService {
             }
         }
 
-        for (Field f : orgFields) {
+        for (ProtectedFieldAccessor f : orgFields) {
             String privName = ORG_PREFIX + f.getName();
             Optional<Privilege> p = privilegeRepository.findByName(privName);
             if (p.isEmpty()) {
@@ -119,7 +117,7 @@ public class EntityFieldAuthServiceImpl implements EntityFieldAuthService {
         for (Privilege priv : orgPrivs) {
             if (!orgFields
                     .stream()
-                    .map(Field::getName)
+                    .map(ProtectedFieldAccessor::getName)
                     .collect(Collectors.toList())
                     .contains(priv.getName().replaceFirst(ORG_PREFIX, ""))) {
 
@@ -142,10 +140,12 @@ public class EntityFieldAuthServiceImpl implements EntityFieldAuthService {
     }
 
     /**
-     * Determines which data "gets let through" on a person update/patch
+     * Determines which data "gets let through" on a person update/patch.  The existing person is
+     * looked up from the database, use {@link #adjudicatePersonFields(Person, Person, Authentication)}
+     * if the caller has already loaded it.
      * @param incomingPerson the incoming data POJO from the request
      * @param requester the requester's Authentication object
-     * @return the entity containing allowed modifications and a list containing any denied fields
+     * @return the entity containing allowed modifications and a bitmap of any denied fields
      * 
      */
     @Override
@@ -158,11 +158,30 @@ public class EntityFieldAuthServiceImpl implements EntityFieldAuthService {
         		.build();
         }
 
-        List<String> deniedFields = new ArrayList<>();
-
         Person existingPerson = personRepository.findById(incomingPerson.getId())
                 .orElseThrow(() -> new RecordNotFoundException("Person not found with id: " + incomingPerson.getId()));
 
+        return adjudicatePersonFields(incomingPerson, existingPerson, requester);
+    }
+
+    /**
+     * Determines which data "gets let through" on a person update/patch
+     * @param incomingPerson the incoming data POJO from the request
+     * @param existingPerson the person as it currently exists in the database
+     * @param requester the requester's Authentication object
+     * @return the entity containing allowed modifications and a bitmap of any denied fields
+     * 
+     */
+    @Override
+    public EntityFieldAuthResponse<Person> adjudicatePersonFields(Person incomingPerson, Person existingPerson, Authentication requester) {
+
+        // if EFA isn't even enabled, just return the new entity
+        if (!efaEnabled) {
+        	return EntityFieldAuthResponse.<Person>builder()
+        		.modifiedEntity(incomingPerson)
+        		.build();
+        }
+
         // if we can't get requester information, then don't let any change through, return the existing one.
         if (requester == null) {
         	return EntityFieldAuthResponse.<Person>builder()
@@ -183,7 +202,7 @@ public class EntityFieldAuthServiceImpl implements EntityFieldAuthService {
         
         // Must have EDIT privilege by this point to proceed
         // Or the authenticated user must be editing their own record
-        if (!requester.getAuthorities().contains(new SimpleGrantedAuthority("PERSON_EDIT")) && !isOwnUser) {
+        if (!requester.getAuthorities().contains(PERSON_EDIT_AUTHORITY) && !isOwnUser) {
         	return EntityFieldAuthResponse.<Person>builder()
         			.modifiedEntity(existingPerson)
         			.build();
@@ -194,36 +213,29 @@ public class EntityFieldAuthServiceImpl implements EntityFieldAuthService {
          * based on the privs of the app client.
          * 
         */
-        for (Field f : personFields) {
+        BitSet deniedFields = new BitSet(personFields.size());
+        for (ProtectedFieldAccessor f : personFields) {
             if (requesterHasPrivsOrIsOwner(requester, isOwnUser, f)) {
-                try {
-
-                    // if the incoming value is equal to the existing value for this field, then
-                    //  it doesn't count as an attempt to change, so go to next field
-                    if (Objects.equals(FieldUtils.readField(existingPerson, f.getName(), true),
-                            FieldUtils.readField(incomingPerson, f.getName(), true))) {
-                        continue;
-                    }
-
-                    // requester did not have the rights to this field, negate its value by
-                    //  overwriting from existing object
-                    FieldUtils.writeField(incomingPerson,
-                            f.getName(),
-                            FieldUtils.readField(existingPerson, f.getName(), true),
-                            true);
-
-                    deniedFields.add(f.getName());
-                }
-                catch (IllegalAccessException e) {
-                    throw new InvalidRecordUpdateRequest("Tried to access a Person field with bad permissions or a field that does not exist");
+                Object existingValue = f.read(existingPerson);
+
+                // if the incoming value is equal to the existing value for this field, then
+                //  it doesn't count as an attempt to change, so go to next field
+                if (Objects.equals(existingValue, f.read(incomingPerson))) {
+                    continue;
                 }
+
+                // requester did not have the rights to this field, negate its value by
+                //  overwriting from existing object
+                f.write(incomingPerson, existingValue);
+                deniedFields.set(f.getIndex());
             }
         }
 
         // return the (possible modified) entity to the service
         return EntityFieldAuthResponse.<Person>builder()
     			.modifiedEntity(incomingPerson)
-    			.deniedFields(deniedFields)
+    			.deniedFieldMask(deniedFields)
+    			.protectedFields(personFields)
     			.build();
     }
 
@@ -239,17 +251,19 @@ public class EntityFieldAuthServiceImpl implements EntityFieldAuthService {
      * @param f field that is up for a possible change
      * @return true if the field is allowed to be changed
      */
-    private boolean requesterHasPrivsOrIsOwner(Authentication requester, boolean isOwnUser, Field f) {
+    private boolean requesterHasPrivsOrIsOwner(Authentication requester, boolean isOwnUser, ProtectedFieldAccessor f) {
         return (!userHasAuthorizationToField(requester, EntityFieldAuthType.PERSON, f.getName()) && !isOwnUser) ||
                 (isOwnUser && (f.getName().equalsIgnoreCase(Person.DODID_FIELD) || f.getName().equalsIgnoreCase(Person.EMAIL_FIELD)));
     }
     
     /**
-     * Determines which data "gets let through" on a organization update/patch
+     * Determines which data "gets let through" on a organization update/patch.  The existing org is
+     * looked up from the database, use {@link #adjudicateOrganizationFields(Organization, Organization, Authentication)}
+     * if the caller has already loaded it.
      * @param incomingOrg the incoming data POJO from the request
      * @param requester the requester's Authentication object
      * 
-     * @return the entity containing allowed modifications and a list containing any denied fields
+     * @return the entity containing allowed modifications and a bitmap of any denied fields
      */
     @Override
     public EntityFieldAuthResponse<Organization> adjudicateOrganizationFields(Organization incomingOrg, Authentication requester) {
@@ -261,11 +275,29 @@ public class EntityFieldAuthServiceImpl implements EntityFieldAuthService {
         			.build();
         }
 
-        List<String> deniedFields = new ArrayList<>();
-
         Organization existingOrg = organizationRepository.findById(incomingOrg.getId())
                 .orElseThrow(() -> new RecordNotFoundException("Existing org not found with id: " + incomingOrg.getId()));
-        
+
+        return adjudicateOrganizationFields(incomingOrg, existingOrg, requester);
+    }
+
+    /**
+     * Determines which data "gets let through" on a organization update/patch
+     * @param incomingOrg the incoming data POJO from the request
+     * @param existingOrg the organization as it currently exists in the database
+     * @param requester the requester's Authentication object
+     * 
+     * @return the entity containing allowed modifications and a bitmap of any denied fields
+     */
+    @Override
+    public EntityFieldAuthResponse<Organization> adjudicateOrganizationFields(Organization incomingOrg, Organization existingOrg, Authentication requester) {
+
+        // if EFA isn't even enabled, just return the new entity
+        if (!efaEnabled) {
+        	return EntityFieldAuthResponse.<Organization>builder()
+        			.modifiedEntity(incomingOrg)
+        			.build();
+        }
 
         // if we can't get requester information, then don't let any change through, return the existing one.
         if (requester == null) {
@@ -282,7 +314,7 @@ public class EntityFieldAuthServiceImpl implements EntityFieldAuthService {
     	}
         
         // Must have EDIT privilege by this point to proceed
-        if (!requester.getAuthorities().contains(new SimpleGrantedAuthority("ORGANIZATION_EDIT"))) {
+        if (!requester.getAuthorities().contains(ORGANIZATION_EDIT_AUTHORITY)) {
         	return EntityFieldAuthResponse.<Organization>builder()
         			.modifiedEntity(existingOrg)
         			.build();
@@ -290,37 +322,29 @@ public class EntityFieldAuthServiceImpl implements EntityFieldAuthService {
 
         // for each protected field we need to decide whether to use the incoming value or leave the existing
         //  based on the privs of the app client
-        for (Field f : orgFields) {
+        BitSet deniedFields = new BitSet(orgFields.size());
+        for (ProtectedFieldAccessor f : orgFields) {
             if (!userHasAuthorizationToField(requester, EntityFieldAuthType.ORGANIZATION, f.getName())) {
+                Object existingValue = f.read(existingOrg);
 
-                try {
-
-                    // if the incoming value is equal to the existing value for this field, then
-                    //  it doesn't count as an attempt to change, so go to next field
-                    if (Objects.equals(FieldUtils.readField(existingOrg, f.getName(), true),
-                            FieldUtils.readField(incomingOrg, f.getName(), true))) {
-                        continue;
-                    }
-
-                    // requester did not have the rights to this field, negate its value by
-                    //  overwriting from existing object
-                    FieldUtils.writeField(incomingOrg,
-                            f.getName(),
-                            FieldUtils.readField(existingOrg, f.getName(), true),
-                            true);
-
-                    deniedFields.add(f.getName());
-                }
-                catch (IllegalAccessException e) {
-                    throw new InvalidRecordUpdateRequest("Tried to access an Org field with bad permissions or a field that does not exist");
+                // if the incoming value is equal to the existing value for this field, then
+                //  it doesn't count as an attempt to change, so go to next field
+                if (Objects.equals(existingValue, f.read(incomingOrg))) {
+                    continue;
                 }
+
+                // requester did not have the rights to this field, negate its value by
+                //  overwriting from existing object
+                f.write(incomingOrg, existingValue);
+                deniedFields.set(f.getIndex());
             }
         }
 
         // return the (possible modified) entity to the service
         return EntityFieldAuthResponse.<Organization>builder()
     			.modifiedEntity(incomingOrg)
-    			.deniedFields(deniedFields)
+    			.deniedFieldMask(deniedFields)
+    			.protectedFields(orgFields)
     			.build();
     }
 
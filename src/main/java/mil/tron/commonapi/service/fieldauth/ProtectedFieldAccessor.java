@@ -0,0 +1,100 @@
+package mil.tron.commonapi.service.fieldauth;
+
+import lombok.Getter;
+import mil.tron.commonapi.annotation.efa.ProtectedField;
+import mil.tron.commonapi.exception.InvalidRecordUpdateRequest;
+import org.apache.commons.lang3.reflect.FieldUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Precomputed read/write access to a single {@link ProtectedField} of an entity.
+ *
+ * The getter/setter method handles are resolved once (when EFA starts up) so that adjudicating
+ * an entity doesn't have to look up and open up each field reflectively on every request.
+ */
+public class ProtectedFieldAccessor {
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    /**
+     * Name of the entity field
+     */
+    @Getter
+    private final String name;
+
+    /**
+     * Position of this field within its entity's list of accessors, this is the bit used
+     * for the field in a denied fields mask
+     */
+    @Getter
+    private final int index;
+
+    private final MethodHandle getter;
+    private final MethodHandle setter;
+
+    private ProtectedFieldAccessor(String name, int index, MethodHandle getter, MethodHandle setter) {
+        this.name = name;
+        this.index = index;
+        this.getter = getter;
+        this.setter = setter;
+    }
+
+    /**
+     * Builds accessors for all the fields in the given entity class marked with {@link ProtectedField}
+     *
+     * @param entityClass the entity class
+     * @return unmodifiable list of accessors, each accessor's index is its position in this list
+     */
+    public static List<ProtectedFieldAccessor> forEntity(Class<?> entityClass) {
+        List<ProtectedFieldAccessor> accessors = new ArrayList<>();
+
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(entityClass, MethodHandles.lookup());
+            for (Field field : FieldUtils.getFieldsListWithAnnotation(entityClass, ProtectedField.class)) {
+                accessors.add(new ProtectedFieldAccessor(field.getName(),
+                        accessors.size(),
+                        lookup.unreflectGetter(field).asType(GETTER_TYPE),
+                        lookup.unreflectSetter(field).asType(SETTER_TYPE)));
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Unable to build protected field accessors for " + entityClass.getName(), e);
+        }
+
+        return Collections.unmodifiableList(accessors);
+    }
+
+    /**
+     * Reads this field from the given entity
+     *
+     * @param entity the entity to read from
+     * @return the field's value
+     */
+    public Object read(Object entity) {
+        try {
+            return getter.invokeExact(entity);
+        } catch (Throwable e) {  //NOSONAR - invokeExact is declared to throw Throwable
+            throw new InvalidRecordUpdateRequest("Tried to access a protected field with bad permissions or a field that does not exist: " + name);
+        }
+    }
+
+    /**
+     * Sets this field on the given entity
+     *
+     * @param entity the entity to modify
+     * @param value the value to set
+     */
+    public void write(Object entity, Object value) {
+        try {
+            setter.invokeExact(entity, value);
+        } catch (Throwable e) {  //NOSONAR - invokeExact is declared to throw Throwable
+            throw new InvalidRecordUpdateRequest("Tried to access a protected field with bad permissions or a field that does not exist: " + name);
+        }
+    }
+}
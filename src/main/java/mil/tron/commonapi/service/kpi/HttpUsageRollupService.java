@@ -0,0 +1,17 @@
+package mil.tron.commonapi.service.kpi;
+
+import mil.tron.commonapi.entity.HttpLogEntry;
+
+public interface HttpUsageRollupService {
+	/**
+	 * Counts a traced request towards its hourly rollup.  The count is held in memory
+	 * until the next {@link #flush()}.
+	 * @param entry the traced request
+	 */
+	void record(HttpLogEntry entry);
+
+	/**
+	 * Writes all of the pending counts to the rollup table
+	 */
+	void flush();
+}
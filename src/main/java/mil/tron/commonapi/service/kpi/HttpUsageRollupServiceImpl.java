@@ -0,0 +1,188 @@
+package mil.tron.commonapi.service.kpi;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import mil.tron.commonapi.entity.HttpLogEntry;
+import mil.tron.commonapi.entity.kpi.HttpUsageRollup;
+import mil.tron.commonapi.repository.kpi.HttpUsageRollupRepository;
+
+/**
+ * Keeps the hourly http usage rollups up to date.  Traced requests are counted in memory and
+ * written behind on a schedule, so the request path never waits on the rollup table and a busy
+ * hour costs one update per user/service/status instead of one per request.
+ */
+@Slf4j
+@Service
+public class HttpUsageRollupServiceImpl implements HttpUsageRollupService {
+	private static final String UNKNOWN_USER = "Unknown";
+	private static final int MAX_NAME_LENGTH = 255;
+
+	private static final Pattern ORGANIZATION_PATTERN = Pattern.compile("/api/v\\d+/organization");
+	private static final Pattern PERSON_PATTERN = Pattern.compile("/api/v\\d+/person");
+
+	private final HttpUsageRollupRepository rollupRepository;
+	private final TransactionTemplate transactionTemplate;
+	private final Pattern appSourcePattern;
+
+	private final Map<RollupKey, HttpUsageRollup> pending = new ConcurrentHashMap<>();
+
+	public HttpUsageRollupServiceImpl(HttpUsageRollupRepository rollupRepository,
+									  PlatformTransactionManager transactionManager,
+									  @Value("${app-sources-prefix}") String appGatewayPrefix) {
+		this.rollupRepository = rollupRepository;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		this.appSourcePattern = Pattern.compile("/api/v\\d+" + Pattern.quote(appGatewayPrefix) + "/([^/?#]+)");
+	}
+
+	@Override
+	public void record(HttpLogEntry entry) {
+		if (entry.getRequestTimestamp() == null) {
+			return;
+		}
+
+		RollupKey key = toKey(entry);
+		Long timeTaken = entry.getTimeTakenMs();
+		pending.compute(key, (k, rollup) -> {
+			if (rollup == null) {
+				rollup = k.toRollup();
+			}
+
+			rollup.setRequestCount(rollup.getRequestCount() + 1);
+			if (timeTaken != null) {
+				addLatency(rollup, timeTaken);
+			}
+
+			return rollup;
+		});
+	}
+
+	@PreDestroy
+	@Scheduled(fixedDelayString = "${http-usage-rollup-flush-ms:30000}")
+	@Override
+	public synchronized void flush() {
+		for (RollupKey key : new ArrayList<>(pending.keySet())) {
+			HttpUsageRollup delta = pending.remove(key);
+			if (delta == null) {
+				continue;
+			}
+
+			try {
+				write(delta);
+			} catch (Exception ex) {
+				// keep the counts around for the next flush rather than losing them
+				log.warn("Could not write http usage rollup, will retry on the next flush", ex);
+				pending.merge(key, delta, HttpUsageRollupServiceImpl::merge);
+			}
+		}
+	}
+
+	private void write(HttpUsageRollup delta) {
+		try {
+			transactionTemplate.executeWithoutResult(status -> {
+				if (rollupRepository.increment(delta) == 0) {
+					rollupRepository.saveAndFlush(delta);
+				}
+			});
+		} catch (DataIntegrityViolationException ex) {
+			// another instance created the row first, it exists now so add to it
+			transactionTemplate.executeWithoutResult(status -> rollupRepository.increment(delta));
+		}
+	}
+
+	RollupKey toKey(HttpLogEntry entry) {
+		String url = StringUtils.defaultString(entry.getRequestedUrl());
+		String service;
+		boolean appSource = false;
+
+		Matcher appSourceMatcher = appSourcePattern.matcher(url);
+		if (appSourceMatcher.find()) {
+			service = StringUtils.left(appSourceMatcher.group(1), MAX_NAME_LENGTH);
+			appSource = true;
+		} else if (ORGANIZATION_PATTERN.matcher(url).find()) {
+			service = HttpUsageRollup.ORGANIZATION_SERVICE;
+		} else if (PERSON_PATTERN.matcher(url).find()) {
+			service = HttpUsageRollup.PERSON_SERVICE;
+		} else {
+			service = HttpUsageRollup.OTHER_SERVICE;
+		}
+
+		return new RollupKey(
+				HttpUsageRollup.bucketOf(entry.getRequestTimestamp()),
+				StringUtils.left(StringUtils.defaultIfEmpty(entry.getUserName(), UNKNOWN_USER), MAX_NAME_LENGTH),
+				service,
+				appSource,
+				entry.getStatusCode());
+	}
+
+	private static void addLatency(HttpUsageRollup rollup, long timeTaken) {
+		rollup.setLatencyCount(rollup.getLatencyCount() + 1);
+		rollup.setTotalLatencyMs(rollup.getTotalLatencyMs() + timeTaken);
+
+		long[] bounds = HttpUsageRollup.LATENCY_BUCKET_BOUNDS_MS;
+		if (timeTaken <= bounds[0]) {
+			rollup.setLatencyLe100Ms(rollup.getLatencyLe100Ms() + 1);
+		} else if (timeTaken <= bounds[1]) {
+			rollup.setLatencyLe500Ms(rollup.getLatencyLe500Ms() + 1);
+		} else if (timeTaken <= bounds[2]) {
+			rollup.setLatencyLe1000Ms(rollup.getLatencyLe1000Ms() + 1);
+		} else if (timeTaken <= bounds[3]) {
+			rollup.setLatencyLe5000Ms(rollup.getLatencyLe5000Ms() + 1);
+		} else {
+			rollup.setLatencyOver5000Ms(rollup.getLatencyOver5000Ms() + 1);
+		}
+	}
+
+	private static HttpUsageRollup merge(HttpUsageRollup into, HttpUsageRollup from) {
+		into.setRequestCount(into.getRequestCount() + from.getRequestCount());
+		into.setLatencyCount(into.getLatencyCount() + from.getLatencyCount());
+		into.setTotalLatencyMs(into.getTotalLatencyMs() + from.getTotalLatencyMs());
+		into.setLatencyLe100Ms(into.getLatencyLe100Ms() + from.getLatencyLe100Ms());
+		into.setLatencyLe500Ms(into.getLatencyLe500Ms() + from.getLatencyLe500Ms());
+		into.setLatencyLe1000Ms(into.getLatencyLe1000Ms() + from.getLatencyLe1000Ms());
+		into.setLatencyLe5000Ms(into.getLatencyLe5000Ms() + from.getLatencyLe5000Ms());
+		into.setLatencyOver5000Ms(into.getLatencyOver5000Ms() + from.getLatencyOver5000Ms());
+		return into;
+	}
+
+	@Getter
+	@AllArgsConstructor
+	@EqualsAndHashCode
+	static class RollupKey {
+		private final Date bucketStart;
+		private final String userName;
+		private final String service;
+		private final boolean appSource;
+		private final int statusCode;
+
+		HttpUsageRollup toRollup() {
+			return HttpUsageRollup.builder()
+					.bucketStart(bucketStart)
+					.userName(userName)
+					.service(service)
+					.appSource(appSource)
+					.statusCode(statusCode)
+					.build();
+		}
+	}
+}
@@ -11,7 +11,6 @@ import java.util.Date;
 import java.util.List;
 import java.util.stream.Collectors;
 
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.Nullable;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
@@ -21,36 +20,36 @@ import mil.tron.commonapi.dto.kpi.ServiceMetricDto;
 import mil.tron.commonapi.dto.kpi.UniqueVisitorCountDto;
 import mil.tron.commonapi.dto.mapper.DtoMapper;
 import mil.tron.commonapi.entity.kpi.AppSourceMetricSummary;
+import mil.tron.commonapi.entity.kpi.HttpUsageRollup;
 import mil.tron.commonapi.entity.kpi.KpiSummary;
+import mil.tron.commonapi.entity.kpi.ServiceUsage;
 import mil.tron.commonapi.entity.kpi.UserWithRequestCount;
 import mil.tron.commonapi.entity.kpi.VisitorType;
 import mil.tron.commonapi.exception.BadRequestException;
-import mil.tron.commonapi.repository.HttpLogsRepository;
 import mil.tron.commonapi.repository.MeterValueRepository;
 import mil.tron.commonapi.repository.appsource.AppSourceRepository;
+import mil.tron.commonapi.repository.kpi.HttpUsageRollupRepository;
 import mil.tron.commonapi.repository.kpi.KpiRepository;
 import mil.tron.commonapi.service.utility.HttpLogsUtilService;
 
 @Service
 public class KpiServiceImpl implements KpiService {
 	private final DtoMapper modelMapper;
-	private final HttpLogsRepository httpLogsRepo;
+	private final HttpUsageRollupRepository usageRollupRepo;
 	private final AppSourceRepository appSourceRepo;
 	private final MeterValueRepository meterValueRepo;
 	private final KpiRepository kpiRepo;
 	private final HttpLogsUtilService httpLogsUtilService;
 	private final Clock systemUtcClock;
-	private final String appGatewayPrefix;
 	
 	public KpiServiceImpl(
-			HttpLogsRepository httpLogsRepo, 
+			HttpUsageRollupRepository usageRollupRepo, 
 			AppSourceRepository appSourceRepo, 
 			MeterValueRepository meterValueRepo, 
 			KpiRepository kpiRepo,
 			HttpLogsUtilService httpLogsService,
-			Clock systemUtcClock,
-			@Value("${app-sources-prefix}") String appGatewayPrefix) {
-		this.httpLogsRepo = httpLogsRepo;
+			Clock systemUtcClock) {
+		this.usageRollupRepo = usageRollupRepo;
 		this.appSourceRepo = appSourceRepo;
 		this.meterValueRepo = meterValueRepo;
 		this.httpLogsUtilService = httpLogsService;
@@ -58,14 +57,12 @@ public class KpiServiceImpl implements KpiService {
 		
 		this.systemUtcClock = systemUtcClock;
 		
-		this.appGatewayPrefix = appGatewayPrefix;
-		
 		this.modelMapper = new DtoMapper();
 	}
 
 	@Override
 	public List<UserWithRequestCount> getUsersWithRequestCount(Date startDate, Date endDate) {
-		return this.httpLogsRepo.getUsersWithRequestCount(startDate, endDate);
+		return this.usageRollupRepo.getUsersWithRequestCount(HttpUsageRollup.bucketOf(startDate), endDate);
 	}
 
 	@Override
@@ -75,7 +72,7 @@ public class KpiServiceImpl implements KpiService {
 
 	@Override
 	public Double getAverageLatencyForSuccessResponse(Date startDate, Date endDate) {
-		return this.httpLogsRepo.getAverageLatencyForSuccessfulResponse(startDate, endDate).orElse(null);
+		return getAverageLatency(this.usageRollupRepo.getSuccessfulUsageByService(HttpUsageRollup.bucketOf(startDate), endDate));
 	}
 
 	@Override
@@ -129,16 +126,17 @@ public class KpiServiceImpl implements KpiService {
 				.requestCount(appClientUserRequestCount)
 				.build());
 		
-		List<ServiceMetricDto> serviceMetrics = this.getServiceMetrics(startDate, endDate);
+		// latency for all successful requests and for each service both come from the same rollup totals
+		List<ServiceUsage> serviceUsage = this.usageRollupRepo.getSuccessfulUsageByService(startDate, endDate);
 		
 		return KpiSummaryDto.builder()
 				.startDate(startDate)
 				.endDate(endDate)
 				.appSourceCount(this.getAppSourceCount())
-				.averageLatencyForSuccessfulRequests(this.getAverageLatencyForSuccessResponse(startDate, endDate))
+				.averageLatencyForSuccessfulRequests(getAverageLatency(serviceUsage))
 				.appClientToAppSourceRequestCount(appClientToAppSourceRequestCount)
 				.uniqueVisitorCounts(uniqueVisitorCount)
-				.serviceMetrics(serviceMetrics)
+				.serviceMetrics(toServiceMetrics(serviceUsage))
 				.build();
 	}
 	
@@ -231,6 +229,35 @@ public class KpiServiceImpl implements KpiService {
 		// Ensure startDate gets 00:00:00
 		startDate = httpLogsUtilService.getDateAtStartOfDay(startDate);
 		
-		return httpLogsRepo.getMetricsForSuccessfulResponsesByService(startDate, endDate, appGatewayPrefix);
+		return toServiceMetrics(usageRollupRepo.getSuccessfulUsageByService(startDate, endDate));
+	}
+	
+	private List<ServiceMetricDto> toServiceMetrics(List<ServiceUsage> serviceUsage) {
+		return serviceUsage.stream()
+				.map(usage -> ServiceMetricDto.builder()
+						.name(usage.getName())
+						.averageLatency(averageOf(usage.getTotalLatencyMs(), usage.getLatencyCount()))
+						.responseCount(usage.getRequestCount())
+						.build())
+				.collect(Collectors.toList());
+	}
+	
+	private Double getAverageLatency(List<ServiceUsage> serviceUsage) {
+		long totalLatencyMs = serviceUsage.stream().collect(Collectors.summingLong(ServiceUsage::getTotalLatencyMs));
+		long latencyCount = serviceUsage.stream().collect(Collectors.summingLong(ServiceUsage::getLatencyCount));
+		
+		return averageOf(totalLatencyMs, latencyCount);
+	}
+	
+	/**
+	 * Requests that never reported a time taken aren't part of the average,
+	 * null if there is nothing to average
+	 */
+	private Double averageOf(Long totalLatencyMs, Long latencyCount) {
+		if (latencyCount == null || latencyCount == 0) {
+			return null;
+		}
+		
+		return (double) totalLatencyMs / latencyCount;
 	}
 }
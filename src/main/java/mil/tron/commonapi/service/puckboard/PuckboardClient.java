@@ -0,0 +1,70 @@
+package mil.tron.commonapi.service.puckboard;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pulls the dumps from Puckboard's API.  Responses are parsed as they are read off the wire
+ * instead of being buffered into a String and then a JSON tree first.
+ */
+@Component
+public class PuckboardClient {
+    private final RestTemplate restTemplate;
+    private final String puckboardUrlStable;
+    private final String puckboardUrl;
+
+    public PuckboardClient(@Qualifier("puckboardFetcher") RestTemplate restTemplate,
+                           @Value("${puckboard-url-stable}") String puckboardUrlStable,
+                           @Value("${puckboard-url}") String puckboardUrl) {
+        this.restTemplate = restTemplate;
+        this.puckboardUrlStable = puckboardUrlStable;
+        this.puckboardUrl = puckboardUrl;
+    }
+
+    /**
+     * @return the "/organizations" dump
+     * @throws RestClientException if the request fails or the response can't be parsed
+     */
+    public List<PuckboardDump.Organization> fetchOrganizations() {
+        return fetch(puckboardUrlStable + "/organizations", response -> PuckboardDumpParser.parseOrganizations(response.getBody()));
+    }
+
+    /**
+     * @return the "/personnel" dump
+     * @throws RestClientException if the request fails or the response can't be parsed
+     */
+    public List<PuckboardDump.Person> fetchPersonnel() {
+        return fetch(puckboardUrlStable + "/personnel", response -> PuckboardDumpParser.parsePersonnel(response.getBody()));
+    }
+
+    /**
+     * @return the rank lookup from the "/branch" dump
+     * @throws RestClientException if the request fails or the response can't be parsed
+     */
+    public Map<Integer, PuckboardDump.Rank> fetchRanks() {
+        return fetch(puckboardUrl + "/branch", response -> PuckboardDumpParser.parseRanks(response.getBody()));
+    }
+
+    /**
+     * @return all three dumps
+     * @throws RestClientException if any of the requests fail or a response can't be parsed
+     */
+    public PuckboardDump fetchDump() {
+        return new PuckboardDump(fetchOrganizations(), fetchPersonnel(), fetchRanks());
+    }
+
+    // parse errors (IOExceptions) thrown by the extractor come back out wrapped in a RestClientException
+    private <T> T fetch(String uri, ResponseExtractor<T> extractor) {
+        return restTemplate.execute(uri, HttpMethod.GET,
+                request -> request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON)), extractor);
+    }
+}
@@ -0,0 +1,58 @@
+package mil.tron.commonapi.service.puckboard;
+
+import lombok.Value;
+import mil.tron.commonapi.entity.branches.Branch;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The parts of Puckboard's organization, personnel and branch dumps that Common API syncs.
+ * Only the handful of fields we use are kept, the raw JSON is never held onto.
+ */
+@Value
+public class PuckboardDump {
+    List<Organization> organizations;
+    List<Person> personnel;
+
+    /**
+     * Puckboard rankId -> rank, Puckboard stores a rank id on its people where Common API uses rank abbreviations
+     */
+    Map<Integer, Rank> ranks;
+
+    @Value
+    public static class Organization {
+        UUID id;
+        String name;
+        Branch branch;
+    }
+
+    @Value
+    public static class Person {
+        UUID id;
+        String firstName;
+        String lastName;
+        String email;
+        String dodid;
+        String phone;
+        int rankId;
+        boolean placeholder;
+        UUID primaryOrganizationId;
+
+        /**
+         * Each organization the person is (or was) in, and whether they are still active in it
+         */
+        Map<UUID, Boolean> organizationStatus;
+
+        public String getFullName() {
+            return String.format("%s %s", firstName, lastName);
+        }
+    }
+
+    @Value
+    public static class Rank {
+        String abbreviation;
+        Branch branch;
+    }
+}
@@ -0,0 +1,193 @@
+package mil.tron.commonapi.service.puckboard;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import mil.tron.commonapi.entity.branches.Branch;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Reads Puckboard's dumps straight off of the response stream.  Each dump is an object with a "result"
+ * array, only one element of that array is ever held as a tree at a time.
+ */
+public class PuckboardDumpParser {
+    private PuckboardDumpParser() {}
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String ARRAY_RESULT_FIELD = "result";
+
+    private static final String ORG_ID_FIELD = "organizationId";
+    private static final String ORG_TYPE_FIELD = "branchId";
+    private static final String ORG_NAME_FIELD = "organizationName";
+    private static final String ORG_STATUS_FIELD = "organizationStatus";
+    private static final String ORG_ACTIVE_FIELD = "active";
+
+    private static final String BRANCH_ID_FIELD = "id";
+    private static final String BRANCH_RANKS_FIELD = "ranks";
+    private static final String PERSON_ID_FIELD = "id";
+    private static final String PERSON_FIRST_NAME_FIELD = "firstName";
+    private static final String PERSON_LAST_NAME_FIELD = "lastName";
+    private static final String PERSON_EMAIL_FIELD = "email";
+    private static final String PERSON_DODID_FIELD = "dodId";
+    private static final String PERSON_PHONE_FIELD = "contactNumber";
+    private static final String PERSON_RANK_FIELD = "rankId";
+    private static final String PERSON_RANK_ABBR_FIELD = "rankAbbr";
+    private static final String PERSON_PRIMARY_ORG_FIELD = "primaryOrganizationId";
+    private static final String PLACEHOLDER_FIELD_NAME = "isPlaceholder";
+
+    private static final Branch[] branchMapping = {
+            Branch.OTHER, // 0
+            Branch.USA, // 1
+            Branch.USMC, // 2
+            Branch.USN, // 3
+            Branch.USAF, // 4
+            Branch.USSF, // 5
+            Branch.USCG, // 6
+    };
+
+    /**
+     * Parses the "/organizations" dump
+     *
+     * @param in the dump
+     * @return the organizations in the order they were given
+     * @throws IOException if the dump can't be read or isn't JSON
+     */
+    public static List<PuckboardDump.Organization> parseOrganizations(InputStream in) throws IOException {
+        List<PuckboardDump.Organization> orgs = new ArrayList<>();
+        forEachResult(in, node -> orgs.add(new PuckboardDump.Organization(
+                toUuid(node.path(ORG_ID_FIELD).textValue()),
+                node.path(ORG_NAME_FIELD).textValue(),
+                resolveServiceName(node.path(ORG_TYPE_FIELD).asInt()))));
+
+        return orgs;
+    }
+
+    /**
+     * Parses the "/personnel" dump
+     *
+     * @param in the dump
+     * @return the personnel in the order they were given, including placeholders
+     * @throws IOException if the dump can't be read or isn't JSON
+     */
+    public static List<PuckboardDump.Person> parsePersonnel(InputStream in) throws IOException {
+        List<PuckboardDump.Person> people = new ArrayList<>();
+        forEachResult(in, node -> {
+            Map<UUID, Boolean> orgStatus = new LinkedHashMap<>();
+            Iterator<JsonNode> orgs = node.path(ORG_STATUS_FIELD).elements();
+            while (orgs.hasNext()) {
+                JsonNode org = orgs.next();
+                orgStatus.put(toUuid(org.path(ORG_ID_FIELD).textValue()), org.path(ORG_ACTIVE_FIELD).booleanValue());
+            }
+
+            String primaryOrg = node.path(PERSON_PRIMARY_ORG_FIELD).textValue();
+            people.add(new PuckboardDump.Person(
+                    toUuid(node.path(PERSON_ID_FIELD).textValue()),
+                    node.path(PERSON_FIRST_NAME_FIELD).textValue(),
+                    node.path(PERSON_LAST_NAME_FIELD).textValue(),
+                    node.path(PERSON_EMAIL_FIELD).textValue(),
+                    node.path(PERSON_DODID_FIELD).asText(null),
+                    node.path(PERSON_PHONE_FIELD).textValue(),
+                    node.path(PERSON_RANK_FIELD).asInt(),
+                    node.path(PLACEHOLDER_FIELD_NAME).asBoolean(false),
+                    primaryOrg == null ? null : UUID.fromString(primaryOrg),
+                    orgStatus));
+        });
+
+        return people;
+    }
+
+    /**
+     * Parses the "/branch" dump into a rankId -> rank lookup table.
+     * Puckboard's rank entity is an array of all the services as a object, like this:
+     * {
+     *  "result": [
+     *      {
+     *          "id": 4,
+     *          "name": "Air Force",
+     *          "ranks": [
+     *              {
+     *                  "rankName": "Airman Basic",
+     *                  "payGrade": "E-1",
+     *                  "rankAbbr": "AB",
+     *                  "rankStatus": "Enlisted",
+     *                  "rankId": 1
+     *              },
+     *              ...
+     *           ],
+     *           ...
+     *      },
+     *      ...
+     *   ]
+     * }
+     *
+     * @param in the dump
+     * @return rankId -> rank, rankId 0 is always a civilian
+     * @throws IOException if the dump can't be read or isn't JSON
+     */
+    public static Map<Integer, PuckboardDump.Rank> parseRanks(InputStream in) throws IOException {
+        Map<Integer, PuckboardDump.Rank> ranks = new HashMap<>();
+        ranks.put(0, new PuckboardDump.Rank("CIV", Branch.USAF)); //default
+        forEachResult(in, node -> {
+            Branch branch = resolveServiceName(node.path(BRANCH_ID_FIELD).asInt());
+            for (JsonNode rankNode : node.path(BRANCH_RANKS_FIELD)) {
+                ranks.put(rankNode.path(PERSON_RANK_FIELD).asInt(),
+                        new PuckboardDump.Rank(rankNode.path(PERSON_RANK_ABBR_FIELD).textValue(), branch));
+            }
+        });
+
+        return ranks;
+    }
+
+    // helper function to convert PB's branchId to service name
+    private static Branch resolveServiceName(int branchId) {
+        return branchId >= 0 && branchId < branchMapping.length ? branchMapping[branchId] : Branch.USAF;
+    }
+
+    private static UUID toUuid(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("missing id");
+        }
+
+        return UUID.fromString(value);
+    }
+
+    /**
+     * Walks the top level object of a dump handing each element of its "result" array to the consumer,
+     * anything else in the object is skipped over without being read into memory
+     */
+    private static void forEachResult(InputStream in, Consumer<JsonNode> consumer) throws IOException {
+        try (JsonParser parser = MAPPER.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a JSON object");
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                if (parser.nextToken() == JsonToken.START_ARRAY && ARRAY_RESULT_FIELD.equals(field)) {
+                    JsonToken token;
+                    while ((token = parser.nextToken()) != null && token != JsonToken.END_ARRAY) {
+                        consumer.accept(parser.readValueAsTree());
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // a missing or malformed id
+            throw new IOException("Unable to parse Puckboard dump: " + e.getMessage(), e);
+        }
+    }
+}
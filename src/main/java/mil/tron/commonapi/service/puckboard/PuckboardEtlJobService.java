@@ -0,0 +1,29 @@
+package mil.tron.commonapi.service.puckboard;
+
+import mil.tron.commonapi.dto.puckboard.PuckboardEtlJobDto;
+import mil.tron.commonapi.exception.RecordNotFoundException;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Runs the Puckboard sync in the background, so the request that kicks it off doesn't have to
+ * stay open until every organization and person has been synced
+ */
+public interface PuckboardEtlJobService {
+    /**
+     * Starts a sync in the background.  Only one sync runs at a time, so if one is already
+     * queued or running that job is returned instead of starting another
+     * @param username who is asking
+     * @return the new job, or the one already in flight
+     */
+    PuckboardEtlJobDto startJob(@Nullable String username);
+
+    PuckboardEtlJobDto getJob(UUID jobId) throws RecordNotFoundException;
+
+    /**
+     * @return the most recently started jobs, newest first
+     */
+    List<PuckboardEtlJobDto> getRecentJobs();
+}
@@ -0,0 +1,252 @@
+package mil.tron.commonapi.service.puckboard;
+
+import lombok.extern.slf4j.Slf4j;
+import mil.tron.commonapi.dto.puckboard.PuckboardEtlJobDto;
+import mil.tron.commonapi.entity.puckboard.PuckboardEtlJob;
+import mil.tron.commonapi.entity.puckboard.PuckboardEtlJobPhase;
+import mil.tron.commonapi.entity.puckboard.PuckboardEtlJobStatus;
+import mil.tron.commonapi.exception.RecordNotFoundException;
+import mil.tron.commonapi.repository.puckboard.PuckboardEtlJobRepository;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class PuckboardEtlJobServiceImpl implements PuckboardEtlJobService {
+	private static final int MAX_MESSAGE_LENGTH = 1024;
+	private static final List<PuckboardEtlJobStatus> UNFINISHED_STATUSES =
+			List.of(PuckboardEtlJobStatus.PENDING, PuckboardEtlJobStatus.RUNNING);
+
+	private final PuckboardEtlJobRepository jobRepository;
+	private final PuckboardClient puckboardClient;
+	private final PuckboardExtractorService extractorService;
+
+	/**
+	 * Job bookkeeping commits on its own so progress is visible while the sync is still going
+	 */
+	private final TransactionTemplate jobTransactionTemplate;
+
+	private final TaskExecutor executor;
+
+	private final String instanceId;
+	private final Duration lease;
+
+	/**
+	 * Jobs queued or running on this server, whose leases it keeps renewing
+	 */
+	private final Set<UUID> ownJobIds = ConcurrentHashMap.newKeySet();
+
+	public PuckboardEtlJobServiceImpl(PuckboardEtlJobRepository jobRepository,
+									  PuckboardClient puckboardClient,
+									  PuckboardExtractorService extractorService,
+									  PlatformTransactionManager transactionManager,
+									  @Qualifier("puckboardEtlExecutor") TaskExecutor executor,
+									  @Value("${instance-id}") String instanceId,
+									  @Value("${puckboard-etl-job-lease-ms:120000}") long leaseMillis) {
+		this.jobRepository = jobRepository;
+		this.puckboardClient = puckboardClient;
+		this.extractorService = extractorService;
+		this.jobTransactionTemplate = new TransactionTemplate(transactionManager);
+		this.jobTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		this.executor = executor;
+		this.instanceId = instanceId;
+		this.lease = Duration.ofMillis(leaseMillis);
+	}
+
+	/**
+	 * Jobs only run in memory, so any this server left unfinished when it last went down are never going to finish.
+	 * Other servers' jobs are left alone unless their lease has run out.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void failInterruptedJobs() {
+		jobTransactionTemplate.executeWithoutResult(status ->
+				failJobs(jobRepository.findAllByStatusInAndOwnerInstance(UNFINISHED_STATUSES, instanceId)));
+		failAbandonedJobs();
+	}
+
+	@Scheduled(fixedDelayString = "${puckboard-etl-job-heartbeat-ms:30000}")
+	public void renewLeases() {
+		if (ownJobIds.isEmpty()) {
+			return;
+		}
+
+		jobTransactionTemplate.executeWithoutResult(status -> jobRepository.renewHeartbeats(Set.copyOf(ownJobIds), new Date()));
+	}
+
+	/**
+	 * Fails the jobs of servers that went down without coming back up (or came back under another name),
+	 * which also frees up the single in-flight slot for the next sync
+	 */
+	@Scheduled(fixedDelayString = "${puckboard-etl-job-heartbeat-ms:30000}")
+	public void failAbandonedJobs() {
+		Date cutoff = new Date(System.currentTimeMillis() - lease.toMillis());
+		jobTransactionTemplate.executeWithoutResult(status ->
+				failJobs(jobRepository.findAllByStatusInAndHeartbeatOnBefore(UNFINISHED_STATUSES, cutoff)));
+	}
+
+	private void failJobs(List<PuckboardEtlJob> jobs) {
+		for (PuckboardEtlJob job : jobs) {
+			if (ownJobIds.contains(job.getId())) {
+				continue;
+			}
+
+			log.warn("Puckboard sync job {} on {} was interrupted", job.getId(), job.getOwnerInstance());
+			job.setStatus(PuckboardEtlJobStatus.FAILED);
+			job.setMessage("Interrupted by a server restart or outage");
+			job.setFinishedOn(new Date());
+			job.setInFlight(null);
+			jobRepository.save(job);
+		}
+	}
+
+	/**
+	 * Only one sync runs at a time - while one is queued or running (on any server), starting another just returns it.
+	 * The unique in-flight flag is what guarantees it, the lookup first just saves a failed insert in the common case.
+	 */
+	@Override
+	public PuckboardEtlJobDto startJob(@Nullable String username) {
+		Optional<PuckboardEtlJob> inFlight = jobRepository.findFirstByStatusInOrderByCreatedOnDesc(UNFINISHED_STATUSES);
+		if (inFlight.isPresent()) {
+			return convertToDto(inFlight.get());
+		}
+
+		PuckboardEtlJob job;
+		try {
+			job = jobTransactionTemplate.execute(status -> jobRepository.saveAndFlush(PuckboardEtlJob.builder()
+					.createdBy(username)
+					.inFlight(true)
+					.ownerInstance(instanceId)
+					.build()));
+		} catch (DataIntegrityViolationException e) {
+			// another request started one since the lookup
+			return convertToDto(jobRepository.findFirstByStatusInOrderByCreatedOnDesc(UNFINISHED_STATUSES)
+					.orElseThrow(() -> e));
+		}
+
+		UUID jobId = job.getId();
+		ownJobIds.add(jobId);
+		executor.execute(() -> runJob(jobId));
+
+		return convertToDto(job);
+	}
+
+	@Override
+	public PuckboardEtlJobDto getJob(UUID jobId) throws RecordNotFoundException {
+		return convertToDto(jobRepository.findById(jobId)
+				.orElseThrow(() -> new RecordNotFoundException(String.format("Job with id: %s not found", jobId))));
+	}
+
+	@Override
+	public List<PuckboardEtlJobDto> getRecentJobs() {
+		return jobRepository.findTop20ByOrderByCreatedOnDesc().stream()
+				.map(this::convertToDto)
+				.collect(Collectors.toList());
+	}
+
+	private void runJob(UUID jobId) {
+		try {
+			syncPuckboard(jobId);
+		} finally {
+			ownJobIds.remove(jobId);
+		}
+	}
+
+	private void syncPuckboard(UUID jobId) {
+		updateJob(jobId, j -> j.setStatus(PuckboardEtlJobStatus.RUNNING));
+
+		try {
+			PuckboardDump dump = puckboardClient.fetchDump();
+
+			extractorService.syncOrgsAndMembers(dump, (phase, result) -> updateJob(jobId, j -> {
+				j.setPhase(phase);
+				copyCounts(result, j);
+			}));
+
+			finishJob(jobId, PuckboardEtlJobStatus.COMPLETED, null);
+		} catch (Exception e) {
+			log.warn("Puckboard sync job {} failed", jobId, e);
+			finishJob(jobId, PuckboardEtlJobStatus.FAILED, e.getMessage());
+		}
+	}
+
+	private void finishJob(UUID jobId, PuckboardEtlJobStatus status, @Nullable String message) {
+		updateJob(jobId, j -> {
+			j.setStatus(status);
+			if (status == PuckboardEtlJobStatus.COMPLETED) {
+				j.setPhase(PuckboardEtlJobPhase.DONE);
+			}
+			j.setMessage(StringUtils.abbreviate(message, MAX_MESSAGE_LENGTH));
+			j.setFinishedOn(new Date());
+			j.setInFlight(null);
+		});
+	}
+
+	private PuckboardEtlJob updateJob(UUID jobId, Consumer<PuckboardEtlJob> update) {
+		return jobTransactionTemplate.execute(status -> {
+			PuckboardEtlJob job = jobRepository.findById(jobId)
+					.orElseThrow(() -> new RecordNotFoundException(String.format("Job with id: %s not found", jobId)));
+			update.accept(job);
+			return jobRepository.save(job);
+		});
+	}
+
+	private static void copyCounts(PuckboardEtlResult result, PuckboardEtlJob job) {
+		job.setOrgsCreated(result.getOrgsCreated());
+		job.setOrgsUpdated(result.getOrgsUpdated());
+		job.setOrgsUnchanged(result.getOrgsUnchanged());
+		job.setOrgsFailed(result.getOrgsFailed());
+		job.setPeopleCreated(result.getPeopleCreated());
+		job.setPeopleUpdated(result.getPeopleUpdated());
+		job.setPeopleUnchanged(result.getPeopleUnchanged());
+		job.setPeopleFailed(result.getPeopleFailed());
+		job.setPeopleSkipped(result.getPeopleSkipped());
+		job.setMembershipsAdded(result.getMembershipsAdded());
+		job.setMembershipsRemoved(result.getMembershipsRemoved());
+		job.setMembershipsFailed(result.getMembershipsFailed());
+	}
+
+	private PuckboardEtlJobDto convertToDto(PuckboardEtlJob job) {
+		return PuckboardEtlJobDto.builder()
+				.id(job.getId())
+				.status(job.getStatus())
+				.phase(job.getPhase())
+				.orgsCreated(job.getOrgsCreated())
+				.orgsUpdated(job.getOrgsUpdated())
+				.orgsUnchanged(job.getOrgsUnchanged())
+				.orgsFailed(job.getOrgsFailed())
+				.peopleCreated(job.getPeopleCreated())
+				.peopleUpdated(job.getPeopleUpdated())
+				.peopleUnchanged(job.getPeopleUnchanged())
+				.peopleFailed(job.getPeopleFailed())
+				.peopleSkipped(job.getPeopleSkipped())
+				.membershipsAdded(job.getMembershipsAdded())
+				.membershipsRemoved(job.getMembershipsRemoved())
+				.membershipsFailed(job.getMembershipsFailed())
+				.message(job.getMessage())
+				.createdBy(job.getCreatedBy())
+				.createdOn(job.getCreatedOn())
+				.finishedOn(job.getFinishedOn())
+				.build();
+	}
+}
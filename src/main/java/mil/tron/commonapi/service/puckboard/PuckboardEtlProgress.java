@@ -0,0 +1,22 @@
+package mil.tron.commonapi.service.puckboard;
+
+import mil.tron.commonapi.entity.puckboard.PuckboardEtlJobPhase;
+
+/**
+ * Receives progress from a Puckboard sync as it moves through its phases and batches
+ */
+@FunctionalInterface
+public interface PuckboardEtlProgress {
+
+    /**
+     * For callers that don't care about progress
+     */
+    PuckboardEtlProgress NONE = (phase, result) -> {};
+
+    /**
+     * Called when a phase starts and after each batch within it
+     * @param phase the phase being worked on
+     * @param result the counts so far
+     */
+    void update(PuckboardEtlJobPhase phase, PuckboardEtlResult result);
+}
@@ -0,0 +1,110 @@
+package mil.tron.commonapi.service.puckboard;
+
+import lombok.Getter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Outcome of a Puckboard sync.  Keeps a count of what happened to the organizations, personnel and
+ * memberships, along with a status line per organization and person ("Created - name",
+ * "Updated - name", "Unchanged - name" or "Problem - name (reason)").
+ */
+@Getter
+public class PuckboardEtlResult {
+    private static final String CREATED = "Created - ";
+    private static final String UPDATED = "Updated - ";
+    private static final String UNCHANGED = "Unchanged - ";
+    private static final String PROBLEM = "Problem - ";
+
+    private int orgsCreated;
+    private int orgsUpdated;
+    private int orgsUnchanged;
+    private int orgsFailed;
+
+    private int peopleCreated;
+    private int peopleUpdated;
+    private int peopleUnchanged;
+    private int peopleFailed;
+
+    /**
+     * Placeholder personnel, these are never synced
+     */
+    private int peopleSkipped;
+
+    private int membershipsAdded;
+    private int membershipsRemoved;
+    private int membershipsFailed;
+
+    private final Map<UUID, String> orgStatus = new LinkedHashMap<>();
+    private final Map<UUID, String> personStatus = new LinkedHashMap<>();
+
+    void orgCreated(UUID id, String name) {
+        orgsCreated++;
+        orgStatus.put(id, CREATED + name);
+    }
+
+    void orgUpdated(UUID id, String name) {
+        orgsUpdated++;
+        orgStatus.put(id, UPDATED + name);
+    }
+
+    void orgUnchanged(UUID id, String name) {
+        orgsUnchanged++;
+        orgStatus.put(id, UNCHANGED + name);
+    }
+
+    void orgFailed(UUID id, String name, String reason) {
+        orgsFailed++;
+        orgStatus.put(id, problem(name, reason));
+    }
+
+    void personCreated(UUID id, String name) {
+        peopleCreated++;
+        personStatus.put(id, CREATED + name);
+    }
+
+    void personUpdated(UUID id, String name) {
+        peopleUpdated++;
+        personStatus.put(id, UPDATED + name);
+    }
+
+    void personUnchanged(UUID id, String name) {
+        peopleUnchanged++;
+        personStatus.put(id, UNCHANGED + name);
+    }
+
+    void personFailed(UUID id, String name, String reason) {
+        peopleFailed++;
+        personStatus.put(id, problem(name, reason));
+    }
+
+    void personSkipped() {
+        peopleSkipped++;
+    }
+
+    /**
+     * A person's organization assignments couldn't be synced, the person itself was still created/updated
+     */
+    void membershipFailed(UUID personId, String name, String reason) {
+        membershipsFailed++;
+        personStatus.put(personId, problem(name, reason));
+    }
+
+    void membershipsFailed(int count) {
+        membershipsFailed += count;
+    }
+
+    void membershipsAdded(int count) {
+        membershipsAdded += count;
+    }
+
+    void membershipsRemoved(int count) {
+        membershipsRemoved += count;
+    }
+
+    private static String problem(String name, String reason) {
+        return PROBLEM + name + " (" + reason + ")";
+    }
+}
@@ -1,291 +1,589 @@
 package mil.tron.commonapi.service.puckboard;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Lists;
-import lombok.AllArgsConstructor;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Sets;
+import lombok.extern.slf4j.Slf4j;
+import mil.tron.commonapi.dto.BulkImportResultDto;
+import mil.tron.commonapi.dto.BulkImportRowErrorDto;
 import mil.tron.commonapi.dto.OrganizationDto;
 import mil.tron.commonapi.dto.PersonDto;
+import mil.tron.commonapi.entity.Organization;
+import mil.tron.commonapi.entity.Person;
 import mil.tron.commonapi.entity.branches.Branch;
 import mil.tron.commonapi.entity.orgtypes.Unit;
-import mil.tron.commonapi.exception.RecordNotFoundException;
-import mil.tron.commonapi.exception.ResourceAlreadyExistsException;
+import mil.tron.commonapi.entity.puckboard.PuckboardEtlJobPhase;
+import mil.tron.commonapi.entity.ranks.Rank;
+import mil.tron.commonapi.pubsub.EventManagerService;
+import mil.tron.commonapi.pubsub.messages.OrganizationChangedMessage;
+import mil.tron.commonapi.pubsub.messages.PersonChangedMessage;
+import mil.tron.commonapi.pubsub.messages.PersonOrgAddMessage;
+import mil.tron.commonapi.pubsub.messages.PersonOrgRemoveMessage;
 import mil.tron.commonapi.repository.OrganizationRepository;
+import mil.tron.commonapi.repository.PersonRepository;
+import mil.tron.commonapi.repository.ranks.RankRepository;
 import mil.tron.commonapi.service.OrganizationService;
 import mil.tron.commonapi.service.PersonService;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.NestedExceptionUtils;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.*;
-
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static mil.tron.commonapi.service.utility.BulkImportUtils.INSERT_CHUNK_SIZE;
+import static mil.tron.commonapi.service.utility.BulkImportUtils.LOOKUP_CHUNK_SIZE;
+import static mil.tron.commonapi.service.utility.BulkImportUtils.findExisting;
+
+/**
+ * Syncs Puckboard's organizations, personnel and their organization assignments into Common API.
+ *
+ * Everything is diffed against what is already stored using set based lookups, and only real changes are
+ * written, a chunk of records per transaction.  Brand new records go through the organization/person bulk
+ * imports.  Rather than an event per record, one change event is published for all updated organizations,
+ * one for all updated persons, and one member add/remove event per organization whose members changed.
+ *
+ * The Puckboard endpoints are restricted to dashboard admins, who have full entity field authority,
+ * so updates here are made directly against the entities.
+ */
+@Slf4j
 @Service
 public class PuckboardExtractorServiceImpl implements PuckboardExtractorService {
 
-    @Autowired
-    private OrganizationService orgService;
-
-    @Autowired
-    private OrganizationRepository orgRepo;
-
-    @Autowired
-    private PersonService personService;
-
-    private static final String ARRAY_RESULT_FIELD = "result";
-
-    private static final String ORG_ID_FIELD = "organizationId";
-    private static final String ORG_TYPE_FIELD = "branchId";
-    private static final String ORG_NAME_FIELD = "organizationName";
-    private static final String ORG_STATUS_FIELD = "organizationStatus";
-
-    private static final String BRANCH_ID_FIELD = "id";
-    private static final String PERSON_ID_FIELD = "id";
-    private static final String PERSON_FIRST_NAME_FIELD = "firstName";
-    private static final String PERSON_LAST_NAME_FIELD = "lastName";
-    private static final String PERSON_EMAIL_FIELD = "email";
-    private static final String PERSON_DODID_FIELD = "dodId";
-    private static final String PERSON_PHONE_FIELD = "contactNumber";
-    private static final String PERSON_RANK_FIELD = "rankId";
-    private static final String PERSON_RANK_ABBR_FIELD = "rankAbbr";
-    private static final String PERSON_PRIMARY_ORG_FIELD = "primaryOrganizationId";
-    private static final String PLACEHOLDER_FIELD_NAME = "isPlaceholder";
-
-    private static final Branch[] branchMapping = {
-            Branch.OTHER, // 0
-            Branch.USA, // 1
-            Branch.USMC, // 2
-            Branch.USN, // 3
-            Branch.USAF, // 4
-            Branch.USSF, // 5
-            Branch.USCG, // 6
-    };
-
-    @AllArgsConstructor
-    private static class RankInfo {
-        String rank;
-        Branch branch;
+    /**
+     * Number of organizations whose members are changed per transaction
+     */
+    private static final int MEMBERSHIP_CHUNK_SIZE = 100;
+
+    private final OrganizationService orgService;
+    private final OrganizationRepository orgRepo;
+    private final PersonService personService;
+    private final PersonRepository personRepo;
+    private final RankRepository rankRepository;
+    private final EventManagerService eventManagerService;
+    private final TransactionTemplate transactionTemplate;
+
+    public PuckboardExtractorServiceImpl(OrganizationService orgService,
+                                         OrganizationRepository orgRepo,
+                                         PersonService personService,
+                                         PersonRepository personRepo,
+                                         RankRepository rankRepository,
+                                         EventManagerService eventManagerService,
+                                         PlatformTransactionManager transactionManager) {
+        this.orgService = orgService;
+        this.orgRepo = orgRepo;
+        this.personService = personService;
+        this.personRepo = personRepo;
+        this.rankRepository = rankRepository;
+        this.eventManagerService = eventManagerService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Service method that takes rank, organization, and personnel information from puckboard and syncs it
+     * into Common API.
+     *
+     * Organizations are created if they don't exist by their UUID, otherwise only their name is updated.
+     * Personnel (minus placeholders) are created if they don't exist by their UUID, otherwise their name,
+     * email, dodid, phone and rank are updated.  Finally each person is added to the organizations they
+     * are active in within Puckboard, and removed from the ones they are no longer active in.
+     *
+     * @param dump the parsed Puckboard dumps
+     * @param progress receives the counts as each phase/batch completes
+     * @return counts of what was created/updated/left alone/failed along with a status line per organization and person
+     */
+    @Override
+    public PuckboardEtlResult syncOrgsAndMembers(PuckboardDump dump, PuckboardEtlProgress progress) {
+        PuckboardEtlResult result = new PuckboardEtlResult();
+
+        progress.update(PuckboardEtlJobPhase.ORGANIZATIONS, result);
+        Set<UUID> changedOrgIds = syncOrganizations(dump.getOrganizations(), result, progress);
+
+        progress.update(PuckboardEtlJobPhase.PERSONNEL, result);
+        Map<UUID, PuckboardDump.Person> syncedPeople = new LinkedHashMap<>();
+        Map<UUID, UUID> primaryOrgIds = new HashMap<>();
+        Set<UUID> changedPersonIds = syncPersonnel(dump.getPersonnel(), dump.getRanks(), result, syncedPeople, primaryOrgIds, progress);
+
+        progress.update(PuckboardEtlJobPhase.MEMBERSHIPS, result);
+        changedPersonIds.addAll(syncMemberships(syncedPeople, primaryOrgIds, result, progress));
+
+        if (!changedOrgIds.isEmpty()) {
+            OrganizationChangedMessage message = new OrganizationChangedMessage();
+            message.setOrgIds(changedOrgIds);
+            eventManagerService.recordEventAndPublish(message);
+        }
+
+        if (!changedPersonIds.isEmpty()) {
+            PersonChangedMessage message = new PersonChangedMessage();
+            message.setPersonIds(changedPersonIds);
+            eventManagerService.recordEventAndPublish(message);
+        }
+
+        return result;
     }
 
     /**
-     * Convert the JSON as given by the controller (as a JsonNode)
-     * so that we can parse through it and build a rankId -> rankAbbr
-     * lookup table since Puckboard saves 'rankId' for a person's rank and
-     * Common API uses a set of pre-defined rank strings.
-     * Puckboard's rank entity is an array of all the services as a object, like this:
-     * {
-     *  "result": [
-     *      {
-     *          "id": 4,
-     *          "name": "Air Force",
-     *          "enlistedRanks": [
-     *              {
-     *                  "rankName": "Airman Basic",
-     *                  "payGrade": "E-1",
-     *                  "rankAbbr": "AB",
-     *                  "rankStatus": "Enlisted",
-     *                  "rankId": 1
-     *              },
-     *              ...
-     *           ],
-     *           "warrantOfficerRanks": []
-     *           "officerRanks": []
-     *           ...
-     *      },
-     *      ...
-     *   ]
-     * }
-     * @param branchInfoJson The JsonNode given by the controller from the Puckboard API branch info dump
+     * Creates new organizations and renames existing ones whose name changed in Puckboard
+     *
+     * @return ids of the existing organizations that were renamed (the bulk import announces the new ones itself)
      */
-    private Map<Integer, RankInfo> processBranchInfo(JsonNode branchInfoJson) {
-        Map<Integer, RankInfo> allRanks = new HashMap<>();
-        allRanks.put(0, new RankInfo("CIV", Branch.USAF)); //default
-        for (int i = 0; i < branchInfoJson.size(); i++) {
-            JsonNode node = branchInfoJson.get(i);
-            Branch branch = resolveServiceName(node.get(BRANCH_ID_FIELD).asInt());
-            JsonNode rankSet = node.get("ranks");
-            for (int j = 0; j < rankSet.size(); j++) {
-                JsonNode rankNode = rankSet.get(j);
-                allRanks.put(
-                        rankNode.get(PERSON_RANK_FIELD).asInt(),
-                        new RankInfo(rankNode.get(PERSON_RANK_ABBR_FIELD).textValue(),branch));
+    private Set<UUID> syncOrganizations(List<PuckboardDump.Organization> orgs, PuckboardEtlResult result, PuckboardEtlProgress progress) {
+        // a repeated id takes the last one given, like upserting them one at a time would
+        Map<UUID, PuckboardDump.Organization> orgsById = new LinkedHashMap<>();
+        orgs.forEach(org -> orgsById.put(org.getId(), org));
+
+        Set<UUID> existingIds = findExisting(orgsById.keySet(), orgRepo::findIdsByIdIn);
+
+        List<OrganizationDto> newOrgs = orgsById.values().stream()
+                .filter(org -> !existingIds.contains(org.getId()))
+                .map(this::convertToOrganizationDto)
+                .collect(Collectors.toList());
+
+        if (!newOrgs.isEmpty()) {
+            BulkImportResultDto<OrganizationDto> imported = orgService.bulkImportOrgs(newOrgs);
+            imported.getCreated().forEach(org -> result.orgCreated(org.getId(), org.getName()));
+            for (BulkImportRowErrorDto error : imported.getErrors()) {
+                OrganizationDto org = newOrgs.get(error.getRow());
+                result.orgFailed(org.getId(), org.getName(), error.getMessage());
             }
+            progress.update(PuckboardEtlJobPhase.ORGANIZATIONS, result);
         }
 
-        return allRanks;
+        List<UUID> toCheck = orgsById.keySet().stream().filter(existingIds::contains).collect(Collectors.toList());
+        Set<UUID> renamed = new HashSet<>();
+        for (List<UUID> chunk : Iterables.partition(toCheck, INSERT_CHUNK_SIZE)) {
+            applyInChunk(chunk,
+                    ids -> renameOrganizations(ids, orgsById),
+                    changed -> chunk.forEach(id -> {
+                        PuckboardDump.Organization org = orgsById.get(id);
+                        if (changed.contains(id)) {
+                            renamed.add(id);
+                            result.orgUpdated(id, org.getName());
+                        } else {
+                            result.orgUnchanged(id, org.getName());
+                        }
+                    }),
+                    (id, e) -> result.orgFailed(id, orgsById.get(id).getName(), failureMessage(e)));
+            progress.update(PuckboardEtlJobPhase.ORGANIZATIONS, result);
+        }
+
+        return renamed;
     }
 
-    // helper function to convert PB's branchId to service name
-    private Branch resolveServiceName(Integer branchId) {
-        return branchId >= 0 && branchId < branchMapping.length ? branchMapping[branchId] : Branch.USAF;
+    /**
+     * Must be called from within a transaction, only the organizations whose name actually changes are
+     * made dirty so those are the only ones written on commit
+     */
+    private Set<UUID> renameOrganizations(Collection<UUID> ids, Map<UUID, PuckboardDump.Organization> orgsById) {
+        Set<UUID> renamed = new HashSet<>();
+        for (Organization org : orgRepo.findAllById(ids)) {
+            String name = orgsById.get(org.getId()).getName();
+            if (name != null && !name.trim().equals(org.getName())) {
+                org.setName(name);
+                renamed.add(org.getId());
+            }
+        }
+
+        return renamed;
     }
 
-    // helper function to infer unit type by its name, and if that fails use the "OTHER_*" for the branchType
-    private Unit resolveUnitType(JsonNode node, Branch branchType) {
-        if (node != null) {
-            Optional<Unit> unit = Arrays.stream(Unit.values())
-                    .filter(item -> node.textValue().toUpperCase().contains(item.toString())).findFirst();
+    /**
+     * Creates new personnel and updates existing ones whose details changed in Puckboard
+     *
+     * @param syncedPeople filled in with the personnel that exist in Common API after this step
+     * @param primaryOrgIds filled in with the current primary organization of each synced person that has one
+     * @return ids of the existing persons that were updated (the bulk import announces the new ones itself)
+     */
+    private Set<UUID> syncPersonnel(List<PuckboardDump.Person> people,
+                                    Map<Integer, PuckboardDump.Rank> pbRanks,
+                                    PuckboardEtlResult result,
+                                    Map<UUID, PuckboardDump.Person> syncedPeople,
+                                    Map<UUID, UUID> primaryOrgIds,
+                                    PuckboardEtlProgress progress) {
+
+        Map<UUID, PuckboardDump.Person> peopleById = new LinkedHashMap<>();
+        for (PuckboardDump.Person person : people) {
+            if (person.isPlaceholder()) {
+                result.personSkipped();
+            } else {
+                peopleById.put(person.getId(), person);
+            }
+        }
 
-            if (unit.isPresent()) return unit.get();
-            if (branchType.equals(Branch.USA)) return Unit.OTHER_USA;
-            if (branchType.equals(Branch.USN)) return Unit.OTHER_USN;
-            if (branchType.equals(Branch.USCG)) return Unit.OTHER_USCG;
-            if (branchType.equals(Branch.USMC)) return Unit.OTHER_USMC;
-            if (branchType.equals(Branch.USSF)) return Unit.OTHER_USSF;
+        Set<UUID> existingIds = findExisting(peopleById.keySet(), personRepo::findIdsByIdIn);
+
+        List<PersonDto> newPeople = peopleById.values().stream()
+                .filter(person -> !existingIds.contains(person.getId()))
+                .map(person -> convertToPersonDto(person, pbRanks))
+                .collect(Collectors.toList());
+
+        if (!newPeople.isEmpty()) {
+            BulkImportResultDto<PersonDto> imported = personService.bulkImportPeople(newPeople);
+            for (PersonDto person : imported.getCreated()) {
+                result.personCreated(person.getId(), person.getFullName());
+                syncedPeople.put(person.getId(), peopleById.get(person.getId()));
+            }
+            for (BulkImportRowErrorDto error : imported.getErrors()) {
+                PersonDto person = newPeople.get(error.getRow());
+                result.personFailed(person.getId(), person.getFullName(), error.getMessage());
+            }
+            progress.update(PuckboardEtlJobPhase.PERSONNEL, result);
         }
 
-        // something weird happened, default other usaf unit
-        return Unit.OTHER_USAF;
+        Map<String, Optional<Rank>> ranks = new HashMap<>();
+        rankRepository.findAll().forEach(rank -> ranks.put(rankKey(rank.getAbbreviation(), rank.getBranchType()), Optional.of(rank)));
+
+        List<UUID> toCheck = peopleById.keySet().stream().filter(existingIds::contains).collect(Collectors.toList());
+        Set<UUID> updated = new HashSet<>();
+        for (List<UUID> chunk : Iterables.partition(toCheck, INSERT_CHUNK_SIZE)) {
+            applyInChunk(chunk,
+                    ids -> updatePersonnel(ids, peopleById, pbRanks, ranks, primaryOrgIds),
+                    changed -> chunk.forEach(id -> {
+                        PuckboardDump.Person person = peopleById.get(id);
+                        syncedPeople.put(id, person);
+                        if (changed.contains(id)) {
+                            updated.add(id);
+                            result.personUpdated(id, person.getFullName());
+                        } else {
+                            result.personUnchanged(id, person.getFullName());
+                        }
+                    }),
+                    (id, e) -> result.personFailed(id, peopleById.get(id).getFullName(), failureMessage(e)));
+            progress.update(PuckboardEtlJobPhase.PERSONNEL, result);
+        }
+
+        return updated;
     }
 
     /**
-     * Processes Squadron information from a JsonNode structure that contains the organization dump from puckboard.
-     * Resultant units are then queried for existence in Common API by their UUID:
-     *  If they don't exist, then they are added via the OrganizationService.  Only UUID and name are used for creation.
-     *  If they do exist by UUID, the entity is modified/updated by updating the unit's name.
-     *
-     * Each unit is placed into a return Map with its UUID and if it was created/updated/or the error it caused.
-     * @param orgInfo JsonNode dump of Puckboard's organizations
-     * @return Map of units added/updated to common API by UUID and its result (created/updated/error details)
+     * Must be called from within a transaction, only the persons with a changed field are made dirty
+     * so those are the only ones written on commit
      */
-    private Map<UUID, String> processOrgInformation(JsonNode orgInfo) {
-
-        Map<UUID, String> unitIdStatus = new HashMap<>();
-
-        // go thru each unit and add/update to Common
-        for (JsonNode node : orgInfo) {
-            UUID id = UUID.fromString(node.get(ORG_ID_FIELD).textValue());
-            String name = node.get(ORG_NAME_FIELD).textValue();
-            if (!orgRepo.existsById(id)) {
-                // make new unit
-                OrganizationDto s = new OrganizationDto();
-                s.setId(id);
-                s.setName(name);
-                s.setBranchType(resolveServiceName(node.get(ORG_TYPE_FIELD).asInt()));
-                s.setOrgType(resolveUnitType(node.get(ORG_NAME_FIELD), s.getBranchType()));
-                orgService.createOrganization(s);
-                unitIdStatus.put(id, "Created - " + name);
+    private Set<UUID> updatePersonnel(Collection<UUID> ids,
+                                      Map<UUID, PuckboardDump.Person> peopleById,
+                                      Map<Integer, PuckboardDump.Rank> pbRanks,
+                                      Map<String, Optional<Rank>> ranks,
+                                      Map<UUID, UUID> primaryOrgIds) {
+
+        Set<UUID> changed = new HashSet<>();
+        for (Person person : personRepo.findAllById(ids)) {
+            if (person.getPrimaryOrganization() != null) {
+                primaryOrgIds.put(person.getId(), person.getPrimaryOrganization().getId());
             }
-            else {
-                // unit exists, just update the unit name
-                orgService.modify(id,
-                        new ImmutableMap
-                                .Builder<String, String>()
-                                .put("name", name)
-                                .build());
-
-                unitIdStatus.put(id, "Updated - " + name);
+
+            PersonDto incoming = convertToPersonDto(peopleById.get(person.getId()), pbRanks);
+            Rank rank = findRank(incoming.getRank(), incoming.getBranch(), ranks);
+
+            boolean dirty = updateField(person.getFirstName(), incoming.getFirstName(), person::setFirstName);
+            dirty |= updateField(person.getLastName(), incoming.getLastName(), person::setLastName);
+            dirty |= updateField(person.getEmail(), incoming.getEmail(), person::setEmail);
+            dirty |= updateField(person.getDodid(), incoming.getDodid(), person::setDodid);
+            dirty |= updateField(person.getDutyPhone(), incoming.getDutyPhone(), person::setDutyPhone);
+            dirty |= updateField(person.getTitle(), incoming.getTitle(), person::setTitle);
+            if (rank != null) {
+                dirty |= updateField(person.getRank() == null ? null : person.getRank().getId(), rank.getId(),
+                        rankId -> person.setRank(rank));
+            }
+
+            if (dirty) {
+                changed.add(person.getId());
             }
         }
 
-        return unitIdStatus;
+        return changed;
     }
 
     /**
-     * Processes personnel information from puckboard personnel dump.
-     * Each entity from puckboard is tested to see if it exists in Common API by its UUID.
-     * If it doesn't exist, then it is added as an Airman.
-     * If it does exist, then it existing record is updated/overwritten with the data from the puckboard dump.
-     * Finally, the organizations the entity belonged to in puckboard are updated in Common API with the personnel's
-     * UUID.  Conversely, that UUID is removed from the said organization if it has an "active" status of "false" in the
-     * puckboard data.
-     * @param peopleInfo JsonNode containing the personnel dump from puckboard
-     * @param rankLookup Lookup table of puckboard's rank structure built from {@link #processBranchInfo(JsonNode)}
-     * @return Map of personnel data added/updated to Common API by the UUID and if the entity was added/updated or had an error
+     * Adds each synced person to the organizations they are active in and removes them from the ones
+     * they are inactive in, also moving their primary organization when it changed.  Personnel without a
+     * primary organization in Puckboard have their assignments left alone.
+     *
+     * @return ids of persons whose primary organization changed
      */
-    private Map<UUID, String> processPersonnelInfo(JsonNode peopleInfo, Map<Integer, RankInfo> rankLookup) {
+    private Set<UUID> syncMemberships(Map<UUID, PuckboardDump.Person> syncedPeople,
+                                      Map<UUID, UUID> primaryOrgIds,
+                                      PuckboardEtlResult result,
+                                      PuckboardEtlProgress progress) {
+
+        Map<UUID, Set<UUID>> activeByOrg = new LinkedHashMap<>();
+        Map<UUID, Set<UUID>> inactiveByOrg = new LinkedHashMap<>();
+        Map<UUID, UUID> wantedPrimaryOrgIds = new HashMap<>();
+        for (PuckboardDump.Person person : syncedPeople.values()) {
+            if (person.getPrimaryOrganizationId() == null) continue;
+
+            person.getOrganizationStatus().forEach((orgId, active) -> {
+                (active ? activeByOrg : inactiveByOrg).computeIfAbsent(orgId, id -> new HashSet<>()).add(person.getId());
+                if (active && orgId.equals(person.getPrimaryOrganizationId())) {
+                    wantedPrimaryOrgIds.put(person.getId(), orgId);
+                }
+            });
+        }
 
-        Map<UUID, String> personIdStatus = new HashMap<>();
+        Set<UUID> orgIds = new LinkedHashSet<>(activeByOrg.keySet());
+        orgIds.addAll(inactiveByOrg.keySet());
+        Set<UUID> existingOrgIds = findExisting(orgIds, orgRepo::findIdsByIdIn);
 
-        // go thru each person and add/update to Common
-        for (int i = 0; i < peopleInfo.size(); i++) {
-            JsonNode node = peopleInfo.get(i);
+        Map<UUID, Set<UUID>> currentMembers = new HashMap<>();
+        for (List<UUID> chunk : Iterables.partition(existingOrgIds, LOOKUP_CHUNK_SIZE)) {
+            currentMembers.putAll(orgRepo.findMemberIdsByOrgIdIn(chunk));
+        }
 
-            // skip placeholder people
-            if (node.has(PLACEHOLDER_FIELD_NAME) && !node.get(PLACEHOLDER_FIELD_NAME).isNull() && node.get(PLACEHOLDER_FIELD_NAME).asBoolean()) continue;
+        // work out the difference for each organization
+        Map<UUID, Set<UUID>> toAdd = new LinkedHashMap<>();
+        Map<UUID, Set<UUID>> toRemove = new LinkedHashMap<>();
+        for (UUID orgId : orgIds) {
+            Set<UUID> active = activeByOrg.getOrDefault(orgId, Collections.emptySet());
+            Set<UUID> inactive = inactiveByOrg.getOrDefault(orgId, Collections.emptySet());
+
+            if (!existingOrgIds.contains(orgId)) {
+                Sets.union(active, inactive).forEach(personId -> {
+                    wantedPrimaryOrgIds.remove(personId, orgId);
+                    result.membershipFailed(personId, syncedPeople.get(personId).getFullName(),
+                            String.format("Organization %s not found", orgId));
+                });
+                continue;
+            }
 
-            PersonDto personDto = convertToPersonDto(node, rankLookup);
+            Set<UUID> members = currentMembers.getOrDefault(orgId, Collections.emptySet());
+            Set<UUID> adding = new HashSet<>(Sets.difference(active, members));
+            Set<UUID> removing = new HashSet<>(Sets.intersection(inactive, members));
+            if (!adding.isEmpty()) toAdd.put(orgId, adding);
+            if (!removing.isEmpty()) toRemove.put(orgId, removing);
+        }
 
-            try {
-                if (!personService.exists(personDto.getId())) {
-                    personService.createPerson(personDto);
-                    personIdStatus.put(personDto.getId(), "Created - " + personDto.getFullName());
-                } else {
-                    personService.updatePerson(personDto.getId(), personDto);
-                    personIdStatus.put(personDto.getId(), "Updated - " + personDto.getFullName());
-                }
+        // persons leaving their primary organization without joining a new one lose it
+        Map<UUID, Optional<UUID>> primaryChanges = new LinkedHashMap<>();
+        toRemove.forEach((orgId, personIds) -> personIds.forEach(personId -> {
+            if (orgId.equals(primaryOrgIds.get(personId)) && !wantedPrimaryOrgIds.containsKey(personId)) {
+                primaryChanges.put(personId, Optional.empty());
+            }
+        }));
+        wantedPrimaryOrgIds.forEach((personId, orgId) -> {
+            if (!orgId.equals(primaryOrgIds.get(personId))) {
+                primaryChanges.put(personId, Optional.of(orgId));
+            }
+        });
+
+        Set<UUID> changedOrgIds = new LinkedHashSet<>(toAdd.keySet());
+        changedOrgIds.addAll(toRemove.keySet());
+        Set<UUID> appliedOrgIds = new HashSet<>();
+        for (List<UUID> chunk : Iterables.partition(changedOrgIds, MEMBERSHIP_CHUNK_SIZE)) {
+            applyInChunk(chunk,
+                    ids -> applyMemberships(ids, toAdd, toRemove),
+                    applied -> {
+                        appliedOrgIds.addAll(applied);
+                        applied.forEach(orgId -> {
+                            result.membershipsAdded(toAdd.getOrDefault(orgId, Collections.emptySet()).size());
+                            result.membershipsRemoved(toRemove.getOrDefault(orgId, Collections.emptySet()).size());
+                        });
+                    },
+                    (orgId, e) -> {
+                        log.warn("Unable to sync the members of organization {} from Puckboard", orgId, e);
+                        result.membershipsFailed(toAdd.getOrDefault(orgId, Collections.emptySet()).size()
+                                + toRemove.getOrDefault(orgId, Collections.emptySet()).size());
+                    });
+            progress.update(PuckboardEtlJobPhase.MEMBERSHIPS, result);
+        }
+
+        Set<UUID> primaryChanged = new HashSet<>();
+        for (List<UUID> chunk : Iterables.partition(primaryChanges.keySet(), INSERT_CHUNK_SIZE)) {
+            applyInChunk(chunk,
+                    ids -> applyPrimaryOrganizations(ids, primaryChanges),
+                    primaryChanged::addAll,
+                    (personId, e) -> result.membershipFailed(personId, syncedPeople.get(personId).getFullName(), failureMessage(e)));
+        }
 
-                assignPersonToOrg(node, personDto.getId());
-            } catch (ResourceAlreadyExistsException | RecordNotFoundException | TransactionSystemException e) {
-                personIdStatus.put(personDto.getId(), "Problem - " + personDto.getFullName() + " (" + e.getMessage() + ")");
+        // one add and/or remove event per organization that actually changed
+        for (UUID orgId : changedOrgIds) {
+            if (!appliedOrgIds.contains(orgId)) continue;
+
+            if (toAdd.containsKey(orgId)) {
+                PersonOrgAddMessage message = new PersonOrgAddMessage();
+                message.setParentOrgId(orgId);
+                message.setMembersAdded(toAdd.get(orgId));
+                eventManagerService.recordEventAndPublish(message);
+            }
+
+            if (toRemove.containsKey(orgId)) {
+                PersonOrgRemoveMessage message = new PersonOrgRemoveMessage();
+                message.setParentOrgId(orgId);
+                message.setMembersRemoved(toRemove.get(orgId));
+                eventManagerService.recordEventAndPublish(message);
             }
         }
 
-        return personIdStatus;
+        return primaryChanged;
+    }
+
+    /**
+     * Must be called from within a transaction
+     *
+     * @return the organizations whose members were changed
+     */
+    private Set<UUID> applyMemberships(Collection<UUID> orgIds, Map<UUID, Set<UUID>> toAdd, Map<UUID, Set<UUID>> toRemove) {
+        Set<UUID> personIds = new HashSet<>();
+        orgIds.forEach(orgId -> {
+            personIds.addAll(toAdd.getOrDefault(orgId, Collections.emptySet()));
+            personIds.addAll(toRemove.getOrDefault(orgId, Collections.emptySet()));
+        });
+
+        Map<UUID, Person> people = personRepo.findAllById(personIds).stream()
+                .collect(Collectors.toMap(Person::getId, person -> person));
+
+        Set<UUID> applied = new HashSet<>();
+        for (Organization org : orgRepo.findAllById(orgIds)) {
+            toAdd.getOrDefault(org.getId(), Collections.emptySet()).stream()
+                    .map(people::get)
+                    .filter(Objects::nonNull)
+                    .forEach(org::addMember);
+
+            toRemove.getOrDefault(org.getId(), Collections.emptySet()).stream()
+                    .map(people::get)
+                    .filter(Objects::nonNull)
+                    .forEach(org::removeMember);
+
+            applied.add(org.getId());
+        }
+
+        return applied;
+    }
+
+    /**
+     * Must be called from within a transaction
+     *
+     * @return the persons whose primary organization was changed
+     */
+    private Set<UUID> applyPrimaryOrganizations(Collection<UUID> personIds, Map<UUID, Optional<UUID>> primaryChanges) {
+        Set<UUID> orgIds = personIds.stream()
+                .map(primaryChanges::get)
+                .flatMap(Optional::stream)
+                .collect(Collectors.toSet());
+
+        Map<UUID, Organization> orgs = orgRepo.findAllById(orgIds).stream()
+                .collect(Collectors.toMap(Organization::getId, org -> org));
+
+        Set<UUID> changed = new HashSet<>();
+        for (Person person : personRepo.findAllById(personIds)) {
+            Organization primary = primaryChanges.get(person.getId()).map(orgs::get).orElse(null);
+            person.setPrimaryOrganization(primary);
+            changed.add(person.getId());
+        }
+
+        return changed;
     }
 
-    private PersonDto convertToPersonDto(JsonNode node, Map<Integer, RankInfo> rankLookup) {
-        RankInfo rankInfo = rankLookup.get(node.get(PERSON_RANK_FIELD).asInt());
+    /**
+     * Runs the change for a whole chunk in one transaction.  If the chunk fails (e.g. a unique
+     * email/name collision) each id is retried in its own transaction so only the offending ones fail.
+     *
+     * @param chunk the ids to change
+     * @param change applies the change to the given ids, returns the ids it changed
+     * @param onCommitted receives the changed ids once they are committed
+     * @param onFailure receives each id that couldn't be changed
+     */
+    private void applyInChunk(List<UUID> chunk,
+                              Function<Collection<UUID>, Set<UUID>> change,
+                              Consumer<Set<UUID>> onCommitted,
+                              BiConsumer<UUID, RuntimeException> onFailure) {
+        try {
+            onCommitted.accept(transactionTemplate.execute(status -> change.apply(chunk)));
+        } catch (RuntimeException chunkFailure) {
+            Set<UUID> changed = new HashSet<>();
+            for (UUID id : chunk) {
+                try {
+                    changed.addAll(transactionTemplate.execute(status -> change.apply(List.of(id))));
+                } catch (RuntimeException e) {
+                    onFailure.accept(id, e);
+                }
+            }
+            onCommitted.accept(changed);
+        }
+    }
+
+    private OrganizationDto convertToOrganizationDto(PuckboardDump.Organization org) {
+        OrganizationDto dto = new OrganizationDto();
+        dto.setId(org.getId());
+        dto.setName(org.getName());
+        dto.setBranchType(org.getBranch());
+        dto.setOrgType(resolveUnitType(org.getName(), org.getBranch()));
+        return dto;
+    }
+
+    /**
+     * The one place Puckboard's values are cleaned up, both new and existing persons are compared/saved from this
+     */
+    private PersonDto convertToPersonDto(PuckboardDump.Person person, Map<Integer, PuckboardDump.Rank> pbRanks) {
+        PuckboardDump.Rank rank = resolveRank(person, pbRanks);
         return PersonDto.builder()
-                .id(UUID.fromString(node.get(PERSON_ID_FIELD).textValue()))
-                .dodid(node.get(PERSON_DODID_FIELD).asText(null))
-                .dutyPhone(node.get(PERSON_PHONE_FIELD).textValue())
-                .title(rankInfo.rank)
-                .rank(rankInfo.rank)
-                .branch(rankInfo.branch)
-                .firstName(node.get(PERSON_FIRST_NAME_FIELD).textValue())
-                .lastName(node.get(PERSON_LAST_NAME_FIELD).textValue())
-                .email(node.get(PERSON_EMAIL_FIELD).textValue())
+                .id(person.getId())
+                .dodid(trim(person.getDodid()))
+                .dutyPhone(person.getPhone())
+                .title(trim(rank.getAbbreviation()))
+                .rank(trim(rank.getAbbreviation()))
+                .branch(rank.getBranch())
+                .firstName(trim(person.getFirstName()))
+                .lastName(trim(person.getLastName()))
+                .email(blankToNull(trim(person.getEmail())))
                 .build();
     }
 
-    private void assignPersonToOrg(JsonNode node, UUID id) {
-        // now go thru each puckboard org person was in - either add or remove depending on active status
+    // a rankId Puckboard didn't list is treated the same as no rank (civilian)
+    private static PuckboardDump.Rank resolveRank(PuckboardDump.Person person, Map<Integer, PuckboardDump.Rank> pbRanks) {
+        return pbRanks.getOrDefault(person.getRankId(), pbRanks.get(0));
+    }
 
-        // if not primary og defined, just skip orgs assignments for now
-        if (node.get(PERSON_PRIMARY_ORG_FIELD).isNull()) return;
+    // helper function to infer unit type by its name, and if that fails use the "OTHER_*" for the branchType
+    private Unit resolveUnitType(String name, Branch branchType) {
+        if (name != null) {
+            Optional<Unit> unit = Arrays.stream(Unit.values())
+                    .filter(item -> name.toUpperCase().contains(item.toString())).findFirst();
 
-        UUID primaryOrg = UUID.fromString(node.get(PERSON_PRIMARY_ORG_FIELD).textValue());
-        for (JsonNode org : Lists.newArrayList(node.get(ORG_STATUS_FIELD).elements())) {
-            UUID orgId = UUID.fromString(org.get(ORG_ID_FIELD).textValue());
+            if (unit.isPresent()) return unit.get();
+            if (branchType.equals(Branch.USA)) return Unit.OTHER_USA;
+            if (branchType.equals(Branch.USN)) return Unit.OTHER_USN;
+            if (branchType.equals(Branch.USCG)) return Unit.OTHER_USCG;
+            if (branchType.equals(Branch.USMC)) return Unit.OTHER_USMC;
+            if (branchType.equals(Branch.USSF)) return Unit.OTHER_USSF;
+        }
 
-            if (orgService.getOrganization(orgId).getMembers().contains(id)) {
-                orgService.removeOrganizationMember(orgId, Lists.newArrayList(id));
-            }
+        // something weird happened, default other usaf unit
+        return Unit.OTHER_USAF;
+    }
 
-            if (org.get("active").booleanValue()) {
-                orgService.addOrganizationMember(orgId, Lists.newArrayList(id), orgId.equals(primaryOrg));
-            }
+    private static <T> boolean updateField(T current, T incoming, Consumer<T> setter) {
+        if (Objects.equals(current, incoming)) {
+            return false;
         }
+
+        setter.accept(incoming);
+        return true;
     }
 
-    /**
-     * Service method that takes rank, organization, and personnel information from puckboard and processes it for
-     * insertion/update in Common API.
-     * @param orgs JsonNode containing the "/organizations" dump from Puckboard
-     * @param people JsonNode containing the "/personnel" dump from Puckboard
-     * @param branchInfoJson JsonNode containing the "/branch" dump (contains rank info) from Puckboard
-     * @return Map summarizing the result of the Puckboard to Common API operation.  Structure has keys: "orgs", "people",
-     * and will contain each a hash stating the UUID of the entity that was persisted/updated or if there was an error
-     * with that UUID.
-     */
-    @Override
-    public Map<String, Map<UUID, String>> persistOrgsAndMembers(
-            JsonNode orgs,
-            JsonNode people,
-            JsonNode branchInfoJson) {
+    private static String trim(String value) {
+        return value == null ? null : value.trim();
+    }
 
-        // process branch information into lookup hash
-        Map<Integer, RankInfo> rankLookup = this.processBranchInfo(branchInfoJson.get(ARRAY_RESULT_FIELD));
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
 
-        // process unit information
-        Map<UUID, String> orgStatus = this.processOrgInformation(orgs.get(ARRAY_RESULT_FIELD));
+    /**
+     * Exact matches come from the ranks loaded up front, anything else goes through the same case insensitive
+     * lookup a single person add uses (once per distinct value)
+     */
+    private Rank findRank(String abbreviation, Branch branch, Map<String, Optional<Rank>> ranks) {
+        return ranks.computeIfAbsent(rankKey(abbreviation, branch),
+                key -> rankRepository.findByAbbreviationIgnoringCaseAndBranchType(abbreviation, branch)).orElse(null);
+    }
 
-        // process people information
-        Map<UUID, String> peopleStatus = this.processPersonnelInfo(people.get(ARRAY_RESULT_FIELD), rankLookup);
+    private static String rankKey(String abbreviation, Branch branch) {
+        return branch + ":" + abbreviation;
+    }
 
-        return new ImmutableMap.Builder<String, Map<UUID, String>>()
-                .put("orgs", orgStatus)
-                .put("people", peopleStatus)
-                .build();
+    private static String failureMessage(RuntimeException e) {
+        return NestedExceptionUtils.getMostSpecificCause(e).getMessage();
     }
 }
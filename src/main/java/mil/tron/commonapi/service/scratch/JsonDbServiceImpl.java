@@ -20,6 +20,7 @@ import org.springframework.stereotype.Service;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -382,7 +383,9 @@ public class JsonDbServiceImpl implements JsonDbService {
     }
 
     /**
-     * Allows to query the json with a jsonpath query
+     * Allows to query the json with a jsonpath query.  Supported jsonpath queries are evaluated in the
+     * database (Postgres only) so just the matching elements are fetched, anything else (or a query that
+     * matches nothing there) is evaluated here.
      *
      * @param appId     UUID of the scratch app
      * @param tableName the table name (key name)
@@ -393,6 +396,20 @@ public class JsonDbServiceImpl implements JsonDbService {
     public Object queryJson(UUID appId, String tableName, String path) {
 
         synchronized (lockObj) {
+            Optional<String> pushedDownResult = repository.supportsJsonPathQueries()
+                    ? ScratchJsonPathTranslator.translate(path)
+                        .flatMap(jsonPath -> repository.queryValueByJsonPath(appId, tableName, jsonPath))
+                    : Optional.empty();
+
+            // the database returns the table's own text for the match, parse it like the whole table would be
+            if (pushedDownResult.isPresent()) {
+                try {
+                    return configuration.jsonProvider().parse(pushedDownResult.get());
+                } catch (Exception e) {
+                    throw new InvalidJsonPathQueryException(String.format(JSON_TABLE_PARSE_ERROR, tableName));
+                }
+            }
+
             ScratchStorageEntry entry = repository.findByAppIdAndKey(appId, tableName)
                     .orElseThrow(() -> new RecordNotFoundException(KEY_TABLE_NOT_FOUND));
 
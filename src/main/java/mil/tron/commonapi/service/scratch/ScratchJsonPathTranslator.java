@@ -0,0 +1,79 @@
+package mil.tron.commonapi.service.scratch;
+
+import mil.tron.commonapi.repository.scratch.ScratchJsonPath;
+import mil.tron.commonapi.repository.scratch.ScratchJsonPath.Step;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Translates a supported subset of Jayway JsonPath expressions into a {@link ScratchJsonPath}, so that a
+ * JsonPath query against a scratch storage value can be evaluated inside the database and only the
+ * matching fragment returned.
+ *
+ * Supported syntax:
+ * <ul>
+ *     <li>root - {@code $}</li>
+ *     <li>dot notation fields - {@code $.name}</li>
+ *     <li>bracket notation fields - {@code $['name']}</li>
+ *     <li>non-negative array indices - {@code $[0]}</li>
+ *     <li>array wildcards - {@code $.items[*]}</li>
+ * </ul>
+ *
+ * Anything else (filters, deep scans, functions, slices, etc) is not translated and the caller is
+ * expected to evaluate the expression in the JVM instead, without querying the database first.  Filters
+ * are left out on purpose - SQL comparisons don't behave like Jayway's on mismatched types, missing
+ * fields and the like.
+ */
+public class ScratchJsonPathTranslator {
+
+    private ScratchJsonPathTranslator() {}
+
+    private static final Pattern DOT_FIELD = Pattern.compile("^\\.([A-Za-z_][A-Za-z0-9_\\-]*)");
+    private static final Pattern BRACKET_FIELD = Pattern.compile("^\\[\\s*'([^'\\\\]*)'\\s*]");
+    private static final Pattern BRACKET_INDEX = Pattern.compile("^\\[\\s*(\\d+)\\s*]");
+    private static final Pattern WILDCARD = Pattern.compile("^\\[\\s*\\*\\s*]");
+
+    /**
+     * Attempts to translate a Jayway JsonPath expression
+     *
+     * @param jsonPath the Jayway JsonPath expression
+     * @return the translated path, or empty if the expression uses syntax outside of the supported subset
+     */
+    public static Optional<ScratchJsonPath> translate(String jsonPath) {
+        if (jsonPath == null) return Optional.empty();
+
+        String remaining = jsonPath.trim();
+        if (!remaining.startsWith("$")) return Optional.empty();
+        remaining = remaining.substring(1);
+
+        List<Step> steps = new ArrayList<>();
+        boolean definite = true;
+
+        while (!remaining.isEmpty()) {
+            Matcher matcher;
+            if ((matcher = DOT_FIELD.matcher(remaining)).find()
+                    || (matcher = BRACKET_FIELD.matcher(remaining)).find()) {
+                steps.add(Step.field(matcher.group(1)));
+            } else if ((matcher = BRACKET_INDEX.matcher(remaining)).find()) {
+                try {
+                    steps.add(Step.index(Integer.parseInt(matcher.group(1))));
+                } catch (NumberFormatException e) {
+                    return Optional.empty();
+                }
+            } else if ((matcher = WILDCARD.matcher(remaining)).find()) {
+                steps.add(Step.wildcard());
+                definite = false;
+            } else {
+                return Optional.empty();
+            }
+
+            remaining = remaining.substring(matcher.end());
+        }
+
+        return Optional.of(new ScratchJsonPath(steps, definite));
+    }
+}
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.Lists;
+import com.jayway.jsonpath.Configuration;
 import com.jayway.jsonpath.DocumentContext;
 import com.jayway.jsonpath.InvalidJsonException;
 import com.jayway.jsonpath.JsonPath;
@@ -790,6 +791,10 @@ public class ScratchStorageServiceImpl implements ScratchStorageService {
      * Gets an existing key value-pair by appId and key name.  And then applies given JsonPath specification/query
      * to it and returns the result (if any) in Json format.
      *
+     * When backed by Postgres and the JsonPath is within the subset that {@link ScratchJsonPathTranslator}
+     * understands, the query is evaluated in the database so only the matching fragment is transferred.
+     * Otherwise (or if the database query comes up empty) the whole value is fetched and the query is evaluated here.
+     *
      * @param appId        scratch app UUID
      * @param keyName      key name
      * @param jsonPathSpec the JayWay JsonPath specification string
@@ -797,12 +802,19 @@ public class ScratchStorageServiceImpl implements ScratchStorageService {
      */
     @Override
     public String getKeyValueJson(UUID appId, String keyName, String jsonPathSpec) {
-        ScratchStorageEntryDto value = this.getKeyValueEntryByAppId(appId, keyName);
+        validateAppId(appId);
 
         try {
+            Optional<String> pushedDownResult = queryJsonPathInDatabase(appId, keyName, jsonPathSpec);
+            if (pushedDownResult.isPresent()) {
+                return MAPPER.writerWithDefaultPrettyPrinter()
+                        .writeValueAsString(Configuration.defaultConfiguration().jsonProvider().parse(pushedDownResult.get()));
+            }
+
+            ScratchStorageEntry value = repository.findByAppIdAndKey(appId, keyName)
+                    .orElseThrow(() -> new RecordNotFoundException(String.format("Cannot find record with that AppId/Key Name: %s / %s", appId, keyName)));
             Object results = JsonPath.parse(value.getValue()).read(jsonPathSpec);
-            return new ObjectMapper()
-                    .writerWithDefaultPrettyPrinter()
+            return MAPPER.writerWithDefaultPrettyPrinter()
                     .writeValueAsString(results);
         } catch (PathNotFoundException e) {
             throw new RecordNotFoundException("Json Path not found");
@@ -813,6 +825,26 @@ public class ScratchStorageServiceImpl implements ScratchStorageService {
         }
     }
 
+    /**
+     * Evaluates a JsonPath against a key's value inside the database, if the database and the JsonPath allow it.
+     * An empty result means the caller should evaluate the JsonPath itself - either the query couldn't be
+     * pushed down or it matched nothing (in which case the in-memory evaluation decides between an
+     * empty result and a path-not-found error, exactly as before).  The database hands back the matching
+     * part of the value's own text, and parsing that with JsonPath's default json provider (as the in-memory
+     * evaluation does with the whole value) serializes identically whatever the shape of the match.
+     *
+     * @param appId        scratch app UUID
+     * @param keyName      key name
+     * @param jsonPathSpec the JayWay JsonPath specification string
+     * @return the matching json fragment, if it could be computed in the database
+     */
+    private Optional<String> queryJsonPathInDatabase(UUID appId, String keyName, String jsonPathSpec) {
+        if (!repository.supportsJsonPathQueries()) return Optional.empty();
+
+        return ScratchJsonPathTranslator.translate(jsonPathSpec)
+                .flatMap(path -> repository.queryValueByJsonPath(appId, keyName, path));
+    }
+
     /**
      * Updates a portion of a Json structure given a JsonPath and value
      *
@@ -7,6 +7,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.web.util.ContentCachingRequestWrapper;
 import org.springframework.web.util.ContentCachingResponseWrapper;
 
+import mil.tron.commonapi.controller.LogfileController;
 import mil.tron.commonapi.controller.documentspace.DocumentSpaceController;
 
 import javax.servlet.FilterChain;
@@ -44,9 +45,11 @@ public class ContentTraceFilter extends OncePerRequestFilter {
     	/**
     	 * Interaction between {@link StreamingResponseBody} on the Controller & {@link ContentCachingResponseWrapper}
     	 * causes behavior in which what appears to happen is that the output stream will be read, causing
-    	 * empty responses. So skip the filter if the request matches specifically to the Document Space endpoint.
+    	 * empty responses. So skip the filter if the request matches specifically to the Document Space endpoint
+    	 * or the logfile downloads.
     	 */
-        if (!isRequestValid(request) || DocumentSpaceController.DOCUMENT_SPACE_PATTERN.asPredicate().test(request.getServletPath())) {
+        if (!isRequestValid(request) || DocumentSpaceController.DOCUMENT_SPACE_PATTERN.asPredicate().test(request.getServletPath())
+        		|| LogfileController.LOGFILE_DOWNLOAD_PATTERN.asPredicate().test(request.getServletPath())) {
             filterChain.doFilter(request, response);
             return;
         }
@@ -7,6 +7,7 @@ import mil.tron.commonapi.entity.HttpLogEntry;
 import mil.tron.commonapi.exception.RecordNotFoundException;
 import mil.tron.commonapi.logging.CommonApiLogger;
 import mil.tron.commonapi.repository.HttpLogsRepository;
+import mil.tron.commonapi.service.kpi.HttpUsageRollupService;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.modelmapper.ModelMapper;
@@ -26,7 +27,7 @@ import java.util.*;
  * This is used by Spring Acutator's HTTP Trace - hence the need to implement findAll() and add().
  *
  * It is in the add() method we convert the Trace (and our custom ContentTrace) into the HttpLogEntry
- * POJO for storage to the database.
+ * POJO for storage to the database, and count it towards the hourly usage rollups.
  */
 @Service
 @Profile("production | development | staging | local")
@@ -38,11 +39,14 @@ public class HttpTraceService implements HttpTraceRepository {
 
     private ContentTraceManager contentTraceManager;
     private HttpLogsRepository httpLogsRepository;
+    private HttpUsageRollupService httpUsageRollupService;
 
     public HttpTraceService(HttpLogsRepository httpLogsRepository,
-                            ContentTraceManager contentTraceManager) {
+                            ContentTraceManager contentTraceManager,
+                            HttpUsageRollupService httpUsageRollupService) {
         this.httpLogsRepository = httpLogsRepository;
         this.contentTraceManager = contentTraceManager;
+        this.httpUsageRollupService = httpUsageRollupService;
     }
 
     /**
@@ -124,22 +128,26 @@ public class HttpTraceService implements HttpTraceRepository {
 
             sanitizeBodies(trace, contentTrace);
 
-            httpLogsRepository.save(
-                    HttpLogEntry
-                            .builder()
-                            .userName(user)
-                            .timeTakenMs(trace.getTimeTaken())
-                            .queryString(trace.getRequest().getUri().getQuery())
-                            .userAgent(userAgent)
-                            .remoteIp(trace.getRequest().getRemoteAddress())
-                            .requestTimestamp(Date.from(trace.getTimestamp()))
-                            .requestMethod(trace.getRequest().getMethod())
-                            .requestedUrl(trace.getRequest().getUri().toString())
-                            .requestHost(trace.getRequest().getUri().getHost())
-                            .requestBody(contentTrace.getRequestBody())
-                            .responseBody(contentTrace.getResponseBody() != null ? contentTrace.getResponseBody() : contentTrace.getErrorMessage())
-                            .statusCode(trace.getResponse().getStatus())
-                            .build());
+            HttpLogEntry entry = HttpLogEntry
+                    .builder()
+                    .userName(user)
+                    .timeTakenMs(trace.getTimeTaken())
+                    .queryString(trace.getRequest().getUri().getQuery())
+                    .userAgent(userAgent)
+                    .remoteIp(trace.getRequest().getRemoteAddress())
+                    .requestTimestamp(Date.from(trace.getTimestamp()))
+                    .requestMethod(trace.getRequest().getMethod())
+                    .requestedUrl(trace.getRequest().getUri().toString())
+                    .requestHost(trace.getRequest().getUri().getHost())
+                    .requestBody(contentTrace.getRequestBody())
+                    .responseBody(contentTrace.getResponseBody() != null ? contentTrace.getResponseBody() : contentTrace.getErrorMessage())
+                    .statusCode(trace.getResponse().getStatus())
+                    .build();
+
+            httpLogsRepository.save(entry);
+
+            // the dashboard and KPI queries read from the hourly rollups, not the logs themselves
+            httpUsageRollupService.record(entry);
         }
     }
 
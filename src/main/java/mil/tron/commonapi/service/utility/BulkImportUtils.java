@@ -0,0 +1,81 @@
+package mil.tron.commonapi.service.utility;
+
+import com.google.common.collect.Iterables;
+import mil.tron.commonapi.dto.BulkImportResultDto;
+import mil.tron.commonapi.dto.BulkImportRowErrorDto;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Shared helpers for the set based bulk import paths of persons and organizations
+ */
+public class BulkImportUtils {
+    private BulkImportUtils() {}
+
+    /**
+     * Max number of values bound to a single IN (...) list when looking up existing records
+     */
+    public static final int LOOKUP_CHUNK_SIZE = 1000;
+
+    /**
+     * Number of rows inserted per transaction, also the JDBC batch size used for those inserts
+     */
+    public static final int INSERT_CHUNK_SIZE = 500;
+
+    /**
+     * Runs an "which of these values already exist" query over the given values in chunks
+     * so that large imports don't blow past the database's bind parameter limits
+     *
+     * @param values the values to look up
+     * @param query the query returning the subset of the given values that already exist
+     * @param <T> type of the values
+     * @return the values that already exist
+     */
+    public static <T> Set<T> findExisting(Collection<T> values, Function<Collection<T>, List<T>> query) {
+        Set<T> existing = new HashSet<>();
+        for (List<T> chunk : Iterables.partition(values, LOOKUP_CHUNK_SIZE)) {
+            existing.addAll(query.apply(chunk));
+        }
+
+        return existing;
+    }
+
+    /**
+     * Records a rejected row on the import result
+     */
+    public static void rejectRow(BulkImportResultDto<?> result, int row, UUID id, String message) {
+        result.getErrors().add(BulkImportRowErrorDto.builder().row(row).id(id).message(message).build());
+    }
+
+    /**
+     * Puts the rejected rows back into submitted order
+     */
+    public static void sortErrors(BulkImportResultDto<?> result) {
+        result.getErrors().sort(Comparator.comparingInt(BulkImportRowErrorDto::getRow));
+    }
+
+    /**
+     * Flattens bean validation failures into a single row error message
+     */
+    public static String validationMessage(MethodArgumentNotValidException e) {
+        return e.getBindingResult().getFieldErrors().stream()
+                .map(error -> error.getField() + ": " + error.getDefaultMessage())
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Row error message for a row that failed on insert
+     */
+    public static String insertFailureMessage(Exception e) {
+        return "Unable to insert record: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+    }
+}
@@ -0,0 +1,41 @@
+package mil.tron.commonapi.service.webdav;
+
+import javax.annotation.Nullable;
+
+/**
+ * Value of a PROPFIND's Depth header
+ */
+public enum PropFindDepth {
+    /**
+     * Just the requested element
+     */
+    ZERO,
+
+    /**
+     * The requested element and its immediate children
+     */
+    ONE,
+
+    /**
+     * The requested element and everything underneath it
+     */
+    INFINITY;
+
+    /**
+     * Parses the Depth header, a missing or unrecognized header is treated as "0"
+     * @param header value of the Depth header
+     * @return the depth
+     */
+    public static PropFindDepth fromHeader(@Nullable String header) {
+        if (header == null) return ZERO;
+
+        switch (header.trim().toLowerCase()) {
+            case "1":
+                return ONE;
+            case "infinity":
+                return INFINITY;
+            default:
+                return ZERO;
+        }
+    }
+}
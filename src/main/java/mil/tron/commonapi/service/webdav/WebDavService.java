@@ -1,9 +1,11 @@
 package mil.tron.commonapi.service.webdav;
 
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
 import java.util.UUID;
 
 public interface WebDavService {
 
-    String propFind(UUID spaceId, String path, boolean children);
+    StreamingResponseBody propFind(UUID spaceId, String path, PropFindDepth depth);
     String mkCol(UUID spaceId, String path);
 }
@@ -1,21 +1,30 @@
 package mil.tron.commonapi.service.webdav;
 
-import com.jamesmurty.utils.XMLBuilder;
 import mil.tron.commonapi.annotation.minio.IfMinioEnabledOnIL4OrDevLocal;
 import mil.tron.commonapi.entity.documentspace.DocumentSpaceFileSystemEntry;
-import mil.tron.commonapi.exception.BadRequestException;
+import mil.tron.commonapi.exception.webdav.PropFindFiniteDepthException;
+import mil.tron.commonapi.service.documentspace.DocumentSpaceFileSystemService;
 import mil.tron.commonapi.service.documentspace.DocumentSpaceFileSystemServiceImpl;
 import mil.tron.commonapi.service.documentspace.DocumentSpaceService;
 import mil.tron.commonapi.service.documentspace.util.FilePathSpecWithContents;
 import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.TransformerException;
-import java.text.DateFormat;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -27,116 +36,153 @@ import java.util.UUID;
 @IfMinioEnabledOnIL4OrDevLocal
 public class WebDavServiceImpl implements WebDavService {
 
-    private final DocumentSpaceService documentSpaceService;
-    public static final String DT_SERVER_FORMAT = "yyyy-MM-dd HH:mm:ss.SSSSS";
-    public static final String RESOURCE_TYPE_TAG = "D:resourcetype";
+    private static final String HREF_PREFIX = "/api/v2/document-space/space/";
+    private static final String DAV_NAMESPACE = "DAV:";
+    private static final String DAV_PREFIX = "D";
+    private static final String STATUS_OK = "HTTP/1.1 200 OK";
 
-    public WebDavServiceImpl(DocumentSpaceService documentSpaceService) {
-        this.documentSpaceService = documentSpaceService;
-    }
+    private static final XMLOutputFactory XML_OUTPUT_FACTORY = XMLOutputFactory.newFactory();
 
     /**
-     * Formats date time from server into the WebDAV format for the file creation date
-     * Example output would be: 1997-12-01T18:27:21-08:00
-     * @param fromServer
-     * @return
+     * WebDAV format for the file creation date, example output would be: 1997-12-01T18:27:21Z
      */
-    private String formatCreationDateTimeString(Date fromServer) {
-        if (fromServer == null) return "";
+    private static final DateTimeFormatter CREATION_DATE_FORMAT = DateTimeFormatter
+            .ofPattern("yyyy-MM-dd'T'HH:mm:ssXXX")
+            .withZone(ZoneOffset.UTC);
 
-        DateFormat formatter = new SimpleDateFormat(DT_SERVER_FORMAT);
-        DateFormat davFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mmXXX");
-        try {
-            Date dateTime = formatter.parse(fromServer.toString());
-            return davFormat.format(dateTime);
-        }
-        catch (ParseException ex) {
-            return "";
-        }
-    }
+    /**
+     * WebDAV format for the modified date, example output would be: Mon, 12 Jan 1998 09:25:56 GMT
+     */
+    private static final DateTimeFormatter LAST_MODIFIED_FORMAT = DateTimeFormatter.RFC_1123_DATE_TIME
+            .withZone(ZoneOffset.UTC);
+
+    private final DocumentSpaceService documentSpaceService;
+    private final DocumentSpaceFileSystemService documentSpaceFileSystemService;
 
     /**
-     * Formats date time from server into the WebDAV format for modified date
-     * Example output would be: Mon, 12 Jan 1998 09:25:56 GMT
-     * @param fromServer
-     * @return
+     * Most entries a Depth: infinity PROPFIND will list before it is refused
      */
-    private String formatModifiedDateTimeString(Date fromServer) {
-        if (fromServer == null) return "";
-        DateFormat formatter = new SimpleDateFormat(DT_SERVER_FORMAT);
-        DateFormat davFormat = new SimpleDateFormat("EEE, d MMM yyyy HH:mm:ss 'GMT'");
-        try {
-            Date dateTime = formatter.parse(fromServer.toString());
-            return davFormat.format(dateTime);
-        }
-        catch (ParseException ex) {
-            return "";
-        }
+    private final int maxInfinityEntries;
+
+    public WebDavServiceImpl(DocumentSpaceService documentSpaceService,
+                             DocumentSpaceFileSystemService documentSpaceFileSystemService,
+                             @Value("${webdav.propfind-max-entries:10000}") int maxInfinityEntries) {
+        this.documentSpaceService = documentSpaceService;
+        this.documentSpaceFileSystemService = documentSpaceFileSystemService;
+        this.maxInfinityEntries = maxInfinityEntries;
     }
 
     /**
-     * Performs a WebDAV PROPFIND action (directory listing)
+     * Performs a WebDAV PROPFIND action (directory listing).  The folder's contents are looked up
+     * right away (so a bad path still fails the request), the multistatus XML is then streamed
+     * out entry by entry.
      * @param spaceId document space UUID
      * @param path the path we're PROPFINDing on
-     * @param children if true then return the requested directory and all its contents (corresponds to header 'DEPTH = 1')
-     *                 otherwise just fetch/include information on the requested element (corresponds to header 'DEPTH = 0')
-     * @return Serialized XML PROPFIND tree
+     * @param depth ZERO for just the requested element, ONE to include its contents, INFINITY to include
+     *              everything underneath it (refused if that's more than the configured max entries)
+     * @return writer for the XML PROPFIND tree
      */
     @Override
-    public String propFind(UUID spaceId, String path, boolean children) {
+    public StreamingResponseBody propFind(UUID spaceId, String path, PropFindDepth depth) {
+        FilePathSpecWithContents content;
+        switch (depth) {
+            case ONE:
+                content = documentSpaceFileSystemService.getFolderListing(spaceId, path);
+                break;
+            case INFINITY:
+                content = documentSpaceFileSystemService.getFolderTree(spaceId, path, maxInfinityEntries + 1);
+                if (content.getEntries().size() > maxInfinityEntries) {
+                    throw new PropFindFiniteDepthException(String.format(
+                            "More than %d items underneath this folder, use a Depth of 0 or 1", maxInfinityEntries));
+                }
+                break;
+            default:
+                content = documentSpaceFileSystemService.getFolderTree(spaceId, path, 0);
+                break;
+        }
 
-        // get the path contents from the service
-        FilePathSpecWithContents content = documentSpaceService.getFolderContents(spaceId, path);
+        String folderHref = StringUtils.removeEnd(
+                DocumentSpaceFileSystemServiceImpl.joinPathParts(HREF_PREFIX + spaceId + "/" + content.getFullPathSpec()), "/");
 
-        // begin the PROPFIND response with the element requested (the root of the requested path, actual-folder)
-        XMLBuilder builder;
+        return out -> writeMultiStatus(out, folderHref, content);
+    }
 
+    private void writeMultiStatus(OutputStream out, String folderHref, FilePathSpecWithContents content) throws IOException {
         try {
-            builder = XMLBuilder.create("D:multistatus").attr("xmlns:D", "DAV:");
-        }
-        catch (ParserConfigurationException ex) {
-            throw new BadRequestException("Could not create XML PROPFIND tree");
-        }
-
-        builder = builder.element("D:response")
-                    .element("D:href").text(DocumentSpaceFileSystemServiceImpl.joinPathParts("/api/v2/document-space/space/" + spaceId + "/" + content.getFullPathSpec() + "/")).up()
-                        .element("D:propstat")
-                            .element("D:prop")
-                                .element(RESOURCE_TYPE_TAG)
-                                    .element("D:collection")
-                                .up()
-                            .up()
-                        .up()
-                    .element("D:status").text("HTTP/1.1 200 OK")
-                    .up()
-                .up()
-            .up();
-
-        // if depth header is specified and truthy then we're supposed to include the contents of the whole folder per RFC
-        if (children) {
+            XMLStreamWriter xml = XML_OUTPUT_FACTORY.createXMLStreamWriter(out, StandardCharsets.UTF_8.name());
+            xml.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+            xml.setPrefix(DAV_PREFIX, DAV_NAMESPACE);
+            xml.writeStartElement(DAV_NAMESPACE, "multistatus");
+            xml.writeNamespace(DAV_PREFIX, DAV_NAMESPACE);
+
+            // the element requested (the root of the requested path, actual-folder)
+            xml.writeStartElement(DAV_NAMESPACE, "response");
+            writeTextElement(xml, "href", folderHref + "/");
+            xml.writeStartElement(DAV_NAMESPACE, "propstat");
+            xml.writeStartElement(DAV_NAMESPACE, "prop");
+            writeResourceType(xml, true);
+            xml.writeEndElement();
+            writeTextElement(xml, "status", STATUS_OK);
+            xml.writeEndElement();
+            xml.writeEndElement();
+
+            // entries come parent first, so each folder's href is known before its contents are reached
+            Map<UUID, String> folderHrefs = new HashMap<>();
+            folderHrefs.put(content.getItemId(), folderHref);
             for (DocumentSpaceFileSystemEntry entry : content.getEntries()) {
-                builder = appendStandardProps(builder, entry, spaceId, content);
-
-                if (entry.getSize() == 0) builder = builder.element("D:getcontentlength").up();
-                else builder = builder.element("D:getcontentlength").text(String.valueOf(entry.getSize())).up();
-
-                if (entry.isFolder()) builder = builder.element(RESOURCE_TYPE_TAG).element("D:collection").up().up();
-                else builder = builder.element(RESOURCE_TYPE_TAG).up();
+                String href = folderHrefs.get(entry.getParentEntryId()) + "/" + entry.getItemName();
+                if (entry.isFolder()) folderHrefs.put(entry.getItemId(), href);
 
-                builder = builder.up();
-                builder = builder.element("D:status").text("HTTP/1.1 200 OK").up().up();
-                builder = builder.up();
+                writeEntry(xml, href, entry);
             }
+
+            xml.writeEndElement();
+            xml.writeEndDocument();
+            xml.close();
+        }
+        catch (XMLStreamException ex) {
+            throw new IOException("Error serializing PROPFIND XML result", ex);
         }
+    }
 
-        try {
-            return "<?xml version=\"1.0\" encoding=\"utf-8\" ?>" + builder.asString();
+    private void writeEntry(XMLStreamWriter xml, String href, DocumentSpaceFileSystemEntry entry) throws XMLStreamException {
+        Date lastModified = entry.getLastModifiedOn() != null ? entry.getLastModifiedOn() :
+                entry.getCreatedOn();
+
+        xml.writeStartElement(DAV_NAMESPACE, "response");
+        writeTextElement(xml, "href", href);
+        xml.writeStartElement(DAV_NAMESPACE, "propstat");
+        xml.writeStartElement(DAV_NAMESPACE, "prop");
+        writeTextElement(xml, "creationdate", formatDate(CREATION_DATE_FORMAT, entry.getCreatedOn()));
+        writeTextElement(xml, "getlastmodified", formatDate(LAST_MODIFIED_FORMAT, lastModified));
+        if (entry.isFolder()) xml.writeEmptyElement(DAV_NAMESPACE, "getcontentlength");
+        else writeTextElement(xml, "getcontentlength", String.valueOf(entry.getSize()));
+        writeResourceType(xml, entry.isFolder());
+        xml.writeEndElement();
+        writeTextElement(xml, "status", STATUS_OK);
+        xml.writeEndElement();
+        xml.writeEndElement();
+    }
+
+    private void writeResourceType(XMLStreamWriter xml, boolean collection) throws XMLStreamException {
+        if (collection) {
+            xml.writeStartElement(DAV_NAMESPACE, "resourcetype");
+            xml.writeEmptyElement(DAV_NAMESPACE, "collection");
+            xml.writeEndElement();
         }
-        catch (TransformerException e) {
-            throw new BadRequestException("Error serializing PROPFIND XML result");
+        else {
+            xml.writeEmptyElement(DAV_NAMESPACE, "resourcetype");
         }
+    }
 
+    private void writeTextElement(XMLStreamWriter xml, String name, String text) throws XMLStreamException {
+        xml.writeStartElement(DAV_NAMESPACE, name);
+        xml.writeCharacters(text);
+        xml.writeEndElement();
+    }
 
+    private String formatDate(DateTimeFormatter format, Date fromServer) {
+        return fromServer == null ? "" : format.format(Instant.ofEpochMilli(fromServer.getTime()));
     }
 
     /**
@@ -155,23 +201,4 @@ public class WebDavServiceImpl implements WebDavService {
         // if we get here, creation was successful (no throws)
         return "Created";
     }
-
-    private XMLBuilder appendStandardProps(XMLBuilder builder, DocumentSpaceFileSystemEntry entry, UUID spaceId,
-                                           FilePathSpecWithContents content) {
-        Date lastModified = entry.getLastModifiedOn() != null ? entry.getLastModifiedOn() :
-                entry.getCreatedOn();
-        return builder
-                .element("D:response")
-                .element("D:href").text(DocumentSpaceFileSystemServiceImpl.joinPathParts("/api/v2/document-space/space/" +
-                        spaceId + "/" + content.getFullPathSpec() + "/" + entry.getItemName()))
-                .up()
-                .element("D:propstat")
-                .element("D:prop")
-                .element("D:creationdate")
-                .text(formatCreationDateTimeString(entry.getCreatedOn()))
-                .up()
-                .element("D:getlastmodified")
-                .text(formatModifiedDateTimeString(lastModified))
-                .up();
-    }
 }
@@ -2,17 +2,25 @@ package mil.tron.commonapi.appgateway;
 
 import io.swagger.v3.oas.models.PathItem;
 import mil.tron.commonapi.entity.appsource.AppSource;
+import mil.tron.commonapi.entity.appsource.AppSourceSpecIndex;
+import mil.tron.commonapi.repository.appsource.AppSourceSpecIndexRepository;
 
+import org.apache.commons.codec.digest.DigestUtils;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.web.bind.annotation.RequestMethod;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.InputStream;
+import java.util.List;
 
 @ExtendWith(SpringExtension.class)
 @SpringBootTest
@@ -22,6 +30,9 @@ public class AppSourceEndpointBuilderTest {
     @Autowired
     private AppSourceEndpointsBuilder appSourceEndpointsBuilder;
 
+    @Autowired
+    private AppSourceSpecIndexRepository appSourceSpecIndexRepository;
+
     @Test
     void testNoFailForBadConfig() {
         assertDoesNotThrow(
@@ -42,4 +53,31 @@ public class AppSourceEndpointBuilderTest {
         assertEquals(RequestMethod.PUT, AppSourceEndpointsBuilder.convertMethod(PathItem.HttpMethod.PUT));
         assertEquals(RequestMethod.PATCH, AppSourceEndpointsBuilder.convertMethod(PathItem.HttpMethod.PATCH));
     }
+
+    @Test
+    void testUnchangedSpecIsReadFromIndex() throws Exception {
+        List<AppSourceEndpoint> parsed = this.appSourceEndpointsBuilder.parseAppSourceEndpoints("mock.yml");
+        assertTrue(parsed.contains(new AppSourceEndpoint("/test", RequestMethod.GET)));
+
+        String specHash;
+        try (InputStream in = new ClassPathResource("appsourceapis/mock.yml").getInputStream()) {
+            specHash = DigestUtils.sha256Hex(in);
+        }
+        AppSourceSpecIndex specIndex = appSourceSpecIndexRepository.findById(specHash).orElseThrow();
+        String indexedEndpoints = specIndex.getEndpoints();
+
+        // whatever is in the index is what comes back, the spec isn't parsed again
+        try {
+            specIndex.setEndpoints("DELETE /indexed");
+            appSourceSpecIndexRepository.save(specIndex);
+            assertEquals(List.of(new AppSourceEndpoint("/indexed", RequestMethod.DELETE)),
+                    this.appSourceEndpointsBuilder.parseAppSourceEndpoints("mock.yml"));
+        }
+        finally {
+            specIndex.setEndpoints(indexedEndpoints);
+            appSourceSpecIndexRepository.save(specIndex);
+        }
+
+        assertEquals(parsed, this.appSourceEndpointsBuilder.parseAppSourceEndpoints("mock.yml"));
+    }
 }
@@ -0,0 +1,64 @@
+package mil.tron.commonapi.appgateway;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.bind.annotation.RequestMethod;
+
+class GatewayPathTrieTest {
+
+    private final GatewayPathTrie trie = GatewayPathTrie.compile(List.of(
+            new AppSourceEndpoint("/jobRole", RequestMethod.GET),
+            new AppSourceEndpoint("/jobRole", RequestMethod.POST),
+            new AppSourceEndpoint("/jobRole/{jobRoleId}", RequestMethod.GET),
+            new AppSourceEndpoint("/jobRole/{jobRoleId}", RequestMethod.DELETE),
+            new AppSourceEndpoint("/jobRole/current", RequestMethod.GET),
+            new AppSourceEndpoint("/flyer/flyer-{id}/{year}", RequestMethod.GET)
+    ));
+
+    @Test
+    void testFindsLiteralPaths() {
+        GatewayPathTrie.Match match = trie.find("/jobRole", RequestMethod.POST).orElseThrow();
+        assertEquals("/jobRole", match.getTemplate());
+        assertTrue(match.getVariables().isEmpty());
+
+        // trailing slashes are ignored
+        assertEquals("/jobRole", trie.find("/jobRole/", RequestMethod.GET).orElseThrow().getTemplate());
+    }
+
+    @Test
+    void testCapturesPathVariables() {
+        GatewayPathTrie.Match match = trie.find("/jobRole/1", RequestMethod.DELETE).orElseThrow();
+        assertEquals("/jobRole/{jobRoleId}", match.getTemplate());
+        assertEquals(Map.of("jobRoleId", "1"), match.getVariables());
+
+        match = trie.find("/flyer/flyer-7-30/2021", RequestMethod.GET).orElseThrow();
+        assertEquals("/flyer/flyer-{id}/{year}", match.getTemplate());
+        assertEquals(Map.of("id", "7-30", "year", "2021"), match.getVariables());
+    }
+
+    @Test
+    void testPrefersLiteralSegments() {
+        assertEquals("/jobRole/current", trie.find("/jobRole/current", RequestMethod.GET).orElseThrow().getTemplate());
+
+        // falls back to the templated segment when the literal one doesn't allow the method
+        GatewayPathTrie.Match match = trie.find("/jobRole/current", RequestMethod.DELETE).orElseThrow();
+        assertEquals("/jobRole/{jobRoleId}", match.getTemplate());
+        assertEquals(Map.of("jobRoleId", "current"), match.getVariables());
+    }
+
+    @Test
+    void testNoMatch() {
+        assertTrue(trie.find("/jobRole/1/2", RequestMethod.GET).isEmpty());
+        assertTrue(trie.find("/flyer/7/2021", RequestMethod.GET).isEmpty());
+        assertTrue(trie.find("/jobRole", RequestMethod.DELETE).isEmpty());
+
+        assertEquals(Set.of(RequestMethod.GET, RequestMethod.POST), trie.allowedMethods("/jobRole"));
+        assertTrue(trie.allowedMethods("/nothing").isEmpty());
+    }
+}
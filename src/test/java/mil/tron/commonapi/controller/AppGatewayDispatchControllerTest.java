@@ -0,0 +1,140 @@
+package mil.tron.commonapi.controller;
+
+import mil.tron.commonapi.appgateway.AppSourceConfig;
+import mil.tron.commonapi.appgateway.AppSourceEndpointsBuilder;
+import mil.tron.commonapi.appgateway.AppSourceInterfaceDefinition;
+import mil.tron.commonapi.appgateway.GatewayRouteTable;
+import mil.tron.commonapi.entity.appsource.AppSource;
+import mil.tron.commonapi.service.AppGatewayService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = { "security.enabled=true" })
+@AutoConfigureMockMvc
+@TestPropertySource(locations = "classpath:application-test.properties")
+public class AppGatewayDispatchControllerTest {
+
+    private static final String APP_SOURCE_PATH = "mock-dispatch";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AppSourceEndpointsBuilder appSourceEndpointsBuilder;
+
+    @Autowired
+    private GatewayRouteTable gatewayRouteTable;
+
+    @MockBean
+    private AppGatewayService appGatewayService;
+
+    @MockBean
+    private AppSourceConfig appSourceConfig;
+
+    private AppSourceInterfaceDefinition appDef;
+
+    @BeforeEach
+    void setup() throws Exception {
+        appDef = new AppSourceInterfaceDefinition("Dispatch", "mock.yml", "http:////localhost", APP_SOURCE_PATH);
+
+        Mockito.when(appGatewayService.sendRequestToAppSource(any(HttpServletRequest.class)))
+                .thenReturn("result".getBytes());
+        Mockito.when(appSourceConfig.addAppSourcePathToDefMapping(APP_SOURCE_PATH, appDef))
+                .thenReturn(true);
+
+        this.appSourceEndpointsBuilder.initializeWithAppSourceDef(appDef, buildAppSource(appDef));
+    }
+
+    @AfterEach
+    void cleanup() {
+        gatewayRouteTable.remove(APP_SOURCE_PATH);
+    }
+
+    @Test
+    @WithMockUser(username = "guardianangel", authorities = "mock-dispatch/test_GET")
+    void testUnknownPathIsNotFound() throws Exception {
+        mockMvc.perform(get("/v1/app/mock-dispatch/test"))
+                .andExpect(status().isOk());
+
+        // endpoint the app source doesn't have
+        mockMvc.perform(get("/v1/app/mock-dispatch/test30"))
+                .andExpect(status().isNotFound());
+
+        // app source that isn't registered
+        mockMvc.perform(get("/v1/app/mock-unknown/test"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(username = "guardianangel", authorities = { "mock-dispatch/test_GET", "mock-dispatch/test_POST" })
+    void testWrongMethodIsNotAllowed() throws Exception {
+        mockMvc.perform(post("/v1/app/mock-dispatch/test"))
+                .andExpect(status().isMethodNotAllowed())
+                .andExpect(header().string("Allow", containsString("GET")));
+    }
+
+    @Test
+    @WithMockUser(username = "guardianangel", authorities = "mock-dispatch/test2_GET")
+    void testRequestsAreStillAuthorized() throws Exception {
+        // only has the privilege for /test2
+        mockMvc.perform(get("/v1/app/mock-dispatch/test"))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(get("/v1/app/mock-dispatch/test2"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @WithMockUser(username = "guardianangel", authorities = { "mock-dispatch/test_GET", "mock-dispatch-moved/test_GET" })
+    void testMovedAppSourceIsNoLongerRoutedOnItsOldPath() throws Exception {
+        Map<String, AppSourceInterfaceDefinition> pathToDefinition = new HashMap<>();
+        pathToDefinition.put(APP_SOURCE_PATH, appDef);
+        Mockito.when(appSourceConfig.getPathToDefinitionMap()).thenReturn(pathToDefinition);
+
+        AppSourceInterfaceDefinition movedDef = new AppSourceInterfaceDefinition("Dispatch", "mock.yml",
+                "http:////localhost", "mock-dispatch-moved");
+        Mockito.when(appSourceConfig.addAppSourcePathToDefMapping("mock-dispatch-moved", movedDef))
+                .thenReturn(true);
+
+        try {
+            this.appSourceEndpointsBuilder.initializeWithAppSourceDef(movedDef, buildAppSource(movedDef));
+
+            Mockito.verify(appSourceConfig).removeAppSourcePathMapping(APP_SOURCE_PATH);
+            mockMvc.perform(get("/v1/app/mock-dispatch/test"))
+                    .andExpect(status().isNotFound());
+            mockMvc.perform(get("/v1/app/mock-dispatch-moved/test"))
+                    .andExpect(status().isOk());
+        }
+        finally {
+            gatewayRouteTable.remove("mock-dispatch-moved");
+        }
+    }
+
+    private AppSource buildAppSource(AppSourceInterfaceDefinition def) {
+        return AppSource.builder()
+                .name(def.getName())
+                .openApiSpecFilename(def.getOpenApiSpecFilename())
+                .appSourcePath(def.getAppSourcePath())
+                .build();
+    }
+}
@@ -18,12 +18,14 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -63,13 +65,45 @@ class LogfileControllerTest {
 		
 		Mockito.when(service.getLogfileResource(Mockito.anyString())).thenReturn(resource);
 		
+		Mockito.doAnswer(invocation -> {
+			invocation.getArgument(1, OutputStream.class).write("compressed".getBytes());
+			return null;
+		}).when(service).writeLogfile(Mockito.eq(resource), Mockito.any(OutputStream.class));
+		
 		mockMvc.perform(
 				get(ENDPOINT + "{logfile}", "testFile.log")
 					.accept(MediaType.parseMediaType("application/gzip"))
 			)
 			.andExpect(status().isOk())
+			.andExpect(request().asyncStarted())
 			.andExpect(content().contentType(MediaType.parseMediaType("application/gzip")));
 	}	
+
+	@Test
+	void getLogfileTailTest() throws Exception {
+		Mockito.when(service.tailLogfile("spring.log", null, 20, "ERROR"))
+			.thenReturn(out -> out.write("ERROR 1\n".getBytes()));
+
+		mockMvc.perform(
+				get(ENDPOINT + "{logfile}/tail", "spring.log")
+					.param("lines", "20")
+					.param("filter", "ERROR")
+			)
+			.andExpect(status().isOk())
+			.andExpect(request().asyncStarted())
+			.andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_PLAIN));
+
+		Mockito.verify(service).tailLogfile("spring.log", null, 20, "ERROR");
+	}
+
+	@Test
+	void getLogfileTailTest_BadRequest() throws Exception {
+		Mockito.when(service.tailLogfile(Mockito.anyString(), Mockito.any(), Mockito.any(), Mockito.any()))
+			.thenThrow(BadRequestException.class);
+
+		mockMvc.perform(get(ENDPOINT + "{logfile}/tail", "spring.log.gz"))
+			.andExpect(status().isBadRequest());
+	}
 	
 	@Test
 	void getLogfileTest_FileNotExists() throws Exception {
@@ -214,8 +214,8 @@ public class OrganizationControllerTest {
 			OrganizationDto mockOrgDto = OrganizationDto.builder().build();
 			Mockito.when(organizationService.getOrganizationsPage("", Pageable.ofSize(20)))
 					.thenReturn(new PageImpl<>(List.of(mockOrgDto)));
-			Mockito.when(organizationService.customizeEntity(any(), any()))
-					.thenReturn(JsonNodeFactory.instance.objectNode());
+			Mockito.when(organizationService.customizeEntities(any(), any()))
+					.thenReturn(List.of(JsonNodeFactory.instance.objectNode()));
 			mockMvc.perform(get(ENDPOINT_V2).queryParam("people", "name"))
 					.andExpect(status().isOk());
 		}
@@ -226,8 +226,8 @@ public class OrganizationControllerTest {
 			Mockito.when(organizationService.getOrganizationsByTypeAndServicePage("", Unit.SQUADRON,
 					Branch.USAF, Pageable.ofSize(10)))
 					.thenReturn(new PageImpl<>(List.of(mockOrgDto)));
-			Mockito.when(organizationService.customizeEntity(any(), any()))
-					.thenReturn(JsonNodeFactory.instance.objectNode());
+			Mockito.when(organizationService.customizeEntities(any(), any()))
+					.thenReturn(List.of(JsonNodeFactory.instance.objectNode()));
 			mockMvc.perform(get(ENDPOINT_V2)
 					.queryParam("branch", Branch.USAF.toString())
 					.queryParam("type", Unit.SQUADRON.toString())
@@ -532,8 +532,8 @@ public class OrganizationControllerTest {
 
 			// mock out the customize entity - we're not testing that it "works" here, rather the code path
 			//  thru it is OK in the controller... so return any JsonNode.
-			Mockito.when(organizationService.customizeEntity(Mockito.anyMap(), any(OrganizationDto.class)))
-					.thenReturn(OBJECT_MAPPER.readTree(OBJECT_MAPPER.writeValueAsString(newOrg)));
+			Mockito.when(organizationService.customizeEntities(Mockito.anyMap(), Mockito.anyList()))
+					.thenReturn(List.of(OBJECT_MAPPER.readTree(OBJECT_MAPPER.writeValueAsString(newOrg))));
 
 			mockMvc.perform(get(ENDPOINT + "?people=id,firstName&organizations=id,name"))
 					.andExpect(status().isOk());
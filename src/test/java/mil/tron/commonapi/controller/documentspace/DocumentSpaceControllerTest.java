@@ -5,12 +5,17 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.Lists;
 import mil.tron.commonapi.dto.documentspace.*;
 import mil.tron.commonapi.dto.documentspace.mobile.DocumentMobileDto;
+import mil.tron.commonapi.dto.response.pagination.CursorSlice;
 import mil.tron.commonapi.dto.response.pagination.Pagination;
 import mil.tron.commonapi.dto.response.pagination.PaginationLink;
 import mil.tron.commonapi.dto.response.pagination.PaginationWrappedResponse;
+import mil.tron.commonapi.entity.documentspace.DocumentSpace;
+import mil.tron.commonapi.service.documentspace.DocumentSpaceArchiveService;
 import mil.tron.commonapi.service.documentspace.DocumentSpaceService;
+import mil.tron.commonapi.service.documentspace.util.DocumentSpaceArchive;
 import mil.tron.commonapi.service.documentspace.util.FilePathSpec;
 import mil.tron.commonapi.service.documentspace.util.FilePathSpecWithContents;
+import mil.tron.commonapi.service.documentspace.util.FolderListingOptions;
 import org.junit.Assert;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -20,6 +25,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.*;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithMockUser;
@@ -34,10 +40,14 @@ import java.security.Principal;
 import java.util.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -53,6 +63,9 @@ class DocumentSpaceControllerTest {
     @MockBean
     private DocumentSpaceService documentSpaceService;
 
+    @MockBean
+    private DocumentSpaceArchiveService documentSpaceArchiveService;
+
     private UUID documentSpaceId;
 
     ObjectMapper mapper = new ObjectMapper();
@@ -123,7 +136,7 @@ class DocumentSpaceControllerTest {
     @Test
     void testFolderListEndpoint() throws Exception {
 
-        Mockito.when(documentSpaceService.getFolderContents(Mockito.any(UUID.class), Mockito.anyString()))
+        Mockito.when(documentSpaceService.getFolderContents(Mockito.any(UUID.class), Mockito.anyString(), Mockito.any(FolderListingOptions.class)))
                 .thenReturn(FilePathSpecWithContents.builder().build());
 
         mockMvc.perform(get(ENDPOINT +"spaces/{id}/contents", documentSpaceId)
@@ -170,6 +183,52 @@ class DocumentSpaceControllerTest {
                 .andExpect(result -> assertThat(result.getResponse().getContentAsString()).isEqualTo(OBJECT_MAPPER.writeValueAsString(controllerResponse)));
     }
     
+    @WithMockUser(username = "testuser")
+    @Test
+    void testGetRecentlyUploadedFilesWithoutCount() throws Exception {
+    	RecentDocumentDto documentDto = new RecentDocumentDto(UUID.randomUUID(), "testfile.txt", UUID.randomUUID(), new Date(), "", UUID.randomUUID(), "test document space");
+    	Mockito.when(documentSpaceService.getRecentlyUploadedFilesByAuthUser("testuser", "abc", 1))
+    		.thenReturn(new CursorSlice<>(List.of(documentDto), PageRequest.of(0, 1), "def"));
+
+    	mockMvc.perform(get(ENDPOINT +"/spaces/files/recently-uploaded?size=1&continuation=abc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data", hasSize(1)))
+                .andExpect(jsonPath("$.pagination.totalElements").doesNotExist())
+                .andExpect(jsonPath("$.pagination.nextContinuationToken").value("def"))
+                .andExpect(jsonPath("$.pagination.links.next", containsString("continuation=def")))
+                .andExpect(jsonPath("$.pagination.links.first", not(containsString("continuation"))));
+
+    	Mockito.verify(documentSpaceService, Mockito.never()).getRecentlyUploadedFilesByAuthUser(Mockito.anyString(), Mockito.any(Pageable.class));
+    }
+
+    @Test
+    void testDownloadAllServedFromBuiltArchive() throws Exception {
+        DocumentSpace space = DocumentSpace.builder().id(documentSpaceId).name("space").build();
+        Mockito.when(documentSpaceService.getDocumentSpaceOrElseThrow(documentSpaceId)).thenReturn(space);
+        DocumentSpaceArchive archive = new DocumentSpaceArchive("archives/key.zip", "abc", 100L, new Date(1000000L));
+        Mockito.when(documentSpaceArchiveService.getArchive(documentSpaceId, "/")).thenReturn(Optional.of(archive));
+
+        mockMvc.perform(get(ENDPOINT + "spaces/{id}/files/download/all", documentSpaceId)
+                .header(HttpHeaders.RANGE, "bytes=10-19"))
+                .andExpect(status().isPartialContent())
+                .andExpect(request().asyncStarted())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 10-19/100"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"abc\""))
+                .andExpect(header().string("Content-disposition", "attachment; filename=\"space.zip\""));
+
+        // unchanged since the client last got it
+        mockMvc.perform(get(ENDPOINT + "spaces/{id}/files/download/all", documentSpaceId)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"abc\""))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(get(ENDPOINT + "spaces/{id}/files/download/all", documentSpaceId)
+                .header(HttpHeaders.RANGE, "bytes=100-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */100"));
+
+        Mockito.verify(documentSpaceService, Mockito.never()).downloadAllInSpaceAndCompress(Mockito.any(), Mockito.any());
+    }
+
     @Test
     void testDeleteArchiveItemBySpaceAndParent() throws JsonProcessingException, Exception {
     	Mockito.doNothing().when(documentSpaceService).archiveItem(Mockito.any(UUID.class), Mockito.any(UUID.class), Mockito.anyString());
@@ -183,7 +242,7 @@ class DocumentSpaceControllerTest {
     @Test
     void testDocumentSpaceSearch() throws Exception {
 
-        Mockito.when(documentSpaceService.findFilesInSpaceLike(Mockito.any(UUID.class), Mockito.anyString(), Mockito.any(Pageable.class), Mockito.any(Principal.class)))
+        Mockito.when(documentSpaceService.findFilesInSpaceLike(Mockito.any(UUID.class), Mockito.any(DocumentSpaceSearchDto.class), Mockito.any(Pageable.class), Mockito.any(Principal.class)))
                         .thenReturn(new PageImpl<>(Lists.newArrayList(DocumentMobileDto.builder()
                                         .key("sdfsdf")
                                         .spaceId(UUID.randomUUID().toString())
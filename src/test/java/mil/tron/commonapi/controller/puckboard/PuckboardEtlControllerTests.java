@@ -1,18 +1,28 @@
 package mil.tron.commonapi.controller.puckboard;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.google.common.collect.ImmutableMap;
 import com.google.common.io.Resources;
+import mil.tron.commonapi.dto.puckboard.PuckboardEtlJobDto;
+import mil.tron.commonapi.entity.puckboard.PuckboardEtlJob;
+import mil.tron.commonapi.entity.puckboard.PuckboardEtlJobPhase;
+import mil.tron.commonapi.entity.puckboard.PuckboardEtlJobStatus;
+import mil.tron.commonapi.exception.RecordNotFoundException;
+import mil.tron.commonapi.repository.puckboard.PuckboardEtlJobRepository;
+import mil.tron.commonapi.service.puckboard.PuckboardDump;
+import mil.tron.commonapi.service.puckboard.PuckboardEtlJobService;
+import mil.tron.commonapi.service.puckboard.PuckboardEtlProgress;
+import mil.tron.commonapi.service.puckboard.PuckboardEtlResult;
 import mil.tron.commonapi.service.puckboard.PuckboardExtractorService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.TestPropertySource;
@@ -22,16 +32,19 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.web.client.RestTemplate;
 
 import java.nio.charset.StandardCharsets;
-import java.util.Map;
 import java.util.UUID;
 
 import static org.hamcrest.Matchers.endsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.springframework.test.web.client.ExpectedCount.manyTimes;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
 import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
 import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(SpringExtension.class)
@@ -47,6 +60,12 @@ public class PuckboardEtlControllerTests {
     @MockBean
     PuckboardExtractorService service;
 
+    @MockBean
+    PuckboardEtlJobService jobService;
+
+    @Autowired
+    PuckboardEtlJobRepository jobRepository;
+
     @Autowired
     @Qualifier("puckboardFetcher")
     private RestTemplate restTemplate;
@@ -76,19 +95,44 @@ public class PuckboardEtlControllerTests {
         puckboardServer.expect(manyTimes(), requestTo(endsWith("/personnel"))).andExpect(method(HttpMethod.GET))
                 .andRespond(withSuccess(personnelData, MediaType.APPLICATION_JSON));
 
-        // return empty map for mock
-        Mockito.when(service.persistOrgsAndMembers(
-                Mockito.any(JsonNode.class),
-                Mockito.any(JsonNode.class),
-                Mockito.any(JsonNode.class)))
-            .thenReturn(new ImmutableMap
-                    .Builder<String, Map<UUID, String>>()
-                    .put("orgs", new ImmutableMap
-                            .Builder<UUID, String>()
-                            .build())
-                    .build());
-
-        mockMvc.perform(get(ENDPOINT)).andExpect(status().isOk());
+        // return empty result for mock
+        Mockito.when(service.syncOrgsAndMembers(Mockito.any(PuckboardDump.class), Mockito.any(PuckboardEtlProgress.class)))
+            .thenReturn(new PuckboardEtlResult());
+
+        mockMvc.perform(get(ENDPOINT))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orgs").isMap())
+                .andExpect(jsonPath("$.people").isMap());
+
+        ArgumentCaptor<PuckboardDump> dump = ArgumentCaptor.forClass(PuckboardDump.class);
+        Mockito.verify(service).syncOrgsAndMembers(dump.capture(), Mockito.any(PuckboardEtlProgress.class));
+        assertEquals(16, dump.getValue().getOrganizations().size());
+        assertEquals(43, dump.getValue().getPersonnel().size());
+    }
+
+    @Test
+    void testStartJob() throws Exception {
+        PuckboardEtlJobDto job = PuckboardEtlJobDto.builder()
+                .id(UUID.randomUUID())
+                .status(PuckboardEtlJobStatus.PENDING)
+                .phase(PuckboardEtlJobPhase.FETCHING)
+                .build();
+        Mockito.when(jobService.startJob(Mockito.any())).thenReturn(job);
+        Mockito.when(jobService.getJob(job.getId())).thenReturn(job);
+        Mockito.when(jobService.getJob(Mockito.argThat(id -> !job.getId().equals(id))))
+                .thenThrow(new RecordNotFoundException("Not found"));
+
+        mockMvc.perform(post("/v1/puckboard/jobs"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").value(job.getId().toString()))
+                .andExpect(jsonPath("$.status").value("PENDING"));
+
+        mockMvc.perform(get("/v1/puckboard/jobs/{id}", job.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.phase").value("FETCHING"));
+
+        mockMvc.perform(get("/v1/puckboard/jobs/{id}", UUID.randomUUID()))
+                .andExpect(status().isNotFound());
     }
 
     @Test
@@ -133,4 +177,20 @@ public class PuckboardEtlControllerTests {
                 .andExpect(status().isInternalServerError());
 
     }
+
+    @Test
+    void testOnlyOneJobInFlight() {
+        try {
+            jobRepository.saveAndFlush(PuckboardEtlJob.builder().inFlight(true).build());
+            PuckboardEtlJob second = PuckboardEtlJob.builder().inFlight(true).build();
+            assertThrows(DataIntegrityViolationException.class, () -> jobRepository.saveAndFlush(second));
+
+            // any number of finished jobs
+            jobRepository.saveAndFlush(PuckboardEtlJob.builder().status(PuckboardEtlJobStatus.COMPLETED).build());
+            jobRepository.saveAndFlush(PuckboardEtlJob.builder().status(PuckboardEtlJobStatus.FAILED).build());
+            assertEquals(3, jobRepository.count());
+        } finally {
+            jobRepository.deleteAll();
+        }
+    }
 }
@@ -35,6 +35,7 @@ import mil.tron.commonapi.repository.appsource.AppSourceRepository;
 import mil.tron.commonapi.service.AppSourceServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.actuate.health.HealthContributorRegistry;
@@ -43,7 +44,6 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.cache.CacheManager;
 import org.springframework.core.io.Resource;
-import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
@@ -51,24 +51,20 @@ import org.springframework.test.annotation.Rollback;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.util.ReflectionTestUtils;
-import org.springframework.test.web.client.MockRestServiceServer;
-import org.springframework.test.web.client.match.MockRestRequestMatchers;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.util.Assert;
 import org.springframework.web.bind.annotation.RequestMethod;
 
 import javax.transaction.Transactional;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.*;
-import static org.springframework.test.web.client.ExpectedCount.manyTimes;
-import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
-import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
-import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
-import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -1273,10 +1269,13 @@ public class AppSourceIntegrationTest {
                 .andExpect(jsonPath("$.components.appsource_Name.details.error", equalTo("Could not connect to health url")));
 
         AppSourceHealthIndicator indicator = (AppSourceHealthIndicator) registry.getContributor("appsource_Name");
-        MockRestServiceServer mockRestServiceServer = MockRestServiceServer.createServer(indicator.getHealthSender());
-        mockRestServiceServer.expect(manyTimes(), MockRestRequestMatchers.anything())
-                .andExpect(method(HttpMethod.GET))
-                .andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+        HttpClient healthSender = Mockito.mock(HttpClient.class);
+        @SuppressWarnings("unchecked")
+        HttpResponse<Void> healthResponse = Mockito.mock(HttpResponse.class);
+        Mockito.when(healthSender.sendAsync(Mockito.argThat(request -> request.uri().toString().endsWith("healthz")), Mockito.<HttpResponse.BodyHandler<Void>>any()))
+                .thenReturn(CompletableFuture.completedFuture(healthResponse));
+        Mockito.when(healthResponse.statusCode()).thenReturn(HttpStatus.OK.value());
+        indicator.setHealthSender(healthSender);
 
         Thread.sleep(delayTime);
         mockMvc.perform(get("/actuator/health")
@@ -1284,12 +1283,10 @@ public class AppSourceIntegrationTest {
                 .header(XFCC_HEADER_NAME, XFCC_HEADER))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.components.appsource_Name.status", equalTo("APPSOURCE_UP")))
-                .andExpect(jsonPath("$.components.appsource_Name.details.['Last Up Time']", notNullValue()));
+                .andExpect(jsonPath("$.components.appsource_Name.details.['Last Up Time']", notNullValue()))
+                .andExpect(jsonPath("$.components.appsource_Name.details.latencyHistoryMs", not(empty())));
 
-        mockRestServiceServer.reset();
-        mockRestServiceServer.expect(manyTimes(), MockRestRequestMatchers.anything())
-                .andExpect(method(HttpMethod.GET))
-                .andRespond(withStatus(HttpStatus.BAD_GATEWAY));
+        Mockito.when(healthResponse.statusCode()).thenReturn(HttpStatus.BAD_GATEWAY.value());
 
         Thread.sleep(delayTime);
 
@@ -1300,10 +1297,7 @@ public class AppSourceIntegrationTest {
                 .andExpect(jsonPath("$.components.appsource_Name.status", equalTo("APPSOURCE_ERROR")))
                 .andExpect(jsonPath("$.components.appsource_Name.details.['Last Up Time']", notNullValue()));
 
-        mockRestServiceServer.reset();
-        mockRestServiceServer.expect(manyTimes(), requestTo(endsWith("healthz")))
-                .andExpect(method(HttpMethod.GET))
-                .andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+        Mockito.when(healthResponse.statusCode()).thenReturn(HttpStatus.SERVICE_UNAVAILABLE.value());
 
         Thread.sleep(delayTime);
 
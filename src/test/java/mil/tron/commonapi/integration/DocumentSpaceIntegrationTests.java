@@ -6,6 +6,7 @@ import com.amazonaws.auth.BasicAWSCredentials;
 import com.amazonaws.client.builder.AwsClientBuilder;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.amazonaws.services.s3.model.S3Object;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.Lists;
 import com.google.common.io.Files;
@@ -29,6 +30,7 @@ import mil.tron.commonapi.repository.documentspace.DocumentSpaceFileSystemEntryR
 import mil.tron.commonapi.repository.documentspace.DocumentSpacePrivilegeRepository;
 import mil.tron.commonapi.repository.documentspace.DocumentSpaceRepository;
 import mil.tron.commonapi.service.documentspace.DocumentSpaceFileSystemService;
+import mil.tron.commonapi.service.documentspace.DocumentSpacePrivilegeType;
 import mil.tron.commonapi.service.documentspace.DocumentSpaceService;
 import mil.tron.commonapi.service.documentspace.util.FilePathSpecWithContents;
 import org.apache.commons.io.FileUtils;
@@ -41,12 +43,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 import javax.transaction.Transactional;
@@ -63,6 +68,7 @@ import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -75,7 +81,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
         "minio.access-key=admin",
         "minio.secret-key=admin",
         "minio.bucket-name=testbucket",
-        "aws-default-region=EARTH"
+        "aws-default-region=EARTH",
+        "webdav.propfind-max-entries=4"
 })
 @ActiveProfiles(value = { "development", "test" })  // enable at least dev so we get tracing enabled for full integration
 @AutoConfigureMockMvc
@@ -115,6 +122,9 @@ public class DocumentSpaceIntegrationTests {
 
     @Autowired
     private DashboardUserRepository dashRepo;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
     private DashboardUser admin;
 
     UUID id = UUID.randomUUID();
@@ -655,6 +665,35 @@ public class DocumentSpaceIntegrationTests {
                 .andExpect(status().isOk())
                 .andExpect(content().string(containsString("Hello, World 2!")));
 
+        // conditional GET with the file's etag is answered with a 304
+        String etag = mockMvc.perform(get(ENDPOINT_V2 + "/space/{id}/docs/hello2.txt", test1Id.toString())
+                .header(JwtUtils.AUTH_HEADER_NAME, JwtUtils.createToken(admin.getEmail()))
+                .header(JwtUtils.XFCC_HEADER_NAME, JwtUtils.generateXfccHeaderFromSSO()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get(ENDPOINT_V2 + "/space/{id}/docs/hello2.txt", test1Id.toString())
+                .header(JwtUtils.AUTH_HEADER_NAME, JwtUtils.createToken(admin.getEmail()))
+                .header(JwtUtils.XFCC_HEADER_NAME, JwtUtils.generateXfccHeaderFromSSO())
+                .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // byte ranges come back as partial content
+        mockMvc.perform(get(ENDPOINT_V2 + "/space/{id}/docs/hello2.txt", test1Id.toString())
+                .header(JwtUtils.AUTH_HEADER_NAME, JwtUtils.createToken(admin.getEmail()))
+                .header(JwtUtils.XFCC_HEADER_NAME, JwtUtils.generateXfccHeaderFromSSO())
+                .header(HttpHeaders.RANGE, "bytes=7-11"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 7-11/15"))
+                .andExpect(content().string("World"));
+        mockMvc.perform(get(ENDPOINT_V2 + "/space/{id}/docs/hello2.txt", test1Id.toString())
+                .header(JwtUtils.AUTH_HEADER_NAME, JwtUtils.createToken(admin.getEmail()))
+                .header(JwtUtils.XFCC_HEADER_NAME, JwtUtils.generateXfccHeaderFromSSO())
+                .header(HttpHeaders.RANGE, "bytes=100-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */15"));
+
         mockMvc.perform(get(ENDPOINT_V2 + "/space/{id}/docs/", test1Id.toString())
                 .header(JwtUtils.AUTH_HEADER_NAME, JwtUtils.createToken(admin.getEmail()))
                 .header(JwtUtils.XFCC_HEADER_NAME, JwtUtils.generateXfccHeaderFromSSO())
@@ -1251,7 +1290,30 @@ public class DocumentSpaceIntegrationTests {
                 .andExpect(jsonPath("$.documents", hasSize(3)))
                 .andExpect(jsonPath("$.documents[?(@.spaceName == 'test2')]").exists())
                 .andExpect(jsonPath("$.documents[?(@.spaceName == 'test3')]").exists())
-                .andExpect(jsonPath("$.documents[?(@.spaceName == 'test4')]").exists());
+                .andExpect(jsonPath("$.documents[?(@.spaceName == 'test4')]").exists())
+                .andExpect(jsonPath("$.documents[0].path", equalTo("/docs")));
+
+        // can page through them too
+        mockMvc.perform(get(ENDPOINT_V2 + "/spaces/archived?page=0&size=2")
+                .header(JwtUtils.AUTH_HEADER_NAME, JwtUtils.createToken(admin.getEmail()))
+                .header(JwtUtils.XFCC_HEADER_NAME, JwtUtils.generateXfccHeaderFromSSO()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.documents", hasSize(2)))
+                .andExpect(jsonPath("$.size", equalTo(2)))
+                .andExpect(jsonPath("$.totalElements", equalTo(3)))
+                .andExpect(jsonPath("$.nextContinuationToken", equalTo("1")));
+        mockMvc.perform(get(ENDPOINT_V2 + "/spaces/archived?page=1&size=2")
+                .header(JwtUtils.AUTH_HEADER_NAME, JwtUtils.createToken(admin.getEmail()))
+                .header(JwtUtils.XFCC_HEADER_NAME, JwtUtils.generateXfccHeaderFromSSO()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.documents", hasSize(1)))
+                .andExpect(jsonPath("$.size", equalTo(2)))
+                .andExpect(jsonPath("$.totalElements", equalTo(3)))
+                .andExpect(jsonPath("$.nextContinuationToken").doesNotExist());
+        mockMvc.perform(get(ENDPOINT_V2 + "/spaces/archived?size=0")
+                .header(JwtUtils.AUTH_HEADER_NAME, JwtUtils.createToken(admin.getEmail()))
+                .header(JwtUtils.XFCC_HEADER_NAME, JwtUtils.generateXfccHeaderFromSSO()))
+                .andExpect(status().isBadRequest());
 
         // as some-user, verify can see just two items - since we can't see into test4 space
         mockMvc.perform(get(ENDPOINT_V2 + "/spaces/archived")
@@ -1437,6 +1499,60 @@ public class DocumentSpaceIntegrationTests {
         return spaceId;
     }
 
+    @Transactional
+    @Rollback
+    @Test
+    void testBatchUserImportWritesJoinRows() throws Exception {
+        UUID spaceId = createSpaceWithFiles("space-join-rows");
+        UUID membershipPrivilegeId = documentSpaceRepository.findById(spaceId).orElseThrow()
+                .getPrivileges().get(DocumentSpacePrivilegeType.MEMBERSHIP).getId();
+
+        // 3@test.mil already has an account, and a privilege in this space left over from an earlier membership
+        DashboardUser existingUser = DashboardUser.builder()
+                .email("3@test.mil")
+                .privileges(new HashSet<>(Set.of(privRepo.findByName("DASHBOARD_USER").orElseThrow())))
+                .build();
+        dashRepo.insertAll(List.of(existingUser));
+        jdbcTemplate.update("INSERT INTO dashboard_user_document_space_privileges (dashboard_users_id, document_space_privileges_id) VALUES (?, ?)",
+                existingUser.getId(), membershipPrivilegeId);
+
+        FileInputStream filestream = new FileInputStream("src/test/resources/dashboard-user-csv/happy-case.csv");
+        MockMultipartFile file = new MockMultipartFile("file", "happy-case.csv","text/csv" , filestream);
+        mockMvc.perform(multipart(ENDPOINT_V2 +"/spaces/{id}/batchUsers", spaceId.toString())
+                .file(file)
+                .header(JwtUtils.AUTH_HEADER_NAME, JwtUtils.createToken(admin.getEmail()))
+                .header(JwtUtils.XFCC_HEADER_NAME, JwtUtils.generateXfccHeaderFromSSO()))
+                .andExpect(status().isOk());
+
+        // one membership row per imported user
+        for (String email : List.of("1@tron.dev", "2@tron.dev", "3@test.mil", "4@test.mil")) {
+            assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM document_space_dashboard_users m " +
+                    "JOIN dashboard_user u ON u.id = m.dashboard_user_id WHERE u.email_as_lower = ? AND m.document_space_id = ?",
+                    Integer.class, email, spaceId));
+        }
+
+        // the space privilege rows follow the csv (with the lower privileges implied), and the left over one is gone
+        assertThat(spacePrivilegeTypes("1@tron.dev", spaceId)).containsExactlyInAnyOrder("READ", "WRITE", "MEMBERSHIP");
+        assertThat(spacePrivilegeTypes("2@tron.dev", spaceId)).containsExactlyInAnyOrder("READ");
+        assertThat(spacePrivilegeTypes("3@test.mil", spaceId)).containsExactlyInAnyOrder("READ", "WRITE");
+        assertThat(spacePrivilegeTypes("4@test.mil", spaceId)).containsExactlyInAnyOrder("READ", "WRITE", "MEMBERSHIP");
+
+        // new users get both global privileges, the existing user just gains DOCUMENT_SPACE_USER
+        for (String email : List.of("1@tron.dev", "3@test.mil")) {
+            assertThat(jdbcTemplate.queryForList("SELECT p.name FROM dashboard_user_privileges j " +
+                    "JOIN privilege p ON p.id = j.privileges_id JOIN dashboard_user u ON u.id = j.dashboard_user_id " +
+                    "WHERE u.email_as_lower = ?", String.class, email))
+                    .containsExactlyInAnyOrder("DASHBOARD_USER", "DOCUMENT_SPACE_USER");
+        }
+    }
+
+    private List<String> spacePrivilegeTypes(String email, UUID spaceId) {
+        return jdbcTemplate.queryForList("SELECT p.type FROM dashboard_user_document_space_privileges j " +
+                "JOIN document_space_privilege p ON p.id = j.document_space_privileges_id " +
+                "JOIN dashboard_user u ON u.id = j.dashboard_users_id " +
+                "WHERE u.email_as_lower = ? AND p.document_space_id = ?", String.class, email, spaceId);
+    }
+
     @Transactional
     @Rollback
     @Test
@@ -1549,6 +1665,10 @@ public class DocumentSpaceIntegrationTests {
                 .header(JwtUtils.XFCC_HEADER_NAME, JwtUtils.generateXfccHeaderFromSSO()))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.data", hasSize(3)));
+
+        // they weren't in any other space and had no other privileges, so they're gone altogether
+        assertTrue(dashRepo.findByEmailAsLower("4@test.mil").isEmpty());
+        assertTrue(dashRepo.findByEmailAsLower("3@test.mil").isPresent());
     }
 
     @Transactional
@@ -1579,6 +1699,16 @@ public class DocumentSpaceIntegrationTests {
                 .header(JwtUtils.XFCC_HEADER_NAME, JwtUtils.generateXfccHeaderFromSSO()))
                 .andExpect(status().isMultiStatus());
 
+        // with a depth of infinity, nested files come back under their folder's href
+        mockMvc.perform(MockMvcRequestBuilders.request("PROPFIND", URI.create(String.format("/v2/document-space-dav/%s/", spaceId)))
+                .header("depth", "infinity")
+                .header(JwtUtils.AUTH_HEADER_NAME, JwtUtils.createToken(admin.getEmail()))
+                .header(JwtUtils.XFCC_HEADER_NAME, JwtUtils.generateXfccHeaderFromSSO()))
+                .andExpect(status().isMultiStatus())
+                .andExpect(content().string(containsString(String.format("/api/v2/document-space/space/%s/docs/hello2.txt</D:href>", spaceId))))
+                .andExpect(content().string(containsString(String.format("/api/v2/document-space/space/%s/hello.txt</D:href>", spaceId))))
+                .andExpect(content().string(containsString("GMT</D:getlastmodified>")));
+
         // do the OPTIONS fetch
         mockMvc.perform(options(String.format("/v2/document-space-dav/%s/", spaceId))
                 .header(JwtUtils.AUTH_HEADER_NAME, JwtUtils.createToken(admin.getEmail()))
@@ -1599,6 +1729,40 @@ public class DocumentSpaceIntegrationTests {
                 .andExpect(status().isOk());
     }
 
+    @Transactional
+    @Rollback
+    @Test
+    void testWebDavInfinityPropFindLimit() throws Exception {
+        UUID spaceId = createSpaceWithFiles("some-space");
+
+        // the root holds exactly webdav.propfind-max-entries (4) entries, one more folder puts it over
+        mockMvc.perform(MockMvcRequestBuilders.request("MKCOL", URI.create(String.format("/v2/document-space-dav/%s/test2", spaceId)))
+                .header(JwtUtils.AUTH_HEADER_NAME, JwtUtils.createToken(admin.getEmail()))
+                .header(JwtUtils.XFCC_HEADER_NAME, JwtUtils.generateXfccHeaderFromSSO()))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(MockMvcRequestBuilders.request("PROPFIND", URI.create(String.format("/v2/document-space-dav/%s/", spaceId)))
+                .header("depth", "infinity")
+                .header(JwtUtils.AUTH_HEADER_NAME, JwtUtils.createToken(admin.getEmail()))
+                .header(JwtUtils.XFCC_HEADER_NAME, JwtUtils.generateXfccHeaderFromSSO()))
+                .andExpect(status().isForbidden());
+
+        // a depth of 1 on the same folder is still answered
+        mockMvc.perform(MockMvcRequestBuilders.request("PROPFIND", URI.create(String.format("/v2/document-space-dav/%s/", spaceId)))
+                .header("depth", "1")
+                .header(JwtUtils.AUTH_HEADER_NAME, JwtUtils.createToken(admin.getEmail()))
+                .header(JwtUtils.XFCC_HEADER_NAME, JwtUtils.generateXfccHeaderFromSSO()))
+                .andExpect(status().isMultiStatus());
+
+        // and so is infinity on a subfolder that's under the limit
+        mockMvc.perform(MockMvcRequestBuilders.request("PROPFIND", URI.create(String.format("/v2/document-space-dav/%s/docs", spaceId)))
+                .header("depth", "infinity")
+                .header(JwtUtils.AUTH_HEADER_NAME, JwtUtils.createToken(admin.getEmail()))
+                .header(JwtUtils.XFCC_HEADER_NAME, JwtUtils.generateXfccHeaderFromSSO()))
+                .andExpect(status().isMultiStatus())
+                .andExpect(content().string(containsString(String.format("/api/v2/document-space/space/%s/docs/names.txt</D:href>", spaceId))));
+    }
+
     @Transactional
     @Rollback
     @Test
@@ -1921,6 +2085,94 @@ public class DocumentSpaceIntegrationTests {
                 .andExpect(status().isBadRequest());
     }
 
+    @Transactional
+    @Rollback
+    @Test
+    void testChunkedUpload() throws Exception {
+        UUID spaceId = createSpaceWithFiles("space1");
+
+        // start the upload into a folder that doesn't exist yet
+        MvcResult result = mockMvc.perform(post(ENDPOINT_V2 + "/spaces/{id}/uploads", spaceId.toString())
+                .header(JwtUtils.AUTH_HEADER_NAME, JwtUtils.createToken(admin.getEmail()))
+                .header(JwtUtils.XFCC_HEADER_NAME, JwtUtils.generateXfccHeaderFromSSO())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(MAPPER.writeValueAsString(DocumentSpaceUploadRequestDto.builder()
+                        .path("/chunked")
+                        .filename("parts.txt")
+                        .contentType(MediaType.TEXT_PLAIN_VALUE)
+                        .build())))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.filename", equalTo("parts.txt")))
+                .andExpect(jsonPath("$.parts", hasSize(0)))
+                .andReturn();
+        String uploadId = JsonPath.read(result.getResponse().getContentAsString(), "$.id");
+
+        // parts can arrive out of order
+        mockMvc.perform(put(ENDPOINT_V2 + "/spaces/{id}/uploads/{uploadId}/parts/{part}", spaceId.toString(), uploadId, 2)
+                .header(JwtUtils.AUTH_HEADER_NAME, JwtUtils.createToken(admin.getEmail()))
+                .header(JwtUtils.XFCC_HEADER_NAME, JwtUtils.generateXfccHeaderFromSSO())
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .content("World!".getBytes()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.partNumber", equalTo(2)))
+                .andExpect(jsonPath("$.size", equalTo(6)));
+
+        mockMvc.perform(put(ENDPOINT_V2 + "/spaces/{id}/uploads/{uploadId}/parts/{part}", spaceId.toString(), uploadId, 1)
+                .header(JwtUtils.AUTH_HEADER_NAME, JwtUtils.createToken(admin.getEmail()))
+                .header(JwtUtils.XFCC_HEADER_NAME, JwtUtils.generateXfccHeaderFromSSO())
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .content("Hello, ".getBytes()))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(put(ENDPOINT_V2 + "/spaces/{id}/uploads/{uploadId}/parts/{part}", spaceId.toString(), uploadId, 0)
+                .header(JwtUtils.AUTH_HEADER_NAME, JwtUtils.createToken(admin.getEmail()))
+                .header(JwtUtils.XFCC_HEADER_NAME, JwtUtils.generateXfccHeaderFromSSO())
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .content("nope".getBytes()))
+                .andExpect(status().isBadRequest());
+
+        // a resuming client can see what's been received
+        mockMvc.perform(get(ENDPOINT_V2 + "/spaces/{id}/uploads/{uploadId}", spaceId.toString(), uploadId)
+                .header(JwtUtils.AUTH_HEADER_NAME, JwtUtils.createToken(admin.getEmail()))
+                .header(JwtUtils.XFCC_HEADER_NAME, JwtUtils.generateXfccHeaderFromSSO()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.parts", hasSize(2)))
+                .andExpect(jsonPath("$.parts[*].partNumber", contains(1, 2)));
+
+        // nothing shows up in the space until the upload is completed
+        mockMvc.perform(get(ENDPOINT_V2 + "/spaces/{id}/contents?path=/chunked", spaceId.toString())
+                .header(JwtUtils.AUTH_HEADER_NAME, JwtUtils.createToken(admin.getEmail()))
+                .header(JwtUtils.XFCC_HEADER_NAME, JwtUtils.generateXfccHeaderFromSSO()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.documents", hasSize(0)));
+
+        mockMvc.perform(post(ENDPOINT_V2 + "/spaces/{id}/uploads/{uploadId}/complete", spaceId.toString(), uploadId)
+                .header(JwtUtils.AUTH_HEADER_NAME, JwtUtils.createToken(admin.getEmail()))
+                .header(JwtUtils.XFCC_HEADER_NAME, JwtUtils.generateXfccHeaderFromSSO()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.key", equalTo("parts.txt")));
+
+        mockMvc.perform(get(ENDPOINT_V2 + "/spaces/{id}/contents?path=/chunked", spaceId.toString())
+                .header(JwtUtils.AUTH_HEADER_NAME, JwtUtils.createToken(admin.getEmail()))
+                .header(JwtUtils.XFCC_HEADER_NAME, JwtUtils.generateXfccHeaderFromSSO()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.documents", hasSize(1)))
+                .andExpect(jsonPath("$.documents[0].key", equalTo("parts.txt")))
+                .andExpect(jsonPath("$.documents[0].size", equalTo(13)));
+
+        mockMvc.perform(get(ENDPOINT_V2 + "/space/{id}/chunked/parts.txt", spaceId.toString())
+                .header(JwtUtils.AUTH_HEADER_NAME, JwtUtils.createToken(admin.getEmail()))
+                .header(JwtUtils.XFCC_HEADER_NAME, JwtUtils.generateXfccHeaderFromSSO()))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Hello, World!"));
+
+        // the session is gone once completed
+        mockMvc.perform(get(ENDPOINT_V2 + "/spaces/{id}/uploads/{uploadId}", spaceId.toString(), uploadId)
+                .header(JwtUtils.AUTH_HEADER_NAME, JwtUtils.createToken(admin.getEmail()))
+                .header(JwtUtils.XFCC_HEADER_NAME, JwtUtils.generateXfccHeaderFromSSO()))
+                .andExpect(status().isNotFound());
+    }
+
     @Transactional
     @Rollback
     @Test
@@ -2790,6 +3042,56 @@ public class DocumentSpaceIntegrationTests {
         assertEquals(2, dto.getDocuments().stream().filter(item -> item.getKey().contains("names.txt")).count());
     }
 
+    @Test
+    @Transactional
+    @Rollback
+    void testCopyingNestedFoldersWorks() throws Exception {
+        // test copying a folder whose sub folders have their own contents keeps every level intact
+
+        UUID space1 = createSpaceWithFiles("space1");
+
+        // nest docs/ one level down as old/docs/, then copy old/ to older/
+        mockMvc.perform(post(ENDPOINT_V2 + "/spaces/{id}/folders", space1)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(MAPPER.writeValueAsString(DocumentSpaceCreateFolderDto.builder()
+                        .folderName("old")
+                        .path("/")
+                        .build()))
+                .header(JwtUtils.AUTH_HEADER_NAME, JwtUtils.createToken(admin.getEmail()))
+                .header(JwtUtils.XFCC_HEADER_NAME, JwtUtils.generateXfccHeaderFromSSO()))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(post(ENDPOINT_V2 + "/spaces/{id}/copy", space1.toString())
+                .header(JwtUtils.AUTH_HEADER_NAME, JwtUtils.createToken(admin.getEmail()))
+                .header(JwtUtils.XFCC_HEADER_NAME, JwtUtils.generateXfccHeaderFromSSO())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{ \"docs\" : \"old/docs\" }"))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(post(ENDPOINT_V2 + "/spaces/{id}/copy", space1.toString())
+                .header(JwtUtils.AUTH_HEADER_NAME, JwtUtils.createToken(admin.getEmail()))
+                .header(JwtUtils.XFCC_HEADER_NAME, JwtUtils.generateXfccHeaderFromSSO())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{ \"old\" : \"older\" }"))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get(ENDPOINT_V2 + "/spaces/{id}/contents?path=/older/docs", space1.toString())
+                .header(JwtUtils.AUTH_HEADER_NAME, JwtUtils.createToken(admin.getEmail()))
+                .header(JwtUtils.XFCC_HEADER_NAME, JwtUtils.generateXfccHeaderFromSSO()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.documents", hasSize(2)))
+                .andExpect(jsonPath("$.documents[*].key", hasItem("hello2.txt")))
+                .andExpect(jsonPath("$.documents[*].key", hasItem("names.txt")));
+
+        // the copied objects need to live under the copied folders' ids to actually be downloadable
+        S3Object object = documentSpaceService.getFile(space1, "/older/docs", "names.txt", admin.getEmail());
+        assertEquals("names", new String(object.getObjectContent().readAllBytes()));
+
+        // three copies of each of the nested files now
+        S3PaginationDto dto = documentSpaceService.listFiles(space1, null, Integer.MAX_VALUE);
+        assertEquals(3, dto.getDocuments().stream().filter(item -> item.getKey().contains("names.txt")).count());
+    }
+
     @Test
     @Rollback
     @Transactional
@@ -3347,6 +3649,27 @@ public class DocumentSpaceIntegrationTests {
 
         assertTrue(OffsetDateTime.ofInstant(lastActivity.toInstant(), ZoneOffset.UTC).isAfter(now.minusMinutes(1)));
         assertTrue(OffsetDateTime.ofInstant(lastActivity.toInstant(), ZoneOffset.UTC).isBefore(now.plusMinutes(1)));
+
+        // favorites can be paged through too
+        result = mockMvc.perform(get(ENDPOINT_V2 + "/spaces/{id}/collection/favorite?limit=1", space1Id.toString())
+                .header(JwtUtils.AUTH_HEADER_NAME, JwtUtils.createToken(admin.getEmail()))
+                .header(JwtUtils.XFCC_HEADER_NAME, JwtUtils.generateXfccHeaderFromSSO()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data", hasSize(1)))
+                .andExpect(jsonPath("$.data[0].path", equalTo("some-directory")))
+                .andExpect(jsonPath("$.pagination.nextContinuationToken").exists())
+                .andReturn();
+
+        String firstKey = JsonPath.read(result.getResponse().getContentAsString(), "$.data[0].key");
+        String continuation = JsonPath.read(result.getResponse().getContentAsString(), "$.pagination.nextContinuationToken");
+        mockMvc.perform(get(ENDPOINT_V2 + "/spaces/{id}/collection/favorite?limit=1", space1Id.toString())
+                .param("continuation", continuation)
+                .header(JwtUtils.AUTH_HEADER_NAME, JwtUtils.createToken(admin.getEmail()))
+                .header(JwtUtils.XFCC_HEADER_NAME, JwtUtils.generateXfccHeaderFromSSO()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data", hasSize(1)))
+                .andExpect(jsonPath("$.data[0].key", not(equalTo(firstKey))))
+                .andExpect(jsonPath("$.pagination.nextContinuationToken").doesNotExist());
     }
 
 
@@ -3457,6 +3780,42 @@ public class DocumentSpaceIntegrationTests {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.data", hasSize(3)));
 
+        // page through admin's activity with continuation tokens rather than page numbers, nothing gets counted
+        //  and every file turns up exactly once
+        Set<String> seenIds = new HashSet<>();
+        String continuation = null;
+        int pages = 0;
+        do {
+            MockHttpServletRequestBuilder request = get(ENDPOINT_V2 + "/spaces/files/recently-uploaded")
+                    .param("size", "4")
+                    .param("count", "false");
+            if (continuation != null) {
+                request.param("continuation", continuation);
+            }
+
+            MvcResult page = mockMvc.perform(request
+                    .header(JwtUtils.AUTH_HEADER_NAME, JwtUtils.createToken(admin.getEmail()))
+                    .header(JwtUtils.XFCC_HEADER_NAME, JwtUtils.generateXfccHeaderFromSSO()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.pagination.totalElements").doesNotExist())
+                    .andReturn();
+
+            String json = page.getResponse().getContentAsString();
+            List<String> ids = JsonPath.read(json, "$.data[*].id");
+            seenIds.addAll(ids);
+            Map<String, Object> pagination = JsonPath.read(json, "$.pagination");
+            continuation = (String) pagination.get("nextContinuationToken");
+            pages++;
+        } while (continuation != null);
+
+        assertEquals(3, pages);
+        assertEquals(9, seenIds.size());
+
+        mockMvc.perform(get(ENDPOINT_V2 + "/spaces/files/recently-uploaded")
+                .param("continuation", "not a token")
+                .header(JwtUtils.AUTH_HEADER_NAME, JwtUtils.createToken(admin.getEmail()))
+                .header(JwtUtils.XFCC_HEADER_NAME, JwtUtils.generateXfccHeaderFromSSO()))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -3600,7 +3959,25 @@ public class DocumentSpaceIntegrationTests {
                                 .query("world2")
                                 .build())))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.data", hasSize(1)));
+                .andExpect(jsonPath("$.data", hasSize(1)))
+                .andExpect(jsonPath("$.data[0].path", equalTo("some/path")));
+
+        // search across every space the requester can read
+        UUID space2Id = createSpaceWithFiles("space2");
+        mockMvc.perform(post(ENDPOINT_V2 + "/spaces/search")
+                        .header(JwtUtils.AUTH_HEADER_NAME, JwtUtils.createToken(admin.getEmail()))
+                        .header(JwtUtils.XFCC_HEADER_NAME, JwtUtils.generateXfccHeaderFromSSO())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(DocumentSpaceSearchDto.builder()
+                                .query("hello")
+                                .matchType(DocumentSpaceSearchMatchType.PREFIX)
+                                .extension("txt")
+                                .build())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data", hasSize(6)))
+                .andExpect(jsonPath("$.data[0].key", equalTo("hello.txt")))
+                .andExpect(jsonPath("$.data[*].spaceId", hasItem(space2Id.toString())))
+                .andExpect(jsonPath("$.data[?(@.key == 'hello2.txt')].path", hasItem("docs")));
 
         mockMvc.perform(post(ENDPOINT_V2 + "/spaces/{id}/search", spaceId.toString())
                         .header(JwtUtils.AUTH_HEADER_NAME, JwtUtils.createToken(admin.getEmail()))
@@ -235,6 +235,40 @@ public class OrganizationIntegrationTest {
                 .content(OBJECT_MAPPER.writeValueAsString(theOrg))).andExpect(status().isBadRequest());
     }
 
+    @Test
+    @Rollback
+    @Transactional
+    void testFlattenMultiLevelHierarchy() throws Exception {
+        PersonDto leader = PersonDto.builder().id(UUID.randomUUID()).firstName("Lead").rank("Capt").branch(Branch.USAF).build();
+        PersonDto member = PersonDto.builder().id(UUID.randomUUID()).firstName("Member").rank("Capt").branch(Branch.USAF).build();
+        for (PersonDto person : List.of(leader, member)) {
+            mockMvc.perform(post("/v1/person").contentType(MediaType.APPLICATION_JSON)
+                    .content(OBJECT_MAPPER.writeValueAsString(person))).andExpect(status().isCreated());
+        }
+
+        OrganizationDto wing = OrganizationDto.builder().name("Wing").orgType(Unit.WING).branchType(Branch.USAF).build();
+        OrganizationDto group = OrganizationDto.builder().name("Group").orgType(Unit.GROUP).branchType(Branch.USAF)
+                .parentOrganization(wing.getId()).build();
+        OrganizationDto squadron = OrganizationDto.builder().name("Squadron").orgType(Unit.SQUADRON).branchType(Branch.USAF)
+                .parentOrganization(group.getId()).leader(leader.getId()).members(List.of(member.getId())).build();
+        for (OrganizationDto org : List.of(wing, group, squadron)) {
+            mockMvc.perform(post(ENDPOINT).contentType(MediaType.APPLICATION_JSON)
+                    .content(OBJECT_MAPPER.writeValueAsString(org))).andExpect(status().isCreated());
+        }
+
+        // wing flattens to both levels below it along with the squadron's leader and member
+        mockMvc.perform(get(ENDPOINT + "{id}?flatten=true", wing.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.subordinateOrganizations", containsInAnyOrder(group.getId().toString(), squadron.getId().toString())))
+                .andExpect(jsonPath("$.members", containsInAnyOrder(leader.getId().toString(), member.getId().toString())));
+
+        // the wing is up the squadron's chain, so it can't become the squadron's subordinate
+        mockMvc.perform(patch(ENDPOINT + "{id}/subordinates", squadron.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(OBJECT_MAPPER.writeValueAsString(List.of(wing.getId()))))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @Rollback
     @Transactional
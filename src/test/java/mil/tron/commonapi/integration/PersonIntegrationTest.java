@@ -150,6 +150,52 @@ public class PersonIntegrationTest {
                 .andExpect(jsonPath("$.data", hasSize(0)));
     }
 
+    @Transactional
+    @Rollback
+    @Test
+    void testBulkImportPeopleReportsRejectedRows() throws Exception {
+        PersonDto existing = PersonDto.builder()
+                .email("existing@test.com")
+                .rank("Capt")
+                .branch(Branch.USAF)
+                .build();
+
+        mockMvc.perform(post(ENDPOINT)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(OBJECT_MAPPER.writeValueAsString(existing)))
+                .andExpect(status().isCreated());
+
+        PersonDto good = PersonDto.builder()
+                .firstName("good")
+                .email("good@test.com")
+                .rank("SSgt")
+                .branch(Branch.USAF)
+                .build();
+
+        List<PersonDto> peopleArray = Lists.newArrayList(
+                good,
+                PersonDto.builder().email("GOOD@test.com").build(),
+                PersonDto.builder().email("existing@test.com").build(),
+                PersonDto.builder().email("p4test.com").build(),
+                PersonDto.builder().email("other@test.com").build());
+
+        // bad rows get reported back, the rest still get created
+        mockMvc.perform(post(ENDPOINT_V2 + "persons/import")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(OBJECT_MAPPER.writeValueAsString(peopleArray)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created", hasSize(2)))
+                .andExpect(jsonPath("$.errors", hasSize(3)))
+                .andExpect(jsonPath("$.errors[0].row", equalTo(1)))
+                .andExpect(jsonPath("$.errors[1].row", equalTo(2)))
+                .andExpect(jsonPath("$.errors[2].row", equalTo(3)));
+
+        mockMvc.perform(get(ENDPOINT + good.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email", equalTo("good@test.com")))
+                .andExpect(jsonPath("$.rank", equalTo("SSgt")));
+    }
+
     @Transactional
     @Rollback
     @Test
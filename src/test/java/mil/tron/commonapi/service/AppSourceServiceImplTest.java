@@ -5,6 +5,7 @@ import com.google.common.collect.Sets;
 import lombok.val;
 import mil.tron.commonapi.appgateway.AppSourceConfig;
 import mil.tron.commonapi.appgateway.AppSourceInterfaceDefinition;
+import mil.tron.commonapi.appgateway.GatewayRouteTable;
 import mil.tron.commonapi.dto.AppClientUserPrivDto;
 import mil.tron.commonapi.dto.DashboardUserDto;
 import mil.tron.commonapi.dto.PrivilegeDto;
@@ -22,6 +23,7 @@ import mil.tron.commonapi.exception.InvalidRecordUpdateRequest;
 import mil.tron.commonapi.exception.RecordNotFoundException;
 import mil.tron.commonapi.exception.ResourceAlreadyExistsException;
 import mil.tron.commonapi.health.AppSourceHealthIndicator;
+import mil.tron.commonapi.health.AppSourceHealthProbeScheduler;
 import mil.tron.commonapi.repository.AppClientUserRespository;
 import mil.tron.commonapi.repository.DashboardUserRepository;
 import mil.tron.commonapi.repository.PrivilegeRepository;
@@ -75,9 +77,15 @@ public class AppSourceServiceImplTest {
     @Mock
     private AppSourceConfig appSourceConfig;
 
+    @Mock
+    private GatewayRouteTable gatewayRouteTable;
+
     @Mock
 	private HealthContributorRegistry healthContributorRegistry;
 
+    @Mock
+    private AppSourceHealthProbeScheduler healthProbeScheduler;
+
     @InjectMocks
     private AppSourceServiceImpl service;
 
@@ -368,6 +376,21 @@ public class AppSourceServiceImplTest {
     		assertThat(removed.getAppSourceAdminUserEmails().size()).isEqualTo(0);
     	}
 
+		@Test
+		void successDeleteStopsGatewayRouting() {
+			appSource.setAppSourcePath("test-path");
+			Mockito.when(appSourceRepository.findById(Mockito.any(UUID.class))).thenReturn(Optional.of(appSource));
+			Mockito.when(appSourceRepository.findAppSourcesByAppSourceAdminsContaining(Mockito.any()))
+					.thenReturn(Lists.newArrayList(appSource));
+			Mockito.when(appSourceRepository.saveAndFlush(Mockito.any()))
+					.thenReturn(appSource);
+
+			service.deleteAppSource(appSource.getId());
+
+			Mockito.verify(gatewayRouteTable).remove("test-path");
+			Mockito.verify(appSourceConfig).removeAppSourcePathMapping("test-path");
+		}
+
 		@Test
     	void successDeleteWhenAppClientExists() {
     		Mockito.when(appSourceRepository.findById(Mockito.any(UUID.class))).thenReturn(Optional.of(appSource));
@@ -802,4 +825,44 @@ public class AppSourceServiceImplTest {
 		service.deleteAdminFromAllAppSources(newUser);
 		assertTrue(newAppSource.getAppSourceAdmins().isEmpty());
 	}
+
+	@Test
+	void testLastUpTimesAreWrittenOnFlush() {
+		AppSource appSource = AppSource.builder()
+				.id(UUID.randomUUID())
+				.name("Some App")
+				.build();
+		Mockito.when(appSourceRepository.findById(appSource.getId())).thenReturn(Optional.of(appSource));
+
+		Date first = new Date(1000L);
+		Date second = new Date(2000L);
+		service.recordLastUpTime(appSource.getId(), second);
+		service.recordLastUpTime(appSource.getId(), first);
+
+		// nothing is written until the flush, which only writes the latest time
+		Mockito.verify(appSourceRepository, Mockito.never()).save(Mockito.any());
+		assertEquals(second, service.getLastUpTime(appSource.getId()));
+
+		service.flushLastUpTimes();
+		Mockito.verify(appSourceRepository, Mockito.times(1)).save(appSource);
+		assertEquals(second, appSource.getLastUpTime());
+
+		service.flushLastUpTimes();
+		Mockito.verify(appSourceRepository, Mockito.times(1)).save(appSource);
+	}
+
+	@Test
+	void testLastUpTimeKeptForNextFlush_whenWriteFails() {
+		UUID appSourceId = UUID.randomUUID();
+		Mockito.when(appSourceRepository.findById(appSourceId))
+				.thenThrow(new RuntimeException("connection refused"))
+				.thenReturn(Optional.empty());
+
+		service.recordLastUpTime(appSourceId, new Date());
+		service.flushLastUpTimes();
+		service.flushLastUpTimes();
+		service.flushLastUpTimes();
+
+		Mockito.verify(appSourceRepository, Mockito.times(2)).findById(appSourceId);
+	}
 }
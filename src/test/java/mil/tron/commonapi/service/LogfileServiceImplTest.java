@@ -4,10 +4,13 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.zip.GZIPInputStream;
 
 import javax.servlet.http.HttpServletRequest;
 
@@ -89,7 +92,14 @@ class LogfileServiceImplTest {
 		
 		assertThat(resource).isNotNull();
 		assertThat(resource.isReadable()).isTrue();
-		assertThat(resource.isFile()).isFalse();
+		assertThat(service.getLogfileResourceName(resource)).startsWith("spring.log.").endsWith(".gz");
+
+		// compressed as it's written out
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		service.writeLogfile(resource, out);
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+			assertThat(new String(in.readAllBytes())).isEqualTo("test");
+		}
 	}
 	
 	@Test
@@ -104,6 +114,11 @@ class LogfileServiceImplTest {
 		assertThat(resource.isReadable()).isTrue();
 		assertThat(resource.isFile()).isTrue();
 		assertThat(resource.getFilename()).isEqualTo(fileName);
+
+		// already compressed, so copied as is
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		service.writeLogfile(resource, out);
+		assertThat(new String(out.toByteArray())).isEqualTo("test");
 	}
 	
 	@Test
@@ -132,8 +147,61 @@ class LogfileServiceImplTest {
 	}
 	
 	@Test
-	void gzipFile_InvalidPath() {
-		assertThrows(FileCompressionException.class, () -> service.gzipFileAsBytes(tempDir.resolve("fakepath.txt")));
+	void writeLogfile_InvalidPath() throws Exception {
+		Resource resource = new UrlResource(tempDir.resolve("fakepath.log").toUri());
+		assertThrows(FileCompressionException.class, () -> service.writeLogfile(resource, new ByteArrayOutputStream()));
+	}
+
+	@Test
+	void tailLogfile_Lines() throws Exception {
+		StringBuilder contents = new StringBuilder();
+		for (int i = 0; i < 5000; i++) {
+			contents.append("line ").append(i).append('\n');
+		}
+		Files.write(tempDir.resolve("spring.log"), contents.toString().getBytes());
+
+		assertThat(tail("spring.log", null, 3, null)).isEqualTo("line 4997\nline 4998\nline 4999\n");
+		assertThat(tail("spring.log", null, null, null).split("\n")).hasSize(100);
+		assertThat(tail("spring.log", null, 10000, null)).isEqualTo(contents.toString());
+	}
+
+	@Test
+	void tailLogfile_Bytes() throws Exception {
+		Files.write(tempDir.resolve("spring.log"), "first line\nsecond line\n".getBytes());
+
+		assertThat(tail("spring.log", 5L, null, null)).isEqualTo("line\n");
+		assertThat(tail("spring.log", 1000L, null, null)).isEqualTo("first line\nsecond line\n");
+	}
+
+	@Test
+	void tailLogfile_Filter() throws Exception {
+		StringBuilder contents = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			contents.append(i % 10 == 0 ? "ERROR " : "INFO ").append(i).append('\n');
+		}
+		Files.write(tempDir.resolve("spring.log"), contents.toString().getBytes());
+
+		assertThat(tail("spring.log", null, 2, "ERROR")).isEqualTo("ERROR 980\nERROR 990\n");
+		assertThat(tail("spring.log", 100L, null, "ERROR")).isEqualTo("ERROR 990\n");
+		assertThat(tail("spring.log", null, null, "nothing")).isEmpty();
+	}
+
+	@Test
+	void tailLogfile_BadRequests() throws Exception {
+		Files.write(tempDir.resolve("spring.log"), "test".getBytes());
+		Files.write(tempDir.resolve("spring.log.gz"), "test".getBytes());
+
+		assertThrows(BadRequestException.class, () -> service.tailLogfile("spring.log", 10L, 10, null));
+		assertThrows(BadRequestException.class, () -> service.tailLogfile("spring.log", 0L, null, null));
+		assertThrows(BadRequestException.class, () -> service.tailLogfile("spring.log", null, 10001, null));
+		assertThrows(BadRequestException.class, () -> service.tailLogfile("spring.log.gz", null, 10, null));
+		assertThrows(FileNotExistsException.class, () -> service.tailLogfile("asdf.log", null, 10, null));
+	}
+
+	private String tail(String fileName, Long bytes, Integer lines, String filter) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		service.tailLogfile(fileName, bytes, lines, filter).writeTo(out);
+		return new String(out.toByteArray());
 	}
 
 	@Test
@@ -4,12 +4,14 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.fge.jsonpatch.JsonPatch;
+import mil.tron.commonapi.dto.BulkImportResultDto;
 import mil.tron.commonapi.dto.OrganizationDto;
 import mil.tron.commonapi.dto.annotation.helper.JsonPatchStringValue;
 import mil.tron.commonapi.dto.annotation.helper.PatchOp;
 import mil.tron.commonapi.entity.Organization;
 import mil.tron.commonapi.entity.OrganizationMetadata;
 import mil.tron.commonapi.entity.Person;
+import mil.tron.commonapi.entity.ranks.Rank;
 import mil.tron.commonapi.entity.branches.Branch;
 import mil.tron.commonapi.entity.orgtypes.Unit;
 import mil.tron.commonapi.exception.InvalidRecordUpdateRequest;
@@ -28,6 +30,7 @@ import mil.tron.commonapi.service.utility.ValidatorService;
 
 import org.aspectj.weaver.ast.Or;
 import org.assertj.core.util.Lists;
+import com.google.common.collect.Sets;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -46,10 +49,12 @@ import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -88,6 +93,9 @@ class OrganizationServiceImplTest {
 
 	@Mock
 	OrganizationUniqueChecksServiceImpl uniqueService;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
 	
 	@InjectMocks
 	private OrganizationServiceImpl organizationService;
@@ -197,7 +205,7 @@ class OrganizationServiceImplTest {
 	    	Mockito.when(repository.save(Mockito.any(Organization.class))).thenReturn(mockOrg);
 			Mockito.when(uniqueService.orgNameIsUnique(Mockito.any(Organization.class))).thenReturn(true);
 			Mockito.when(entityFieldAuthService
-					.adjudicateOrganizationFields(Mockito.any(), Mockito.any()))
+					.adjudicateOrganizationFields(Mockito.any(), Mockito.any(), Mockito.any()))
 					.thenAnswer(i -> EntityFieldAuthResponse.<Organization>builder().modifiedEntity(i.getArgument(0)).build());
 			Mockito.doNothing().when(eventManagerService).recordEventAndPublish(Mockito.any(PubSubMessage.class));
 			Mockito.when(mockOrg.getMetadata())
@@ -540,6 +548,7 @@ class OrganizationServiceImplTest {
 		assertThrows(InvalidRecordUpdateRequest.class, () -> testOrg.addSubordinateOrganization(newUnit));
 
 		// can't add a subordinate as a parent
+		Mockito.when(repository.findSelfAndDescendantIds(Set.of(testOrg.getId()))).thenReturn(Set.of(testOrg.getId()));
 		attribs.put("parentOrganization", testOrg.getId().toString());
 		assertThrows(InvalidRecordUpdateRequest.class, () -> organizationService.modify(newUnit.getId(), attribs));
 
@@ -621,7 +630,7 @@ class OrganizationServiceImplTest {
 		Mockito.when(repository.findById(testOrg.getId())).thenReturn(Optional.of(testOrg));
 		PowerMockito
 				.when(mockOrgService, "applyFieldAuthority", testOrg)
-				.thenReturn(new EntityFieldAuthResponse<Organization>(testOrg, new ArrayList<String>()));
+				.thenReturn(EntityFieldAuthResponse.<Organization>builder().modifiedEntity(testOrg).build());
 		Mockito.when(repository.save(testOrg)).thenReturn(testOrg);
 
 		mockOrgService.removeParentOrganization(testOrg.getId());
@@ -688,6 +697,55 @@ class OrganizationServiceImplTest {
 		assertEquals(newOrgs, addedOrgs);
 	}
 
+	@Test
+	void testBulkImportOrgs() {
+		UUID existingId = UUID.randomUUID();
+		UUID missingLeaderId = UUID.randomUUID();
+		Mockito.when(repository.findIdsByIdIn(Mockito.anyCollection())).thenReturn(List.of(existingId));
+		Mockito.when(repository.findNamesAsLowerIn(Mockito.anyCollection())).thenReturn(List.of("taken"));
+		Mockito.when(personService.getPerson(missingLeaderId)).thenThrow(new RecordNotFoundException("Leader not found"));
+
+		List<OrganizationDto> newOrgs = Lists.newArrayList(
+				OrganizationDto.builder().name("Flat One").build(),
+				OrganizationDto.builder().name(" flat one").build(),
+				OrganizationDto.builder().name("Taken").build(),
+				OrganizationDto.builder().id(existingId).name("Existing Id").build(),
+				OrganizationDto.builder().name("Led Org").leader(missingLeaderId).build(),
+				OrganizationDto.builder().name("Flat Two").build());
+
+		BulkImportResultDto<OrganizationDto> result = organizationService.bulkImportOrgs(newOrgs);
+
+		assertThat(result.getCreated()).extracting(OrganizationDto::getName).containsExactly("Flat One", "Flat Two");
+		assertThat(result.getErrors()).extracting(e -> e.getRow()).containsExactly(1, 2, 3, 4);
+		assertThat(result.getErrors().get(3).getMessage()).isEqualTo("Leader not found");
+		verify(repository, times(1)).insertAll(Mockito.argThat(orgs -> orgs.size() == 2));
+		verify(eventManagerService, times(1)).recordEventAndPublish(Mockito.any(PubSubMessage.class));
+	}
+
+	@Test
+	void testBulkImportOrgsLoadsRelationshipsOncePerChunk() {
+		Person leader = Person.builder().id(UUID.randomUUID()).build();
+		Person member = Person.builder().id(UUID.randomUUID()).build();
+		Mockito.when(repository.findIdsByIdIn(Mockito.anyCollection())).thenReturn(new ArrayList<>());
+		Mockito.when(repository.findNamesAsLowerIn(Mockito.anyCollection())).thenReturn(new ArrayList<>());
+		Mockito.when(personService.getPerson(leader.getId())).thenReturn(leader);
+		Mockito.when(personService.getPerson(member.getId())).thenReturn(member);
+		Mockito.when(uniqueService.orgNameIsUnique(Mockito.any(Organization.class))).thenReturn(true);
+		Mockito.when(repository.save(Mockito.any(Organization.class))).then(returnsFirstArg());
+
+		List<OrganizationDto> newOrgs = Lists.newArrayList(
+				OrganizationDto.builder().name("Led Org").leader(leader.getId()).build(),
+				OrganizationDto.builder().name("Staffed Org").members(List.of(member.getId())).build());
+
+		BulkImportResultDto<OrganizationDto> result = organizationService.bulkImportOrgs(newOrgs);
+
+		assertThat(result.getCreated()).extracting(OrganizationDto::getName).containsExactly("Led Org", "Staffed Org");
+		assertThat(result.getErrors()).isEmpty();
+		verify(personRepository, times(1)).findAllById(Set.of(leader.getId(), member.getId()));
+		verify(repository, times(1)).findAllById(Set.of());
+		verify(transactionManager, times(1)).getTransaction(Mockito.any());
+	}
+
 	@Test
 	void testMapToDto() {
 		Person leader = new Person();
@@ -758,10 +816,11 @@ class OrganizationServiceImplTest {
 				.name(org.getName())
 				.build();
 
-		Mockito.when(personService.getPerson(leader.getId())).thenReturn(leader);
-		Mockito.when(personService.getPerson(member.getId())).thenReturn(member);
-		Mockito.when(repository.findById(parent.getId())).thenReturn(Optional.of(parent));
-		Mockito.when(repository.findById(subord.getId())).thenReturn(Optional.of(subord));
+		// the nested entities are looked up together, one query per type
+		Mockito.when(personRepository.findAllById(Mockito.anyIterable()))
+				.thenAnswer(invocation -> findAllIn(invocation.getArgument(0), List.of(leader, member), Person::getId));
+		Mockito.when(repository.findAllById(Mockito.anyIterable()))
+				.thenAnswer(invocation -> findAllIn(invocation.getArgument(0), List.of(parent, subord), Organization::getId));
 
 		Map<String, String> fields = new HashMap<>();
 		fields.put("organizations", "id,name");
@@ -839,6 +898,86 @@ class OrganizationServiceImplTest {
 		assertFalse(node.get("parentOrganization").has("leader"));
 	}
 
+	private static <T> List<T> findAllIn(Iterable<UUID> ids, List<T> entities, Function<T, UUID> idGetter) {
+		Set<UUID> wanted = Sets.newHashSet(ids);
+		return entities.stream().filter(entity -> wanted.contains(idGetter.apply(entity))).collect(Collectors.toList());
+	}
+
+	private static Map<UUID, Map<String, Object>> projectFields(Collection<UUID> ids, Collection<String> fields) {
+		Map<UUID, Map<String, Object>> projections = new HashMap<>();
+		for (UUID id : ids) {
+			Map<String, Object> values = new LinkedHashMap<>();
+			fields.forEach(field -> values.put(field, field.equals("id") ? id : field + "-value"));
+			projections.put(id, values);
+		}
+
+		return projections;
+	}
+
+	@Test
+	void testCustomizeEntitiesQueriesOncePerType() {
+		UUID sharedMember = UUID.randomUUID();
+		UUID sharedParent = UUID.randomUUID();
+		List<OrganizationDto> dtos = List.of(
+				OrganizationDto.builder().id(UUID.randomUUID()).name("One")
+						.members(List.of(sharedMember, sharedMember)).parentOrganization(sharedParent).build(),
+				OrganizationDto.builder().id(UUID.randomUUID()).name("Two")
+						.members(List.of(sharedMember)).parentOrganization(sharedParent).build());
+
+		// plain columns only, so just those are selected
+		Mockito.when(personRepository.supportsFieldProjection(Mockito.anyCollection())).thenReturn(true);
+		Mockito.when(repository.supportsFieldProjection(Mockito.anyCollection())).thenReturn(true);
+		Mockito.when(personRepository.findFieldsByIdIn(Mockito.anyCollection(), Mockito.anyCollection()))
+				.thenAnswer(invocation -> projectFields(invocation.getArgument(0), invocation.getArgument(1)));
+		Mockito.when(repository.findFieldsByIdIn(Mockito.anyCollection(), Mockito.anyCollection()))
+				.thenAnswer(invocation -> projectFields(invocation.getArgument(0), invocation.getArgument(1)));
+
+		Map<String, String> fields = new HashMap<>();
+		fields.put("organizations", "name");
+		fields.put("people", "firstName,lastName");
+
+		List<JsonNode> nodes = organizationService.customizeEntities(fields, dtos);
+
+		assertEquals(2, nodes.size());
+		assertEquals("Two", nodes.get(1).get("name").asText());
+		assertEquals(1, nodes.get(0).get("members").size());
+		assertEquals("firstName-value", nodes.get(0).get("members").get(0).get("firstName").asText());
+		assertEquals(2, nodes.get(1).get("members").get(0).size());
+		assertEquals("name-value", nodes.get(1).get("parentOrganization").get("name").asText());
+		assertTrue(nodes.get(1).get("leader").isNull());
+
+		Mockito.verify(personRepository).findFieldsByIdIn(Set.of(sharedMember), Set.of("firstName", "lastName"));
+		Mockito.verify(repository).findFieldsByIdIn(Set.of(sharedParent), Set.of("name"));
+	}
+
+	@Test
+	void testCustomizeEntitiesWithAssociationField() {
+		Rank rank = Rank.builder().id(UUID.randomUUID()).abbreviation("Capt").name("Captain").branchType(Branch.USAF).build();
+		Person member = Person.builder().id(UUID.randomUUID()).firstName("Jane").rank(rank).build();
+		OrganizationDto dto = OrganizationDto.builder().id(UUID.randomUUID()).name("One")
+				.members(List.of(member.getId())).build();
+
+		// rank isn't a plain column, so the people are loaded (together) and filtered down instead
+		Mockito.when(personRepository.supportsFieldProjection(Set.of("firstName", "rank"))).thenReturn(false);
+		Mockito.when(personRepository.findAllById(Set.of(member.getId()))).thenReturn(List.of(member));
+
+		Map<String, String> fields = new HashMap<>();
+		fields.put("organizations", "");
+		fields.put("people", "firstName,rank");
+
+		JsonNode node = organizationService.customizeEntities(fields, List.of(dto)).get(0);
+
+		assertEquals("Jane", node.get("members").get(0).get("firstName").asText());
+		assertEquals("Capt", node.get("members").get(0).get("rank").get("abbreviation").asText());
+		assertEquals(2, node.get("members").get(0).size());
+		Mockito.verify(personRepository, Mockito.never()).findFieldsByIdIn(Mockito.anyCollection(), Mockito.anyCollection());
+
+		// the org itself keeps its entity representation
+		assertEquals("One", node.get("name").asText());
+		assertTrue(node.has("primaryMembers"));
+		assertFalse(node.has("meta"));
+	}
+
 	@Test
 	void testThatOrgCantAssignSubordinateOrgThatsInItsAncestryChain() {
 
@@ -856,6 +995,8 @@ class OrganizationServiceImplTest {
 		grandParent.addSubordinateOrganization(parent);
 		greatGrandParent.addSubordinateOrganization(grandParent);
 
+		// everything above the org's own parent comes from the database
+		Mockito.when(repository.findAncestorIds(parent.getId())).thenReturn(Set.of(grandParent.getId(), greatGrandParent.getId()));
 
 		// should return true since the greatGrandParent cannot be added as a subordinate of 'theOrg'
 		assertTrue(organizationService.orgIsInAncestryChain(greatGrandParent.getId(), theOrg));
@@ -884,7 +1025,7 @@ class OrganizationServiceImplTest {
 				.thenReturn(Lists.newArrayList(parent));
 		
 		Mockito.when(entityFieldAuthService
-				.adjudicateOrganizationFields(Mockito.any(), Mockito.any()))
+				.adjudicateOrganizationFields(Mockito.any(), Mockito.any(), Mockito.any()))
 				.thenAnswer(i -> EntityFieldAuthResponse.<Organization>builder().modifiedEntity(i.getArgument(0)).build());
 
 		child2.setSubOrgsUUID(Lists.newArrayList(child1.getId()));
@@ -981,9 +1122,12 @@ class OrganizationServiceImplTest {
 
 		child2Full.addSubordinateOrganization(child3Full);
 
-		Mockito.when(repository.findById(child1.getId())).thenReturn(Optional.of(child1Full));
-		Mockito.when(repository.findById(child2.getId())).thenReturn(Optional.of(child2Full));
-		Mockito.when(repository.findById(child3.getId())).thenReturn(Optional.of(child3Full));
+		// the downstream orgs and their people are resolved by the database
+		Set<UUID> subOrgIds = Set.of(child1.getId(), child2.getId());
+		Mockito.when(repository.findSelfAndDescendantIds(subOrgIds))
+				.thenReturn(Set.of(child1Full.getId(), child2Full.getId(), child3Full.getId()));
+		Mockito.when(repository.findSelfAndDescendantMemberIds(subOrgIds))
+				.thenReturn(Set.of(p3.getId(), p4.getId(), p5.getId(), p6.getId()));
 
 		OrganizationDto flat = organizationService.flattenOrg(parent);
 
@@ -1008,6 +1152,18 @@ class OrganizationServiceImplTest {
 		assertFalse(organizationService.parentOrgCandidateIsDescendent(parent, UUID.randomUUID()));
 	}
 
+	@Test
+	void testFlattenOrgWithMissingSubordinateOrg() {
+		UUID existing = UUID.randomUUID();
+		UUID missing = UUID.randomUUID();
+		OrganizationDto org = new OrganizationDto();
+		org.setSubOrgsUUID(List.of(existing, missing));
+		Mockito.when(repository.findSelfAndDescendantIds(Set.of(existing, missing))).thenReturn(Set.of(existing));
+
+		assertThrows(RecordNotFoundException.class, () -> organizationService.flattenOrg(org));
+		assertThrows(RecordNotFoundException.class, () -> organizationService.parentOrgCandidateIsDescendent(org, UUID.randomUUID()));
+	}
+
 	@Test
 	void testApplyPatchToOrganization() throws JSONException, IOException {
 		UUID origLeaderUuid = UUID.randomUUID();
@@ -1093,7 +1249,7 @@ class OrganizationServiceImplTest {
 		Mockito.when(uniqueService.orgNameIsUnique(Mockito.any(Organization.class))).thenReturn(true);
 		Mockito.when(repository.save(Mockito.any(Organization.class))).then(returnsFirstArg());
 		Mockito.when(entityFieldAuthService
-				.adjudicateOrganizationFields(Mockito.any(), Mockito.any()))
+				.adjudicateOrganizationFields(Mockito.any(), Mockito.any(), Mockito.any()))
 				.thenAnswer(i -> EntityFieldAuthResponse.<Organization>builder().modifiedEntity(i.getArgument(0)).build());
 		OrganizationDto capturedOrg = this.organizationService.patchOrganization(orgId, newPatch);
 		assertThat(capturedOrg.getName()).isEqualTo("Org Name");
@@ -1141,7 +1297,7 @@ class OrganizationServiceImplTest {
 		Mockito.when(repository.save(any())).thenReturn(mockOrg);
 		OrganizationServiceImpl orgServiceImplSpy = PowerMockito.spy(organizationService);
 		PowerMockito.when(orgServiceImplSpy, "applyFieldAuthority", mockOrg)
-				.thenReturn(new EntityFieldAuthResponse<>(mockOrg, List.of()));
+				.thenReturn(EntityFieldAuthResponse.<Organization>builder().modifiedEntity(mockOrg).build());
 		assertThat(orgServiceImplSpy.modify(mockOrg.getId(), attribMap))
 				.isNotNull();
 	}
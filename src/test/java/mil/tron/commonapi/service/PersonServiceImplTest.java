@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.fge.jsonpatch.JsonPatch;
 
+import mil.tron.commonapi.dto.BulkImportResultDto;
 import mil.tron.commonapi.dto.PersonDto;
 import mil.tron.commonapi.entity.Person;
 import mil.tron.commonapi.entity.PersonMetadata;
@@ -42,7 +43,9 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.SliceImpl;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 
 import java.io.IOException;
@@ -82,6 +85,9 @@ class PersonServiceImplTest {
 	
 	@Mock
 	private ValidatorService validatorService;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
 	
 	@InjectMocks
 	private PersonServiceImpl personService;
@@ -268,7 +274,7 @@ class PersonServiceImplTest {
 			Mockito.when(uniqueChecksService.personDodidIsUnique(Mockito.any(Person.class))).thenReturn(true);
 	    	Mockito.when(repository.save(Mockito.any(Person.class))).thenReturn(testPerson);
 			Mockito.doNothing().when(eventManagerService).recordEventAndPublish(Mockito.any(PubSubMessage.class));
-			Mockito.when(entityFieldAuthService.adjudicatePersonFields(Mockito.any(), Mockito.any()))
+			Mockito.when(entityFieldAuthService.adjudicatePersonFields(Mockito.any(), Mockito.any(), Mockito.any()))
 				.thenAnswer(i -> EntityFieldAuthResponse.<Person>builder().modifiedEntity(i.getArgument(0)).build());
 	    	PersonDto updatedPerson = personService.updatePerson(testPerson.getId(), testDto);
 	    	assertThat(updatedPerson.getId()).isEqualTo(testPerson.getId());
@@ -347,7 +353,7 @@ class PersonServiceImplTest {
 			Mockito.when(repository.findById(Mockito.any())).thenReturn(Optional.of(tempTestPerson));
 			Mockito.when(uniqueChecksService.personEmailIsUnique(Mockito.any(Person.class))).thenReturn(true);
 			Mockito.when(uniqueChecksService.personDodidIsUnique(Mockito.any(Person.class))).thenReturn(true);
-			Mockito.when(entityFieldAuthService.adjudicatePersonFields(Mockito.any(), Mockito.any()))
+			Mockito.when(entityFieldAuthService.adjudicatePersonFields(Mockito.any(), Mockito.any(), Mockito.any()))
 				.thenAnswer(i -> EntityFieldAuthResponse.<Person>builder().modifiedEntity(i.getArgument(0)).build());
 
 			// pass through the patched entity
@@ -504,6 +510,90 @@ class PersonServiceImplTest {
 		assertThat(createdPeople).hasSize(4);
 	}
 
+	@Nested
+	class BulkImportPeopleTest {
+		private PersonDto importDto(String email, String dodid) {
+			return PersonDto.builder()
+					.email(email)
+					.dodid(dodid)
+					.rank("capt")
+					.branch(Branch.USAF)
+					.build();
+		}
+
+		@Test
+		void rejectsBadRowsAndInsertsTheRest() {
+			Mockito.when(rankRepository.findAll()).thenReturn(List.of(testPerson.getRank()));
+			Mockito.when(rankRepository.findByAbbreviationIgnoringCaseAndBranchType("capt", Branch.USAF)).thenReturn(Optional.of(testPerson.getRank()));
+			Mockito.when(repository.findIdsByIdIn(Mockito.anyCollection())).thenReturn(new ArrayList<>());
+			Mockito.when(repository.findEmailsAsLowerIn(Mockito.anyCollection())).thenReturn(List.of("taken@test.com"));
+			Mockito.when(repository.findDodidsIn(Mockito.anyCollection())).thenReturn(List.of("1111111111"));
+
+			List<PersonDto> people = Lists.newArrayList(
+					importDto("one@test.com", null),
+					importDto(" ONE@test.com", null),
+					importDto("taken@test.com", null),
+					importDto("two@test.com", "1111111111"),
+					importDto("three@test.com", "2222222222"));
+
+			BulkImportResultDto<PersonDto> result = personService.bulkImportPeople(people);
+
+			assertThat(result.getCreated()).extracting(PersonDto::getEmail).containsExactly("one@test.com", "three@test.com");
+			assertThat(result.getCreated()).extracting(PersonDto::getRank).containsOnly("Capt");
+			assertThat(result.getErrors()).extracting(e -> e.getRow()).containsExactly(1, 2, 3);
+			Mockito.verify(repository, Mockito.times(1)).insertAll(Mockito.argThat(persons -> persons.size() == 2));
+			// a rank that isn't an exact match is looked up the same (case insensitive) way as a single add, just once
+			Mockito.verify(rankRepository, Mockito.times(1)).findByAbbreviationIgnoringCaseAndBranchType("capt", Branch.USAF);
+			Mockito.verify(eventManagerService, Mockito.times(1)).recordEventAndPublish(Mockito.any(PubSubMessage.class));
+		}
+
+		@Test
+		void failedChunkIsRetriedRowByRow() {
+			Mockito.when(rankRepository.findAll()).thenReturn(List.of(testPerson.getRank()));
+			Mockito.when(repository.findIdsByIdIn(Mockito.anyCollection())).thenReturn(new ArrayList<>());
+			Mockito.when(repository.findEmailsAsLowerIn(Mockito.anyCollection())).thenReturn(new ArrayList<>());
+
+			PersonDto good = importDto("good@test.com", null);
+			good.setRank("Capt");
+			PersonDto bad = importDto("bad@test.com", null);
+			bad.setRank("Capt");
+			List<Person> inserted = new ArrayList<>();
+			Mockito.doAnswer(invocation -> {
+				List<Person> persons = invocation.getArgument(0);
+				inserted.addAll(persons);
+				if (persons.stream().anyMatch(p -> p.getId().equals(bad.getId()))) {
+					throw new DataIntegrityViolationException("duplicate key");
+				}
+				return null;
+			}).when(repository).insertAll(Mockito.anyCollection());
+
+			BulkImportResultDto<PersonDto> result = personService.bulkImportPeople(Lists.newArrayList(good, bad));
+
+			assertThat(result.getCreated()).extracting(PersonDto::getId).containsExactly(good.getId());
+			assertThat(result.getErrors()).hasSize(1);
+			assertThat(result.getErrors().get(0).getId()).isEqualTo(bad.getId());
+			assertThat(result.getErrors().get(0).getMessage()).contains("duplicate key");
+
+			// the chunk attempt plus one retry per row, each retry with a new entity rather than the failed chunk's
+			assertThat(inserted).hasSize(4);
+			assertThat(inserted.get(2)).isNotSameAs(inserted.get(0));
+			assertThat(inserted.get(2).getId()).isEqualTo(good.getId());
+			assertThat(inserted.get(2).getRank()).isEqualTo(testPerson.getRank());
+			Mockito.verify(rankRepository, Mockito.never()).findByAbbreviationIgnoringCaseAndBranchType(Mockito.anyString(), Mockito.any());
+		}
+
+		@Test
+		void nothingCreatedPublishesNothing() {
+			Mockito.when(rankRepository.findAll()).thenReturn(List.of(testPerson.getRank()));
+
+			BulkImportResultDto<PersonDto> result = personService.bulkImportPeople(Lists.newArrayList((PersonDto) null));
+
+			assertThat(result.getCreated()).isEmpty();
+			assertThat(result.getErrors()).hasSize(1);
+			Mockito.verify(eventManagerService, Mockito.never()).recordEventAndPublish(Mockito.any(PubSubMessage.class));
+		}
+	}
+
 	@Nested
 	class ConvertToDtoTest {
 		@Test
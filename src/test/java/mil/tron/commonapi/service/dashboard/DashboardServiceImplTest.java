@@ -9,6 +9,7 @@ import java.time.ZoneId;
 import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -16,6 +17,8 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 
 import mil.tron.commonapi.dto.dashboard.AppSourceErrorResponseDto;
 import mil.tron.commonapi.dto.dashboard.AppSourceErrorUsageDto;
@@ -24,16 +27,20 @@ import mil.tron.commonapi.dto.dashboard.AppSourceUsageResponseDto;
 import mil.tron.commonapi.dto.dashboard.EntityAccessorDto;
 import mil.tron.commonapi.dto.dashboard.EntityAccessorResponseDto;
 import mil.tron.commonapi.dto.dashboard.ResponseDto;
-import mil.tron.commonapi.entity.HttpLogEntry;
+import mil.tron.commonapi.entity.dashboard.AppSourceResponseCount;
 import mil.tron.commonapi.entity.dashboard.EntityAccessor;
+import mil.tron.commonapi.entity.kpi.HttpUsageRollup;
+import mil.tron.commonapi.entity.kpi.ServiceUsage;
 import mil.tron.commonapi.exception.BadRequestException;
-import mil.tron.commonapi.repository.HttpLogsRepository;
+import mil.tron.commonapi.repository.kpi.HttpUsageRollupRepository;
 import mil.tron.commonapi.service.utility.HttpLogsUtilService;
 
 @ExtendWith(MockitoExtension.class)
 class DashboardServiceImplTest {
+	private static final ProjectionFactory PROJECTIONS = new SpelAwareProxyProjectionFactory();
+	
 	@Mock
-	private HttpLogsRepository httpLogsRepo;
+	private HttpUsageRollupRepository usageRollupRepo;
 	
 	@Mock
 	private HttpLogsUtilService httpLogsUtilService;
@@ -97,7 +104,7 @@ class DashboardServiceImplTest {
 				.build();
 		List<EntityAccessor> entityAccessors = List.of(entityAccessor);
 		
-		Mockito.when(httpLogsRepo.getUsersAccessingOrgRecords(Mockito.any(), Mockito.any())).thenReturn(entityAccessors);
+		Mockito.when(usageRollupRepo.getUsersAccessingService(Mockito.any(), Mockito.any(), Mockito.eq(HttpUsageRollup.ORGANIZATION_SERVICE))).thenReturn(entityAccessors);
 		Mockito.when(httpLogsUtilService.isUsernameAnAppClient(entityAccessor.getName())).thenReturn(true);
 		
 		EntityAccessorResponseDto response = EntityAccessorResponseDto.builder()
@@ -162,7 +169,7 @@ class DashboardServiceImplTest {
 				.build();
 		List<EntityAccessor> entityAccessors = List.of(entityAccessor);
 		
-		Mockito.when(httpLogsRepo.getUsersAccessingPersonnelRecords(Mockito.any(), Mockito.any())).thenReturn(entityAccessors);
+		Mockito.when(usageRollupRepo.getUsersAccessingService(Mockito.any(), Mockito.any(), Mockito.eq(HttpUsageRollup.PERSON_SERVICE))).thenReturn(entityAccessors);
 		Mockito.when(httpLogsUtilService.isUsernameAnAppClient(entityAccessor.getName())).thenReturn(true);
 		
 		EntityAccessorResponseDto response = EntityAccessorResponseDto.builder()
@@ -221,17 +228,12 @@ class DashboardServiceImplTest {
 		// Tuesday, July 20, 2021 0:00:00
 		Date endDate = new Date(1626739200000L);
 		
-		HttpLogEntry entry1 = HttpLogEntry.builder()
-				.requestedUrl("http://localhost:8888/api/v2/app/testApp/test_ep")
-				.build();
-		HttpLogEntry entry2 = HttpLogEntry.builder()
-				.requestedUrl("http://localhost:8888/api/v2/app/testApp/test_ep_2")
-				.build();
-		HttpLogEntry entry3 = HttpLogEntry.builder()
-				.requestedUrl("http://localhost:8888/api/v2/app/testApp2/ep")
-				.build();
+		ServiceUsage testAppUsage = PROJECTIONS.createProjection(ServiceUsage.class,
+				Map.of("name", "testApp", "requestCount", 2L));
+		ServiceUsage testApp2Usage = PROJECTIONS.createProjection(ServiceUsage.class,
+				Map.of("name", "testApp2", "requestCount", 1L));
 		
-		Mockito.when(httpLogsRepo.getAppSourceUsage(Mockito.any(), Mockito.any())).thenReturn(List.of(entry1, entry2, entry3));
+		Mockito.when(usageRollupRepo.getAppSourceUsage(Mockito.any(), Mockito.any())).thenReturn(List.of(testApp2Usage, testAppUsage));
 		
 		AppSourceUsageDto testApp = AppSourceUsageDto.builder()
 				.name("testApp")
@@ -315,20 +317,12 @@ class DashboardServiceImplTest {
 		// Tuesday, July 20, 2021 0:00:00
 		Date endDate = new Date(1626739200000L);
 		
-		HttpLogEntry entry1 = HttpLogEntry.builder()
-				.requestedUrl("http://localhost:8888/api/v2/app/testApp/test_ep")
-				.statusCode(503)
-				.build();
-		HttpLogEntry entry2 = HttpLogEntry.builder()
-				.requestedUrl("http://localhost:8888/api/v2/app/testApp/test_ep_2")
-				.statusCode(503)
-				.build();
-		HttpLogEntry entry3 = HttpLogEntry.builder()
-				.requestedUrl("http://localhost:8888/api/v2/app/testApp/test_ep_2")
-				.statusCode(400)
-				.build();
+		AppSourceResponseCount unavailable = PROJECTIONS.createProjection(AppSourceResponseCount.class,
+				Map.of("name", "testApp", "statusCode", 503, "requestCount", 2L));
+		AppSourceResponseCount badRequest = PROJECTIONS.createProjection(AppSourceResponseCount.class,
+				Map.of("name", "testApp", "statusCode", 400, "requestCount", 1L));
 		
-		Mockito.when(httpLogsRepo.getAppSourceErrorUsage(Mockito.any(), Mockito.any())).thenReturn(List.of(entry1, entry2, entry3));
+		Mockito.when(usageRollupRepo.getAppSourceErrorUsage(Mockito.any(), Mockito.any())).thenReturn(List.of(unavailable, badRequest));
 		
 		AppSourceErrorUsageDto appSourceUsage = AppSourceErrorUsageDto.builder()
 				.name("testApp")
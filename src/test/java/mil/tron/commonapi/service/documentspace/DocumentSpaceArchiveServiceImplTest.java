@@ -0,0 +1,217 @@
+package mil.tron.commonapi.service.documentspace;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.amazonaws.services.s3.transfer.TransferManager;
+import com.amazonaws.services.s3.transfer.Upload;
+import mil.tron.commonapi.entity.documentspace.DocumentSpaceFileSystemEntry;
+import mil.tron.commonapi.repository.documentspace.DocumentSpaceFileSystemEntryRepository;
+import mil.tron.commonapi.service.documentspace.util.DocumentSpaceArchive;
+import mil.tron.commonapi.service.documentspace.util.FilePathSpec;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static mil.tron.commonapi.entity.documentspace.DocumentSpaceFileSystemEntry.NIL_UUID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentSpaceArchiveServiceImplTest {
+    private static final String BUCKET_NAME = "testbucket";
+    private static final UUID SPACE_ID = UUID.randomUUID();
+
+    @Mock
+    AmazonS3 documentSpaceClient;
+
+    @Mock
+    TransferManager transferManager;
+
+    @Mock
+    DocumentSpaceService documentSpaceService;
+
+    @Mock
+    DocumentSpaceFileSystemService documentSpaceFileSystemService;
+
+    @Mock
+    DocumentSpaceFileSystemEntryRepository fileSystemEntryRepository;
+
+    ThreadPoolTaskExecutor executor;
+
+    DocumentSpaceArchiveServiceImpl service;
+
+    DocumentSpaceFileSystemEntry file;
+
+    @BeforeEach
+    void setup() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.initialize();
+
+        service = new DocumentSpaceArchiveServiceImpl(documentSpaceClient, transferManager, BUCKET_NAME,
+                documentSpaceService, documentSpaceFileSystemService, fileSystemEntryRepository, true, 24, executor);
+
+        file = DocumentSpaceFileSystemEntry.builder()
+                .documentSpaceId(SPACE_ID)
+                .isFolder(false)
+                .itemName("file.txt")
+                .etag("etag")
+                .size(10L)
+                .lastModifiedOn(new Date(1000L))
+                .build();
+
+        Mockito.lenient().when(documentSpaceFileSystemService.parsePathToFilePathSpec(SPACE_ID, "/"))
+                .thenReturn(FilePathSpec.builder().documentSpaceId(SPACE_ID).itemId(NIL_UUID).fullPathSpec("").build());
+    }
+
+    @AfterEach
+    void teardown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void getArchive_shouldDoNothing_whenDisabled() {
+        service = new DocumentSpaceArchiveServiceImpl(documentSpaceClient, transferManager, BUCKET_NAME,
+                documentSpaceService, documentSpaceFileSystemService, fileSystemEntryRepository, false, 24, executor);
+
+        assertTrue(service.getArchive(SPACE_ID, "/").isEmpty());
+
+        Mockito.verifyNoInteractions(documentSpaceClient, fileSystemEntryRepository);
+    }
+
+    @Test
+    void getArchive_shouldReturnArchive_whenBuiltForCurrentContents() {
+        Mockito.when(fileSystemEntryRepository.findNonArchivedDescendants(SPACE_ID, NIL_UUID, Integer.MAX_VALUE))
+                .thenReturn(List.of(file));
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentLength(123L);
+        Mockito.when(documentSpaceClient.getObjectMetadata(eq(BUCKET_NAME), anyString())).thenReturn(metadata);
+
+        DocumentSpaceArchive archive = service.getArchive(SPACE_ID, "/").orElseThrow();
+
+        assertEquals(123L, archive.getSize());
+        assertEquals(new Date(1000L), archive.getLastModified());
+        assertEquals("archives/" + SPACE_ID + "/" + NIL_UUID + "/" + archive.getEtag() + ".zip", archive.getKey());
+
+        // any change to the contents means a different zip
+        file.setEtag("new etag");
+        assertNotEquals(archive.getKey(), service.getArchive(SPACE_ID, "/").orElseThrow().getKey());
+        Mockito.verifyNoInteractions(transferManager);
+    }
+
+    @Test
+    void getArchive_shouldBuildInBackgroundAndEvictStale_whenNotBuilt() throws Exception {
+        Mockito.when(fileSystemEntryRepository.findNonArchivedDescendants(SPACE_ID, NIL_UUID, Integer.MAX_VALUE))
+                .thenReturn(List.of(file));
+        AmazonS3Exception notFound = new AmazonS3Exception("Not Found");
+        notFound.setStatusCode(404);
+        Mockito.when(documentSpaceClient.getObjectMetadata(eq(BUCKET_NAME), anyString())).thenThrow(notFound);
+
+        S3ObjectSummary stale = new S3ObjectSummary();
+        stale.setKey("archives/" + SPACE_ID + "/" + NIL_UUID + "/stale.zip");
+        ListObjectsV2Result listing = new ListObjectsV2Result();
+        listing.getObjectSummaries().add(stale);
+        Mockito.when(documentSpaceClient.listObjectsV2(any(ListObjectsV2Request.class))).thenReturn(listing);
+
+        Mockito.when(documentSpaceService.writeArchive(eq(SPACE_ID), eq("/"), any(OutputStream.class))).thenAnswer(invocation -> {
+            invocation.getArgument(2, OutputStream.class).write("zip".getBytes());
+            return true;
+        });
+        Mockito.when(transferManager.upload(any(PutObjectRequest.class))).thenReturn(Mockito.mock(Upload.class));
+
+        assertEquals(Optional.empty(), service.getArchive(SPACE_ID, "/"));
+
+        Mockito.verify(transferManager, Mockito.timeout(5000)).upload(Mockito.<PutObjectRequest>argThat(request ->
+                request.getKey().startsWith("archives/" + SPACE_ID + "/" + NIL_UUID + "/")
+                        && request.getMetadata().getContentLength() == 3L));
+        Mockito.verify(documentSpaceService).deleteS3Objects(List.of(stale.getKey()));
+    }
+
+    @Test
+    void getArchive_shouldDiscardArchive_whenContentsChangeWhileBuilding() throws Exception {
+        DocumentSpaceFileSystemEntry changed = DocumentSpaceFileSystemEntry.builder()
+                .id(file.getId())
+                .documentSpaceId(SPACE_ID)
+                .isFolder(false)
+                .itemName("file.txt")
+                .etag("new etag")
+                .size(10L)
+                .lastModifiedOn(new Date(2000L))
+                .build();
+        Mockito.when(fileSystemEntryRepository.findNonArchivedDescendants(SPACE_ID, NIL_UUID, Integer.MAX_VALUE))
+                .thenReturn(List.of(file), List.of(changed));
+        AmazonS3Exception notFound = new AmazonS3Exception("Not Found");
+        notFound.setStatusCode(404);
+        Mockito.when(documentSpaceClient.getObjectMetadata(eq(BUCKET_NAME), anyString())).thenThrow(notFound);
+        Mockito.when(documentSpaceClient.listObjectsV2(any(ListObjectsV2Request.class))).thenReturn(new ListObjectsV2Result());
+        Mockito.when(documentSpaceService.writeArchive(eq(SPACE_ID), eq("/"), any(OutputStream.class))).thenReturn(true);
+
+        assertEquals(Optional.empty(), service.getArchive(SPACE_ID, "/"));
+
+        Mockito.verify(fileSystemEntryRepository, Mockito.timeout(5000).times(2))
+                .findNonArchivedDescendants(eq(SPACE_ID), eq(NIL_UUID), anyInt());
+        Mockito.verify(transferManager, Mockito.after(500).never()).upload(any(PutObjectRequest.class));
+    }
+
+    @Test
+    void evictOrphanedArchives_shouldEvictZipsOfDeletedFoldersAndPastMaxAge() {
+        UUID liveFolder = UUID.randomUUID();
+        UUID deletedFolder = UUID.randomUUID();
+        Date recent = new Date();
+        Date expired = new Date(System.currentTimeMillis() - 25 * 60 * 60 * 1000L);
+
+        S3ObjectSummary live = archiveSummary(liveFolder, recent);
+        S3ObjectSummary deleted = archiveSummary(deletedFolder, recent);
+        S3ObjectSummary wholeSpace = archiveSummary(NIL_UUID, recent);
+        S3ObjectSummary old = archiveSummary(liveFolder, expired);
+        ListObjectsV2Result listing = new ListObjectsV2Result();
+        listing.getObjectSummaries().addAll(List.of(live, deleted, wholeSpace, old));
+        Mockito.when(documentSpaceClient.listObjectsV2(any(ListObjectsV2Request.class))).thenReturn(listing);
+        Mockito.when(fileSystemEntryRepository.findActiveFolderItemIds(any())).thenReturn(Set.of(liveFolder));
+
+        service.evictOrphanedArchives();
+
+        ArgumentCaptor<Collection<String>> evicted = ArgumentCaptor.forClass(Collection.class);
+        Mockito.verify(documentSpaceService).deleteS3Objects(evicted.capture());
+        assertThat(evicted.getValue()).containsExactlyInAnyOrder(deleted.getKey(), old.getKey());
+    }
+
+    @Test
+    void evictOrphanedArchives_shouldDoNothing_whenDisabled() {
+        service = new DocumentSpaceArchiveServiceImpl(documentSpaceClient, transferManager, BUCKET_NAME,
+                documentSpaceService, documentSpaceFileSystemService, fileSystemEntryRepository, false, 24, executor);
+
+        service.evictOrphanedArchives();
+
+        Mockito.verifyNoInteractions(documentSpaceClient, documentSpaceService, fileSystemEntryRepository);
+    }
+
+    private static S3ObjectSummary archiveSummary(UUID folderItemId, Date lastModified) {
+        S3ObjectSummary summary = new S3ObjectSummary();
+        summary.setKey("archives/" + SPACE_ID + "/" + folderItemId + "/" + UUID.randomUUID() + ".zip");
+        summary.setLastModified(lastModified);
+        return summary;
+    }
+}
@@ -0,0 +1,101 @@
+package mil.tron.commonapi.service.documentspace;
+
+import com.amazonaws.services.s3.AmazonS3;
+import mil.tron.commonapi.entity.documentspace.DocumentSpaceContentObject;
+import mil.tron.commonapi.repository.documentspace.DocumentSpaceContentObjectRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentSpaceContentServiceImplTest {
+    private static final String BUCKET_NAME = "testbucket";
+
+    @Mock
+    AmazonS3 documentSpaceClient;
+
+    @Mock
+    DocumentSpaceContentObjectRepository contentObjectRepository;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    DocumentSpaceContentServiceImpl service;
+
+    @BeforeEach
+    void setup() {
+        service = new DocumentSpaceContentServiceImpl(documentSpaceClient, BUCKET_NAME, contentObjectRepository,
+                transactionManager, true, 24);
+    }
+
+    @Test
+    void addReference_shouldReportWhetherContentIsStored() {
+        Mockito.when(contentObjectRepository.addReferences(eq("stored"), eq(1L), any(Date.class))).thenReturn(1);
+        Mockito.when(contentObjectRepository.addReferences(eq("missing"), eq(1L), any(Date.class))).thenReturn(0);
+
+        assertTrue(service.addReference("stored"));
+        assertFalse(service.addReference("missing"));
+        assertEquals("content/stored", service.getContentKey("stored"));
+    }
+
+    @Test
+    void addStoredContent_shouldInsert_whenNotStoredYet() {
+        Mockito.when(contentObjectRepository.addReferences(eq("abc"), eq(1L), any(Date.class))).thenReturn(0);
+
+        service.addStoredContent("abc", 10L);
+
+        Mockito.verify(contentObjectRepository).saveAndFlush(Mockito.argThat(content ->
+                content.getContentHash().equals("abc") && content.getSize() == 10L && content.getRefCount() == 1L));
+    }
+
+    @Test
+    void addStoredContent_shouldAddReference_whenStoredConcurrently() {
+        Mockito.when(contentObjectRepository.addReferences(eq("abc"), eq(1L), any(Date.class))).thenReturn(0, 1);
+        Mockito.when(contentObjectRepository.saveAndFlush(any(DocumentSpaceContentObject.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        service.addStoredContent("abc", 10L);
+
+        Mockito.verify(contentObjectRepository, Mockito.times(2)).addReferences(eq("abc"), eq(1L), any(Date.class));
+    }
+
+    @Test
+    void removeReferences_shouldCountEachHashOnce() {
+        Mockito.when(contentObjectRepository.addReferences(any(), anyLong(), any(Date.class))).thenReturn(1);
+
+        service.removeReferences(List.of("abc", "def", "abc"));
+
+        Mockito.verify(contentObjectRepository).addReferences(eq("abc"), eq(-2L), any(Date.class));
+        Mockito.verify(contentObjectRepository).addReferences(eq("def"), eq(-1L), any(Date.class));
+    }
+
+    @Test
+    void deleteUnreferencedContent_shouldOnlyDeleteContentStillUnreferenced() {
+        DocumentSpaceContentObject unreferenced = DocumentSpaceContentObject.builder().contentHash("abc").refCount(0L).build();
+        DocumentSpaceContentObject referencedAgain = DocumentSpaceContentObject.builder().contentHash("def").refCount(1L).build();
+        Mockito.when(contentObjectRepository.findUnreferencedSince(any(Date.class))).thenReturn(List.of("abc", "def"));
+        Mockito.when(contentObjectRepository.findByContentHashForUpdate("abc")).thenReturn(Optional.of(unreferenced));
+        Mockito.when(contentObjectRepository.findByContentHashForUpdate("def")).thenReturn(Optional.of(referencedAgain));
+
+        service.deleteUnreferencedContent();
+
+        Mockito.verify(documentSpaceClient).deleteObject(BUCKET_NAME, "content/abc");
+        Mockito.verify(contentObjectRepository).delete(unreferenced);
+        Mockito.verify(documentSpaceClient, Mockito.never()).deleteObject(BUCKET_NAME, "content/def");
+        Mockito.verify(contentObjectRepository, Mockito.never()).delete(referencedAgain);
+    }
+}
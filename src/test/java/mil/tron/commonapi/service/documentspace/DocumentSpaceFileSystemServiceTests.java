@@ -1,17 +1,23 @@
 package mil.tron.commonapi.service.documentspace;
 
 import com.amazonaws.services.s3.model.MultiObjectDeleteException.DeleteError;
-import com.amazonaws.services.s3.model.S3ObjectSummary;
 import com.google.common.collect.Lists;
+import mil.tron.commonapi.dto.documentspace.DocumentSpaceContentsSort;
+import mil.tron.commonapi.dto.documentspace.DocumentSpaceItemFailureDto;
+import mil.tron.commonapi.dto.documentspace.DocumentSpaceSearchDto;
+import mil.tron.commonapi.dto.documentspace.DocumentSpaceSearchMatchType;
 import mil.tron.commonapi.entity.documentspace.DocumentSpace;
 import mil.tron.commonapi.entity.documentspace.DocumentSpaceFileSystemEntry;
+import mil.tron.commonapi.exception.BadRequestException;
 import mil.tron.commonapi.exception.RecordNotFoundException;
 import mil.tron.commonapi.exception.ResourceAlreadyExistsException;
 import mil.tron.commonapi.exception.documentspace.FolderDepthException;
 import mil.tron.commonapi.repository.documentspace.DocumentSpaceFileSystemEntryRepository;
 import mil.tron.commonapi.repository.documentspace.DocumentSpaceRepository;
 import mil.tron.commonapi.service.documentspace.util.FilePathSpec;
+import mil.tron.commonapi.service.documentspace.util.FilePathSpecWithContents;
 import mil.tron.commonapi.service.documentspace.util.FileSystemElementTree;
+import mil.tron.commonapi.service.documentspace.util.FolderListingOptions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -20,6 +26,7 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.annotation.Rollback;
@@ -31,6 +38,7 @@ import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static mil.tron.commonapi.entity.documentspace.DocumentSpaceFileSystemEntry.NIL_UUID;
@@ -288,22 +296,55 @@ public class DocumentSpaceFileSystemServiceTests {
     @Test
     void testDeleteFolders_withErrors() {
         service.addFolder(spaceId, "some-folder", "/");
-        service.addFolder(spaceId, "some-folder2", "some-folder");
+        DocumentSpaceFileSystemEntry folder2 = service.addFolder(spaceId, "some-folder2", "some-folder");
         service.addFolder(spaceId, "some-deep-folder", "/some-folder/some-folder2");
-        service.addFolder(spaceId, "some-deep-folder2", "/some-folder/some-folder2");
+        DocumentSpaceFileSystemEntry deepFolder = service.addFolder(spaceId, "some-deep-folder2", "/some-folder/some-folder2");
+        documentSpaceFileSystemRepository.saveAll(Lists.newArrayList(
+                DocumentSpaceFileSystemEntry.builder()
+                        .documentSpaceId(spaceId)
+                        .parentEntryId(deepFolder.getItemId())
+                        .itemName("locked.txt")
+                        .etag("blah")
+                        .isFolder(false)
+                        .build(),
+                DocumentSpaceFileSystemEntry.builder()
+                        .documentSpaceId(spaceId)
+                        .parentEntryId(deepFolder.getItemId())
+                        .itemName("gone.txt")
+                        .etag("blah")
+                        .isFolder(false)
+                        .build()));
+
+        String deepPrefix = String.format("%s/%s/%s/", spaceId, folder2.getParentEntryId(), folder2.getItemId()) + deepFolder.getItemId() + "/";
+        DeleteError accessDenied = new DeleteError();
+        accessDenied.setCode("AccessDenied");
+        accessDenied.setKey(deepPrefix + "locked.txt");
+        accessDenied.setMessage("Access Denied");
+        DeleteError noSuchKey = new DeleteError();
+        noSuchKey.setCode("NoSuchKey");
+        noSuchKey.setKey(deepPrefix + "gone.txt");
+
+        Mockito.when(documentSpaceService.deleteS3Objects(Mockito.any())).thenReturn(List.of(accessDenied, noSuchKey));
+
+        List<DocumentSpaceItemFailureDto> failures = service.deleteElements(spaceId, "/", List.of("some-folder"));
+
+        // every file key was worked out from the db and sent in one go
+        Mockito.verify(documentSpaceService).deleteS3Objects(Mockito.argThat(keys ->
+                keys.size() == 2 && keys.contains(deepPrefix + "locked.txt") && keys.contains(deepPrefix + "gone.txt")));
+
+        assertEquals(1, failures.size());
+        assertEquals("/some-folder/some-folder2/some-deep-folder2/locked.txt", failures.get(0).getPath());
+        assertEquals("Access Denied", failures.get(0).getReason());
+
+        // the file that failed and the folders leading to it stay, everything else is gone
+        assertEquals(1, service.getElementsUnderneath(spaceId, "/").size());
+        assertEquals(1, service.getElementsUnderneath(spaceId, "/some-folder").size());
+        assertEquals(1, service.getElementsUnderneath(spaceId, "/some-folder/some-folder2").size());
+        List<DocumentSpaceFileSystemEntry> remaining = service.getElementsUnderneath(spaceId, "/some-folder/some-folder2/some-deep-folder2");
+        assertEquals(1, remaining.size());
+        assertEquals("locked.txt", remaining.get(0).getItemName());
 
-        DeleteError deleteErr = new DeleteError();
-        deleteErr.setCode("NoSuchKey");
-        
-        S3ObjectSummary objSummary = new S3ObjectSummary();
-        objSummary.setKey("somekey");
-        
-        Mockito.when(documentSpaceService.getAllFilesInFolder(Mockito.any(UUID.class), Mockito.anyString(), Mockito.anyBoolean())).thenReturn(List.of(objSummary));
-        Mockito.when(documentSpaceService.deleteS3ObjectsByKey(Mockito.any())).thenReturn(List.of(deleteErr));
-        
-        service.deleteFolder(spaceId, "/some-folder/some-folder2/some-deep-folder2");
-        
-        Mockito.verify(documentSpaceFileService).deleteAllDocumentSpaceFilesInParentFolderExcept(Mockito.any(UUID.class), Mockito.any(UUID.class), Mockito.anySet());
+        assertThrows(RecordNotFoundException.class, () -> service.deleteElements(spaceId, "/", List.of("some-folder", "not-there")));
     }
 
     @Transactional
@@ -322,7 +363,39 @@ public class DocumentSpaceFileSystemServiceTests {
         assertTrue(service.isFolder(spaceId, "/some-folder/", "some-folder2"));
         assertFalse(service.isFolder(spaceId, "/some-folder", "some-folder3"));
     }
-    
+
+    @Transactional
+    @Rollback
+    @Test
+    void testMoveAndCloneFileSystemEntryTree() {
+        DocumentSpace otherSpace = documentSpaceRepository.save(DocumentSpace.builder()
+                .id(UUID.randomUUID())
+                .name("OtherSpace")
+                .build());
+
+        DocumentSpaceFileSystemEntry folder = service.addFolder(spaceId, "some-folder", "/");
+        DocumentSpaceFileSystemEntry child = service.addFolder(spaceId, "some-folder2", "some-folder");
+        DocumentSpaceFileSystemEntry grandChild = service.addFolder(spaceId, "some-deep-folder", "/some-folder/some-folder2");
+
+        // copies get fresh item ids with the parent pointers following along
+        Map<UUID, DocumentSpaceFileSystemEntry> copies = service.cloneFileSystemEntryTree(otherSpace.getId(), folder, NIL_UUID);
+        assertEquals(2, copies.size());
+        DocumentSpaceFileSystemEntry childCopy = copies.get(child.getItemId());
+        DocumentSpaceFileSystemEntry grandChildCopy = copies.get(grandChild.getItemId());
+        assertNotEquals(child.getItemId(), childCopy.getItemId());
+        assertEquals(NIL_UUID, childCopy.getParentEntryId());
+        assertEquals(childCopy.getItemId(), grandChildCopy.getParentEntryId());
+        assertEquals(otherSpace.getId(), grandChildCopy.getDocumentSpaceId());
+
+        service.insertItems(copies.values());
+        assertTrue(service.isFolder(otherSpace.getId(), "/some-folder2", "some-deep-folder"));
+
+        // moving takes every level of the tree along, not just the direct children
+        service.moveFileSystemEntryTree(otherSpace.getId(), folder, NIL_UUID);
+        assertEquals(otherSpace.getId(), service.getElementByItemId(child.getItemId()).getDocumentSpaceId());
+        assertEquals(otherSpace.getId(), service.getElementByItemId(grandChild.getItemId()).getDocumentSpaceId());
+    }
+
     @Transactional
     @Rollback
     @Test
@@ -603,19 +676,137 @@ public class DocumentSpaceFileSystemServiceTests {
         documentSpaceFileSystemRepository.saveAll(Lists.newArrayList(file1, file2, archivedFile));
 
         // finds a file by name
-        Page<DocumentSpaceFileSystemEntry> results = service.findFilesInSpaceLike(spaceId, "File2", Pageable.ofSize(10));
+        Page<DocumentSpaceFileSystemEntry> results = service.findFilesInSpacesLike(List.of(spaceId), search("File2"), Pageable.ofSize(10));
         assertEquals(1, results.getContent().size());
 
         // can take portion of file name
-        results = service.findFilesInSpaceLike(spaceId, "ile2", Pageable.ofSize(10));
+        results = service.findFilesInSpacesLike(List.of(spaceId), search("ile2"), Pageable.ofSize(10));
         assertEquals(1, results.getContent().size());
 
         // is case-insensitive
-        results = service.findFilesInSpaceLike(spaceId, "ILE2", Pageable.ofSize(10));
+        results = service.findFilesInSpacesLike(List.of(spaceId), search("ILE2"), Pageable.ofSize(10));
         assertEquals(1, results.getContent().size());
 
         // can't search ones that are in archived state
-        results = service.findFilesInSpaceLike(spaceId, "Archived", Pageable.ofSize(10));
+        results = service.findFilesInSpacesLike(List.of(spaceId), search("Archived"), Pageable.ofSize(10));
         assertEquals(0, results.getContent().size());
+
+        // prefix matching only matches the start of the name
+        DocumentSpaceSearchDto prefix = search("ile");
+        prefix.setMatchType(DocumentSpaceSearchMatchType.PREFIX);
+        assertEquals(0, service.findFilesInSpacesLike(List.of(spaceId), prefix, Pageable.ofSize(10)).getTotalElements());
+        prefix.setQuery("fil");
+        assertEquals(2, service.findFilesInSpacesLike(List.of(spaceId), prefix, Pageable.ofSize(10)).getTotalElements());
+
+        // wildcards in the query are taken literally
+        assertEquals(0, service.findFilesInSpacesLike(List.of(spaceId), search("F_le"), Pageable.ofSize(10)).getTotalElements());
+        assertEquals(0, service.findFilesInSpacesLike(List.of(spaceId), search("%"), Pageable.ofSize(10)).getTotalElements());
+
+        // extension filter, with or without the dot, and best matches come first
+        DocumentSpaceFileSystemEntry report = documentSpaceFileSystemRepository.save(DocumentSpaceFileSystemEntry.builder()
+                .itemName("file-report.pdf")
+                .documentSpaceId(spaceId)
+                .etag("blah")
+                .isFolder(false)
+                .build());
+        DocumentSpaceFileSystemEntry exact = documentSpaceFileSystemRepository.save(DocumentSpaceFileSystemEntry.builder()
+                .itemName("report.pdf")
+                .documentSpaceId(spaceId)
+                .etag("blah")
+                .isFolder(false)
+                .build());
+        DocumentSpaceSearchDto pdfs = search("report.pdf");
+        pdfs.setExtension(".PDF");
+        results = service.findFilesInSpacesLike(List.of(spaceId), pdfs, Pageable.ofSize(10));
+        assertThat(results.getContent()).extracting(DocumentSpaceFileSystemEntry::getItemId)
+                .containsExactly(exact.getItemId(), report.getItemId());
+        pdfs.setExtension("txt");
+        assertEquals(0, service.findFilesInSpacesLike(List.of(spaceId), pdfs, Pageable.ofSize(10)).getTotalElements());
+
+        // total is counted across pages
+        results = service.findFilesInSpacesLike(List.of(spaceId), search("file"), PageRequest.of(0, 1));
+        assertEquals(1, results.getContent().size());
+        assertEquals(3, results.getTotalElements());
+
+        // other spaces aren't searched unless asked for
+        assertEquals(0, service.findFilesInSpacesLike(List.of(UUID.randomUUID()), search("File2"), Pageable.ofSize(10)).getTotalElements());
+    }
+
+    @Transactional
+    @Rollback
+    @Test
+    void testGetFolderPaths() {
+        DocumentSpaceFileSystemEntry folder = service.addFolder(spaceId, "some-folder", "/");
+        DocumentSpaceFileSystemEntry child = service.addFolder(spaceId, "some-folder2", "some-folder");
+        DocumentSpaceFileSystemEntry grandChild = service.addFolder(spaceId, "some-deep-folder", "/some-folder/some-folder2");
+
+        Map<UUID, String> paths = service.getFolderPaths(List.of(NIL_UUID, folder.getItemId(), grandChild.getItemId(), UUID.randomUUID()));
+        assertEquals(3, paths.size());
+        assertEquals("", paths.get(NIL_UUID));
+        assertEquals("some-folder", paths.get(folder.getItemId()));
+        assertEquals("some-folder/some-folder2/some-deep-folder", paths.get(grandChild.getItemId()));
+        assertEquals(service.getFilePathSpec(spaceId, child.getItemId()).getFullPathSpec(),
+                service.getFolderPaths(List.of(child.getItemId())).get(child.getItemId()));
+    }
+
+    private static DocumentSpaceSearchDto search(String query) {
+        return DocumentSpaceSearchDto.builder().query(query).build();
+    }
+
+    @Transactional
+    @Rollback
+    @Test
+    void testFolderContentsPagedWithContentsInfo() {
+        DocumentSpaceFileSystemEntry alpha = service.addFolder(spaceId, "Alpha", "/");
+        service.addFolder(spaceId, "bravo", "/");
+        DocumentSpaceFileSystemEntry charlie = service.addFolder(spaceId, "Charlie", "/");
+        service.addFolder(spaceId, "inner", "/Alpha");
+        service.addFolder(spaceId, "inner2", "/Alpha");
+        service.addFolder(spaceId, "inner", "/Charlie");
+        service.archiveElement(spaceId, "/Charlie", "inner");
+        documentSpaceFileSystemRepository.save(DocumentSpaceFileSystemEntry.builder()
+                .documentSpaceId(spaceId)
+                .parentEntryId(charlie.getItemId())
+                .isFolder(false)
+                .etag("etag")
+                .itemName("archived.txt")
+                .isDeleteArchived(true)
+                .createdOn(new Date())
+                .build());
+
+        FolderListingOptions firstPage = FolderListingOptions.builder()
+                .limit(2)
+                .includeChildCounts(true)
+                .build();
+        FilePathSpecWithContents page = service.getFilesAndFoldersAtPath(spaceId, "/", firstPage);
+
+        // names sort case-insensitively, and only non-archived contents count
+        assertThat(page.getEntries()).extracting(DocumentSpaceFileSystemEntry::getItemName).containsExactly("Alpha", "bravo");
+        assertThat(page.getEntries().get(0).getItemId()).isEqualTo(alpha.getItemId());
+        assertTrue(page.getEntries().get(0).isHasNonArchivedContents());
+        assertEquals(2L, page.getEntries().get(0).getNonArchivedContentsCount());
+        assertFalse(page.getEntries().get(1).isHasNonArchivedContents());
+        assertNotNull(page.getNextContinuationToken());
+
+        FilePathSpecWithContents lastPage = service.getFilesAndFoldersAtPath(spaceId, "/", FolderListingOptions.builder()
+                .limit(2)
+                .continuationToken(page.getNextContinuationToken())
+                .build());
+
+        assertThat(lastPage.getEntries()).extracting(DocumentSpaceFileSystemEntry::getItemName).containsExactly("Charlie");
+        assertFalse(lastPage.getEntries().get(0).isHasNonArchivedContents());
+        assertNull(lastPage.getEntries().get(0).getNonArchivedContentsCount());
+        assertNull(lastPage.getNextContinuationToken());
+
+        // descending, everything in one go
+        assertThat(service.getFilesAndFoldersAtPath(spaceId, "/", FolderListingOptions.builder().ascending(false).build()).getEntries())
+                .extracting(DocumentSpaceFileSystemEntry::getItemName)
+                .containsExactly("Charlie", "bravo", "Alpha");
+
+        // a token can't be used to continue a listing with a different sort
+        assertThrows(BadRequestException.class, () -> service.getFilesAndFoldersAtPath(spaceId, "/", FolderListingOptions.builder()
+                .sort(DocumentSpaceContentsSort.SIZE)
+                .continuationToken(page.getNextContinuationToken())
+                .build()));
     }
 }
@@ -0,0 +1,210 @@
+package mil.tron.commonapi.service.documentspace;
+
+import mil.tron.commonapi.dto.documentspace.DocumentSpaceFileTransferJobDto;
+import mil.tron.commonapi.entity.documentspace.DocumentSpaceFileTransferJob;
+import mil.tron.commonapi.entity.documentspace.DocumentSpaceFileTransferJobStatus;
+import mil.tron.commonapi.exception.BadRequestException;
+import mil.tron.commonapi.exception.RecordNotFoundException;
+import mil.tron.commonapi.repository.documentspace.DocumentSpaceFileTransferJobRepository;
+import mil.tron.commonapi.service.documentspace.util.FileTransferProgress;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentSpaceFileTransferJobServiceImplTest {
+    private static final String INSTANCE_ID = "server-a";
+    private static final long LEASE_MILLIS = 120000L;
+    private static final List<DocumentSpaceFileTransferJobStatus> UNFINISHED_STATUSES =
+            List.of(DocumentSpaceFileTransferJobStatus.PENDING, DocumentSpaceFileTransferJobStatus.RUNNING);
+
+    @Mock
+    DocumentSpaceFileTransferJobRepository jobRepository;
+
+    @Mock
+    DocumentSpaceService documentSpaceService;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    ThreadPoolTaskExecutor executor;
+
+    DocumentSpaceFileTransferJobServiceImpl service;
+
+    UUID spaceId = UUID.randomUUID();
+
+    @BeforeEach
+    void setup() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.initialize();
+
+        service = new DocumentSpaceFileTransferJobServiceImpl(jobRepository, documentSpaceService, transactionManager, executor, INSTANCE_ID, LEASE_MILLIS);
+    }
+
+    @AfterEach
+    void teardown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void startJob_shouldThrow_whenNoItems() {
+        assertThrows(BadRequestException.class, () -> service.startJob(spaceId, null, Map.of(), true, "user"));
+        Mockito.verifyNoInteractions(jobRepository);
+    }
+
+    @Test
+    void startJob_shouldRunItemsInBackground() {
+        DocumentSpaceFileTransferJob job = DocumentSpaceFileTransferJob.builder()
+                .documentSpaceId(spaceId)
+                .sourceSpaceId(spaceId)
+                .copy(true)
+                .itemCount(1)
+                .build();
+        Mockito.when(jobRepository.save(any(DocumentSpaceFileTransferJob.class))).thenReturn(job);
+        Mockito.when(jobRepository.findById(job.getId())).thenReturn(Optional.of(job));
+
+        DocumentSpaceFileTransferJobDto dto = service.startJob(spaceId, null, Map.of("docs", "old/docs"), true, "user");
+        assertEquals(job.getId(), dto.getId());
+        assertEquals(spaceId, dto.getSourceSpaceId());
+
+        Mockito.verify(documentSpaceService, Mockito.timeout(5000))
+                .moveOrCopyFile(eq(spaceId), eq(spaceId), eq("docs"), eq("old/docs"), eq(true), any(FileTransferProgress.class));
+
+        // running, item completed, finished
+        Mockito.verify(jobRepository, Mockito.timeout(5000).times(3)).save(job);
+        assertEquals(DocumentSpaceFileTransferJobStatus.COMPLETED, job.getStatus());
+        assertEquals(1, job.getCompletedItemCount());
+        assertNotNull(job.getFinishedOn());
+    }
+
+    @Test
+    void cancelJob_shouldOnlyFlagUnfinishedJobs() {
+        DocumentSpaceFileTransferJob running = DocumentSpaceFileTransferJob.builder()
+                .documentSpaceId(spaceId)
+                .status(DocumentSpaceFileTransferJobStatus.RUNNING)
+                .build();
+        Mockito.when(jobRepository.findByIdAndDocumentSpaceId(running.getId(), spaceId)).thenReturn(Optional.of(running));
+        Mockito.when(jobRepository.save(running)).thenReturn(running);
+        assertTrue(service.cancelJob(spaceId, running.getId()).isCancelRequested());
+
+        DocumentSpaceFileTransferJob completed = DocumentSpaceFileTransferJob.builder()
+                .documentSpaceId(spaceId)
+                .status(DocumentSpaceFileTransferJobStatus.COMPLETED)
+                .build();
+        Mockito.when(jobRepository.findByIdAndDocumentSpaceId(completed.getId(), spaceId)).thenReturn(Optional.of(completed));
+        assertFalse(service.cancelJob(spaceId, completed.getId()).isCancelRequested());
+        Mockito.verify(jobRepository, Mockito.never()).save(completed);
+
+        UUID missing = UUID.randomUUID();
+        Mockito.when(jobRepository.findByIdAndDocumentSpaceId(missing, spaceId)).thenReturn(Optional.empty());
+        assertThrows(RecordNotFoundException.class, () -> service.cancelJob(spaceId, missing));
+    }
+
+    @Test
+    void startJob_shouldFailJob_whenQueueIsFull() {
+        DocumentSpaceFileTransferJob job = DocumentSpaceFileTransferJob.builder()
+                .documentSpaceId(spaceId)
+                .sourceSpaceId(spaceId)
+                .copy(true)
+                .itemCount(1)
+                .build();
+        Mockito.when(jobRepository.save(any(DocumentSpaceFileTransferJob.class))).thenReturn(job);
+        Mockito.when(jobRepository.findById(job.getId())).thenReturn(Optional.of(job));
+
+        ThreadPoolTaskExecutor rejecting = Mockito.mock(ThreadPoolTaskExecutor.class);
+        Mockito.doThrow(new TaskRejectedException("full")).when(rejecting).execute(any(Runnable.class));
+        DocumentSpaceFileTransferJobServiceImpl busyService =
+                new DocumentSpaceFileTransferJobServiceImpl(jobRepository, documentSpaceService, transactionManager, rejecting, INSTANCE_ID, LEASE_MILLIS);
+
+        Map<String, String> items = Map.of("docs", "old/docs");
+        assertThrows(BadRequestException.class, () -> busyService.startJob(spaceId, null, items, true, "user"));
+        assertEquals(DocumentSpaceFileTransferJobStatus.FAILED, job.getStatus());
+        assertNotNull(job.getFinishedOn());
+    }
+
+    @Test
+    void failInterruptedJobs_shouldOnlyFailOwnAndExpiredJobs() {
+        DocumentSpaceFileTransferJob own = DocumentSpaceFileTransferJob.builder()
+                .documentSpaceId(spaceId)
+                .status(DocumentSpaceFileTransferJobStatus.RUNNING)
+                .ownerInstance(INSTANCE_ID)
+                .build();
+        DocumentSpaceFileTransferJob abandoned = DocumentSpaceFileTransferJob.builder()
+                .documentSpaceId(spaceId)
+                .status(DocumentSpaceFileTransferJobStatus.PENDING)
+                .ownerInstance("server-b")
+                .heartbeatOn(new Date(System.currentTimeMillis() - 2 * LEASE_MILLIS))
+                .build();
+        Mockito.when(jobRepository.findAllByStatusInAndOwnerInstance(UNFINISHED_STATUSES, INSTANCE_ID)).thenReturn(List.of(own));
+        Mockito.when(jobRepository.findAllByStatusInAndHeartbeatOnBefore(eq(UNFINISHED_STATUSES), any(Date.class)))
+                .thenReturn(List.of(abandoned));
+
+        long before = System.currentTimeMillis();
+        service.failInterruptedJobs();
+
+        for (DocumentSpaceFileTransferJob job : List.of(own, abandoned)) {
+            Mockito.verify(jobRepository).save(job);
+            assertEquals(DocumentSpaceFileTransferJobStatus.FAILED, job.getStatus());
+            assertNotNull(job.getMessage());
+            assertNotNull(job.getFinishedOn());
+        }
+
+        // other servers' jobs are only failed once their lease has run out
+        ArgumentCaptor<Date> cutoff = ArgumentCaptor.forClass(Date.class);
+        Mockito.verify(jobRepository).findAllByStatusInAndHeartbeatOnBefore(eq(UNFINISHED_STATUSES), cutoff.capture());
+        assertTrue(cutoff.getValue().getTime() <= before - LEASE_MILLIS + 1000);
+    }
+
+    @Test
+    void failAbandonedJobs_shouldLeaveJobsQueuedHereAlone() {
+        DocumentSpaceFileTransferJob job = DocumentSpaceFileTransferJob.builder()
+                .documentSpaceId(spaceId)
+                .sourceSpaceId(spaceId)
+                .copy(true)
+                .itemCount(1)
+                .build();
+        Mockito.when(jobRepository.save(any(DocumentSpaceFileTransferJob.class))).thenReturn(job);
+
+        ThreadPoolTaskExecutor idle = Mockito.mock(ThreadPoolTaskExecutor.class);
+        DocumentSpaceFileTransferJobServiceImpl queuedService =
+                new DocumentSpaceFileTransferJobServiceImpl(jobRepository, documentSpaceService, transactionManager, idle, INSTANCE_ID, LEASE_MILLIS);
+        queuedService.startJob(spaceId, null, Map.of("docs", "old/docs"), true, "user");
+
+        // a missed heartbeat doesn't fail a job this server still has
+        Mockito.when(jobRepository.findAllByStatusInAndHeartbeatOnBefore(eq(UNFINISHED_STATUSES), any(Date.class)))
+                .thenReturn(List.of(job));
+        queuedService.failAbandonedJobs();
+        assertEquals(DocumentSpaceFileTransferJobStatus.PENDING, job.getStatus());
+        Mockito.verify(jobRepository, Mockito.never()).save(job);
+
+        queuedService.renewLeases();
+        Mockito.verify(jobRepository).renewHeartbeats(eq(Set.of(job.getId())), any(Date.class));
+    }
+
+    @Test
+    void renewLeases_shouldSkipDatabase_whenNoJobsHere() {
+        service.renewLeases();
+        Mockito.verifyNoInteractions(jobRepository);
+    }
+}
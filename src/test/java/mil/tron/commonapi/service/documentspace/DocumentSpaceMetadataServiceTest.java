@@ -1,5 +1,6 @@
 package mil.tron.commonapi.service.documentspace;
 
+import static org.assertj.core.api.Assertions.assertThat;
 
 import java.util.ArrayList;
 import java.util.Date;
@@ -12,7 +13,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -33,7 +34,6 @@ class DocumentSpaceMetadataServiceTest {
 	@Mock
 	private DocumentSpaceUserCollectionRepository collectionRepositry;
 	
-	@InjectMocks
 	private DocumentSpaceMetadataServiceImpl metadataService;
 	
 	private DocumentMetadata metadata;
@@ -44,6 +44,7 @@ class DocumentSpaceMetadataServiceTest {
 	
 	@BeforeEach
 	void setup() {
+		metadataService = new DocumentSpaceMetadataServiceImpl(metadataRepository, collectionRepositry, 10);
 		metadata = new DocumentMetadata(new Date());
 		
 		fileEntries = new ArrayList<>();
@@ -100,4 +101,87 @@ class DocumentSpaceMetadataServiceTest {
 			Mockito.verify(metadataRepository).saveAll(Mockito.anyIterable());
 		}
 	}
+
+	@Nested
+	class RecordDownloadedTest {
+		@Test
+		void shouldWriteDownloadsOnFlush() {
+			UUID documentSpaceId = UUID.randomUUID();
+			Date earlier = new Date(System.currentTimeMillis() - 60000L);
+			Date later = new Date();
+
+			metadataService.recordDownloaded(documentSpaceId, fileEntries, earlier, dashboardUser);
+			metadataService.recordDownloaded(documentSpaceId, fileEntries.subList(0, 1), later, dashboardUser);
+			Mockito.verifyNoInteractions(collectionRepositry, metadataRepository);
+
+			Mockito.when(collectionRepositry.getAllInCollectionMatchingIdsAsMetadata(Mockito.anyString(), Mockito.eq(documentSpaceId), Mockito.eq(dashboardUser.getId()), Mockito.anySet()))
+				.thenReturn(Set.copyOf(filesAndMetadata));
+
+			metadataService.flushDownloads();
+
+			// both downloads of the first entry end up in the one write, with the latest date
+			ArgumentCaptor<Iterable<FileSystemEntryMetadata>> saved = ArgumentCaptor.forClass(Iterable.class);
+			Mockito.verify(metadataRepository).saveAll(saved.capture());
+			assertThat(saved.getValue()).hasSize(fileEntries.size());
+			assertThat(saved.getValue()).allMatch(metadata -> metadata.getLastDownloaded() != null);
+			assertThat(filesAndMetadata.get(0).getMetadata().getLastDownloaded()).isEqualTo(later);
+			assertThat(filesAndMetadata.get(1).getMetadata().getLastDownloaded()).isEqualTo(earlier);
+
+			// nothing left to write
+			metadataService.flushDownloads();
+			Mockito.verify(metadataRepository).saveAll(Mockito.anyIterable());
+		}
+
+		@Test
+		void shouldKeepDownloadsWhenFlushFails() {
+			metadataService.recordDownloaded(UUID.randomUUID(), fileEntries, new Date(), dashboardUser);
+
+			Mockito.when(collectionRepositry.getAllInCollectionMatchingIdsAsMetadata(Mockito.anyString(), Mockito.any(UUID.class), Mockito.any(UUID.class), Mockito.anySet()))
+				.thenThrow(new RuntimeException("db down"))
+				.thenReturn(Set.copyOf(filesAndMetadata));
+
+			metadataService.flushDownloads();
+			Mockito.verify(metadataRepository, Mockito.never()).saveAll(Mockito.anyIterable());
+
+			metadataService.flushDownloads();
+			Mockito.verify(metadataRepository).saveAll(Mockito.anyIterable());
+		}
+
+		@Test
+		void shouldDropDownloadsOnceBufferIsFull() {
+			UUID documentSpaceId = UUID.randomUUID();
+			metadataService.recordDownloaded(documentSpaceId, fileEntries, new Date(), dashboardUser);
+			metadataService.recordDownloaded(UUID.randomUUID(), fileEntries, new Date(), dashboardUser);
+
+			// the first space's downloads are written, the second space's only partly fit under the cap
+			ArgumentCaptor<Set<UUID>> requested = ArgumentCaptor.forClass(Set.class);
+			Mockito.when(collectionRepositry.getAllInCollectionMatchingIdsAsMetadata(Mockito.anyString(), Mockito.any(UUID.class), Mockito.any(UUID.class), requested.capture()))
+				.thenReturn(Set.of());
+
+			metadataService.flushDownloads();
+			assertThat(requested.getAllValues()).hasSize(2);
+			assertThat(requested.getAllValues().stream().mapToInt(Set::size).sum()).isEqualTo(10);
+		}
+
+		@Test
+		void shouldCapDownloadsKeptWhenFlushFails() {
+			metadataService.recordDownloaded(UUID.randomUUID(), fileEntries, new Date(), dashboardUser);
+
+			ArgumentCaptor<Set<UUID>> requested = ArgumentCaptor.forClass(Set.class);
+			Mockito.when(collectionRepositry.getAllInCollectionMatchingIdsAsMetadata(Mockito.anyString(), Mockito.any(UUID.class), Mockito.any(UUID.class), requested.capture()))
+				.thenAnswer(invocation -> {
+					// more downloads arrive while the failing write is in progress
+					metadataService.recordDownloaded(UUID.randomUUID(), fileEntries, new Date(), dashboardUser);
+					throw new RuntimeException("db down");
+				})
+				.thenReturn(Set.of());
+
+			metadataService.flushDownloads();
+			metadataService.flushDownloads();
+
+			// the failed downloads only partly fit back in alongside the new ones
+			assertThat(requested.getAllValues()).hasSize(3);
+			assertThat(requested.getAllValues().get(1).size() + requested.getAllValues().get(2).size()).isEqualTo(10);
+		}
+	}
 }
@@ -16,12 +16,14 @@ import com.amazonaws.services.s3.transfer.TransferManagerBuilder;
 import io.findify.s3mock.S3Mock;
 import mil.tron.commonapi.dto.documentspace.*;
 import mil.tron.commonapi.dto.documentspace.mobile.DocumentMobileDto;
+import mil.tron.commonapi.dto.response.pagination.CursorSlice;
 import mil.tron.commonapi.entity.DashboardUser;
 import mil.tron.commonapi.entity.Privilege;
 import mil.tron.commonapi.entity.documentspace.DocumentSpace;
 import mil.tron.commonapi.entity.documentspace.DocumentSpaceDashboardMemberPrivilegeRow;
 import mil.tron.commonapi.entity.documentspace.DocumentSpaceFileSystemEntry;
 import mil.tron.commonapi.entity.documentspace.DocumentSpacePrivilege;
+import mil.tron.commonapi.exception.BadRequestException;
 import mil.tron.commonapi.exception.NotAuthorizedException;
 import mil.tron.commonapi.exception.RecordNotFoundException;
 import mil.tron.commonapi.repository.DashboardUserRepository;
@@ -30,8 +32,10 @@ import mil.tron.commonapi.repository.documentspace.DocumentSpaceRepository;
 import mil.tron.commonapi.service.DashboardUserService;
 import mil.tron.commonapi.service.documentspace.util.FilePathSpec;
 import mil.tron.commonapi.service.documentspace.util.FilePathSpecWithContents;
+import mil.tron.commonapi.service.documentspace.util.RecencyCursor;
 import mil.tron.commonapi.service.documentspace.util.FileSystemElementTree;
 import mil.tron.commonapi.service.documentspace.util.S3ObjectAndFilename;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.assertj.core.util.Lists;
 import org.junit.Assert;
@@ -40,27 +44,36 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.data.domain.*;
 import org.springframework.data.domain.Sort.Direction;
 import org.springframework.data.domain.Sort.Order;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.security.Principal;
 import java.util.*;
+import java.util.concurrent.Callable;
 import java.util.stream.Collectors;
 
 import static mil.tron.commonapi.entity.documentspace.DocumentSpaceFileSystemEntry.NIL_UUID;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 
 @ExtendWith(MockitoExtension.class)
@@ -100,6 +113,17 @@ class DocumentSpaceServiceImplTest {
 	@Mock
 	private DocumentSpaceUserCollectionService documentSpaceUserCollectionService;
 
+	@Mock
+	private DocumentSpaceContentService contentService;
+
+	@Mock
+	private DocumentSpaceArchiveService archiveService;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	private ThreadPoolTaskExecutor deleteExecutor;
+
 	private S3Mock s3Mock;
 
 	private DocumentSpaceRequestDto requestDto;
@@ -119,9 +143,15 @@ class DocumentSpaceServiceImplTest {
 
 		transferManager = TransferManagerBuilder.standard().withS3Client(amazonS3).build();
 
+		deleteExecutor = new ThreadPoolTaskExecutor();
+		deleteExecutor.setCorePoolSize(2);
+		deleteExecutor.setMaxPoolSize(2);
+		deleteExecutor.initialize();
+
 		documentService = new DocumentSpaceServiceImpl(amazonS3, transferManager, BUCKET_NAME, documentSpaceRepo,
 				documentSpacePrivilegeService, dashboardUserRepository, dashboardUserService, privilegeRepository,
-				documentSpaceFileSystemService, documentSpaceFileService, metadataService, documentSpaceUserCollectionService);
+				documentSpaceFileSystemService, documentSpaceFileService, metadataService, documentSpaceUserCollectionService,
+				contentService, archiveService, transactionManager, deleteExecutor);
 		s3Mock = new S3Mock.Builder().withPort(9002).withInMemoryBackend().build();
 
 		s3Mock.start();
@@ -160,6 +190,7 @@ class DocumentSpaceServiceImplTest {
 	@AfterEach
 	void destroy() {
 		s3Mock.shutdown();
+		deleteExecutor.shutdown();
 	}
 
 	List<String> uploadDummyFilesUsingTransferManager(String content, int numOfFiles)
@@ -226,11 +257,29 @@ class DocumentSpaceServiceImplTest {
 	void deleteSpace() {
 		Mockito.when(documentSpaceRepo.findById(Mockito.any(UUID.class))).thenReturn(Optional.of(entity));
 		assertDoesNotThrow(() -> documentService.deleteSpace(entity.getId()));
+		Mockito.verify(archiveService).evictArchives(entity.getId());
 
 		Mockito.when(documentSpaceRepo.findById(Mockito.any(UUID.class))).thenReturn(Optional.ofNullable(null));
 		assertThrows(RecordNotFoundException.class, () -> documentService.deleteSpace(entity.getId()));
 	}
 
+	@Test
+	void testDeleteS3ObjectsSendsRejectedBatchesFromCallingThread() throws InterruptedException {
+		List<String> keys = uploadDummyFilesUsingTransferManager("fake content", 3).stream()
+				.map(name -> documentService.createDocumentSpacePathPrefix(entity.getId()) + name)
+				.collect(Collectors.toList());
+
+		AsyncTaskExecutor saturatedExecutor = Mockito.mock(AsyncTaskExecutor.class);
+		Mockito.when(saturatedExecutor.submit(Mockito.<Callable<?>>any())).thenThrow(new TaskRejectedException("full"));
+		DocumentSpaceServiceImpl service = new DocumentSpaceServiceImpl(amazonS3, transferManager, BUCKET_NAME,
+				documentSpaceRepo, documentSpacePrivilegeService, dashboardUserRepository, dashboardUserService,
+				privilegeRepository, documentSpaceFileSystemService, documentSpaceFileService, metadataService,
+				documentSpaceUserCollectionService, contentService, archiveService, transactionManager, saturatedExecutor);
+
+		assertThat(service.deleteS3Objects(keys)).isEmpty();
+		keys.forEach(key -> assertThat(amazonS3.doesObjectExist(BUCKET_NAME, key)).isFalse());
+	}
+
 	@Test
 	void testDeleteFile() throws AmazonServiceException, AmazonClientException, InterruptedException {
 		String content = "fake content";
@@ -302,7 +351,7 @@ class DocumentSpaceServiceImplTest {
 		S3Object actual = amazonS3.getObject(BUCKET_NAME,
 				documentService.createDocumentSpacePathPrefix(entity.getId()) + fileNames.get(0));
 		assertThat(downloadFile.getKey()).isEqualTo(actual.getKey());
-		Mockito.verify(metadataService).saveMetadata(Mockito.any(UUID.class), Mockito.any(DocumentSpaceFileSystemEntry.class), Mockito.any(DocumentMetadata.class), Mockito.any(DashboardUser.class));
+		Mockito.verify(metadataService).recordDownloaded(Mockito.any(UUID.class), Mockito.anyCollection(), Mockito.any(Date.class), Mockito.any(DashboardUser.class));
 	}
 
 	@Test
@@ -319,6 +368,10 @@ class DocumentSpaceServiceImplTest {
 				documentSpaceFileSystemService.parsePathToFilePathSpec(Mockito.any(UUID.class), Mockito.anyString()))
 				.thenReturn(
 						FilePathSpec.builder().itemId(NIL_UUID).fullPathSpec("").build());
+		Mockito.when(documentSpaceFileService.getFileInDocumentSpaceFolderOrThrow(Mockito.any(UUID.class), Mockito.any(UUID.class), Mockito.anyString()))
+				.thenAnswer(invocation -> DocumentSpaceFileSystemEntry.builder()
+					.itemName(invocation.getArgument(2))
+					.build());
 		List<S3Object> downloadFiles = documentService.getFiles(documentSpaceDto.getId(), "", Set.copyOf(fileNames), dashboardUser.getEmail());
 
 		List<S3Object> fromS3 = new ArrayList<>();
@@ -333,7 +386,7 @@ class DocumentSpaceServiceImplTest {
 
 			assertThat(fromS3).anyMatch(actual -> actual.getKey().equals(key));
 		}
-		Mockito.verify(metadataService).saveMetadata(Mockito.any(UUID.class), Mockito.anySet(), Mockito.any(DocumentMetadata.class), Mockito.any(DashboardUser.class));
+		Mockito.verify(metadataService).recordDownloaded(Mockito.any(UUID.class), Mockito.anyCollection(), Mockito.any(Date.class), Mockito.any(DashboardUser.class));
 	}
 
 	@Test
@@ -361,9 +414,39 @@ class DocumentSpaceServiceImplTest {
 		S3Object s3Object = amazonS3.getObject(BUCKET_NAME, documentService.createDocumentSpacePathPrefix(entity.getId()) + fileNames.get(0));
 
 		assertThat(s3Object.getKey()).isEqualTo(downloadFile.getKey());
-		Mockito.verify(metadataService).saveMetadata(Mockito.any(UUID.class), Mockito.any(DocumentSpaceFileSystemEntry.class), Mockito.any(DocumentMetadata.class), Mockito.any(DashboardUser.class));
+		Mockito.verify(metadataService).recordDownloaded(Mockito.any(UUID.class), Mockito.anyCollection(), Mockito.any(Date.class), Mockito.any(DashboardUser.class));
 	}
 	
+	@Test
+	void testGetFileContentRange() throws AmazonServiceException, AmazonClientException, InterruptedException, IOException {
+		Mockito.when(documentSpaceRepo.save(Mockito.any(DocumentSpace.class))).thenReturn(entity);
+		DocumentSpaceResponseDto documentSpaceDto = documentService.createSpace(requestDto);
+
+		String content = "fake content";
+		List<String> fileNames = uploadDummyFilesUsingTransferManager(content, 1);
+
+		Mockito.when(
+				documentSpaceFileSystemService.getFilePathSpec(Mockito.any(UUID.class), Mockito.any(UUID.class)))
+				.thenReturn(
+						FilePathSpec.builder().itemId(NIL_UUID).build());
+
+		DocumentSpaceFileSystemEntry entry = DocumentSpaceFileSystemEntry.builder()
+				.itemName(fileNames.get(0))
+				.build();
+
+		try (S3Object ranged = documentService.getFileContent(documentSpaceDto.getId(), entry, 5L, 11L)) {
+			assertThat(new String(ranged.getObjectContent().readAllBytes())).isEqualTo("content");
+		}
+
+		try (S3Object whole = documentService.getFileContent(documentSpaceDto.getId(), entry, null, null)) {
+			assertThat(new String(whole.getObjectContent().readAllBytes())).isEqualTo(content);
+		}
+
+		entry.setItemName("missing");
+		assertThrows(RecordNotFoundException.class, () -> documentService.getFileContent(documentSpaceDto.getId(), entry, 0L, 1L));
+		Mockito.verify(metadataService, Mockito.never()).recordDownloaded(Mockito.any(UUID.class), Mockito.anyCollection(), Mockito.any(Date.class), Mockito.any(DashboardUser.class));
+	}
+
 	@Test
 	void testDeleteFileBySpaceAndParent() throws AmazonServiceException, AmazonClientException, InterruptedException {
 		String content = "fake content";
@@ -391,6 +474,41 @@ class DocumentSpaceServiceImplTest {
 		Mockito.verify(documentSpaceFileSystemService).propagateModificationStateToAncestors(Mockito.any(DocumentSpaceFileSystemEntry.class));
 	}
 
+	@Test
+	void testDownloadAndWriteCompressedFilesNotRecordedWhenZipFails() throws InterruptedException {
+		List<String> fileNames = uploadDummyFilesUsingTransferManager("fake content", 1);
+		DocumentSpaceFileSystemEntry fileEntry = DocumentSpaceFileSystemEntry.builder()
+				.documentSpaceId(entity.getId())
+				.isFolder(false)
+				.itemId(UUID.randomUUID())
+				.itemName(fileNames.get(0))
+				.build();
+
+		Mockito.when(documentSpaceRepo.findById(Mockito.any(UUID.class))).thenReturn(Optional.of(entity));
+		Mockito.when(dashboardUserService.getDashboardUserByEmailAsLower(Mockito.anyString())).thenReturn(dashboardUser);
+		Mockito.when(documentSpaceFileSystemService.getFolderListing(Mockito.any(UUID.class), Mockito.anyString()))
+				.thenReturn(FilePathSpecWithContents.builder()
+						.documentSpaceId(entity.getId())
+						.itemId(NIL_UUID)
+						.fullPathSpec("")
+						.entries(List.of(fileEntry))
+						.build());
+		Mockito.when(documentSpaceFileSystemService.parsePathToFilePathSpec(Mockito.any(UUID.class), Mockito.anyString()))
+				.thenReturn(FilePathSpec.builder().itemId(NIL_UUID).fullPathSpec("").build());
+
+		// the client goes away before the zip is written
+		OutputStream brokenOutput = new OutputStream() {
+			@Override
+			public void write(int b) throws IOException {
+				throw new IOException("connection reset");
+			}
+		};
+
+		documentService.downloadAndWriteCompressedFiles(entity.getId(), "", Set.copyOf(fileNames), brokenOutput, dashboardUser.getEmail());
+
+		Mockito.verify(metadataService, never()).recordDownloaded(Mockito.any(UUID.class), Mockito.anyCollection(), Mockito.any(Date.class), Mockito.any(DashboardUser.class));
+	}
+
 	@Test
 	void testDownloadAndWriteCompressedFiles()
 			throws AmazonServiceException, AmazonClientException, InterruptedException {
@@ -426,7 +544,7 @@ class DocumentSpaceServiceImplTest {
 		Mockito.when(dashboardUserService.getDashboardUserByEmailAsLower(Mockito.anyString())).thenReturn(dashboardUser);
 		
 		Mockito.when(
-				documentSpaceFileSystemService.getFilesAndFoldersAtPath(Mockito.any(UUID.class), Mockito.anyString()))
+				documentSpaceFileSystemService.getFolderListing(Mockito.any(UUID.class), Mockito.anyString()))
 				.thenReturn(
 						FilePathSpecWithContents.builder()
 							.itemId(NIL_UUID)
@@ -462,7 +580,7 @@ class DocumentSpaceServiceImplTest {
 		documentService.downloadAndWriteCompressedFiles(documentSpaceDto.getId(), "", Set.copyOf(fileNames), output, dashboardUser.getEmail());
 		
 		assertThat(output.size()).isPositive();
-		Mockito.verify(metadataService).saveMetadata(Mockito.any(UUID.class), Mockito.anySet(), Mockito.any(DocumentMetadata.class), Mockito.any(DashboardUser.class));
+		Mockito.verify(metadataService).recordDownloaded(Mockito.any(UUID.class), Mockito.anyCollection(), Mockito.any(Date.class), Mockito.any(DashboardUser.class));
 	}
 
 	@Test
@@ -533,6 +651,173 @@ class DocumentSpaceServiceImplTest {
 		
 		Mockito.verify(documentSpaceFileSystemService).archiveElement(Mockito.any(UUID.class), Mockito.anyString(), Mockito.anyString());
 	}
+
+	@Nested
+	class MoveOrCopyTest {
+		private FilePathSpec sourceSpec;
+		private FilePathSpec destSpec;
+		private String sourceKey;
+		private String destKey;
+
+		@BeforeEach
+		void setup() {
+			UUID destFolderId = UUID.randomUUID();
+			sourceSpec = FilePathSpec.builder()
+					.documentSpaceId(entity.getId())
+					.uuidList(Lists.newArrayList(NIL_UUID, UUID.randomUUID()))
+					.itemName("a.txt")
+					.build();
+			destSpec = FilePathSpec.builder()
+					.documentSpaceId(entity.getId())
+					.itemId(destFolderId)
+					.uuidList(Lists.newArrayList(NIL_UUID, destFolderId))
+					.fullPathSpec("dest")
+					.itemName("dest")
+					.build();
+			sourceKey = sourceSpec.getDocSpaceQualifiedFilePath();
+			destKey = destSpec.getDocSpaceQualifiedPath() + "a.txt";
+			amazonS3.putObject(BUCKET_NAME, sourceKey, "fake content");
+
+			Mockito.when(documentSpaceFileSystemService.parsePathToFilePathSpec(entity.getId(), "a.txt")).thenReturn(sourceSpec);
+			Mockito.when(documentSpaceFileSystemService.getElementByItemId(sourceSpec.getItemId()))
+					.thenReturn(DocumentSpaceFileSystemEntry.builder()
+							.documentSpaceId(entity.getId())
+							.itemId(sourceSpec.getItemId())
+							.isFolder(false)
+							.itemName("a.txt")
+							.build());
+			Mockito.when(documentSpaceFileSystemService.parsePathToFilePathSpec(entity.getId(), "dest/", true)).thenReturn(destSpec);
+			Mockito.when(documentSpaceFileSystemService.getByParentIdAndItemName(entity.getId(), destSpec.getItemId(), "a.txt"))
+					.thenReturn(Optional.empty());
+		}
+
+		@Test
+		void shouldDeleteSourceObject_onlyAfterEntriesAreSaved() {
+			documentService.moveOrCopyFile(entity.getId(), entity.getId(), "a.txt", "dest/a.txt", false);
+
+			Mockito.verify(documentSpaceFileSystemService).saveItem(Mockito.any(DocumentSpaceFileSystemEntry.class));
+			Mockito.verify(transactionManager, times(2)).commit(Mockito.any());
+			assertThat(amazonS3.doesObjectExist(BUCKET_NAME, destKey)).isTrue();
+			assertThat(amazonS3.doesObjectExist(BUCKET_NAME, sourceKey)).isFalse();
+		}
+
+		@Test
+		void shouldRemoveCopiedObjects_whenSavingEntriesFails() {
+			Mockito.doThrow(new IllegalStateException("db is down"))
+					.when(documentSpaceFileSystemService).saveItem(Mockito.any(DocumentSpaceFileSystemEntry.class));
+
+			UUID spaceId = entity.getId();
+			assertThrows(IllegalStateException.class, () -> documentService.moveOrCopyFile(spaceId, spaceId, "a.txt", "dest/a.txt", false));
+
+			assertThat(amazonS3.doesObjectExist(BUCKET_NAME, destKey)).isFalse();
+			assertThat(amazonS3.doesObjectExist(BUCKET_NAME, sourceKey)).isTrue();
+		}
+	}
+
+	@Nested
+	class ContentAddressedStorageTest {
+		private final String content = "fake content";
+		private final String contentHash = DigestUtils.sha256Hex(content);
+		private FilePathSpec rootSpec;
+
+		@BeforeEach
+		void setup() {
+			rootSpec = FilePathSpec.builder()
+					.documentSpaceId(entity.getId())
+					.parentFolderId(NIL_UUID)
+					.fullPathSpec("")
+					.itemId(NIL_UUID)
+					.uuidList(new ArrayList<>())
+					.itemName("")
+					.build();
+
+			Mockito.lenient().when(contentService.isEnabled()).thenReturn(true);
+			Mockito.lenient().when(contentService.getContentKey(Mockito.anyString()))
+					.thenAnswer(invocation -> "content/" + invocation.getArgument(0));
+		}
+
+		private DocumentSpaceFileSystemEntry contentAddressedEntry(String name) {
+			return DocumentSpaceFileSystemEntry.builder()
+					.documentSpaceId(entity.getId())
+					.isFolder(false)
+					.itemName(name)
+					.contentHash(contentHash)
+					.build();
+		}
+
+		@Test
+		void shouldStoreContentsOnce_whenUploadingDuplicateContents() {
+			Mockito.when(documentSpaceRepo.findById(Mockito.any(UUID.class))).thenReturn(Optional.of(entity));
+			Mockito.when(documentSpaceFileSystemService.parsePathToFilePathSpec(Mockito.any(UUID.class), Mockito.anyString(), Mockito.anyBoolean())).thenReturn(rootSpec);
+			Mockito.when(documentSpaceFileService.getFileInDocumentSpaceFolder(Mockito.any(), Mockito.any(), Mockito.anyString())).thenReturn(Optional.empty());
+			Mockito.when(contentService.addReference(contentHash)).thenReturn(false, true);
+
+			documentService.uploadFile(entity.getId(), "", new MockMultipartFile("a.txt", "a.txt", "text/plain", content.getBytes()));
+			documentService.uploadFile(entity.getId(), "", new MockMultipartFile("b.txt", "b.txt", "text/plain", content.getBytes()));
+
+			assertThat(amazonS3.doesObjectExist(BUCKET_NAME, "content/" + contentHash)).isTrue();
+			assertThat(amazonS3.doesObjectExist(BUCKET_NAME, entity.getId() + "/a.txt")).isFalse();
+			assertThat(amazonS3.doesObjectExist(BUCKET_NAME, entity.getId() + "/b.txt")).isFalse();
+			Mockito.verify(contentService).addStoredContent(contentHash, content.length());
+
+			ArgumentCaptor<DocumentSpaceFileSystemEntry> saved = ArgumentCaptor.forClass(DocumentSpaceFileSystemEntry.class);
+			Mockito.verify(documentSpaceFileService, times(2)).saveDocumentSpaceFile(saved.capture());
+			assertThat(saved.getAllValues())
+					.extracting(DocumentSpaceFileSystemEntry::getContentHash, DocumentSpaceFileSystemEntry::getEtag)
+					.containsOnly(tuple(contentHash, DigestUtils.md5Hex(content)));
+		}
+
+		@Test
+		void shouldReplaceFileAndDropOldReference_whenUploadingOverContentAddressedFile() {
+			DocumentSpaceFileSystemEntry existing = contentAddressedEntry("a.txt");
+			Mockito.when(documentSpaceRepo.findById(Mockito.any(UUID.class))).thenReturn(Optional.of(entity));
+			Mockito.when(documentSpaceFileSystemService.parsePathToFilePathSpec(Mockito.any(UUID.class), Mockito.anyString(), Mockito.anyBoolean())).thenReturn(rootSpec);
+			Mockito.when(documentSpaceFileService.getFileInDocumentSpaceFolder(Mockito.any(), Mockito.any(), Mockito.anyString())).thenReturn(Optional.of(existing));
+
+			String newContent = "new content";
+			documentService.uploadFile(entity.getId(), "", new MockMultipartFile("a.txt", "a.txt", "text/plain", newContent.getBytes()));
+
+			assertThat(existing.getContentHash()).isEqualTo(DigestUtils.sha256Hex(newContent));
+			Mockito.verify(contentService).removeReferences(List.of(contentHash));
+		}
+
+		@Test
+		void shouldReadContentKey_whenGettingContentAddressedFile() throws IOException {
+			amazonS3.putObject(BUCKET_NAME, "content/" + contentHash, content);
+			Mockito.when(documentSpaceFileSystemService.getFilePathSpec(Mockito.any(UUID.class), Mockito.any(UUID.class))).thenReturn(rootSpec);
+
+			try (S3Object object = documentService.getFileContent(entity.getId(), contentAddressedEntry("a.txt"), null, null)) {
+				assertThat(new String(object.getObjectContent().readAllBytes())).isEqualTo(content);
+			}
+		}
+
+		@Test
+		void shouldOnlyRenameEntry_whenRenamingContentAddressedFile() {
+			DocumentSpaceFileSystemEntry entry = contentAddressedEntry("a.txt");
+			Mockito.when(documentSpaceRepo.findById(Mockito.any(UUID.class))).thenReturn(Optional.of(entity));
+			Mockito.when(documentSpaceFileSystemService.parsePathToFilePathSpec(Mockito.any(UUID.class), Mockito.anyString())).thenReturn(rootSpec);
+			Mockito.when(documentSpaceFileService.getFileInDocumentSpaceFolder(Mockito.any(), Mockito.any(), Mockito.anyString())).thenReturn(Optional.of(entry));
+
+			// there's nothing at the old key, so any attempt to copy it in S3 would fail
+			assertDoesNotThrow(() -> documentService.renameFile(entity.getId(), "", "a.txt", "b.txt"));
+			Mockito.verify(documentSpaceFileService).renameDocumentSpaceFile(entry, "b.txt");
+		}
+
+		@Test
+		void shouldDropReference_whenDeletingContentAddressedFile() {
+			amazonS3.putObject(BUCKET_NAME, "content/" + contentHash, content);
+			Mockito.when(documentSpaceFileSystemService.getFilePathSpec(Mockito.any(UUID.class), Mockito.any(UUID.class))).thenReturn(rootSpec);
+			Mockito.when(documentSpaceFileService.getFileInDocumentSpaceFolder(Mockito.any(), Mockito.any(), Mockito.anyString()))
+					.thenReturn(Optional.of(contentAddressedEntry("a.txt")));
+
+			documentService.deleteFile(entity.getId(), NIL_UUID, "a.txt");
+
+			Mockito.verify(documentSpaceFileService).deleteDocumentSpaceFile(Mockito.any());
+			Mockito.verify(contentService).removeReferences(List.of(contentHash));
+			// the contents stay until nothing has referenced them for a while
+			assertThat(amazonS3.doesObjectExist(BUCKET_NAME, "content/" + contentHash)).isTrue();
+		}
+	}
 	
 	@Nested
 	class GetRecentlyUploadedFilesByUserTest {
@@ -564,22 +849,51 @@ class DocumentSpaceServiceImplTest {
 		void shouldGetFiles() {
 			Mockito.when(dashboardUserService.getDashboardUserByEmailAsLower(Mockito.anyString())).thenReturn(dashboardUser);
 			Mockito.when(documentSpaceRepo.findAllDynamicBy(Mockito.any())).thenReturn(Arrays.asList(responseDto));
-			Mockito.when(documentSpaceFileSystemService.getFilePathSpec(Mockito.any(), Mockito.any(UUID.class))).thenReturn(FilePathSpec.builder()
-					.documentSpaceId(UUID.randomUUID())
-					.itemId(UUID.randomUUID())
-					.itemName("")
-					.fullPathSpec("/")
-					.build());
+			Mockito.when(documentSpaceFileSystemService.getFolderPaths(Mockito.anyCollection())).thenReturn(Map.of());
 			
 			Pageable pageable = PageRequest.of(0, 100);
 	    	Page<RecentDocumentDto> serviceResponse = new PageImpl<>(generateRandomFileEntries(1), pageable, 1);
 	    	
-			Mockito.when(documentSpaceFileService.getRecentlyUploadedFilesByUser(Mockito.anyString(), Mockito.anySet(), Mockito.any()))
+			Mockito.when(documentSpaceFileService.getRecentlyUploadedFilesByUser(Mockito.anyString(), Mockito.anySet(), Mockito.any(Pageable.class)))
 				.thenReturn(serviceResponse);
 
 			Page<RecentDocumentDto> dtos = documentService.getRecentlyUploadedFilesByAuthUser("test user", pageable);
 			
 			assertThat(dtos).hasSize(1);
+			assertThat(dtos.getContent().get(0).getPath()).isEqualTo("/");
+		}
+
+		@Test
+		void shouldGetFilesAfterContinuationToken_resolvingPathsForWholePage() {
+			Mockito.when(dashboardUserService.getDashboardUserByEmailAsLower(Mockito.anyString())).thenReturn(dashboardUser);
+			Mockito.when(documentSpaceRepo.findAllDynamicBy(Mockito.any())).thenReturn(Arrays.asList(responseDto));
+
+			List<RecentDocumentDto> entries = generateRandomFileEntries(3);
+			Mockito.when(documentSpaceFileSystemService.getFolderPaths(Mockito.anyCollection())).thenReturn(Map.of(
+					entries.get(0).getParentFolderId(), "folder/sub",
+					entries.get(1).getParentFolderId(), ""));
+
+			RecencyCursor after = new RecencyCursor(new Date(1000L), UUID.randomUUID());
+			CursorSlice<RecentDocumentDto> serviceResponse = new CursorSlice<>(entries, PageRequest.of(0, 3), "next");
+			Mockito.when(documentSpaceFileService.getRecentlyUploadedFilesByUser(Mockito.eq("test user"), Mockito.anySet(),
+					Mockito.<RecencyCursor>argThat(cursor -> cursor.getId().equals(after.getId()) && cursor.getDate().equals(after.getDate())),
+					Mockito.eq(3)))
+				.thenReturn(serviceResponse);
+
+			CursorSlice<RecentDocumentDto> dtos = documentService.getRecentlyUploadedFilesByAuthUser("test user", after.toToken(), 3);
+
+			assertThat(dtos.getNextContinuationToken()).isEqualTo("next");
+			assertThat(dtos.getContent()).extracting(RecentDocumentDto::getPath).containsExactly("folder/sub", "/", "/");
+			Mockito.verify(documentSpaceFileSystemService, times(1)).getFolderPaths(Mockito.anyCollection());
+			Mockito.verify(documentSpaceFileSystemService, Mockito.never()).getFilePathSpec(Mockito.any(), Mockito.any(UUID.class));
+		}
+
+		@Test
+		void shouldRejectInvalidContinuationToken() {
+			Mockito.when(dashboardUserService.getDashboardUserByEmailAsLower(Mockito.anyString())).thenReturn(dashboardUser);
+			Mockito.when(documentSpaceRepo.findAllDynamicBy(Mockito.any())).thenReturn(Arrays.asList(responseDto));
+
+			assertThrows(BadRequestException.class, () -> documentService.getRecentlyUploadedFilesByAuthUser("test user", "bogus", 3));
 		}
 	}
 	
@@ -654,46 +968,37 @@ class DocumentSpaceServiceImplTest {
 		}
 
 		@Test
-		void shouldRemoveDashboardUserFromDocumentSpace_whenDocumentSpaceExists() {
+		void shouldRemoveDashboardUsersFromDocumentSpace_whenDocumentSpaceExists() {
 			Mockito.when(documentSpaceRepo.findById(entity.getId())).thenReturn(Optional.of(entity));
-			Mockito.doReturn(dashboardUser).when(dashboardUserService).getDashboardUserByEmailAsLower(dashboardUser.getEmail());
-
-			documentService.removeDashboardUserFromDocumentSpace(entity.getId(), new String[] {memberDto.getEmail()});
+			Mockito.when(privilegeRepository.findByName(DocumentSpaceServiceImpl.DOCUMENT_SPACE_USER_PRIVILEGE)).thenReturn(Optional.of(documentSpacePrivilege));
+			Mockito.when(privilegeRepository.findByName("DASHBOARD_USER")).thenReturn(Optional.of(dashboardUserPrivilege));
+			Mockito.when(dashboardUserRepository.findAllIdsByEmailAsLowerIn(Mockito.anyCollection())).thenReturn(List.of(dashboardUser.getId()));
 
-			assertThat(entity.getDashboardUsers()).doesNotContain(dashboardUser);
-			assertThat(dashboardUser.getDocumentSpaces()).doesNotContain(entity);
-			Mockito.verify(documentSpacePrivilegeService).removePrivilegesFromDashboardUser(dashboardUser,entity);
-		}
+			documentService.removeDashboardUserFromDocumentSpace(entity.getId(), new String[] {" Dashboard@User.com ", "dashboard@user.com", null});
 
-		@Test
-		void shouldDeleteDashboardUser_whenUserHasNoMembershipAndNoOtherPrivilege() {
-			Mockito.when(documentSpaceRepo.findById(entity.getId())).thenReturn(Optional.of(entity));
-			Mockito.doReturn(dashboardUser).when(dashboardUserService).getDashboardUserByEmailAsLower(dashboardUser.getEmail());
-			Mockito.when(privilegeRepository.findByName(Mockito.anyString())).thenReturn(Optional.of(documentSpacePrivilege));
+			// emails are matched in lower case, once each
+			Mockito.verify(dashboardUserRepository).findAllIdsByEmailAsLowerIn(List.of("dashboard@user.com"));
 
-			documentService.removeDashboardUserFromDocumentSpace(entity.getId(), new String[] {memberDto.getEmail()});
+			List<UUID> userIds = List.of(dashboardUser.getId());
+			Mockito.verify(dashboardUserRepository).deleteDocumentSpacePrivileges(Mockito.argThat(ids -> ids.size() == 3
+					&& ids.contains(entity.getPrivileges().get(DocumentSpacePrivilegeType.READ).getId())), Mockito.eq(userIds));
+			Mockito.verify(dashboardUserRepository).deleteDocumentSpaceMemberships(entity.getId(), userIds);
+			Mockito.verify(dashboardUserRepository).deletePrivilegeFromNonMembers(documentSpacePrivilege.getId(), userIds);
+			Mockito.verify(dashboardUserRepository).deleteAllHavingOnlyPrivilege(dashboardUserPrivilege.getId(), userIds);
 
-			assertThat(entity.getDashboardUsers()).doesNotContain(dashboardUser);
-			assertThat(dashboardUser.getDocumentSpaces()).doesNotContain(entity);
-			Mockito.verify(documentSpacePrivilegeService).removePrivilegesFromDashboardUser(dashboardUser,entity);
-			Mockito.verify(dashboardUserService).deleteDashboardUser(dashboardUser.getId());
+			// nothing is loaded or saved a user at a time
+			Mockito.verify(dashboardUserService, never()).getDashboardUserByEmailAsLower(Mockito.anyString());
+			Mockito.verify(documentSpaceRepo, never()).save(Mockito.any());
 		}
 
 		@Test
-		void shouldNotDeleteDashboardUser_whenUserHasOtherPrivileges() {
-			Privilege dashboardAdmin = new Privilege(43L, "DASHBOARD_ADMIN");
-			dashboardUser.getPrivileges().add(dashboardAdmin);
-
+		void shouldDoNothing_whenNoDashboardUsersFound() {
 			Mockito.when(documentSpaceRepo.findById(entity.getId())).thenReturn(Optional.of(entity));
-			Mockito.doReturn(dashboardUser).when(dashboardUserService).getDashboardUserByEmailAsLower(dashboardUser.getEmail());
-			Mockito.when(privilegeRepository.findByName(Mockito.anyString())).thenReturn(Optional.of(documentSpacePrivilege));
 
 			documentService.removeDashboardUserFromDocumentSpace(entity.getId(), new String[] {memberDto.getEmail()});
 
-			assertThat(entity.getDashboardUsers()).doesNotContain(dashboardUser);
-			assertThat(dashboardUser.getDocumentSpaces()).doesNotContain(entity);
-			Mockito.verify(documentSpacePrivilegeService).removePrivilegesFromDashboardUser(dashboardUser,entity);
-			Mockito.verify(dashboardUserService, Mockito.never()).deleteDashboardUser(dashboardUser.getId());
+			Mockito.verify(dashboardUserRepository, never()).deleteDocumentSpaceMemberships(Mockito.any(), Mockito.anyCollection());
+			Mockito.verify(dashboardUserRepository, never()).deleteAllHavingOnlyPrivilege(Mockito.any(), Mockito.anyCollection());
 		}
 
 		@Test
@@ -882,14 +1187,40 @@ class DocumentSpaceServiceImplTest {
 
 		@Test
 		void shouldAddDashboardUsersToDocumentSpace() throws IOException {
+			Privilege dashboardUserPrivilege = Privilege.builder().id(1L).name("DASHBOARD_USER").build();
+			Privilege documentSpaceUserPrivilege = Privilege.builder().id(2L).name(DocumentSpaceServiceImpl.DOCUMENT_SPACE_USER_PRIVILEGE).build();
+			DashboardUser existingUser = DashboardUser.builder().id(UUID.randomUUID()).email("1@tron.dev").build();
+
 			Mockito.when(documentSpaceRepo.findById(documentSpaceId)).thenReturn(Optional.of(entity));
-			Mockito.when(documentSpacePrivilegeService.createDashboardUserWithPrivileges(Mockito.anyString(),
-					Mockito.any(DocumentSpace.class), Mockito.anyList())).thenReturn(dashboardUser);
+			Mockito.when(privilegeRepository.findByName("DASHBOARD_USER")).thenReturn(Optional.of(dashboardUserPrivilege));
+			Mockito.when(privilegeRepository.findByName(DocumentSpaceServiceImpl.DOCUMENT_SPACE_USER_PRIVILEGE)).thenReturn(Optional.of(documentSpaceUserPrivilege));
+			Mockito.when(dashboardUserRepository.findAllByEmailAsLowerIn(Mockito.anyCollection())).thenReturn(List.of(existingUser));
 
 			MockMultipartFile file = new MockMultipartFile("filename.txt", new FileInputStream("src/test/resources/dashboard-user-csv/happy-case.csv"));
 			List<String> exceptionStrings = documentService.batchAddDashboardUserToDocumentSpace(documentSpaceId, file);
 			assertEquals(0, exceptionStrings.size());
-			Mockito.verify(documentSpaceRepo, times(1)).save(Mockito.any());
+
+			// the three users that don't exist yet are created together, with both global privileges
+			ArgumentCaptor<Collection<DashboardUser>> newUsers = ArgumentCaptor.forClass(Collection.class);
+			Mockito.verify(dashboardUserRepository).insertAll(newUsers.capture());
+			assertThat(newUsers.getValue()).extracting(DashboardUser::getEmail).containsExactlyInAnyOrder("2@tron.dev", "3@test.mil", "4@test.mil");
+			assertThat(newUsers.getValue()).allMatch(user -> user.getPrivileges().equals(Set.of(dashboardUserPrivilege, documentSpaceUserPrivilege)));
+			Mockito.verify(dashboardUserRepository).insertPrivileges(2L, List.of(existingUser.getId()));
+
+			ArgumentCaptor<Collection<UUID>> members = ArgumentCaptor.forClass(Collection.class);
+			Mockito.verify(dashboardUserRepository).insertDocumentSpaceMemberships(Mockito.eq(documentSpaceId), members.capture());
+			assertThat(members.getValue()).hasSize(4).contains(existingUser.getId());
+
+			ArgumentCaptor<Collection<UUID>> readers = ArgumentCaptor.forClass(Collection.class);
+			ArgumentCaptor<Collection<UUID>> writers = ArgumentCaptor.forClass(Collection.class);
+			ArgumentCaptor<Collection<UUID>> admins = ArgumentCaptor.forClass(Collection.class);
+			Mockito.verify(dashboardUserRepository).insertDocumentSpacePrivileges(Mockito.eq(entity.getPrivileges().get(DocumentSpacePrivilegeType.READ).getId()), readers.capture());
+			Mockito.verify(dashboardUserRepository).insertDocumentSpacePrivileges(Mockito.eq(entity.getPrivileges().get(DocumentSpacePrivilegeType.WRITE).getId()), writers.capture());
+			Mockito.verify(dashboardUserRepository).insertDocumentSpacePrivileges(Mockito.eq(entity.getPrivileges().get(DocumentSpacePrivilegeType.MEMBERSHIP).getId()), admins.capture());
+			assertThat(readers.getValue()).hasSize(4);
+			assertThat(writers.getValue()).hasSize(3);
+			assertThat(admins.getValue()).hasSize(2).contains(existingUser.getId());
+			Mockito.verify(documentSpaceRepo, never()).save(Mockito.any());
 		}
 
 		@Test
@@ -944,8 +1275,9 @@ class DocumentSpaceServiceImplTest {
 
 		@Test
 		void shouldThrow_whenUserAlreadyExists() throws IOException {
-			entity.addDashboardUser(DashboardUser.builder().email("1@tron.dev").build());
 			Mockito.when(documentSpaceRepo.findById(documentSpaceId)).thenReturn(Optional.of(entity));
+			Mockito.when(dashboardUserRepository.findDocumentSpaceMemberEmailsAsLower(Mockito.eq(documentSpaceId), Mockito.anyCollection()))
+					.thenReturn(Set.of("1@tron.dev"));
 
 			MockMultipartFile file = new MockMultipartFile("filename.txt", new FileInputStream("src/test/resources/dashboard-user-csv/happy-case.csv"));
 
@@ -1080,28 +1412,26 @@ class DocumentSpaceServiceImplTest {
 					.etag("sdfsdfsdf")
 					.build());
 
-			Mockito.when(documentSpaceFileSystemService.findFilesInSpaceLike(Mockito.any(UUID.class), Mockito.anyString(), Mockito.any(Pageable.class)))
+			Mockito.when(documentSpaceFileSystemService.findFilesInSpacesLike(Mockito.anyCollection(), Mockito.any(DocumentSpaceSearchDto.class), Mockito.any(Pageable.class)))
 					.thenReturn(new PageImpl<>(Lists.newArrayList(files.get(0), files.get(2))));
 
 			Mockito.when(documentSpaceUserCollectionService.getFavoriteEntriesForUserInDocumentSpace(Mockito.anyString(), Mockito.any(UUID.class)))
 					.thenReturn(favs);
 
-			Mockito.when(documentSpaceFileSystemService.getFilePathSpec(Mockito.any(UUID.class), Mockito.any(UUID.class)))
-					.thenAnswer(args -> {
-						UUID id = args.getArgument(0);
-						return FilePathSpec.builder()
-								.itemId(NIL_UUID)
-								.documentSpaceId(id)
-								.fullPathSpec("/")
-								.build();
-					});
+			Mockito.when(documentSpaceFileSystemService.getFolderPaths(Mockito.anyCollection()))
+					.thenReturn(Map.of(NIL_UUID, ""));
 
 			Principal principal = () -> "dude@test.mil";
 
-			Page<DocumentMobileDto> results = documentService.findFilesInSpaceLike(spaceId, "file2", Pageable.ofSize(10), principal);
+			Page<DocumentMobileDto> results = documentService.findFilesInSpaceLike(spaceId, DocumentSpaceSearchDto.builder().query("file2").build(), Pageable.ofSize(10), principal);
 			assertEquals(2, results.getContent().size());
 			assertTrue(results.getContent().get(0).isFavorite());
 			assertFalse(results.getContent().get(1).isFavorite());
+			assertEquals("", results.getContent().get(0).getPath());
+
+			// favorites are only looked up once per space on the page, and no per result path lookups
+			Mockito.verify(documentSpaceUserCollectionService, times(1)).getFavoriteEntriesForUserInDocumentSpace("dude@test.mil", spaceId);
+			Mockito.verify(documentSpaceFileSystemService, Mockito.never()).getFilePathSpec(Mockito.any(UUID.class), Mockito.any(UUID.class));
 
 		}
 	}
@@ -0,0 +1,153 @@
+package mil.tron.commonapi.service.documentspace;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadResult;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
+import mil.tron.commonapi.dto.documentspace.DocumentSpaceUploadPartDto;
+import mil.tron.commonapi.entity.documentspace.DocumentSpaceUploadPart;
+import mil.tron.commonapi.entity.documentspace.DocumentSpaceUploadSession;
+import mil.tron.commonapi.exception.RecordNotFoundException;
+import mil.tron.commonapi.repository.documentspace.DocumentSpaceUploadPartRepository;
+import mil.tron.commonapi.repository.documentspace.DocumentSpaceUploadSessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentSpaceUploadServiceImplTest {
+    private static final String BUCKET_NAME = "testbucket";
+    private static final UUID SPACE_ID = UUID.randomUUID();
+
+    @Mock
+    AmazonS3 documentSpaceClient;
+
+    @Mock
+    DocumentSpaceService documentSpaceService;
+
+    @Mock
+    DocumentSpaceFileSystemService documentSpaceFileSystemService;
+
+    @Mock
+    DocumentSpaceUploadSessionRepository uploadSessionRepository;
+
+    @Mock
+    DocumentSpaceUploadPartRepository uploadPartRepository;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    DocumentSpaceUploadServiceImpl service;
+
+    DocumentSpaceUploadSession session;
+
+    @BeforeEach
+    void setup() {
+        service = new DocumentSpaceUploadServiceImpl(documentSpaceClient, BUCKET_NAME, documentSpaceService,
+                documentSpaceFileSystemService, uploadSessionRepository, uploadPartRepository, 72, transactionManager);
+
+        session = DocumentSpaceUploadSession.builder()
+                .documentSpaceId(SPACE_ID)
+                .parentEntryId(UUID.randomUUID())
+                .filename("file.txt")
+                .objectKey("spaces/file.txt")
+                .uploadId("upload-id")
+                .lastModified(new Date())
+                .createdBy("user@test.com")
+                .createdOn(new Date(1000L))
+                .lastActivityOn(new Date(1000L))
+                .build();
+
+        Mockito.lenient().when(uploadSessionRepository.findByIdAndDocumentSpaceId(session.getId(), SPACE_ID))
+                .thenReturn(Optional.of(session));
+    }
+
+    @Test
+    void testUploadPartStreamsOutsideTransactionAndRecordsActivity() {
+        UploadPartResult result = new UploadPartResult();
+        result.setETag("part-etag");
+        Mockito.when(documentSpaceClient.uploadPart(any(UploadPartRequest.class))).thenReturn(result);
+        Mockito.when(uploadPartRepository.findByUploadSessionIdAndPartNumber(session.getId(), 1)).thenReturn(Optional.empty());
+        Mockito.when(uploadPartRepository.save(any(DocumentSpaceUploadPart.class))).then(invocation -> invocation.getArgument(0));
+
+        DocumentSpaceUploadPartDto part = service.uploadPart(SPACE_ID, session.getId(), 1,
+                new ByteArrayInputStream(new byte[5]), 5);
+
+        assertEquals("part-etag", part.getEtag());
+        assertEquals(5L, part.getSize());
+        assertTrue(session.getLastActivityOn().after(new Date(1000L)));
+
+        // the part is streamed before a transaction is opened to record it
+        InOrder inOrder = Mockito.inOrder(documentSpaceClient, transactionManager, uploadPartRepository);
+        inOrder.verify(documentSpaceClient).uploadPart(any(UploadPartRequest.class));
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(uploadPartRepository).save(any(DocumentSpaceUploadPart.class));
+        inOrder.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void testUploadPartForAbortedSession() {
+        UploadPartResult result = new UploadPartResult();
+        result.setETag("part-etag");
+        Mockito.when(documentSpaceClient.uploadPart(any(UploadPartRequest.class))).thenReturn(result);
+        Mockito.when(uploadSessionRepository.findByIdAndDocumentSpaceId(session.getId(), SPACE_ID))
+                .thenReturn(Optional.of(session))
+                .thenReturn(Optional.empty());
+
+        ByteArrayInputStream contents = new ByteArrayInputStream(new byte[5]);
+        UUID sessionId = session.getId();
+        assertThrows(RecordNotFoundException.class, () -> service.uploadPart(SPACE_ID, sessionId, 1, contents, 5));
+        Mockito.verify(uploadPartRepository, Mockito.never()).save(any());
+    }
+
+    @Test
+    void testCompleteUploadKeepsCompositeEtag() {
+        Mockito.when(uploadPartRepository.findAllByUploadSessionIdOrderByPartNumberAsc(session.getId()))
+                .thenReturn(List.of(DocumentSpaceUploadPart.builder()
+                        .uploadSessionId(session.getId())
+                        .partNumber(1)
+                        .etag("part-etag")
+                        .size(14L)
+                        .build()));
+
+        CompleteMultipartUploadResult result = new CompleteMultipartUploadResult();
+        result.setETag("d41d8cd98f00b204e9800998ecf8427e-1");
+        Mockito.when(documentSpaceClient.completeMultipartUpload(any(CompleteMultipartUploadRequest.class))).thenReturn(result);
+
+        assertEquals("file.txt", service.completeUpload(SPACE_ID, session.getId()));
+
+        Mockito.verify(documentSpaceService).saveUploadedFileEntry(eq(SPACE_ID), eq(session.getParentEntryId()), any(),
+                eq("file.txt"), eq(14L), eq("d41d8cd98f00b204e9800998ecf8427e-1"), eq(session.getLastModified()));
+        // the assembled object is never read back
+        Mockito.verify(documentSpaceClient, Mockito.never()).getObject(anyString(), anyString());
+        Mockito.verify(uploadSessionRepository).delete(session);
+    }
+
+    @Test
+    void testAbortExpiredUploadsUsesLastActivity() {
+        Mockito.when(uploadSessionRepository.findAllByLastActivityOnBefore(any(Date.class))).thenReturn(List.of(session));
+
+        service.abortExpiredUploads();
+
+        Mockito.verify(documentSpaceClient).abortMultipartUpload(any());
+        Mockito.verify(uploadPartRepository).deleteAllByUploadSessionId(session.getId());
+        Mockito.verify(uploadSessionRepository).delete(session);
+    }
+}
@@ -2,11 +2,13 @@ package mil.tron.commonapi.service.documentspace;
 
 import mil.tron.commonapi.dto.documentspace.DocumentSpaceUserCollectionRequestDto;
 import mil.tron.commonapi.dto.documentspace.DocumentSpaceUserCollectionResponseDto;
+import mil.tron.commonapi.dto.response.pagination.CursorSlice;
 import mil.tron.commonapi.entity.DashboardUser;
 import mil.tron.commonapi.entity.documentspace.DocumentSpaceFileSystemEntry;
 import mil.tron.commonapi.entity.documentspace.DocumentSpaceUserCollection;
 import mil.tron.commonapi.entity.documentspace.metadata.FileSystemEntryMetadata;
 import mil.tron.commonapi.entity.documentspace.metadata.FileSystemEntryWithMetadata;
+import mil.tron.commonapi.exception.BadRequestException;
 import mil.tron.commonapi.exception.NotAuthorizedException;
 import mil.tron.commonapi.exception.RecordNotFoundException;
 import mil.tron.commonapi.exception.ResourceAlreadyExistsException;
@@ -45,6 +47,9 @@ class DocumentSpaceUserCollectionServiceImplTest {
     @Mock
     private DashboardUserService dashboardUserService;
 
+    @Mock
+    private DocumentSpaceFileSystemService documentSpaceFileSystemService;
+
     @Mock
     private DocumentSpaceRepository documentSpaceRepository;
 
@@ -219,6 +224,52 @@ class DocumentSpaceUserCollectionServiceImplTest {
         Assertions.assertEquals(entity.getEntries().size(), favoriteEntriesForUserInDocumentSpace.size());
     }
 
+    @Test
+    void testGetFavoritesPage() {
+        doReturn(dashboardUser).when(dashboardUserService).getDashboardUserByEmail(dashboardUser.getEmail());
+
+        UUID parentId = UUID.randomUUID();
+        List<FileSystemEntryWithMetadata> entriesWithMetadata = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            entriesWithMetadata.add(new FileSystemEntryWithMetadata(DocumentSpaceFileSystemEntry.builder()
+                    .documentSpaceId(docSpaceId)
+                    .parentEntryId(parentId)
+                    .itemName("file" + i)
+                    .createdOn(new Date(3000L - i))
+                    .build(), null));
+        }
+        Mockito.when(documentSpaceFileSystemService.getFolderPaths(Set.of(parentId))).thenReturn(Map.of(parentId, "folder"));
+
+        // one more than the limit is fetched to tell whether there's a next page
+        Mockito.when(documentSpaceUserCollectionRepository.getFirstInCollectionAsMetadata(Mockito.eq("Favorites"), Mockito.eq(docSpaceId),
+                Mockito.eq(dashboardUserId), Mockito.argThat(pageable -> pageable.getPageSize() == 3)))
+            .thenReturn(entriesWithMetadata);
+
+        CursorSlice<DocumentSpaceUserCollectionResponseDto> page = collectionService.getFavoriteEntriesForUserInDocumentSpace(dashboardUser.getEmail(), docSpaceId, null, 2);
+
+        assertThat(page.getContent()).extracting(DocumentSpaceUserCollectionResponseDto::getKey).containsExactly("file0", "file1");
+        assertThat(page.getContent()).extracting(DocumentSpaceUserCollectionResponseDto::getPath).containsOnly("folder");
+        assertThat(page.hasNext()).isTrue();
+
+        // the next page carries on from the last entry handed out
+        DocumentSpaceFileSystemEntry last = entriesWithMetadata.get(1).getFileEntry();
+        Mockito.when(documentSpaceUserCollectionRepository.getNextInCollectionAsMetadata(Mockito.eq("Favorites"), Mockito.eq(docSpaceId),
+                Mockito.eq(dashboardUserId), Mockito.eq(last.getCreatedOn()), Mockito.eq(last.getId()), Mockito.any()))
+            .thenReturn(entriesWithMetadata.subList(2, 3));
+
+        page = collectionService.getFavoriteEntriesForUserInDocumentSpace(dashboardUser.getEmail(), docSpaceId, page.getNextContinuationToken(), 2);
+
+        assertThat(page.getContent()).extracting(DocumentSpaceUserCollectionResponseDto::getKey).containsExactly("file2");
+        assertThat(page.getNextContinuationToken()).isNull();
+    }
+
+    @Test
+    void testGetFavoritesPage_ThrowsOnInvalidLimit() {
+        doReturn(dashboardUser).when(dashboardUserService).getDashboardUserByEmail(dashboardUser.getEmail());
+
+        Assertions.assertThrows(BadRequestException.class, () -> collectionService.getFavoriteEntriesForUserInDocumentSpace(dashboardUser.getEmail(), docSpaceId, null, 0));
+    }
+
     @Test
     void testGetFavorites_ThrowUserNotFound() {
         doReturn(null).when(dashboardUserService).getDashboardUserByEmail(dashboardUser.getEmail());
@@ -0,0 +1,63 @@
+package mil.tron.commonapi.service.fieldauth;
+
+import mil.tron.commonapi.entity.Organization;
+import mil.tron.commonapi.entity.Person;
+import mil.tron.commonapi.entity.branches.Branch;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProtectedFieldAccessorTest {
+
+    @Test
+    void testReadAndWriteProtectedFields() {
+        List<ProtectedFieldAccessor> accessors = ProtectedFieldAccessor.forEntity(Person.class);
+        ProtectedFieldAccessor firstName = accessors.stream()
+                .filter(item -> item.getName().equals("firstName"))
+                .findFirst()
+                .orElseThrow();
+
+        Person person = Person.builder().firstName("John").build();
+        assertEquals("John", firstName.read(person));
+
+        firstName.write(person, "Jim");
+        assertEquals("Jim", person.getFirstName());
+
+        for (int i = 0; i < accessors.size(); i++) {
+            assertEquals(i, accessors.get(i).getIndex());
+        }
+    }
+
+    @Test
+    void testInheritedAndNonPublicFields() {
+        List<ProtectedFieldAccessor> accessors = ProtectedFieldAccessor.forEntity(Organization.class);
+        ProtectedFieldAccessor branchType = accessors.stream()
+                .filter(item -> item.getName().equals("branchType"))
+                .findFirst()
+                .orElseThrow();
+
+        Organization org = new Organization();
+        branchType.write(org, Branch.USAF);
+        assertEquals(Branch.USAF, branchType.read(org));
+    }
+
+    @Test
+    void testDeniedFieldMaskResolvesToNames() {
+        List<ProtectedFieldAccessor> accessors = ProtectedFieldAccessor.forEntity(Person.class);
+        BitSet denied = new BitSet();
+        denied.set(0);
+        denied.set(2);
+
+        EntityFieldAuthResponse<Person> response = EntityFieldAuthResponse.<Person>builder()
+                .deniedFieldMask(denied)
+                .protectedFields(accessors)
+                .build();
+
+        assertTrue(response.hasDeniedFields());
+        assertEquals(List.of(accessors.get(0).getName(), accessors.get(2).getName()), response.getDeniedFields());
+        assertFalse(EntityFieldAuthResponse.<Person>builder().build().hasDeniedFields());
+    }
+}
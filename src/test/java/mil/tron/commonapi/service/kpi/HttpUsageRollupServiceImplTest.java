@@ -0,0 +1,119 @@
+package mil.tron.commonapi.service.kpi;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import mil.tron.commonapi.entity.HttpLogEntry;
+import mil.tron.commonapi.entity.dashboard.AppSourceResponseCount;
+import mil.tron.commonapi.entity.kpi.HttpUsageRollup;
+import mil.tron.commonapi.entity.kpi.ServiceUsage;
+import mil.tron.commonapi.entity.kpi.UserWithRequestCount;
+import mil.tron.commonapi.repository.kpi.HttpUsageRollupRepository;
+
+@SpringBootTest
+class HttpUsageRollupServiceImplTest {
+	private static final String BASE_URL = "http://localhost/api/v2";
+	private static final String USER = "rollup-user@test.com";
+
+	@Autowired
+	private HttpUsageRollupService rollupService;
+
+	@Autowired
+	private HttpUsageRollupRepository rollupRepo;
+
+	// Sunday, August 29, 2021 1:00:00
+	private final Date bucketStart = new Date(1630198800000L);
+
+	// Sunday, August 29, 2021 1:30:00
+	private final Date logDate = new Date(1630200600000L);
+
+	// Sunday, August 29, 2021 1:59:59
+	private final Date endDate = new Date(1630202399000L);
+
+	@BeforeEach
+	void setup() {
+		rollupService.flush();
+		rollupRepo.deleteAll();
+	}
+
+	@Test
+	void shouldRollUpByServiceAndStatus() {
+		rollupService.record(entry(BASE_URL + "/app/test-app/person/1", 200, 50L));
+		rollupService.record(entry(BASE_URL + "/app/test-app/person/2?page=1", 200, 150L));
+		rollupService.record(entry(BASE_URL + "/app/test-app/person/3", 503, 6000L));
+		rollupService.record(entry(BASE_URL + "/organization/1", 200, 700L));
+		rollupService.record(entry(BASE_URL + "/person/self", 200, null));
+		rollupService.record(entry(BASE_URL + "/dashboard/kpis", 200, 10L));
+		rollupService.flush();
+
+		Map<String, ServiceUsage> usage = rollupRepo.getSuccessfulUsageByService(bucketStart, endDate).stream()
+				.collect(Collectors.toMap(ServiceUsage::getName, item -> item));
+
+		assertThat(usage).containsOnlyKeys("test-app", HttpUsageRollup.ORGANIZATION_SERVICE,
+				HttpUsageRollup.PERSON_SERVICE, HttpUsageRollup.OTHER_SERVICE);
+		assertThat(usage.get("test-app").getRequestCount()).isEqualTo(2L);
+		assertThat(usage.get("test-app").getTotalLatencyMs()).isEqualTo(200L);
+		assertThat(usage.get(HttpUsageRollup.PERSON_SERVICE).getRequestCount()).isEqualTo(1L);
+		assertThat(usage.get(HttpUsageRollup.PERSON_SERVICE).getLatencyCount()).isZero();
+
+		List<AppSourceResponseCount> errors = rollupRepo.getAppSourceErrorUsage(bucketStart, endDate);
+		assertThat(errors).hasSize(1);
+		assertThat(errors.get(0).getName()).isEqualTo("test-app");
+		assertThat(errors.get(0).getStatusCode()).isEqualTo(503);
+
+		assertThat(rollupRepo.getUsersAccessingService(bucketStart, endDate, HttpUsageRollup.ORGANIZATION_SERVICE))
+			.hasSize(1)
+			.allMatch(accessor -> accessor.getName().equals(USER) && accessor.getRecordAccessCount() == 1L);
+
+		HttpUsageRollup slowError = rollupRepo.findAll().stream()
+				.filter(rollup -> rollup.getStatusCode() == 503)
+				.findFirst()
+				.orElseThrow();
+		assertThat(slowError.getBucketStart()).hasSameTimeAs(bucketStart);
+		assertThat(slowError.getLatencyOver5000Ms()).isEqualTo(1L);
+	}
+
+	@Test
+	void shouldAddToExistingRollup_onLaterFlush() {
+		rollupService.record(entry(BASE_URL + "/app/test-app/person", 200, 100L));
+		rollupService.flush();
+
+		rollupService.record(entry(BASE_URL + "/app/test-app/organization", 200, 300L));
+		rollupService.record(entry(BASE_URL + "/app/test-app/organization", 200, 5L));
+		rollupService.flush();
+
+		assertThat(rollupRepo.findAll()).hasSize(1);
+
+		List<ServiceUsage> usage = rollupRepo.getAppSourceUsage(bucketStart, endDate);
+		assertThat(usage).hasSize(1);
+		assertThat(usage.get(0).getRequestCount()).isEqualTo(3L);
+		assertThat(usage.get(0).getTotalLatencyMs()).isEqualTo(405L);
+
+		HttpUsageRollup rollup = rollupRepo.findAll().get(0);
+		assertThat(rollup.getLatencyLe100Ms()).isEqualTo(2L);
+		assertThat(rollup.getLatencyLe500Ms()).isEqualTo(1L);
+
+		List<UserWithRequestCount> users = rollupRepo.getUsersWithRequestCount(bucketStart, endDate);
+		assertThat(users).hasSize(1);
+		assertThat(users.get(0).getRequestCount()).isEqualTo(3L);
+	}
+
+	private HttpLogEntry entry(String url, int status, Long timeTaken) {
+		return HttpLogEntry.builder()
+				.requestTimestamp(logDate)
+				.requestedUrl(url)
+				.statusCode(status)
+				.timeTakenMs(timeTaken)
+				.userName(USER)
+				.build();
+	}
+}
@@ -10,6 +10,7 @@ import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -19,6 +20,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 
 import mil.tron.commonapi.dto.kpi.AppSourceMetricSummaryDto;
 import mil.tron.commonapi.dto.kpi.KpiSummaryDto;
@@ -28,12 +31,13 @@ import mil.tron.commonapi.dto.kpi.UserWithRequestCountDto;
 import mil.tron.commonapi.dto.mapper.DtoMapper;
 import mil.tron.commonapi.entity.kpi.AppSourceMetricSummary;
 import mil.tron.commonapi.entity.kpi.KpiSummary;
+import mil.tron.commonapi.entity.kpi.ServiceUsage;
 import mil.tron.commonapi.entity.kpi.UserWithRequestCount;
 import mil.tron.commonapi.entity.kpi.VisitorType;
 import mil.tron.commonapi.exception.BadRequestException;
-import mil.tron.commonapi.repository.HttpLogsRepository;
 import mil.tron.commonapi.repository.MeterValueRepository;
 import mil.tron.commonapi.repository.appsource.AppSourceRepository;
+import mil.tron.commonapi.repository.kpi.HttpUsageRollupRepository;
 import mil.tron.commonapi.repository.kpi.KpiRepository;
 import mil.tron.commonapi.service.utility.HttpLogsUtilService;
 
@@ -41,8 +45,10 @@ import mil.tron.commonapi.service.utility.HttpLogsUtilService;
 class KpiServiceImplTest {
 	private static final DtoMapper MODEL_MAPPER = new DtoMapper();
 	
+	private static final ProjectionFactory PROJECTIONS = new SpelAwareProxyProjectionFactory();
+	
 	@Mock
-	private HttpLogsRepository httpLogsRepo;
+	private HttpUsageRollupRepository usageRollupRepo;
 	
 	@Mock
 	private AppSourceRepository appSourceRepo;
@@ -72,13 +78,12 @@ class KpiServiceImplTest {
 	@BeforeEach
 	void setup() {
 		kpiService = new KpiServiceImpl(
-				httpLogsRepo, 
+				usageRollupRepo, 
 				appSourceRepo, 
 				meterValueRepo, 
 				kpiRepo, 
 				httpLogsUtilService, 
-				systemUtcClock, 
-				"/app");
+				systemUtcClock);
 		
 		userRequestCount = new ArrayList<>();
 		dashboardUserRequestCount = UserWithRequestCountDto.builder()
@@ -131,7 +136,7 @@ class KpiServiceImplTest {
 				.build();
 		userRequestCount.add(userRequest);
 		
-		Mockito.when(httpLogsRepo.getUsersWithRequestCount(Mockito.any(Date.class), Mockito.any(Date.class))).thenReturn(userRequestCount);
+		Mockito.when(usageRollupRepo.getUsersWithRequestCount(Mockito.any(Date.class), Mockito.any(Date.class))).thenReturn(userRequestCount);
 		
 		assertThat(kpiService.getUsersWithRequestCount(Date.from(Instant.now()), Date.from(Instant.now().plus(1L, ChronoUnit.DAYS)))).containsAll(userRequestCount);
 	}
@@ -145,7 +150,9 @@ class KpiServiceImplTest {
 	
 	@Test
 	void getAverageLatencyForSuccessfulResponseTest() {
-		Mockito.when(httpLogsRepo.getAverageLatencyForSuccessfulResponse(Mockito.any(Date.class), Mockito.any(Date.class))).thenReturn(Optional.of(33d));
+		Mockito.when(usageRollupRepo.getSuccessfulUsageByService(Mockito.any(Date.class), Mockito.any(Date.class))).thenReturn(List.of(
+				serviceUsage("Person", 2L, 2L, 40L),
+				serviceUsage("Organization", 2L, 1L, 59L)));
 		
 		assertThat(kpiService.getAverageLatencyForSuccessResponse(Date.from(Instant.now()), Date.from(Instant.now().plus(1L, ChronoUnit.DAYS)))).isEqualTo(33L);
 	}
@@ -171,15 +178,16 @@ class KpiServiceImplTest {
 		Mockito.when(httpLogsUtilService.getDateAtStartOfDay(Mockito.any())).thenReturn(startAsDate);
 		Mockito.when(httpLogsUtilService.getDateAtEndOfDay(Mockito.any())).thenReturn(endAsDate);
 		
-		Mockito.when(httpLogsRepo.getUsersWithRequestCount(Mockito.any(Date.class), Mockito.any(Date.class))).thenReturn(userRequestCount);
+		Mockito.when(usageRollupRepo.getUsersWithRequestCount(Mockito.any(Date.class), Mockito.any(Date.class))).thenReturn(userRequestCount);
 		Mockito.when(httpLogsUtilService.isUsernameAnAppClient(dashboardUserRequestCount.getName())).thenReturn(false);
 		Mockito.when(httpLogsUtilService.isUsernameAnAppClient(appClientUserRequestCount.getName())).thenReturn(true);
 		
 		Mockito.when(appSourceRepo.countByAvailableAsAppSourceTrue()).thenReturn(Optional.of(dto.getAppSourceCount()));
-		Mockito.when(httpLogsRepo.getAverageLatencyForSuccessfulResponse(Mockito.any(Date.class), Mockito.any(Date.class))).thenReturn(Optional.of(dto.getAverageLatencyForSuccessfulRequests()));
 		
-		Mockito.when(httpLogsRepo.getMetricsForSuccessfulResponsesByService(Mockito.any(Date.class), Mockito.any(Date.class), Mockito.anyString()))
-			.thenReturn(dto.getServiceMetrics());
+		// 100 responses averaging 10ms, the average over every service is taken from the same totals
+		dto.setAverageLatencyForSuccessfulRequests(10d);
+		Mockito.when(usageRollupRepo.getSuccessfulUsageByService(Mockito.any(Date.class), Mockito.any(Date.class)))
+			.thenReturn(List.of(serviceUsage("test-app-source", 100L, 100L, 1000L)));
 		
 		List<AppSourceMetricSummary> appSourceMetricSummary = new ArrayList<>();
 		AppSourceMetricSummary appSourceMetric = AppSourceMetricSummaryDto.builder()
@@ -330,6 +338,26 @@ class KpiServiceImplTest {
 		assertThat(kpiService.getKpisRangeOnStartDateBetween(startAsDate, endAsDate)).usingRecursiveComparison().ignoringFieldsOfTypes(UUID.class).isEqualTo(responseAsDto);
 	}
 	
+	@Test
+	void getServiceMetricsTest() {
+		// Wednesday, July 21, 2021 0:00:00
+		Clock fixedClock = Clock.fixed(Instant.ofEpochMilli(1626825600000L), ZoneId.of("UTC"));
+		Mockito.when(systemUtcClock.instant()).thenReturn(fixedClock.instant());
+		
+		// Thursday, July 15, 2021 0:00:00
+		var startAsDate = Date.from(Instant.ofEpochMilli(1626307200000L));
+		
+		Mockito.when(httpLogsUtilService.getDateAtStartOfDay(Mockito.any())).thenReturn(startAsDate);
+		Mockito.when(httpLogsUtilService.getDateAtEndOfDay(Mockito.any())).thenReturn(Date.from(fixedClock.instant()));
+		Mockito.when(usageRollupRepo.getSuccessfulUsageByService(Mockito.any(Date.class), Mockito.any(Date.class))).thenReturn(List.of(
+				serviceUsage("Person", 4L, 3L, 30L),
+				serviceUsage("Other", 2L, 0L, 0L)));
+		
+		assertThat(kpiService.getServiceMetrics(startAsDate, null)).containsExactly(
+				ServiceMetricDto.builder().name("Person").averageLatency(10d).responseCount(4L).build(),
+				ServiceMetricDto.builder().name("Other").averageLatency(null).responseCount(2L).build());
+	}
+	
 	@Test
 	void saveAggregatedKpisTest() {
 		// Thursday, July 15, 2021 0:00:00
@@ -349,4 +377,12 @@ class KpiServiceImplTest {
 		
 		assertThat(kpiService.saveAggregatedKpis(dto)).usingRecursiveComparison().ignoringFieldsOfTypes(UUID.class).isEqualTo(dto);
 	}
+	
+	private static ServiceUsage serviceUsage(String name, long requestCount, long latencyCount, long totalLatencyMs) {
+		return PROJECTIONS.createProjection(ServiceUsage.class, Map.of(
+				"name", name,
+				"requestCount", requestCount,
+				"latencyCount", latencyCount,
+				"totalLatencyMs", totalLatencyMs));
+	}
 }
@@ -0,0 +1,213 @@
+package mil.tron.commonapi.service.puckboard;
+
+import mil.tron.commonapi.dto.puckboard.PuckboardEtlJobDto;
+import mil.tron.commonapi.entity.puckboard.PuckboardEtlJob;
+import mil.tron.commonapi.entity.puckboard.PuckboardEtlJobPhase;
+import mil.tron.commonapi.entity.puckboard.PuckboardEtlJobStatus;
+import mil.tron.commonapi.exception.RecordNotFoundException;
+import mil.tron.commonapi.repository.puckboard.PuckboardEtlJobRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+@ExtendWith(MockitoExtension.class)
+class PuckboardEtlJobServiceImplTest {
+    private static final String INSTANCE_ID = "server-a";
+    private static final long LEASE_MILLIS = 120000L;
+    private static final List<PuckboardEtlJobStatus> UNFINISHED_STATUSES =
+            List.of(PuckboardEtlJobStatus.PENDING, PuckboardEtlJobStatus.RUNNING);
+
+    @Mock
+    PuckboardEtlJobRepository jobRepository;
+
+    @Mock
+    PuckboardClient puckboardClient;
+
+    @Mock
+    PuckboardExtractorService extractorService;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    ThreadPoolTaskExecutor executor;
+
+    PuckboardEtlJobServiceImpl service;
+
+    @BeforeEach
+    void setup() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.initialize();
+
+        service = new PuckboardEtlJobServiceImpl(jobRepository, puckboardClient, extractorService, transactionManager, executor,
+                INSTANCE_ID, LEASE_MILLIS);
+    }
+
+    @AfterEach
+    void teardown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void startJob_shouldSyncInBackground() {
+        PuckboardEtlJob job = PuckboardEtlJob.builder().createdBy("user").inFlight(true).build();
+        Mockito.when(jobRepository.saveAndFlush(any(PuckboardEtlJob.class))).thenReturn(job);
+        Mockito.when(jobRepository.findById(job.getId())).thenReturn(Optional.of(job));
+
+        PuckboardDump dump = new PuckboardDump(List.of(), List.of(), Map.of());
+        Mockito.when(puckboardClient.fetchDump()).thenReturn(dump);
+        Mockito.when(extractorService.syncOrgsAndMembers(eq(dump), any(PuckboardEtlProgress.class))).then(invocation -> {
+            PuckboardEtlResult result = new PuckboardEtlResult();
+            result.orgCreated(UUID.randomUUID(), "org");
+            invocation.getArgument(1, PuckboardEtlProgress.class).update(PuckboardEtlJobPhase.ORGANIZATIONS, result);
+            return result;
+        });
+
+        PuckboardEtlJobDto dto = service.startJob("user");
+        assertEquals(job.getId(), dto.getId());
+        assertEquals("user", dto.getCreatedBy());
+
+        // running, progress, finished
+        Mockito.verify(jobRepository, Mockito.timeout(5000).times(3)).save(job);
+        assertEquals(PuckboardEtlJobStatus.COMPLETED, job.getStatus());
+        assertEquals(PuckboardEtlJobPhase.DONE, job.getPhase());
+        assertEquals(1, job.getOrgsCreated());
+        assertNotNull(job.getFinishedOn());
+        assertNull(job.getInFlight());
+    }
+
+    @Test
+    void startJob_shouldFailJob_whenPuckboardUnreachable() {
+        PuckboardEtlJob job = PuckboardEtlJob.builder().inFlight(true).build();
+        Mockito.when(jobRepository.saveAndFlush(any(PuckboardEtlJob.class))).thenReturn(job);
+        Mockito.when(jobRepository.findById(job.getId())).thenReturn(Optional.of(job));
+        Mockito.when(puckboardClient.fetchDump()).thenThrow(new ResourceAccessException("Connection refused"));
+
+        service.startJob(null);
+
+        Mockito.verify(jobRepository, Mockito.timeout(5000).times(2)).save(job);
+        assertEquals(PuckboardEtlJobStatus.FAILED, job.getStatus());
+        assertEquals(PuckboardEtlJobPhase.FETCHING, job.getPhase());
+        assertEquals("Connection refused", job.getMessage());
+        assertNull(job.getInFlight());
+        Mockito.verifyNoInteractions(extractorService);
+    }
+
+    @Test
+    void startJob_shouldReturnInFlightJob() {
+        PuckboardEtlJob running = PuckboardEtlJob.builder()
+                .status(PuckboardEtlJobStatus.RUNNING)
+                .createdBy("other")
+                .build();
+        Mockito.when(jobRepository.findFirstByStatusInOrderByCreatedOnDesc(UNFINISHED_STATUSES))
+                .thenReturn(Optional.of(running));
+
+        PuckboardEtlJobDto dto = service.startJob("user");
+        assertEquals(running.getId(), dto.getId());
+        assertEquals("other", dto.getCreatedBy());
+        Mockito.verify(jobRepository, Mockito.never()).saveAndFlush(any());
+        Mockito.verifyNoInteractions(puckboardClient);
+    }
+
+    @Test
+    void startJob_shouldReturnInFlightJob_whenAnotherStartsFirst() {
+        PuckboardEtlJob running = PuckboardEtlJob.builder()
+                .status(PuckboardEtlJobStatus.PENDING)
+                .createdBy("other")
+                .inFlight(true)
+                .build();
+        // nothing in flight at the lookup, but another server's insert lands first
+        Mockito.when(jobRepository.findFirstByStatusInOrderByCreatedOnDesc(UNFINISHED_STATUSES))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(running));
+        Mockito.when(jobRepository.saveAndFlush(any(PuckboardEtlJob.class)))
+                .thenThrow(new DataIntegrityViolationException("UK_puckboard_etl_job_in_flight"));
+
+        PuckboardEtlJobDto dto = service.startJob("user");
+        assertEquals(running.getId(), dto.getId());
+        Mockito.verifyNoInteractions(puckboardClient);
+    }
+
+    @Test
+    void failInterruptedJobs_shouldOnlyFailOwnAndExpiredJobs() {
+        PuckboardEtlJob own = PuckboardEtlJob.builder()
+                .status(PuckboardEtlJobStatus.RUNNING)
+                .inFlight(true)
+                .ownerInstance(INSTANCE_ID)
+                .build();
+        PuckboardEtlJob abandoned = PuckboardEtlJob.builder()
+                .status(PuckboardEtlJobStatus.PENDING)
+                .inFlight(true)
+                .ownerInstance("server-b")
+                .heartbeatOn(new Date(System.currentTimeMillis() - 2 * LEASE_MILLIS))
+                .build();
+        Mockito.when(jobRepository.findAllByStatusInAndOwnerInstance(UNFINISHED_STATUSES, INSTANCE_ID)).thenReturn(List.of(own));
+        Mockito.when(jobRepository.findAllByStatusInAndHeartbeatOnBefore(eq(UNFINISHED_STATUSES), any(Date.class)))
+                .thenReturn(List.of(abandoned));
+
+        long before = System.currentTimeMillis();
+        service.failInterruptedJobs();
+
+        for (PuckboardEtlJob job : List.of(own, abandoned)) {
+            Mockito.verify(jobRepository).save(job);
+            assertEquals(PuckboardEtlJobStatus.FAILED, job.getStatus());
+            assertNotNull(job.getMessage());
+            assertNotNull(job.getFinishedOn());
+            assertNull(job.getInFlight());
+        }
+
+        // other servers' jobs are only failed once their lease has run out
+        ArgumentCaptor<Date> cutoff = ArgumentCaptor.forClass(Date.class);
+        Mockito.verify(jobRepository).findAllByStatusInAndHeartbeatOnBefore(eq(UNFINISHED_STATUSES), cutoff.capture());
+        assertTrue(cutoff.getValue().getTime() <= before - LEASE_MILLIS + 1000);
+    }
+
+    @Test
+    void failAbandonedJobs_shouldLeaveJobsQueuedHereAlone() {
+        PuckboardEtlJob job = PuckboardEtlJob.builder().inFlight(true).build();
+        Mockito.when(jobRepository.saveAndFlush(any(PuckboardEtlJob.class))).thenReturn(job);
+
+        ThreadPoolTaskExecutor idle = Mockito.mock(ThreadPoolTaskExecutor.class);
+        PuckboardEtlJobServiceImpl queuedService = new PuckboardEtlJobServiceImpl(jobRepository, puckboardClient, extractorService,
+                transactionManager, idle, INSTANCE_ID, LEASE_MILLIS);
+        queuedService.startJob("user");
+
+        // a missed heartbeat doesn't fail a job this server still has
+        Mockito.when(jobRepository.findAllByStatusInAndHeartbeatOnBefore(eq(UNFINISHED_STATUSES), any(Date.class)))
+                .thenReturn(List.of(job));
+        queuedService.failAbandonedJobs();
+        assertEquals(PuckboardEtlJobStatus.PENDING, job.getStatus());
+        Mockito.verify(jobRepository, Mockito.never()).save(job);
+
+        queuedService.renewLeases();
+        Mockito.verify(jobRepository).renewHeartbeats(eq(Set.of(job.getId())), any(Date.class));
+    }
+
+    @Test
+    void getJob_shouldThrow_whenNotFound() {
+        UUID missing = UUID.randomUUID();
+        Mockito.when(jobRepository.findById(missing)).thenReturn(Optional.empty());
+        assertThrows(RecordNotFoundException.class, () -> service.getJob(missing));
+    }
+}
@@ -1,149 +1,287 @@
 package mil.tron.commonapi.service.puckboard;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.common.collect.ImmutableList;
 import com.google.common.io.Resources;
+import mil.tron.commonapi.dto.BulkImportResultDto;
+import mil.tron.commonapi.dto.BulkImportRowErrorDto;
 import mil.tron.commonapi.dto.OrganizationDto;
 import mil.tron.commonapi.dto.PersonDto;
 import mil.tron.commonapi.entity.Organization;
-import mil.tron.commonapi.exception.RecordNotFoundException;
+import mil.tron.commonapi.entity.Person;
+import mil.tron.commonapi.pubsub.EventManagerService;
+import mil.tron.commonapi.pubsub.messages.OrganizationChangedMessage;
+import mil.tron.commonapi.pubsub.messages.PersonChangedMessage;
+import mil.tron.commonapi.pubsub.messages.PersonOrgAddMessage;
+import mil.tron.commonapi.pubsub.messages.PersonOrgRemoveMessage;
 import mil.tron.commonapi.repository.OrganizationRepository;
-import mil.tron.commonapi.service.OrganizationServiceImpl;
-import mil.tron.commonapi.service.PersonServiceImpl;
+import mil.tron.commonapi.repository.PersonRepository;
+import mil.tron.commonapi.repository.ranks.RankRepository;
+import mil.tron.commonapi.service.OrganizationService;
+import mil.tron.commonapi.service.PersonService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
-import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.test.context.TestPropertySource;
-import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.util.List;
-import java.util.Map;
-import java.util.UUID;
+import java.io.InputStream;
+import java.util.*;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.mockito.AdditionalAnswers.returnsFirstArg;
-import static org.mockito.AdditionalAnswers.returnsSecondArg;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyList;
 
-@ExtendWith(SpringExtension.class)
-@SpringBootTest
-@TestPropertySource(locations = "classpath:application-test.properties")
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
 public class PuckboardExtractorServiceImplTest {
 
     @Mock
     private OrganizationRepository orgRepo;
 
     @Mock
-    private OrganizationServiceImpl orgService;
+    private OrganizationService orgService;
 
     @Mock
-    private PersonServiceImpl personService;
+    private PersonService personService;
 
-    @InjectMocks
-    private PuckboardExtractorServiceImpl puckboardExtractorService;
+    @Mock
+    private PersonRepository personRepo;
 
-    private final ObjectMapper mapper = new ObjectMapper();
+    @Mock
+    private RankRepository rankRepository;
+
+    @Mock
+    private EventManagerService eventManagerService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PuckboardExtractorServiceImpl puckboardExtractorService;
 
-    JsonNode branchNodes, orgNodes, peopleNodes;
+    private PuckboardDump dump;
     int unitCount, peopleCount;
 
     @BeforeEach
     void setup() throws IOException {
-        branchNodes = mapper.readTree(
-                Resources.toString(
-                        Resources.getResource("puckboard/mock-branches.json"), StandardCharsets.UTF_8));
+        puckboardExtractorService = new PuckboardExtractorServiceImpl(orgService, orgRepo, personService, personRepo,
+                rankRepository, eventManagerService, transactionManager);
 
-        orgNodes = mapper.readTree(
-                Resources.toString(
-                        Resources.getResource("puckboard/mock-organizations.json"), StandardCharsets.UTF_8));
+        try (InputStream orgs = Resources.getResource("puckboard/mock-organizations.json").openStream();
+             InputStream people = Resources.getResource("puckboard/mock-personnel.json").openStream();
+             InputStream branches = Resources.getResource("puckboard/mock-branches.json").openStream()) {
+            dump = new PuckboardDump(
+                    PuckboardDumpParser.parseOrganizations(orgs),
+                    PuckboardDumpParser.parsePersonnel(people),
+                    PuckboardDumpParser.parseRanks(branches));
+        }
 
-        peopleNodes = mapper.readTree(
-                Resources.toString(
-                        Resources.getResource("puckboard/mock-personnel.json"), StandardCharsets.UTF_8));
+        unitCount = dump.getOrganizations().size();
+        peopleCount = dump.getPersonnel().size();
 
-        unitCount = 0;
-        peopleCount = peopleNodes.get("result").size();
+        Mockito.when(rankRepository.findAll()).thenReturn(List.of());
+        Mockito.when(orgRepo.findMemberIdsByOrgIdIn(anyCollection())).thenReturn(Map.of());
+        Mockito.when(orgService.bulkImportOrgs(anyList())).then(invocation -> {
+            BulkImportResultDto<OrganizationDto> result = new BulkImportResultDto<>();
+            result.getCreated().addAll(invocation.getArgument(0));
+            return result;
+        });
+        Mockito.when(personService.bulkImportPeople(anyList())).then(invocation -> {
+            BulkImportResultDto<PersonDto> result = new BulkImportResultDto<>();
+            result.getCreated().addAll(invocation.getArgument(0));
+            return result;
+        });
+    }
+
+    @Test
+    void testSyncCreatesNewOrgsAndPeople() {
+        // nothing exists yet, but the orgs do by the time memberships are synced
+        Mockito.when(orgRepo.findIdsByIdIn(anyCollection()))
+                .thenReturn(List.of())
+                .then(invocation -> new ArrayList<>(invocation.getArgument(0)));
+        Mockito.when(personRepo.findIdsByIdIn(anyCollection())).thenReturn(List.of());
+        Mockito.when(orgRepo.findAllById(anyIterable())).then(invocation -> organizations(invocation.getArgument(0), Map.of()));
+        Mockito.when(personRepo.findAllById(anyIterable())).then(invocation -> people(invocation.getArgument(0), Map.of()));
 
-        // determine number of squadrons we have head of time to compare with
-        List<JsonNode> units = ImmutableList.copyOf(orgNodes.get("result").elements());
-        unitCount = units.size();
+        PuckboardEtlResult result = puckboardExtractorService.syncOrgsAndMembers(dump, PuckboardEtlProgress.NONE);
 
+        assertEquals(unitCount, result.getOrgsCreated());
+        assertEquals(unitCount, result.getOrgStatus().size());
+        assertEquals(peopleCount - 1, result.getPeopleCreated());  // minus one for the placeHolder person
+        assertEquals(peopleCount - 1, result.getPersonStatus().size());
+        assertEquals(1, result.getPeopleSkipped());
+
+        // every active assignment is new, and each org only gets one add event for all of its new members
+        long activeAssignments = syncedPeople().stream()
+                .flatMap(person -> person.getOrganizationStatus().values().stream())
+                .filter(active -> active)
+                .count();
+        Set<UUID> orgsWithMembers = syncedPeople().stream()
+                .flatMap(person -> person.getOrganizationStatus().entrySet().stream())
+                .filter(Map.Entry::getValue)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+        assertEquals(activeAssignments, result.getMembershipsAdded());
+        Mockito.verify(eventManagerService, Mockito.times(orgsWithMembers.size())).recordEventAndPublish(any(PersonOrgAddMessage.class));
+        Mockito.verify(eventManagerService, Mockito.never()).recordEventAndPublish(any(PersonOrgRemoveMessage.class));
+        Mockito.verify(eventManagerService, Mockito.never()).recordEventAndPublish(any(OrganizationChangedMessage.class));
     }
 
     @Test
-    void testPersistOrgsAndMembersCreate() {
+    void testSyncOnlyWritesRealChanges() {
+        PuckboardDump.Organization renamedOrg = dump.getOrganizations().get(0);
+        PuckboardDump.Person changedPerson = syncedPeople().get(0);
+
+        Mockito.when(orgRepo.findIdsByIdIn(anyCollection())).then(invocation -> new ArrayList<>(invocation.getArgument(0)));
+        Mockito.when(personRepo.findIdsByIdIn(anyCollection())).then(invocation -> new ArrayList<>(invocation.getArgument(0)));
+        Mockito.when(orgRepo.findAllById(anyIterable()))
+                .then(invocation -> organizations(invocation.getArgument(0), Map.of(renamedOrg.getId(), "Old Name")));
+        Mockito.when(personRepo.findAllById(anyIterable()))
+                .then(invocation -> people(invocation.getArgument(0), Map.of(changedPerson.getId(), "Old Last Name")));
 
-        // set up GO path - where every Org gets added
-        Mockito.when(personService.exists(Mockito.any(UUID.class))).thenReturn(false);
-        Mockito.when(personService.createPerson(Mockito.any(PersonDto.class))).then(returnsFirstArg());
-        Mockito.when(personService.updatePerson(Mockito.any(UUID.class), Mockito.any(PersonDto.class))).then(returnsSecondArg());
-        Mockito.when(orgRepo.existsById(Mockito.any(UUID.class))).thenReturn(false);
-        Mockito.when(orgService.createOrganization(Mockito.any(OrganizationDto.class))).then(returnsFirstArg());
-        Mockito.when(orgService.updateOrganization(Mockito.any(UUID.class), Mockito.any(OrganizationDto.class))).then(returnsSecondArg());
-        Mockito.when(orgService.getOrganization(Mockito.any())).thenReturn(new OrganizationDto());
-        Mockito.when(orgService.removeMember(Mockito.any(), Mockito.anyList())).thenReturn(new OrganizationDto());
-        Mockito.when(orgService.addMember(Mockito.any(), Mockito.anyList(), Mockito.anyBoolean())).thenReturn(new OrganizationDto());
+        // everyone is already in the orgs they are active in
+        Map<UUID, Set<UUID>> members = new HashMap<>();
+        syncedPeople().forEach(person -> person.getOrganizationStatus().forEach((orgId, active) -> {
+            if (active) members.computeIfAbsent(orgId, id -> new HashSet<>()).add(person.getId());
+        }));
+        Mockito.when(orgRepo.findMemberIdsByOrgIdIn(anyCollection())).thenReturn(members);
 
-        Map<String, Map<UUID, String>> result = puckboardExtractorService.persistOrgsAndMembers(orgNodes, peopleNodes, branchNodes);
+        PuckboardEtlResult result = puckboardExtractorService.syncOrgsAndMembers(dump, PuckboardEtlProgress.NONE);
 
-        assertEquals(unitCount, result.get("orgs").size());
-        assertEquals(peopleCount-1, result.get("people").size());  // minus one for the placeHolder person
+        assertEquals(1, result.getOrgsUpdated());
+        assertEquals(unitCount - 1, result.getOrgsUnchanged());
+        assertEquals(1, result.getPeopleUpdated());
+        assertEquals(peopleCount - 2, result.getPeopleUnchanged());
+        assertEquals(0, result.getMembershipsAdded());
+        assertTrue(result.getOrgStatus().get(renamedOrg.getId()).startsWith("Updated"));
+        assertTrue(result.getPersonStatus().get(changedPerson.getId()).startsWith("Updated"));
 
+        Mockito.verify(orgService, Mockito.never()).bulkImportOrgs(anyList());
+        Mockito.verify(personService, Mockito.never()).bulkImportPeople(anyList());
+
+        // one event each for all of the changed orgs and people
+        Mockito.verify(eventManagerService).recordEventAndPublish(Mockito.argThat(message -> message instanceof OrganizationChangedMessage
+                && ((OrganizationChangedMessage) message).getOrgIds().equals(Set.of(renamedOrg.getId()))));
+        Mockito.verify(eventManagerService).recordEventAndPublish(Mockito.argThat(message -> message instanceof PersonChangedMessage
+                && ((PersonChangedMessage) message).getPersonIds().equals(Set.of(changedPerson.getId()))));
+        Mockito.verify(eventManagerService, Mockito.times(2)).recordEventAndPublish(any());
+
+        Mockito.verify(eventManagerService, Mockito.never()).recordEventAndPublish(any(PersonOrgAddMessage.class));
     }
 
     @Test
-    void testPersistOrgsAndMembersUpdate() {
-
-        // set up GO path - where every Org gets UPDATED
-        Mockito.when(personService.exists(Mockito.any(UUID.class))).thenReturn(true);
-        Mockito.when(personService.createPerson(Mockito.any(PersonDto.class))).then(returnsFirstArg());
-        Mockito.when(personService.updatePerson(Mockito.any(UUID.class), Mockito.any(PersonDto.class))).then(returnsSecondArg());
-        Mockito.when(orgRepo.existsById(Mockito.any(UUID.class))).thenReturn(true);
-        Mockito.when(orgService.createOrganization(Mockito.any(OrganizationDto.class))).then(returnsFirstArg());
-        Mockito.when(orgService.updateOrganization(Mockito.any(UUID.class), Mockito.any(OrganizationDto.class))).then(returnsSecondArg());
-        Mockito.when(orgService.getOrganization(Mockito.any())).thenReturn(new OrganizationDto());
-        Mockito.when(orgService.removeMember(Mockito.any(), Mockito.anyList())).thenReturn(new OrganizationDto());
-        Mockito.when(orgService.addMember(Mockito.any(), Mockito.anyList(), Mockito.anyBoolean())).thenReturn(new OrganizationDto());
-
-        Map<String, Map<UUID, String>> result = puckboardExtractorService.persistOrgsAndMembers(orgNodes, peopleNodes, branchNodes);
-
-        assertEquals(unitCount, result.get("orgs").size());
-        assertEquals(peopleCount-1, result.get("people").size());
+    void testSyncReportsRejectedPeople() {
+        Mockito.when(orgRepo.findIdsByIdIn(anyCollection())).then(invocation -> new ArrayList<>(invocation.getArgument(0)));
+        Mockito.when(personRepo.findIdsByIdIn(anyCollection())).thenReturn(List.of());
+        Mockito.when(orgRepo.findAllById(anyIterable())).then(invocation -> organizations(invocation.getArgument(0), Map.of()));
+        Mockito.when(personRepo.findAllById(anyIterable())).then(invocation -> people(invocation.getArgument(0), Map.of()));
+
+        // reject the first person
+        Mockito.when(personService.bulkImportPeople(anyList())).then(invocation -> {
+            List<PersonDto> people = invocation.getArgument(0);
+            BulkImportResultDto<PersonDto> result = new BulkImportResultDto<>();
+            result.getCreated().addAll(people.subList(1, people.size()));
+            result.getErrors().add(BulkImportRowErrorDto.builder().row(0).id(people.get(0).getId()).message("Not Found").build());
+            return result;
+        });
+
+        PuckboardEtlResult result = puckboardExtractorService.syncOrgsAndMembers(dump, PuckboardEtlProgress.NONE);
+
+        // # people "created" should be one less since the first was rejected and minus another for the isPlaceholder
+        assertEquals(peopleCount - 2, (int) result.getPersonStatus().values().stream()
+                .filter(val -> val.contains("Created"))
+                .count());
+        assertEquals(1, result.getPeopleFailed());
+        assertEquals("Problem - " + syncedPeople().get(0).getFullName() + " (Not Found)",
+                result.getPersonStatus().get(syncedPeople().get(0).getId()));
     }
 
     @Test
-    void testPersistOrgsAndMembersExceptions() {
-
-        // set up GO path - where every Org gets UPDATED
-        Mockito.when(personService.exists(Mockito.any(UUID.class))).thenReturn(false);
-        Mockito.when(personService.createPerson(Mockito.any(PersonDto.class)))
-                .thenThrow(new RecordNotFoundException("Not Found"))  // throw exception on first item
-                .then(returnsFirstArg());
-
-        Mockito.when(personService.updatePerson(Mockito.any(UUID.class), Mockito.any(PersonDto.class))).then(returnsSecondArg());
-        Mockito.when(orgRepo.existsById(Mockito.any(UUID.class))).thenReturn(true);
-        Mockito.when(orgService.createOrganization(Mockito.any(OrganizationDto.class))).then(returnsFirstArg());
-        Mockito.when(orgService.updateOrganization(Mockito.any(UUID.class), Mockito.any(OrganizationDto.class))).then(returnsSecondArg());
-        Mockito.when(orgService.getOrganization(Mockito.any())).thenReturn(new OrganizationDto());
-        Mockito.when(orgService.removeMember(Mockito.any(), Mockito.anyList())).thenReturn(new OrganizationDto());
-        Mockito.when(orgService.addMember(Mockito.any(), Mockito.anyList(), Mockito.anyBoolean())).thenReturn(new OrganizationDto());
-
-        Map<String, Map<UUID, String>> result = puckboardExtractorService.persistOrgsAndMembers(orgNodes, peopleNodes, branchNodes);
-
-        assertEquals(unitCount, result.get("orgs").size());
-
-        // # people "created" should be one less since we threw exception on first item attempted to be created
-        // and minus another for the isPlaceholder
-        assertEquals(peopleCount-2, (int) result
-                                                .get("people")
-                                                .values()
-                                                .stream()
-                                                .filter(val -> val.contains("Created")).count());
+    void testSyncNormalizesNewAndExistingPeopleAlike() {
+        PuckboardDump.Person newPerson = new PuckboardDump.Person(UUID.randomUUID(), " New ", "Person",
+                "  New.Person@Test.com ", null, null, 0, false, null, Map.of());
+        PuckboardDump.Person existingPerson = new PuckboardDump.Person(UUID.randomUUID(), "Old", "Person",
+                " Old.Person@Test.com", null, null, 0, false, null, Map.of());
+        PuckboardDump small = new PuckboardDump(List.of(), List.of(newPerson, existingPerson), dump.getRanks());
+        PuckboardDump.Rank civilian = dump.getRanks().get(0);
+
+        Mockito.when(personRepo.findIdsByIdIn(anyCollection())).thenReturn(List.of(existingPerson.getId()));
+        Mockito.when(personRepo.findAllById(anyIterable())).thenReturn(List.of(Person.builder()
+                .id(existingPerson.getId())
+                .firstName("Old")
+                .lastName("Person")
+                .email("Old.Person@Test.com")
+                .title(civilian.getAbbreviation())
+                .build()));
+
+        PuckboardEtlResult result = puckboardExtractorService.syncOrgsAndMembers(small, PuckboardEtlProgress.NONE);
+
+        // the existing person's stored email already matches once trimmed
+        assertEquals(1, result.getPeopleCreated());
+        assertEquals(1, result.getPeopleUnchanged());
+
+        ArgumentCaptor<List<PersonDto>> created = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(personService).bulkImportPeople(created.capture());
+        assertEquals("New.Person@Test.com", created.getValue().get(0).getEmail());
+        assertEquals("New", created.getValue().get(0).getFirstName());
+
+        // a rank that isn't an exact match is looked up case insensitively
+        Mockito.verify(rankRepository).findByAbbreviationIgnoringCaseAndBranchType(civilian.getAbbreviation(), civilian.getBranch());
+    }
+
+    private List<PuckboardDump.Person> syncedPeople() {
+        return dump.getPersonnel().stream().filter(person -> !person.isPlaceholder()).collect(Collectors.toList());
+    }
+
+    // stored orgs as they'd look after an earlier sync, with the given names changed
+    private List<Organization> organizations(Iterable<UUID> ids, Map<UUID, String> oldNames) {
+        Map<UUID, PuckboardDump.Organization> pbOrgs = dump.getOrganizations().stream()
+                .collect(Collectors.toMap(PuckboardDump.Organization::getId, org -> org, (a, b) -> b));
+
+        List<Organization> orgs = new ArrayList<>();
+        for (UUID id : ids) {
+            Organization org = new Organization();
+            org.setId(id);
+            org.setName(oldNames.getOrDefault(id, pbOrgs.containsKey(id) ? pbOrgs.get(id).getName() : id.toString()));
+            orgs.add(org);
+        }
+
+        return orgs;
+    }
+
+    // stored people as they'd look after an earlier sync, with the given last names changed
+    private List<Person> people(Iterable<UUID> ids, Map<UUID, String> oldLastNames) {
+        Map<UUID, PuckboardDump.Person> pbPeople = dump.getPersonnel().stream()
+                .collect(Collectors.toMap(PuckboardDump.Person::getId, person -> person, (a, b) -> b));
+
+        List<Person> people = new ArrayList<>();
+        for (UUID id : ids) {
+            PuckboardDump.Person pbPerson = pbPeople.get(id);
+            PuckboardDump.Rank rank = dump.getRanks().getOrDefault(pbPerson.getRankId(), dump.getRanks().get(0));
+
+            Organization primary = new Organization();
+            primary.setId(pbPerson.getPrimaryOrganizationId());
+
+            people.add(Person.builder()
+                    .id(id)
+                    .firstName(pbPerson.getFirstName())
+                    .lastName(oldLastNames.getOrDefault(id, pbPerson.getLastName()))
+                    .email(pbPerson.getEmail())
+                    .dodid(pbPerson.getDodid())
+                    .dutyPhone(pbPerson.getPhone())
+                    .title(rank.getAbbreviation())
+                    .primaryOrganization(pbPerson.getPrimaryOrganizationId() == null ? null : primary)
+                    .build());
+        }
+
+        return people;
     }
 }
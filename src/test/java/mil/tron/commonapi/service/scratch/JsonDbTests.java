@@ -353,6 +353,41 @@ public class JsonDbTests {
 
     }
 
+    @Test
+    void testQueryJsonPushdownMatchesInMemoryEvaluation() {
+        UUID appId = UUID.randomUUID();
+        String table = "[ { \"name\": \"Chris\", \"age\": 40.0, \"email\": \"chris@test.com\", \"active\": true, \"rank\": null } ]";
+        Mockito.when(repository.findByAppIdAndKey(appId, "table")).thenReturn(Optional.of(ScratchStorageEntry.builder()
+                .id(UUID.randomUUID())
+                .key("table")
+                .value(table)
+                .build()));
+
+        // what Postgres's json operators hand back - the table's own text for the match
+        String[][] cases = {
+                { "$[0].name", "\"Chris\"" },
+                { "$[0].active", "true" },
+                { "$[0].rank", "null" },
+                { "$[0].age", "40.0" },
+                { "$[0]", "{ \"name\": \"Chris\", \"age\": 40.0, \"email\": \"chris@test.com\", \"active\": true, \"rank\": null }" },
+                { "$[*].age", "[40.0]" },
+                { "$", table },
+        };
+
+        for (String[] c : cases) {
+            Mockito.when(repository.supportsJsonPathQueries()).thenReturn(false);
+            Object inMemory = service.queryJson(appId, "table", c[0]);
+
+            Mockito.when(repository.supportsJsonPathQueries()).thenReturn(true);
+            Mockito.when(repository.queryValueByJsonPath(appId, "table", ScratchJsonPathTranslator.translate(c[0]).get()))
+                    .thenReturn(Optional.of(c[1]));
+            assertEquals(inMemory, service.queryJson(appId, "table", c[0]), c[0]);
+        }
+
+        // only the in-memory runs read the whole table
+        Mockito.verify(repository, Mockito.times(cases.length)).findByAppIdAndKey(appId, "table");
+    }
+
     @Test
     void testInvalidSchemaDetected() {
         UUID appId = UUID.randomUUID();
@@ -0,0 +1,43 @@
+package mil.tron.commonapi.service.scratch;
+
+import mil.tron.commonapi.repository.scratch.ScratchJsonPath;
+import mil.tron.commonapi.repository.scratch.ScratchJsonPath.Step;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScratchJsonPathTranslatorTest {
+
+    @Test
+    void testTranslatesDefinitePaths() {
+        assertEquals(Optional.of(new ScratchJsonPath(List.of(), true)), ScratchJsonPathTranslator.translate("$"));
+        assertEquals(Optional.of(new ScratchJsonPath(List.of(Step.field("name")), true)), ScratchJsonPathTranslator.translate("$.name"));
+        assertEquals(Optional.of(new ScratchJsonPath(List.of(Step.field("a b"), Step.index(2), Step.field("c")), true)),
+                ScratchJsonPathTranslator.translate("$['a b'][2].c"));
+    }
+
+    @Test
+    void testTranslatesIndefinitePaths() {
+        assertEquals(Optional.of(new ScratchJsonPath(List.of(Step.field("items"), Step.wildcard(), Step.field("id")), false)),
+                ScratchJsonPathTranslator.translate("$.items[*].id"));
+        assertEquals(Optional.of(new ScratchJsonPath(List.of(Step.wildcard()), false)), ScratchJsonPathTranslator.translate("$[*]"));
+    }
+
+    @Test
+    void testUnsupportedPathsAreNotTranslated() {
+        assertTrue(ScratchJsonPathTranslator.translate(null).isEmpty());
+        assertTrue(ScratchJsonPathTranslator.translate("{}").isEmpty());
+        assertTrue(ScratchJsonPathTranslator.translate("$..name").isEmpty());
+        assertTrue(ScratchJsonPathTranslator.translate("$.items.length()").isEmpty());
+        assertTrue(ScratchJsonPathTranslator.translate("$[0:2]").isEmpty());
+        assertTrue(ScratchJsonPathTranslator.translate("$[99999999999]").isEmpty());
+        assertTrue(ScratchJsonPathTranslator.translate("$[?(@.email =~ /.*test.mil/i)]").isEmpty());
+        assertTrue(ScratchJsonPathTranslator.translate("$[?(@.a == 1 && @.b == 2)]").isEmpty());
+        // filter comparisons don't behave the same in SQL
+        assertTrue(ScratchJsonPathTranslator.translate("$[?(@.email == 'joe@test.com')]").isEmpty());
+        assertTrue(ScratchJsonPathTranslator.translate("$.skills[?(@ != 'math')]").isEmpty());
+    }
+}
@@ -868,6 +868,73 @@ public class ScratchStorageServiceImplTest {
         assertThrows(InvalidFieldValueException.class, () -> service.getKeyValueJson(entry.getId(), "hello", "$.age"));
     }
 
+    @Test
+    void testGetKeyValueAsJsonPushedDownToDatabase() {
+        UUID appId = UUID.randomUUID();
+        Mockito.when(appRegistryRepo.findById(Mockito.any(UUID.class))).thenReturn(Optional.of(registeredApps.get(0)));
+        Mockito.when(repository.supportsJsonPathQueries()).thenReturn(true);
+        Mockito.when(repository.queryValueByJsonPath(appId, "hello", ScratchJsonPathTranslator.translate("$.skills[*]").get()))
+                .thenReturn(Optional.of("[\"coding\", \"math\"]"));
+
+        assertEquals("[ \"coding\", \"math\" ]", service.getKeyValueJson(appId, "hello", "$.skills[*]"));
+        Mockito.verify(repository, Mockito.never()).findByAppIdAndKey(Mockito.any(UUID.class), Mockito.anyString());
+
+        // unsupported syntax falls back to evaluating the full value in memory
+        Mockito.when(repository.findByAppIdAndKey(appId, "hello")).thenReturn(Optional.of(ScratchStorageEntry.builder()
+                .key("hello")
+                .value("{ \"name\": \"Dude\", \"skills\": [ \"coding\", \"math\" ] }")
+                .build()));
+        assertEquals("[ \"Dude\" ]", service.getKeyValueJson(appId, "hello", "$..name"));
+    }
+
+    /**
+     * Each case is a JsonPath and the text Postgres's json operators hand back for it - the stored value's own
+     * text for the match, or json_agg's array of them for indefinite paths.  Whatever the shape of the match,
+     * the response has to be the same as evaluating it in memory, without ever going back for the whole value.
+     */
+    @Test
+    void testGetKeyValueAsJsonPushdownMatchesInMemoryEvaluation() {
+        String value = "{ \"zeta\": \"last\", \"id\": \"x\", \"dup\": \"first\", \"dup\": \"second\", \"price\": 1.50, " +
+                "\"big\": 1e2, \"flag\": true, \"nothing\": null, \"tags\": [ \"b\", \"a\" ], " +
+                "\"items\": [ { \"name\": \"n1\", \"qty\": 2 }, { \"qty\": 3, \"name\": \"n2\" } ] }";
+        String[][] cases = {
+                { "$.zeta", "\"last\"" },
+                { "$.dup", "\"second\"" },
+                { "$.flag", "true" },
+                { "$.nothing", "null" },
+                { "$.price", "1.50" },
+                { "$.big", "1e2" },
+                { "$.tags", "[ \"b\", \"a\" ]" },
+                { "$.tags[*]", "[\"b\", \"a\"]" },
+                { "$.items[*].name", "[\"n1\", \"n2\"]" },
+                { "$.items[*].qty", "[2, 3]" },
+                { "$.items[*]", "[{ \"name\": \"n1\", \"qty\": 2 }, { \"qty\": 3, \"name\": \"n2\" }]" },
+                { "$.items[1]", "{ \"qty\": 3, \"name\": \"n2\" }" },
+                { "$.items[0][*]", "[\"n1\", 2]" },
+                { "$", value },
+        };
+
+        UUID appId = UUID.randomUUID();
+        Mockito.when(appRegistryRepo.findById(Mockito.any(UUID.class))).thenReturn(Optional.of(registeredApps.get(0)));
+        Mockito.when(repository.findByAppIdAndKey(appId, "hello")).thenReturn(Optional.of(ScratchStorageEntry.builder()
+                .key("hello")
+                .value(value)
+                .build()));
+
+        for (String[] c : cases) {
+            Mockito.when(repository.supportsJsonPathQueries()).thenReturn(false);
+            String inMemory = service.getKeyValueJson(appId, "hello", c[0]);
+
+            Mockito.when(repository.supportsJsonPathQueries()).thenReturn(true);
+            Mockito.when(repository.queryValueByJsonPath(appId, "hello", ScratchJsonPathTranslator.translate(c[0]).get()))
+                    .thenReturn(Optional.of(c[1]));
+            assertEquals(inMemory, service.getKeyValueJson(appId, "hello", c[0]), c[0]);
+        }
+
+        // only the in-memory runs read the whole value
+        Mockito.verify(repository, Mockito.times(cases.length)).findByAppIdAndKey(appId, "hello");
+    }
+
     @Test
     void testSetKeyValueAsJson() {
         ScratchStorageEntry entry = ScratchStorageEntry.builder()